@@ -0,0 +1,49 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.api.exceptions;
+
+/**
+ * Thrown when a request is rejected because the connection has too many requests in flight and queued.
+ */
+public class PlcOverloadException extends PlcRuntimeException {
+
+    private final int maxInFlight;
+
+    private final int maxQueued;
+
+    /**
+     * Indicates a request got rejected due to overload.
+     *
+     * @param maxInFlight configured maximum of requests in flight.
+     * @param maxQueued   configured maximum of requests waiting for admission.
+     */
+    public PlcOverloadException(int maxInFlight, int maxQueued) {
+        super("Request rejected, " + maxInFlight + " requests in flight and " + maxQueued + " queued");
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+}
@@ -38,4 +38,39 @@ public interface PlcFieldResponse extends PlcResponse {
 
     PlcResponseCode getResponseCode(String name);
 
+    /**
+     * @return the position of the field with the given name in {@link #getFieldNames()} or {@code -1} if there is no
+     * such field. Positions are stable for all responses to the same request.
+     */
+    default int getFieldIndex(String name) {
+        int fieldIndex = 0;
+        for (String fieldName : getFieldNames()) {
+            if (fieldName.equals(name)) {
+                return fieldIndex;
+            }
+            fieldIndex++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the name of the field at the given position in {@link #getFieldNames()}.
+     * @throws IndexOutOfBoundsException if there is no field at the given position.
+     */
+    default String getFieldName(int fieldIndex) {
+        if (fieldIndex >= 0) {
+            int currentIndex = 0;
+            for (String fieldName : getFieldNames()) {
+                if (currentIndex++ == fieldIndex) {
+                    return fieldName;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("No field at index " + fieldIndex);
+    }
+
+    default PlcResponseCode getResponseCode(int fieldIndex) {
+        return getResponseCode(getFieldName(fieldIndex));
+    }
+
 }
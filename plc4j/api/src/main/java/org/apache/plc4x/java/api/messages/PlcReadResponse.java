@@ -181,4 +181,75 @@ public interface PlcReadResponse extends PlcFieldResponse {
 
     Collection<Byte[]> getAllByteArrays(String name);
 
+    // Positional access, the field index being the position of the field in getFieldNames(). Implementations are
+    // expected to resolve these without looking up the field name.
+
+    default int getNumberOfValues(int fieldIndex) {
+        return getNumberOfValues(getFieldName(fieldIndex));
+    }
+
+    default Object getObject(int fieldIndex) {
+        return getObject(getFieldName(fieldIndex));
+    }
+
+    default Object getObject(int fieldIndex, int index) {
+        return getObject(getFieldName(fieldIndex), index);
+    }
+
+    default Boolean getBoolean(int fieldIndex) {
+        return getBoolean(getFieldName(fieldIndex));
+    }
+
+    default Byte getByte(int fieldIndex) {
+        return getByte(getFieldName(fieldIndex));
+    }
+
+    default Short getShort(int fieldIndex) {
+        return getShort(getFieldName(fieldIndex));
+    }
+
+    default Integer getInteger(int fieldIndex) {
+        return getInteger(getFieldName(fieldIndex));
+    }
+
+    default BigInteger getBigInteger(int fieldIndex) {
+        return getBigInteger(getFieldName(fieldIndex));
+    }
+
+    default Long getLong(int fieldIndex) {
+        return getLong(getFieldName(fieldIndex));
+    }
+
+    default Float getFloat(int fieldIndex) {
+        return getFloat(getFieldName(fieldIndex));
+    }
+
+    default Double getDouble(int fieldIndex) {
+        return getDouble(getFieldName(fieldIndex));
+    }
+
+    default BigDecimal getBigDecimal(int fieldIndex) {
+        return getBigDecimal(getFieldName(fieldIndex));
+    }
+
+    default String getString(int fieldIndex) {
+        return getString(getFieldName(fieldIndex));
+    }
+
+    default LocalTime getTime(int fieldIndex) {
+        return getTime(getFieldName(fieldIndex));
+    }
+
+    default LocalDate getDate(int fieldIndex) {
+        return getDate(getFieldName(fieldIndex));
+    }
+
+    default LocalDateTime getDateTime(int fieldIndex) {
+        return getDateTime(getFieldName(fieldIndex));
+    }
+
+    default Byte[] getByteArray(int fieldIndex) {
+        return getByteArray(getFieldName(fieldIndex));
+    }
+
 }
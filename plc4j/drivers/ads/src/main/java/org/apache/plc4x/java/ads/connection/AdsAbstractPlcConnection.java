@@ -18,19 +18,22 @@
  */
 package org.apache.plc4x.java.ads.connection;
 
-import io.netty.channel.ChannelFuture;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.SystemConfiguration;
+import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
 import org.apache.plc4x.java.ads.api.commands.AdsReadWriteRequest;
 import org.apache.plc4x.java.ads.api.commands.AdsReadWriteResponse;
 import org.apache.plc4x.java.ads.api.commands.AdsWriteRequest;
 import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
 import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
 import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
 import org.apache.plc4x.java.ads.api.generic.types.Invoke;
 import org.apache.plc4x.java.ads.model.AdsPlcFieldHandler;
+import org.apache.plc4x.java.ads.model.AdsSymbolTable;
 import org.apache.plc4x.java.ads.model.DirectAdsField;
 import org.apache.plc4x.java.ads.model.SymbolicAdsField;
+import org.apache.plc4x.java.ads.protocol.util.AdsSymbolUpload;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.*;
@@ -40,7 +43,10 @@ import org.apache.plc4x.java.base.messages.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implements PlcReader, PlcWriter, PlcProprietarySender {
 
@@ -48,6 +54,8 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
 
     protected static final Configuration CONF = new SystemConfiguration();
     protected static final long SYMBOL_RESOLVE_TIMEOUT = CONF.getLong("plc4x.adsconnection.symbol.resolve,timeout", 3000);
+    protected static final long SYMBOL_UPLOAD_TIMEOUT = CONF.getLong("plc4x.adsconnection.symbol.upload.timeout", 30000);
+    protected static final boolean LAZY_DECODING = CONF.getBoolean("plc4x.adsconnection.lazy.decoding", false);
 
     protected final AmsNetId targetAmsNetId;
 
@@ -59,6 +67,15 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
 
     protected final ConcurrentMap<SymbolicAdsField, DirectAdsField> fieldMapping;
 
+    private final ConcurrentMap<SymbolicAdsField, CompletableFuture<DirectAdsField>> pendingResolutions = new ConcurrentHashMap<>();
+
+    private volatile boolean symbolUpload = CONF.getBoolean("plc4x.adsconnection.symbol.upload", false);
+
+    private final AtomicReference<CompletableFuture<AdsSymbolTable>> symbolTable = new AtomicReference<>();
+
+    // Fields resolved by the symbol table instead of a handle, they have to go once the table gets invalid.
+    private final Set<SymbolicAdsField> indexedFields = ConcurrentHashMap.newKeySet();
+
     protected AdsAbstractPlcConnection(ChannelFactory channelFactory, AmsNetId targetAmsNetId, AmsPort targetAmsPort) {
         this(channelFactory, targetAmsNetId, targetAmsPort, generateAMSNetId(), generateAMSPort());
     }
@@ -102,12 +119,7 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
     public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
         mapFields(readRequest);
         CompletableFuture<InternalPlcReadResponse> readFuture = new CompletableFuture<>();
-        ChannelFuture channelFuture = channel.writeAndFlush(new PlcRequestContainer<>((InternalPlcReadRequest) readRequest, readFuture));
-        channelFuture.addListener(future -> {
-            if (!future.isSuccess()) {
-                readFuture.completeExceptionally(future.cause());
-            }
-        });
+        sendRequest(new PlcRequestContainer<>((InternalPlcReadRequest) readRequest, readFuture));
         return readFuture
             .thenApply(PlcReadResponse.class::cast);
     }
@@ -126,12 +138,7 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
     public CompletableFuture<PlcWriteResponse> write(PlcWriteRequest writeRequest) {
         mapFields(writeRequest);
         CompletableFuture<InternalPlcWriteResponse> writeFuture = new CompletableFuture<>();
-        ChannelFuture channelFuture = channel.writeAndFlush(new PlcRequestContainer<>((InternalPlcWriteRequest) writeRequest, writeFuture));
-        channelFuture.addListener(future -> {
-            if (!future.isSuccess()) {
-                writeFuture.completeExceptionally(future.cause());
-            }
-        });
+        sendRequest(new PlcRequestContainer<>((InternalPlcWriteRequest) writeRequest, writeFuture));
         return writeFuture
             .thenApply(PlcWriteResponse.class::cast);
     }
@@ -139,12 +146,7 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
     @Override
     public <T> CompletableFuture<PlcProprietaryResponse<T>> send(PlcProprietaryRequest proprietaryRequest) {
         CompletableFuture<InternalPlcProprietaryResponse<T>> sendFuture = new CompletableFuture<>();
-        ChannelFuture channelFuture = channel.writeAndFlush(new PlcRequestContainer<>((InternalPlcProprietaryRequest) proprietaryRequest, sendFuture));
-        channelFuture.addListener(future -> {
-            if (!future.isSuccess()) {
-                sendFuture.completeExceptionally(future.cause());
-            }
-        });
+        sendRequest(new PlcRequestContainer<>((InternalPlcProprietaryRequest) proprietaryRequest, sendFuture));
         return sendFuture
             .thenApply(PlcProprietaryResponse.class::cast);
     }
@@ -158,35 +160,185 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
     }
 
     protected void mapFields(SymbolicAdsField symbolicAdsField) {
-        // If the map doesn't contain an entry for the given symbolicAdsField,
-        // resolve it and add it to the map.
-        fieldMapping.computeIfAbsent(symbolicAdsField, symbolicAdsFieldInternal -> {
-            LOGGER.debug("Resolving {}", symbolicAdsFieldInternal);
-            AdsReadWriteRequest adsReadWriteRequest = AdsReadWriteRequest.of(
-                targetAmsNetId,
-                targetAmsPort,
-                sourceAmsNetId,
-                sourceAmsPort,
-                Invoke.NONE,
-                IndexGroup.ReservedGroups.ADSIGRP_SYM_HNDBYNAME,
-                IndexOffset.NONE,
-                ReadLength.of(IndexOffset.NUM_BYTES),
-                Data.of(symbolicAdsFieldInternal.getSymbolicField())
-            );
-
-            // TODO: This is blocking, should be changed to be async.
-            CompletableFuture<InternalPlcProprietaryResponse<AdsReadWriteResponse>> getHandelFuture = new CompletableFuture<>();
-            channel.writeAndFlush(new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(adsReadWriteRequest), getHandelFuture));
-            InternalPlcProprietaryResponse<AdsReadWriteResponse> getHandleResponse = getFromFuture(getHandelFuture, SYMBOL_RESOLVE_TIMEOUT);
-            AdsReadWriteResponse response = getHandleResponse.getResponse();
-
-            if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
-                throw new PlcRuntimeException("Non error code received " + response.getResult());
+        if (fieldMapping.containsKey(symbolicAdsField)) {
+            return;
+        }
+        // The lookup goes through sendRequest, so it is subject to admission control and its own deadline, the
+        // timeout here only bounds the wait of the caller.
+        getFromFuture(resolveField(symbolicAdsField), symbolUpload ? SYMBOL_UPLOAD_TIMEOUT + SYMBOL_RESOLVE_TIMEOUT : SYMBOL_RESOLVE_TIMEOUT);
+    }
+
+    /**
+     * Non blocking variant of {@link #mapFields(SymbolicAdsField)}, concurrent resolutions of the same field share
+     * one request. With {@link #setSymbolUpload(boolean) symbol upload} enabled the field is looked up in the
+     * {@link #getSymbolTable() symbol table} first.
+     *
+     * @return a future completed with the resolved field.
+     */
+    protected CompletableFuture<DirectAdsField> resolveField(SymbolicAdsField symbolicAdsField) {
+        DirectAdsField directAdsField = fieldMapping.get(symbolicAdsField);
+        if (directAdsField != null) {
+            return CompletableFuture.completedFuture(directAdsField);
+        }
+        CompletableFuture<DirectAdsField> resolution = new CompletableFuture<>();
+        CompletableFuture<DirectAdsField> pendingResolution = pendingResolutions.putIfAbsent(symbolicAdsField, resolution);
+        if (pendingResolution != null) {
+            return pendingResolution;
+        }
+        LOGGER.debug("Resolving {}", symbolicAdsField);
+        CompletableFuture<DirectAdsField> resolvedField = symbolUpload
+            ? resolveBySymbolTable(symbolicAdsField)
+            : resolveByHandle(symbolicAdsField);
+        resolvedField.whenComplete((field, throwable) -> {
+            pendingResolutions.remove(symbolicAdsField, resolution);
+            if (throwable != null) {
+                resolution.completeExceptionally(throwable);
+            } else {
+                resolution.complete(field);
             }
+        });
+        return resolution;
+    }
+
+    private CompletableFuture<DirectAdsField> resolveByHandle(SymbolicAdsField symbolicAdsField) {
+        return this.<AdsReadWriteResponse>sendAmsPacket(createGetHandleRequest(symbolicAdsField), SYMBOL_RESOLVE_TIMEOUT)
+            .thenApply(response -> fieldMapping.computeIfAbsent(symbolicAdsField, ignore -> toDirectAdsField(symbolicAdsField, response)));
+    }
+
+    private CompletableFuture<DirectAdsField> resolveBySymbolTable(SymbolicAdsField symbolicAdsField) {
+        CompletableFuture<AdsSymbolTable> tableFuture = getSymbolTable();
+        return tableFuture
+            // Without a table every field is resolved by handle.
+            .handle((table, throwable) -> table)
+            .thenCompose(table -> {
+                DirectAdsField directAdsField = table != null ? table.resolve(symbolicAdsField) : null;
+                if (directAdsField == null) {
+                    // E.g. members of structs, the table only contains top level symbols.
+                    return resolveByHandle(symbolicAdsField);
+                }
+                indexedFields.add(symbolicAdsField);
+                DirectAdsField mappedField = fieldMapping.computeIfAbsent(symbolicAdsField, ignore -> directAdsField);
+                if (symbolTable.get() != tableFuture) {
+                    // The table got invalid while resolving, don't keep what was resolved from it.
+                    fieldMapping.remove(symbolicAdsField, directAdsField);
+                }
+                return CompletableFuture.completedFuture(mappedField);
+            });
+    }
+
+    /**
+     * Whether to resolve symbolic fields by the symbol table of the PLC, which is uploaded once, instead of asking
+     * the PLC for a handle per symbol. Defaults to the system property {@code plc4x.adsconnection.symbol.upload}.
+     */
+    public void setSymbolUpload(boolean symbolUpload) {
+        this.symbolUpload = symbolUpload;
+    }
+
+    public boolean isSymbolUpload() {
+        return symbolUpload;
+    }
 
-            IndexOffset symbolHandle = IndexOffset.of(response.getData().getBytes());
-            return DirectAdsField.of(IndexGroup.ReservedGroups.ADSIGRP_SYM_VALBYHND.getAsLong(), symbolHandle.getAsLong(), symbolicAdsFieldInternal.getAdsDataType(), symbolicAdsFieldInternal.getNumberOfElements());
+    /**
+     * @return the symbol table of the PLC, uploaded on the first call and kept until it gets
+     * {@link #invalidateSymbolTable() invalidated}. A failed upload isn't retried before that either.
+     */
+    public CompletableFuture<AdsSymbolTable> getSymbolTable() {
+        CompletableFuture<AdsSymbolTable> current = symbolTable.get();
+        if (current != null) {
+            return current;
+        }
+        CompletableFuture<AdsSymbolTable> upload = new CompletableFuture<>();
+        if (!symbolTable.compareAndSet(null, upload)) {
+            return symbolTable.get();
+        }
+        uploadSymbolTable().whenComplete((table, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("Uploading the symbol table of {} failed, resolving symbols by handle", targetAmsNetId, throwable);
+                upload.completeExceptionally(throwable);
+                return;
+            }
+            LOGGER.debug("Uploaded {} of {}", table, targetAmsNetId);
+            upload.complete(table);
+            onSymbolTableUploaded(table);
         });
+        return upload;
+    }
+
+    private CompletableFuture<AdsSymbolTable> uploadSymbolTable() {
+        return this.<AdsReadResponse>sendAmsPacket(AdsSymbolUpload.readSymbolVersion(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort), SYMBOL_RESOLVE_TIMEOUT)
+            .thenCompose(versionResponse -> {
+                int version = AdsSymbolUpload.decodeSymbolVersion(versionResponse);
+                return this.<AdsReadResponse>sendAmsPacket(AdsSymbolUpload.readUploadInfo(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort), SYMBOL_RESOLVE_TIMEOUT)
+                    .thenCompose(uploadInfoResponse -> {
+                        AdsSymbolUpload.UploadInfo uploadInfo = AdsSymbolUpload.decodeUploadInfo(uploadInfoResponse);
+                        return this.<AdsReadResponse>sendAmsPacket(AdsSymbolUpload.readSymbols(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, uploadInfo), SYMBOL_UPLOAD_TIMEOUT)
+                            .thenApply(symbolsResponse -> AdsSymbolUpload.decodeSymbols(version, uploadInfo, symbolsResponse));
+                    });
+            });
+    }
+
+    /**
+     * Called once a symbol table got uploaded, e.g. to watch the symbol version of the PLC.
+     */
+    protected void onSymbolTableUploaded(AdsSymbolTable adsSymbolTable) {
+        // Implemented in sub-classes, if needed.
+    }
+
+    /**
+     * @return the uploaded symbol table or {@code null} if there is none (yet).
+     */
+    protected AdsSymbolTable getUploadedSymbolTable() {
+        CompletableFuture<AdsSymbolTable> current = symbolTable.get();
+        return current != null && current.isDone() && !current.isCompletedExceptionally() ? current.join() : null;
+    }
+
+    /**
+     * Drops the symbol table and all fields resolved by it, the table is uploaded again on the next resolution.
+     */
+    public void invalidateSymbolTable() {
+        if (symbolTable.getAndSet(null) == null) {
+            return;
+        }
+        LOGGER.info("Invalidating the symbol table of {}", targetAmsNetId);
+        for (SymbolicAdsField indexedField : indexedFields) {
+            indexedFields.remove(indexedField);
+            fieldMapping.remove(indexedField);
+        }
+    }
+
+    private AdsReadWriteRequest createGetHandleRequest(SymbolicAdsField symbolicAdsField) {
+        return AdsReadWriteRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            IndexGroup.ReservedGroups.ADSIGRP_SYM_HNDBYNAME,
+            IndexOffset.NONE,
+            ReadLength.of(IndexOffset.NUM_BYTES),
+            Data.of(symbolicAdsField.getSymbolicField())
+        );
+    }
+
+    private static DirectAdsField toDirectAdsField(SymbolicAdsField symbolicAdsField, AdsReadWriteResponse response) {
+        if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+            throw new PlcRuntimeException("Non error code received " + response.getResult());
+        }
+
+        IndexOffset symbolHandle = IndexOffset.of(response.getData().getBytes());
+        return DirectAdsField.of(IndexGroup.ReservedGroups.ADSIGRP_SYM_VALBYHND.getAsLong(), symbolHandle.getAsLong(), symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
+    }
+
+    /**
+     * Sends the given packet without waiting for the response.
+     *
+     * @param timeout milliseconds after which the returned future fails if no response arrived.
+     * @return a future completed with the response packet.
+     */
+    protected <T extends AmsPacket> CompletableFuture<T> sendAmsPacket(AmsPacket amsPacket, long timeout) {
+        CompletableFuture<InternalPlcProprietaryResponse<T>> responseFuture = new CompletableFuture<>();
+        sendRequest(new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(amsPacket), responseFuture).withTimeout(Duration.ofMillis(timeout)));
+        return responseFuture.thenApply(InternalPlcProprietaryResponse::getResponse);
     }
 
     protected static AmsNetId generateAMSNetId() {
@@ -201,6 +353,8 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
     public void close() throws PlcConnectionException {
         fieldMapping.values().stream()
             .parallel()
+            // Fields resolved by the symbol table don't hold a handle.
+            .filter(adsField -> adsField.getIndexGroup() == IndexGroup.ReservedGroups.ADSIGRP_SYM_VALBYHND.getAsLong())
             .map(adsField -> AdsWriteRequest.of(
                 targetAmsNetId,
                 targetAmsPort,
@@ -209,7 +363,7 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
                 Invoke.NONE,
                 IndexGroup.ReservedGroups.ADSIGRP_SYM_RELEASEHND,
                 IndexOffset.NONE,
-                Data.of(IndexGroup.of(adsField.getIndexGroup()).getBytes())
+                Data.of(IndexOffset.of(adsField.getIndexOffset()).getBytes())
             ))
             .map(adsWriteRequest -> new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(adsWriteRequest), new CompletableFuture<>()))
             // We don't need a response so we just supply a throw away future.
@@ -223,6 +377,7 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
      */
     public void clearMapping() {
         fieldMapping.clear();
+        indexedFields.clear();
     }
 
     protected <T> T getFromFuture(CompletableFuture<T> future, long timeout) {
@@ -232,7 +387,12 @@ public abstract class AdsAbstractPlcConnection extends NettyPlcConnection implem
             LOGGER.warn("Interrupted!", e);
             Thread.currentThread().interrupt();
             throw new PlcRuntimeException(e);
-        } catch (ExecutionException | TimeoutException e) {
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PlcRuntimeException) {
+                throw (PlcRuntimeException) e.getCause();
+            }
+            throw new PlcRuntimeException(e);
+        } catch (TimeoutException e) {
             throw new PlcRuntimeException(e);
         }
     }
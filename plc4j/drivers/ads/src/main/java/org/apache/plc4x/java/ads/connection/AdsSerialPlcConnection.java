@@ -60,8 +60,9 @@ public class AdsSerialPlcConnection extends AdsAbstractPlcConnection {
                 ChannelPipeline pipeline = channel.pipeline();
                 pipeline.addLast(new Payload2SerialProtocol());
                 pipeline.addLast(new SingleMessageRateLimiter());
-                pipeline.addLast(new Ads2PayloadProtocol());
-                pipeline.addLast(new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping));
+                Ads2PayloadProtocol ads2PayloadProtocol = Ads2PayloadProtocol.flyweight();
+                pipeline.addLast(ads2PayloadProtocol);
+                pipeline.addLast(new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping, ads2PayloadProtocol.isFlyweight(), LAZY_DECODING));
                 pipeline.addLast(new SingleItemToSingleRequestProtocol(AdsSerialPlcConnection.this, AdsSerialPlcConnection.this, null, timer));
             }
         };
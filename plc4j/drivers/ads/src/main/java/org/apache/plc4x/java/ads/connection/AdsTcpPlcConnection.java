@@ -25,14 +25,17 @@ import io.netty.channel.ChannelPipeline;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.plc4x.java.ads.api.commands.*;
 import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
 import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
 import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
 import org.apache.plc4x.java.ads.api.generic.types.Invoke;
 import org.apache.plc4x.java.ads.model.*;
 import org.apache.plc4x.java.ads.protocol.Ads2PayloadProtocol;
+import org.apache.plc4x.java.ads.protocol.AdsNotificationDispatcher;
 import org.apache.plc4x.java.ads.protocol.Payload2TcpProtocol;
 import org.apache.plc4x.java.ads.protocol.Plc4x2AdsProtocol;
-import org.apache.plc4x.java.ads.protocol.util.LittleEndianDecoder;
+import org.apache.plc4x.java.ads.protocol.util.AdsSumCommands;
+import org.apache.plc4x.java.ads.protocol.util.AdsSymbolUpload;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.*;
@@ -42,7 +45,6 @@ import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.connection.TcpSocketChannelFactory;
 import org.apache.plc4x.java.base.messages.*;
-import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
 import org.apache.plc4x.java.base.model.DefaultPlcConsumerRegistration;
 import org.apache.plc4x.java.base.model.InternalPlcConsumerRegistration;
 import org.apache.plc4x.java.base.model.InternalPlcSubscriptionHandle;
@@ -55,12 +57,15 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -74,10 +79,24 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
 
     private static final long ADD_DEVICE_TIMEOUT = CONF.getLong("plc4x.adsconnection.add.device,timeout", 3000);
     private static final long DEL_DEVICE_TIMEOUT = CONF.getLong("plc4x.adsconnection.del.device,timeout", 3000);
+    private static final boolean SUM_COMMANDS = CONF.getBoolean("plc4x.adsconnection.sum.commands", true);
+
+    private static final String SYMBOL_VERSION_FIELD = "symbolVersion";
 
     private static AtomicInteger localPorts = new AtomicInteger(30000);
 
-    private Map<InternalPlcConsumerRegistration, Consumer<AdsDeviceNotificationRequest>> consumerRegistrations = new HashMap<>();
+    private final Map<InternalPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumerRegistrations = new ConcurrentHashMap<>();
+
+    private final AdsNotificationDispatcher notificationDispatcher = new AdsNotificationDispatcher();
+
+    // Cleared once the target rejects a sum command, from then on every notification is added or deleted on its own.
+    private volatile boolean sumCommandsSupported = SUM_COMMANDS;
+
+    private final AtomicBoolean watchingSymbolVersion = new AtomicBoolean();
+
+    private final Consumer<PlcSubscriptionEvent> symbolVersionConsumer = this::onSymbolVersion;
+
+    private volatile AdsSubscriptionHandle symbolVersionHandle;
 
     private AdsTcpPlcConnection(InetAddress address, AmsNetId targetAmsNetId, AmsPort targetAmsPort) {
         this(address, targetAmsNetId, targetAmsPort, generateAMSNetId(), generateAMSPort());
@@ -119,15 +138,64 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
                 // Build the protocol stack for communicating with the ads protocol.
                 ChannelPipeline pipeline = channel.pipeline();
                 pipeline.addLast(new Payload2TcpProtocol());
-                pipeline.addLast(new Ads2PayloadProtocol());
-                pipeline.addLast(new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping));
+                Ads2PayloadProtocol ads2PayloadProtocol = Ads2PayloadProtocol.flyweight();
+                pipeline.addLast(ads2PayloadProtocol);
+                Plc4x2AdsProtocol plc4x2AdsProtocol = new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping, ads2PayloadProtocol.isFlyweight(), LAZY_DECODING);
+                plc4x2AdsProtocol.addConsumer(notificationDispatcher);
+                pipeline.addLast(plc4x2AdsProtocol);
                 pipeline.addLast(new SingleItemToSingleRequestProtocol(AdsTcpPlcConnection.this, AdsTcpPlcConnection.this, AdsTcpPlcConnection.this, timer, SingleItemToSingleRequestProtocol.SplitConfig.builder().dontSplitSubscribe().dontSplitUnsubscribe().build(), false));
             }
         };
     }
 
+    /**
+     * Decodes and dispatches notifications on the given executor instead of the I/O thread of this connection.
+     *
+     * @param executor executor to use or {@code null} to dispatch on the I/O thread again.
+     */
+    public void setNotificationExecutor(Executor executor) {
+        notificationDispatcher.setExecutor(executor);
+    }
+
+    /**
+     * Watches the symbol version of the PLC after the first upload of its symbol table, the table gets invalidated as
+     * soon as the version changes.
+     */
+    @Override
+    protected void onSymbolTableUploaded(AdsSymbolTable adsSymbolTable) {
+        if (!watchingSymbolVersion.compareAndSet(false, true)) {
+            return;
+        }
+        this.<AdsAddDeviceNotificationResponse>sendAmsPacket(AdsSymbolUpload.addSymbolVersionNotification(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort), ADD_DEVICE_TIMEOUT)
+            .whenComplete((response, throwable) -> {
+                if (throwable != null || response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+                    LOGGER.warn("Can't watch the symbol version of {}, the symbol table won't be invalidated on changes ({})",
+                        targetAmsNetId, throwable != null ? throwable : response.getResult());
+                    watchingSymbolVersion.set(false);
+                    return;
+                }
+                AdsSubscriptionHandle handle = new AdsSubscriptionHandle(this, SYMBOL_VERSION_FIELD, AdsDataType.USINT, response.getNotificationHandle());
+                symbolVersionHandle = handle;
+                notificationDispatcher.register(symbolVersionConsumer, Collections.singletonList(handle));
+            });
+    }
+
+    private void onSymbolVersion(PlcSubscriptionEvent event) {
+        AdsSymbolTable adsSymbolTable = getUploadedSymbolTable();
+        if (adsSymbolTable == null || !event.isValidInteger(SYMBOL_VERSION_FIELD)) {
+            return;
+        }
+        int version = event.getInteger(SYMBOL_VERSION_FIELD);
+        if (version != adsSymbolTable.getVersion()) {
+            LOGGER.info("Symbol version of {} changed from {} to {}", targetAmsNetId, adsSymbolTable.getVersion(), version);
+            invalidateSymbolTable();
+        }
+    }
+
     public InetAddress getRemoteAddress() {
-        return ((TcpSocketChannelFactory) channelFactory).getAddress();
+        return channelFactory.unwrap(TcpSocketChannelFactory.class)
+            .map(TcpSocketChannelFactory::getAddress)
+            .orElseThrow(() -> new PlcRuntimeException("Not connected via TCP"));
     }
 
     protected static AmsNetId generateAMSNetId() {
@@ -145,123 +213,214 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
     @Override
     public CompletableFuture<PlcSubscriptionResponse> subscribe(PlcSubscriptionRequest plcSubscriptionRequest) {
         InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = checkInternal(plcSubscriptionRequest, InternalPlcSubscriptionRequest.class);
-        CompletableFuture<PlcSubscriptionResponse> future = new CompletableFuture<>();
-
-        Map<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> responseItems = internalPlcSubscriptionRequest.getSubscriptionPlcFieldMap().entrySet().stream()
-            .map(subscriptionPlcFieldEntry -> {
-                final String plcFieldName = subscriptionPlcFieldEntry.getKey();
-                final SubscriptionPlcField subscriptionPlcField = subscriptionPlcFieldEntry.getValue();
-                final PlcField field = Objects.requireNonNull(subscriptionPlcField.getPlcField());
-
-                final IndexGroup indexGroup;
-                final IndexOffset indexOffset;
-                final AdsDataType adsDataType;
-                final int numberOfElements;
-                // If this is a symbolic field, it has to be resolved first.
-                // TODO: This is blocking, should be changed to be async.
-                if (field instanceof SymbolicAdsField) {
-                    mapFields((SymbolicAdsField) field);
-                    DirectAdsField directAdsField = fieldMapping.get(field);
-                    if (directAdsField == null) {
-                        throw new PlcRuntimeException("Unresolvable field " + field);
-                    }
-                    indexGroup = IndexGroup.of(directAdsField.getIndexGroup());
-                    indexOffset = IndexOffset.of(directAdsField.getIndexOffset());
-                    adsDataType = directAdsField.getAdsDataType();
-                    numberOfElements = directAdsField.getNumberOfElements();
-                }
-                // If it's no symbolic field, we can continue immediately
-                // without having to do any resolving.
-                else if (field instanceof DirectAdsField) {
-                    DirectAdsField directAdsField = (DirectAdsField) field;
-                    indexGroup = IndexGroup.of(directAdsField.getIndexGroup());
-                    indexOffset = IndexOffset.of(directAdsField.getIndexOffset());
-                    adsDataType = directAdsField.getAdsDataType();
-                    numberOfElements = directAdsField.getNumberOfElements();
-                } else {
-                    throw new IllegalArgumentException("Unsupported field type " + field.getClass());
-                }
 
-                final TransmissionMode transmissionMode;
-                long cycleTime = 4000000;
-                switch (subscriptionPlcField.getPlcSubscriptionType()) {
-                    case CYCLIC:
-                        transmissionMode = TransmissionMode.DefinedValues.ADSTRANS_SERVERCYCLE;
-                        cycleTime = subscriptionPlcField.getDuration().orElse(Duration.ofSeconds(1)).toMillis();
-                        break;
-                    case CHANGE_OF_STATE:
-                        transmissionMode = TransmissionMode.DefinedValues.ADSTRANS_SERVERONCHA;
-                        break;
-                    default:
-                        throw new PlcRuntimeException("Unmapped type " + subscriptionPlcField.getPlcSubscriptionType());
+        List<String> plcFieldNames = new ArrayList<>();
+        List<SubscriptionPlcField> subscriptionPlcFields = new ArrayList<>();
+        List<CompletableFuture<DirectAdsField>> directAdsFields = new ArrayList<>();
+        internalPlcSubscriptionRequest.getSubscriptionPlcFieldMap().forEach((plcFieldName, subscriptionPlcField) -> {
+            plcFieldNames.add(plcFieldName);
+            subscriptionPlcFields.add(subscriptionPlcField);
+            directAdsFields.add(toDirectAdsField(Objects.requireNonNull(subscriptionPlcField.getPlcField())));
+        });
+
+        // Symbolic fields are resolved concurrently, afterwards all notifications are added at once. A field that
+        // can't be resolved is reported through its response code, the others are subscribed regardless.
+        List<CompletableFuture<DirectAdsField>> resolutions = new ArrayList<>(directAdsFields.size());
+        PlcResponseCode[] resolutionCodes = new PlcResponseCode[directAdsFields.size()];
+        for (int i = 0; i < directAdsFields.size(); i++) {
+            String plcFieldName = plcFieldNames.get(i);
+            int index = i;
+            resolutions.add(directAdsFields.get(i).handle((directAdsField, throwable) -> {
+                if (throwable != null) {
+                    LOGGER.warn("Resolving {} failed", plcFieldName, throwable);
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    resolutionCodes[index] = cause instanceof IllegalArgumentException ? PlcResponseCode.INVALID_ADDRESS : PlcResponseCode.NOT_FOUND;
+                    return null;
                 }
-
-                // Prepare the subscription request itself.
-                AdsAddDeviceNotificationRequest adsAddDeviceNotificationRequest = AdsAddDeviceNotificationRequest.of(
-                    targetAmsNetId,
-                    targetAmsPort,
-                    sourceAmsNetId,
-                    sourceAmsPort,
-                    Invoke.NONE,
-                    indexGroup,
-                    indexOffset,
-                    Length.of(adsDataType.getTargetByteSize() * (long) numberOfElements),
-                    transmissionMode,
-                    // We set max delay to cycle time as we don't have a second parameter for this in the plc4j-api
-                    MaxDelay.of(cycleTime + 1),
-                    CycleTime.of(cycleTime)
-                );
-
-                // Send the request to the plc and wait for a response
-                // TODO: This is blocking, should be changed to be async.
-                CompletableFuture<InternalPlcProprietaryResponse<AdsAddDeviceNotificationResponse>> addDeviceFuture = new CompletableFuture<>();
-                channel.writeAndFlush(new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(adsAddDeviceNotificationRequest), addDeviceFuture));
-                InternalPlcProprietaryResponse<AdsAddDeviceNotificationResponse> addDeviceResponse = getFromFuture(addDeviceFuture, ADD_DEVICE_TIMEOUT);
-                AdsAddDeviceNotificationResponse response = addDeviceResponse.getResponse();
-
-                // Abort if we got anything but a successful response.
-                if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
-                    throw new PlcRuntimeException("Error code received " + response.getResult());
+                return directAdsField;
+            }));
+        }
+        return allOf(resolutions)
+            .thenCompose(resolvedFields -> {
+                List<Integer> subscribed = new ArrayList<>(resolvedFields.size());
+                List<AdsAddDeviceNotificationRequest> adsAddDeviceNotificationRequests = new ArrayList<>(resolvedFields.size());
+                for (int i = 0; i < resolvedFields.size(); i++) {
+                    if (resolvedFields.get(i) != null) {
+                        subscribed.add(i);
+                        adsAddDeviceNotificationRequests.add(createAddDeviceNotificationRequest(resolvedFields.get(i), subscriptionPlcFields.get(i)));
+                    }
                 }
-                PlcSubscriptionHandle adsSubscriptionHandle = new AdsSubscriptionHandle(this, plcFieldName, adsDataType, response.getNotificationHandle());
-                return Pair.of(plcFieldName, Pair.of(PlcResponseCode.OK, adsSubscriptionHandle));
-            })
-            .collect(Collectors.toMap(Pair::getKey, Pair::getValue));
+                CompletableFuture<List<AdsAddDeviceNotificationResponse>> responsesFuture = adsAddDeviceNotificationRequests.isEmpty()
+                    ? CompletableFuture.completedFuture(Collections.emptyList())
+                    : addDeviceNotifications(adsAddDeviceNotificationRequests);
+                return responsesFuture
+                    .thenApply(responses -> {
+                        Map<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> responseItems = new LinkedHashMap<>();
+                        // All fields in request order, the subscribed ones get their code below.
+                        for (int i = 0; i < plcFieldNames.size(); i++) {
+                            responseItems.put(plcFieldNames.get(i), Pair.of(resolutionCodes[i], null));
+                        }
+                        for (int j = 0; j < responses.size(); j++) {
+                            int i = subscribed.get(j);
+                            String plcFieldName = plcFieldNames.get(i);
+                            AdsAddDeviceNotificationResponse response = responses.get(j);
+                            if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+                                LOGGER.warn("Error code received for {}: {}", plcFieldName, response.getResult());
+                                responseItems.put(plcFieldName, Pair.of(Plc4x2AdsProtocol.decodeResponseCode(response.getResult().getAsLong()), null));
+                                continue;
+                            }
+                            PlcSubscriptionHandle adsSubscriptionHandle = new AdsSubscriptionHandle(this, plcFieldName, resolvedFields.get(i).getAdsDataType(), response.getNotificationHandle());
+                            responseItems.put(plcFieldName, Pair.of(PlcResponseCode.OK, adsSubscriptionHandle));
+                        }
+                        return new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, responseItems);
+                    });
+            });
+    }
 
-        future.complete(new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, responseItems));
+    private CompletableFuture<DirectAdsField> toDirectAdsField(PlcField field) {
+        // If this is a symbolic field, it has to be resolved first.
+        if (field instanceof SymbolicAdsField) {
+            return resolveField((SymbolicAdsField) field);
+        }
+        // If it's no symbolic field, we can continue immediately
+        // without having to do any resolving.
+        if (field instanceof DirectAdsField) {
+            return CompletableFuture.completedFuture((DirectAdsField) field);
+        }
+        CompletableFuture<DirectAdsField> future = new CompletableFuture<>();
+        future.completeExceptionally(new IllegalArgumentException("Unsupported field type " + field.getClass()));
         return future;
     }
 
+    private AdsAddDeviceNotificationRequest createAddDeviceNotificationRequest(DirectAdsField directAdsField, SubscriptionPlcField subscriptionPlcField) {
+        final TransmissionMode transmissionMode;
+        long cycleTime = 4000000;
+        switch (subscriptionPlcField.getPlcSubscriptionType()) {
+            case CYCLIC:
+                transmissionMode = TransmissionMode.DefinedValues.ADSTRANS_SERVERCYCLE;
+                cycleTime = subscriptionPlcField.getDuration().orElse(Duration.ofSeconds(1)).toMillis();
+                break;
+            case CHANGE_OF_STATE:
+                transmissionMode = TransmissionMode.DefinedValues.ADSTRANS_SERVERONCHA;
+                break;
+            default:
+                throw new PlcRuntimeException("Unmapped type " + subscriptionPlcField.getPlcSubscriptionType());
+        }
+
+        return AdsAddDeviceNotificationRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            IndexGroup.of(directAdsField.getIndexGroup()),
+            IndexOffset.of(directAdsField.getIndexOffset()),
+            Length.of(directAdsField.getAdsDataType().getTargetByteSize() * (long) directAdsField.getNumberOfElements()),
+            transmissionMode,
+            // We set max delay to cycle time as we don't have a second parameter for this in the plc4j-api
+            MaxDelay.of(cycleTime + 1),
+            CycleTime.of(cycleTime)
+        );
+    }
+
+    /**
+     * Sends all requests without waiting in between, packed into sum commands as long as the target supports them.
+     *
+     * @return a future completed with the responses in the order of the requests once all of them arrived.
+     */
+    private CompletableFuture<List<AdsAddDeviceNotificationResponse>> addDeviceNotifications(List<AdsAddDeviceNotificationRequest> requests) {
+        return sendInChunks(requests, chunk -> {
+            if (chunk.size() == 1 || !sumCommandsSupported) {
+                return sendEach(chunk, ADD_DEVICE_TIMEOUT);
+            }
+            return this.<AdsReadWriteResponse>sendAmsPacket(AdsSumCommands.addDeviceNotifications(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, chunk), ADD_DEVICE_TIMEOUT)
+                .thenCompose(response -> {
+                    if (isSumCommandUnsupported(response)) {
+                        return sendEach(chunk, ADD_DEVICE_TIMEOUT);
+                    }
+                    return CompletableFuture.completedFuture(AdsSumCommands.splitAddDeviceNotifications(response, chunk.size()));
+                });
+        });
+    }
+
+    private CompletableFuture<List<AdsDeleteDeviceNotificationResponse>> deleteDeviceNotifications(List<AdsDeleteDeviceNotificationRequest> requests) {
+        return sendInChunks(requests, chunk -> {
+            if (chunk.size() == 1 || !sumCommandsSupported) {
+                return sendEach(chunk, DEL_DEVICE_TIMEOUT);
+            }
+            return this.<AdsReadWriteResponse>sendAmsPacket(AdsSumCommands.deleteDeviceNotifications(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, chunk), DEL_DEVICE_TIMEOUT)
+                .thenCompose(response -> {
+                    if (isSumCommandUnsupported(response)) {
+                        return sendEach(chunk, DEL_DEVICE_TIMEOUT);
+                    }
+                    return CompletableFuture.completedFuture(AdsSumCommands.splitDeleteDeviceNotifications(response, chunk.size()));
+                });
+        });
+    }
+
+    private boolean isSumCommandUnsupported(AdsReadWriteResponse response) {
+        if (!AdsSumCommands.isUnsupported(response.getResult())) {
+            return false;
+        }
+        if (sumCommandsSupported) {
+            LOGGER.info("{} doesn't support sum commands ({}), falling back to single requests", targetAmsNetId, response.getResult());
+            sumCommandsSupported = false;
+        }
+        return true;
+    }
+
+    private <Q, R> CompletableFuture<List<R>> sendInChunks(List<Q> requests, Function<List<Q>, CompletableFuture<List<R>>> sender) {
+        List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += AdsSumCommands.MAX_SUB_COMMANDS) {
+            chunks.add(sender.apply(requests.subList(from, Math.min(from + AdsSumCommands.MAX_SUB_COMMANDS, requests.size()))));
+        }
+        return allOf(chunks).thenApply(responses -> responses.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList()));
+    }
+
+    private <R extends AmsPacket> CompletableFuture<List<R>> sendEach(List<? extends AmsPacket> amsPackets, long timeout) {
+        List<CompletableFuture<R>> responses = new ArrayList<>(amsPackets.size());
+        for (AmsPacket amsPacket : amsPackets) {
+            responses.add(sendAmsPacket(amsPacket, timeout));
+        }
+        return allOf(responses);
+    }
+
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(ignore -> futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public CompletableFuture<PlcUnsubscriptionResponse> unsubscribe(PlcUnsubscriptionRequest plcUnsubscriptionRequest) {
         InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = checkInternal(plcUnsubscriptionRequest, InternalPlcUnsubscriptionRequest.class);
-        for (InternalPlcSubscriptionHandle internalPlcSubscriptionHandle : internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles()) {
-            if (internalPlcSubscriptionHandle instanceof AdsSubscriptionHandle) {
-                AdsSubscriptionHandle adsSubscriptionHandle = (AdsSubscriptionHandle) internalPlcSubscriptionHandle;
-                AdsDeleteDeviceNotificationRequest adsDeleteDeviceNotificationRequest =
-                    AdsDeleteDeviceNotificationRequest.of(
-                        targetAmsNetId,
-                        targetAmsPort,
-                        sourceAmsNetId,
-                        sourceAmsPort,
-                        Invoke.NONE,
-                        adsSubscriptionHandle.getNotificationHandle()
-                    );
-                CompletableFuture<InternalPlcProprietaryResponse<AdsDeleteDeviceNotificationResponse>> deleteDeviceFuture =
-                    new CompletableFuture<>();
-                channel.writeAndFlush(new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(adsDeleteDeviceNotificationRequest), deleteDeviceFuture));
-
-                InternalPlcProprietaryResponse<AdsDeleteDeviceNotificationResponse> deleteDeviceResponse =
-                    getFromFuture(deleteDeviceFuture, DEL_DEVICE_TIMEOUT);
-                AdsDeleteDeviceNotificationResponse response = deleteDeviceResponse.getResponse();
-                if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
-                    throw new PlcRuntimeException("Non error code received " + response.getResult());
-                }
-            }
+        List<AdsDeleteDeviceNotificationRequest> adsDeleteDeviceNotificationRequests = internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles().stream()
+            .filter(AdsSubscriptionHandle.class::isInstance)
+            .map(AdsSubscriptionHandle.class::cast)
+            .map(adsSubscriptionHandle -> AdsDeleteDeviceNotificationRequest.of(
+                targetAmsNetId,
+                targetAmsPort,
+                sourceAmsNetId,
+                sourceAmsPort,
+                Invoke.NONE,
+                adsSubscriptionHandle.getNotificationHandle()
+            ))
+            .collect(Collectors.toList());
+        if (adsDeleteDeviceNotificationRequests.isEmpty()) {
+            return CompletableFuture.completedFuture(new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest));
         }
-        CompletableFuture<PlcUnsubscriptionResponse> future = new CompletableFuture<>();
-        future.complete(new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest));
-        return future;
+        return deleteDeviceNotifications(adsDeleteDeviceNotificationRequests)
+            .thenApply(responses -> {
+                for (AdsDeleteDeviceNotificationResponse response : responses) {
+                    if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+                        throw new PlcRuntimeException("Non error code received " + response.getResult());
+                    }
+                }
+                return new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest);
+            });
     }
 
     @Override
@@ -278,48 +437,9 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
         }
 
         InternalPlcConsumerRegistration internalPlcConsumerRegistration = new DefaultPlcConsumerRegistration(this, consumer, internalPlcSubscriptionHandles);
-        Map<NotificationHandle, AdsSubscriptionHandle> notificationHandleAdsSubscriptionHandleMap = Arrays.stream(internalPlcSubscriptionHandles)
-            .map(subscriptionHandle -> checkInternal(subscriptionHandle, AdsSubscriptionHandle.class))
-            .collect(Collectors.toConcurrentMap(AdsSubscriptionHandle::getNotificationHandle, Function.identity()));
-
-        Consumer<AdsDeviceNotificationRequest> adsDeviceNotificationRequestConsumer =
-            adsDeviceNotificationRequest -> adsDeviceNotificationRequest.getAdsStampHeaders().forEach(adsStampHeader -> {
-                Instant timeStamp = adsStampHeader.getTimeStamp().getAsDate().toInstant();
-
-                Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields = new HashMap<>();
-                adsStampHeader.getAdsNotificationSamples()
-                    .forEach(adsNotificationSample -> {
-                        NotificationHandle notificationHandle = adsNotificationSample.getNotificationHandle();
-                        Data data = adsNotificationSample.getData();
-                        AdsSubscriptionHandle adsSubscriptionHandle = notificationHandleAdsSubscriptionHandleMap.get(notificationHandle);
-                        if (adsSubscriptionHandle == null) {
-                            // TODO: we might want to refactor this so that we don't subscribe to everything in the first place.
-                            // TODO: rather than we add a Consumer with the handle as key
-                            LOGGER.trace("We are not interested in this sample {} with handle {}", adsNotificationSample, notificationHandle);
-                            return;
-                        }
-                        String plcFieldName = adsSubscriptionHandle.getPlcFieldName();
-                        AdsDataType adsDataType = adsSubscriptionHandle.getAdsDataType();
-                        try {
-                            BaseDefaultFieldItem baseDefaultFieldItem = LittleEndianDecoder.decodeData(adsDataType, data.getBytes());
-                            fields.put(plcFieldName, Pair.of(PlcResponseCode.OK, baseDefaultFieldItem));
-                        } catch (RuntimeException e) {
-                            LOGGER.error("Can't decode {}", data, e);
-                        }
-
-                    });
-                try {
-                    PlcSubscriptionEvent subscriptionEventItem = new DefaultPlcSubscriptionEvent(timeStamp, fields);
-                    consumer.accept(subscriptionEventItem);
-                } catch (RuntimeException e) {
-                    LOGGER.error("Can't dispatch adsStampHeader {}", adsStampHeader, e);
-                }
-            });
-
         // Store the reference for so it can be uses for later
-        consumerRegistrations.put(internalPlcConsumerRegistration, adsDeviceNotificationRequestConsumer);
-        // register the actual consumer.
-        getChannel().pipeline().get(Plc4x2AdsProtocol.class).addConsumer(adsDeviceNotificationRequestConsumer);
+        consumerRegistrations.put(internalPlcConsumerRegistration, consumer);
+        notificationDispatcher.register(consumer, getAdsSubscriptionHandles(internalPlcConsumerRegistration));
 
         return internalPlcConsumerRegistration;
     }
@@ -327,11 +447,17 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
     @Override
     public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
         InternalPlcConsumerRegistration internalPlcConsumerRegistration = checkInternal(plcConsumerRegistration, InternalPlcConsumerRegistration.class);
-        Consumer<AdsDeviceNotificationRequest> adsDeviceNotificationRequestConsumer = consumerRegistrations.remove(internalPlcConsumerRegistration);
-        if (adsDeviceNotificationRequestConsumer == null) {
+        Consumer<PlcSubscriptionEvent> consumer = consumerRegistrations.remove(internalPlcConsumerRegistration);
+        if (consumer == null) {
             return;
         }
-        getChannel().pipeline().get(Plc4x2AdsProtocol.class).removeConsumer(adsDeviceNotificationRequestConsumer);
+        notificationDispatcher.unregister(consumer, getAdsSubscriptionHandles(internalPlcConsumerRegistration));
+    }
+
+    private List<AdsSubscriptionHandle> getAdsSubscriptionHandles(InternalPlcConsumerRegistration internalPlcConsumerRegistration) {
+        return internalPlcConsumerRegistration.getAssociatedHandles().stream()
+            .map(subscriptionHandle -> checkInternal(subscriptionHandle, AdsSubscriptionHandle.class))
+            .collect(Collectors.toList());
     }
 
     @Override
@@ -352,12 +478,19 @@ public class AdsTcpPlcConnection extends AdsAbstractPlcConnection implements Plc
     @Override
     public void close() throws PlcConnectionException {
         try {
-            consumerRegistrations.values().forEach(getChannel().pipeline().get(Plc4x2AdsProtocol.class)::removeConsumer);
+            consumerRegistrations.forEach((internalPlcConsumerRegistration, consumer) ->
+                notificationDispatcher.unregister(consumer, getAdsSubscriptionHandles(internalPlcConsumerRegistration)));
             List<PlcSubscriptionHandle> collect = consumerRegistrations.keySet().stream()
                 .map(InternalPlcConsumerRegistration::getAssociatedHandles)
                 .flatMap(Collection::stream)
                 .map(PlcSubscriptionHandle.class::cast)
                 .collect(Collectors.toList());
+            AdsSubscriptionHandle currentSymbolVersionHandle = symbolVersionHandle;
+            if (currentSymbolVersionHandle != null) {
+                notificationDispatcher.unregister(symbolVersionConsumer, Collections.singletonList(currentSymbolVersionHandle));
+                collect.add(currentSymbolVersionHandle);
+                symbolVersionHandle = null;
+            }
 
             PlcUnsubscriptionRequest plcUnsubscriptionRequest = new DefaultPlcUnsubscriptionRequest.Builder(this).addHandles(collect).build();
             unsubscribe(plcUnsubscriptionRequest).get(5, TimeUnit.SECONDS);
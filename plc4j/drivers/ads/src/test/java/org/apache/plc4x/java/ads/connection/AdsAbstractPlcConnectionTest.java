@@ -18,17 +18,26 @@
  */
 package org.apache.plc4x.java.ads.connection;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.plc4x.java.ads.api.commands.AdsReadRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsReadWriteRequest;
 import org.apache.plc4x.java.ads.api.commands.AdsReadWriteResponse;
 import org.apache.plc4x.java.ads.api.commands.types.Data;
+import org.apache.plc4x.java.ads.api.commands.types.IndexGroup;
 import org.apache.plc4x.java.ads.api.commands.types.Result;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
 import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
 import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.ads.model.AdsDataType;
 import org.apache.plc4x.java.ads.model.DirectAdsField;
 import org.apache.plc4x.java.ads.model.SymbolicAdsField;
 import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
@@ -49,6 +58,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.*;
@@ -195,6 +206,26 @@ class AdsAbstractPlcConnectionTest implements WithAssertions {
             reset(channel);
         }
 
+        @Test
+        void mapSingleFieldHasDeadline() {
+            List<PlcRequestContainer> containers = new CopyOnWriteArrayList<>();
+            when(channel.writeAndFlush(any(PlcRequestContainer.class))).then(invocation -> {
+                PlcRequestContainer plcRequestContainer = invocation.getArgument(0);
+                containers.add(plcRequestContainer);
+                AdsReadWriteResponse adsReadWriteResponse = AdsReadWriteResponse.of(mock(AmsNetId.class), mock(AmsPort.class), mock(AmsNetId.class), mock(AmsPort.class), Invoke.NONE, Result.of(0), Data.of(new byte[]{1, 2, 3, 4}));
+                plcRequestContainer.getResponseFuture().complete(new DefaultPlcProprietaryResponse<>((InternalPlcProprietaryRequest) plcRequestContainer.getRequest(), adsReadWriteResponse));
+                return mock(ChannelFuture.class);
+            });
+
+            SUT.mapFields(SymbolicAdsField.of("Main.byByte[1]:BYTE"));
+
+            // Handle lookups are sent like any other request, with a deadline.
+            assertThat(containers).hasSize(1);
+            assertThat(containers.get(0).hasDeadline()).isTrue();
+            SUT.clearMapping();
+            reset(channel);
+        }
+
         @Test
         void mapSingleFieldNegative() {
             when(channel.writeAndFlush(any(PlcRequestContainer.class))).then(invocation -> {
@@ -216,6 +247,94 @@ class AdsAbstractPlcConnectionTest implements WithAssertions {
         }
     }
 
+    @Nested
+    class SymbolTable {
+
+        private final List<AmsPacket> requests = new CopyOnWriteArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            SUT.clearMapping();
+            SUT.setSymbolUpload(true);
+            when(channel.writeAndFlush(any(PlcRequestContainer.class))).then(invocation -> {
+                PlcRequestContainer<InternalPlcProprietaryRequest<AmsPacket>, InternalPlcProprietaryResponse<AmsPacket>> plcRequestContainer = invocation.getArgument(0);
+                AmsPacket request = plcRequestContainer.getRequest().getProprietaryRequest();
+                requests.add(request);
+                plcRequestContainer.getResponseFuture().complete(new DefaultPlcProprietaryResponse<>(plcRequestContainer.getRequest(), answer(request)));
+                return mock(ChannelFuture.class);
+            });
+        }
+
+        private AmsPacket answer(AmsPacket request) {
+            if (request instanceof AdsReadWriteRequest) {
+                return AdsReadWriteResponse.of(mock(AmsNetId.class), mock(AmsPort.class), mock(AmsNetId.class), mock(AmsPort.class), Invoke.NONE, Result.of(0), Data.of(new byte[]{1, 2, 3, 4}));
+            }
+            IndexGroup indexGroup = ((AdsReadRequest) request).getIndexGroup();
+            ByteBuf data = Unpooled.buffer();
+            if (indexGroup.equals(IndexGroup.ReservedGroups.ADSIGRP_SYM_VERSION)) {
+                data.writeByte(1);
+            } else if (indexGroup.equals(IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOADINFO2)) {
+                data.writeIntLE(1).writeIntLE(symbols().readableBytes()).writeZero(16);
+            } else if (indexGroup.equals(IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOAD)) {
+                data.writeBytes(symbols());
+            }
+            return AdsReadResponse.of(mock(AmsNetId.class), mock(AmsPort.class), mock(AmsNetId.class), mock(AmsPort.class), Invoke.NONE, Result.of(0), Data.of(data));
+        }
+
+        private ByteBuf symbols() {
+            byte[] name = "MAIN.counter".getBytes(StandardCharsets.ISO_8859_1);
+            byte[] type = "INT".getBytes(StandardCharsets.ISO_8859_1);
+            return Unpooled.buffer()
+                .writeIntLE(30 + name.length + type.length + 3)
+                .writeIntLE(0x4020).writeIntLE(4).writeIntLE(2).writeIntLE(2).writeIntLE(8)
+                .writeShortLE(name.length).writeShortLE(type.length).writeShortLE(0)
+                .writeBytes(name).writeByte(0)
+                .writeBytes(type).writeByte(0)
+                .writeByte(0);
+        }
+
+        @Test
+        void resolvesLocally() throws Exception {
+            SUT.mapFields(SymbolicAdsField.of("MAIN.counter:INT"));
+            SUT.mapFields(SymbolicAdsField.of("main.COUNTER:INT[2]"));
+
+            // Version, upload info and symbols, the fields themselves don't need a request.
+            assertThat(requests).hasSize(3);
+            assertThat(SUT.getSymbolTable().get().size()).isEqualTo(1);
+            Map<SymbolicAdsField, DirectAdsField> fieldMapping = getFieldMapping();
+            assertThat(fieldMapping.get(SymbolicAdsField.of("MAIN.counter:INT"))).isEqualTo(DirectAdsField.of(0x4020, 4, AdsDataType.INT, 1));
+            assertThat(fieldMapping.get(SymbolicAdsField.of("main.COUNTER:INT[2]")).getNumberOfElements()).isEqualTo(2);
+        }
+
+        @Test
+        void unknownSymbolsByHandle() throws Exception {
+            SUT.mapFields(SymbolicAdsField.of("MAIN.struct.member:INT"));
+
+            assertThat(requests).hasSize(4);
+            assertThat(requests.get(3)).isInstanceOf(AdsReadWriteRequest.class);
+            assertThat(getFieldMapping().get(SymbolicAdsField.of("MAIN.struct.member:INT")).getIndexGroup())
+                .isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SYM_VALBYHND.getAsLong());
+        }
+
+        @Test
+        void invalidate() throws Exception {
+            SUT.mapFields(SymbolicAdsField.of("MAIN.counter:INT"));
+            SUT.mapFields(SymbolicAdsField.of("MAIN.struct.member:INT"));
+
+            SUT.invalidateSymbolTable();
+
+            Map<SymbolicAdsField, DirectAdsField> fieldMapping = getFieldMapping();
+            assertThat(fieldMapping).containsOnlyKeys(SymbolicAdsField.of("MAIN.struct.member:INT"));
+            SUT.mapFields(SymbolicAdsField.of("MAIN.counter:INT"));
+            // The table is uploaded again.
+            assertThat(requests).hasSize(7);
+            assertThat(fieldMapping).containsKey(SymbolicAdsField.of("MAIN.counter:INT"));
+        }
+
+        private Map<SymbolicAdsField, DirectAdsField> getFieldMapping() throws IllegalAccessException {
+            return (Map<SymbolicAdsField, DirectAdsField>) FieldUtils.getDeclaredField(AdsAbstractPlcConnection.class, "fieldMapping", true).get(SUT);
+        }
+    }
 
     @Nested
     class Misc {
@@ -19,21 +19,30 @@
 
 package org.apache.plc4x.java.ads.connection;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationResponse;
 import org.apache.plc4x.java.ads.api.commands.AdsDeleteDeviceNotificationResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationRequest;
 import org.apache.plc4x.java.ads.api.commands.AdsDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadWriteRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadWriteResponse;
 import org.apache.plc4x.java.ads.api.commands.types.*;
 import org.apache.plc4x.java.ads.api.generic.AmsHeader;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
 import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
 import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
 import org.apache.plc4x.java.ads.model.AdsDataType;
 import org.apache.plc4x.java.ads.model.AdsSubscriptionHandle;
 import org.apache.plc4x.java.ads.model.DirectAdsField;
-import org.apache.plc4x.java.ads.protocol.Plc4x2AdsProtocol;
+import org.apache.plc4x.java.ads.model.SymbolicAdsField;
+import org.apache.plc4x.java.ads.protocol.AdsNotificationDispatcher;
 import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.api.types.PlcSubscriptionType;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.model.InternalPlcConsumerRegistration;
@@ -44,8 +53,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -53,13 +60,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.net.InetAddress;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -126,6 +137,118 @@ class AdsTcpPlcConnectionTests implements WithAssertions {
             ));
         }
 
+        @Test
+        void subscribeWithSumCommand() throws Exception {
+            List<AmsPacket> sent = answerWith(amsPacket -> {
+                AdsReadWriteRequest adsReadWriteRequest = (AdsReadWriteRequest) amsPacket;
+                ByteBuf data = Unpooled.buffer();
+                for (int i = 1; i <= adsReadWriteRequest.getIndexOffset().getAsLong(); i++) {
+                    data.writeIntLE(0).writeIntLE(i);
+                }
+                return AdsReadWriteResponse.of(mock(AmsHeader.class), Result.of(0), Length.of(data.readableBytes()), Data.of(data));
+            });
+
+            PlcSubscriptionResponse response = SUT.subscribe(subscriptionRequest(3)).get(1, TimeUnit.SECONDS);
+
+            assertThat(sent).hasSize(1);
+            assertThat(((AdsReadWriteRequest) sent.get(0)).getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SUMUP_ADDDEVNOTE);
+            assertThat(response.getFieldNames()).containsExactly("field0", "field1", "field2");
+            assertThat(((AdsSubscriptionHandle) response.getSubscriptionHandle("field2")).getNotificationHandle()).isEqualTo(NotificationHandle.of(3));
+        }
+
+        @Test
+        void subscribeWithoutSumCommandSupport() throws Exception {
+            List<AmsPacket> sent = answerWith(amsPacket -> {
+                if (amsPacket instanceof AdsReadWriteRequest) {
+                    return AdsReadWriteResponse.of(mock(AmsHeader.class), Result.of(AdsReturnCode.ADS_CODE_1793.getHex()), Length.of(0), Data.of());
+                }
+                return AdsAddDeviceNotificationResponse.of(mock(AmsHeader.class), Result.of(0), NotificationHandle.of(42));
+            });
+
+            PlcSubscriptionResponse response = SUT.subscribe(subscriptionRequest(3)).get(1, TimeUnit.SECONDS);
+            assertThat(sent).hasSize(4);
+            assertThat(response.getResponseCode("field1")).isEqualTo(PlcResponseCode.OK);
+
+            // The next subscription doesn't try a sum command again.
+            SUT.subscribe(subscriptionRequest(2)).get(1, TimeUnit.SECONDS);
+            assertThat(sent).hasSize(6);
+            assertThat(sent.subList(4, 6)).allMatch(AdsAddDeviceNotificationRequest.class::isInstance);
+        }
+
+        @Test
+        void subscribeReportsFailedFields() throws Exception {
+            answerWith(amsPacket -> {
+                ByteBuf data = Unpooled.buffer()
+                    .writeIntLE(0).writeIntLE(1)
+                    .writeIntLE((int) AdsReturnCode.ADS_CODE_1808.getHex()).writeIntLE(0);
+                return AdsReadWriteResponse.of(mock(AmsHeader.class), Result.of(0), Length.of(data.readableBytes()), Data.of(data));
+            });
+
+            PlcSubscriptionResponse response = SUT.subscribe(subscriptionRequest(2)).get(1, TimeUnit.SECONDS);
+
+            assertThat(response.getResponseCode("field0")).isEqualTo(PlcResponseCode.OK);
+            assertThat(response.getResponseCode("field1")).isNotEqualTo(PlcResponseCode.OK);
+        }
+
+        @Test
+        void subscribeReportsUnresolvedFields() throws Exception {
+            List<AmsPacket> sent = answerWith(amsPacket -> {
+                if (amsPacket instanceof AdsReadWriteRequest && ((AdsReadWriteRequest) amsPacket).getIndexGroup().equals(IndexGroup.ReservedGroups.ADSIGRP_SYM_HNDBYNAME)) {
+                    // The symbol doesn't exist.
+                    return AdsReadWriteResponse.of(mock(AmsHeader.class), Result.of(AdsReturnCode.ADS_CODE_1808.getHex()), Length.of(0), Data.of());
+                }
+                return AdsAddDeviceNotificationResponse.of(mock(AmsHeader.class), Result.of(0), NotificationHandle.of(42));
+            });
+            LinkedHashMap<String, SubscriptionPlcField> fields = new LinkedHashMap<>();
+            fields.put("missing", new SubscriptionPlcField(PlcSubscriptionType.CHANGE_OF_STATE, SymbolicAdsField.of("MAIN.missing:BOOL"), null));
+            fields.put("direct", new SubscriptionPlcField(PlcSubscriptionType.CHANGE_OF_STATE, DirectAdsField.of("0x4020/0:BOOL"), null));
+
+            PlcSubscriptionResponse response = SUT.subscribe(new DefaultPlcSubscriptionRequest(plcSubscriber, fields)).get(1, TimeUnit.SECONDS);
+
+            assertThat(response.getFieldNames()).containsExactly("missing", "direct");
+            assertThat(response.getResponseCode("missing")).isEqualTo(PlcResponseCode.NOT_FOUND);
+            assertThat(response.getResponseCode("direct")).isEqualTo(PlcResponseCode.OK);
+            assertThat(((AdsSubscriptionHandle) response.getSubscriptionHandle("direct")).getNotificationHandle()).isEqualTo(NotificationHandle.of(42));
+            // Only the resolved field got subscribed.
+            assertThat(sent).filteredOn(AdsAddDeviceNotificationRequest.class::isInstance).hasSize(1);
+        }
+
+        @Test
+        void unsubscribeWithSumCommand() throws Exception {
+            List<AmsPacket> sent = answerWith(amsPacket ->
+                AdsReadWriteResponse.of(mock(AmsHeader.class), Result.of(0), Length.of(8), Data.of(new byte[8])));
+
+            SUT.unsubscribe(new DefaultPlcUnsubscriptionRequest(plcSubscriber, Arrays.asList(
+                new AdsSubscriptionHandle(plcSubscriber, "hurz", AdsDataType.BYTE, NotificationHandle.of(1)),
+                new AdsSubscriptionHandle(plcSubscriber, "purz", AdsDataType.BYTE, NotificationHandle.of(2))
+            ))).get(1, TimeUnit.SECONDS);
+
+            assertThat(sent).hasSize(1);
+            assertThat(((AdsReadWriteRequest) sent.get(0)).getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SUMUP_DELDEVNOTE);
+            assertThat(sent.get(0).getAdsData().getBytes()).endsWith(1, 0, 0, 0, 2, 0, 0, 0);
+        }
+
+        private DefaultPlcSubscriptionRequest subscriptionRequest(int numberOfFields) {
+            LinkedHashMap<String, SubscriptionPlcField> fields = new LinkedHashMap<>();
+            for (int i = 0; i < numberOfFields; i++) {
+                fields.put("field" + i, new SubscriptionPlcField(PlcSubscriptionType.CHANGE_OF_STATE, DirectAdsField.of("0x4020/" + i + ":BOOL"), null));
+            }
+            return new DefaultPlcSubscriptionRequest(plcSubscriber, fields);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<AmsPacket> answerWith(Function<AmsPacket, AmsPacket> responder) {
+            List<AmsPacket> sent = new ArrayList<>();
+            when(channelMock.writeAndFlush(any(PlcRequestContainer.class))).then(invocation -> {
+                PlcRequestContainer plcRequestContainer = invocation.getArgument(0);
+                InternalPlcProprietaryRequest<AmsPacket> request = (InternalPlcProprietaryRequest<AmsPacket>) plcRequestContainer.getRequest();
+                sent.add(request.getProprietaryRequest());
+                plcRequestContainer.getResponseFuture().complete(new DefaultPlcProprietaryResponse<>(request, responder.apply(request.getProprietaryRequest())));
+                return mock(ChannelFuture.class);
+            });
+            return sent;
+        }
+
         @Test
         void unsubscribe() {
             when(channelMock.writeAndFlush(any(PlcRequestContainer.class))).then(invocation -> {
@@ -146,21 +269,19 @@ class AdsTcpPlcConnectionTests implements WithAssertions {
 
     @Nested
     class Registration {
-        @Captor
-        ArgumentCaptor<Consumer<AdsDeviceNotificationRequest>> consumerArgumentCaptor;
 
         @Test
         void register() throws Exception {
-            Plc4x2AdsProtocol plc4x2AdsProtocol = mock(Plc4x2AdsProtocol.class);
-            when(channelMock.pipeline().get(Plc4x2AdsProtocol.class)).thenReturn(plc4x2AdsProtocol);
+            AdsSubscriptionHandle adsSubscriptionHandle = new AdsSubscriptionHandle(plcSubscriber, "hurz", AdsDataType.BYTE, NotificationHandle.of(1));
+            AdsNotificationDispatcher notificationDispatcher = (AdsNotificationDispatcher) FieldUtils.readField(SUT, "notificationDispatcher", true);
 
             AtomicReference<PlcSubscriptionEvent> plcSubscriptionEventAtomicReference = new AtomicReference<>();
-            SUT.register(plcSubscriptionEventAtomicReference::set);
-            verify(plc4x2AdsProtocol).addConsumer(consumerArgumentCaptor.capture());
+            SUT.register(plcSubscriptionEventAtomicReference::set, adsSubscriptionHandle);
+            assertThat(notificationDispatcher.getNumberOfRoutes()).isEqualTo(1);
 
-            consumerArgumentCaptor.getValue().accept(AdsDeviceNotificationRequest.of(mock(AmsHeader.class), Length.of(1), Stamps.of(1), Collections.singletonList(AdsStampHeader.of(TimeStamp.of(1), Collections.singletonList(AdsNotificationSample.of(NotificationHandle.of(1), Data.of("Hello World!")))))));
-            TimeUnit.MILLISECONDS.sleep(100);
-            assertThat(plcSubscriptionEventAtomicReference).isNotNull();
+            notificationDispatcher.accept(AdsDeviceNotificationRequest.of(mock(AmsHeader.class), Length.of(1), Stamps.of(1), Collections.singletonList(AdsStampHeader.of(TimeStamp.of(1), Collections.singletonList(AdsNotificationSample.of(NotificationHandle.of(1), Data.of("Hello World!")))))));
+            assertThat(plcSubscriptionEventAtomicReference.get()).isNotNull();
+            assertThat(plcSubscriptionEventAtomicReference.get().getFieldNames()).containsExactly("hurz");
         }
 
         @Test
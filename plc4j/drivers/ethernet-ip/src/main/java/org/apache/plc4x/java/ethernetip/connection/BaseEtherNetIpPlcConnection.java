@@ -81,11 +81,7 @@ public abstract class BaseEtherNetIpPlcConnection extends NettyPlcConnection imp
         CompletableFuture<InternalPlcReadResponse> future = new CompletableFuture<>();
         PlcRequestContainer<InternalPlcReadRequest, InternalPlcReadResponse> container =
             new PlcRequestContainer<>((InternalPlcReadRequest) readRequest, future);
-        channel.writeAndFlush(container).addListener(f -> {
-            if (!f.isSuccess()) {
-                future.completeExceptionally(f.cause());
-            }
-        });
+        sendRequest(container);
         return future
             .thenApply(PlcReadResponse.class::cast);
     }
@@ -95,11 +91,7 @@ public abstract class BaseEtherNetIpPlcConnection extends NettyPlcConnection imp
         CompletableFuture<InternalPlcWriteResponse> future = new CompletableFuture<>();
         PlcRequestContainer<InternalPlcWriteRequest, InternalPlcWriteResponse> container =
             new PlcRequestContainer<>((InternalPlcWriteRequest) writeRequest, future);
-        channel.writeAndFlush(container).addListener(f -> {
-            if (!f.isSuccess()) {
-                future.completeExceptionally(f.cause());
-            }
-        });
+        sendRequest(container);
         return future
             .thenApply(PlcWriteResponse.class::cast);
     }
@@ -24,6 +24,7 @@ import com.digitalpetri.modbus.codec.ModbusTcpCodec;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.base.connection.ChannelFactory;
 import org.apache.plc4x.java.base.connection.TcpSocketChannelFactory;
 import org.apache.plc4x.java.base.protocol.SingleItemToSingleRequestProtocol;
@@ -75,6 +76,8 @@ public class ModbusTcpPlcConnection extends BaseModbusPlcConnection {
     }
 
     public InetAddress getRemoteAddress() {
-        return ((TcpSocketChannelFactory) channelFactory).getAddress();
+        return channelFactory.unwrap(TcpSocketChannelFactory.class)
+            .map(TcpSocketChannelFactory::getAddress)
+            .orElseThrow(() -> new PlcRuntimeException("Not connected via TCP"));
     }
 }
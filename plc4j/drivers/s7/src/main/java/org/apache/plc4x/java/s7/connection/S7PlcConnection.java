@@ -18,31 +18,61 @@
  */
 package org.apache.plc4x.java.s7.connection;
 
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.SystemConfiguration;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
-import org.apache.plc4x.java.api.messages.PlcReadRequest;
-import org.apache.plc4x.java.api.messages.PlcReadResponse;
-import org.apache.plc4x.java.api.messages.PlcWriteRequest;
-import org.apache.plc4x.java.api.messages.PlcWriteResponse;
+import org.apache.plc4x.java.api.exceptions.PlcException;
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.*;
+import org.apache.plc4x.java.api.model.PlcConsumerRegistration;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.connection.ChannelFactory;
 import org.apache.plc4x.java.base.connection.NettyPlcConnection;
 import org.apache.plc4x.java.base.connection.TcpSocketChannelFactory;
 import org.apache.plc4x.java.base.events.ConnectEvent;
 import org.apache.plc4x.java.base.events.ConnectedEvent;
 import org.apache.plc4x.java.base.messages.*;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.model.DefaultPlcConsumerRegistration;
+import org.apache.plc4x.java.base.model.InternalPlcConsumerRegistration;
+import org.apache.plc4x.java.base.model.InternalPlcSubscriptionHandle;
 import org.apache.plc4x.java.isoontcp.protocol.IsoOnTcpProtocol;
 import org.apache.plc4x.java.isotp.protocol.IsoTPProtocol;
 import org.apache.plc4x.java.isotp.protocol.model.tpdus.DisconnectRequestTpdu;
 import org.apache.plc4x.java.isotp.protocol.model.types.DeviceGroup;
 import org.apache.plc4x.java.isotp.protocol.model.types.DisconnectReason;
 import org.apache.plc4x.java.isotp.protocol.model.types.TpduSize;
+import org.apache.plc4x.java.base.model.SubscriptionPlcField;
+import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SubscriptionHandle;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+import org.apache.plc4x.java.s7.model.S7SymbolicField;
 import org.apache.plc4x.java.s7.netty.Plc4XS7Protocol;
+import org.apache.plc4x.java.s7.netty.S7CyclicDataDispatcher;
 import org.apache.plc4x.java.s7.netty.S7Protocol;
+import org.apache.plc4x.java.s7.netty.events.S7ConnectedEvent;
+import org.apache.plc4x.java.s7.netty.model.messages.S7RequestMessage;
+import org.apache.plc4x.java.s7.netty.model.messages.S7ResponseMessage;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesRequestParameter;
+import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslDataRecord;
+import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslRawDataRecord;
+import org.apache.plc4x.java.s7.netty.model.types.CpuServicesParameterFunctionGroup;
+import org.apache.plc4x.java.s7.netty.model.types.CpuServicesParameterSubFunctionGroup;
+import org.apache.plc4x.java.s7.netty.model.types.CyclicTimeBase;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportErrorCode;
 import org.apache.plc4x.java.s7.netty.model.types.MemoryArea;
+import org.apache.plc4x.java.s7.netty.model.types.MessageType;
+import org.apache.plc4x.java.s7.netty.model.types.SslId;
 import org.apache.plc4x.java.s7.netty.strategies.DefaultS7MessageProcessor;
 import org.apache.plc4x.java.s7.netty.util.S7PlcFieldHandler;
 import org.apache.plc4x.java.s7.types.S7ControllerType;
@@ -51,11 +81,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetAddress;
-import java.util.Collections;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Class implementing the Connection handling for Siemens S7.
@@ -74,8 +110,21 @@ import java.util.concurrent.TimeoutException;
  * </pre>
  * where the {bit-offset} is optional.
  * All Available Memory Areas for this mode are defined in the {@link MemoryArea} enum.
+ * <p>
+ * Only cyclic subscriptions are supported and all fields of one subscription request share the same interval, 1s if
+ * none is given. The interval has to lie between {@link CyclicTimeBase#getMinInterval()} (100ms) and
+ * {@link CyclicTimeBase#getMaxInterval()} (2550s) and is rounded to a multiple of its {@link CyclicTimeBase}, requests
+ * with other intervals are answered with {@link PlcResponseCode#INVALID_ADDRESS} for all fields.
+ * <p>
+ * Unless disabled with {@code fast-connect=false}, the outcome of every session setup is kept in the
+ * {@link S7SessionCache}. Reconnects to the same host, rack and slot skip the identification of the controller and
+ * request the pdu size and AMQ values negotiated before.
+ * <p>
+ * Symbolic fields are resolved by the symbol table of the program the PLC runs. Its version are the checksums the PLC
+ * reports in partial list {@link SslId#COMMUNICATION_STATUS_DATA} index 4, read once per connect or after
+ * {@link #invalidateSymbols()}, or {@link S7SymbolSource#getProgramVersion()} if the PLC doesn't report them.
  */
-public class S7PlcConnection extends NettyPlcConnection implements PlcReader, PlcWriter {
+public class S7PlcConnection extends NettyPlcConnection implements PlcReader, PlcWriter, PlcSubscriber {
 
     private static final int ISO_ON_TCP_PORT = 102;
 
@@ -85,6 +134,10 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
 
     private static final Logger logger = LoggerFactory.getLogger(S7PlcConnection.class);
 
+    // Index of the partial list with the checksums of the hardware configuration and the user program.
+    private static final short PROGRAM_CHECKSUMS_INDEX = 0x0004;
+    private static final int MAX_RESOLVED_REQUESTS = 1_000;
+
     private final int rack;
     private final int slot;
 
@@ -92,6 +145,21 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
     private final short paramMaxAmqCaller;
     private final short paramMaxAmqCallee;
     private final S7ControllerType paramControllerType;
+    private final boolean paramLazyDecoding;
+    private final boolean paramFastConnect;
+
+    private final S7SessionCache sessionCache = S7SessionCache.getInstance();
+
+    private final S7CyclicDataDispatcher cyclicDataDispatcher = new S7CyclicDataDispatcher();
+
+    private final Map<InternalPlcConsumerRegistration, Consumer<PlcSubscriptionEvent>> consumerRegistrations = new ConcurrentHashMap<>();
+
+    private final S7SymbolCache symbolCache = S7SymbolCache.getInstance();
+
+    private volatile S7SymbolSource symbolSource;
+
+    // Symbols of the program version read since the last connect, null until fields have to be resolved.
+    private final AtomicReference<CompletableFuture<Symbols>> symbols = new AtomicReference<>();
 
     public S7PlcConnection(InetAddress address, int rack, int slot, String params) {
         this(new TcpSocketChannelFactory(address, ISO_ON_TCP_PORT), rack, slot, params);
@@ -111,6 +179,9 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
         short curParamMaxAmqCaller = 8;
         short curParamMaxAmqCallee = 8;
         S7ControllerType curParamControllerType = S7ControllerType.ANY;
+        boolean curParamLazyDecoding = false;
+        boolean curParamFastConnect = true;
+        S7SymbolSource curSymbolSource = null;
 
         if (!StringUtils.isEmpty(params)) {
             for (String param : params.split("&")) {
@@ -131,6 +202,15 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
                         case "controller-type":
                             curParamControllerType = S7ControllerType.valueOf(paramValue);
                             break;
+                        case "lazy-decoding":
+                            curParamLazyDecoding = Boolean.parseBoolean(paramValue);
+                            break;
+                        case "fast-connect":
+                            curParamFastConnect = Boolean.parseBoolean(paramValue);
+                            break;
+                        case "symbol-file":
+                            curSymbolSource = new S7SymbolFile(Paths.get(paramValue));
+                            break;
                         default:
                             logger.debug("Unknown parameter {} with value {}", paramName, paramValue);
                     }
@@ -153,6 +233,9 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
         this.paramMaxAmqCaller = curParamMaxAmqCaller;
         this.paramMaxAmqCallee = curParamMaxAmqCallee;
         this.paramControllerType = curParamControllerType;
+        this.paramLazyDecoding = curParamLazyDecoding;
+        this.paramFastConnect = curParamFastConnect;
+        this.symbolSource = curSymbolSource;
     }
 
     @Override
@@ -165,10 +248,33 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
         return true;
     }
 
+    @Override
+    public boolean canSubscribe() {
+        return true;
+    }
+
+    @Override
+    public void connect() throws PlcConnectionException {
+        try {
+            super.connect();
+            // Another program might have been loaded while disconnected.
+            symbols.set(null);
+        } catch (PlcConnectionException e) {
+            // The remote might have been replaced, so identify it again next time.
+            String sessionKey = getSessionKey();
+            if (sessionKey != null) {
+                sessionCache.invalidate(sessionKey);
+            }
+            throw e;
+        }
+    }
+
     @Override
     protected ChannelHandler getChannelHandler(CompletableFuture<Void> sessionSetupCompleteFuture) {
         short calledTsapId = S7TsapIdEncoder.encodeS7TsapId(DeviceGroup.OS, 0, 0);
         short callingTsapId = S7TsapIdEncoder.encodeS7TsapId(DeviceGroup.PG_OR_PC, rack, slot);
+        String sessionKey = getSessionKey();
+        S7SessionCache.Session connectParameters = getConnectParameters();
 
         return new ChannelInitializer() {
             @Override
@@ -181,19 +287,59 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
                         if (evt instanceof ConnectedEvent) {
                             sessionSetupCompleteFuture.complete(null);
                         } else {
+                            if ((evt instanceof S7ConnectedEvent) && (sessionKey != null)) {
+                                S7ConnectedEvent connectedEvent = (S7ConnectedEvent) evt;
+                                sessionCache.put(sessionKey, new S7SessionCache.Session(
+                                    connectedEvent.getControllerType(), connectedEvent.getPduSize(),
+                                    connectedEvent.getMaxAmqCaller(), connectedEvent.getMaxAmqCallee()));
+                            }
                             super.userEventTriggered(ctx, evt);
                         }
                     }
                 });
                 pipeline.addLast(new IsoOnTcpProtocol());
-                pipeline.addLast(new IsoTPProtocol(callingTsapId, calledTsapId, TpduSize.valueForGivenSize(paramPduSize)));
-                pipeline.addLast(new S7Protocol(paramMaxAmqCaller, paramMaxAmqCallee, paramPduSize, paramControllerType,
-                    new DefaultS7MessageProcessor()));
-                pipeline.addLast(new Plc4XS7Protocol());
+                pipeline.addLast(new IsoTPProtocol(callingTsapId, calledTsapId,
+                    TpduSize.valueForGivenSize(connectParameters.getPduSize())));
+                pipeline.addLast(new S7Protocol(connectParameters.getMaxAmqCaller(), connectParameters.getMaxAmqCallee(),
+                    connectParameters.getPduSize(), connectParameters.getControllerType(), new DefaultS7MessageProcessor()));
+                pipeline.addLast(new Plc4XS7Protocol(paramLazyDecoding, S7PlcConnection.this, cyclicDataDispatcher));
             }
         };
     }
 
+    /**
+     * @return the key of this connection in the {@link S7SessionCache} or {@code null} if the session must not be
+     * cached.
+     */
+    protected String getSessionKey() {
+        if (!paramFastConnect) {
+            return null;
+        }
+        return channelFactory.unwrap(TcpSocketChannelFactory.class)
+            .map(tcpSocketChannelFactory -> S7SessionCache.key(tcpSocketChannelFactory.getAddress().getHostAddress(),
+                tcpSocketChannelFactory.getPort(), rack, slot))
+            .orElse(null);
+    }
+
+    /**
+     * The parameters to request during session setup: the configured ones, narrowed down by what the remote agreed to
+     * in the last session. A controller type remembered from that session saves the identification round-trip.
+     */
+    S7SessionCache.Session getConnectParameters() {
+        String sessionKey = getSessionKey();
+        S7SessionCache.Session cached = (sessionKey != null) ? sessionCache.get(sessionKey) : null;
+        if (cached == null) {
+            return new S7SessionCache.Session(paramControllerType, paramPduSize, paramMaxAmqCaller, paramMaxAmqCallee);
+        }
+        S7ControllerType controllerType =
+            (paramControllerType == S7ControllerType.ANY) ? cached.getControllerType() : paramControllerType;
+        logger.debug("Reusing session parameters {} for {}", cached, sessionKey);
+        return new S7SessionCache.Session(controllerType,
+            (short) Math.min(paramPduSize, cached.getPduSize()),
+            (short) Math.min(paramMaxAmqCaller, cached.getMaxAmqCaller()),
+            (short) Math.min(paramMaxAmqCallee, cached.getMaxAmqCallee()));
+    }
+
     @Override
     protected void sendChannelCreatedEvent() {
         // Send an event to the pipeline telling the Protocol filters what's going on.
@@ -224,6 +370,40 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
         return paramControllerType;
     }
 
+    public boolean isParamLazyDecoding() {
+        return paramLazyDecoding;
+    }
+
+    public boolean isParamFastConnect() {
+        return paramFastConnect;
+    }
+
+    public S7SymbolSource getSymbolSource() {
+        return symbolSource;
+    }
+
+    /**
+     * Sets where the tags of symbolic fields such as {@code "Tank".Level:REAL} are looked up, defaults to the file
+     * given by the {@code symbol-file} parameter.
+     */
+    public void setSymbolSource(S7SymbolSource symbolSource) {
+        this.symbolSource = symbolSource;
+        symbols.set(null);
+    }
+
+    /**
+     * Drops the cached symbol table of the symbol source, so the next request with symbolic fields reads the program
+     * version of the PLC and loads the table again. Happens automatically if the PLC rejects the address of a symbolic
+     * field.
+     */
+    public void invalidateSymbols() {
+        symbols.set(null);
+        S7SymbolSource currentSymbolSource = symbolSource;
+        if (currentSymbolSource != null) {
+            symbolCache.invalidate(currentSymbolSource.getKey());
+        }
+    }
+
     @Override
     public void close() throws PlcConnectionException {
         if ((channel != null) && channel.isOpen()) {
@@ -275,34 +455,364 @@ public class S7PlcConnection extends NettyPlcConnection implements PlcReader, Pl
         return new DefaultPlcWriteRequest.Builder(this, new S7PlcFieldHandler());
     }
 
+    @Override
+    public PlcSubscriptionRequest.Builder subscriptionRequestBuilder() {
+        return new DefaultPlcSubscriptionRequest.Builder(this, new S7PlcFieldHandler());
+    }
+
+    @Override
+    public PlcUnsubscriptionRequest.Builder unsubscriptionRequestBuilder() {
+        return new DefaultPlcUnsubscriptionRequest.Builder(this);
+    }
+
     @Override
     public CompletableFuture<PlcReadResponse> read(PlcReadRequest readRequest) {
         InternalPlcReadRequest internalReadRequest = checkInternal(readRequest, InternalPlcReadRequest.class);
+        List<Pair<String, PlcField>> namedFields = internalReadRequest.getNamedFields();
+        if (!isSymbolic(namedFields)) {
+            return sendReadRequest(internalReadRequest)
+                .thenApply(PlcReadResponse.class::cast);
+        }
+        CompletableFuture<Symbols> currentSymbols = getSymbols();
+        return currentSymbols
+            .thenCompose(resolvedSymbols -> sendReadRequest(resolvedSymbols.resolve(namedFields)))
+            .thenApply(response -> checkSymbolicFields(currentSymbols, readRequest, response))
+            .thenApply(PlcReadResponse.class::cast);
+    }
+
+    private CompletableFuture<InternalPlcReadResponse> sendReadRequest(InternalPlcReadRequest internalReadRequest) {
         CompletableFuture<InternalPlcReadResponse> future = new CompletableFuture<>();
         PlcRequestContainer<InternalPlcReadRequest, InternalPlcReadResponse> container =
             new PlcRequestContainer<>(internalReadRequest, future);
-        channel.writeAndFlush(container).addListener(f -> {
-            if (!f.isSuccess()) {
-                future.completeExceptionally(f.cause());
-            }
-        });
-        return future
-            .thenApply(PlcReadResponse.class::cast);
+        sendRequest(container);
+        return future;
     }
 
     @Override
     public CompletableFuture<PlcWriteResponse> write(PlcWriteRequest writeRequest) {
         InternalPlcWriteRequest internalWriteRequest = checkInternal(writeRequest, InternalPlcWriteRequest.class);
+        List<Triple<String, PlcField, BaseDefaultFieldItem>> namedFieldTriples = internalWriteRequest.getNamedFieldTriples();
+        List<Pair<String, PlcField>> namedFields = namedFieldTriples.stream()
+            .map(fieldTriple -> Pair.of(fieldTriple.getLeft(), fieldTriple.getMiddle()))
+            .collect(Collectors.toList());
+        if (!isSymbolic(namedFields)) {
+            return sendWriteRequest(internalWriteRequest)
+                .thenApply(PlcWriteResponse.class::cast);
+        }
+        CompletableFuture<Symbols> currentSymbols = getSymbols();
+        return currentSymbols
+            .thenCompose(resolvedSymbols -> {
+                PlcReadRequest resolvedRequest = resolvedSymbols.resolve(namedFields);
+                LinkedHashMap<String, Pair<PlcField, BaseDefaultFieldItem>> resolvedItems = new LinkedHashMap<>();
+                for (Triple<String, PlcField, BaseDefaultFieldItem> fieldTriple : namedFieldTriples) {
+                    String fieldName = fieldTriple.getLeft();
+                    resolvedItems.put(fieldName, Pair.of(resolvedRequest.getField(fieldName), fieldTriple.getRight()));
+                }
+                return sendWriteRequest(new ResolvedWriteRequest(this, resolvedItems));
+            })
+            .thenApply(response -> checkSymbolicFields(currentSymbols, writeRequest, response))
+            .thenApply(PlcWriteResponse.class::cast);
+    }
+
+    private CompletableFuture<InternalPlcWriteResponse> sendWriteRequest(InternalPlcWriteRequest internalWriteRequest) {
         CompletableFuture<InternalPlcWriteResponse> future = new CompletableFuture<>();
         PlcRequestContainer<InternalPlcWriteRequest, InternalPlcWriteResponse> container =
             new PlcRequestContainer<>(internalWriteRequest, future);
-        channel.writeAndFlush(container).addListener(f -> {
-            if (!f.isSuccess()) {
-                future.completeExceptionally(f.cause());
+        sendRequest(container);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PlcSubscriptionResponse> subscribe(PlcSubscriptionRequest subscriptionRequest) {
+        InternalPlcSubscriptionRequest internalSubscriptionRequest = checkInternal(subscriptionRequest, InternalPlcSubscriptionRequest.class);
+        Optional<Duration> unsupportedInterval = internalSubscriptionRequest.getSubscriptionFields().stream()
+            .map(SubscriptionPlcField::getDuration)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .filter(interval -> !CyclicTimeBase.isSupported(interval))
+            .findFirst();
+        if (unsupportedInterval.isPresent()) {
+            // All fields share one cyclic job, so none of them can be subscribed.
+            logger.warn("Rejecting subscription with interval {}, S7 supports intervals between {} and {}",
+                unsupportedInterval.get(), CyclicTimeBase.getMinInterval(), CyclicTimeBase.getMaxInterval());
+            Map<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> values = new LinkedHashMap<>();
+            for (String fieldName : internalSubscriptionRequest.getFieldNames()) {
+                values.put(fieldName, Pair.of(PlcResponseCode.INVALID_ADDRESS, null));
             }
-        });
-        return future
-            .thenApply(PlcWriteResponse.class::cast);
+            return CompletableFuture.completedFuture(new DefaultPlcSubscriptionResponse(internalSubscriptionRequest, values));
+        }
+        List<Pair<String, PlcField>> namedFields = internalSubscriptionRequest.getNamedFields();
+        if (!isSymbolic(namedFields)) {
+            return sendSubscriptionRequest(internalSubscriptionRequest)
+                .thenApply(PlcSubscriptionResponse.class::cast);
+        }
+        List<Pair<String, SubscriptionPlcField>> namedSubscriptionFields =
+            internalSubscriptionRequest.getNamedSubscriptionFields();
+        return getSymbols()
+            .thenCompose(resolvedSymbols -> {
+                PlcReadRequest resolvedRequest = resolvedSymbols.resolve(namedFields);
+                LinkedHashMap<String, SubscriptionPlcField> resolvedSubscriptionFields = new LinkedHashMap<>();
+                for (Pair<String, SubscriptionPlcField> namedField : namedSubscriptionFields) {
+                    SubscriptionPlcField subscriptionField = namedField.getValue();
+                    resolvedSubscriptionFields.put(namedField.getKey(), new SubscriptionPlcField(
+                        subscriptionField.getPlcSubscriptionType(), resolvedRequest.getField(namedField.getKey()),
+                        subscriptionField.getDuration().orElse(null)));
+                }
+                return sendSubscriptionRequest(new DefaultPlcSubscriptionRequest(this, resolvedSubscriptionFields));
+            })
+            .thenApply(PlcSubscriptionResponse.class::cast);
+    }
+
+    private CompletableFuture<InternalPlcSubscriptionResponse> sendSubscriptionRequest(
+            InternalPlcSubscriptionRequest internalSubscriptionRequest) {
+        CompletableFuture<InternalPlcSubscriptionResponse> future = new CompletableFuture<>();
+        PlcRequestContainer<InternalPlcSubscriptionRequest, InternalPlcSubscriptionResponse> container =
+            new PlcRequestContainer<>(internalSubscriptionRequest, future);
+        sendRequest(container);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PlcUnsubscriptionResponse> unsubscribe(PlcUnsubscriptionRequest unsubscriptionRequest) {
+        InternalPlcUnsubscriptionRequest internalUnsubscriptionRequest = checkInternal(unsubscriptionRequest, InternalPlcUnsubscriptionRequest.class);
+        // The S7 can only cancel a subscription as a whole, so there's one request per job.
+        Map<Byte, List<S7SubscriptionHandle>> handlesByJob = internalUnsubscriptionRequest.getInternalPlcSubscriptionHandles().stream()
+            .filter(S7SubscriptionHandle.class::isInstance)
+            .map(S7SubscriptionHandle.class::cast)
+            .collect(Collectors.groupingBy(S7SubscriptionHandle::getJobId, LinkedHashMap::new, Collectors.toList()));
+        List<CompletableFuture<InternalPlcUnsubscriptionResponse>> futures = new ArrayList<>(handlesByJob.size());
+        for (Map.Entry<Byte, List<S7SubscriptionHandle>> jobHandles : handlesByJob.entrySet()) {
+            CompletableFuture<InternalPlcUnsubscriptionResponse> future = new CompletableFuture<>();
+            PlcRequestContainer<InternalPlcUnsubscriptionRequest, InternalPlcUnsubscriptionResponse> container =
+                new PlcRequestContainer<>(new DefaultPlcUnsubscriptionRequest(this, jobHandles.getValue()), future);
+            sendRequest(container);
+            byte jobId = jobHandles.getKey();
+            futures.add(future.thenApply(response -> {
+                cyclicDataDispatcher.removeJob(jobId);
+                return response;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(ignore -> new DefaultPlcUnsubscriptionResponse(internalUnsubscriptionRequest));
+    }
+
+    @Override
+    public PlcConsumerRegistration register(Consumer<PlcSubscriptionEvent> consumer, Collection<PlcSubscriptionHandle> handles) {
+        Objects.requireNonNull(consumer);
+        Objects.requireNonNull(handles);
+        InternalPlcSubscriptionHandle[] internalPlcSubscriptionHandles = handles.stream()
+            .map(handle -> checkInternal(handle, InternalPlcSubscriptionHandle.class))
+            .toArray(InternalPlcSubscriptionHandle[]::new);
+
+        InternalPlcConsumerRegistration internalPlcConsumerRegistration = new DefaultPlcConsumerRegistration(this, consumer, internalPlcSubscriptionHandles);
+        consumerRegistrations.put(internalPlcConsumerRegistration, consumer);
+        cyclicDataDispatcher.register(consumer, getS7SubscriptionHandles(internalPlcConsumerRegistration));
+
+        return internalPlcConsumerRegistration;
+    }
+
+    @Override
+    public void unregister(PlcConsumerRegistration plcConsumerRegistration) {
+        InternalPlcConsumerRegistration internalPlcConsumerRegistration = checkInternal(plcConsumerRegistration, InternalPlcConsumerRegistration.class);
+        Consumer<PlcSubscriptionEvent> consumer = consumerRegistrations.remove(internalPlcConsumerRegistration);
+        if (consumer == null) {
+            return;
+        }
+        cyclicDataDispatcher.unregister(consumer, getS7SubscriptionHandles(internalPlcConsumerRegistration));
+    }
+
+    private static boolean isSymbolic(List<Pair<String, PlcField>> namedFields) {
+        for (Pair<String, PlcField> namedField : namedFields) {
+            if (namedField.getValue() instanceof S7SymbolicField) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The symbols of the program version read since the last connect or {@link #invalidateSymbols()}, requests with
+     * symbolic fields issued meanwhile share the same round-trip. A failed attempt is retried by the next request.
+     */
+    private CompletableFuture<Symbols> getSymbols() {
+        while (true) {
+            CompletableFuture<Symbols> current = symbols.get();
+            if ((current != null) && !current.isCompletedExceptionally()) {
+                return current;
+            }
+            CompletableFuture<Symbols> next = new CompletableFuture<>();
+            if (symbols.compareAndSet(current, next)) {
+                loadSymbols(next);
+                return next;
+            }
+        }
+    }
+
+    private void loadSymbols(CompletableFuture<Symbols> future) {
+        S7SymbolSource currentSymbolSource = symbolSource;
+        if (currentSymbolSource == null) {
+            future.completeExceptionally(
+                new PlcRuntimeException("Symbolic fields need a symbol source, e.g. the symbol-file parameter"));
+            return;
+        }
+        readProgramChecksums()
+            // Loading the table might read a file, which must not block the event loop.
+            .thenApplyAsync(programChecksums -> {
+                try {
+                    String programVersion = (programChecksums != null) ?
+                        programChecksums : currentSymbolSource.getProgramVersion();
+                    return new Symbols(symbolCache.get(currentSymbolSource, programVersion));
+                } catch (PlcException e) {
+                    throw new PlcRuntimeException("Can't load the symbols of " + currentSymbolSource, e);
+                }
+            })
+            .whenComplete((loadedSymbols, throwable) -> {
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(loadedSymbols);
+                }
+            });
+    }
+
+    /**
+     * Reads the checksums of the hardware configuration and the user program, which change with every download.
+     *
+     * @return the checksums as hex string or {@code null} if the PLC doesn't report them.
+     */
+    private CompletableFuture<String> readProgramChecksums() {
+        S7RequestMessage readSslRequest = new S7RequestMessage(MessageType.USER_DATA, (short) 0,
+            Collections.singletonList(new CpuServicesRequestParameter(
+                CpuServicesParameterFunctionGroup.CPU_FUNCTIONS, CpuServicesParameterSubFunctionGroup.READ_SSL,
+                (byte) 0)),
+            Collections.singletonList(new CpuServicesPayload(
+                DataTransportErrorCode.OK, SslId.COMMUNICATION_STATUS_DATA, PROGRAM_CHECKSUMS_INDEX)),
+            null);
+        CompletableFuture<InternalPlcProprietaryResponse<S7ResponseMessage>> future = new CompletableFuture<>();
+        PlcRequestContainer<InternalPlcProprietaryRequest<S7RequestMessage>, InternalPlcProprietaryResponse<S7ResponseMessage>> container =
+            new PlcRequestContainer<>(new DefaultPlcProprietaryRequest<>(readSslRequest), future);
+        sendRequest(container);
+        return future.thenApply(response -> getProgramChecksums(response.getResponse()));
+    }
+
+    private static String getProgramChecksums(S7ResponseMessage response) {
+        Optional<CpuServicesPayload> payload = response.getPayload(CpuServicesPayload.class);
+        if (!payload.isPresent() || (payload.get().getReturnCode() != DataTransportErrorCode.OK)) {
+            return null;
+        }
+        for (SslDataRecord sslDataRecord : payload.get().getSslDataRecords()) {
+            if (!(sslDataRecord instanceof SslRawDataRecord)) {
+                continue;
+            }
+            // Index (word 0) and ken_rel (word 7), which tells if the checksums following it are valid.
+            byte[] data = ((SslRawDataRecord) sslDataRecord).getData();
+            if ((data.length > 16) && (data[0] == 0) && (data[1] == PROGRAM_CHECKSUMS_INDEX) &&
+                ((data[14] != 0) || (data[15] != 0))) {
+                return ByteBufUtil.hexDump(data, 14, data.length - 14);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A PLC rejecting the address of a symbolic field most likely runs another program by now.
+     */
+    private <T extends PlcFieldResponse> T checkSymbolicFields(CompletableFuture<Symbols> usedSymbols,
+                                                               PlcFieldRequest request, T response) {
+        for (String fieldName : response.getFieldNames()) {
+            if (!(request.getField(fieldName) instanceof S7SymbolicField)) {
+                continue;
+            }
+            PlcResponseCode responseCode = response.getResponseCode(fieldName);
+            if (responseCode == PlcResponseCode.INVALID_ADDRESS || responseCode == PlcResponseCode.NOT_FOUND ||
+                responseCode == PlcResponseCode.INVALID_DATATYPE) {
+                logger.info("Field {} got rejected with {}, resolving symbols again", fieldName, responseCode);
+                // Requests resolved by an older table must not drop a table loaded meanwhile.
+                if (symbols.compareAndSet(usedSymbols, null)) {
+                    S7SymbolSource currentSymbolSource = symbolSource;
+                    if (currentSymbolSource != null) {
+                        symbolCache.invalidate(currentSymbolSource.getKey());
+                    }
+                }
+                break;
+            }
+        }
+        return response;
+    }
+
+    private List<S7SubscriptionHandle> getS7SubscriptionHandles(InternalPlcConsumerRegistration internalPlcConsumerRegistration) {
+        return internalPlcConsumerRegistration.getAssociatedHandles().stream()
+            .map(subscriptionHandle -> checkInternal(subscriptionHandle, S7SubscriptionHandle.class))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The symbol table of one program version and the requests resolved by it, keyed by their named fields.
+     */
+    private final class Symbols {
+
+        private final S7SymbolTable symbolTable;
+
+        private final Map<List<Pair<String, PlcField>>, ResolvedReadRequest> resolvedRequests = new ConcurrentHashMap<>();
+
+        private Symbols(S7SymbolTable symbolTable) {
+            this.symbolTable = symbolTable;
+        }
+
+        /**
+         * Resolves the symbolic fields of a request, so the protocol layer only sees {@link S7Field}s and a program
+         * change can't affect requests in flight.
+         *
+         * @throws PlcInvalidFieldException if a tag is unknown or of another data type.
+         */
+        private ResolvedReadRequest resolve(List<Pair<String, PlcField>> namedFields) {
+            ResolvedReadRequest resolvedRequest = resolvedRequests.get(namedFields);
+            if (resolvedRequest != null) {
+                return resolvedRequest;
+            }
+            LinkedHashMap<String, PlcField> resolvedFields = new LinkedHashMap<>();
+            for (Pair<String, PlcField> namedField : namedFields) {
+                PlcField field = namedField.getValue();
+                if (field instanceof S7SymbolicField) {
+                    S7SymbolicField symbolicField = (S7SymbolicField) field;
+                    field = symbolTable.resolve(symbolicField);
+                    if (field == null) {
+                        throw new PlcInvalidFieldException("Unknown tag " + symbolicField.getSymbol() +
+                            " in program version " + symbolTable.getVersion());
+                    }
+                }
+                resolvedFields.put(namedField.getKey(), field);
+            }
+            resolvedRequest = new ResolvedReadRequest(S7PlcConnection.this, resolvedFields);
+            // Requests built anew for each call must not grow the cache without bounds.
+            if (resolvedRequests.size() < MAX_RESOLVED_REQUESTS) {
+                resolvedRequests.put(namedFields, resolvedRequest);
+            }
+            return resolvedRequest;
+        }
+
+    }
+
+    /**
+     * A read request with the symbolic fields of the request of the user resolved, the response refers to it.
+     */
+    private static class ResolvedReadRequest extends DefaultPlcReadRequest {
+
+        private ResolvedReadRequest(PlcReader reader, LinkedHashMap<String, PlcField> fields) {
+            super(reader, fields);
+        }
+
+    }
+
+    /**
+     * A write request with the symbolic fields of the request of the user resolved, the response refers to it.
+     */
+    private static class ResolvedWriteRequest extends DefaultPlcWriteRequest {
+
+        private ResolvedWriteRequest(PlcWriter writer, LinkedHashMap<String, Pair<PlcField, BaseDefaultFieldItem>> fields) {
+            super(writer, fields);
+        }
+
     }
 
 }
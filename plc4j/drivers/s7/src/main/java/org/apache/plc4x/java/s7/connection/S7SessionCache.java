@@ -0,0 +1,117 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.s7.connection;
+
+import org.apache.plc4x.java.s7.types.S7ControllerType;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the outcome of the last successful session setup per host, rack and slot, so a reconnect can skip the
+ * identification of the controller and request the parameters the remote agreed to before.
+ * <p>
+ * The cache is shared by all connections and safe to use from concurrent connects.
+ */
+public class S7SessionCache {
+
+    private static final S7SessionCache INSTANCE = new S7SessionCache();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @return the cache used by all {@link S7PlcConnection}s.
+     */
+    public static S7SessionCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static String key(String host, int port, int rack, int slot) {
+        return host + ":" + port + "/" + rack + "/" + slot;
+    }
+
+    /**
+     * @return the session last established with the given remote or {@code null} if there is none.
+     */
+    public Session get(String key) {
+        return sessions.get(key);
+    }
+
+    public void put(String key, Session session) {
+        sessions.put(Objects.requireNonNull(key), Objects.requireNonNull(session));
+    }
+
+    public void invalidate(String key) {
+        sessions.remove(key);
+    }
+
+    public void clear() {
+        sessions.clear();
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * The parameters of an established S7 session.
+     */
+    public static class Session {
+
+        private final S7ControllerType controllerType;
+        private final short pduSize;
+        private final short maxAmqCaller;
+        private final short maxAmqCallee;
+
+        public Session(S7ControllerType controllerType, short pduSize, short maxAmqCaller, short maxAmqCallee) {
+            this.controllerType = Objects.requireNonNull(controllerType);
+            this.pduSize = pduSize;
+            this.maxAmqCaller = maxAmqCaller;
+            this.maxAmqCallee = maxAmqCallee;
+        }
+
+        public S7ControllerType getControllerType() {
+            return controllerType;
+        }
+
+        public short getPduSize() {
+            return pduSize;
+        }
+
+        public short getMaxAmqCaller() {
+            return maxAmqCaller;
+        }
+
+        public short getMaxAmqCallee() {
+            return maxAmqCallee;
+        }
+
+        @Override
+        public String toString() {
+            return "Session{" +
+                "controllerType=" + controllerType +
+                ", pduSize=" + pduSize +
+                ", maxAmqCaller=" + maxAmqCaller +
+                ", maxAmqCallee=" + maxAmqCallee +
+                '}';
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.connection;
+
+import org.apache.plc4x.java.api.exceptions.PlcException;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the latest {@link S7SymbolTable} per {@link S7SymbolSource}, so connections to the same PLC load its tags only
+ * once per program version. A table is replaced as soon as another program version is asked for.
+ * <p>
+ * The cache is shared by all connections and safe to use from concurrent connections.
+ */
+public class S7SymbolCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7SymbolCache.class);
+
+    private static final S7SymbolCache INSTANCE = new S7SymbolCache();
+
+    private final Map<String, S7SymbolTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @return the cache used by all {@link S7PlcConnection}s.
+     */
+    public static S7SymbolCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the table of the given program version of the source, loaded if it isn't cached yet.
+     */
+    public S7SymbolTable get(S7SymbolSource source, String programVersion) throws PlcException {
+        String key = source.getKey();
+        S7SymbolTable table = tables.get(key);
+        if (table != null && table.getVersion().equals(programVersion)) {
+            return table;
+        }
+        logger.info("Loading symbols of {} for program version {}", key, programVersion);
+        // Concurrent loads of the same version yield equal tables, so the last one simply wins.
+        S7SymbolTable loadedTable = source.load(programVersion);
+        tables.put(key, loadedTable);
+        return loadedTable;
+    }
+
+    public void invalidate(String key) {
+        tables.remove(key);
+    }
+
+    public void clear() {
+        tables.clear();
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.connection;
+
+import org.apache.plc4x.java.api.exceptions.PlcException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Reads the tags from a file in the format of {@link S7SymbolTable#parse}, e.g. exported from the engineering tool
+ * along with every download. If the PLC doesn't report the checksums of its program, the program version is derived
+ * from the modification time and size of the file instead, so a new export replaces the cached table.
+ */
+public class S7SymbolFile implements S7SymbolSource {
+
+    private final Path path;
+
+    public S7SymbolFile(Path path) {
+        this.path = Objects.requireNonNull(path);
+    }
+
+    @Override
+    public String getKey() {
+        return path.toAbsolutePath().toString();
+    }
+
+    @Override
+    public String getProgramVersion() throws PlcException {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() + "/" + Files.size(path);
+        } catch (IOException e) {
+            throw new PlcException("Can't access symbol file " + path, e);
+        }
+    }
+
+    @Override
+    public S7SymbolTable load(String programVersion) throws PlcException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return S7SymbolTable.parse(programVersion, reader);
+        } catch (IOException | PlcRuntimeException e) {
+            throw new PlcException("Can't read symbol file " + path, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "S7SymbolFile{" +
+            "path=" + path +
+            '}';
+    }
+}
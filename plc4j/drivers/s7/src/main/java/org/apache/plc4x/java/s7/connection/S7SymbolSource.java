@@ -0,0 +1,49 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.connection;
+
+import org.apache.plc4x.java.api.exceptions.PlcException;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+
+/**
+ * Supplies the tags of the program running on a PLC, so {@link S7PlcConnection} can resolve symbolic fields.
+ * <p>
+ * Tags resolve to absolute addresses, so only tags in the memory areas and in data blocks with standard access can be
+ * reached. Data blocks with optimized access of S7-1200/1500 controllers have no absolute addresses. They can only be
+ * browsed and accessed with S7comm-plus, which this driver doesn't implement.
+ */
+public interface S7SymbolSource {
+
+    /**
+     * @return identifies the source in the {@link S7SymbolCache}, sources with the same key share their tables.
+     */
+    String getKey();
+
+    /**
+     * @return the version of the program the tags were exported from, it has to change whenever they change. Only
+     * asked for if the PLC doesn't report the checksums of its program, which serve as program version otherwise.
+     */
+    String getProgramVersion() throws PlcException;
+
+    /**
+     * @return the tags of the given program version.
+     */
+    S7SymbolTable load(String programVersion) throws PlcException;
+
+}
@@ -19,11 +19,51 @@
 
 package org.apache.plc4x.java.s7.connection;
 
-import org.apache.plc4x.java.api.exceptions.PlcUnsupportedOperationException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.messages.PlcFieldRequest;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.DefaultPlcProprietaryResponse;
+import org.apache.plc4x.java.base.messages.DefaultPlcReadResponse;
+import org.apache.plc4x.java.base.messages.InternalPlcProprietaryRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcReadRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+import org.apache.plc4x.java.s7.model.S7SymbolicField;
+import org.apache.plc4x.java.s7.netty.model.messages.S7ResponseMessage;
+import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslRawDataRecord;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportErrorCode;
+import org.apache.plc4x.java.s7.netty.model.types.MessageType;
+import org.apache.plc4x.java.s7.netty.model.types.SslId;
+import org.apache.plc4x.java.s7.types.S7ControllerType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertThat;
@@ -51,6 +91,13 @@ public class S7PlcConnectionTests {
         assertThat("Pdu size is incorrect", SUT.getParamPduSize(), equalTo((short) 128));
         assertThat("Max AMQ Caller size is incorrect", SUT.getParamMaxAmqCaller(), equalTo(2) );
         assertThat("Max AMQ Callee size is incorrect", SUT.getParamMaxAmqCallee(), equalTo(3) );
+        assertThat("Lazy decoding is incorrect", SUT.isParamLazyDecoding(), equalTo(false) );
+    }
+
+    @Test
+    public void initialStateLazyDecoding() {
+        SUT = new S7PlcTestConnection(1, 2, "lazy-decoding=true");
+        assertThat("Lazy decoding is incorrect", SUT.isParamLazyDecoding(), equalTo(true));
     }
 
     /**
@@ -62,6 +109,38 @@ public class S7PlcConnectionTests {
         assertThat("Pdu size is incorrect", SUT.getParamPduSize(), equalTo((short) 480));
     }
 
+    @Test
+    public void connectParametersWithoutCachedSession() {
+        S7SessionCache.Session parameters = SUT.getConnectParameters();
+        assertThat("Controller type is incorrect", parameters.getControllerType(), equalTo(S7ControllerType.ANY));
+        assertThat("Pdu size is incorrect", parameters.getPduSize(), equalTo((short) 128));
+        assertThat("Max AMQ Caller size is incorrect", parameters.getMaxAmqCaller(), equalTo((short) 2));
+        assertThat("Max AMQ Callee size is incorrect", parameters.getMaxAmqCallee(), equalTo((short) 3));
+    }
+
+    @Test
+    public void connectParametersReuseCachedSession() {
+        S7SessionCache.getInstance().put("cached", new S7SessionCache.Session(
+            S7ControllerType.S7_1500, (short) 240, (short) 1, (short) 8));
+        try {
+            S7SessionCache.Session parameters = new CachedS7PlcTestConnection("max-amq-callee=3")
+                .getConnectParameters();
+            assertThat("Controller type is incorrect", parameters.getControllerType(), equalTo(S7ControllerType.S7_1500));
+            assertThat("Pdu size is incorrect", parameters.getPduSize(), equalTo((short) 240));
+            assertThat("Max AMQ Caller size is incorrect", parameters.getMaxAmqCaller(), equalTo((short) 1));
+            assertThat("Max AMQ Callee size is incorrect", parameters.getMaxAmqCallee(), equalTo((short) 3));
+
+            parameters = new CachedS7PlcTestConnection("controller-type=S7_300").getConnectParameters();
+            assertThat("Configured controller type is ignored", parameters.getControllerType(),
+                equalTo(S7ControllerType.S7_300));
+
+            parameters = new CachedS7PlcTestConnection("fast-connect=false").getConnectParameters();
+            assertThat("Fast connect is not disabled", parameters.getControllerType(), equalTo(S7ControllerType.ANY));
+        } finally {
+            S7SessionCache.getInstance().invalidate("cached");
+        }
+    }
+
     @Test
     public void capabilities() {
         assertThat(SUT.canRead(), equalTo(true));
@@ -70,9 +149,196 @@ public class S7PlcConnectionTests {
         assertThat(SUT.canWrite(), equalTo(true));
         assertThat(SUT.writeRequestBuilder(), notNullValue());
 
-        assertThat(SUT.canSubscribe(), equalTo(false));
-        assertThrows(PlcUnsupportedOperationException.class, () -> SUT.subscriptionRequestBuilder());
-        assertThrows(PlcUnsupportedOperationException.class, () -> SUT.unsubscriptionRequestBuilder());
+        assertThat(SUT.canSubscribe(), equalTo(true));
+        assertThat(SUT.subscriptionRequestBuilder(), notNullValue());
+        assertThat(SUT.unsubscriptionRequestBuilder(), notNullValue());
+    }
+
+    @Test
+    public void subscriptionIntervalBelowTimeBaseIsRejected() throws Exception {
+        PlcSubscriptionRequest subscriptionRequest = SUT.subscriptionRequestBuilder()
+            .addCyclicField("level", "%DB1.DBD4:REAL", Duration.ofMillis(50))
+            .addCyclicField("pressure", "%DB1.DBD8:REAL", Duration.ofMillis(50))
+            .build();
+
+        PlcSubscriptionResponse response = SUT.subscribe(subscriptionRequest).get(1, TimeUnit.SECONDS);
+
+        assertThat(response.getResponseCode("level"), equalTo(PlcResponseCode.INVALID_ADDRESS));
+        assertThat(response.getResponseCode("pressure"), equalTo(PlcResponseCode.INVALID_ADDRESS));
+    }
+
+    @Test
+    public void symbolFileParameter() {
+        SUT = new S7PlcTestConnection(1, 2, "symbol-file=symbols.csv");
+        assertThat("Symbol source is incorrect", SUT.getSymbolSource(), instanceOf(S7SymbolFile.class));
+    }
+
+    @Test
+    public void symbolicFieldsNeedASymbolSource() {
+        PlcReadRequest readRequest = SUT.readRequestBuilder().addItem("level", "Tank.Level:REAL").build();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> SUT.read(readRequest).get(1, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(PlcRuntimeException.class));
+    }
+
+    @Test
+    public void unknownTag() {
+        RecordingS7PlcTestConnection connection = new RecordingS7PlcTestConnection();
+        connection.setSymbolSource(new TestSymbolSource("unknownTag", () -> "1"));
+        PlcReadRequest readRequest = connection.readRequestBuilder().addItem("pressure", "Tank.Pressure:REAL").build();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> connection.read(readRequest).get(1, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(PlcInvalidFieldException.class));
+    }
+
+    @Test
+    public void symbolicFieldsAreResolvedByTheProgramChecksums() throws Exception {
+        RecordingS7PlcTestConnection connection = new RecordingS7PlcTestConnection();
+        connection.setSymbolSource(new TestSymbolSource("symbolicFieldsAreResolvedByTheProgramChecksums", () -> "1"));
+        PlcReadRequest readRequest = connection.readRequestBuilder()
+            .addItem("level", "Tank.Level:REAL")
+            .addItem("flag", "%M0.0:BOOL")
+            .build();
+
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+        connection.programChecksum = 2;
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+
+        // The program version is only read once per connect, so is the request resolved.
+        assertThat(connection.programChecksumReads, equalTo(1));
+        assertThat(connection.sentRequests.size(), equalTo(2));
+        assertThat(connection.sentRequests.get(1), sameInstance(connection.sentRequests.get(0)));
+        S7Field first = (S7Field) connection.sentRequests.get(0).getField("level");
+        assertThat(first.getBlockNumber(), equalTo((short) 1));
+        assertThat(connection.sentRequests.get(0).getField("flag"), equalTo(readRequest.getField("flag")));
+        assertThat(readRequest.getField("level"), instanceOf(S7SymbolicField.class));
+
+        connection.invalidateSymbols();
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+
+        assertThat(connection.programChecksumReads, equalTo(2));
+        S7Field second = (S7Field) connection.sentRequests.get(2).getField("level");
+        assertThat(second.getBlockNumber(), equalTo((short) 2));
+    }
+
+    @Test
+    public void rejectedSymbolicFieldsAreResolvedAgain() throws Exception {
+        RecordingS7PlcTestConnection connection = new RecordingS7PlcTestConnection();
+        connection.setSymbolSource(new TestSymbolSource("rejectedSymbolicFieldsAreResolvedAgain", () -> "1"));
+        PlcReadRequest readRequest = connection.readRequestBuilder().addItem("level", "Tank.Level:REAL").build();
+
+        connection.responseCode = PlcResponseCode.INVALID_ADDRESS;
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+        connection.programChecksum = 2;
+        connection.responseCode = PlcResponseCode.OK;
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+
+        assertThat(connection.programChecksumReads, equalTo(2));
+        S7Field second = (S7Field) connection.sentRequests.get(1).getField("level");
+        assertThat(second.getBlockNumber(), equalTo((short) 2));
+    }
+
+    @Test
+    public void programVersionOfTheSymbolSourceIfThePlcReportsNoChecksums() throws Exception {
+        RecordingS7PlcTestConnection connection = new RecordingS7PlcTestConnection();
+        AtomicReference<String> programVersion = new AtomicReference<>("2");
+        connection.setSymbolSource(new TestSymbolSource("programVersionOfTheSymbolSourceIfThePlcReportsNoChecksums",
+            programVersion::get));
+        connection.programChecksum = 0;
+        PlcReadRequest readRequest = connection.readRequestBuilder().addItem("level", "Tank.Level:REAL").build();
+
+        connection.read(readRequest).get(1, TimeUnit.SECONDS);
+
+        S7Field level = (S7Field) connection.sentRequests.get(0).getField("level");
+        assertThat(level.getBlockNumber(), equalTo((short) 2));
+    }
+
+    /**
+     * Knows the tag {@code Tank.Level} in data block 1 for program version "1" or the checksums ending in 1, in data
+     * block 2 otherwise.
+     */
+    private static class TestSymbolSource implements S7SymbolSource {
+
+        private final String key;
+        private final Supplier<String> programVersion;
+
+        private TestSymbolSource(String key, Supplier<String> programVersion) {
+            this.key = key;
+            this.programVersion = programVersion;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getProgramVersion() {
+            return programVersion.get();
+        }
+
+        @Override
+        public S7SymbolTable load(String version) {
+            String address = version.endsWith("1") ? "%DB1.DBD4:REAL" : "%DB2.DBD8:REAL";
+            return S7SymbolTable.of(version, Collections.singletonMap("Tank.Level", S7Field.of(address)));
+        }
+    }
+
+    /**
+     * Records the read requests sent and answers them with {@link #responseCode}, the program checksums are reported as
+     * a sequence of {@link #programChecksum}, as missing if it is 0.
+     */
+    private static class RecordingS7PlcTestConnection extends S7PlcTestConnection {
+
+        private final List<PlcFieldRequest> sentRequests = new ArrayList<>();
+
+        private int programChecksumReads;
+
+        private volatile byte programChecksum = 1;
+
+        private volatile PlcResponseCode responseCode = PlcResponseCode.OK;
+
+        private RecordingS7PlcTestConnection() {
+            super(1, 2, "");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T extends InternalPlcRequest, R extends InternalPlcResponse> void sendRequest(PlcRequestContainer<T, R> request) {
+            CompletableFuture<InternalPlcResponse> responseFuture = (CompletableFuture<InternalPlcResponse>) request.getResponseFuture();
+            if (request.getRequest() instanceof InternalPlcProprietaryRequest) {
+                programChecksumReads++;
+                // Index 4, ken_rel set if there are checksums, followed by them.
+                byte[] data = new byte[40];
+                data[1] = 0x04;
+                data[15] = (byte) ((programChecksum != 0) ? 1 : 0);
+                Arrays.fill(data, 16, data.length, programChecksum);
+                S7ResponseMessage response = new S7ResponseMessage(MessageType.USER_DATA, (short) 0,
+                    Collections.emptyList(), Collections.singletonList(new CpuServicesPayload(DataTransportErrorCode.OK,
+                    SslId.COMMUNICATION_STATUS_DATA, (short) 0x0004, Collections.singletonList(new SslRawDataRecord(data)))),
+                    (byte) 0, (byte) 0);
+                responseFuture.complete(new DefaultPlcProprietaryResponse<>(
+                    (InternalPlcProprietaryRequest) request.getRequest(), response));
+                return;
+            }
+            InternalPlcReadRequest readRequest = (InternalPlcReadRequest) request.getRequest();
+            sentRequests.add(readRequest);
+            Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> values = new HashMap<>();
+            for (String fieldName : readRequest.getFieldNames()) {
+                values.put(fieldName, Pair.of(responseCode, null));
+            }
+            responseFuture.complete(new DefaultPlcReadResponse(readRequest, values));
+        }
+    }
+
+    private static class CachedS7PlcTestConnection extends S7PlcTestConnection {
+
+        private CachedS7PlcTestConnection(String params) {
+            super(1, 2, params);
+        }
+
+        @Override
+        protected String getSessionKey() {
+            return isParamFastConnect() ? "cached" : null;
+        }
     }
 
-}
\ No newline at end of file
+}
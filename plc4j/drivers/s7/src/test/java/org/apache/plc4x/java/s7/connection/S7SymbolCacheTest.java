@@ -0,0 +1,93 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.connection;
+
+import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class S7SymbolCacheTest {
+
+    private S7SymbolCache SUT;
+
+    private TestSymbolSource source;
+
+    @Before
+    public void setUp() {
+        SUT = new S7SymbolCache();
+        source = new TestSymbolSource();
+    }
+
+    @Test
+    public void loadsOncePerProgramVersion() throws Exception {
+        S7SymbolTable table = SUT.get(source, "1");
+
+        assertThat(SUT.get(source, "1"), sameInstance(table));
+        assertThat("The table should have been loaded once", source.loads, equalTo(1));
+        assertThat(SUT.size(), equalTo(1));
+    }
+
+    @Test
+    public void reloadsOnProgramChange() throws Exception {
+        SUT.get(source, "1");
+
+        S7SymbolTable table = SUT.get(source, "2");
+
+        assertThat(table.getVersion(), equalTo("2"));
+        assertThat(source.loads, equalTo(2));
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        SUT.get(source, "1");
+        SUT.invalidate(source.getKey());
+        SUT.get(source, "1");
+
+        assertThat(source.loads, equalTo(2));
+    }
+
+    private static class TestSymbolSource implements S7SymbolSource {
+
+        private int loads;
+
+        @Override
+        public String getKey() {
+            return "test";
+        }
+
+        @Override
+        public String getProgramVersion() {
+            return "1";
+        }
+
+        @Override
+        public S7SymbolTable load(String programVersion) {
+            loads++;
+            return S7SymbolTable.of(programVersion, Collections.singletonMap("Tank.Level", S7Field.of("%DB1.DBD4:REAL")));
+        }
+    }
+
+}
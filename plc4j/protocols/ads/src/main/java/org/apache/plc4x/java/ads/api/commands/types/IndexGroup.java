@@ -72,6 +72,7 @@ public class IndexGroup extends UnsignedIntLEByteValue {
         public static final IndexGroup ADSIGRP_SYM_DOWNLOAD = IndexGroup.of(0xF00A);
         public static final IndexGroup ADSIGRP_SYM_UPLOAD = IndexGroup.of(0xF00B);
         public static final IndexGroup ADSIGRP_SYM_UPLOADINFO = IndexGroup.of(0xF00C);
+        public static final IndexGroup ADSIGRP_SYM_UPLOADINFO2 = IndexGroup.of(0xF00F);
         public static final IndexGroup ADSIGRP_SYMNOTE = IndexGroup.of(0xF010);
         public static final IndexGroup ADSIGRP_IOIMAGE_RWIB = IndexGroup.of(0xF020);
         public static final IndexGroup ADSIGRP_IOIMAGE_RWIX = IndexGroup.of(0xF021);
@@ -82,6 +83,13 @@ public class IndexGroup extends UnsignedIntLEByteValue {
         public static final IndexGroup ADSIGRP_IOIMAGE_CLEARI = IndexGroup.of(0xF040);
         public static final IndexGroup ADSIGRP_IOIMAGE_CLEARO = IndexGroup.of(0xF050);
         public static final IndexGroup ADSIGRP_IOIMAGE_RWIOB = IndexGroup.of(0xF060);
+        public static final IndexGroup ADSIGRP_SUMUP_READ = IndexGroup.of(0xF080);
+        public static final IndexGroup ADSIGRP_SUMUP_WRITE = IndexGroup.of(0xF081);
+        public static final IndexGroup ADSIGRP_SUMUP_READWRITE = IndexGroup.of(0xF082);
+        public static final IndexGroup ADSIGRP_SUMUP_READEX = IndexGroup.of(0xF083);
+        public static final IndexGroup ADSIGRP_SUMUP_READEX2 = IndexGroup.of(0xF084);
+        public static final IndexGroup ADSIGRP_SUMUP_ADDDEVNOTE = IndexGroup.of(0xF085);
+        public static final IndexGroup ADSIGRP_SUMUP_DELDEVNOTE = IndexGroup.of(0xF086);
         public static final IndexGroup ADSIGRP_DEVICE_DATA = IndexGroup.of(0xF100);
         public static final IndexGroup ADSIOFFS_DEVDATA_ADSSTATE = IndexGroup.of(0x0000);
         public static final IndexGroup ADSIOFFS_DEVDATA_DEVSTATE = IndexGroup.of(0x0002);
@@ -82,6 +82,10 @@ public enum Command implements ByteReadable {
         return Unpooled.wrappedBuffer(value);
     }
 
+    public int getIntValue() {
+        return intValue;
+    }
+
     @Override
     public long getCalculatedLength() {
         return NUM_BYTES;
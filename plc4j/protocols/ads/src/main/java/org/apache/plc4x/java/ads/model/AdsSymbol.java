@@ -0,0 +1,162 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.model;
+
+import java.util.Objects;
+
+/**
+ * An entry of the symbol table of a PLC, see {@link AdsSymbolTable}.
+ */
+public class AdsSymbol {
+
+    private final String name;
+
+    private final long indexGroup;
+
+    private final long indexOffset;
+
+    private final long size;
+
+    private final long dataTypeId;
+
+    private final long flags;
+
+    private final String typeName;
+
+    private final String comment;
+
+    private AdsSymbol(String name, long indexGroup, long indexOffset, long size, long dataTypeId, long flags, String typeName, String comment) {
+        this.name = Objects.requireNonNull(name);
+        this.indexGroup = indexGroup;
+        this.indexOffset = indexOffset;
+        this.size = size;
+        this.dataTypeId = dataTypeId;
+        this.flags = flags;
+        this.typeName = Objects.requireNonNull(typeName);
+        this.comment = Objects.requireNonNull(comment);
+    }
+
+    public static AdsSymbol of(String name, long indexGroup, long indexOffset, long size, long dataTypeId, long flags, String typeName, String comment) {
+        return new AdsSymbol(name, indexGroup, indexOffset, size, dataTypeId, flags, typeName, comment);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getIndexGroup() {
+        return indexGroup;
+    }
+
+    public long getIndexOffset() {
+        return indexOffset;
+    }
+
+    /**
+     * @return size of the symbol in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the ADS data type id ({@code ADST_*}) of the symbol.
+     */
+    public long getDataTypeId() {
+        return dataTypeId;
+    }
+
+    public long getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return the PLC type of the symbol, e.g. {@code INT}, {@code STRING(80)} or the name of a struct.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * @return the {@link AdsDataType} named like the type of this symbol or {@link AdsDataType#UNKNOWN} for complex
+     * types.
+     */
+    public AdsDataType getAdsDataType() {
+        String baseTypeName = typeName;
+        int parenthesis = baseTypeName.indexOf('(');
+        if (parenthesis > 0) {
+            // Sized strings like STRING(80)
+            baseTypeName = baseTypeName.substring(0, parenthesis);
+        }
+        if (baseTypeName.startsWith("ARRAY ")) {
+            return AdsDataType.ARRAY;
+        }
+        try {
+            return AdsDataType.valueOf(baseTypeName.trim());
+        } catch (IllegalArgumentException e) {
+            return AdsDataType.UNKNOWN;
+        }
+    }
+
+    /**
+     * @return a field addressing this symbol directly with the given type.
+     */
+    public DirectAdsField toDirectAdsField(AdsDataType adsDataType, int numberOfElements) {
+        return DirectAdsField.of(indexGroup, indexOffset, adsDataType, numberOfElements);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AdsSymbol)) {
+            return false;
+        }
+        AdsSymbol adsSymbol = (AdsSymbol) o;
+        return indexGroup == adsSymbol.indexGroup &&
+            indexOffset == adsSymbol.indexOffset &&
+            size == adsSymbol.size &&
+            dataTypeId == adsSymbol.dataTypeId &&
+            flags == adsSymbol.flags &&
+            name.equals(adsSymbol.name) &&
+            typeName.equals(adsSymbol.typeName) &&
+            comment.equals(adsSymbol.comment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, indexGroup, indexOffset, size, dataTypeId, flags, typeName, comment);
+    }
+
+    @Override
+    public String toString() {
+        return "AdsSymbol{" +
+            "name='" + name + '\'' +
+            ", indexGroup=" + indexGroup +
+            ", indexOffset=" + indexOffset +
+            ", size=" + size +
+            ", typeName='" + typeName + '\'' +
+            '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.model;
+
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The symbol table of a PLC as uploaded from {@code ADSIGRP_SYM_UPLOAD}, indexed by symbol name. Lets
+ * {@link SymbolicAdsField}s be resolved to {@link DirectAdsField}s locally instead of asking the PLC for a handle per
+ * symbol.
+ * <p>
+ * The table is only valid as long as the symbol version of the PLC doesn't change, which happens e.g. on an online
+ * change or a download of the PLC program.
+ */
+public class AdsSymbolTable {
+
+    /**
+     * Size of the fixed part of an entry: entry length, index group, index offset, size, data type, flags, and the
+     * lengths of name, type and comment.
+     */
+    static final int ENTRY_HEADER_SIZE = 6 * 4 + 3 * 2;
+
+    private final int version;
+
+    // By upper case name, symbol names are case insensitive.
+    private final Map<String, AdsSymbol> symbols;
+
+    private AdsSymbolTable(int version, Map<String, AdsSymbol> symbols) {
+        this.version = version;
+        this.symbols = symbols;
+    }
+
+    public static AdsSymbolTable of(int version, Collection<AdsSymbol> symbols) {
+        Map<String, AdsSymbol> index = new HashMap<>(symbols.size() * 4 / 3 + 1);
+        for (AdsSymbol symbol : symbols) {
+            index.put(key(symbol.getName()), symbol);
+        }
+        return new AdsSymbolTable(version, index);
+    }
+
+    /**
+     * Decodes the symbol entries uploaded from {@code ADSIGRP_SYM_UPLOAD}.
+     *
+     * @param version         the symbol version the entries were uploaded with.
+     * @param data            the uploaded entries.
+     * @param numberOfSymbols the number of entries as announced by {@code ADSIGRP_SYM_UPLOADINFO2}.
+     * @throws PlcRuntimeException if the entries are malformed.
+     */
+    public static AdsSymbolTable decode(int version, byte[] data, int numberOfSymbols) {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        List<AdsSymbol> symbols = new ArrayList<>(numberOfSymbols);
+        while (buffer.remaining() >= ENTRY_HEADER_SIZE && symbols.size() < numberOfSymbols) {
+            int start = buffer.position();
+            long entryLength = Integer.toUnsignedLong(buffer.getInt());
+            if (entryLength < ENTRY_HEADER_SIZE || entryLength > data.length - start) {
+                throw new PlcRuntimeException("Invalid length " + entryLength + " of symbol entry at " + start);
+            }
+            long indexGroup = Integer.toUnsignedLong(buffer.getInt());
+            long indexOffset = Integer.toUnsignedLong(buffer.getInt());
+            long size = Integer.toUnsignedLong(buffer.getInt());
+            long dataTypeId = Integer.toUnsignedLong(buffer.getInt());
+            long flags = Integer.toUnsignedLong(buffer.getInt());
+            int nameLength = Short.toUnsignedInt(buffer.getShort());
+            int typeLength = Short.toUnsignedInt(buffer.getShort());
+            int commentLength = Short.toUnsignedInt(buffer.getShort());
+            // Each string is followed by a terminating zero.
+            if (ENTRY_HEADER_SIZE + nameLength + typeLength + commentLength + 3 > entryLength) {
+                throw new PlcRuntimeException("Strings of symbol entry at " + start + " exceed its length " + entryLength);
+            }
+            String name = readString(buffer, nameLength);
+            String typeName = readString(buffer, typeLength);
+            String comment = readString(buffer, commentLength);
+            symbols.add(AdsSymbol.of(name, indexGroup, indexOffset, size, dataTypeId, flags, typeName, comment));
+            // Skips extended data newer runtimes append.
+            buffer.position((int) (start + entryLength));
+        }
+        if (symbols.size() != numberOfSymbols) {
+            throw new PlcRuntimeException("Expected " + numberOfSymbols + " symbols but got " + symbols.size());
+        }
+        return of(version, symbols);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        String string = new String(buffer.array(), buffer.position(), length, StandardCharsets.ISO_8859_1);
+        buffer.position(buffer.position() + length + 1);
+        return string;
+    }
+
+    private static String key(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    public Optional<AdsSymbol> getSymbol(String name) {
+        return Optional.ofNullable(symbols.get(key(name)));
+    }
+
+    public Collection<AdsSymbol> getSymbols() {
+        return Collections.unmodifiableCollection(symbols.values());
+    }
+
+    /**
+     * @return the field addressing the symbol of the given field directly or {@code null} if the table doesn't
+     * contain the symbol, e.g. because it's the member of a struct.
+     */
+    public DirectAdsField resolve(SymbolicAdsField symbolicAdsField) {
+        AdsSymbol symbol = symbols.get(key(symbolicAdsField.getSymbolicField()));
+        if (symbol == null) {
+            return null;
+        }
+        return symbol.toDirectAdsField(symbolicAdsField.getAdsDataType(), symbolicAdsField.getNumberOfElements());
+    }
+
+    @Override
+    public String toString() {
+        return "AdsSymbolTable{" +
+            "version=" + version +
+            ", symbols=" + symbols.size() +
+            '}';
+    }
+}
@@ -39,7 +39,15 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
-public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacket> {
+/**
+ * Codec between the payload of an AMS/TCP or AMS/Serial packet and AMS packets.
+ * <p>
+ * By default packets are decoded into the value classes of {@code api.generic} and {@code api.commands}. A codec
+ * created by {@link #flyweight()} instead passes {@link AmsFrame}s which read their fields straight from the received
+ * buffer, and writes outgoing frames without creating any intermediate objects. Outbound both {@link AmsPacket}s and
+ * {@link AmsFrame}s are accepted in either mode.
+ */
+public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Ads2PayloadProtocol.class);
 
@@ -52,11 +60,34 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
     private static final long ADS_NOTIFICATION_SAMPLE_MAX_BYTES = CONF.getLong("plc4x.ads2payloadprotocol.ads_notification_sample_max_bytes", 134217728L);
     private static final long ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES = CONF.getLong("plc4x.ads2payloadprotocol.ads_read_write_command_request_max_bytes", 134217728L);
     private static final long ADS_READ_WRITE_COMMAND_RESPONSE_MAX_BYTES = CONF.getLong("plc4x.ads2payloadprotocol.ads_read_write_command_response_max_bytes", 134217728L);
+    // Allows switching connections back to the value classes, e.g. to inspect the decoded packets while debugging.
+    private static final boolean VALUE_PACKETS = CONF.getBoolean("plc4x.ads2payloadprotocol.value_packets", false);
 
     private final ConcurrentMap<Invoke, AmsPacket> requests;
 
+    private final boolean flyweight;
+
     public Ads2PayloadProtocol() {
+        this(false);
+    }
+
+    /**
+     * @param flyweight if {@code true} received packets are passed on as {@link AmsFrame}s instead of {@link AmsPacket}s.
+     */
+    public Ads2PayloadProtocol(boolean flyweight) {
         this.requests = new ConcurrentHashMap<>();
+        this.flyweight = flyweight;
+    }
+
+    /**
+     * @return a codec passing {@link AmsFrame}s, unless {@code plc4x.ads2payloadprotocol.value_packets} is set.
+     */
+    public static Ads2PayloadProtocol flyweight() {
+        return new Ads2PayloadProtocol(!VALUE_PACKETS);
+    }
+
+    public boolean isFlyweight() {
+        return flyweight;
     }
 
     /**
@@ -67,8 +98,24 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
     }
 
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, AmsPacket amsPacket, List<Object> out) {
-        LOGGER.trace("(<--OUT): {}, {}, {}", channelHandlerContext, amsPacket, out);
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof AmsPacket || msg instanceof AmsFrame;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext channelHandlerContext, Object msg, List<Object> out) {
+        LOGGER.trace("(<--OUT): {}, {}, {}", channelHandlerContext, msg, out);
+        if (msg instanceof AmsFrame) {
+            out.add(((AmsFrame) msg).content().retain());
+            return;
+        }
+        AmsPacket amsPacket = (AmsPacket) msg;
+        if (flyweight) {
+            // Copies the packet into one buffer instead of a composite of a buffer per field.
+            ByteBuf byteBuf = amsPacket.getByteBuf();
+            out.add(channelHandlerContext.alloc().buffer(byteBuf.readableBytes()).writeBytes(byteBuf));
+            return;
+        }
         Invoke invokeId = amsPacket.getAmsHeader().getInvokeId();
         if (invokeId != Invoke.NONE) {
             requests.put(invokeId, amsPacket);
@@ -84,6 +131,23 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
             return;
         }
         LOGGER.trace("(-->IN): {}, {}, {}", channelHandlerContext, byteBuf, out);
+        if (flyweight) {
+            out.add(AmsFrame.decode(byteBuf));
+            return;
+        }
+        AmsPacket amsPacket = decodeAmsPacket(byteBuf);
+        AmsPacket correlatedAmsPacket = requests.remove(amsPacket.getAmsHeader().getInvokeId());
+        if (correlatedAmsPacket != null) {
+            LOGGER.debug("Correlated packet received {}", correlatedAmsPacket);
+        }
+        LOGGER.debug("Received amsPacket {}", amsPacket);
+        out.add(amsPacket);
+    }
+
+    /**
+     * Decodes one AMS packet into the value classes.
+     */
+    static AmsPacket decodeAmsPacket(ByteBuf byteBuf) {
         AmsNetId targetAmsNetId = AmsNetId.of(byteBuf);
         AmsPort targetAmsPort = AmsPort.of(byteBuf);
         AmsNetId sourceAmsNetId = AmsNetId.of(byteBuf);
@@ -93,10 +157,6 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         DataLength dataLength = DataLength.of(byteBuf);
         AmsError errorCode = AmsError.of(byteBuf);
         Invoke invoke = Invoke.of(byteBuf);
-        AmsPacket correlatedAmsPacket = requests.remove(invoke);
-        if (correlatedAmsPacket != null) {
-            LOGGER.debug("Correlated packet received {}", correlatedAmsPacket);
-        }
         if (dataLength.getAsLong() > Integer.MAX_VALUE) {
             throw new AdsProtocolOverflowException(Integer.class, dataLength.getAsLong());
         }
@@ -138,19 +198,18 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
             default:
                 amsPacket = handleUnknownCommand(commandBuffer, amsHeader);
         }
-        LOGGER.debug("Received amsPacket {}", amsPacket);
-        out.add(amsPacket);
         if (commandBuffer.readableBytes() > 0) {
             throw new IllegalStateException("Unread bytes left: " + commandBuffer.readableBytes());
         }
+        return amsPacket;
     }
 
 
-    private AmsPacket handleInvalidCommand(ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleInvalidCommand(ByteBuf commandBuffer, AmsHeader amsHeader) {
         return UnknownCommand.of(amsHeader, commandBuffer);
     }
 
-    private AmsPacket handleADSReadDeviceInfoCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSReadDeviceInfoCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             amsPacket = AdsReadDeviceInfoRequest.of(amsHeader);
@@ -165,7 +224,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleADSReadCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSReadCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             IndexGroup indexGroup = IndexGroup.of(commandBuffer);
@@ -189,7 +248,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleADSWriteCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSWriteCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             IndexGroup indexGroup = IndexGroup.of(commandBuffer);
@@ -213,7 +272,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
     }
 
 
-    private AmsPacket handleADSReadStateCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSReadStateCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             amsPacket = AdsReadStateRequest.of(amsHeader);
@@ -226,7 +285,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleADSWriteControlCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSWriteControlCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             AdsState adsState = AdsState.of(commandBuffer);
@@ -249,7 +308,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleADSAddDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSAddDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             IndexGroup indexGroup = IndexGroup.of(commandBuffer);
@@ -268,7 +327,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handADSDeleteDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handADSDeleteDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             NotificationHandle notificationHandle = NotificationHandle.of(commandBuffer);
@@ -280,7 +339,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleADSDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSDeviceNotificationCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             Length length = Length.of(commandBuffer);
@@ -308,7 +367,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AdsStampHeader handleStampHeader(ByteBuf adsDeviceNotificationBuffer) {
+    private static AdsStampHeader handleStampHeader(ByteBuf adsDeviceNotificationBuffer) {
         TimeStamp timeStamp = TimeStamp.of(adsDeviceNotificationBuffer);
         Samples samples = Samples.of(adsDeviceNotificationBuffer);
 
@@ -324,7 +383,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return AdsStampHeader.of(timeStamp, samples, adsNotificationSamples);
     }
 
-    private AdsNotificationSample handleAdsNotificartionSample(ByteBuf adsDeviceNotificationBuffer) {
+    private static AdsNotificationSample handleAdsNotificartionSample(ByteBuf adsDeviceNotificationBuffer) {
         NotificationHandle notificationHandle = NotificationHandle.of(adsDeviceNotificationBuffer);
         SampleSize sampleSize = SampleSize.of(adsDeviceNotificationBuffer);
         if (sampleSize.getAsLong() > Integer.MAX_VALUE) {
@@ -340,7 +399,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return AdsNotificationSample.of(notificationHandle, sampleSize, data);
     }
 
-    private AmsPacket handleADSReadWriteCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleADSReadWriteCommand(State stateId, ByteBuf commandBuffer, AmsHeader amsHeader) {
         AmsPacket amsPacket;
         if (stateId.isRequest()) {
             IndexGroup indexGroup = IndexGroup.of(commandBuffer);
@@ -356,10 +415,11 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
             if (readLength.getAsLong() + writeLength.getAsLong() > Integer.MAX_VALUE) {
                 throw new AdsProtocolOverflowException(Integer.class, readLength.getAsLong() + writeLength.getAsLong());
             }
-            if (readLength.getAsLong() > ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES) {
-                throw new AdsProtocolOverflowException("ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES", ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES, readLength.getAsLong());
+            if (writeLength.getAsLong() > ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES) {
+                throw new AdsProtocolOverflowException("ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES", ADS_READ_WRITE_COMMAND_REQUEST_MAX_BYTES, writeLength.getAsLong());
             }
-            byte[] dataToRead = new byte[(int) readLength.getAsLong()];
+            // The request carries the data to be written, the read length only announces the size of the response.
+            byte[] dataToRead = new byte[(int) writeLength.getAsLong()];
             commandBuffer.readBytes(dataToRead);
             Data data = Data.of(dataToRead);
             amsPacket = AdsReadWriteRequest.of(amsHeader, indexGroup, indexOffset, readLength, writeLength, data);
@@ -380,7 +440,7 @@ public class Ads2PayloadProtocol extends MessageToMessageCodec<ByteBuf, AmsPacke
         return amsPacket;
     }
 
-    private AmsPacket handleUnknownCommand(ByteBuf commandBuffer, AmsHeader amsHeader) {
+    private static AmsPacket handleUnknownCommand(ByteBuf commandBuffer, AmsHeader amsHeader) {
         return UnknownCommand.of(amsHeader, commandBuffer);
     }
 }
@@ -0,0 +1,196 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.ads.api.commands.AdsDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.types.AdsNotificationSample;
+import org.apache.plc4x.java.ads.api.commands.types.AdsStampHeader;
+import org.apache.plc4x.java.ads.api.commands.types.NotificationHandle;
+import org.apache.plc4x.java.ads.model.AdsSubscriptionHandle;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.DefaultPlcSubscriptionEvent;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.apache.plc4x.java.ads.protocol.util.LittleEndianDecoder.decodeData;
+
+/**
+ * Routes the samples of {@link AdsDeviceNotificationRequest}s to the consumers registered for their
+ * {@link NotificationHandle}.
+ * <p>
+ * Each sample is decoded once, no matter how many consumers are interested in it, and samples nobody registered for
+ * are skipped without being decoded. Every consumer gets one {@link PlcSubscriptionEvent} per stamp containing the
+ * samples of its handles, consumers without samples in a stamp get none.
+ * <p>
+ * By default notifications are dispatched on the thread delivering them, usually the I/O thread of the connection.
+ * With an {@link #setExecutor(Executor) executor} decoding and dispatching happen there instead, still one
+ * notification after the other in the order they were received. Notifications the executor rejects are dropped.
+ */
+public class AdsNotificationDispatcher implements Consumer<AdsDeviceNotificationRequest> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdsNotificationDispatcher.class);
+
+    private final ConcurrentMap<NotificationHandle, Route> routes = new ConcurrentHashMap<>();
+
+    private final Queue<AdsDeviceNotificationRequest> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile Executor executor;
+
+    /**
+     * @param executor executor to decode and dispatch notifications on or {@code null} to do so on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Routes the samples of the given handles to the consumer.
+     */
+    public void register(Consumer<PlcSubscriptionEvent> consumer, Collection<AdsSubscriptionHandle> handles) {
+        Objects.requireNonNull(consumer);
+        for (AdsSubscriptionHandle handle : handles) {
+            routes.compute(handle.getNotificationHandle(), (notificationHandle, route) -> {
+                Route currentRoute = route != null ? route : new Route(handle);
+                currentRoute.consumers.add(consumer);
+                return currentRoute;
+            });
+        }
+    }
+
+    /**
+     * Stops routing the samples of the given handles to the consumer, undoing one {@link #register}.
+     */
+    public void unregister(Consumer<PlcSubscriptionEvent> consumer, Collection<AdsSubscriptionHandle> handles) {
+        for (AdsSubscriptionHandle handle : handles) {
+            routes.computeIfPresent(handle.getNotificationHandle(), (notificationHandle, route) -> {
+                route.consumers.remove(consumer);
+                return route.consumers.isEmpty() ? null : route;
+            });
+        }
+    }
+
+    /**
+     * @return number of notification handles with at least one consumer.
+     */
+    public int getNumberOfRoutes() {
+        return routes.size();
+    }
+
+    @Override
+    public void accept(AdsDeviceNotificationRequest adsDeviceNotificationRequest) {
+        Executor currentExecutor = executor;
+        if (currentExecutor == null) {
+            dispatch(adsDeviceNotificationRequest);
+            return;
+        }
+        pending.add(adsDeviceNotificationRequest);
+        if (draining.compareAndSet(false, true)) {
+            try {
+                currentExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Nobody is going to drain, so drop what's queued and let the next notification try again.
+                int dropped = 0;
+                while (pending.poll() != null) {
+                    dropped++;
+                }
+                draining.set(false);
+                LOGGER.warn("Executor rejected dispatching, dropped {} notifications", dropped, e);
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            AdsDeviceNotificationRequest adsDeviceNotificationRequest;
+            while ((adsDeviceNotificationRequest = pending.poll()) != null) {
+                dispatch(adsDeviceNotificationRequest);
+            }
+            draining.set(false);
+            // A notification might have been queued after the last poll but before the flag was cleared.
+        } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void dispatch(AdsDeviceNotificationRequest adsDeviceNotificationRequest) {
+        for (AdsStampHeader adsStampHeader : adsDeviceNotificationRequest.getAdsStampHeaders()) {
+            Map<Consumer<PlcSubscriptionEvent>, Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>> events = null;
+            for (AdsNotificationSample adsNotificationSample : adsStampHeader.getAdsNotificationSamples()) {
+                Route route = routes.get(adsNotificationSample.getNotificationHandle());
+                if (route == null) {
+                    LOGGER.trace("Nobody is interested in sample {}", adsNotificationSample);
+                    continue;
+                }
+                Pair<PlcResponseCode, BaseDefaultFieldItem> value;
+                try {
+                    value = Pair.of(PlcResponseCode.OK, decodeData(route.handle.getAdsDataType(), adsNotificationSample.getData().getBytes()));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Can't decode {}", adsNotificationSample, e);
+                    continue;
+                }
+                if (events == null) {
+                    events = new IdentityHashMap<>();
+                }
+                for (Consumer<PlcSubscriptionEvent> consumer : route.consumers) {
+                    events.computeIfAbsent(consumer, ignore -> new HashMap<>()).put(route.handle.getPlcFieldName(), value);
+                }
+            }
+            if (events == null) {
+                continue;
+            }
+            Instant timeStamp = adsStampHeader.getTimeStamp().getAsDate().toInstant();
+            events.forEach((consumer, fields) -> {
+                try {
+                    consumer.accept(new DefaultPlcSubscriptionEvent(timeStamp, fields));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Can't dispatch adsStampHeader {} to {}", adsStampHeader, consumer, e);
+                }
+            });
+        }
+    }
+
+    private static class Route {
+
+        private final AdsSubscriptionHandle handle;
+
+        private final List<Consumer<PlcSubscriptionEvent>> consumers = new CopyOnWriteArrayList<>();
+
+        private Route(AdsSubscriptionHandle handle) {
+            this.handle = handle;
+        }
+    }
+}
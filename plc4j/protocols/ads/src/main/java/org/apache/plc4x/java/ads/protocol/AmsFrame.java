@@ -0,0 +1,265 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.DefaultByteBufHolder;
+import io.netty.buffer.Unpooled;
+import org.apache.plc4x.java.ads.api.commands.types.Result;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Command;
+import org.apache.plc4x.java.ads.api.generic.types.State;
+import org.apache.plc4x.java.ads.protocol.exception.AdsProtocolLengthException;
+import org.apache.plc4x.java.ads.protocol.exception.AdsProtocolOverflowException;
+
+/**
+ * Flyweight over a single AMS packet (AMS header and ADS command data) held in a (usually pooled) {@link ByteBuf}.
+ * <p>
+ * All accessors read the fields at their fixed offsets, so neither decoding nor encoding a frame creates an object
+ * per field. The value classes of {@code api.generic} and {@code api.commands} stay available as an inspection view
+ * via {@link #toAmsPacket()}.
+ * <p>
+ * A frame owns its buffer: whoever consumes it has to {@link #release()} it, which netty codecs do automatically.
+ */
+public class AmsFrame extends DefaultByteBufHolder {
+
+    public static final int HEADER_LENGTH = 32;
+
+    static final int TARGET_AMS_NET_ID_OFFSET = 0;
+    static final int TARGET_AMS_PORT_OFFSET = 6;
+    static final int SOURCE_AMS_NET_ID_OFFSET = 8;
+    static final int SOURCE_AMS_PORT_OFFSET = 14;
+    static final int COMMAND_ID_OFFSET = 16;
+    static final int STATE_FLAGS_OFFSET = 18;
+    static final int DATA_LENGTH_OFFSET = 20;
+    static final int ERROR_CODE_OFFSET = 24;
+    static final int INVOKE_ID_OFFSET = 28;
+
+    private static final int STATE_REQUEST = State.DEFAULT.getAsInt();
+
+    // Offsets of the fields every read, write and read/write response starts with.
+    private static final int RESULT_OFFSET = HEADER_LENGTH;
+    private static final int RESPONSE_LENGTH_OFFSET = HEADER_LENGTH + 4;
+    private static final int RESPONSE_DATA_OFFSET = HEADER_LENGTH + 8;
+
+    public AmsFrame(ByteBuf content) {
+        super(content);
+    }
+
+    /**
+     * Allocates a frame for a request and writes its AMS header.
+     *
+     * @param dataLength length of the command data which the caller has to write after the header.
+     */
+    public static AmsFrame request(ByteBufAllocator allocator, AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, Command command, int dataLength, long invokeId) {
+        ByteBuf byteBuf = allocator.buffer(HEADER_LENGTH + dataLength);
+        byteBuf.writeBytes(targetAmsNetId.getBytes())
+            .writeShortLE(targetAmsPort.getAsInt())
+            .writeBytes(sourceAmsNetId.getBytes())
+            .writeShortLE(sourceAmsPort.getAsInt())
+            .writeShortLE(command.getIntValue())
+            .writeShortLE(STATE_REQUEST)
+            .writeIntLE(dataLength)
+            .writeIntLE(0)
+            .writeIntLE((int) invokeId);
+        return new AmsFrame(byteBuf);
+    }
+
+    /**
+     * @return a read request frame, see {@link org.apache.plc4x.java.ads.api.commands.AdsReadRequest}.
+     */
+    public static AmsFrame readRequest(ByteBufAllocator allocator, AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, long invokeId, long indexGroup, long indexOffset, long length) {
+        AmsFrame frame = request(allocator, targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Command.ADS_READ, 12, invokeId);
+        frame.content()
+            .writeIntLE((int) indexGroup)
+            .writeIntLE((int) indexOffset)
+            .writeIntLE((int) length);
+        return frame;
+    }
+
+    /**
+     * @return a write request frame, see {@link org.apache.plc4x.java.ads.api.commands.AdsWriteRequest}.
+     */
+    public static AmsFrame writeRequest(ByteBufAllocator allocator, AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, long invokeId, long indexGroup, long indexOffset, byte[] data) {
+        AmsFrame frame = request(allocator, targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Command.ADS_WRITE, 12 + data.length, invokeId);
+        frame.content()
+            .writeIntLE((int) indexGroup)
+            .writeIntLE((int) indexOffset)
+            .writeIntLE(data.length)
+            .writeBytes(data);
+        return frame;
+    }
+
+    /**
+     * @return the given packet as frame, sent with the given invoke id instead of its own.
+     */
+    public static AmsFrame of(AmsPacket amsPacket, long invokeId) {
+        // Copied, as the buffer of the packet wraps the arrays of its (shared) field values.
+        ByteBuf content = Unpooled.wrappedBuffer(amsPacket.getBytes());
+        content.setIntLE(INVOKE_ID_OFFSET, (int) invokeId);
+        return new AmsFrame(content);
+    }
+
+    /**
+     * Reads one frame from the given buffer, which has to hold exactly one AMS packet as the TCP or serial framing
+     * delivers it.
+     *
+     * @throws AdsProtocolLengthException if the buffer is shorter than the AMS header or its length disagrees with
+     *                                    the data length of the header.
+     */
+    public static AmsFrame decode(ByteBuf byteBuf) {
+        int readableBytes = byteBuf.readableBytes();
+        if (readableBytes < HEADER_LENGTH) {
+            throw new AdsProtocolLengthException("AMS header", HEADER_LENGTH, readableBytes);
+        }
+        long dataLength = byteBuf.getUnsignedIntLE(byteBuf.readerIndex() + DATA_LENGTH_OFFSET);
+        if (dataLength > Integer.MAX_VALUE - HEADER_LENGTH) {
+            throw new AdsProtocolOverflowException(Integer.class, dataLength);
+        }
+        if (readableBytes != HEADER_LENGTH + dataLength) {
+            throw new AdsProtocolLengthException("AMS packet", HEADER_LENGTH + dataLength, readableBytes);
+        }
+        return new AmsFrame(byteBuf.readRetainedSlice(readableBytes));
+    }
+
+    public int getTargetAmsPort() {
+        return content().getUnsignedShortLE(content().readerIndex() + TARGET_AMS_PORT_OFFSET);
+    }
+
+    public int getSourceAmsPort() {
+        return content().getUnsignedShortLE(content().readerIndex() + SOURCE_AMS_PORT_OFFSET);
+    }
+
+    /**
+     * @return the command id, compare it with {@link Command#getIntValue()}.
+     */
+    public int getCommandId() {
+        return content().getUnsignedShortLE(content().readerIndex() + COMMAND_ID_OFFSET);
+    }
+
+    public boolean isCommand(Command command) {
+        return getCommandId() == command.getIntValue();
+    }
+
+    public int getStateFlags() {
+        return content().getUnsignedShortLE(content().readerIndex() + STATE_FLAGS_OFFSET);
+    }
+
+    public boolean isResponse() {
+        return State.StateMask.RESPONSE.applies(getStateFlags());
+    }
+
+    public long getDataLength() {
+        return content().getUnsignedIntLE(content().readerIndex() + DATA_LENGTH_OFFSET);
+    }
+
+    public long getErrorCode() {
+        return content().getUnsignedIntLE(content().readerIndex() + ERROR_CODE_OFFSET);
+    }
+
+    public long getInvokeId() {
+        return content().getUnsignedIntLE(content().readerIndex() + INVOKE_ID_OFFSET);
+    }
+
+    /**
+     * @return the {@link Result} of a response, all responses but notifications start with it.
+     */
+    public long getResult() {
+        checkLength("ADS response", RESPONSE_LENGTH_OFFSET);
+        return content().getUnsignedIntLE(content().readerIndex() + RESULT_OFFSET);
+    }
+
+    /**
+     * @return the length of the data of a read or read/write response.
+     */
+    public long getResponseDataLength() {
+        checkLength("ADS read response", RESPONSE_DATA_OFFSET);
+        return content().getUnsignedIntLE(content().readerIndex() + RESPONSE_LENGTH_OFFSET);
+    }
+
+    /**
+     * @return a slice of the data of a read or read/write response, only valid as long as this frame isn't released.
+     * @throws AdsProtocolLengthException if the frame is shorter than the length of the data claims.
+     */
+    public ByteBuf getResponseData() {
+        long responseDataLength = getResponseDataLength();
+        checkLength("ADS read response data", RESPONSE_DATA_OFFSET + responseDataLength);
+        return content().slice(content().readerIndex() + RESPONSE_DATA_OFFSET, (int) responseDataLength);
+    }
+
+    private void checkLength(String what, long expectedLength) {
+        int readableBytes = content().readableBytes();
+        if (readableBytes < expectedLength) {
+            throw new AdsProtocolLengthException(what, expectedLength, readableBytes);
+        }
+    }
+
+    /**
+     * Decodes this frame into the value classes, meant for inspection and debugging as it allocates an object per field.
+     */
+    public AmsPacket toAmsPacket() {
+        return Ads2PayloadProtocol.decodeAmsPacket(content().duplicate());
+    }
+
+    @Override
+    public AmsFrame replace(ByteBuf content) {
+        return new AmsFrame(content);
+    }
+
+    @Override
+    public AmsFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public AmsFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public AmsFrame touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public AmsFrame touch(Object hint) {
+        super.touch(hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        if (refCnt() == 0) {
+            return "AmsFrame{released}";
+        }
+        return "AmsFrame{" +
+            "commandId=" + getCommandId() +
+            ", stateFlags=" + getStateFlags() +
+            ", dataLength=" + getDataLength() +
+            ", errorCode=" + getErrorCode() +
+            ", invokeId=" + getInvokeId() +
+            '}';
+    }
+}
@@ -22,10 +22,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
-import org.apache.plc4x.java.ads.api.tcp.AmsTCPPacket;
 import org.apache.plc4x.java.ads.api.tcp.AmsTcpHeader;
 import org.apache.plc4x.java.ads.api.tcp.types.TcpLength;
-import org.apache.plc4x.java.ads.api.tcp.types.UserData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +36,11 @@ public class Payload2TcpProtocol extends MessageToMessageCodec<ByteBuf, ByteBuf>
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext, ByteBuf amsPacket, List<Object> out) {
         LOGGER.trace("(<--OUT): {}, {}, {}", channelHandlerContext, amsPacket, out);
-        out.add(AmsTCPPacket.of(UserData.of(amsPacket)).getByteBuf());
+        // The header is prepended without copying the packet, which the composite now owns.
+        ByteBuf amsTcpHeader = Unpooled.buffer(AmsTcpHeader.Reserved.NUM_BYTES + TcpLength.NUM_BYTES)
+            .writeShortLE(0)
+            .writeIntLE(amsPacket.readableBytes());
+        out.add(Unpooled.wrappedBuffer(amsTcpHeader, amsPacket.retain()));
     }
 
     @SuppressWarnings("unchecked")
@@ -59,11 +61,12 @@ public class Payload2TcpProtocol extends MessageToMessageCodec<ByteBuf, ByteBuf>
         }
         // Reserved
         byteBuf.skipBytes(AmsTcpHeader.Reserved.NUM_BYTES);
-        TcpLength packetLength = TcpLength.of(byteBuf);
-        AmsTcpHeader amsTcpHeader = AmsTcpHeader.of(packetLength);
-        LOGGER.debug("AMS TCP Header {}", amsTcpHeader);
+        long packetLength = byteBuf.readUnsignedIntLE();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("AMS TCP Header {}", AmsTcpHeader.of(TcpLength.of(packetLength)));
+        }
 
-        out.add(byteBuf.readBytes((int) packetLength.getAsLong()));
+        out.add(byteBuf.readRetainedSlice((int) packetLength));
     }
 
 }
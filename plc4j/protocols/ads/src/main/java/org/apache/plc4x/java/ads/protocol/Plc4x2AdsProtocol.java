@@ -18,6 +18,9 @@
  */
 package org.apache.plc4x.java.ads.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
 import org.apache.commons.lang3.tuple.Pair;
@@ -26,6 +29,7 @@ import org.apache.plc4x.java.ads.api.commands.types.*;
 import org.apache.plc4x.java.ads.api.generic.AmsPacket;
 import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
 import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Command;
 import org.apache.plc4x.java.ads.api.generic.types.Invoke;
 import org.apache.plc4x.java.ads.model.AdsDataType;
 import org.apache.plc4x.java.ads.model.AdsField;
@@ -43,6 +47,7 @@ import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.protocol.InFlightRequests;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,7 +64,14 @@ import java.util.stream.Collectors;
 import static org.apache.plc4x.java.ads.protocol.util.LittleEndianDecoder.decodeData;
 import static org.apache.plc4x.java.ads.protocol.util.LittleEndianEncoder.encodeData;
 
-public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> {
+/**
+ * Translates PLC4X requests into ADS commands and correlates their responses.
+ * <p>
+ * Inbound both {@link AmsPacket}s and {@link AmsFrame}s are understood. If created with {@code flyweight} set, read and
+ * write requests are sent as {@link AmsFrame}s written straight into a buffer of the channel's allocator. If created with
+ * {@code lazyDecoding} set, read responses are {@link LazyPlcReadResponse}s which decode their data on first access.
+ */
+public class Plc4x2AdsProtocol extends MessageToMessageCodec<Object, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Plc4x2AdsProtocol.class);
 
@@ -76,7 +88,21 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
     private final AmsNetId sourceAmsNetId;
     private final AmsPort sourceAmsPort;
 
+    private final boolean flyweight;
+
+    private final boolean lazyDecoding;
+
     public Plc4x2AdsProtocol(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, ConcurrentMap<SymbolicAdsField, DirectAdsField> fieldMapping) {
+        this(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping, false);
+    }
+
+    public Plc4x2AdsProtocol(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, ConcurrentMap<SymbolicAdsField, DirectAdsField> fieldMapping, boolean flyweight) {
+        this(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, fieldMapping, flyweight, false);
+    }
+
+    public Plc4x2AdsProtocol(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, ConcurrentMap<SymbolicAdsField, DirectAdsField> fieldMapping, boolean flyweight, boolean lazyDecoding) {
+        this.flyweight = flyweight;
+        this.lazyDecoding = lazyDecoding;
         this.targetAmsNetId = targetAmsNetId;
         this.targetAmsPort = targetAmsPort;
         this.sourceAmsNetId = sourceAmsNetId;
@@ -91,9 +117,9 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
         LOGGER.trace("(<--OUT): {}, {}, {}", ctx, msg, out);
         PlcRequest request = msg.getRequest();
         if (request instanceof PlcReadRequest) {
-            encodeReadRequest(msg, out);
+            encodeReadRequest(ctx, msg, out);
         } else if (request instanceof PlcWriteRequest) {
-            encodeWriteRequest(msg, out);
+            encodeWriteRequest(ctx, msg, out);
         } else if (request instanceof PlcProprietaryRequest) {
             encodeProprietaryRequest(msg, out);
         } else {
@@ -133,7 +159,12 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
         }
     }
 
-    private void encodeWriteRequest(PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> msg, List<Object> out) throws PlcException {
+    @Override
+    public boolean acceptInboundMessage(Object msg) {
+        return msg instanceof AmsPacket || msg instanceof AmsFrame;
+    }
+
+    private void encodeWriteRequest(ChannelHandlerContext ctx, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> msg, List<Object> out) throws PlcException {
         InternalPlcWriteRequest writeRequest = (InternalPlcWriteRequest) msg.getRequest();
         if (writeRequest.getFields().size() != 1) {
             throw new PlcProtocolException("Only one item supported");
@@ -148,9 +179,7 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
             throw new PlcProtocolException("PlcField not of type DirectAdsField: " + field.getClass());
         }
         DirectAdsField directAdsField = (DirectAdsField) field;
-        Invoke invokeId = Invoke.of(correlationBuilder.incrementAndGet());
-        IndexGroup indexGroup = IndexGroup.of(directAdsField.getIndexGroup());
-        IndexOffset indexOffset = IndexOffset.of(directAdsField.getIndexOffset());
+        long invokeId = correlationBuilder.incrementAndGet();
 
         BaseDefaultFieldItem fieldItem = writeRequest.getFieldItems().get(0);
         Object[] values = fieldItem.getValues();
@@ -162,14 +191,22 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
             LOGGER.debug("Requested AdsDatatype {} is exceeded by number of bytes {}. Limit {}.", directAdsField.getAdsDataType(), bytesToBeWritten, maxTheoreticalSize);
             throw new PlcProtocolPayloadTooBigException("ADS", maxTheoreticalSize, bytesToBeWritten, values);
         }
-        Data data = Data.of(bytes);
-        AmsPacket amsPacket = AdsWriteRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId, indexGroup, indexOffset, data);
-        LOGGER.debug("encoded write request {}", amsPacket);
-        out.add(amsPacket);
-        requests.put(invokeId.getAsLong(), msg);
+        if (flyweight) {
+            AmsFrame amsFrame = AmsFrame.writeRequest(ctx.alloc(), targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort,
+                invokeId, directAdsField.getIndexGroup(), directAdsField.getIndexOffset(), bytes);
+            LOGGER.debug("encoded write request {}", amsFrame);
+            out.add(amsFrame);
+        } else {
+            Data data = Data.of(bytes);
+            AmsPacket amsPacket = AdsWriteRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(invokeId),
+                IndexGroup.of(directAdsField.getIndexGroup()), IndexOffset.of(directAdsField.getIndexOffset()), data);
+            LOGGER.debug("encoded write request {}", amsPacket);
+            out.add(amsPacket);
+        }
+        InFlightRequests.correlate(requests, invokeId, msg);
     }
 
-    private void encodeReadRequest(PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> msg, List<Object> out) throws PlcException {
+    private void encodeReadRequest(ChannelHandlerContext ctx, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> msg, List<Object> out) throws PlcException {
         PlcReadRequest readRequest = (PlcReadRequest) msg.getRequest();
 
         if (readRequest.getFields().size() != 1) {
@@ -188,17 +225,22 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
             throw new PlcProtocolException("PlcField not of type DirectAdsField: " + field.getClass());
         }
         DirectAdsField directAdsField = (DirectAdsField) field;
-        Invoke invokeId = Invoke.of(correlationBuilder.incrementAndGet());
-        IndexGroup indexGroup = IndexGroup.of(directAdsField.getIndexGroup());
-        IndexOffset indexOffset = IndexOffset.of(directAdsField.getIndexOffset());
+        long invokeId = correlationBuilder.incrementAndGet();
         AdsDataType adsDataType = directAdsField.getAdsDataType();
         int numberOfElements = directAdsField.getNumberOfElements();
         int readLength = adsDataType.getTargetByteSize() * numberOfElements;
-        Length length = Length.of(readLength);
-        AmsPacket amsPacket = AdsReadRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, invokeId, indexGroup, indexOffset, length);
-        LOGGER.debug("encoded read request {}", amsPacket);
-        out.add(amsPacket);
-        requests.put(invokeId.getAsLong(), msg);
+        if (flyweight) {
+            AmsFrame amsFrame = AmsFrame.readRequest(ctx.alloc(), targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort,
+                invokeId, directAdsField.getIndexGroup(), directAdsField.getIndexOffset(), readLength);
+            LOGGER.debug("encoded read request {}", amsFrame);
+            out.add(amsFrame);
+        } else {
+            AmsPacket amsPacket = AdsReadRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(invokeId),
+                IndexGroup.of(directAdsField.getIndexGroup()), IndexOffset.of(directAdsField.getIndexOffset()), Length.of(readLength));
+            LOGGER.debug("encoded read request {}", amsPacket);
+            out.add(amsPacket);
+        }
+        InFlightRequests.correlate(requests, invokeId, msg);
     }
 
     private void encodeProprietaryRequest(PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> msg, List<Object> out) throws PlcProtocolException {
@@ -208,13 +250,25 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
         }
         AmsPacket amsPacket = (AmsPacket) plcProprietaryRequest.getProprietaryRequest();
         LOGGER.debug("encoded proprietary request {}", amsPacket);
-        out.add(amsPacket);
-        requests.put(amsPacket.getAmsHeader().getInvokeId().getAsLong(), msg);
+        long invokeId = amsPacket.getAmsHeader().getInvokeId().getAsLong();
+        if (invokeId == Invoke.NONE.getAsLong()) {
+            // Packets without invoke id get one, otherwise only one of them could be in flight at a time.
+            invokeId = correlationBuilder.incrementAndGet();
+            out.add(AmsFrame.of(amsPacket, invokeId));
+        } else {
+            out.add(amsPacket);
+        }
+        InFlightRequests.correlate(requests, invokeId, msg);
     }
 
     @Override
-    protected void decode(ChannelHandlerContext channelHandlerContext, AmsPacket amsPacket, List<Object> out) throws Exception {
-        LOGGER.trace("(-->IN): {}, {}, {}", channelHandlerContext, amsPacket, out);
+    protected void decode(ChannelHandlerContext channelHandlerContext, Object msg, List<Object> out) throws Exception {
+        LOGGER.trace("(-->IN): {}, {}, {}", channelHandlerContext, msg, out);
+        if (msg instanceof AmsFrame) {
+            decodeFrame(channelHandlerContext, (AmsFrame) msg, out);
+            return;
+        }
+        AmsPacket amsPacket = (AmsPacket) msg;
         if (amsPacket instanceof AdsDeviceNotificationRequest) {
             LOGGER.debug("Received notification {}", amsPacket);
             handleAdsDeviceNotificationRequest((AdsDeviceNotificationRequest) amsPacket);
@@ -254,6 +308,46 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
         }
     }
 
+    /**
+     * Completes read and write requests straight from the frame, everything else is decoded into the value classes.
+     */
+    private void decodeFrame(ChannelHandlerContext channelHandlerContext, AmsFrame amsFrame, List<Object> out) throws Exception {
+        if (amsFrame.isCommand(Command.ADS_DEVICE_NOTIFICATION) || !amsFrame.isResponse()) {
+            decode(channelHandlerContext, amsFrame.toAmsPacket(), out);
+            return;
+        }
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> plcRequestContainer = requests.get(amsFrame.getInvokeId());
+        if (plcRequestContainer == null) {
+            LOGGER.info("Unmapped frame received {}", amsFrame);
+            return;
+        }
+        PlcRequest request = plcRequestContainer.getRequest();
+        boolean read = request instanceof PlcReadRequest && amsFrame.isCommand(Command.ADS_READ);
+        boolean write = request instanceof PlcWriteRequest && amsFrame.isCommand(Command.ADS_WRITE);
+        if (!read && !write) {
+            // Proprietary requests expect the value classes and mismatches are reported there.
+            decode(channelHandlerContext, amsFrame.toAmsPacket(), out);
+            return;
+        }
+        final InternalPlcResponse response;
+        try {
+            if (read) {
+                // The frame is released once decoded, so a lazy response needs its own copy of the data.
+                ByteBuf data = lazyDecoding ? Unpooled.wrappedBuffer(ByteBufUtil.getBytes(amsFrame.getResponseData())) : amsFrame.getResponseData();
+                response = decodeReadResponse(amsFrame.getResult(), data, plcRequestContainer);
+            } else {
+                response = decodeWriteResponse(amsFrame.getResult(), plcRequestContainer);
+            }
+        } catch (RuntimeException e) {
+            requests.remove(amsFrame.getInvokeId());
+            plcRequestContainer.getResponseFuture().completeExceptionally(new PlcProtocolException("Can't decode " + amsFrame, e));
+            return;
+        }
+        requests.remove(amsFrame.getInvokeId());
+        LOGGER.debug("Plc4x response {}", response);
+        plcRequestContainer.getResponseFuture().complete(response);
+    }
+
     private void handleAdsDeviceNotificationRequest(AdsDeviceNotificationRequest adsDeviceNotificationRequest) {
         for (Consumer<AdsDeviceNotificationRequest> deviceNotificationListener : deviceNotificationListeners) {
             try {
@@ -275,8 +369,13 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
 
     @SuppressWarnings("unchecked")
     private InternalPlcResponse decodeWriteResponse(AdsWriteResponse responseMessage, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> requestContainer) {
+        return decodeWriteResponse(responseMessage.getResult().getAsLong(), requestContainer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private InternalPlcResponse decodeWriteResponse(long result, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> requestContainer) {
         InternalPlcWriteRequest plcWriteRequest = (InternalPlcWriteRequest) requestContainer.getRequest();
-        PlcResponseCode responseCode = decodeResponseCode(responseMessage.getResult());
+        PlcResponseCode responseCode = decodeResponseCode(result);
 
         // TODO: does every item has the same ads response or is this whole aggregation broken?
         Map<String, PlcResponseCode> responseItems = plcWriteRequest.getFieldNames()
@@ -290,14 +389,29 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
 
     @SuppressWarnings("unchecked")
     private InternalPlcResponse decodeReadResponse(AdsReadResponse responseMessage, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> requestContainer) {
+        return decodeReadResponse(responseMessage.getResult().getAsLong(), Unpooled.wrappedBuffer(responseMessage.getData().getBytes()), requestContainer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private InternalPlcResponse decodeReadResponse(long result, ByteBuf data, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> requestContainer) {
         InternalPlcReadRequest plcReadRequest = (InternalPlcReadRequest) requestContainer.getRequest();
 
         // TODO: only single requests supported for now
         AdsField field = (AdsField) plcReadRequest.getFields().get(0);
 
-        PlcResponseCode responseCode = decodeResponseCode(responseMessage.getResult());
-        byte[] bytes = responseMessage.getData().getBytes();
-        BaseDefaultFieldItem<?> fieldItem = decodeData(field.getAdsDataType(), bytes);
+        PlcResponseCode responseCode = decodeResponseCode(result);
+        if (lazyDecoding) {
+            LazyPlcReadResponse.LazyField lazyField = new LazyPlcReadResponse.LazyField(responseCode, data,
+                buffer -> decodeData(field.getAdsDataType(), buffer.nioBuffer()));
+            Map<String, LazyPlcReadResponse.LazyField> responseItems = plcReadRequest.getFieldNames()
+                .stream()
+                .collect(Collectors.toMap(
+                    fieldName -> fieldName,
+                    ignore -> lazyField
+                ));
+            return new LazyPlcReadResponse(plcReadRequest, responseItems);
+        }
+        BaseDefaultFieldItem<?> fieldItem = decodeData(field.getAdsDataType(), data.nioBuffer());
 
         // TODO: does every item has the same ads response or is this whole aggregation broken?
         Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> responseItems = plcReadRequest.getFieldNames()
@@ -315,8 +429,11 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
         return new DefaultPlcProprietaryResponse<>((InternalPlcProprietaryRequest) plcRequestContainer.getRequest(), amsPacket);
     }
 
-    private PlcResponseCode decodeResponseCode(Result result) {
-        switch (result.toAdsReturnCode()) {
+    /**
+     * Maps an ADS return code to the closest {@link PlcResponseCode}.
+     */
+    public static PlcResponseCode decodeResponseCode(long result) {
+        switch (AdsReturnCode.of(result)) {
             case ADS_CODE_0:
                 return PlcResponseCode.OK;
             case ADS_CODE_1:
@@ -445,7 +562,7 @@ public class Plc4x2AdsProtocol extends MessageToMessageCodec<AmsPacket, PlcReque
             case UNKNOWN:
                 return PlcResponseCode.INTERNAL_ERROR;
         }
-        throw new IllegalStateException(result.toAdsReturnCode() + " not mapped");
+        throw new IllegalStateException(AdsReturnCode.of(result) + " not mapped");
     }
 
 }
@@ -0,0 +1,143 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsDeleteDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsDeleteDeviceNotificationResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsReadWriteRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadWriteResponse;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs several notification requests into one ADS sum command (a read write request to
+ * {@link IndexGroup.ReservedGroups#ADSIGRP_SUMUP_ADDDEVNOTE} or {@link IndexGroup.ReservedGroups#ADSIGRP_SUMUP_DELDEVNOTE})
+ * and splits the response of such a command into the responses of the individual requests.
+ */
+public class AdsSumCommands {
+
+    /**
+     * Maximum number of sub commands the TwinCAT runtime accepts in one sum command.
+     */
+    public static final int MAX_SUB_COMMANDS = 500;
+
+    private AdsSumCommands() {
+        // Utility class
+    }
+
+    /**
+     * @return {@code true} if the target answered a sum command with a code indicating it doesn't know sum commands.
+     */
+    public static boolean isUnsupported(Result result) {
+        AdsReturnCode adsReturnCode = result.toAdsReturnCode();
+        return adsReturnCode == AdsReturnCode.ADS_CODE_1793 || adsReturnCode == AdsReturnCode.ADS_CODE_1794;
+    }
+
+    public static AdsReadWriteRequest addDeviceNotifications(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, List<AdsAddDeviceNotificationRequest> requests) {
+        checkNumberOfSubCommands(requests);
+        // The sub commands are the payloads of the single requests: index group, index offset, length, notification
+        // attributes and the reserved bytes.
+        ByteBuf data = Unpooled.buffer();
+        for (AdsAddDeviceNotificationRequest request : requests) {
+            data.writeBytes(request.getAdsData().getBytes());
+        }
+        return AdsReadWriteRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            IndexGroup.ReservedGroups.ADSIGRP_SUMUP_ADDDEVNOTE,
+            IndexOffset.of(requests.size()),
+            ReadLength.of((long) requests.size() * (Result.NUM_BYTES + NotificationHandle.NUM_BYTES)),
+            Data.of(data)
+        );
+    }
+
+    /**
+     * Splits the response of {@link #addDeviceNotifications}, which holds a result and a notification handle per
+     * sub command.
+     */
+    public static List<AdsAddDeviceNotificationResponse> splitAddDeviceNotifications(AdsReadWriteResponse response, int numberOfSubCommands) {
+        ByteBuf data = checkData(response, numberOfSubCommands, Result.NUM_BYTES + NotificationHandle.NUM_BYTES);
+        List<AdsAddDeviceNotificationResponse> responses = new ArrayList<>(numberOfSubCommands);
+        for (int i = 0; i < numberOfSubCommands; i++) {
+            responses.add(AdsAddDeviceNotificationResponse.of(response.getAmsHeader(), Result.of(data), NotificationHandle.of(data)));
+        }
+        return responses;
+    }
+
+    public static AdsReadWriteRequest deleteDeviceNotifications(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, List<AdsDeleteDeviceNotificationRequest> requests) {
+        checkNumberOfSubCommands(requests);
+        ByteBuf data = Unpooled.buffer(requests.size() * NotificationHandle.NUM_BYTES);
+        for (AdsDeleteDeviceNotificationRequest request : requests) {
+            data.writeBytes(request.getNotificationHandle().getBytes());
+        }
+        return AdsReadWriteRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            IndexGroup.ReservedGroups.ADSIGRP_SUMUP_DELDEVNOTE,
+            IndexOffset.of(requests.size()),
+            ReadLength.of((long) requests.size() * Result.NUM_BYTES),
+            Data.of(data)
+        );
+    }
+
+    /**
+     * Splits the response of {@link #deleteDeviceNotifications}, which holds a result per sub command.
+     */
+    public static List<AdsDeleteDeviceNotificationResponse> splitDeleteDeviceNotifications(AdsReadWriteResponse response, int numberOfSubCommands) {
+        ByteBuf data = checkData(response, numberOfSubCommands, Result.NUM_BYTES);
+        List<AdsDeleteDeviceNotificationResponse> responses = new ArrayList<>(numberOfSubCommands);
+        for (int i = 0; i < numberOfSubCommands; i++) {
+            responses.add(AdsDeleteDeviceNotificationResponse.of(response.getAmsHeader(), Result.of(data)));
+        }
+        return responses;
+    }
+
+    private static void checkNumberOfSubCommands(List<?> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_SUB_COMMANDS) {
+            throw new IllegalArgumentException("A sum command takes 1 to " + MAX_SUB_COMMANDS + " sub commands, got " + requests.size());
+        }
+    }
+
+    private static ByteBuf checkData(AdsReadWriteResponse response, int numberOfSubCommands, int bytesPerSubCommand) {
+        if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+            throw new PlcRuntimeException("Sum command failed with " + response.getResult());
+        }
+        byte[] bytes = response.getData().getBytes();
+        if (bytes.length < numberOfSubCommands * bytesPerSubCommand) {
+            throw new PlcRuntimeException("Expected " + numberOfSubCommands * bytesPerSubCommand + " bytes for " + numberOfSubCommands + " sub commands, got " + bytes.length);
+        }
+        return Unpooled.wrappedBuffer(bytes);
+    }
+}
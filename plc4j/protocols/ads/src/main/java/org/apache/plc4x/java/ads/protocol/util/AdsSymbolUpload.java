@@ -0,0 +1,154 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol.util;
+
+import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.ads.model.AdsSymbolTable;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Requests and responses needed to upload the symbol table of a PLC in one go: read the symbol version
+ * ({@link IndexGroup.ReservedGroups#ADSIGRP_SYM_VERSION}), the number and total size of the symbols
+ * ({@link IndexGroup.ReservedGroups#ADSIGRP_SYM_UPLOADINFO2}) and finally the symbols themselves
+ * ({@link IndexGroup.ReservedGroups#ADSIGRP_SYM_UPLOAD}).
+ */
+public class AdsSymbolUpload {
+
+    /**
+     * Size of the {@code ADSIGRP_SYM_UPLOADINFO2} response: symbol count and size, data type count and size, maximum
+     * and used dynamic symbols.
+     */
+    public static final int UPLOAD_INFO_SIZE = 6 * 4;
+
+    private AdsSymbolUpload() {
+        // Utility class
+    }
+
+    public static AdsReadRequest readSymbolVersion(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort) {
+        return read(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, IndexGroup.ReservedGroups.ADSIGRP_SYM_VERSION, 1);
+    }
+
+    public static AdsReadRequest readUploadInfo(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort) {
+        return read(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOADINFO2, UPLOAD_INFO_SIZE);
+    }
+
+    public static AdsReadRequest readSymbols(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, UploadInfo uploadInfo) {
+        return read(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOAD, uploadInfo.getSymbolTableSize());
+    }
+
+    /**
+     * @return a request for a notification whenever the symbol version changes. The first notification carries the
+     * current version.
+     */
+    public static AdsAddDeviceNotificationRequest addSymbolVersionNotification(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort) {
+        return AdsAddDeviceNotificationRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            IndexGroup.ReservedGroups.ADSIGRP_SYM_VERSION,
+            IndexOffset.NONE,
+            Length.of(1),
+            TransmissionMode.DefinedValues.ADSTRANS_SERVERONCHA,
+            MaxDelay.of(0),
+            CycleTime.of(0)
+        );
+    }
+
+    public static int decodeSymbolVersion(AdsReadResponse response) {
+        return Byte.toUnsignedInt(checkedData(response, 1)[0]);
+    }
+
+    public static UploadInfo decodeUploadInfo(AdsReadResponse response) {
+        ByteBuffer buffer = ByteBuffer.wrap(checkedData(response, UPLOAD_INFO_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        return new UploadInfo(buffer.getInt(), buffer.getInt());
+    }
+
+    public static AdsSymbolTable decodeSymbols(int version, UploadInfo uploadInfo, AdsReadResponse response) {
+        return AdsSymbolTable.decode(version, checkedData(response, uploadInfo.getSymbolTableSize()), uploadInfo.getNumberOfSymbols());
+    }
+
+    private static AdsReadRequest read(AmsNetId targetAmsNetId, AmsPort targetAmsPort, AmsNetId sourceAmsNetId, AmsPort sourceAmsPort, IndexGroup indexGroup, long length) {
+        return AdsReadRequest.of(
+            targetAmsNetId,
+            targetAmsPort,
+            sourceAmsNetId,
+            sourceAmsPort,
+            Invoke.NONE,
+            indexGroup,
+            IndexOffset.NONE,
+            Length.of(length)
+        );
+    }
+
+    private static byte[] checkedData(AdsReadResponse response, int minimumLength) {
+        if (response.getResult().toAdsReturnCode() != AdsReturnCode.ADS_CODE_0) {
+            throw new PlcRuntimeException("Non error code received " + response.getResult());
+        }
+        byte[] data = response.getData().getBytes();
+        if (data.length < minimumLength) {
+            throw new PlcRuntimeException("Expected at least " + minimumLength + " bytes but got " + data.length);
+        }
+        return data;
+    }
+
+    /**
+     * Number and total size of the symbols of a PLC.
+     */
+    public static class UploadInfo {
+
+        private final int numberOfSymbols;
+
+        private final int symbolTableSize;
+
+        public UploadInfo(int numberOfSymbols, int symbolTableSize) {
+            if (numberOfSymbols < 0 || symbolTableSize < 0) {
+                throw new PlcRuntimeException("Invalid upload info: " + numberOfSymbols + " symbols of " + symbolTableSize + " bytes");
+            }
+            this.numberOfSymbols = numberOfSymbols;
+            this.symbolTableSize = symbolTableSize;
+        }
+
+        public int getNumberOfSymbols() {
+            return numberOfSymbols;
+        }
+
+        public int getSymbolTableSize() {
+            return symbolTableSize;
+        }
+
+        @Override
+        public String toString() {
+            return "UploadInfo{" +
+                "numberOfSymbols=" + numberOfSymbols +
+                ", symbolTableSize=" + symbolTableSize +
+                '}';
+        }
+    }
+}
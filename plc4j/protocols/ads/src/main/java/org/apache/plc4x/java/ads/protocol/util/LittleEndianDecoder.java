@@ -18,309 +18,125 @@
  */
 package org.apache.plc4x.java.ads.protocol.util;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.plc4x.java.ads.model.AdsDataType;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.exceptions.PlcUnsupportedDataTypeException;
 import org.apache.plc4x.java.base.messages.items.*;
 
 import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-// TODO: we might user ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN).putInt(port).asArray() etc
+/**
+ * Decodes the little endian data of ADS responses into field items.
+ * <p>
+ * Fixed size types are sized up front from the data length and the target byte size of the type and read in bulk
+ * through little endian views of the data, so the only objects created per element are the boxed values the field
+ * items consist of.
+ */
 public class LittleEndianDecoder {
 
     private LittleEndianDecoder() {
         // Utility class
     }
 
-    @SuppressWarnings("unchecked")
     public static BaseDefaultFieldItem decodeData(AdsDataType adsDataType, byte[] adsData) {
-        ByteBuf wrappedBuffer = Unpooled.wrappedBuffer(adsData);
+        return decodeData(adsDataType, ByteBuffer.wrap(adsData));
+    }
+
+    /**
+     * Decodes the remaining bytes of the given buffer, leaving its position untouched.
+     */
+    public static BaseDefaultFieldItem decodeData(AdsDataType adsDataType, ByteBuffer adsData) {
+        ByteBuffer buffer = adsData.slice().order(ByteOrder.LITTLE_ENDIAN);
         switch (adsDataType) {
-            case BIT: {
-                LinkedList<Boolean> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte != 0);
-                }
-                return new DefaultBooleanFieldItem(values.toArray(new Boolean[0]));
-            }
-            case BIT8: {
-                LinkedList<Boolean> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte != 0);
-                }
-                return new DefaultBooleanFieldItem(values.toArray(new Boolean[0]));
-            }
-            case BITARR8: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case BITARR16: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int aLong = wrappedBuffer.readUnsignedShortLE();
-                    values.offer(aLong);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case BITARR32: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aLong = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(aLong);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
-            case INT8: {
-                LinkedList<Byte> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    byte aLong = wrappedBuffer.readByte();
-                    values.offer(aLong);
-                }
-                return new DefaultByteFieldItem(values.toArray(new Byte[0]));
-            }
-            case INT16: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aLong = wrappedBuffer.readShortLE();
-                    values.offer(aLong);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case INT32: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int intLE = wrappedBuffer.readIntLE();
-                    values.offer(intLE);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case INT64: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long longLE = wrappedBuffer.readLongLE();
-                    values.offer(longLE);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
-            case UINT8: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aLong = wrappedBuffer.readUnsignedByte();
-                    values.offer(aLong);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case UINT16: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int aLong = wrappedBuffer.readUnsignedShortLE();
-                    values.offer(aLong);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case UINT32: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aLong = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(aLong);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
+            case BIT:
+            case BIT8:
+            case BOOL:
+                return new DefaultBooleanFieldItem(readBooleans(adsDataType, buffer));
+            case BITARR8:
+            case UINT8:
+            case BYTE:
+            case USINT:
+                return new DefaultShortFieldItem(readUnsignedBytes(adsDataType, buffer));
+            case INT8:
+            case SINT:
+                return new DefaultByteFieldItem(readBytes(adsDataType, buffer));
+            case INT16:
+            case INT:
+                return new DefaultShortFieldItem(readShorts(adsDataType, buffer));
+            case BITARR16:
+            case UINT16:
+            case WORD:
+            case UINT:
+                return new DefaultIntegerFieldItem(readUnsignedShorts(adsDataType, buffer));
+            case INT32:
+            case DINT:
+                return new DefaultIntegerFieldItem(readInts(adsDataType, buffer));
+            case BITARR32:
+            case UINT32:
+            case DWORD:
+            case UDINT:
+            case TIME:
+                return new DefaultLongFieldItem(readUnsignedInts(adsDataType, buffer));
+            case INT64:
+            case LINT:
+                return new DefaultLongFieldItem(readLongs(adsDataType, buffer));
             case ULINT:
-            case UINT64: {
-                LinkedList<BigInteger> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    byte[] bytes = new byte[8];
-                    wrappedBuffer.readBytes(bytes);
-                    ArrayUtils.reverse(bytes);
-                    BigInteger bigInteger = new BigInteger(ArrayUtils.insert(0, bytes, (byte) 0x0));
-                    values.offer(bigInteger);
-                }
-                return new DefaultBigIntegerFieldItem(values.toArray(new BigInteger[0]));
-            }
-            case FLOAT: {
-                LinkedList<Float> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    float aLong = wrappedBuffer.readFloatLE();
-                    values.offer(aLong);
-                }
-                return new DefaultFloatFieldItem(values.toArray(new Float[0]));
-            }
-            case DOUBLE: {
-                LinkedList<Double> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    double aLong = wrappedBuffer.readDoubleLE();
-                    values.offer(aLong);
-                }
-                return new DefaultDoubleFieldItem(values.toArray(new Double[0]));
-            }
-            case BOOL: {
-                LinkedList<Boolean> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte != 0);
-                }
-                return new DefaultBooleanFieldItem(values.toArray(new Boolean[0]));
-            }
-            case BYTE: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case WORD: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int aByte = wrappedBuffer.readUnsignedShortLE();
-                    values.offer(aByte);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case DWORD: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(aByte);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
-            case SINT: {
-                LinkedList<Byte> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    byte aByte = wrappedBuffer.readByte();
-                    values.offer(aByte);
-                }
-                return new DefaultByteFieldItem(values.toArray(new Byte[0]));
-            }
-            case USINT: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readUnsignedByte();
-                    values.offer(aByte);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case INT: {
-                LinkedList<Short> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    short aByte = wrappedBuffer.readShortLE();
-                    values.offer(aByte);
-                }
-                return new DefaultShortFieldItem(values.toArray(new Short[0]));
-            }
-            case UINT: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int aByte = wrappedBuffer.readUnsignedShortLE();
-                    values.offer(aByte);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case DINT: {
-                LinkedList<Integer> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    int aByte = wrappedBuffer.readIntLE();
-                    values.offer(aByte);
-                }
-                return new DefaultIntegerFieldItem(values.toArray(new Integer[0]));
-            }
-            case UDINT: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(aByte);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
-            case LINT: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readLongLE();
-                    values.offer(aByte);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
-            case REAL: {
-                LinkedList<Float> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    float aByte = wrappedBuffer.readFloatLE();
-                    values.offer(aByte);
-                }
-                return new DefaultFloatFieldItem(values.toArray(new Float[0]));
-            }
-            case LREAL: {
-                LinkedList<Double> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    double aByte = wrappedBuffer.readDoubleLE();
-                    values.offer(aByte);
-                }
-                return new DefaultDoubleFieldItem(values.toArray(new Double[0]));
-            }
+            case UINT64:
+                return new DefaultBigIntegerFieldItem(readUnsignedLongs(adsDataType, buffer));
+            case FLOAT:
+            case REAL:
+                return new DefaultFloatFieldItem(readFloats(adsDataType, buffer));
+            case DOUBLE:
+            case LREAL:
+                return new DefaultDoubleFieldItem(readDoubles(adsDataType, buffer));
             case STRING: {
-                LinkedList<String> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
+                List<String> values = new ArrayList<>();
+                while (buffer.hasRemaining()) {
                     ByteArrayOutputStream os = new ByteArrayOutputStream();
                     byte aByte;
-                    while ((aByte = wrappedBuffer.readByte()) != 0x0) {
+                    while ((aByte = buffer.get()) != 0x0) {
                         os.write(aByte);
                     }
-                    values.offer(new String(os.toByteArray()));
+                    values.add(new String(os.toByteArray()));
                 }
                 return new DefaultStringFieldItem(values.toArray(new String[0]));
             }
-            case TIME: {
-                LinkedList<Long> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(aByte);
-                }
-                return new DefaultLongFieldItem(values.toArray(new Long[0]));
-            }
             case TIME_OF_DAY: {
-                LinkedList<LocalTime> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
-                    values.offer(LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos(aByte)));
+                Long[] millis = readUnsignedInts(adsDataType, buffer);
+                LocalTime[] values = new LocalTime[millis.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos(millis[i]));
                 }
-                return new DefaultLocalTimeFieldItem(values.toArray(new LocalTime[0]));
+                return new DefaultLocalTimeFieldItem(values);
             }
             case DATE: {
-                LinkedList<LocalDate> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
+                Long[] seconds = readUnsignedInts(adsDataType, buffer);
+                LocalDate[] values = new LocalDate[seconds.length];
+                for (int i = 0; i < values.length; i++) {
                     // TODO: where to get the zone offset from
-                    LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(aByte, 0, ZoneOffset.UTC);
-                    values.offer(localDateTime.toLocalDate());
+                    values[i] = LocalDateTime.ofEpochSecond(seconds[i], 0, ZoneOffset.UTC).toLocalDate();
                 }
-                return new DefaultLocalDateFieldItem(values.toArray(new LocalDate[0]));
+                return new DefaultLocalDateFieldItem(values);
             }
             case DATE_AND_TIME: {
-                LinkedList<LocalDateTime> values = new LinkedList<>();
-                while (wrappedBuffer.isReadable()) {
-                    long aByte = wrappedBuffer.readUnsignedIntLE();
+                Long[] seconds = readUnsignedInts(adsDataType, buffer);
+                LocalDateTime[] values = new LocalDateTime[seconds.length];
+                for (int i = 0; i < values.length; i++) {
                     // TODO: where to get the zone offset from
-                    LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(aByte, 0, ZoneOffset.UTC);
-                    values.offer(localDateTime);
+                    values[i] = LocalDateTime.ofEpochSecond(seconds[i], 0, ZoneOffset.UTC);
                 }
-                return new DefaultLocalDateTimeFieldItem(values.toArray(new LocalDateTime[0]));
+                return new DefaultLocalDateTimeFieldItem(values);
             }
             case ARRAY: {
                 throw new NotImplementedException("not implemented yet " + adsDataType);
@@ -346,4 +162,120 @@ public class LittleEndianDecoder {
         }
     }
 
+    /**
+     * @return the number of elements of the given type in the buffer.
+     */
+    private static int count(AdsDataType adsDataType, ByteBuffer buffer) {
+        int targetByteSize = adsDataType.getTargetByteSize();
+        if (buffer.remaining() % targetByteSize != 0) {
+            throw new PlcRuntimeException(buffer.remaining() + " bytes are no multiple of " + targetByteSize + " bytes of " + adsDataType);
+        }
+        return buffer.remaining() / targetByteSize;
+    }
+
+    private static Boolean[] readBooleans(AdsDataType adsDataType, ByteBuffer buffer) {
+        Boolean[] values = new Boolean[count(adsDataType, buffer)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.get(i) != 0;
+        }
+        return values;
+    }
+
+    private static Byte[] readBytes(AdsDataType adsDataType, ByteBuffer buffer) {
+        Byte[] values = new Byte[count(adsDataType, buffer)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.get(i);
+        }
+        return values;
+    }
+
+    private static Short[] readUnsignedBytes(AdsDataType adsDataType, ByteBuffer buffer) {
+        Short[] values = new Short[count(adsDataType, buffer)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (short) (buffer.get(i) & 0xFF);
+        }
+        return values;
+    }
+
+    private static Short[] readShorts(AdsDataType adsDataType, ByteBuffer buffer) {
+        short[] primitives = new short[count(adsDataType, buffer)];
+        buffer.asShortBuffer().get(primitives);
+        Short[] values = new Short[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i];
+        }
+        return values;
+    }
+
+    private static Integer[] readUnsignedShorts(AdsDataType adsDataType, ByteBuffer buffer) {
+        short[] primitives = new short[count(adsDataType, buffer)];
+        buffer.asShortBuffer().get(primitives);
+        Integer[] values = new Integer[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i] & 0xFFFF;
+        }
+        return values;
+    }
+
+    private static Integer[] readInts(AdsDataType adsDataType, ByteBuffer buffer) {
+        int[] primitives = new int[count(adsDataType, buffer)];
+        buffer.asIntBuffer().get(primitives);
+        Integer[] values = new Integer[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i];
+        }
+        return values;
+    }
+
+    private static Long[] readUnsignedInts(AdsDataType adsDataType, ByteBuffer buffer) {
+        int[] primitives = new int[count(adsDataType, buffer)];
+        buffer.asIntBuffer().get(primitives);
+        Long[] values = new Long[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i] & 0xFFFF_FFFFL;
+        }
+        return values;
+    }
+
+    private static Long[] readLongs(AdsDataType adsDataType, ByteBuffer buffer) {
+        long[] primitives = new long[count(adsDataType, buffer)];
+        buffer.asLongBuffer().get(primitives);
+        Long[] values = new Long[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i];
+        }
+        return values;
+    }
+
+    private static BigInteger[] readUnsignedLongs(AdsDataType adsDataType, ByteBuffer buffer) {
+        long[] primitives = new long[count(adsDataType, buffer)];
+        buffer.asLongBuffer().get(primitives);
+        BigInteger[] values = new BigInteger[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            long primitive = primitives[i];
+            values[i] = primitive >= 0 ? BigInteger.valueOf(primitive) : BigInteger.valueOf(primitive & Long.MAX_VALUE).setBit(Long.SIZE - 1);
+        }
+        return values;
+    }
+
+    private static Float[] readFloats(AdsDataType adsDataType, ByteBuffer buffer) {
+        float[] primitives = new float[count(adsDataType, buffer)];
+        buffer.asFloatBuffer().get(primitives);
+        Float[] values = new Float[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i];
+        }
+        return values;
+    }
+
+    private static Double[] readDoubles(AdsDataType adsDataType, ByteBuffer buffer) {
+        double[] primitives = new double[count(adsDataType, buffer)];
+        buffer.asDoubleBuffer().get(primitives);
+        Double[] values = new Double[primitives.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = primitives[i];
+        }
+        return values;
+    }
+
 }
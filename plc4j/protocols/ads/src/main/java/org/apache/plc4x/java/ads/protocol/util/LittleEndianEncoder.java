@@ -26,15 +26,20 @@ import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.exceptions.PlcUnsupportedDataTypeException;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.stream.Stream;
 
-// TODO: we might user ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN).putInt(port).asArray() etc
+/**
+ * Encodes values into the little endian representation of an ADS data type.
+ * <p>
+ * Every value of a fixed size type occupies exactly the target byte size of the data type: it is truncated if it is
+ * wider and padded with zeros if it is narrower. Those values are written into a single array which is sized up front.
+ */
 public class LittleEndianEncoder {
 
     private LittleEndianEncoder() {
@@ -46,235 +51,224 @@ public class LittleEndianEncoder {
             return new byte[]{};
         }
         Class<?> valueType = values[0].getClass();
-        Stream<byte[]> result;
-        if (valueType == Boolean.class) {
-            result = encodeBoolean(adsDataType, Arrays.stream(values).map(Boolean.class::cast));
-        } else if (valueType == Byte.class) {
-            result = encodeByte(adsDataType, Arrays.stream(values).map(Byte.class::cast));
-        } else if (valueType == Short.class) {
-            result = encodeShort(adsDataType, Arrays.stream(values).map(Short.class::cast));
-        } else if (valueType == Integer.class) {
-            result = encodeInteger(adsDataType, Arrays.stream(values).map(Integer.class::cast));
-        } else if (valueType == Long.class) {
-            result = encodeLong(adsDataType, Arrays.stream(values).map(Long.class::cast));
-        } else if (valueType == BigInteger.class) {
-            result = encodeBigInteger(adsDataType, Arrays.stream(values).map(BigInteger.class::cast));
-        } else if (valueType == LocalTime.class) {
-            result = encodeLocalTime(adsDataType, Arrays.stream(values).map(LocalTime.class::cast));
-        } else if (valueType == LocalDate.class) {
-            result = encodeLocalDate(adsDataType, Arrays.stream(values).map(LocalDate.class::cast));
-        } else if (valueType == LocalDateTime.class) {
-            result = encodeLocalDateTime(adsDataType, Arrays.stream(values).map(LocalDateTime.class::cast));
-        } else if (valueType == Float.class) {
-            result = encodeFloat(adsDataType, Arrays.stream(values).map(Float.class::cast));
-        } else if (valueType == Double.class) {
-            result = encodeDouble(adsDataType, Arrays.stream(values).map(Double.class::cast));
-        } else if (valueType == String.class) {
-            result = encodeString(adsDataType, Arrays.stream(values).map(String.class::cast));
-        } else if (valueType == byte[].class) {
-            result = encodeByteArray(adsDataType, Arrays.stream(values).map(byte[].class::cast));
-        } else if (valueType == Byte[].class) {
-            result = encodeBigByteArray(adsDataType, Arrays.stream(values).map(Byte[].class::cast));
-        } else {
-            throw new PlcUnsupportedDataTypeException(valueType);
-        }
-
-        // TODO: maybe we can replace this by a smarter flatmap
         try {
-            return result.collect(
-                ByteArrayOutputStream::new,
-                (bos, byteValue) -> {
-                    try {
-                        bos.write(byteValue);
-                    } catch (IOException e) {
-                        throw new PlcRuntimeException(e);
-                    }
-                },
-                (a, b) -> {
-                }).toByteArray();
+            if (valueType == String.class) {
+                return encodeString(values);
+            } else if (valueType == byte[].class) {
+                return encodeByteArray(adsDataType, values);
+            } else if (valueType == Byte[].class) {
+                return encodeBigByteArray(adsDataType, values);
+            }
+            int targetByteSize = adsDataType.getTargetByteSize();
+            if (targetByteSize < 0) {
+                throw new PlcUnsupportedDataTypeException("Unsupported adsDataType " + adsDataType);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(values.length * targetByteSize).order(ByteOrder.LITTLE_ENDIAN);
+            if (valueType == Boolean.class) {
+                encodeBoolean(buffer, targetByteSize, values);
+            } else if (valueType == Byte.class) {
+                encodeByte(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == Short.class) {
+                encodeShort(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == Integer.class) {
+                encodeInteger(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == Long.class) {
+                encodeLong(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == BigInteger.class) {
+                encodeBigInteger(buffer, targetByteSize, values);
+            } else if (valueType == LocalTime.class) {
+                encodeLocalTime(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == LocalDate.class) {
+                encodeLocalDate(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == LocalDateTime.class) {
+                encodeLocalDateTime(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == Float.class) {
+                encodeFloat(adsDataType, buffer, targetByteSize, values);
+            } else if (valueType == Double.class) {
+                encodeDouble(adsDataType, buffer, targetByteSize, values);
+            } else {
+                throw new PlcUnsupportedDataTypeException(valueType);
+            }
+            return buffer.array();
         } catch (PlcRuntimeException e) {
+            if (e instanceof PlcUnsupportedDataTypeException) {
+                throw e;
+            }
             throw new PlcProtocolException("Error encoding data", e);
         }
     }
 
-    private static Stream<byte[]> encodeString(AdsDataType adsDataType, Stream<String> stringStream) {
+    private static byte[] encodeString(Object[] values) {
         // TODO: add boundchecks and add optional extension
         // TODO: what do we do with utf-8 values with 2 bytes? what is the charset here?
-        return stringStream
-            .map(s -> s.getBytes(Charset.defaultCharset()))
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (Object value : values) {
+            byte[] bytes = ((String) value).getBytes(Charset.defaultCharset());
+            result.write(bytes, 0, bytes.length);
             // TODO: this 0 termination is from s7 but might be completly wrong in ads. Guess its a terminator
-            .map(bytes -> ArrayUtils.add(bytes, (byte) 0x0));
+            result.write(0x0);
+        }
+        return result.toByteArray();
     }
 
-    private static Stream<byte[]> encodeByteArray(AdsDataType adsDataType, Stream<byte[]> byteArrayStream) {
+    private static byte[] encodeByteArray(AdsDataType adsDataType, Object[] values) {
         // TODO: add boundchecks and add optional extension
-        return byteArrayStream
-            .peek(bytes -> {
-                if (bytes.length > adsDataType.getTargetByteSize()) {
-                    throw new PlcRuntimeException(new PlcProtocolPayloadTooBigException("ads", adsDataType.getTargetByteSize(), bytes.length, bytes));
-                }
-            });
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (Object value : values) {
+            byte[] bytes = (byte[]) value;
+            checkLength(adsDataType, bytes);
+            result.write(bytes, 0, bytes.length);
+        }
+        return result.toByteArray();
     }
 
-    private static Stream<byte[]> encodeBigByteArray(AdsDataType adsDataType, Stream<Byte[]> byteArrayStream) {
+    private static byte[] encodeBigByteArray(AdsDataType adsDataType, Object[] values) {
         // TODO: add boundchecks and add optional extension
-        return byteArrayStream.map(ArrayUtils::toPrimitive)
-            .peek(bytes -> {
-                if (bytes.length > adsDataType.getTargetByteSize()) {
-                    throw new PlcRuntimeException(new PlcProtocolPayloadTooBigException("ads", adsDataType.getTargetByteSize(), bytes.length, bytes));
-                }
-            });
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (Object value : values) {
+            byte[] bytes = ArrayUtils.toPrimitive((Byte[]) value);
+            checkLength(adsDataType, bytes);
+            result.write(bytes, 0, bytes.length);
+        }
+        return result.toByteArray();
     }
 
-    private static Stream<byte[]> encodeFloat(AdsDataType adsDataType, Stream<Float> floatStream) {
-        return floatStream
-            .peek(value -> checkBound(adsDataType, value))
+    private static void checkLength(AdsDataType adsDataType, byte[] bytes) {
+        if (bytes.length > adsDataType.getTargetByteSize()) {
+            throw new PlcRuntimeException(new PlcProtocolPayloadTooBigException("ads", adsDataType.getTargetByteSize(), bytes.length, bytes));
+        }
+    }
+
+    private static void encodeFloat(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            float value = (Float) values[i];
+            checkBound(adsDataType, value);
             // TODO: check how ads expects this data
-            .map(Float::floatToIntBits)
-            .map(intValue -> new byte[]{
-                (byte) (intValue & 0x000000ff),
-                (byte) ((intValue & 0x0000ff00) >> 8),
-                (byte) ((intValue & 0x00ff0000) >> 16),
-                (byte) ((intValue & 0xff000000) >> 24),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+            if (targetByteSize == Float.BYTES) {
+                buffer.putFloat(i * targetByteSize, value);
+            } else {
+                put(buffer, i * targetByteSize, targetByteSize, Float.floatToIntBits(value), Float.BYTES);
+            }
+        }
     }
 
-    private static Stream<byte[]> encodeDouble(AdsDataType adsDataType, Stream<Double> doubleStream) {
-        return doubleStream
-            .peek(value -> checkBound(adsDataType, value))
+    private static void encodeDouble(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            double value = (Double) values[i];
+            checkBound(adsDataType, value);
             // TODO: check how ads expects this data
-            .map(Double::doubleToLongBits)
-            .map(longValue -> new byte[]{
-                (byte) (longValue & 0x00000000_000000ffL),
-                (byte) ((longValue & 0x00000000_0000ff00L) >> 8),
-                (byte) ((longValue & 0x00000000_00ff0000L) >> 16),
-                (byte) ((longValue & 0x00000000_ff000000L) >> 24),
-                (byte) ((longValue & 0x000000ff_00000000L) >> 32),
-                (byte) ((longValue & 0x0000ff00_00000000L) >> 40),
-                (byte) ((longValue & 0x00ff0000_00000000L) >> 48),
-                (byte) ((longValue & 0xff000000_00000000L) >> 56),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+            if (targetByteSize == Double.BYTES) {
+                buffer.putDouble(i * targetByteSize, value);
+            } else {
+                put(buffer, i * targetByteSize, targetByteSize, Double.doubleToLongBits(value), Double.BYTES);
+            }
+        }
     }
 
-    private static Stream<byte[]> encodeInteger(AdsDataType adsDataType, Stream<Integer> integerStream) {
-        return integerStream
-            .peek(value -> checkBound(adsDataType, value))
-            .map(intValue -> new byte[]{
-                (byte) (intValue & 0x000000ff),
-                (byte) ((intValue & 0x0000ff00) >> 8),
-                (byte) ((intValue & 0x00ff0000) >> 16),
-                (byte) ((intValue & 0xff000000) >> 24),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    private static void encodeInteger(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            int value = (Integer) values[i];
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, value, Integer.BYTES);
+        }
     }
 
-    private static Stream<byte[]> encodeLong(AdsDataType adsDataType, Stream<Long> longStream) {
-        return longStream
-            .peek(value -> checkBound(adsDataType, value))
-            .map(longValue -> new byte[]{
-                (byte) (longValue & 0x00000000_000000ffL),
-                (byte) ((longValue & 0x00000000_0000ff00L) >> 8),
-                (byte) ((longValue & 0x00000000_00ff0000L) >> 16),
-                (byte) ((longValue & 0x00000000_ff000000L) >> 24),
-                (byte) ((longValue & 0x000000ff_00000000L) >> 32),
-                (byte) ((longValue & 0x0000ff00_00000000L) >> 40),
-                (byte) ((longValue & 0x00ff0000_00000000L) >> 48),
-                (byte) ((longValue & 0xff000000_00000000L) >> 56),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    private static void encodeLong(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            long value = (Long) values[i];
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, value, Long.BYTES);
+        }
     }
 
-    private static Stream<byte[]> encodeBigInteger(AdsDataType adsDataType, Stream<BigInteger> bigIntegerStream) {
+    private static void encodeBigInteger(ByteBuffer buffer, int targetByteSize, Object[] values) {
         // TODO: add boundchecks and add optional extension
-        return bigIntegerStream
-            .map(bigIntValue -> {
-                byte[] bytes = bigIntValue.toByteArray();
-                if (bytes.length > 1 && bytes[0] == 0x0) {
-                    byte[] subArray = Arrays.copyOf(ArrayUtils.subarray(bytes, 1, bytes.length), adsDataType.getTargetByteSize());
-                    ArrayUtils.reverse(subArray);
-                    return subArray;
-                } else {
-                    ArrayUtils.reverse(Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
-                    return bytes;
-                }
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = ((BigInteger) values[i]).toByteArray();
+            if (bytes.length > 1 && bytes[0] == 0x0) {
+                byte[] subArray = Arrays.copyOf(ArrayUtils.subarray(bytes, 1, bytes.length), targetByteSize);
+                ArrayUtils.reverse(subArray);
+                bytes = subArray;
+            }
+            buffer.position(i * targetByteSize);
+            buffer.put(bytes, 0, Math.min(bytes.length, targetByteSize));
+        }
     }
 
-    private static Stream<byte[]> encodeLocalTime(AdsDataType adsDataType, Stream<LocalTime> localTimeStream) {
-        return localTimeStream
-            .map(localTime -> ChronoUnit.MILLIS.between(LocalTime.of(0, 0), localTime))
-            .peek(value -> checkBound(adsDataType, value))
-            .map(Long::intValue)
-            .map(time -> new byte[]{
-                (byte) (time & 0x00000000_000000ffL),
-                (byte) ((time & 0x00000000_0000ff00L) >> 8),
-                (byte) ((time & 0x00000000_00ff0000L) >> 16),
-                (byte) ((time & 0x00000000_ff000000L) >> 24),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    private static void encodeLocalTime(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            long value = ChronoUnit.MILLIS.between(LocalTime.of(0, 0), (LocalTime) values[i]);
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, (int) value, Integer.BYTES);
+        }
     }
 
-    private static Stream<byte[]> encodeLocalDate(AdsDataType adsDataType, Stream<LocalDate> localDateStream) {
-        return localDateStream
+    private static void encodeLocalDate(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
             // TODO: fixme: which offset should we use?
-            .map(localDate -> localDate.atTime(0, 0).toInstant(ZoneOffset.UTC))
-            .map(Instant::getEpochSecond)
-            .peek(value -> checkBound(adsDataType, value))
-            .map(Long::intValue)
-            .map(time -> new byte[]{
-                (byte) (time & 0x00000000_000000ffL),
-                (byte) ((time & 0x00000000_0000ff00L) >> 8),
-                (byte) ((time & 0x00000000_00ff0000L) >> 16),
-                (byte) ((time & 0x00000000_ff000000L) >> 24),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+            long value = ((LocalDate) values[i]).atTime(0, 0).toInstant(ZoneOffset.UTC).getEpochSecond();
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, (int) value, Integer.BYTES);
+        }
     }
 
-    private static Stream<byte[]> encodeLocalDateTime(AdsDataType adsDataType, Stream<LocalDateTime> localDateTimeStream) {
-        return localDateTimeStream
+    private static void encodeLocalDateTime(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
             // TODO: fixme: which offset should we use?
-            .map(localDateTime -> localDateTime.toInstant(ZoneOffset.UTC))
-            .map(Instant::getEpochSecond)
-            .peek(value -> checkBound(adsDataType, value))
-            .map(time -> new byte[]{
-                (byte) (time & 0x00000000_000000ffL),
-                (byte) ((time & 0x00000000_0000ff00L) >> 8),
-                (byte) ((time & 0x00000000_00ff0000L) >> 16),
-                (byte) ((time & 0x00000000_ff000000L) >> 24),
-
-                (byte) ((time & 0x000000ff_00000000L) >> 32),
-                (byte) ((time & 0x0000ff00_00000000L) >> 40),
-                (byte) ((time & 0x00ff0000_00000000L) >> 48),
-                (byte) ((time & 0xff000000_00000000L) >> 56),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+            long value = ((LocalDateTime) values[i]).toInstant(ZoneOffset.UTC).getEpochSecond();
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, value, Long.BYTES);
+        }
     }
 
+    private static void encodeShort(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            short value = (Short) values[i];
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, value, Short.BYTES);
+        }
+    }
 
-    private static Stream<byte[]> encodeShort(AdsDataType adsDataType, Stream<Short> shortStream) {
-        return shortStream
-            .peek(value -> checkBound(adsDataType, value))
-            .map(shortValue -> new byte[]{
-                (byte) (shortValue & 0x00ff),
-                (byte) ((shortValue & 0xff00) >> 8),
-            })
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    private static void encodeByte(AdsDataType adsDataType, ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            byte value = (Byte) values[i];
+            checkBound(adsDataType, value);
+            put(buffer, i * targetByteSize, targetByteSize, value, Byte.BYTES);
+        }
     }
 
-    private static Stream<byte[]> encodeByte(AdsDataType adsDataType, Stream<Byte> byteStream) {
-        return byteStream
-            .peek(value -> checkBound(adsDataType, value))
-            .map(aByte -> new byte[]{aByte})
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    private static void encodeBoolean(ByteBuffer buffer, int targetByteSize, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (targetByteSize > 0) {
+                buffer.put(i * targetByteSize, (Boolean) values[i] ? (byte) 0x01 : (byte) 0x00);
+            }
+        }
     }
 
-    private static Stream<byte[]> encodeBoolean(AdsDataType adsDataType, Stream<Boolean> booleanStream) {
-        return booleanStream
-            .map(booleanValue -> new byte[]{booleanValue ? (byte) 0x01 : (byte) 0x00})
-            .map(bytes -> Arrays.copyOf(bytes, adsDataType.getTargetByteSize()));
+    /**
+     * Writes the lowest {@code valueBytes} of the given value at the given index, truncated to {@code targetByteSize}.
+     * Bytes of the target not covered by the value keep their initial zero.
+     */
+    private static void put(ByteBuffer buffer, int index, int targetByteSize, long value, int valueBytes) {
+        if (targetByteSize == valueBytes) {
+            switch (valueBytes) {
+                case Long.BYTES:
+                    buffer.putLong(index, value);
+                    return;
+                case Integer.BYTES:
+                    buffer.putInt(index, (int) value);
+                    return;
+                case Short.BYTES:
+                    buffer.putShort(index, (short) value);
+                    return;
+                default:
+                    buffer.put(index, (byte) value);
+                    return;
+            }
+        }
+        for (int i = 0; i < Math.min(targetByteSize, valueBytes); i++) {
+            buffer.put(index + i, (byte) (value >> (8 * i)));
+        }
     }
 
     private static void checkBound(AdsDataType adsDataType, double other) {
@@ -21,11 +21,15 @@ package org.apache.plc4x.java.ads.protocol.util
 
 import org.apache.plc4x.java.ads.model.AdsDataType
 import org.apache.plc4x.java.api.exceptions.PlcProtocolException
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException
 import org.apache.plc4x.java.api.exceptions.PlcUnsupportedDataTypeException
 import spock.lang.Ignore
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
 import static org.apache.plc4x.java.ads.model.AdsDataType.*
 
 class LittleEndianDecoderSpec extends Specification {
@@ -80,6 +84,68 @@ class LittleEndianDecoderSpec extends Specification {
         STRING | String        | ["plc4x", "plc4x"]                                 | [0x70, 0x6c, 0x63, 0x34, 0x78, 0x0, 0x70, 0x6c, 0x63, 0x34, 0x78, 0x0] as byte[]
     }
 
+    @Unroll
+    def "decode of unsigned #adsdt.name() with the highest bit set"(AdsDataType adsdt, def expectedValues, def rawData) {
+        when:
+        def fieldItem = LittleEndianDecoder.decodeData(adsdt, rawData)
+
+        then:
+        assert fieldItem.values as List == expectedValues
+        where:
+        adsdt | expectedValues                                                | rawData
+        USINT | [255 as short, 1 as short]                                    | [0xFF, 0x01] as byte[]
+        UINT  | [65535, 1]                                                    | [0xFF, 0xFF, 0x01, 0x00] as byte[]
+        UDINT | [4294967295L, 1L]                                             | [0xFF, 0xFF, 0xFF, 0xFF, 0x01, 0x00, 0x00, 0x00] as byte[]
+        ULINT | [new BigInteger("18446744073709551615"), BigInteger.ONE]      | [0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00] as byte[]
+    }
+
+    @Unroll
+    def "decode of #adsdt.name() rejects #rawData.length bytes"(AdsDataType adsdt, def rawData) {
+        when:
+        LittleEndianDecoder.decodeData(adsdt, rawData)
+
+        then:
+        def e = thrown PlcRuntimeException
+        e.message.contains("no multiple of ${adsdt.targetByteSize} bytes")
+        where:
+        adsdt | rawData
+        INT   | new byte[3]
+        DINT  | new byte[6]
+        REAL  | new byte[5]
+        LREAL | new byte[12]
+        DATE  | new byte[2]
+    }
+
+    @Unroll
+    def "decode of the remaining bytes of a #description buffer"(String description, ByteBuffer buffer) {
+        given:
+        buffer.put([0xAA, 0xBB, 0x34, 0x12, 0x78, 0x56] as byte[]).flip().position(2)
+
+        when:
+        def fieldItem = LittleEndianDecoder.decodeData(UINT, buffer)
+
+        then:
+        assert fieldItem.values as List == [0x1234, 0x5678]
+        assert buffer.position() == 2
+        assert buffer.remaining() == 4
+        where:
+        description          | buffer
+        "heap"               | ByteBuffer.allocate(6)
+        "direct"             | ByteBuffer.allocateDirect(6)
+        "big endian ordered" | ByteBuffer.allocate(6).order(ByteOrder.BIG_ENDIAN)
+    }
+
+    def "decode of a read-only buffer"() {
+        given:
+        def buffer = ByteBuffer.wrap([0x00, 0x00, 0x80, 0x3F, 0x00, 0x00, 0x00, 0x40] as byte[]).asReadOnlyBuffer()
+
+        when:
+        def fieldItem = LittleEndianDecoder.decodeData(REAL, buffer)
+
+        then:
+        assert fieldItem.values as List == [1.0f, 2.0f]
+    }
+
     @Ignore("Needs finishing")
     def "failure test with string"() {
         when:
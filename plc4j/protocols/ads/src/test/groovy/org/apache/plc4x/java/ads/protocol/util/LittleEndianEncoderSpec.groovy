@@ -20,6 +20,7 @@
 package org.apache.plc4x.java.ads.protocol.util
 
 import org.apache.plc4x.java.ads.model.AdsDataType
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -50,4 +51,18 @@ class LittleEndianEncoderSpec extends Specification {
         STRING | [0x48, 0x65, 0x6c, 0x6c, 0x6f, 0x57, 0x6f, 0x72, 0x6c, 0x64, 0x21, 0x00] as byte[]                                     | ["HelloWorld!"]
         STRING | [0x70, 0x6c, 0x63, 0x34, 0x78, 0x00, 0x48, 0x65, 0x6c, 0x6c, 0x6f, 0x57, 0x6f, 0x72, 0x6c, 0x64, 0x21, 0x00] as byte[] | ["plc4x", "HelloWorld!"]
     }
+
+    @Unroll
+    def "encode of #adsdt.name() rejects #values"(AdsDataType adsdt, def values) {
+        when:
+        LittleEndianEncoder.encodeData(adsdt, *values)
+
+        then:
+        thrown PlcProtocolException
+        where:
+        adsdt | values
+        INT   | [1, 70000, 2]
+        UINT  | [1, -1]
+        SINT  | [0x12, 0x0304] as short[]
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.model;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+class AdsSymbolTableTest implements WithAssertions {
+
+    @Nested
+    class Decode {
+
+        @Test
+        void entries() {
+            ByteBuf data = Unpooled.buffer();
+            writeEntry(data, "MAIN.counter", 0x4020, 4, 2, 2, "INT", "A counter", 0);
+            writeEntry(data, "MAIN.name", 0x4020, 8, 81, 30, "STRING(80)", "", 16);
+
+            AdsSymbolTable adsSymbolTable = AdsSymbolTable.decode(7, toBytes(data), 2);
+
+            assertThat(adsSymbolTable.getVersion()).isEqualTo(7);
+            assertThat(adsSymbolTable.size()).isEqualTo(2);
+            assertThat(adsSymbolTable.getSymbol("MAIN.counter")).contains(AdsSymbol.of("MAIN.counter", 0x4020, 4, 2, 2, 8, "INT", "A counter"));
+            AdsSymbol name = adsSymbolTable.getSymbol("MAIN.name").orElseThrow(AssertionError::new);
+            assertThat(name.getIndexOffset()).isEqualTo(8);
+            assertThat(name.getSize()).isEqualTo(81);
+            assertThat(name.getAdsDataType()).isEqualTo(AdsDataType.STRING);
+        }
+
+        @Test
+        void invalidEntryLength() {
+            ByteBuf data = Unpooled.buffer();
+            writeEntry(data, "MAIN.counter", 0x4020, 4, 2, 2, "INT", "", 0);
+            byte[] bytes = toBytes(data);
+            bytes[0] = (byte) (bytes[0] + 1);
+
+            assertThatThrownBy(() -> AdsSymbolTable.decode(1, bytes, 1))
+                .isInstanceOf(PlcRuntimeException.class)
+                .hasMessageContaining("Invalid length");
+        }
+
+        @Test
+        void missingEntries() {
+            ByteBuf data = Unpooled.buffer();
+            writeEntry(data, "MAIN.counter", 0x4020, 4, 2, 2, "INT", "", 0);
+
+            assertThatThrownBy(() -> AdsSymbolTable.decode(1, toBytes(data), 2))
+                .isInstanceOf(PlcRuntimeException.class)
+                .hasMessage("Expected 2 symbols but got 1");
+        }
+    }
+
+    @Nested
+    class Lookup {
+
+        private final AdsSymbolTable adsSymbolTable = AdsSymbolTable.of(1, Arrays.asList(
+            AdsSymbol.of("MAIN.counter", 0x4020, 4, 2, 2, 8, "INT", ""),
+            AdsSymbol.of("MAIN.values", 0x4020, 16, 8, 65, 8, "ARRAY [0..3] OF INT", "")
+        ));
+
+        @Test
+        void caseInsensitive() {
+            assertThat(adsSymbolTable.getSymbol("main.COUNTER")).isPresent();
+            assertThat(adsSymbolTable.getSymbol("MAIN.unknown")).isEmpty();
+        }
+
+        @Test
+        void resolve() {
+            DirectAdsField directAdsField = adsSymbolTable.resolve(SymbolicAdsField.of("Main.Values:INT[4]"));
+
+            assertThat(directAdsField).isEqualTo(DirectAdsField.of(0x4020, 16, AdsDataType.INT, 4));
+            assertThat(directAdsField.getAdsDataType()).isEqualTo(AdsDataType.INT);
+            assertThat(directAdsField.getNumberOfElements()).isEqualTo(4);
+            assertThat(adsSymbolTable.resolve(SymbolicAdsField.of("MAIN.struct.member:INT"))).isNull();
+        }
+
+        @Test
+        void dataTypes() {
+            assertThat(adsSymbolTable.getSymbol("MAIN.counter").map(AdsSymbol::getAdsDataType)).contains(AdsDataType.INT);
+            assertThat(adsSymbolTable.getSymbol("MAIN.values").map(AdsSymbol::getAdsDataType)).contains(AdsDataType.ARRAY);
+            assertThat(AdsSymbol.of("MAIN.motor", 0x4020, 0, 12, 65, 8, "ST_Motor", "").getAdsDataType()).isEqualTo(AdsDataType.UNKNOWN);
+        }
+    }
+
+    static void writeEntry(ByteBuf data, String name, long indexGroup, long indexOffset, long size, long dataTypeId, String typeName, String comment, int extendedDataLength) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] typeBytes = typeName.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] commentBytes = comment.getBytes(StandardCharsets.ISO_8859_1);
+        int entryLength = AdsSymbolTable.ENTRY_HEADER_SIZE + nameBytes.length + typeBytes.length + commentBytes.length + 3 + extendedDataLength;
+        data.writeIntLE(entryLength)
+            .writeIntLE((int) indexGroup)
+            .writeIntLE((int) indexOffset)
+            .writeIntLE((int) size)
+            .writeIntLE((int) dataTypeId)
+            .writeIntLE(8)
+            .writeShortLE(nameBytes.length)
+            .writeShortLE(typeBytes.length)
+            .writeShortLE(commentBytes.length)
+            .writeBytes(nameBytes).writeByte(0)
+            .writeBytes(typeBytes).writeByte(0)
+            .writeBytes(commentBytes).writeByte(0)
+            .writeZero(extendedDataLength);
+    }
+
+    private static byte[] toBytes(ByteBuf data) {
+        byte[] bytes = new byte[data.readableBytes()];
+        data.readBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import org.apache.plc4x.java.ads.api.commands.AdsDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.ads.model.AdsDataType;
+import org.apache.plc4x.java.ads.model.AdsSubscriptionHandle;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+class AdsNotificationDispatcherTest implements WithAssertions {
+
+    private final AdsNotificationDispatcher dispatcher = new AdsNotificationDispatcher();
+
+    private final AdsSubscriptionHandle temperature = new AdsSubscriptionHandle(null, "temperature", AdsDataType.INT, NotificationHandle.of(1));
+
+    private final AdsSubscriptionHandle pressure = new AdsSubscriptionHandle(null, "pressure", AdsDataType.INT, NotificationHandle.of(2));
+
+    private final List<PlcSubscriptionEvent> temperatureEvents = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<PlcSubscriptionEvent> bothEvents = Collections.synchronizedList(new ArrayList<>());
+
+    private final Consumer<PlcSubscriptionEvent> temperatureConsumer = temperatureEvents::add;
+
+    private final Consumer<PlcSubscriptionEvent> bothConsumer = bothEvents::add;
+
+    @Nested
+    class Routing {
+
+        @Test
+        void routesSamplesToInterestedConsumers() {
+            dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+            dispatcher.register(bothConsumer, Arrays.asList(temperature, pressure));
+            assertThat(dispatcher.getNumberOfRoutes()).isEqualTo(2);
+
+            dispatcher.accept(notification(sample(pressure, 7)));
+
+            assertThat(temperatureEvents).isEmpty();
+            assertThat(bothEvents).hasSize(1);
+            assertThat(bothEvents.get(0).getFieldNames()).containsExactly("pressure");
+            assertThat(bothEvents.get(0).getShort("pressure")).isEqualTo((short) 7);
+
+            dispatcher.accept(notification(sample(temperature, 21), sample(pressure, 8)));
+
+            assertThat(temperatureEvents).hasSize(1);
+            assertThat(temperatureEvents.get(0).getFieldNames()).containsExactly("temperature");
+            assertThat(temperatureEvents.get(0).getShort("temperature")).isEqualTo((short) 21);
+            assertThat(bothEvents).hasSize(2);
+            assertThat(bothEvents.get(1).getFieldNames()).containsExactlyInAnyOrder("temperature", "pressure");
+            assertThat(bothEvents.get(1).getShort("pressure")).isEqualTo((short) 8);
+        }
+
+        @Test
+        void skipsUnknownHandles() {
+            dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+
+            dispatcher.accept(notification(AdsNotificationSample.of(NotificationHandle.of(42), Data.of((byte) 1))));
+
+            assertThat(temperatureEvents).isEmpty();
+        }
+
+        @Test
+        void unregisterRemovesRoutes() {
+            dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+            dispatcher.register(bothConsumer, Arrays.asList(temperature, pressure));
+
+            dispatcher.unregister(bothConsumer, Arrays.asList(temperature, pressure));
+            assertThat(dispatcher.getNumberOfRoutes()).isEqualTo(1);
+            dispatcher.accept(notification(sample(temperature, 21), sample(pressure, 8)));
+            assertThat(temperatureEvents).hasSize(1);
+            assertThat(bothEvents).isEmpty();
+
+            dispatcher.unregister(temperatureConsumer, Collections.singletonList(temperature));
+            assertThat(dispatcher.getNumberOfRoutes()).isZero();
+        }
+
+        @Test
+        void failingConsumerDoesNotAffectOthers() {
+            dispatcher.register(event -> {
+                throw new IllegalStateException("broken");
+            }, Collections.singletonList(temperature));
+            dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+
+            dispatcher.accept(notification(sample(temperature, 21)));
+
+            assertThat(temperatureEvents).hasSize(1);
+        }
+    }
+
+    @Nested
+    class OffloadedDispatch {
+
+        @Test
+        void dispatchesInOrderOnExecutor() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                dispatcher.setExecutor(executor);
+                dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+
+                for (int i = 0; i < 1000; i++) {
+                    dispatcher.accept(notification(sample(temperature, i)));
+                }
+
+                executor.shutdown();
+                assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+                assertThat(temperatureEvents).hasSize(1000);
+                for (int i = 0; i < 1000; i++) {
+                    assertThat(temperatureEvents.get(i).getShort("temperature")).isEqualTo((short) i);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void recoversFromRejectedExecution() {
+            AtomicBoolean reject = new AtomicBoolean(true);
+            dispatcher.setExecutor(command -> {
+                if (reject.getAndSet(false)) {
+                    throw new RejectedExecutionException("busy");
+                }
+                command.run();
+            });
+            dispatcher.register(temperatureConsumer, Collections.singletonList(temperature));
+
+            dispatcher.accept(notification(sample(temperature, 1)));
+            dispatcher.accept(notification(sample(temperature, 2)));
+
+            assertThat(temperatureEvents).hasSize(1);
+            assertThat(temperatureEvents.get(0).getShort("temperature")).isEqualTo((short) 2);
+        }
+    }
+
+    private static AdsNotificationSample sample(AdsSubscriptionHandle handle, int value) {
+        return AdsNotificationSample.of(handle.getNotificationHandle(), Data.of((byte) value, (byte) (value >> 8)));
+    }
+
+    private static AdsDeviceNotificationRequest notification(AdsNotificationSample... samples) {
+        AdsStampHeader adsStampHeader = AdsStampHeader.of(TimeStamp.of(new Date()), Arrays.asList(samples));
+        return AdsDeviceNotificationRequest.of(AmsNetId.of("1.2.3.4.5.6"), AmsPort.of(851), AmsNetId.of("8.9.10.11.12.13"), AmsPort.of(14),
+            Invoke.NONE, Stamps.of(1), Collections.singletonList(adsStampHeader));
+    }
+}
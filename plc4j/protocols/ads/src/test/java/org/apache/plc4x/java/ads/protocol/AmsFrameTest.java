@@ -0,0 +1,307 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.plc4x.java.ads.api.commands.AdsDeleteDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsDeleteDeviceNotificationResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsReadRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
+import org.apache.plc4x.java.ads.api.commands.AdsWriteRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsWriteResponse;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Command;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.ads.model.AdsPlcFieldHandler;
+import org.apache.plc4x.java.ads.protocol.exception.AdsProtocolLengthException;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.messages.PlcWriteResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.*;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class AmsFrameTest implements WithAssertions {
+
+    private final AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
+    private final AmsPort targetAmsPort = AmsPort.of(851);
+    private final AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
+    private final AmsPort sourceAmsPort = AmsPort.of(14);
+
+    @Nested
+    class Encode {
+
+        @Test
+        void readRequest() {
+            AmsFrame amsFrame = AmsFrame.readRequest(UnpooledByteBufAllocator.DEFAULT, targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort,
+                3, 0x4020, 0x10, 2);
+            AmsPacket expected = AdsReadRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(3),
+                IndexGroup.of(0x4020), IndexOffset.of(0x10), Length.of(2));
+            assertThat(ByteBufUtil.getBytes(amsFrame.content())).isEqualTo(expected.getBytes());
+            assertThat(amsFrame.toAmsPacket()).isEqualTo(expected);
+            amsFrame.release();
+        }
+
+        @Test
+        void writeRequest() {
+            byte[] data = {0x01, 0x02, 0x03};
+            AmsFrame amsFrame = AmsFrame.writeRequest(UnpooledByteBufAllocator.DEFAULT, targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort,
+                4, 0x4020, 0x10, data);
+            AmsPacket expected = AdsWriteRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(4),
+                IndexGroup.of(0x4020), IndexOffset.of(0x10), Data.of(data));
+            assertThat(ByteBufUtil.getBytes(amsFrame.content())).isEqualTo(expected.getBytes());
+            amsFrame.release();
+        }
+    }
+
+    @Nested
+    class Decode {
+
+        @Test
+        void readResponse() {
+            AmsPacket amsPacket = AdsReadResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort, Invoke.of(5),
+                Result.of(AdsReturnCode.ADS_CODE_1808), Data.of(new byte[]{0x34, 0x12}));
+            EmbeddedChannel channel = new EmbeddedChannel(new Ads2PayloadProtocol(true));
+            channel.writeInbound(Unpooled.wrappedBuffer(amsPacket.getBytes()));
+
+            AmsFrame amsFrame = channel.readInbound();
+            assertThat(amsFrame.isCommand(Command.ADS_READ)).isTrue();
+            assertThat(amsFrame.isResponse()).isTrue();
+            assertThat(amsFrame.getTargetAmsPort()).isEqualTo(14);
+            assertThat(amsFrame.getSourceAmsPort()).isEqualTo(851);
+            assertThat(amsFrame.getInvokeId()).isEqualTo(5);
+            assertThat(amsFrame.getDataLength()).isEqualTo(10);
+            assertThat(amsFrame.getResult()).isEqualTo(AdsReturnCode.ADS_CODE_1808.getHex());
+            ByteBuf data = amsFrame.getResponseData();
+            assertThat(ByteBufUtil.getBytes(data)).containsExactly(0x34, 0x12);
+            assertThat(amsFrame.toAmsPacket()).isEqualTo(amsPacket);
+            assertThat(amsFrame.release()).isTrue();
+        }
+
+        @Test
+        void shorterThanHeader() {
+            ByteBuf byteBuf = Unpooled.wrappedBuffer(new byte[AmsFrame.HEADER_LENGTH - 1]);
+            assertThatThrownBy(() -> AmsFrame.decode(byteBuf))
+                .isInstanceOf(AdsProtocolLengthException.class)
+                .hasMessageContaining("AMS header");
+            assertThat(byteBuf.refCnt()).isOne();
+        }
+
+        @Test
+        void trailingBytes() {
+            byte[] bytes = readResponseBytes();
+            ByteBuf byteBuf = Unpooled.buffer().writeBytes(bytes).writeByte(0x42);
+            assertThatThrownBy(() -> AmsFrame.decode(byteBuf))
+                .isInstanceOf(AdsProtocolLengthException.class)
+                .hasMessageContaining("expected " + bytes.length + " bytes");
+
+            EmbeddedChannel channel = new EmbeddedChannel(new Ads2PayloadProtocol(true));
+            assertThatThrownBy(() -> channel.writeInbound(Unpooled.buffer().writeBytes(bytes).writeByte(0x42)))
+                .hasCauseInstanceOf(AdsProtocolLengthException.class);
+            assertThat((Object) channel.readInbound()).isNull();
+        }
+
+        @Test
+        void truncatedData() {
+            byte[] bytes = readResponseBytes();
+            ByteBuf byteBuf = Unpooled.wrappedBuffer(bytes, 0, bytes.length - 1);
+            assertThatThrownBy(() -> AmsFrame.decode(byteBuf))
+                .isInstanceOf(AdsProtocolLengthException.class)
+                .hasMessageContaining("AMS packet");
+        }
+
+        @Test
+        void responseDataLongerThanFrame() {
+            byte[] bytes = readResponseBytes();
+            // Claims 10 bytes of data while the frame only holds 2.
+            bytes[AmsFrame.HEADER_LENGTH + 4] = 10;
+            AmsFrame amsFrame = AmsFrame.decode(Unpooled.wrappedBuffer(bytes));
+            assertThatThrownBy(amsFrame::getResponseData)
+                .isInstanceOf(AdsProtocolLengthException.class)
+                .hasMessageContaining("ADS read response data");
+            amsFrame.release();
+        }
+
+        @Test
+        void responseShorterThanResult() {
+            byte[] bytes = AdsWriteResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort, Invoke.of(5),
+                Result.of(0)).getBytes();
+            // Cut the result in half, fixing up the data length of the header.
+            ByteBuf byteBuf = Unpooled.wrappedBuffer(bytes, 0, AmsFrame.HEADER_LENGTH + 2)
+                .setIntLE(AmsFrame.DATA_LENGTH_OFFSET, 2);
+            AmsFrame amsFrame = AmsFrame.decode(byteBuf);
+            assertThatThrownBy(amsFrame::getResult)
+                .isInstanceOf(AdsProtocolLengthException.class)
+                .hasMessageContaining("ADS response");
+            amsFrame.release();
+        }
+
+        private byte[] readResponseBytes() {
+            return AdsReadResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort, Invoke.of(5),
+                Result.of(0), Data.of(new byte[]{0x34, 0x12})).getBytes();
+        }
+    }
+
+    @Nested
+    class Roundtrip {
+
+        private final EmbeddedChannel channel = new EmbeddedChannel(
+            new Ads2PayloadProtocol(true),
+            new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, new ConcurrentHashMap<>(), true));
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void read() throws Exception {
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = new PlcRequestContainer<>(
+                (InternalPlcRequest) new DefaultPlcReadRequest.Builder(null, new AdsPlcFieldHandler())
+                    .addItem("value", "0x4020/0x0:UINT")
+                    .build(), new CompletableFuture<>());
+            channel.writeOutbound(container);
+            ByteBuf request = channel.readOutbound();
+            AdsReadRequest adsReadRequest = (AdsReadRequest) Ads2PayloadProtocol.decodeAmsPacket(request);
+            request.release();
+            assertThat(adsReadRequest.getIndexGroup().getAsLong()).isEqualTo(0x4020);
+            assertThat(adsReadRequest.getLength().getAsLong()).isEqualTo(2);
+
+            channel.writeInbound(Unpooled.wrappedBuffer(AdsReadResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                adsReadRequest.getAmsHeader().getInvokeId(), Result.of(0), Data.of(new byte[]{0x34, 0x12})).getBytes()));
+            PlcReadResponse response = (PlcReadResponse) container.getResponseFuture().get(1, TimeUnit.SECONDS);
+            assertThat(response.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+            assertThat(response.getInteger("value")).isEqualTo(0x1234);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void readWithShortResponseFails() throws Exception {
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = new PlcRequestContainer<>(
+                (InternalPlcRequest) new DefaultPlcReadRequest.Builder(null, new AdsPlcFieldHandler())
+                    .addItem("value", "0x4020/0x0:UINT")
+                    .build(), new CompletableFuture<>());
+            channel.writeOutbound(container);
+            ByteBuf request = channel.readOutbound();
+            AdsReadRequest adsReadRequest = (AdsReadRequest) Ads2PayloadProtocol.decodeAmsPacket(request);
+            request.release();
+
+            byte[] response = AdsReadResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                adsReadRequest.getAmsHeader().getInvokeId(), Result.of(0), Data.of(new byte[]{0x34, 0x12})).getBytes();
+            response[AmsFrame.HEADER_LENGTH + 4] = 10;
+            channel.writeInbound(Unpooled.wrappedBuffer(response));
+
+            assertThatThrownBy(() -> container.getResponseFuture().get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PlcProtocolException.class)
+                .hasRootCauseInstanceOf(AdsProtocolLengthException.class);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void lazyRead() throws Exception {
+            EmbeddedChannel lazyChannel = new EmbeddedChannel(
+                new Ads2PayloadProtocol(true),
+                new Plc4x2AdsProtocol(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, new ConcurrentHashMap<>(), true, true));
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = new PlcRequestContainer<>(
+                (InternalPlcRequest) new DefaultPlcReadRequest.Builder(null, new AdsPlcFieldHandler())
+                    .addItem("value", "0x4020/0x0:UINT")
+                    .build(), new CompletableFuture<>());
+            lazyChannel.writeOutbound(container);
+            ByteBuf request = lazyChannel.readOutbound();
+            AdsReadRequest adsReadRequest = (AdsReadRequest) Ads2PayloadProtocol.decodeAmsPacket(request);
+            request.release();
+
+            ByteBuf frame = Unpooled.wrappedBuffer(AdsReadResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                adsReadRequest.getAmsHeader().getInvokeId(), Result.of(0), Data.of(new byte[]{0x34, 0x12})).getBytes());
+            lazyChannel.writeInbound(frame);
+            // The response doesn't hold on to the received frame.
+            assertThat(frame.refCnt()).isZero();
+            LazyPlcReadResponse response = (LazyPlcReadResponse) container.getResponseFuture().get(1, TimeUnit.SECONDS);
+            assertThat(response.isDecoded("value")).isFalse();
+            assertThat(ByteBufUtil.getBytes(response.getRawData("value"))).containsExactly(0x34, 0x12);
+            assertThat(response.getInteger("value")).isEqualTo(0x1234);
+            assertThat(response.isDecoded("value")).isTrue();
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void write() throws Exception {
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = new PlcRequestContainer<>(
+                (InternalPlcRequest) new DefaultPlcWriteRequest.Builder(null, new AdsPlcFieldHandler())
+                    .addItem("value", "0x4020/0x0:UINT", 42)
+                    .build(), new CompletableFuture<>());
+            channel.writeOutbound(container);
+            ByteBuf request = channel.readOutbound();
+            AdsWriteRequest adsWriteRequest = (AdsWriteRequest) Ads2PayloadProtocol.decodeAmsPacket(request);
+            request.release();
+            assertThat(adsWriteRequest.getData().getBytes()).containsExactly(42, 0);
+
+            channel.writeInbound(Unpooled.wrappedBuffer(AdsWriteResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                adsWriteRequest.getAmsHeader().getInvokeId(), Result.of(AdsReturnCode.ADS_CODE_1793)).getBytes()));
+            PlcWriteResponse response = (PlcWriteResponse) container.getResponseFuture().get(1, TimeUnit.SECONDS);
+            assertThat(response.getResponseCode("value")).isNotEqualTo(PlcResponseCode.OK);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void pipelinedProprietaryRequests() throws Exception {
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> first = proprietaryRequest(1);
+            PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> second = proprietaryRequest(2);
+            channel.writeOutbound(first, second);
+            AmsPacket firstRequest = readOutbound();
+            AmsPacket secondRequest = readOutbound();
+            // Packets without invoke id get distinct ones, so both can be in flight at the same time.
+            assertThat(firstRequest.getAmsHeader().getInvokeId()).isNotEqualTo(Invoke.NONE);
+            assertThat(secondRequest.getAmsHeader().getInvokeId()).isNotEqualTo(firstRequest.getAmsHeader().getInvokeId());
+
+            channel.writeInbound(Unpooled.wrappedBuffer(AdsDeleteDeviceNotificationResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                secondRequest.getAmsHeader().getInvokeId(), Result.of(0)).getBytes()));
+            channel.writeInbound(Unpooled.wrappedBuffer(AdsDeleteDeviceNotificationResponse.of(sourceAmsNetId, sourceAmsPort, targetAmsNetId, targetAmsPort,
+                firstRequest.getAmsHeader().getInvokeId(), Result.of(AdsReturnCode.ADS_CODE_1793)).getBytes()));
+            assertThat(((AdsDeleteDeviceNotificationResponse) ((PlcProprietaryResponse) first.getResponseFuture().get(1, TimeUnit.SECONDS)).getResponse())
+                .getResult().toAdsReturnCode()).isEqualTo(AdsReturnCode.ADS_CODE_1793);
+            assertThat(((AdsDeleteDeviceNotificationResponse) ((PlcProprietaryResponse) second.getResponseFuture().get(1, TimeUnit.SECONDS)).getResponse())
+                .getResult().toAdsReturnCode()).isEqualTo(AdsReturnCode.ADS_CODE_0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> proprietaryRequest(long notificationHandle) {
+            return new PlcRequestContainer<>((InternalPlcRequest) new DefaultPlcProprietaryRequest<>(AdsDeleteDeviceNotificationRequest.of(
+                targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.NONE, NotificationHandle.of(notificationHandle))), new CompletableFuture<>());
+        }
+
+        private AmsPacket readOutbound() {
+            ByteBuf request = channel.readOutbound();
+            AmsPacket amsPacket = Ads2PayloadProtocol.decodeAmsPacket(request);
+            request.release();
+            return amsPacket;
+        }
+    }
+}
@@ -54,6 +54,7 @@ import java.time.LocalTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -237,6 +238,26 @@ public class Plc4x2AdsProtocolTest {
         }
     }
 
+    @Test
+    public void failedRequestIsForgotten() throws Exception {
+        // The parameters are shared by all tests, so this one needs a container that didn't complete yet.
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container =
+            new PlcRequestContainer<>(plcRequestContainer.getRequest(), new CompletableFuture<>());
+        ArrayList<Object> out = new ArrayList<>();
+        SUT.encode(null, container, out);
+        assertThat(requests().keySet(), hasSize(1));
+
+        container.getResponseFuture().completeExceptionally(new TimeoutException());
+
+        assertThat(requests().keySet(), empty());
+    }
+
+    private Map<?, ?> requests() throws Exception {
+        Field requestsField = SUT.getClass().getDeclaredField("requests");
+        requestsField.setAccessible(true);
+        return (Map<?, ?>) requestsField.get(SUT);
+    }
+
     private void syncInvoiceId() throws Exception {
         Field correlationBuilderField = SUT.getClass().getDeclaredField("correlationBuilder");
         correlationBuilderField.setAccessible(true);
@@ -0,0 +1,134 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.plc4x.java.ads.api.commands.*;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class AdsSumCommandsTest implements WithAssertions {
+
+    private final AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
+    private final AmsPort targetAmsPort = AmsPort.of(851);
+    private final AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
+    private final AmsPort sourceAmsPort = AmsPort.of(14);
+
+    @Nested
+    class AddDeviceNotifications {
+
+        @Test
+        void request() {
+            AdsAddDeviceNotificationRequest first = addDeviceNotificationRequest(0x4020, 0);
+            AdsAddDeviceNotificationRequest second = addDeviceNotificationRequest(0x4020, 4);
+
+            AdsReadWriteRequest sumRequest = AdsSumCommands.addDeviceNotifications(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Arrays.asList(first, second));
+
+            assertThat(sumRequest.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SUMUP_ADDDEVNOTE);
+            assertThat(sumRequest.getIndexOffset().getAsLong()).isEqualTo(2);
+            assertThat(sumRequest.getReadLength().getAsLong()).isEqualTo(16);
+            assertThat(sumRequest.getData().getBytes())
+                .hasSize(80)
+                .isEqualTo(ArrayUtils.addAll(first.getAdsData().getBytes(), second.getAdsData().getBytes()));
+        }
+
+        @Test
+        void splitResponse() {
+            ByteBuf data = Unpooled.buffer()
+                .writeIntLE(0).writeIntLE(7)
+                .writeIntLE(0x710).writeIntLE(0);
+            AdsReadWriteResponse sumResponse = AdsReadWriteResponse.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(1), Result.of(0), Data.of(data));
+
+            List<AdsAddDeviceNotificationResponse> responses = AdsSumCommands.splitAddDeviceNotifications(sumResponse, 2);
+
+            assertThat(responses).hasSize(2);
+            assertThat(responses.get(0).getResult().toAdsReturnCode()).isEqualTo(AdsReturnCode.ADS_CODE_0);
+            assertThat(responses.get(0).getNotificationHandle()).isEqualTo(NotificationHandle.of(7));
+            assertThat(responses.get(1).getResult().getAsLong()).isEqualTo(0x710);
+        }
+
+        @Test
+        void splitShortResponse() {
+            AdsReadWriteResponse sumResponse = AdsReadWriteResponse.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(1), Result.of(0), Data.of(new byte[8]));
+
+            assertThatThrownBy(() -> AdsSumCommands.splitAddDeviceNotifications(sumResponse, 2))
+                .isInstanceOf(PlcRuntimeException.class);
+        }
+
+        @Test
+        void tooManySubCommands() {
+            List<AdsAddDeviceNotificationRequest> requests = Collections.nCopies(AdsSumCommands.MAX_SUB_COMMANDS + 1, addDeviceNotificationRequest(0x4020, 0));
+
+            assertThatThrownBy(() -> AdsSumCommands.addDeviceNotifications(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, requests))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class DeleteDeviceNotifications {
+
+        @Test
+        void request() {
+            List<AdsDeleteDeviceNotificationRequest> requests = Arrays.asList(
+                AdsDeleteDeviceNotificationRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.NONE, NotificationHandle.of(1)),
+                AdsDeleteDeviceNotificationRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.NONE, NotificationHandle.of(2)));
+
+            AdsReadWriteRequest sumRequest = AdsSumCommands.deleteDeviceNotifications(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, requests);
+
+            assertThat(sumRequest.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SUMUP_DELDEVNOTE);
+            assertThat(sumRequest.getIndexOffset().getAsLong()).isEqualTo(2);
+            assertThat(sumRequest.getReadLength().getAsLong()).isEqualTo(8);
+            assertThat(sumRequest.getData().getBytes()).containsExactly(1, 0, 0, 0, 2, 0, 0, 0);
+        }
+
+        @Test
+        void splitResponse() {
+            AdsReadWriteResponse sumResponse = AdsReadWriteResponse.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(1), Result.of(0), Data.of(new byte[]{0, 0, 0, 0, 0x14, 0x07, 0, 0}));
+
+            List<AdsDeleteDeviceNotificationResponse> responses = AdsSumCommands.splitDeleteDeviceNotifications(sumResponse, 2);
+
+            assertThat(responses).extracting(response -> response.getResult().getAsLong()).containsExactly(0L, 0x714L);
+        }
+
+        @Test
+        void unsupported() {
+            assertThat(AdsSumCommands.isUnsupported(Result.of(0x701))).isTrue();
+            assertThat(AdsSumCommands.isUnsupported(Result.of(0x702))).isTrue();
+            assertThat(AdsSumCommands.isUnsupported(Result.of(0))).isFalse();
+        }
+    }
+
+    private AdsAddDeviceNotificationRequest addDeviceNotificationRequest(long indexGroup, long indexOffset) {
+        return AdsAddDeviceNotificationRequest.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.NONE,
+            IndexGroup.of(indexGroup), IndexOffset.of(indexOffset), Length.of(2), TransmissionMode.DefinedValues.ADSTRANS_SERVERONCHA,
+            MaxDelay.of(100), CycleTime.of(100));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol.util;
+
+import io.netty.buffer.Unpooled;
+import org.apache.plc4x.java.ads.api.commands.AdsAddDeviceNotificationRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadRequest;
+import org.apache.plc4x.java.ads.api.commands.AdsReadResponse;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.types.AmsNetId;
+import org.apache.plc4x.java.ads.api.generic.types.AmsPort;
+import org.apache.plc4x.java.ads.api.generic.types.Invoke;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+class AdsSymbolUploadTest implements WithAssertions {
+
+    private final AmsNetId targetAmsNetId = AmsNetId.of("1.2.3.4.5.6");
+    private final AmsPort targetAmsPort = AmsPort.of(851);
+    private final AmsNetId sourceAmsNetId = AmsNetId.of("8.9.10.11.12.13");
+    private final AmsPort sourceAmsPort = AmsPort.of(14);
+
+    @Test
+    void requests() {
+        AdsReadRequest version = AdsSymbolUpload.readSymbolVersion(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort);
+        assertThat(version.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SYM_VERSION);
+        assertThat(version.getLength().getAsLong()).isEqualTo(1);
+
+        AdsReadRequest uploadInfo = AdsSymbolUpload.readUploadInfo(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort);
+        assertThat(uploadInfo.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOADINFO2);
+        assertThat(uploadInfo.getLength().getAsLong()).isEqualTo(AdsSymbolUpload.UPLOAD_INFO_SIZE);
+
+        AdsReadRequest symbols = AdsSymbolUpload.readSymbols(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, new AdsSymbolUpload.UploadInfo(3, 1234));
+        assertThat(symbols.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SYM_UPLOAD);
+        assertThat(symbols.getLength().getAsLong()).isEqualTo(1234);
+
+        AdsAddDeviceNotificationRequest notification = AdsSymbolUpload.addSymbolVersionNotification(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort);
+        assertThat(notification.getIndexGroup()).isEqualTo(IndexGroup.ReservedGroups.ADSIGRP_SYM_VERSION);
+        assertThat(notification.getTransmissionMode()).isEqualTo(TransmissionMode.DefinedValues.ADSTRANS_SERVERONCHA);
+    }
+
+    @Test
+    void decodeResponses() {
+        assertThat(AdsSymbolUpload.decodeSymbolVersion(response(Result.of(0), new byte[]{(byte) 0xFE}))).isEqualTo(254);
+
+        AdsSymbolUpload.UploadInfo uploadInfo = AdsSymbolUpload.decodeUploadInfo(response(Result.of(0), Unpooled.buffer()
+            .writeIntLE(3).writeIntLE(1234)
+            .writeIntLE(10).writeIntLE(2000)
+            .writeIntLE(0).writeIntLE(0)
+            .array()));
+        assertThat(uploadInfo.getNumberOfSymbols()).isEqualTo(3);
+        assertThat(uploadInfo.getSymbolTableSize()).isEqualTo(1234);
+    }
+
+    @Test
+    void errors() {
+        assertThatThrownBy(() -> AdsSymbolUpload.decodeSymbolVersion(response(Result.of(0x710), new byte[1])))
+            .isInstanceOf(PlcRuntimeException.class)
+            .hasMessageStartingWith("Non error code received");
+        assertThatThrownBy(() -> AdsSymbolUpload.decodeUploadInfo(response(Result.of(0), new byte[8])))
+            .isInstanceOf(PlcRuntimeException.class)
+            .hasMessage("Expected at least 24 bytes but got 8");
+    }
+
+    private AdsReadResponse response(Result result, byte[] data) {
+        return AdsReadResponse.of(targetAmsNetId, targetAmsPort, sourceAmsNetId, sourceAmsPort, Invoke.of(1), result, Data.of(data));
+    }
+}
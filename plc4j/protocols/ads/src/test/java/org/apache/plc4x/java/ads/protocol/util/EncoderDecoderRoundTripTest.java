@@ -58,17 +58,7 @@ public class EncoderDecoderRoundTripTest implements WithAssertions {
         assertThat(bytes).hasSize(adsDataType.getTargetByteSize());
         BaseDefaultFieldItem baseDefaultFieldItem = LittleEndianDecoder.decodeData(adsDataType, bytes);
 
-        if (baseDefaultFieldItem instanceof DefaultBooleanFieldItem) {
-            assertThat(baseDefaultFieldItem.getBoolean(0)).isEqualTo(false);
-        } else if (baseDefaultFieldItem instanceof DefaultLocalTimeFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos((Long) min)));
-        } else if (baseDefaultFieldItem instanceof DefaultLocalDateFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalDate.ofEpochDay(TimeUnit.SECONDS.toDays((Long) min)));
-        } else if (baseDefaultFieldItem instanceof DefaultLocalDateTimeFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalDateTime.ofEpochSecond((Long) min, 0, ZoneOffset.UTC));
-        } else {
-            assertThat(baseDefaultFieldItem.getObject(0)).as("Min of %s using %s is equals %s\n%s", baseDefaultFieldItem, adsDataType, min, HexUtil.toHex(bytes)).isEqualTo(min);
-        }
+        assertDecoded(adsDataType, baseDefaultFieldItem, 0, min, false, bytes);
     }
 
     @ParameterizedTest
@@ -79,16 +69,34 @@ public class EncoderDecoderRoundTripTest implements WithAssertions {
         assertThat(bytes).hasSize(adsDataType.getTargetByteSize());
         BaseDefaultFieldItem baseDefaultFieldItem = LittleEndianDecoder.decodeData(adsDataType, bytes);
 
+        assertDecoded(adsDataType, baseDefaultFieldItem, 0, max, true, bytes);
+    }
+
+    @ParameterizedTest
+    @MethodSource("generateData")
+    public void testArray(AdsDataType adsDataType, Number min, Number max) throws Exception {
+        byte[] bytes = LittleEndianEncoder.encodeData(adsDataType, min, max, max, min);
+        assertThat(bytes).hasSize(4 * adsDataType.getTargetByteSize());
+        BaseDefaultFieldItem baseDefaultFieldItem = LittleEndianDecoder.decodeData(adsDataType, bytes);
+
+        assertThat(baseDefaultFieldItem.getNumberOfValues()).isEqualTo(4);
+        assertDecoded(adsDataType, baseDefaultFieldItem, 0, min, false, bytes);
+        assertDecoded(adsDataType, baseDefaultFieldItem, 1, max, true, bytes);
+        assertDecoded(adsDataType, baseDefaultFieldItem, 2, max, true, bytes);
+        assertDecoded(adsDataType, baseDefaultFieldItem, 3, min, false, bytes);
+    }
+
+    private void assertDecoded(AdsDataType adsDataType, BaseDefaultFieldItem baseDefaultFieldItem, int index, Number expected, boolean max, byte[] bytes) {
         if (baseDefaultFieldItem instanceof DefaultBooleanFieldItem) {
-            assertThat(baseDefaultFieldItem.getBoolean(0)).isEqualTo(true);
+            assertThat(baseDefaultFieldItem.getBoolean(index)).isEqualTo(max);
         } else if (baseDefaultFieldItem instanceof DefaultLocalTimeFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos((Long) max)));
+            assertThat(baseDefaultFieldItem.getObject(index)).isEqualTo(LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos((Long) expected)));
         } else if (baseDefaultFieldItem instanceof DefaultLocalDateFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalDate.ofEpochDay(TimeUnit.SECONDS.toDays((Long) max)));
+            assertThat(baseDefaultFieldItem.getObject(index)).isEqualTo(LocalDate.ofEpochDay(TimeUnit.SECONDS.toDays((Long) expected)));
         } else if (baseDefaultFieldItem instanceof DefaultLocalDateTimeFieldItem) {
-            assertThat(baseDefaultFieldItem.getObject(0)).isEqualTo(LocalDateTime.ofEpochSecond((Long) max, 0, ZoneOffset.UTC));
+            assertThat(baseDefaultFieldItem.getObject(index)).isEqualTo(LocalDateTime.ofEpochSecond((Long) expected, 0, ZoneOffset.UTC));
         } else {
-            assertThat(baseDefaultFieldItem.getObject(0)).as("Max of %s using %s is equals %s\n%s", baseDefaultFieldItem, adsDataType, max, HexUtil.toHex(bytes)).isEqualTo(max);
+            assertThat(baseDefaultFieldItem.getObject(index)).as("%s of %s using %s is equals %s\n%s", max ? "Max" : "Min", baseDefaultFieldItem, adsDataType, expected, HexUtil.toHex(bytes)).isEqualTo(expected);
         }
     }
 
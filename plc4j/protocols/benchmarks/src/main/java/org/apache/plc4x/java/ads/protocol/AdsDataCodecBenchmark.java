@@ -0,0 +1,99 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.ads.protocol;
+
+import org.apache.plc4x.java.ads.model.AdsDataType;
+import org.apache.plc4x.java.ads.protocol.util.LittleEndianDecoder;
+import org.apache.plc4x.java.ads.protocol.util.LittleEndianEncoder;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+public class AdsDataCodecBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MyState {
+        @Param({"1", "10000"})
+        int numberOfElements;
+
+        byte[] lrealData;
+        byte[] intData;
+        Double[] lrealValues;
+        Short[] intValues;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            ByteBuffer lreals = ByteBuffer.allocate(numberOfElements * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer ints = ByteBuffer.allocate(numberOfElements * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            lrealValues = new Double[numberOfElements];
+            intValues = new Short[numberOfElements];
+            for (int i = 0; i < numberOfElements; i++) {
+                lrealValues[i] = i / 3.0;
+                intValues[i] = (short) i;
+                lreals.putDouble(lrealValues[i]);
+                ints.putShort(intValues[i]);
+            }
+            lrealData = lreals.array();
+            intData = ints.array();
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object measureDecodingLreal(MyState myState) {
+        return LittleEndianDecoder.decodeData(AdsDataType.LREAL, myState.lrealData);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object measureDecodingInt(MyState myState) {
+        return LittleEndianDecoder.decodeData(AdsDataType.INT, myState.intData);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] measureEncodingLreal(MyState myState) throws PlcProtocolException {
+        return LittleEndianEncoder.encodeData(AdsDataType.LREAL, (Object[]) myState.lrealValues);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(3)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] measureEncodingInt(MyState myState) throws PlcProtocolException {
+        return LittleEndianEncoder.encodeData(AdsDataType.INT, (Object[]) myState.intValues);
+    }
+}
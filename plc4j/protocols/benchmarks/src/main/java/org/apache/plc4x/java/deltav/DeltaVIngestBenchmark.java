@@ -0,0 +1,162 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the DeltaV decoder and the sharded pipeline, either on synthetic traffic or on a recorded capture
+ * ({@code -p capture=/path/to/capture.pcapng}).
+ */
+public class DeltaVIngestBenchmark {
+
+    private static final int SYNTHETIC_FLOWS = 64;
+
+    private static final int SYNTHETIC_PACKETS = 20_000;
+
+    private static final int TESTPOINTS_PER_PACKET = 20;
+
+    @State(Scope.Benchmark)
+    public static class Traffic {
+        @Param("")
+        String capture;
+
+        List<DeltaVDatagram> datagrams;
+
+        @Setup(Level.Trial)
+        public void doSetup() throws Exception {
+            if (capture.isEmpty()) {
+                datagrams = synthesize();
+            } else {
+                datagrams = new ArrayList<>();
+                try (DeltaVCapture deltaVCapture = DeltaVCapture.openOffline(new File(capture))) {
+                    deltaVCapture.stream(datagrams::add);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Decoder {
+        DeltaVDecoder decoder;
+
+        int next;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            decoder = new DeltaVDecoder();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pipeline {
+        @Param({"1", "4"})
+        int shards;
+    }
+
+    /**
+     * Decodes one datagram per operation on a single thread, so the result is in packets per second.
+     */
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(3)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void measureDecoding(Traffic traffic, Decoder decoder, Blackhole blackhole) throws DeltaVDecodeException {
+        DeltaVDatagram datagram = traffic.datagrams.get(decoder.next);
+        decoder.next = (decoder.next + 1) % traffic.datagrams.size();
+        decoder.decoder.decode(datagram.getTimestampNanos(),
+            Unpooled.wrappedBuffer(datagram.getData(), datagram.getOffset(), datagram.getLength()), blackhole::consume);
+    }
+
+    /**
+     * Replays all datagrams through a new pipeline, including starting it and draining it.
+     */
+    @Benchmark
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long measurePipeline(Traffic traffic, Pipeline pipeline) throws InterruptedException {
+        LongAdder values = new LongAdder();
+        DeltaVPipeline deltaVPipeline = DeltaVPipeline.builder()
+            .shards(pipeline.shards)
+            .sink(batch -> values.add(batch.size()))
+            .build();
+        for (DeltaVDatagram datagram : traffic.datagrams) {
+            deltaVPipeline.submit(datagram);
+        }
+        deltaVPipeline.close();
+        return values.sum();
+    }
+
+    /**
+     * Packets of {@link #SYNTHETIC_FLOWS} controllers, each with {@link #TESTPOINTS_PER_PACKET} testpoints.
+     */
+    static List<DeltaVDatagram> synthesize() {
+        List<DeltaVDatagram> datagrams = new ArrayList<>(SYNTHETIC_PACKETS);
+        for (int i = 0; i < SYNTHETIC_PACKETS; i++) {
+            short sender = (short) (i % SYNTHETIC_FLOWS);
+            byte[] payload = valuesPacket(sender, i);
+            datagrams.add(new DeltaVDatagram(i * 1_000_000L, 0x0A0A4000 + sender, DeltaVDecoder.PORT, 0x0A0A40FF,
+                DeltaVDecoder.PORT, payload, 0, payload.length));
+        }
+        return datagrams;
+    }
+
+    private static byte[] valuesPacket(short sender, int sequence) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(DeltaVDecoder.MAGIC);
+        buf.writeShort(0x0100);
+        buf.writeShort(0x0002);
+        buf.writeShort(sequence);
+        buf.writeShort(sender);
+        buf.writeZero(6);
+        buf.writeShort(0x0403);
+        buf.writeZero(0x1A);
+        buf.writeBytes(new byte[]{0x01, 0x00, 0x00, 0x00, 0x00});
+        for (int testpoint = 0; testpoint < TESTPOINTS_PER_PACKET; testpoint++) {
+            if (testpoint > 0) {
+                buf.writeByte(0x01);
+            }
+            buf.writeInt(testpoint);
+            buf.writeInt(sender);
+            // Boolean, float, parameter and float, int and a skipped block
+            buf.writeBytes(new byte[]{0x02, 0x00, 0x00, 0x01, 0x01});
+            buf.writeBytes(new byte[]{0x02, 0x00, 0x01, 0x08}).writeFloat(sequence / 10.0f);
+            buf.writeBytes(new byte[]{0x02, 0x00, 0x02, 0x21, (byte) 0x80}).writeFloat(testpoint);
+            buf.writeBytes(new byte[]{0x02, 0x00, 0x03, 0x07}).writeInt(sequence);
+            buf.writeBytes(new byte[]{0x02, 0x00, 0x04, 0x63, 0x00, 0x7c, 0x0d, (byte) 0xa6, (byte) 0xd7});
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+
+}
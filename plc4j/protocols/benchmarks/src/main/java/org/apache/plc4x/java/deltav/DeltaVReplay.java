@@ -0,0 +1,63 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays recorded DeltaV captures through a {@link DeltaVPipeline} as fast as possible and reports the throughput.
+ * <p>
+ * Usage: {@code DeltaVReplay <shards> <capture>...}
+ */
+public class DeltaVReplay {
+
+    private DeltaVReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: DeltaVReplay <shards> <capture>...");
+            System.exit(1);
+        }
+        int shards = Integer.parseInt(args[0]);
+        LongAdder values = new LongAdder();
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(shards)
+            .sink(batch -> values.add(batch.size()))
+            .build();
+        long start = System.nanoTime();
+        long datagrams = 0;
+        for (int i = 1; i < args.length; i++) {
+            try (DeltaVCapture capture = DeltaVCapture.openOffline(new File(args[i]))) {
+                datagrams += capture.stream(pipeline::submit);
+            }
+        }
+        pipeline.close();
+        long elapsedNanos = System.nanoTime() - start;
+
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.println(String.format("Replayed %d datagrams with %d shards in %.3f s", datagrams, shards, seconds));
+        System.out.println(String.format("  %.0f packets/s, %.0f testpoint values/s",
+            pipeline.getPackets() / seconds, values.sum() / seconds));
+        System.out.println(String.format("  %d malformed packets", pipeline.getMalformedPackets()));
+    }
+
+}
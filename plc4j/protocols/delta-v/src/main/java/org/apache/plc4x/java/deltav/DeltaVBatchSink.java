@@ -0,0 +1,38 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import java.util.List;
+
+/**
+ * Receives the values decoded by a {@link DeltaVPipeline} in batches.
+ * <p>
+ * Every shard of the pipeline delivers its own batches, so implementations have to be thread-safe. Within a batch
+ * and across the batches of a shard the values of a flow are in capture order.
+ */
+@FunctionalInterface
+public interface DeltaVBatchSink {
+
+    /**
+     * @param batch the values, the list must not be kept after the call returns.
+     * @throws Exception if the batch couldn't be processed, the pipeline logs the error and drops the batch.
+     */
+    void accept(List<DeltaVTestpointValues> batch) throws Exception;
+
+}
@@ -0,0 +1,226 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import org.pcap4j.core.BpfProgram;
+import org.pcap4j.core.NotOpenException;
+import org.pcap4j.core.PcapHandle;
+import org.pcap4j.core.PcapNativeException;
+import org.pcap4j.core.PcapNetworkInterface;
+import org.pcap4j.core.Pcaps;
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import java.io.EOFException;
+import java.io.File;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Streams the DeltaV datagrams of a live network interface or an offline pcap/pcapng file.
+ * <p>
+ * Frames are read raw and only the Ethernet (optionally VLAN tagged), Linux cooked or raw IP, the IPv4 and the UDP
+ * headers are parsed, which is a lot cheaper than letting pcap4j dissect every packet. Fragmented IP datagrams are not
+ * reassembled and skipped.
+ */
+public class DeltaVCapture implements AutoCloseable {
+
+    public static final String FILTER = "udp port " + DeltaVDecoder.PORT;
+
+    static final int LINK_TYPE_ETHERNET = DataLinkType.EN10MB.value();
+
+    static final int LINK_TYPE_LINUX_SLL = DataLinkType.LINUX_SLL.value();
+
+    static final int LINK_TYPE_RAW = DataLinkType.RAW.value();
+
+    private static final int SNAPLEN = 65536;
+
+    private static final int READ_TIMEOUT_MILLIS = 10;
+
+    private static final int ETHER_TYPE_IPV4 = 0x0800;
+
+    private static final int ETHER_TYPE_VLAN = 0x8100;
+
+    private static final int ETHER_TYPE_QINQ = 0x88A8;
+
+    private static final int IP_PROTOCOL_UDP = 17;
+
+    private static final int UDP_HEADER_LENGTH = 8;
+
+    /**
+     * Receives the datagrams of a capture.
+     */
+    @FunctionalInterface
+    public interface DatagramHandler {
+        void handle(DeltaVDatagram datagram) throws InterruptedException;
+    }
+
+    private final PcapHandle handle;
+
+    private final int linkType;
+
+    private volatile boolean stopped;
+
+    private DeltaVCapture(PcapHandle handle) throws PcapNativeException, NotOpenException {
+        this.handle = handle;
+        this.linkType = handle.getDlt().value();
+        if (linkType != LINK_TYPE_ETHERNET && linkType != LINK_TYPE_LINUX_SLL && linkType != LINK_TYPE_RAW) {
+            handle.close();
+            throw new IllegalArgumentException("Unsupported link type " + handle.getDlt());
+        }
+        handle.setFilter(FILTER, BpfProgram.BpfCompileMode.OPTIMIZE);
+    }
+
+    /**
+     * Captures the DeltaV traffic of a network interface in promiscuous mode.
+     *
+     * @param interfaceName name of the interface, e.g. {@code eth0}.
+     */
+    public static DeltaVCapture openLive(String interfaceName) throws PcapNativeException, NotOpenException {
+        PcapNetworkInterface networkInterface = Pcaps.getDevByName(interfaceName);
+        if (networkInterface == null) {
+            throw new IllegalArgumentException("Couldn't find network interface " + interfaceName);
+        }
+        return new DeltaVCapture(networkInterface.openLive(
+            SNAPLEN, PcapNetworkInterface.PromiscuousMode.PROMISCUOUS, READ_TIMEOUT_MILLIS));
+    }
+
+    /**
+     * Reads the DeltaV traffic recorded in a pcap or pcapng file.
+     */
+    public static DeltaVCapture openOffline(File file) throws PcapNativeException, NotOpenException {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("Couldn't find capture file " + file);
+        }
+        return new DeltaVCapture(Pcaps.openOffline(file.getAbsolutePath(), PcapHandle.TimestampPrecision.NANO));
+    }
+
+    /**
+     * Passes all datagrams to the given handler until the end of the file is reached or {@link #stop()} is called.
+     * <p>
+     * Use {@code capture.stream(pipeline::submit)} to decode the datagrams in a {@link DeltaVPipeline}.
+     *
+     * @return the number of datagrams passed to the handler.
+     */
+    public long stream(DatagramHandler handler) throws PcapNativeException, NotOpenException, InterruptedException {
+        long datagrams = 0;
+        while (!stopped) {
+            byte[] frame;
+            try {
+                frame = handle.getNextRawPacketEx();
+            } catch (EOFException e) {
+                break;
+            } catch (TimeoutException e) {
+                // The read timeout of a live capture expired without any traffic.
+                continue;
+            }
+            DeltaVDatagram datagram = dissect(toNanos(handle.getTimestamp()), frame, linkType);
+            if (datagram != null) {
+                handler.handle(datagram);
+                datagrams++;
+            }
+        }
+        return datagrams;
+    }
+
+    /**
+     * Makes a running {@link #stream(DatagramHandler)} return after the current frame.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        handle.close();
+    }
+
+    /**
+     * Extracts the UDP payload of a captured frame.
+     *
+     * @return the datagram or {@code null} if the frame doesn't contain a complete, unfragmented IPv4 UDP datagram.
+     */
+    static DeltaVDatagram dissect(long timestampNanos, byte[] frame, int linkType) {
+        int offset;
+        int etherType;
+        if (linkType == LINK_TYPE_ETHERNET) {
+            offset = 12;
+            if (frame.length < offset + 2) {
+                return null;
+            }
+            etherType = readUnsignedShort(frame, offset);
+            offset += 2;
+            while ((etherType == ETHER_TYPE_VLAN || etherType == ETHER_TYPE_QINQ) && frame.length >= offset + 4) {
+                etherType = readUnsignedShort(frame, offset + 2);
+                offset += 4;
+            }
+        } else if (linkType == LINK_TYPE_LINUX_SLL) {
+            offset = 16;
+            if (frame.length < offset) {
+                return null;
+            }
+            etherType = readUnsignedShort(frame, 14);
+        } else if (linkType == LINK_TYPE_RAW) {
+            offset = 0;
+            etherType = ETHER_TYPE_IPV4;
+        } else {
+            return null;
+        }
+        if (etherType != ETHER_TYPE_IPV4 || frame.length < offset + 20 || (frame[offset] & 0xF0) != 0x40) {
+            return null;
+        }
+        int ipHeaderLength = (frame[offset] & 0x0F) * 4;
+        if (ipHeaderLength < 20) {
+            return null;
+        }
+        int ipEnd = Math.min(frame.length, offset + readUnsignedShort(frame, offset + 2));
+        // More fragments flag or fragment offset
+        boolean fragmented = (readUnsignedShort(frame, offset + 6) & 0x3FFF) != 0;
+        if (fragmented || (frame[offset + 9] & 0xFF) != IP_PROTOCOL_UDP) {
+            return null;
+        }
+        int udpOffset = offset + ipHeaderLength;
+        if (ipEnd < udpOffset + UDP_HEADER_LENGTH) {
+            return null;
+        }
+        int udpLength = readUnsignedShort(frame, udpOffset + 4);
+        if (udpLength < UDP_HEADER_LENGTH) {
+            return null;
+        }
+        int payloadOffset = udpOffset + UDP_HEADER_LENGTH;
+        int payloadEnd = Math.min(ipEnd, udpOffset + udpLength);
+        return new DeltaVDatagram(timestampNanos,
+            readInt(frame, offset + 12), readUnsignedShort(frame, udpOffset),
+            readInt(frame, offset + 16), readUnsignedShort(frame, udpOffset + 2),
+            frame, payloadOffset, payloadEnd - payloadOffset);
+    }
+
+    private static long toNanos(Timestamp timestamp) {
+        return Math.floorDiv(timestamp.getTime(), 1000L) * 1_000_000_000L + timestamp.getNanos();
+    }
+
+    private static int readUnsignedShort(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (readUnsignedShort(data, offset) << 16) | readUnsignedShort(data, offset + 2);
+    }
+
+}
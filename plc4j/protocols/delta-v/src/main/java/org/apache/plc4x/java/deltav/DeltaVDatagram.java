@@ -0,0 +1,134 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+/**
+ * A captured UDP datagram together with the flow (addresses and ports) it belongs to.
+ * <p>
+ * The payload is not copied, it is the given range of the captured frame, so the frame must not be modified
+ * after the datagram was created.
+ */
+public class DeltaVDatagram {
+
+    private final long timestampNanos;
+
+    private final int sourceAddress;
+
+    private final int sourcePort;
+
+    private final int destinationAddress;
+
+    private final int destinationPort;
+
+    private final byte[] data;
+
+    private final int offset;
+
+    private final int length;
+
+    public DeltaVDatagram(long timestampNanos, int sourceAddress, int sourcePort, int destinationAddress,
+                          int destinationPort, byte[] data, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("Payload range exceeds the data");
+        }
+        this.timestampNanos = timestampNanos;
+        this.sourceAddress = sourceAddress;
+        this.sourcePort = sourcePort;
+        this.destinationAddress = destinationAddress;
+        this.destinationPort = destinationPort;
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return capture time in nanoseconds since the epoch.
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * @return the IPv4 source address.
+     */
+    public int getSourceAddress() {
+        return sourceAddress;
+    }
+
+    public int getSourcePort() {
+        return sourcePort;
+    }
+
+    /**
+     * @return the IPv4 destination address.
+     */
+    public int getDestinationAddress() {
+        return destinationAddress;
+    }
+
+    public int getDestinationPort() {
+        return destinationPort;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return a hash of addresses and ports, equal for all datagrams of a flow in either direction. The names sent by
+     * the operator station and the values sent by the controller have to meet in the same decoder.
+     */
+    public int getFlowHash() {
+        long source = endpoint(sourceAddress, sourcePort);
+        long destination = endpoint(destinationAddress, destinationPort);
+        long lower = Math.min(source, destination);
+        long upper = Math.max(source, destination);
+        int hash = Long.hashCode(lower);
+        hash = 31 * hash + Long.hashCode(upper);
+        // Spread the bits, so a modulo by a small shard count still depends on all of them.
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long endpoint(int address, int port) {
+        return ((address & 0xFFFFFFFFL) << 16) | (port & 0xFFFF);
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaVDatagram{" +
+            "timestampNanos=" + timestampNanos +
+            ", source=" + formatAddress(sourceAddress) + ":" + sourcePort +
+            ", destination=" + formatAddress(destinationAddress) + ":" + destinationPort +
+            ", length=" + length +
+            '}';
+    }
+
+    private static String formatAddress(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+}
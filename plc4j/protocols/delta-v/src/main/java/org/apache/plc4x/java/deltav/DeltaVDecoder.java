@@ -0,0 +1,291 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Decodes the UDP payloads DeltaV controllers and operator stations exchange on port {@value #PORT}.
+ * <p>
+ * The decoder learns the names of testpoints and their fields from the packets it sees, so all packets of a flow
+ * have to pass the same decoder in the order they were captured. A decoder is not thread-safe, the
+ * {@link DeltaVPipeline} therefore keeps one decoder per shard.
+ * <p>
+ * The protocol is undocumented, the structures decoded here were reverse engineered from recorded traffic. Packet
+ * types which aren't understood yet are ignored.
+ */
+public class DeltaVDecoder {
+
+    public static final int PORT = 18507;
+
+    public static final short MAGIC = (short) 0xFACE;
+
+    public static final int HEADER_LENGTH = 16;
+
+    private static final short MESSAGE_TYPE_DATA = 0x0002;
+
+    private static final short PAYLOAD_TESTPOINT_VALUES = 0x0403;
+
+    private static final short PAYLOAD_FIELD_NAMES = 0x1B01;
+
+    private static final short PAYLOAD_DETAIL_VALUES = 0x1B02;
+
+    private static final short END_OF_FIELD_NAMES = (short) 0xFFFF;
+
+    private static final short TESTPOINT_NAME_FLAG = 9;
+
+    private final Map<Long, String> testpointNames = new HashMap<>();
+
+    private final Map<Long, Map<Short, String>> fieldNames = new HashMap<>();
+
+    /**
+     * Decodes a single UDP payload and passes the values of every testpoint it contains to the given consumer.
+     *
+     * @param timestampNanos capture time of the packet in nanoseconds since the epoch.
+     * @param buf            the UDP payload.
+     * @param consumer       receives the decoded values.
+     * @return the number of {@link DeltaVTestpointValues} passed to the consumer.
+     * @throws DeltaVDecodeException if the packet contains an unknown structure. Values decoded before the unknown
+     *                               structure have already been passed to the consumer.
+     */
+    public int decode(long timestampNanos, ByteBuf buf, Consumer<DeltaVTestpointValues> consumer) throws DeltaVDecodeException {
+        if (buf.readableBytes() < HEADER_LENGTH + 2 || buf.readShort() != MAGIC) {
+            return 0;
+        }
+        int packetLength = buf.readUnsignedShort();
+        short messageType = buf.readShort();
+        // Message id
+        buf.skipBytes(2);
+        short senderId = buf.readShort();
+        // Timestamp (3 bytes) followed by 0x800400 or 0x000400
+        buf.skipBytes(6);
+        // Responses don't have a length and don't carry any data.
+        if (packetLength == 0 || messageType != MESSAGE_TYPE_DATA) {
+            return 0;
+        }
+        short payloadType = buf.readShort();
+        switch (payloadType) {
+            case PAYLOAD_TESTPOINT_VALUES:
+            case PAYLOAD_DETAIL_VALUES:
+                return decodeValues(timestampNanos, senderId, payloadType == PAYLOAD_DETAIL_VALUES, buf, consumer);
+            case PAYLOAD_FIELD_NAMES:
+                decodeFieldNames(buf);
+                return 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return the name of the given testpoint or {@code null} if it hasn't been transmitted yet.
+     */
+    public String getTestpointName(long testpointId) {
+        return testpointNames.get(testpointId);
+    }
+
+    /**
+     * @return the names (addresses) of the fields of the given testpoint transmitted so far.
+     */
+    public Map<Short, String> getFieldNames(long testpointId) {
+        return fieldNames.getOrDefault(testpointId, Collections.emptyMap());
+    }
+
+    private int decodeValues(long timestampNanos, short senderId, boolean detail, ByteBuf buf,
+                             Consumer<DeltaVTestpointValues> consumer) throws DeltaVDecodeException {
+        // Detail packets (sent when opening a detail dialog) have a longer header.
+        buf.skipBytes(detail ? 0x76 : 0x1A);
+        buf.skipBytes(5);
+        long testpointId = readTestpointId(buf);
+        Map<Short, Object> values = null;
+        int emitted = 0;
+        // Every block is at least 4 bytes, anything shorter is padding.
+        while (buf.readableBytes() > 3) {
+            byte code = buf.readByte();
+            switch (code) {
+                // Start of the next testpoint.
+                case 0x01: {
+                    emitted += emit(timestampNanos, senderId, testpointId, values, consumer);
+                    values = null;
+                    if (detail) {
+                        buf.skipBytes(4);
+                    }
+                    if (buf.readableBytes() < 8) {
+                        return emitted;
+                    }
+                    testpointId = readTestpointId(buf);
+                    break;
+                }
+                // Field value
+                case 0x02: {
+                    short fieldId = buf.readShort();
+                    Object value = decodeValue(testpointId, fieldId, buf);
+                    if (value != null) {
+                        if (values == null) {
+                            values = new HashMap<>();
+                        }
+                        values.put(fieldId, value);
+                    }
+                    break;
+                }
+                // Field without value
+                case 0x03: {
+                    short fieldId = buf.readShort();
+                    byte type = buf.readByte();
+                    if (type != 0x00) {
+                        throw new DeltaVDecodeException(String.format("Unexpected type 0x%02x of field %d", type, fieldId));
+                    }
+                    buf.skipBytes(3);
+                    break;
+                }
+                default:
+                    throw new DeltaVDecodeException(String.format("Unexpected block code 0x%02x", code));
+            }
+        }
+        return emitted + emit(timestampNanos, senderId, testpointId, values, consumer);
+    }
+
+    /**
+     * Decodes the value of a field, values of unknown meaning are skipped.
+     *
+     * @return the value or {@code null} if it was skipped.
+     */
+    private Object decodeValue(long testpointId, short fieldId, ByteBuf buf) throws DeltaVDecodeException {
+        byte type = buf.readByte();
+        switch (type) {
+            case 0x01:
+                return buf.readByte() != 0x00;
+            case 0x03:
+                buf.skipBytes(2);
+                return null;
+            case 0x04:
+                buf.skipBytes(4);
+                return null;
+            case 0x05:
+                buf.skipBytes(1);
+                return null;
+            case 0x06:
+                return buf.readShort();
+            case 0x07:
+                return buf.readInt();
+            case 0x08:
+                return buf.readFloat();
+            case 0x21:
+                // Parameter
+                buf.skipBytes(1);
+                return buf.readFloat();
+            case 0x22:
+                // Parameter
+                buf.skipBytes(1);
+                return buf.readByte() != 0x00;
+            case 0x24:
+                // Three unsigned ints and a flag
+                buf.skipBytes(13);
+                return null;
+            case 0x25:
+                buf.skipBytes(6);
+                return null;
+            case 0x47: {
+                int numBytes = buf.readUnsignedShort() - 7;
+                short flag = buf.readShort();
+                if (numBytes < 0) {
+                    throw new DeltaVDecodeException("Invalid text length of field " + fieldId);
+                }
+                String text = buf.toString(buf.readerIndex(), numBytes, StandardCharsets.UTF_16);
+                // Text followed by a 0x0000 terminator
+                buf.skipBytes(numBytes + 2);
+                if (flag == TESTPOINT_NAME_FLAG) {
+                    testpointNames.put(testpointId, text);
+                }
+                return null;
+            }
+            case 0x48:
+            case 0x5B:
+                buf.skipBytes(2);
+                return null;
+            case 0x49:
+                // Parameter
+                buf.skipBytes(1);
+                return buf.readInt();
+            case 0x63:
+                buf.skipBytes(5);
+                return null;
+            case 0x75:
+                buf.skipBytes(21);
+                return null;
+            case 0x76: {
+                // The length includes the type and the length itself.
+                int blockLength = buf.readUnsignedShort() - 3;
+                if (blockLength < 0) {
+                    throw new DeltaVDecodeException("Invalid block length of field " + fieldId);
+                }
+                buf.skipBytes(blockLength);
+                return null;
+            }
+            case (byte) 0xF6:
+                buf.skipBytes(4);
+                return null;
+            default:
+                throw new DeltaVDecodeException(String.format("Unexpected type 0x%02x of field %d", type, fieldId));
+        }
+    }
+
+    private void decodeFieldNames(ByteBuf buf) {
+        buf.skipBytes(0x76);
+        while (buf.readableBytes() > 12) {
+            long testpointId = buf.readLong();
+            buf.skipBytes(4);
+            Map<Short, String> names = new HashMap<>(getFieldNames(testpointId));
+            for (short fieldId = buf.readShort(); fieldId != END_OF_FIELD_NAMES; fieldId = buf.readShort()) {
+                int numBytes = buf.readUnsignedShort() * 2;
+                String address = buf.toString(buf.readerIndex(), numBytes, StandardCharsets.UTF_16);
+                // Address followed by a 0x0000 terminator
+                buf.skipBytes(numBytes + 2);
+                names.put(fieldId, address);
+            }
+            // Published field name maps are shared with the decoded values, so they are never modified.
+            fieldNames.put(testpointId, Collections.unmodifiableMap(names));
+        }
+    }
+
+    private int emit(long timestampNanos, short senderId, long testpointId, Map<Short, Object> values,
+                     Consumer<DeltaVTestpointValues> consumer) {
+        if (values == null) {
+            return 0;
+        }
+        consumer.accept(new DeltaVTestpointValues(timestampNanos, senderId, testpointId,
+            testpointNames.get(testpointId), values, getFieldNames(testpointId)));
+        return 1;
+    }
+
+    /**
+     * Testpoint ids are transmitted as two 32 bit words, low word first.
+     */
+    private static long readTestpointId(ByteBuf buf) {
+        long low = buf.readUnsignedInt();
+        long high = buf.readUnsignedInt();
+        return (high << 32) | low;
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import org.influxdb.InfluxDB;
+import org.influxdb.dto.BatchPoints;
+import org.influxdb.dto.Point;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes every batch of a {@link DeltaVPipeline} to InfluxDB in a single request.
+ * <p>
+ * Each {@link DeltaVTestpointValues} becomes a point of the configured measurement, tagged with the testpoint and
+ * the sender. Fields are named by their address, if it has been transmitted, or by their id.
+ */
+public class DeltaVInfluxDbSink implements DeltaVBatchSink {
+
+    public static final String TESTPOINT_TAG = "testpoint";
+
+    public static final String SENDER_TAG = "sender";
+
+    private final InfluxDB influxDB;
+
+    private final String database;
+
+    private final String measurement;
+
+    public DeltaVInfluxDbSink(InfluxDB influxDB, String database, String measurement) {
+        this.influxDB = Objects.requireNonNull(influxDB);
+        this.database = Objects.requireNonNull(database);
+        this.measurement = Objects.requireNonNull(measurement);
+    }
+
+    @Override
+    public void accept(List<DeltaVTestpointValues> batch) {
+        BatchPoints batchPoints = BatchPoints.database(database).precision(TimeUnit.NANOSECONDS).build();
+        for (DeltaVTestpointValues values : batch) {
+            batchPoints.point(toPoint(values));
+        }
+        influxDB.write(batchPoints);
+    }
+
+    Point toPoint(DeltaVTestpointValues values) {
+        Point.Builder builder = Point.measurement(measurement)
+            .time(values.getTimestampNanos(), TimeUnit.NANOSECONDS)
+            .tag(TESTPOINT_TAG, values.getTestpointKey())
+            .tag(SENDER_TAG, Short.toString(values.getSenderId()));
+        for (Map.Entry<Short, Object> value : values.getValues().entrySet()) {
+            String fieldKey = values.getFieldKey(value.getKey());
+            if (value.getValue() instanceof Boolean) {
+                builder.addField(fieldKey, (boolean) value.getValue());
+            } else {
+                builder.addField(fieldKey, (Number) value.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+}
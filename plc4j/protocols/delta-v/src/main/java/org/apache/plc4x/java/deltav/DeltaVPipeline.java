@@ -0,0 +1,295 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Decodes captured DeltaV datagrams on several threads and passes the values to a {@link DeltaVBatchSink}.
+ * <p>
+ * Datagrams are sharded by flow: every shard owns a bounded queue, a decoder thread and a {@link DeltaVDecoder}, and
+ * all datagrams of a flow go to the same shard, whichever direction they travel in. This keeps the packets of a flow
+ * in capture order and lets the decoders learn testpoint and field names without any locking. If a queue is full
+ * {@link #submit(DeltaVDatagram)} blocks, so a fast source (e.g. an offline capture) is throttled to the speed of the
+ * decoders.
+ * <p>
+ * Each shard collects its values and hands them to the sink when {@link DeltaVPipelineBuilder#batchSize(int)} values
+ * are collected or the oldest value waited for {@link DeltaVPipelineBuilder#maxBatchDelay(Duration)}.
+ */
+public class DeltaVPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeltaVPipeline.class);
+
+    private static final DeltaVDatagram END_OF_STREAM = new DeltaVDatagram(0, 0, 0, 0, 0, new byte[0], 0, 0);
+
+    private final Shard[] shards;
+
+    private final DeltaVBatchSink sink;
+
+    private final LongAdder packets = new LongAdder();
+
+    private final LongAdder malformedPackets = new LongAdder();
+
+    private final LongAdder decodedValues = new LongAdder();
+
+    private final LongAdder failedBatches = new LongAdder();
+
+    private volatile boolean closed;
+
+    private DeltaVPipeline(int numberOfShards, int queueCapacity, int batchSize, Duration maxBatchDelay, DeltaVBatchSink sink) {
+        this.sink = sink;
+        this.shards = new Shard[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++) {
+            shards[i] = new Shard(i, queueCapacity, batchSize, maxBatchDelay.toNanos());
+        }
+        for (Shard shard : shards) {
+            shard.start();
+        }
+    }
+
+    public static DeltaVPipelineBuilder builder() {
+        return new DeltaVPipelineBuilder();
+    }
+
+    /**
+     * Queues a datagram on the shard of its flow, blocking while the queue is full.
+     * <p>
+     * This must not be called concurrently with {@link #close()}.
+     *
+     * @throws IllegalStateException if the pipeline is closed.
+     */
+    public void submit(DeltaVDatagram datagram) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Pipeline is closed");
+        }
+        shards[Math.floorMod(datagram.getFlowHash(), shards.length)].queue.put(datagram);
+    }
+
+    public int getNumberOfShards() {
+        return shards.length;
+    }
+
+    /**
+     * @return number of datagrams decoded so far.
+     */
+    public long getPackets() {
+        return packets.sum();
+    }
+
+    /**
+     * @return number of datagrams that couldn't be decoded completely.
+     */
+    public long getMalformedPackets() {
+        return malformedPackets.sum();
+    }
+
+    /**
+     * @return number of {@link DeltaVTestpointValues} decoded so far.
+     */
+    public long getDecodedValues() {
+        return decodedValues.sum();
+    }
+
+    /**
+     * @return number of batches the sink failed to process.
+     */
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Decodes all queued datagrams, flushes the last batches and stops the decoder threads.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Shard shard : shards) {
+            shard.queue.put(END_OF_STREAM);
+        }
+        for (Shard shard : shards) {
+            shard.join();
+        }
+    }
+
+    private class Shard extends Thread {
+
+        private final BlockingQueue<DeltaVDatagram> queue;
+
+        private final int batchSize;
+
+        private final long maxBatchDelayNanos;
+
+        private final DeltaVDecoder decoder = new DeltaVDecoder();
+
+        private final List<DeltaVTestpointValues> batch;
+
+        private final Consumer<DeltaVTestpointValues> collector = this::collect;
+
+        private long batchDeadline;
+
+        private Shard(int index, int queueCapacity, int batchSize, long maxBatchDelayNanos) {
+            super("deltav-decoder-" + index);
+            setDaemon(true);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.batchSize = batchSize;
+            this.maxBatchDelayNanos = maxBatchDelayNanos;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    DeltaVDatagram datagram = batch.isEmpty()
+                        ? queue.take()
+                        : queue.poll(batchDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (datagram == END_OF_STREAM) {
+                        flush();
+                        return;
+                    }
+                    if (datagram != null) {
+                        decode(datagram);
+                    }
+                    if (batch.size() >= batchSize || (!batch.isEmpty() && System.nanoTime() - batchDeadline >= 0)) {
+                        flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.warn("Decoder {} interrupted, dropping {} values", getName(), batch.size());
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void decode(DeltaVDatagram datagram) {
+            packets.increment();
+            try {
+                decoder.decode(datagram.getTimestampNanos(),
+                    Unpooled.wrappedBuffer(datagram.getData(), datagram.getOffset(), datagram.getLength()), collector);
+            } catch (DeltaVDecodeException | IndexOutOfBoundsException e) {
+                malformedPackets.increment();
+                LOGGER.debug("Couldn't decode {}", datagram, e);
+            }
+        }
+
+        private void collect(DeltaVTestpointValues values) {
+            if (batch.isEmpty()) {
+                batchDeadline = System.nanoTime() + maxBatchDelayNanos;
+            }
+            batch.add(values);
+            decodedValues.increment();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                sink.accept(batch);
+            } catch (Exception e) {
+                failedBatches.increment();
+                LOGGER.warn("Sink failed to process a batch of {} values", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    public static class DeltaVPipelineBuilder {
+        private int shards = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1024;
+        private int batchSize = 1000;
+        private Duration maxBatchDelay = Duration.ofSeconds(1);
+        private DeltaVBatchSink sink;
+
+        /**
+         * Number of decoder threads, defaults to the number of processors.
+         */
+        public DeltaVPipelineBuilder shards(int shards) {
+            if (shards < 1) {
+                throw new IllegalArgumentException("shards must be at least 1");
+            }
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Number of datagrams each shard queues before {@link DeltaVPipeline#submit(DeltaVDatagram)} blocks.
+         */
+        public DeltaVPipelineBuilder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity must be at least 1");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Maximum number of values passed to the sink at once.
+         */
+        public DeltaVPipelineBuilder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be at least 1");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time a decoded value waits for its batch to fill up.
+         */
+        public DeltaVPipelineBuilder maxBatchDelay(Duration maxBatchDelay) {
+            if (maxBatchDelay.isNegative()) {
+                throw new IllegalArgumentException("maxBatchDelay must not be negative");
+            }
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        public DeltaVPipelineBuilder sink(DeltaVBatchSink sink) {
+            this.sink = Objects.requireNonNull(sink);
+            return this;
+        }
+
+        /**
+         * Creates the pipeline and starts its decoder threads.
+         */
+        public DeltaVPipeline build() {
+            if (sink == null) {
+                throw new IllegalStateException("A sink is required");
+            }
+            return new DeltaVPipeline(shards, queueCapacity, batchSize, maxBatchDelay, sink);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The field values of one testpoint as decoded from a single DeltaV packet.
+ * <p>
+ * Instances are immutable. The field names are the ones the decoder had learned when the values were decoded, they
+ * are shared between all values of a testpoint and must not be modified.
+ */
+public class DeltaVTestpointValues {
+
+    private final long timestampNanos;
+
+    private final short senderId;
+
+    private final long testpointId;
+
+    private final String testpointName;
+
+    private final Map<Short, Object> values;
+
+    private final Map<Short, String> fieldNames;
+
+    DeltaVTestpointValues(long timestampNanos, short senderId, long testpointId, String testpointName,
+                          Map<Short, Object> values, Map<Short, String> fieldNames) {
+        this.timestampNanos = timestampNanos;
+        this.senderId = senderId;
+        this.testpointId = testpointId;
+        this.testpointName = testpointName;
+        this.values = Collections.unmodifiableMap(values);
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * @return capture time of the packet in nanoseconds since the epoch.
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public short getSenderId() {
+        return senderId;
+    }
+
+    public long getTestpointId() {
+        return testpointId;
+    }
+
+    /**
+     * @return the name of the testpoint or {@code null} if it hasn't been transmitted yet.
+     */
+    public String getTestpointName() {
+        return testpointName;
+    }
+
+    /**
+     * @return the name of the testpoint if known, its hex encoded id otherwise.
+     */
+    public String getTestpointKey() {
+        return (testpointName != null) ? testpointName : String.format("%016x", testpointId);
+    }
+
+    /**
+     * @return the decoded values by field id, either {@link Boolean}, {@link Short}, {@link Integer} or {@link Float}.
+     */
+    public Map<Short, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the name (address) of the given field or {@code null} if it hasn't been transmitted yet.
+     */
+    public String getFieldName(short fieldId) {
+        return fieldNames.get(fieldId);
+    }
+
+    /**
+     * @return the name of the given field if known, {@code field-<id>} otherwise.
+     */
+    public String getFieldKey(short fieldId) {
+        String fieldName = fieldNames.get(fieldId);
+        return (fieldName != null) ? fieldName : "field-" + fieldId;
+    }
+
+    @Override
+    public String toString() {
+        return "DeltaVTestpointValues{" +
+            "timestampNanos=" + timestampNanos +
+            ", senderId=" + senderId +
+            ", testpoint=" + getTestpointKey() +
+            ", values=" + values +
+            '}';
+    }
+
+}
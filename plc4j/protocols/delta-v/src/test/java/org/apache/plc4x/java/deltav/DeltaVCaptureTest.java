@@ -0,0 +1,116 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class DeltaVCaptureTest implements WithAssertions {
+
+    private static final int SOURCE = 0x0A0A4001;
+
+    private static final int DESTINATION = 0x0A0A40FF;
+
+    private final byte[] payload = {0x01, 0x02, 0x03, 0x04, 0x05};
+
+    @Test
+    void dissectsEthernetFrames() {
+        byte[] frame = DeltaVTestPackets.ethernetFrame(SOURCE, 18507, DESTINATION, 18507, payload);
+
+        DeltaVDatagram datagram = DeltaVCapture.dissect(42L, frame, DeltaVCapture.LINK_TYPE_ETHERNET);
+
+        assertThat(datagram).isNotNull();
+        assertThat(datagram.getTimestampNanos()).isEqualTo(42L);
+        assertThat(datagram.getSourceAddress()).isEqualTo(SOURCE);
+        assertThat(datagram.getSourcePort()).isEqualTo(18507);
+        assertThat(datagram.getDestinationAddress()).isEqualTo(DESTINATION);
+        assertThat(datagram.getDestinationPort()).isEqualTo(18507);
+        assertThat(datagram.getData()).isSameAs(frame);
+        assertThat(payloadOf(datagram)).containsExactly(payload);
+        assertThat(datagram.toString()).contains("source=10.10.64.1:18507", "destination=10.10.64.255:18507");
+    }
+
+    @Test
+    void dissectsVlanTaggedFrames() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeZero(12);
+        buf.writeShort(0x8100);
+        buf.writeShort(0x0064);
+        buf.writeShort(0x0800);
+        DeltaVTestPackets.writeIpAndUdp(buf, SOURCE, 1234, DESTINATION, 18507, payload);
+
+        DeltaVDatagram datagram = DeltaVCapture.dissect(0L, ByteBufUtil.getBytes(buf), DeltaVCapture.LINK_TYPE_ETHERNET);
+
+        assertThat(datagram).isNotNull();
+        assertThat(datagram.getSourcePort()).isEqualTo(1234);
+        assertThat(payloadOf(datagram)).containsExactly(payload);
+    }
+
+    @Test
+    void dissectsLinuxCookedAndRawFrames() {
+        ByteBuf cooked = Unpooled.buffer();
+        cooked.writeZero(14);
+        cooked.writeShort(0x0800);
+        DeltaVTestPackets.writeIpAndUdp(cooked, SOURCE, 18507, DESTINATION, 18507, payload);
+        ByteBuf raw = Unpooled.buffer();
+        DeltaVTestPackets.writeIpAndUdp(raw, SOURCE, 18507, DESTINATION, 18507, payload);
+
+        assertThat(payloadOf(DeltaVCapture.dissect(0L, ByteBufUtil.getBytes(cooked), DeltaVCapture.LINK_TYPE_LINUX_SLL)))
+            .containsExactly(payload);
+        assertThat(payloadOf(DeltaVCapture.dissect(0L, ByteBufUtil.getBytes(raw), DeltaVCapture.LINK_TYPE_RAW)))
+            .containsExactly(payload);
+    }
+
+    @Test
+    void ignoresEthernetPadding() {
+        byte[] frame = DeltaVTestPackets.ethernetFrame(SOURCE, 18507, DESTINATION, 18507, payload);
+        byte[] padded = Arrays.copyOf(frame, 60);
+
+        assertThat(payloadOf(DeltaVCapture.dissect(0L, padded, DeltaVCapture.LINK_TYPE_ETHERNET))).containsExactly(payload);
+    }
+
+    @Test
+    void skipsFramesWithoutCompleteUdpDatagram() {
+        byte[] frame = DeltaVTestPackets.ethernetFrame(SOURCE, 18507, DESTINATION, 18507, payload);
+        byte[] tcp = frame.clone();
+        tcp[14 + 9] = 6;
+        byte[] fragment = frame.clone();
+        // More fragments
+        fragment[14 + 6] = 0x20;
+        byte[] ipv6 = frame.clone();
+        ipv6[12] = (byte) 0x86;
+        ipv6[13] = (byte) 0xDD;
+
+        assertThat(DeltaVCapture.dissect(0L, tcp, DeltaVCapture.LINK_TYPE_ETHERNET)).isNull();
+        assertThat(DeltaVCapture.dissect(0L, fragment, DeltaVCapture.LINK_TYPE_ETHERNET)).isNull();
+        assertThat(DeltaVCapture.dissect(0L, ipv6, DeltaVCapture.LINK_TYPE_ETHERNET)).isNull();
+        assertThat(DeltaVCapture.dissect(0L, Arrays.copyOf(frame, 30), DeltaVCapture.LINK_TYPE_ETHERNET)).isNull();
+        assertThat(DeltaVCapture.dissect(0L, new byte[10], DeltaVCapture.LINK_TYPE_ETHERNET)).isNull();
+    }
+
+    private static byte[] payloadOf(DeltaVDatagram datagram) {
+        return Arrays.copyOfRange(datagram.getData(), datagram.getOffset(), datagram.getOffset() + datagram.getLength());
+    }
+
+}
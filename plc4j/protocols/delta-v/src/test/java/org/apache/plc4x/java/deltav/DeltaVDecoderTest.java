@@ -0,0 +1,158 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.booleanField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.field;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.fieldNamesPacket;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.floatField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.nextTestpoint;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.shortField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.textField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.valuesPacket;
+
+class DeltaVDecoderTest implements WithAssertions {
+
+    private static final long TESTPOINT_1 = 0x0000003201390490L;
+
+    private static final long TESTPOINT_2 = 0x00000048014F04A6L;
+
+    private final DeltaVDecoder decoder = new DeltaVDecoder();
+
+    private final List<DeltaVTestpointValues> decoded = new ArrayList<>();
+
+    @Test
+    void decodesValuesOfAllTestpoints() throws Exception {
+        byte[] packet = valuesPacket((short) 7, TESTPOINT_1,
+            booleanField(0, true),
+            shortField(1, (short) -2),
+            floatField(2, 42.5f),
+            // Parameter and float
+            field(3, 0x21, 0x80, 0x42, 0x49, 0x00, 0x00),
+            // Skipped value of unknown meaning
+            field(4, 0x24, 0x00, 0x0e, 0x43, 0x48, 0x00, 0x00, 0xc2, 0x20, 0x00, 0x00, 0x03, 0xe9, 0x01),
+            // Parameter and int
+            field(5, 0x49, 0x01, 0x00, 0x00, 0x01, 0x00),
+            nextTestpoint(TESTPOINT_2),
+            field(0, 0x07, 0x00, 0x00, 0x00, 0x2A));
+
+        assertThat(decode(123L, packet)).isEqualTo(2);
+
+        assertThat(decoded).hasSize(2);
+        DeltaVTestpointValues first = decoded.get(0);
+        assertThat(first.getTimestampNanos()).isEqualTo(123L);
+        assertThat(first.getSenderId()).isEqualTo((short) 7);
+        assertThat(first.getTestpointId()).isEqualTo(TESTPOINT_1);
+        assertThat(first.getTestpointName()).isNull();
+        assertThat(first.getTestpointKey()).isEqualTo("0000003201390490");
+        assertThat(first.getValues()).containsOnly(
+            entry((short) 0, true),
+            entry((short) 1, (short) -2),
+            entry((short) 2, 42.5f),
+            entry((short) 3, 50.25f),
+            entry((short) 5, 256));
+        DeltaVTestpointValues second = decoded.get(1);
+        assertThat(second.getTestpointId()).isEqualTo(TESTPOINT_2);
+        assertThat(second.getValues()).containsOnly(entry((short) 0, 42));
+    }
+
+    @Test
+    void learnsTestpointNames() throws Exception {
+        decode(0L, valuesPacket((short) 1, TESTPOINT_1,
+            booleanField(0, false),
+            // Only texts flagged with 9 are testpoint names.
+            textField(1, 2, "TI"),
+            textField(2, 9, "FIC-101")));
+
+        assertThat(decoded).hasSize(1);
+        assertThat(decoded.get(0).getTestpointName()).isEqualTo("FIC-101");
+        assertThat(decoder.getTestpointName(TESTPOINT_1)).isEqualTo("FIC-101");
+        assertThat(decoder.getTestpointName(TESTPOINT_2)).isNull();
+    }
+
+    @Test
+    void learnsFieldNames() throws Exception {
+        assertThat(decode(0L, fieldNamesPacket((short) 1, TESTPOINT_1,
+            Collections.singletonMap((short) 2, "FIC-101/PV.CV")))).isZero();
+        assertThat(decoder.getFieldNames(TESTPOINT_1)).containsOnly(entry((short) 2, "FIC-101/PV.CV"));
+
+        decode(0L, valuesPacket((short) 1, TESTPOINT_1, floatField(2, 1.0f), floatField(3, 2.0f)));
+
+        assertThat(decoded).hasSize(1);
+        assertThat(decoded.get(0).getFieldName((short) 2)).isEqualTo("FIC-101/PV.CV");
+        assertThat(decoded.get(0).getFieldKey((short) 2)).isEqualTo("FIC-101/PV.CV");
+        assertThat(decoded.get(0).getFieldName((short) 3)).isNull();
+        assertThat(decoded.get(0).getFieldKey((short) 3)).isEqualTo("field-3");
+    }
+
+    @Test
+    void skipsTestpointsWithoutValues() throws Exception {
+        decode(0L, valuesPacket((short) 1, TESTPOINT_1,
+            field(0, 0x05, 0x01),
+            nextTestpoint(TESTPOINT_2),
+            booleanField(0, true)));
+
+        assertThat(decoded).extracting(DeltaVTestpointValues::getTestpointId).containsExactly(TESTPOINT_2);
+    }
+
+    @Test
+    void ignoresOtherTraffic() throws Exception {
+        ByteBuf response = DeltaVTestPackets.header((short) 1, (short) 0x0403);
+        // A packet length of 0 marks responses.
+        response.setShort(2, 0);
+        ByteBuf otherMessage = DeltaVTestPackets.header((short) 1, (short) 0x0403);
+        otherMessage.setShort(4, 0x0001);
+        ByteBuf otherPayload = DeltaVTestPackets.header((short) 1, (short) 0x0201);
+        otherPayload.writeZero(32);
+
+        assertThat(decoder.decode(0L, response, decoded::add)).isZero();
+        assertThat(decoder.decode(0L, otherMessage, decoded::add)).isZero();
+        assertThat(decoder.decode(0L, otherPayload, decoded::add)).isZero();
+        assertThat(decode(0L, new byte[]{0x12, 0x34, 0x00, 0x10})).isZero();
+        assertThat(decoded).isEmpty();
+    }
+
+    @Test
+    void rejectsUnknownStructures() {
+        byte[] unknownType = valuesPacket((short) 1, TESTPOINT_1, booleanField(0, true), field(1, 0x99, 0x00));
+        byte[] unknownBlock = valuesPacket((short) 1, TESTPOINT_1, new byte[]{0x07, 0x00, 0x00, 0x00});
+
+        assertThatThrownBy(() -> decode(0L, unknownType))
+            .isInstanceOf(DeltaVDecodeException.class)
+            .hasMessageContaining("0x99");
+        assertThatThrownBy(() -> decode(0L, unknownBlock))
+            .isInstanceOf(DeltaVDecodeException.class)
+            .hasMessageContaining("0x07");
+        assertThat(decoded).isEmpty();
+    }
+
+    private int decode(long timestampNanos, byte[] packet) throws DeltaVDecodeException {
+        return decoder.decode(timestampNanos, Unpooled.wrappedBuffer(packet), decoded::add);
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import org.assertj.core.api.WithAssertions;
+import org.influxdb.InfluxDB;
+import org.influxdb.dto.BatchPoints;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DeltaVInfluxDbSinkTest implements WithAssertions {
+
+    @Test
+    void writesBatchInSingleRequest() {
+        InfluxDB influxDB = mock(InfluxDB.class);
+        DeltaVInfluxDbSink sink = new DeltaVInfluxDbSink(influxDB, "delta-v", "testpoints");
+        Map<Short, Object> values = new LinkedHashMap<>();
+        values.put((short) 1, true);
+        values.put((short) 2, 42.5f);
+
+        sink.accept(Arrays.asList(
+            new DeltaVTestpointValues(1_000_000_007L, (short) 3, 0x10L, "FIC-101", values,
+                Collections.singletonMap((short) 2, "PV")),
+            new DeltaVTestpointValues(2_000_000_000L, (short) 3, 0x20L, null, Collections.singletonMap((short) 0, 7),
+                Collections.emptyMap())));
+
+        ArgumentCaptor<BatchPoints> captor = ArgumentCaptor.forClass(BatchPoints.class);
+        verify(influxDB).write(captor.capture());
+        BatchPoints batchPoints = captor.getValue();
+        assertThat(batchPoints.getDatabase()).isEqualTo("delta-v");
+        assertThat(batchPoints.getPoints()).hasSize(2);
+        assertThat(batchPoints.getPoints().get(0).lineProtocol())
+            .isEqualTo("testpoints,sender=3,testpoint=FIC-101 PV=42.5,field-1=true 1000000007");
+        assertThat(batchPoints.getPoints().get(1).lineProtocol())
+            .isEqualTo("testpoints,sender=3,testpoint=0000000000000020 field-0=7i 2000000000");
+    }
+
+}
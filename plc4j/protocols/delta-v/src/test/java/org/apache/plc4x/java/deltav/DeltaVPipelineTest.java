@@ -0,0 +1,180 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.booleanField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.field;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.fieldNamesPacket;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.floatField;
+import static org.apache.plc4x.java.deltav.DeltaVTestPackets.valuesPacket;
+
+class DeltaVPipelineTest implements WithAssertions {
+
+    private final List<List<DeltaVTestpointValues>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void keepsCaptureOrderWithinFlows() throws Exception {
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(4)
+            .queueCapacity(8)
+            .batchSize(16)
+            .sink(batch -> batches.add(new ArrayList<>(batch)))
+            .build();
+        for (int timestamp = 0; timestamp < 1000; timestamp++) {
+            for (short sender = 1; sender <= 8; sender++) {
+                pipeline.submit(datagram(timestamp, sender));
+            }
+        }
+        pipeline.close();
+
+        assertThat(pipeline.getNumberOfShards()).isEqualTo(4);
+        assertThat(pipeline.getPackets()).isEqualTo(8000);
+        assertThat(pipeline.getDecodedValues()).isEqualTo(8000);
+        assertThat(pipeline.getMalformedPackets()).isZero();
+        Map<Short, List<Long>> timestampsBySender = new HashMap<>();
+        for (List<DeltaVTestpointValues> batch : batches) {
+            assertThat(batch.size()).isLessThanOrEqualTo(16);
+            for (DeltaVTestpointValues values : batch) {
+                timestampsBySender.computeIfAbsent(values.getSenderId(), sender -> new ArrayList<>())
+                    .add(values.getTimestampNanos());
+            }
+        }
+        assertThat(timestampsBySender).hasSize(8);
+        timestampsBySender.values().forEach(timestamps -> assertThat(timestamps).hasSize(1000).isSorted());
+    }
+
+    @Test
+    void namesAndValuesOfAFlowMeetInOneShard() throws Exception {
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(4)
+            .batchSize(16)
+            .sink(batch -> batches.add(new ArrayList<>(batch)))
+            .build();
+        int operatorStation = 0x0A0000FF;
+        for (short controller = 1; controller <= 8; controller++) {
+            // The operator station sends the names, the controller answers with the values.
+            byte[] names = fieldNamesPacket(controller, controller, Collections.singletonMap((short) 2, "FIC-10" + controller));
+            pipeline.submit(new DeltaVDatagram(0L, operatorStation, 18507, 0x0A000000 + controller, 18507,
+                names, 0, names.length));
+            byte[] values = valuesPacket(controller, controller, floatField(2, 1.0f));
+            pipeline.submit(new DeltaVDatagram(1L, 0x0A000000 + controller, 18507, operatorStation, 18507,
+                values, 0, values.length));
+        }
+        pipeline.close();
+
+        List<DeltaVTestpointValues> decoded = new ArrayList<>();
+        batches.forEach(decoded::addAll);
+        assertThat(decoded).hasSize(8);
+        assertThat(decoded).allSatisfy(values ->
+            assertThat(values.getFieldName((short) 2)).isEqualTo("FIC-10" + values.getSenderId()));
+    }
+
+    @Test
+    void flowHashIgnoresDirection() {
+        DeltaVDatagram request = new DeltaVDatagram(0L, 0x0A0000FF, 49152, 0x0A000001, 18507, new byte[0], 0, 0);
+        DeltaVDatagram response = new DeltaVDatagram(0L, 0x0A000001, 18507, 0x0A0000FF, 49152, new byte[0], 0, 0);
+        DeltaVDatagram other = new DeltaVDatagram(0L, 0x0A000002, 18507, 0x0A0000FF, 49152, new byte[0], 0, 0);
+
+        assertThat(request.getFlowHash()).isEqualTo(response.getFlowHash());
+        assertThat(request.getFlowHash()).isNotEqualTo(other.getFlowHash());
+    }
+
+    @Test
+    void flushesFullBatches() throws Exception {
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(1)
+            .batchSize(3)
+            .maxBatchDelay(Duration.ofHours(1))
+            .sink(batch -> batches.add(new ArrayList<>(batch)))
+            .build();
+        for (int timestamp = 0; timestamp < 7; timestamp++) {
+            pipeline.submit(datagram(timestamp, (short) 1));
+        }
+        pipeline.close();
+
+        assertThat(batches).extracting(List::size).containsExactly(3, 3, 1);
+    }
+
+    @Test
+    void flushesBatchesAfterMaxDelay() throws Exception {
+        CountDownLatch flushed = new CountDownLatch(1);
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(1)
+            .batchSize(1000)
+            .maxBatchDelay(Duration.ofMillis(20))
+            .sink(batch -> flushed.countDown())
+            .build();
+        try {
+            pipeline.submit(datagram(0, (short) 1));
+
+            assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void countsMalformedPacketsAndFailedBatches() throws Exception {
+        DeltaVPipeline pipeline = DeltaVPipeline.builder()
+            .shards(2)
+            .batchSize(1)
+            .sink(batch -> {
+                throw new IllegalStateException("Database down");
+            })
+            .build();
+        byte[] malformed = valuesPacket((short) 1, 1L, field(0, 0x99));
+        byte[] truncated = valuesPacket((short) 1, 1L, field(0, 0x07, 0x00));
+        pipeline.submit(new DeltaVDatagram(0L, 1, 18507, 2, 18507, malformed, 0, malformed.length));
+        pipeline.submit(new DeltaVDatagram(0L, 1, 18507, 2, 18507, truncated, 0, truncated.length));
+        pipeline.submit(datagram(0, (short) 1));
+        pipeline.close();
+
+        assertThat(pipeline.getPackets()).isEqualTo(3);
+        assertThat(pipeline.getMalformedPackets()).isEqualTo(2);
+        assertThat(pipeline.getFailedBatches()).isEqualTo(1);
+        assertThatThrownBy(() -> pipeline.submit(datagram(0, (short) 1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void requiresSink() {
+        assertThatThrownBy(() -> DeltaVPipeline.builder().build()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> DeltaVPipeline.builder().shards(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * A datagram of a flow per sender, carrying a single value.
+     */
+    private static DeltaVDatagram datagram(long timestamp, short sender) {
+        byte[] payload = valuesPacket(sender, 1L, booleanField(0, true));
+        return new DeltaVDatagram(timestamp, 0x0A000000 + sender, 18507, 0x0A0000FF, 18507, payload, 0, payload.length);
+    }
+
+}
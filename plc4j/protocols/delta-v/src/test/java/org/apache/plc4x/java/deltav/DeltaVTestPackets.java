@@ -0,0 +1,164 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.deltav;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Builds synthetic DeltaV payloads and frames.
+ */
+final class DeltaVTestPackets {
+
+    private DeltaVTestPackets() {
+    }
+
+    /**
+     * A 0x0403 packet, every testpoint is followed by its blocks.
+     */
+    static byte[] valuesPacket(short senderId, long testpointId, byte[]... blocks) {
+        ByteBuf buf = header(senderId, (short) 0x0403);
+        buf.writeZero(0x1A);
+        buf.writeBytes(new byte[]{0x01, 0x00, 0x00, 0x00, 0x00});
+        writeTestpointId(buf, testpointId);
+        for (byte[] block : blocks) {
+            buf.writeBytes(block);
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    /**
+     * A 0x1B01 packet with the field names of a single testpoint.
+     */
+    static byte[] fieldNamesPacket(short senderId, long testpointId, Map<Short, String> names) {
+        ByteBuf buf = header(senderId, (short) 0x1B01);
+        buf.writeZero(0x76);
+        buf.writeLong(testpointId);
+        buf.writeZero(4);
+        names.forEach((fieldId, name) -> {
+            buf.writeShort(fieldId);
+            buf.writeShort(name.length());
+            buf.writeBytes(name.getBytes(StandardCharsets.UTF_16BE));
+            buf.writeZero(2);
+        });
+        buf.writeShort(0xFFFF);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    static ByteBuf header(short senderId, short payloadType) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(0xFACE);
+        // Packet length, the decoder only checks that it isn't 0.
+        buf.writeShort(0x0100);
+        buf.writeShort(0x0002);
+        buf.writeShort(0x0001);
+        buf.writeShort(senderId);
+        buf.writeZero(6);
+        buf.writeShort(payloadType);
+        return buf;
+    }
+
+    static byte[] nextTestpoint(long testpointId) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0x01);
+        writeTestpointId(buf, testpointId);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    static byte[] booleanField(int fieldId, boolean value) {
+        return field(fieldId, 0x01, value ? 0x01 : 0x00);
+    }
+
+    static byte[] shortField(int fieldId, short value) {
+        return field(fieldId, 0x06, value >> 8, value);
+    }
+
+    static byte[] floatField(int fieldId, float value) {
+        int bits = Float.floatToIntBits(value);
+        return field(fieldId, 0x08, bits >> 24, bits >> 16, bits >> 8, bits);
+    }
+
+    static byte[] textField(int fieldId, int flag, String text) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0x02);
+        buf.writeShort(fieldId);
+        buf.writeByte(0x47);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_16BE);
+        buf.writeShort(bytes.length + 7);
+        buf.writeShort(flag);
+        buf.writeBytes(bytes);
+        buf.writeZero(2);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    /**
+     * A field of type 0x02 followed by the given bytes.
+     */
+    static byte[] field(int fieldId, int type, int... bytes) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0x02);
+        buf.writeShort(fieldId);
+        buf.writeByte(type);
+        for (int b : bytes) {
+            buf.writeByte(b);
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    /**
+     * Wraps a payload in an Ethernet, IPv4 and UDP header.
+     */
+    static byte[] ethernetFrame(int sourceAddress, int sourcePort, int destinationAddress, int destinationPort, byte[] payload) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeZero(12);
+        buf.writeShort(0x0800);
+        writeIpAndUdp(buf, sourceAddress, sourcePort, destinationAddress, destinationPort, payload);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    static void writeIpAndUdp(ByteBuf buf, int sourceAddress, int sourcePort, int destinationAddress,
+                              int destinationPort, byte[] payload) {
+        buf.writeByte(0x45);
+        buf.writeByte(0x00);
+        buf.writeShort(20 + 8 + payload.length);
+        buf.writeShort(0x0000);
+        // Don't fragment
+        buf.writeShort(0x4000);
+        buf.writeByte(64);
+        buf.writeByte(17);
+        buf.writeShort(0x0000);
+        buf.writeInt(sourceAddress);
+        buf.writeInt(destinationAddress);
+        buf.writeShort(sourcePort);
+        buf.writeShort(destinationPort);
+        buf.writeShort(8 + payload.length);
+        buf.writeShort(0x0000);
+        buf.writeBytes(payload);
+    }
+
+    private static void writeTestpointId(ByteBuf buf, long testpointId) {
+        buf.writeInt((int) testpointId);
+        buf.writeInt((int) (testpointId >>> 32));
+    }
+
+}
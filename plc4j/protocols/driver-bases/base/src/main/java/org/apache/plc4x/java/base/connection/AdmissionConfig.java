@@ -0,0 +1,155 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.connection;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits for the requests a {@link NettyPlcConnection} accepts, see {@link AdmissionControl}.
+ * <p>
+ * A config is immutable and can be shared between connections.
+ */
+public class AdmissionConfig {
+
+    /**
+     * What to do with a request if the maximum of requests in flight is reached.
+     */
+    public enum WhenFull {
+        /**
+         * Reject the request right away.
+         */
+        FAIL_FAST,
+        /**
+         * Block the calling thread until the request can be sent or the block timeout is reached.
+         */
+        BLOCK,
+        /**
+         * Queue the request and send it as soon as a request in flight completes.
+         */
+        ASYNC
+    }
+
+    private static final AdmissionConfig UNBOUNDED = new AdmissionConfig(Integer.MAX_VALUE, 0, WhenFull.FAIL_FAST, Duration.ZERO);
+
+    private final int maxInFlight;
+
+    private final int maxQueued;
+
+    private final WhenFull whenFull;
+
+    private final Duration blockTimeout;
+
+    private AdmissionConfig(int maxInFlight, int maxQueued, WhenFull whenFull, Duration blockTimeout) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.whenFull = whenFull;
+        this.blockTimeout = blockTimeout;
+    }
+
+    /**
+     * @return a config that admits every request, which is the default of all connections.
+     */
+    public static AdmissionConfig unbounded() {
+        return UNBOUNDED;
+    }
+
+    public static AdmissionConfigBuilder builder() {
+        return new AdmissionConfigBuilder();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public WhenFull getWhenFull() {
+        return whenFull;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    public boolean isBounded() {
+        return maxInFlight != Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionConfig{" +
+            "maxInFlight=" + maxInFlight +
+            ", maxQueued=" + maxQueued +
+            ", whenFull=" + whenFull +
+            ", blockTimeout=" + blockTimeout +
+            '}';
+    }
+
+    public static class AdmissionConfigBuilder {
+        private int maxInFlight = 64;
+        private int maxQueued = 1024;
+        private WhenFull whenFull = WhenFull.ASYNC;
+        private Duration blockTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of requests sent to the channel but not yet answered.
+         */
+        public AdmissionConfigBuilder maxInFlight(int maxInFlight) {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("maxInFlight must be at least 1");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Maximum number of requests waiting for admission, either queued or blocked.
+         */
+        public AdmissionConfigBuilder maxQueued(int maxQueued) {
+            if (maxQueued < 0) {
+                throw new IllegalArgumentException("maxQueued must not be negative");
+            }
+            this.maxQueued = maxQueued;
+            return this;
+        }
+
+        public AdmissionConfigBuilder failFast() {
+            this.whenFull = WhenFull.FAIL_FAST;
+            return this;
+        }
+
+        public AdmissionConfigBuilder block(Duration blockTimeout) {
+            this.whenFull = WhenFull.BLOCK;
+            this.blockTimeout = Objects.requireNonNull(blockTimeout);
+            return this;
+        }
+
+        public AdmissionConfigBuilder async() {
+            this.whenFull = WhenFull.ASYNC;
+            return this;
+        }
+
+        public AdmissionConfig build() {
+            return new AdmissionConfig(maxInFlight, maxQueued, whenFull, blockTimeout);
+        }
+    }
+}
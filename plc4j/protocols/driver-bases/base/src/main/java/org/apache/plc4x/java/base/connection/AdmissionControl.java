@@ -0,0 +1,234 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.connection;
+
+import io.netty.channel.Channel;
+import org.apache.plc4x.java.api.exceptions.PlcOverloadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of requests a connection has in flight, so producers outpacing the PLC get back-pressure instead
+ * of growing the pending write queues of the pipeline until everything times out.
+ * <p>
+ * A request is in flight from being written to the channel until its response future completes. A channel that is
+ * not writable counts as full as long as anything is in flight, so requests pile up here instead of in the outbound
+ * buffer. What happens to a request that doesn't fit is defined by {@link AdmissionConfig.WhenFull}; blocking is
+ * never done on the event loop, such requests are rejected instead.
+ */
+public class AdmissionControl {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final AdmissionConfig config;
+
+    private final Channel channel;
+
+    // Guarded by this.
+    private final Deque<Pending> queued = new ArrayDeque<>();
+
+    // Guarded by this.
+    private int inFlight;
+
+    // Guarded by this.
+    private int blocked;
+
+    // Guarded by this.
+    private long rejected;
+
+    public AdmissionControl(AdmissionConfig config, Channel channel) {
+        this.config = config;
+        this.channel = channel;
+    }
+
+    /**
+     * Sends a request as soon as there is capacity for it.
+     *
+     * @param responseFuture completed with the response, frees the slot of the request. Completed exceptionally with
+     *                       a {@link PlcOverloadException} if the request gets rejected.
+     * @param send           writes the request to the channel.
+     */
+    public void submit(CompletableFuture<?> responseFuture, Runnable send) {
+        if (!config.isBounded()) {
+            send.run();
+            return;
+        }
+        boolean admitted;
+        synchronized (this) {
+            admitted = tryAcquire();
+            if (!admitted) {
+                if (config.getWhenFull() == AdmissionConfig.WhenFull.ASYNC && queued.size() < config.getMaxQueued()) {
+                    queued.add(new Pending(responseFuture, send));
+                    return;
+                }
+                if (config.getWhenFull() == AdmissionConfig.WhenFull.BLOCK && blocked < config.getMaxQueued()
+                    && !channel.eventLoop().inEventLoop()) {
+                    admitted = awaitCapacity();
+                }
+            }
+            if (!admitted) {
+                rejected++;
+            }
+        }
+        if (!admitted) {
+            LOGGER.debug("Rejecting request, {} in flight", config.getMaxInFlight());
+            responseFuture.completeExceptionally(new PlcOverloadException(config.getMaxInFlight(), config.getMaxQueued()));
+            return;
+        }
+        dispatch(responseFuture, send);
+    }
+
+    /**
+     * Sends queued requests, to be called once the channel became writable again.
+     */
+    public void channelWritable() {
+        dispatchAll(drain());
+    }
+
+    /**
+     * Fails all queued requests, to be called once the channel is closed.
+     */
+    public void failQueued(Throwable cause) {
+        List<Pending> failed;
+        synchronized (this) {
+            failed = new ArrayList<>(queued);
+            queued.clear();
+            notifyAll();
+        }
+        failed.forEach(pending -> pending.responseFuture.completeExceptionally(cause));
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return number of requests waiting for admission, either queued or blocked.
+     */
+    public synchronized int getQueued() {
+        return queued.size() + blocked;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public AdmissionConfig getConfig() {
+        return config;
+    }
+
+    // Must be called while holding the lock.
+    private boolean tryAcquire() {
+        if (inFlight >= config.getMaxInFlight() || (inFlight > 0 && !channel.isWritable())) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // Must be called while holding the lock.
+    private boolean awaitCapacity() {
+        long deadline = System.nanoTime() + config.getBlockTimeout().toNanos();
+        blocked++;
+        try {
+            while (!tryAcquire()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            blocked--;
+        }
+    }
+
+    private void dispatch(CompletableFuture<?> responseFuture, Runnable send) {
+        responseFuture.whenComplete((response, throwable) -> release());
+        try {
+            send.run();
+        } catch (RuntimeException e) {
+            responseFuture.completeExceptionally(e);
+        }
+    }
+
+    private void dispatchAll(List<Pending> ready) {
+        ready.forEach(pending -> dispatch(pending.responseFuture, pending.send));
+    }
+
+    private void release() {
+        List<Pending> ready;
+        synchronized (this) {
+            inFlight--;
+            ready = drainLocked();
+            notifyAll();
+        }
+        dispatchAll(ready);
+    }
+
+    private synchronized List<Pending> drain() {
+        notifyAll();
+        return drainLocked();
+    }
+
+    // Must be called while holding the lock.
+    private List<Pending> drainLocked() {
+        if (queued.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pending> ready = new ArrayList<>();
+        while (!queued.isEmpty()) {
+            Pending pending = queued.peek();
+            if (pending.responseFuture.isDone()) {
+                // Cancelled or timed out while waiting, nothing to send.
+                queued.poll();
+                continue;
+            }
+            if (!tryAcquire()) {
+                break;
+            }
+            ready.add(queued.poll());
+        }
+        return ready;
+    }
+
+    private static class Pending {
+
+        private final CompletableFuture<?> responseFuture;
+
+        private final Runnable send;
+
+        private Pending(CompletableFuture<?> responseFuture, Runnable send) {
+            this.responseFuture = responseFuture;
+            this.send = send;
+        }
+    }
+}
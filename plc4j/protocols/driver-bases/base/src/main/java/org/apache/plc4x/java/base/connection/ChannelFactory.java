@@ -22,9 +22,21 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 
+import java.util.Optional;
+
 public interface ChannelFactory {
 
     Channel createChannel(ChannelHandler channelHandler)
         throws PlcConnectionException;
 
+    /**
+     * Looks through factories that wrap another one, e.g. to capture the traffic, so a connection can still get at
+     * the address of the factory it was created with.
+     *
+     * @return this factory if it is of the given type, otherwise the wrapped factory of that type if there is one.
+     */
+    default <T extends ChannelFactory> Optional<T> unwrap(Class<T> type) {
+        return type.isInstance(this) ? Optional.of(type.cast(this)) : Optional.empty();
+    }
+
 }
@@ -20,21 +20,29 @@ package org.apache.plc4x.java.base.connection;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
-import io.netty.util.HashedWheelTimer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.util.Timer;
 import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.apache.plc4x.java.api.exceptions.PlcIoException;
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public abstract class NettyPlcConnection extends AbstractPlcConnection {
 
     /**
-     * a {@link HashedWheelTimer} shall be only instantiated once.
+     * The timer wheel shared by all connections, see {@link RequestTimer} for tuning it.
      */
-    // TODO: maybe find a way to make this configurable per jvm
-    protected final static Timer timer = new HashedWheelTimer();
+    protected final static Timer timer = RequestTimer.getTimer();
+
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
 
     protected final ChannelFactory channelFactory;
 
@@ -44,6 +52,12 @@ public abstract class NettyPlcConnection extends AbstractPlcConnection {
 
     protected boolean connected;
 
+    protected AdmissionConfig admissionConfig = AdmissionConfig.unbounded();
+
+    protected AdmissionControl admissionControl;
+
+    protected Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+
     protected NettyPlcConnection(ChannelFactory channelFactory) {
         this(channelFactory, false);
     }
@@ -64,18 +78,36 @@ public abstract class NettyPlcConnection extends AbstractPlcConnection {
 
             // Have the channel factory create a new channel instance.
             channel = channelFactory.createChannel(getChannelHandler(sessionSetupCompleteFuture));
+            AdmissionControl channelAdmissionControl = new AdmissionControl(admissionConfig, channel);
+            admissionControl = channelAdmissionControl;
+            if (admissionConfig.isBounded()) {
+                channel.pipeline().addFirst(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+                        if (ctx.channel().isWritable()) {
+                            channelAdmissionControl.channelWritable();
+                        }
+                        super.channelWritabilityChanged(ctx);
+                    }
+                });
+            }
             channel.closeFuture().addListener(future -> {
                 if (!sessionSetupCompleteFuture.isDone()) {
                     sessionSetupCompleteFuture.completeExceptionally(
                         new PlcIoException("Connection terminated by remote"));
                 }
+                channelAdmissionControl.failQueued(new PlcIoException("Connection closed"));
             });
             // Send an event to the pipeline telling the Protocol filters what's going on.
             sendChannelCreatedEvent();
 
-            // Wait till the connection is established.
+            // Wait till the connection is established, a remote not answering must not block the caller forever.
             if (awaitSessionSetupComplete) {
-                sessionSetupCompleteFuture.get();
+                if (requestTimeout != null && !requestTimeout.isZero()) {
+                    sessionSetupCompleteFuture.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } else {
+                    sessionSetupCompleteFuture.get();
+                }
             }
 
             // Set the connection to "connected"
@@ -85,6 +117,9 @@ public abstract class NettyPlcConnection extends AbstractPlcConnection {
             throw new PlcConnectionException(e);
         } catch (ExecutionException e) {
             throw new PlcConnectionException(e);
+        } catch (TimeoutException e) {
+            channel.close();
+            throw new PlcConnectionException("Session setup not completed within " + requestTimeout, e);
         }
     }
 
@@ -103,6 +138,60 @@ public abstract class NettyPlcConnection extends AbstractPlcConnection {
         return channel;
     }
 
+    /**
+     * Sets the limits for requests sent via {@link #sendRequest(PlcRequestContainer)}, takes effect on the next
+     * {@link #connect()}. By default all requests are admitted.
+     */
+    public void setAdmissionConfig(AdmissionConfig admissionConfig) {
+        this.admissionConfig = admissionConfig != null ? admissionConfig : AdmissionConfig.unbounded();
+    }
+
+    public AdmissionConfig getAdmissionConfig() {
+        return admissionConfig;
+    }
+
+    /**
+     * @return the admission control of the current channel or {@code null} if not connected yet.
+     */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * Sets the deadline applied to requests sent via {@link #sendRequest(PlcRequestContainer)} that don't carry one
+     * yet, it also bounds the wait for the session setup in {@link #connect()}. {@code null} or a zero duration
+     * disables it.
+     */
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Writes the given container to the channel, subject to the admission control of this connection. Failures to
+     * write or to admit the request complete the response future of the container exceptionally, so does missing
+     * its deadline, be it while queued for admission or while waiting for the response.
+     */
+    protected <T extends InternalPlcRequest, R extends InternalPlcResponse> void sendRequest(PlcRequestContainer<T, R> request) {
+        boolean applyTimeout = !request.hasDeadline() && requestTimeout != null && !requestTimeout.isZero();
+        PlcRequestContainer<T, R> container = applyTimeout ? request.withTimeout(requestTimeout) : request;
+        RequestTimer.schedule(container);
+        CompletableFuture<R> responseFuture = container.getResponseFuture();
+        Runnable send = () -> channel.writeAndFlush(container).addListener(future -> {
+            if (!future.isSuccess()) {
+                responseFuture.completeExceptionally(future.cause());
+            }
+        });
+        if (admissionControl == null) {
+            send.run();
+        } else {
+            admissionControl.submit(responseFuture, send);
+        }
+    }
+
     protected abstract ChannelHandler getChannelHandler(CompletableFuture<Void> sessionSetupCompleteFuture);
 
     protected void sendChannelCreatedEvent() {
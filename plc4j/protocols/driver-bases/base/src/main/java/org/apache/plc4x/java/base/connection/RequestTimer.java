@@ -0,0 +1,86 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.connection;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.plc4x.java.api.exceptions.PlcTimeoutException;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single timer wheel shared by all connections of a jvm, used for request deadlines and protocol timeouts.
+ * <p>
+ * The wheel can be tuned with the system properties {@value #TICK_DURATION_PROPERTY} (milliseconds, default
+ * {@value #DEFAULT_TICK_DURATION}) and {@value #TICKS_PER_WHEEL_PROPERTY} (default {@value #DEFAULT_TICKS_PER_WHEEL}).
+ * Timeouts fire with a precision of one tick, a tick of 100ms is plenty for request deadlines of seconds.
+ */
+public final class RequestTimer {
+
+    public static final String TICK_DURATION_PROPERTY = "org.apache.plc4x.timer.tickDuration";
+
+    public static final String TICKS_PER_WHEEL_PROPERTY = "org.apache.plc4x.timer.ticksPerWheel";
+
+    static final long DEFAULT_TICK_DURATION = 100;
+
+    static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final Timer TIMER = new HashedWheelTimer(
+        new DefaultThreadFactory("plc4x-timer", true),
+        Long.getLong(TICK_DURATION_PROPERTY, DEFAULT_TICK_DURATION), TimeUnit.MILLISECONDS,
+        Integer.getInteger(TICKS_PER_WHEEL_PROPERTY, DEFAULT_TICKS_PER_WHEEL));
+
+    private RequestTimer() {
+        // Utility class
+    }
+
+    public static Timer getTimer() {
+        return TIMER;
+    }
+
+    /**
+     * Completes the response future of the given container with a {@link PlcTimeoutException} once its deadline
+     * passed. The timeout is cancelled as soon as the future completes, so the wheel only holds requests in flight.
+     * Protocols clean up their correlation state by reacting to the exceptional completion.
+     *
+     * @return the scheduled timeout or {@code null} if the container has no deadline or is already done.
+     */
+    public static Timeout schedule(PlcRequestContainer<?, ?> container) {
+        CompletableFuture<?> responseFuture = container.getResponseFuture();
+        if (!container.hasDeadline() || responseFuture.isDone()) {
+            return null;
+        }
+        long remaining = container.getRemainingNanos();
+        if (remaining <= 0) {
+            responseFuture.completeExceptionally(new PlcTimeoutException(0));
+            return null;
+        }
+        long scheduledAt = System.nanoTime();
+        Timeout timeout = TIMER.newTimeout(
+            ignored -> responseFuture.completeExceptionally(new PlcTimeoutException(System.nanoTime() - scheduledAt)),
+            remaining, TimeUnit.NANOSECONDS);
+        responseFuture.whenComplete((response, throwable) -> timeout.cancel());
+        return timeout;
+    }
+
+}
@@ -33,10 +33,14 @@ public class DefaultPlcReadRequest implements InternalPlcReadRequest, InternalPl
 
     private final PlcReader reader;
     private LinkedHashMap<String, PlcField> fields;
+    private final FieldIndex fieldIndex;
+    private final List<PlcField> fieldList;
 
     protected DefaultPlcReadRequest(PlcReader reader, LinkedHashMap<String, PlcField> fields) {
         this.reader = reader;
         this.fields = fields;
+        this.fieldIndex = FieldIndex.of(fields.keySet());
+        this.fieldList = Collections.unmodifiableList(new ArrayList<>(fields.values()));
     }
 
     @Override
@@ -49,10 +53,17 @@ public class DefaultPlcReadRequest implements InternalPlcReadRequest, InternalPl
         return fields.size();
     }
 
+    /**
+     * @return the field names in request order, which can't be modified.
+     */
     @Override
     public LinkedHashSet<String> getFieldNames() {
-        // TODO: Check if this already is a LinkedHashSet.
-        return new LinkedHashSet<>(fields.keySet());
+        return fieldIndex.getNames();
+    }
+
+    @Override
+    public FieldIndex getFieldIndex() {
+        return fieldIndex;
     }
 
     @Override
@@ -60,9 +71,12 @@ public class DefaultPlcReadRequest implements InternalPlcReadRequest, InternalPl
         return fields.get(name);
     }
 
+    /**
+     * @return the fields in request order, which can't be modified.
+     */
     @Override
     public List<PlcField> getFields() {
-        return new LinkedList<>(fields.values());
+        return fieldList;
     }
 
     @Override
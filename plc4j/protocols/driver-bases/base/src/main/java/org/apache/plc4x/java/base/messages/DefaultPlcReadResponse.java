@@ -36,6 +36,9 @@ public class DefaultPlcReadResponse implements InternalPlcReadResponse {
 
     private final InternalPlcReadRequest request;
     private final Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> values;
+    // Both built on first use, racing threads build equal instances.
+    private volatile FieldIndex fieldIndex;
+    private volatile Pair<PlcResponseCode, BaseDefaultFieldItem>[] valuesByIndex;
 
     public DefaultPlcReadResponse(InternalPlcReadRequest request, Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields) {
         this.request = request;
@@ -65,10 +68,26 @@ public class DefaultPlcReadResponse implements InternalPlcReadResponse {
 
     @Override
     public PlcResponseCode getResponseCode(String name) {
-        if (values.get(name) == null) {
+        Pair<PlcResponseCode, BaseDefaultFieldItem> value = values.get(name);
+        if (value == null) {
             throw new PlcInvalidFieldException(name);
         }
-        return values.get(name).getKey();
+        return value.getKey();
+    }
+
+    @Override
+    public int getFieldIndex(String name) {
+        return getFieldIndex().indexOf(name);
+    }
+
+    @Override
+    public String getFieldName(int fieldIndex) {
+        return getFieldIndex().getName(fieldIndex);
+    }
+
+    @Override
+    public PlcResponseCode getResponseCode(int fieldIndex) {
+        return getValue(fieldIndex).getKey();
     }
 
     @Override
@@ -562,17 +581,149 @@ public class DefaultPlcReadResponse implements InternalPlcReadResponse {
         return values;
     }
 
+    @Override
+    public int getNumberOfValues(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getNumberOfValues();
+    }
+
+    @Override
+    public Object getObject(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getObject(0);
+    }
+
+    @Override
+    public Object getObject(int fieldIndex, int index) {
+        return getFieldInternal(fieldIndex).getObject(index);
+    }
+
+    @Override
+    public Boolean getBoolean(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getBoolean(0);
+    }
+
+    @Override
+    public Byte getByte(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getByte(0);
+    }
+
+    @Override
+    public Short getShort(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getShort(0);
+    }
+
+    @Override
+    public Integer getInteger(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getInteger(0);
+    }
+
+    @Override
+    public BigInteger getBigInteger(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getBigInteger(0);
+    }
+
+    @Override
+    public Long getLong(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getLong(0);
+    }
+
+    @Override
+    public Float getFloat(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getFloat(0);
+    }
+
+    @Override
+    public Double getDouble(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getDouble(0);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getBigDecimal(0);
+    }
+
+    @Override
+    public String getString(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getString(0);
+    }
+
+    @Override
+    public LocalTime getTime(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getTime(0);
+    }
+
+    @Override
+    public LocalDate getDate(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getDate(0);
+    }
+
+    @Override
+    public LocalDateTime getDateTime(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getDateTime(0);
+    }
+
+    @Override
+    public Byte[] getByteArray(int fieldIndex) {
+        return getFieldInternal(fieldIndex).getByteArray(0);
+    }
+
     protected BaseDefaultFieldItem getFieldInternal(String name) {
         Objects.requireNonNull(name, "Name argument required");
+        Pair<PlcResponseCode, BaseDefaultFieldItem> value = values.get(name);
         // If this field doesn't exist, ignore it.
-        if (values.get(name) == null) {
+        if (value == null) {
             throw new PlcInvalidFieldException(name);
         }
-        if (values.get(name).getKey() != PlcResponseCode.OK) {
-            throw new PlcRuntimeException("Field '" + name + "' could not be fetched, response was " + values.get(name).getKey());
+        if (value.getKey() != PlcResponseCode.OK) {
+            throw new PlcRuntimeException("Field '" + name + "' could not be fetched, response was " + value.getKey());
         }
         // No need to check for "null" as this is already captured by the constructors.
-        return values.get(name).getValue();
+        return value.getValue();
+    }
+
+    protected BaseDefaultFieldItem getFieldInternal(int fieldIndex) {
+        Pair<PlcResponseCode, BaseDefaultFieldItem> value = getValue(fieldIndex);
+        if (value.getKey() != PlcResponseCode.OK) {
+            throw new PlcRuntimeException("Field '" + getFieldName(fieldIndex) + "' could not be fetched, response was " + value.getKey());
+        }
+        return value.getValue();
+    }
+
+    /**
+     * @return the field names of the request with their positions.
+     */
+    protected FieldIndex getFieldIndex() {
+        FieldIndex currentFieldIndex = fieldIndex;
+        if (currentFieldIndex == null) {
+            // Mocked or foreign requests might not provide an index.
+            currentFieldIndex = request != null ? request.getFieldIndex() : null;
+            if (currentFieldIndex == null) {
+                currentFieldIndex = FieldIndex.of(getFieldNames());
+            }
+            fieldIndex = currentFieldIndex;
+        }
+        return currentFieldIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Pair<PlcResponseCode, BaseDefaultFieldItem> getValue(int fieldIndex) {
+        Pair<PlcResponseCode, BaseDefaultFieldItem>[] currentValues = valuesByIndex;
+        if (currentValues == null) {
+            // Looks up every field once, all later positional accesses are plain array reads.
+            FieldIndex currentFieldIndex = getFieldIndex();
+            currentValues = new Pair[currentFieldIndex.size()];
+            for (int index = 0; index < currentValues.length; index++) {
+                currentValues[index] = values.get(currentFieldIndex.getName(index));
+            }
+            valuesByIndex = currentValues;
+        }
+        if (fieldIndex < 0 || fieldIndex >= currentValues.length) {
+            throw new IndexOutOfBoundsException("No field at index " + fieldIndex);
+        }
+        Pair<PlcResponseCode, BaseDefaultFieldItem> value = currentValues[fieldIndex];
+        if (value == null) {
+            throw new PlcInvalidFieldException(getFieldName(fieldIndex));
+        }
+        return value;
     }
 
 }
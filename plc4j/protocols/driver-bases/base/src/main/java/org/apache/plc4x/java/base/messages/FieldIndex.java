@@ -0,0 +1,136 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.messages;
+
+import java.util.*;
+
+/**
+ * The field names of a request in request order together with a map from name to position.
+ * <p>
+ * A request builds its index once and every response to it shares the index, so positional access to a response
+ * doesn't hash the field name and {@link #getNames()} doesn't copy anything.
+ */
+public final class FieldIndex {
+
+    private static final FieldIndex EMPTY = new FieldIndex(Collections.emptyList());
+
+    private final String[] names;
+
+    private final Map<String, Integer> indices;
+
+    private final LinkedHashSet<String> nameSet;
+
+    private FieldIndex(Collection<String> names) {
+        this.names = names.toArray(new String[0]);
+        Map<String, Integer> currentIndices = new HashMap<>(this.names.length * 2);
+        for (int index = 0; index < this.names.length; index++) {
+            currentIndices.put(this.names[index], index);
+        }
+        this.indices = currentIndices;
+        this.nameSet = new FrozenLinkedHashSet<>(names);
+    }
+
+    public static FieldIndex of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EMPTY;
+        }
+        return new FieldIndex(names);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the position of the given name or {@code -1} if this index doesn't contain it.
+     */
+    public int indexOf(String name) {
+        Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if there is no name at the given position.
+     */
+    public String getName(int index) {
+        if (index < 0 || index >= names.length) {
+            throw new IndexOutOfBoundsException("No field at index " + index);
+        }
+        return names[index];
+    }
+
+    /**
+     * @return the names in order, as a set that can't be modified.
+     */
+    public LinkedHashSet<String> getNames() {
+        return nameSet;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldIndex" + Arrays.toString(names);
+    }
+
+    /**
+     * A {@link LinkedHashSet} that rejects all modifications once constructed, needed as the API exposes the type.
+     */
+    private static class FrozenLinkedHashSet<E> extends LinkedHashSet<E> {
+
+        private final boolean frozen;
+
+        private FrozenLinkedHashSet(Collection<E> elements) {
+            super(elements);
+            this.frozen = true;
+        }
+
+        @Override
+        public boolean add(E element) {
+            if (frozen) {
+                throw new UnsupportedOperationException();
+            }
+            return super.add(element);
+        }
+
+        @Override
+        public boolean remove(Object element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<E> iterator = super.iterator();
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return iterator.next();
+                }
+            };
+        }
+    }
+}
@@ -28,4 +28,11 @@ public interface InternalPlcFieldRequest extends PlcFieldRequest, InternalPlcReq
 
     List<Pair<String, PlcField>> getNamedFields();
 
+    /**
+     * @return the field names with their positions, shared by all responses to this request.
+     */
+    default FieldIndex getFieldIndex() {
+        return FieldIndex.of(getFieldNames());
+    }
+
 }
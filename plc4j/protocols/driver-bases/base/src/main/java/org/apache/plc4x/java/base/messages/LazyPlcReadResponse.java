@@ -0,0 +1,264 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A read response that keeps the data received for every field and only decodes it into a
+ * {@link BaseDefaultFieldItem} on first access.
+ * <p>
+ * Callers touching only a few fields of a large response don't pay for decoding the rest and forwarders can take the
+ * data as received through {@link #getRawData(String)} without decoding anything. {@link #getValues()} is a view that
+ * decodes the fields it hands out.
+ */
+public class LazyPlcReadResponse extends DefaultPlcReadResponse {
+
+    private final Map<String, LazyField> fields;
+
+    // Built on first positional access, racing threads build equal arrays.
+    private volatile LazyField[] fieldsByIndex;
+
+    public LazyPlcReadResponse(InternalPlcReadRequest request, Map<String, LazyField> fields) {
+        super(request, new DecodingView(fields));
+        this.fields = fields;
+    }
+
+    /**
+     * @return the undecoded fields, e.g. to merge several lazy responses without decoding them.
+     */
+    public Map<String, LazyField> getLazyFields() {
+        return fields;
+    }
+
+    @Override
+    public PlcResponseCode getResponseCode(String name) {
+        LazyField field = fields.get(name);
+        if (field == null) {
+            throw new PlcInvalidFieldException(name);
+        }
+        return field.getResponseCode();
+    }
+
+    @Override
+    public PlcResponseCode getResponseCode(int fieldIndex) {
+        return getLazyField(fieldIndex, false).getResponseCode();
+    }
+
+    /**
+     * @return a read only view of the data received for the given field, without decoding it.
+     */
+    public ByteBuf getRawData(String name) {
+        return getLazyField(name).getRawData();
+    }
+
+    /**
+     * @return {@code true} if the given field has been decoded already.
+     */
+    public boolean isDecoded(String name) {
+        return getLazyField(name).isDecoded();
+    }
+
+    public ByteBuf getRawData(int fieldIndex) {
+        return getLazyField(fieldIndex, true).getRawData();
+    }
+
+    @Override
+    protected BaseDefaultFieldItem getFieldInternal(String name) {
+        return getLazyField(name).getFieldItem();
+    }
+
+    @Override
+    protected BaseDefaultFieldItem getFieldInternal(int fieldIndex) {
+        return getLazyField(fieldIndex, true).getFieldItem();
+    }
+
+    private LazyField getLazyField(int fieldIndex, boolean requireOk) {
+        LazyField[] currentFields = fieldsByIndex;
+        if (currentFields == null) {
+            FieldIndex currentFieldIndex = getFieldIndex();
+            currentFields = new LazyField[currentFieldIndex.size()];
+            for (int index = 0; index < currentFields.length; index++) {
+                currentFields[index] = fields.get(currentFieldIndex.getName(index));
+            }
+            fieldsByIndex = currentFields;
+        }
+        if (fieldIndex < 0 || fieldIndex >= currentFields.length) {
+            throw new IndexOutOfBoundsException("No field at index " + fieldIndex);
+        }
+        LazyField field = currentFields[fieldIndex];
+        if (field == null) {
+            throw new PlcInvalidFieldException(getFieldName(fieldIndex));
+        }
+        if (requireOk && field.getResponseCode() != PlcResponseCode.OK) {
+            throw new PlcRuntimeException("Field '" + getFieldName(fieldIndex) + "' could not be fetched, response was " + field.getResponseCode());
+        }
+        return field;
+    }
+
+    private LazyField getLazyField(String name) {
+        Objects.requireNonNull(name, "Name argument required");
+        LazyField field = fields.get(name);
+        if (field == null) {
+            throw new PlcInvalidFieldException(name);
+        }
+        if (field.getResponseCode() != PlcResponseCode.OK) {
+            throw new PlcRuntimeException("Field '" + name + "' could not be fetched, response was " + field.getResponseCode());
+        }
+        return field;
+    }
+
+    /**
+     * The response code and data of a single field together with the decoder for the data.
+     * <p>
+     * Decoding has no side effects, so concurrent first accesses may both decode but end up with the same values.
+     */
+    public static class LazyField {
+
+        private final PlcResponseCode responseCode;
+
+        private final ByteBuf data;
+
+        private final Function<ByteBuf, BaseDefaultFieldItem> decoder;
+
+        private volatile BaseDefaultFieldItem fieldItem;
+
+        /**
+         * @param data    the data of the field, which must not be released by anyone else. Heap buffers wrapping the
+         *                received bytes are the natural choice.
+         * @param decoder decodes the readable bytes of the buffer it gets, which it may consume.
+         */
+        public LazyField(PlcResponseCode responseCode, ByteBuf data, Function<ByteBuf, BaseDefaultFieldItem> decoder) {
+            this.responseCode = Objects.requireNonNull(responseCode);
+            this.data = data == null ? Unpooled.EMPTY_BUFFER : data.asReadOnly();
+            this.decoder = Objects.requireNonNull(decoder);
+        }
+
+        /**
+         * A field that failed and has neither data nor a value.
+         */
+        public static LazyField failed(PlcResponseCode responseCode) {
+            return new LazyField(responseCode, null, ignore -> null);
+        }
+
+        public PlcResponseCode getResponseCode() {
+            return responseCode;
+        }
+
+        public ByteBuf getRawData() {
+            return data.duplicate();
+        }
+
+        public boolean isDecoded() {
+            return fieldItem != null;
+        }
+
+        public BaseDefaultFieldItem getFieldItem() {
+            BaseDefaultFieldItem item = fieldItem;
+            if (item == null && responseCode == PlcResponseCode.OK) {
+                item = decoder.apply(data.duplicate());
+                fieldItem = item;
+            }
+            return item;
+        }
+
+        @Override
+        public String toString() {
+            return "LazyField{" +
+                "responseCode=" + responseCode +
+                ", bytes=" + data.readableBytes() +
+                ", decoded=" + isDecoded() +
+                '}';
+        }
+    }
+
+    /**
+     * The fields as the pairs of {@link InternalPlcReadResponse#getValues()}, decoding every field handed out.
+     */
+    private static class DecodingView extends AbstractMap<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> {
+
+        private final Map<String, LazyField> fields;
+
+        private DecodingView(Map<String, LazyField> fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public Pair<PlcResponseCode, BaseDefaultFieldItem> get(Object key) {
+            LazyField field = fields.get(key);
+            return field == null ? null : toPair(field);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return fields.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return fields.size();
+        }
+
+        @Override
+        public Set<Entry<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>> entrySet() {
+            return new AbstractSet<Entry<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>>() {
+                @Override
+                public Iterator<Entry<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>> iterator() {
+                    Iterator<Entry<String, LazyField>> iterator = fields.entrySet().iterator();
+                    return new Iterator<Entry<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> next() {
+                            Entry<String, LazyField> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), toPair(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return fields.size();
+                }
+            };
+        }
+
+        private static Pair<PlcResponseCode, BaseDefaultFieldItem> toPair(LazyField field) {
+            return new ImmutablePair<>(field.getResponseCode(), field.getFieldItem());
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.plc4x.java.base.messages;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
@@ -31,12 +32,27 @@ public class PlcRequestContainer<T extends InternalPlcRequest, R extends Interna
 
     private final T request;
     private final CompletableFuture<R> responseFuture;
+    private final boolean hasDeadline;
+    private final long deadline;
 
     public PlcRequestContainer(T request, CompletableFuture<R> responseFuture) {
+        this(request, responseFuture, false, 0L);
+    }
+
+    /**
+     * @param deadline the point in time (as returned by {@link System#nanoTime()}) at which the request expires.
+     */
+    public PlcRequestContainer(T request, CompletableFuture<R> responseFuture, long deadline) {
+        this(request, responseFuture, true, deadline);
+    }
+
+    private PlcRequestContainer(T request, CompletableFuture<R> responseFuture, boolean hasDeadline, long deadline) {
         Objects.requireNonNull(request, "Request must not be null");
         Objects.requireNonNull(responseFuture, "Response future must not be null");
         this.request = request;
         this.responseFuture = responseFuture;
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
     }
 
     public T getRequest() {
@@ -47,6 +63,32 @@ public class PlcRequestContainer<T extends InternalPlcRequest, R extends Interna
         return responseFuture;
     }
 
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * @return the deadline in {@link System#nanoTime()} units, only meaningful if {@link #hasDeadline()}.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return nanoseconds left until the deadline, negative if it passed already, {@link Long#MAX_VALUE} if there is
+     * no deadline.
+     */
+    public long getRemainingNanos() {
+        return hasDeadline ? deadline - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return a container for the same request and future expiring {@code timeout} from now.
+     */
+    public PlcRequestContainer<T, R> withTimeout(Duration timeout) {
+        return new PlcRequestContainer<>(request, responseFuture, System.nanoTime() + timeout.toNanos());
+    }
+
     /**
      * {@link PlcRequestContainer} objects don't have parents.
      *
@@ -61,6 +103,7 @@ public class PlcRequestContainer<T extends InternalPlcRequest, R extends Interna
     public String toString() {
         return "PlcRequestContainer{" +
             "request=" + request +
+            (hasDeadline ? ", remaining=" + getRemainingNanos() + "ns" : "") +
             '}';
     }
 
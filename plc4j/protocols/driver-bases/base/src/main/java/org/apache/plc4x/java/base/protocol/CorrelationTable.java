@@ -0,0 +1,297 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.protocol;
+
+import io.netty.util.Timeout;
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Correlates the single item requests produced by {@link SingleItemToSingleRequestProtocol} with the request they
+ * were split from.
+ * <p>
+ * The table is a preallocated ring of slots indexed by correlation id, so registering, sending and acknowledging an
+ * item neither allocates nor hashes any request. The correlation id and the state of a slot share one word, which
+ * lets acknowledgements, errors and timeouts arriving on different threads race for a slot without locking.
+ * Correlation ids are handed out in ascending order, ids whose slot is still in use are skipped.
+ */
+class CorrelationTable {
+
+    static final int DEFAULT_CAPACITY = 1 << 12;
+
+    private static final int FREE = 0;
+
+    private static final int PENDING = 1;
+
+    private static final int SENT = 2;
+
+    private static final int RELEASING = 3;
+
+    private final int mask;
+
+    private final AtomicLongArray states;
+
+    // Only written while the slot is owned, published by the volatile write of the slot state.
+    private final Parent[] parents;
+
+    // Guarded by this.
+    private int nextCorrelationId;
+
+    CorrelationTable(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.states = new AtomicLongArray(size);
+        this.parents = new Parent[size];
+    }
+
+    /**
+     * Assigns a correlation id to every item of the given container.
+     *
+     * @throws PlcProtocolException if there are not enough free slots for all items.
+     */
+    synchronized Parent register(PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container, int numberOfItems) throws PlcProtocolException {
+        Parent parent = new Parent(container, numberOfItems);
+        for (int item = 0; item < numberOfItems; item++) {
+            if (!claim(parent, item)) {
+                for (int claimed = 0; claimed < item; claimed++) {
+                    release(parent.correlationIds[claimed]);
+                }
+                throw new PlcProtocolException("More than " + parents.length + " items in flight");
+            }
+        }
+        return parent;
+    }
+
+    private boolean claim(Parent parent, int item) {
+        for (int attempt = 0; attempt < parents.length; attempt++) {
+            int correlationId = nextCorrelationId++;
+            int index = correlationId & mask;
+            if (state(states.get(index)) == FREE) {
+                parent.correlationIds[item] = correlationId;
+                parents[index] = parent;
+                states.set(index, word(correlationId, PENDING));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the item with the given correlation id as sent, if it is still outstanding.
+     */
+    void markSent(int correlationId) {
+        int index = correlationId & mask;
+        long word = states.get(index);
+        if (id(word) == correlationId && state(word) == PENDING) {
+            // If this fails the item got released in the meantime.
+            states.compareAndSet(index, word, word(correlationId, SENT));
+        }
+    }
+
+    /**
+     * Frees the slot of the given correlation id.
+     *
+     * @return the parent the item belonged to or {@code null} if the correlation id is unknown or already released.
+     */
+    Parent release(int correlationId) {
+        int index = correlationId & mask;
+        while (true) {
+            long word = states.get(index);
+            int state = state(word);
+            if (id(word) != correlationId || (state != PENDING && state != SENT)) {
+                return null;
+            }
+            if (states.compareAndSet(index, word, word(correlationId, RELEASING))) {
+                Parent parent = parents[index];
+                parents[index] = null;
+                states.set(index, word(correlationId, FREE));
+                return parent;
+            }
+            // The item got marked as sent concurrently, try again.
+        }
+    }
+
+    /**
+     * Frees all slots still held by the given parent.
+     *
+     * @return the number of items that were still outstanding.
+     */
+    int releaseAll(Parent parent) {
+        int released = 0;
+        for (int correlationId : parent.correlationIds) {
+            if (release(correlationId) != null) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    synchronized int getNextCorrelationId() {
+        return nextCorrelationId;
+    }
+
+    /**
+     * @return number of items waiting to be sent or acknowledged.
+     */
+    int countPending() {
+        return count(PENDING) + count(SENT);
+    }
+
+    /**
+     * @return number of items sent but not yet acknowledged.
+     */
+    int countSent() {
+        return count(SENT);
+    }
+
+    /**
+     * @return the parents with at least one outstanding item.
+     */
+    Set<Parent> getParents() {
+        Set<Parent> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int index = 0; index < parents.length; index++) {
+            int state = state(states.get(index));
+            Parent parent = parents[index];
+            if ((state == PENDING || state == SENT) && parent != null) {
+                result.add(parent);
+            }
+        }
+        return result;
+    }
+
+    private int count(int state) {
+        int count = 0;
+        for (int index = 0; index < parents.length; index++) {
+            if (state(states.get(index)) == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long word(int correlationId, int state) {
+        return ((long) correlationId << 32) | state;
+    }
+
+    private static int id(long word) {
+        return (int) (word >>> 32);
+    }
+
+    private static int state(long word) {
+        return (int) word;
+    }
+
+    /**
+     * A split request, counting down its outstanding items.
+     */
+    static class Parent {
+
+        private final PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container;
+
+        private final int[] correlationIds;
+
+        private final InternalPlcResponse[] responses;
+
+        private final AtomicInteger received = new AtomicInteger();
+
+        private final AtomicInteger remaining;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile Timeout timeout;
+
+        Parent(PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container, int numberOfItems) {
+            this.container = container;
+            this.correlationIds = new int[numberOfItems];
+            this.responses = new InternalPlcResponse[numberOfItems];
+            this.remaining = new AtomicInteger(numberOfItems);
+        }
+
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> getContainer() {
+            return container;
+        }
+
+        int getCorrelationId(int item) {
+            return correlationIds[item];
+        }
+
+        int getNumberOfItems() {
+            return correlationIds.length;
+        }
+
+        /**
+         * Records the response of one item, must be called at most once per released item.
+         *
+         * @return {@code true} if this was the last outstanding item.
+         */
+        boolean offer(InternalPlcResponse response) {
+            responses[received.getAndIncrement()] = response;
+            return remaining.decrementAndGet() == 0;
+        }
+
+        boolean hasResponses() {
+            return received.get() > 0;
+        }
+
+        /**
+         * @return all responses, only complete once {@link #offer(InternalPlcResponse)} returned {@code true}.
+         */
+        List<InternalPlcResponse> getResponses() {
+            return Arrays.asList(responses);
+        }
+
+        void setTimeout(Timeout timeout) {
+            this.timeout = timeout;
+            if (closed.get()) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * Closes this parent and cancels its timeout. Only the first call succeeds, so exactly one of completion,
+         * error and timeout gets to deliver the result.
+         *
+         * @return {@code true} if this call closed the parent.
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            Timeout currentTimeout = timeout;
+            if (currentTimeout != null) {
+                currentTimeout.cancel();
+            }
+            return true;
+        }
+    }
+}
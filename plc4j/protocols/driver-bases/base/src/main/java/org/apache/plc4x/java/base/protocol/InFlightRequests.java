@@ -0,0 +1,49 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.protocol;
+
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+
+import java.util.Map;
+
+/**
+ * Bookkeeping of the requests a protocol sent and still awaits the response for, keyed by whatever the protocol
+ * matches responses by, e.g. a transaction id.
+ */
+public final class InFlightRequests {
+
+    private InFlightRequests() {
+        // Utility class
+    }
+
+    /**
+     * Remembers the request until its response arrives or it fails otherwise, e.g. by missing its deadline. A
+     * failed request is removed again, unless the key was reused for another request in the meantime.
+     *
+     * @param requests the in-flight requests of the protocol, the caller removes requests whose response arrived.
+     */
+    public static <K, C extends PlcRequestContainer<?, ?>> void correlate(Map<K, C> requests, K key, C container) {
+        requests.put(key, container);
+        container.getResponseFuture().whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                requests.remove(key, container);
+            }
+        });
+    }
+}
@@ -39,7 +39,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -64,23 +63,8 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
 
     private PendingWriteQueue queue;
 
-    private ConcurrentMap<PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>, Timeout> scheduledTimeouts;
-
-    // Map to track send subcontainers
-    private ConcurrentMap<Integer, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> sentButUnacknowledgedSubContainer;
-
-    // Map to map tdpu to original parent container
-    // TODO: currently this could be supplied via param, only reason to keep would be for statistics.
-    private ConcurrentMap<Integer, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> correlationToParentContainer;
-
-    // Map to track tdpus per container
-    // TODO: currently this could be supplied via param, only reason to keep would be for statistics.
-    private ConcurrentMap<PlcRequestContainer<?, ?>, Set<Integer>> containerCorrelationIdMap;
-
-    // Map to track a list of responses per parent container
-    private ConcurrentMap<PlcRequestContainer<?, ?>, Queue<InternalPlcResponse>> responsesToBeDelivered;
-
-    private AtomicInteger correlationIdGenerator;
+    // Tracks the split items of all requests in flight.
+    private CorrelationTable correlationTable;
 
     // TODO: maybe put in map per day or per hour
     private AtomicLong deliveredContainers;
@@ -127,12 +111,7 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
         this.queue = new PendingWriteQueue(ctx);
-        this.scheduledTimeouts = new ConcurrentHashMap<>();
-        this.sentButUnacknowledgedSubContainer = new ConcurrentHashMap<>();
-        this.correlationToParentContainer = new ConcurrentHashMap<>();
-        this.containerCorrelationIdMap = new ConcurrentHashMap<>();
-        this.responsesToBeDelivered = new ConcurrentHashMap<>();
-        this.correlationIdGenerator = new AtomicInteger();
+        this.correlationTable = new CorrelationTable(splitConfig.correlationCapacity);
         this.deliveredItems = new AtomicLong();
         this.erroredItems = new AtomicLong();
         this.deliveredContainers = new AtomicLong();
@@ -143,12 +122,7 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         this.queue.removeAndWriteAll();
-        this.scheduledTimeouts.clear();
-        this.sentButUnacknowledgedSubContainer.clear();
-        this.correlationToParentContainer.clear();
-        this.containerCorrelationIdMap.clear();
-        this.responsesToBeDelivered.clear();
-        this.correlationIdGenerator.set(0);
+        this.correlationTable = new CorrelationTable(splitConfig.correlationCapacity);
         this.deliveredItems.set(0);
         this.erroredItems.set(0);
         this.deliveredContainers.set(0);
@@ -160,13 +134,9 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         // Send everything so we get a proper failure for those pending writes
         this.queue.removeAndWriteAll();
-        this.timer.stop();
-        this.scheduledTimeouts.clear();
-        this.sentButUnacknowledgedSubContainer.clear();
-        this.correlationToParentContainer.clear();
-        this.containerCorrelationIdMap.clear();
-        this.responsesToBeDelivered.clear();
-        this.correlationIdGenerator.set(0);
+        // The timer is shared between connections so only our own timeouts must be cancelled.
+        this.correlationTable.getParents().forEach(CorrelationTable.Parent::close);
+        this.correlationTable = new CorrelationTable(splitConfig.correlationCapacity);
         this.deliveredItems.set(0);
         this.erroredItems.set(0);
         this.deliveredContainers.set(0);
@@ -179,28 +149,38 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     protected void tryFinish(Integer currentTdpu, InternalPlcResponse msg, CompletableFuture<InternalPlcResponse> originalResponseFuture) {
+        tryFinish(correlationTable, currentTdpu, msg, originalResponseFuture);
+    }
+
+    private void tryFinish(CorrelationTable table, int currentTdpu, InternalPlcResponse msg, CompletableFuture<InternalPlcResponse> originalResponseFuture) {
         deliveredItems.incrementAndGet();
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> subPlcRequestContainer = sentButUnacknowledgedSubContainer.remove(currentTdpu);
-        LOGGER.info("{} got acknowledged", subPlcRequestContainer);
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> originalPlcRequestContainer = correlationToParentContainer.remove(currentTdpu);
-        if (originalPlcRequestContainer == null) {
+        CorrelationTable.Parent parent = table.release(currentTdpu);
+        if (parent == null) {
             LOGGER.warn("Unrelated package received {}", msg);
             return;
         }
-        Queue<InternalPlcResponse> correlatedResponseItems = responsesToBeDelivered.computeIfAbsent(originalPlcRequestContainer, ignore -> new ConcurrentLinkedQueue<>());
-        correlatedResponseItems.add(msg);
-        Set<Integer> integers = containerCorrelationIdMap.get(originalPlcRequestContainer);
-        integers.remove(currentTdpu);
-        if (integers.isEmpty()) {
-            deliveredContainers.incrementAndGet();
-            Timeout timeout = scheduledTimeouts.remove(originalPlcRequestContainer);
-            if (timeout != null) {
-                timeout.cancel();
-            }
+        LOGGER.trace("tdpu {} got acknowledged", currentTdpu);
+        // Only the last item delivers, unless the container already errored or timed out.
+        if (!parent.offer(msg) || !parent.close()) {
+            return;
+        }
+
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> originalPlcRequestContainer = parent.getContainer();
+        List<InternalPlcResponse> correlatedResponseItems = parent.getResponses();
+        InternalPlcResponse plcResponse;
+        if (originalPlcRequestContainer.getRequest() instanceof InternalPlcReadRequest) {
+            InternalPlcReadRequest internalPlcReadRequest = (InternalPlcReadRequest) originalPlcRequestContainer.getRequest();
+            if (correlatedResponseItems.stream().allMatch(LazyPlcReadResponse.class::isInstance)) {
+                // Merge without decoding, so the merged response stays lazy.
+                HashMap<String, LazyPlcReadResponse.LazyField> fields = new HashMap<>();
+
+                correlatedResponseItems.stream()
+                    .map(LazyPlcReadResponse.class::cast)
+                    .map(LazyPlcReadResponse::getLazyFields)
+                    .forEach(stringFieldMap -> stringFieldMap.forEach(fields::put));
 
-            InternalPlcResponse plcResponse;
-            if (originalPlcRequestContainer.getRequest() instanceof InternalPlcReadRequest) {
-                InternalPlcReadRequest internalPlcReadRequest = (InternalPlcReadRequest) originalPlcRequestContainer.getRequest();
+                plcResponse = new LazyPlcReadResponse(internalPlcReadRequest, fields);
+            } else {
                 HashMap<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields = new HashMap<>();
 
                 correlatedResponseItems.stream()
@@ -209,69 +189,59 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
                     .forEach(stringPairMap -> stringPairMap.forEach(fields::put));
 
                 plcResponse = new DefaultPlcReadResponse(internalPlcReadRequest, fields);
-            } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcWriteRequest) {
-                InternalPlcWriteRequest internalPlcWriteRequest = (InternalPlcWriteRequest) originalPlcRequestContainer.getRequest();
-                HashMap<String, PlcResponseCode> values = new HashMap<>();
-
-                correlatedResponseItems.stream()
-                    .map(InternalPlcWriteResponse.class::cast)
-                    .map(InternalPlcWriteResponse::getValues)
-                    .forEach(stringPairMap -> stringPairMap.forEach(values::put));
-
-                plcResponse = new DefaultPlcWriteResponse(internalPlcWriteRequest, values);
-            } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcSubscriptionRequest) {
-                InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = (InternalPlcSubscriptionRequest) originalPlcRequestContainer.getRequest();
-                HashMap<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> fields = new HashMap<>();
-
-                correlatedResponseItems.stream()
-                    .map(InternalPlcSubscriptionResponse.class::cast)
-                    .map(InternalPlcSubscriptionResponse::getValues)
-                    .forEach(stringPairMap -> stringPairMap.forEach(fields::put));
-
-                plcResponse = new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, fields);
-            } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcUnsubscriptionRequest) {
-                InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = (InternalPlcUnsubscriptionRequest) originalPlcRequestContainer.getRequest();
-                plcResponse = new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest);
-            } else {
-                errored(currentTdpu, new PlcProtocolException("Unknown type detected " + originalPlcRequestContainer.getRequest().getClass()), originalResponseFuture);
-                return;
             }
-            responsesToBeDelivered.remove(originalPlcRequestContainer);
-            containerCorrelationIdMap.remove(originalPlcRequestContainer);
-            originalResponseFuture.complete(plcResponse);
+        } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcWriteRequest) {
+            InternalPlcWriteRequest internalPlcWriteRequest = (InternalPlcWriteRequest) originalPlcRequestContainer.getRequest();
+            HashMap<String, PlcResponseCode> values = new HashMap<>();
+
+            correlatedResponseItems.stream()
+                .map(InternalPlcWriteResponse.class::cast)
+                .map(InternalPlcWriteResponse::getValues)
+                .forEach(stringPairMap -> stringPairMap.forEach(values::put));
+
+            plcResponse = new DefaultPlcWriteResponse(internalPlcWriteRequest, values);
+        } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcSubscriptionRequest) {
+            InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = (InternalPlcSubscriptionRequest) originalPlcRequestContainer.getRequest();
+            HashMap<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> fields = new HashMap<>();
+
+            correlatedResponseItems.stream()
+                .map(InternalPlcSubscriptionResponse.class::cast)
+                .map(InternalPlcSubscriptionResponse::getValues)
+                .forEach(stringPairMap -> stringPairMap.forEach(fields::put));
+
+            plcResponse = new DefaultPlcSubscriptionResponse(internalPlcSubscriptionRequest, fields);
+        } else if (originalPlcRequestContainer.getRequest() instanceof InternalPlcUnsubscriptionRequest) {
+            InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = (InternalPlcUnsubscriptionRequest) originalPlcRequestContainer.getRequest();
+            plcResponse = new DefaultPlcUnsubscriptionResponse(internalPlcUnsubscriptionRequest);
+        } else {
+            erroredContainers.incrementAndGet();
+            originalResponseFuture.completeExceptionally(new PlcProtocolException("Unknown type detected " + originalPlcRequestContainer.getRequest().getClass()));
+            return;
         }
+        deliveredContainers.incrementAndGet();
+        originalResponseFuture.complete(plcResponse);
     }
 
     protected void errored(Integer currentTdpu, Throwable throwable, CompletableFuture<InternalPlcResponse> originalResponseFuture) {
-        erroredItems.incrementAndGet();
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> subPlcRequestContainer = sentButUnacknowledgedSubContainer.remove(currentTdpu);
-        LOGGER.info("{} got errored", subPlcRequestContainer);
-
+        errored(correlationTable, currentTdpu, throwable, originalResponseFuture);
+    }
 
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> originalPlcRequestContainer = correlationToParentContainer.remove(currentTdpu);
-        if (originalPlcRequestContainer == null) {
+    private void errored(CorrelationTable table, int currentTdpu, Throwable throwable, CompletableFuture<InternalPlcResponse> originalResponseFuture) {
+        erroredItems.incrementAndGet();
+        CorrelationTable.Parent parent = table.release(currentTdpu);
+        if (parent == null) {
             LOGGER.warn("Unrelated error received tdpu:{}", currentTdpu, throwable);
-        } else {
-            erroredContainers.incrementAndGet();
-            Timeout timeout = scheduledTimeouts.remove(originalPlcRequestContainer);
-            if (timeout != null) {
-                timeout.cancel();
-            }
-            responsesToBeDelivered.remove(originalPlcRequestContainer);
-
-            Set<Integer> tdpus = containerCorrelationIdMap.remove(originalPlcRequestContainer);
-            if (tdpus != null) {
-                tdpus.forEach(tdpu -> {
-                    // TODO: technically the other items didn't error so do we increment?
-                    //erroredItems.incrementAndGet();
-                    sentButUnacknowledgedSubContainer.remove(tdpu);
-                    correlationToParentContainer.remove(tdpu);
-                });
-            }
-
-            LOGGER.warn("PlcRequestContainer {} and correlationId {} failed ", correlationToParentContainer, currentTdpu, throwable);
-            originalResponseFuture.completeExceptionally(throwable);
+            return;
+        }
+        LOGGER.trace("tdpu {} got errored", currentTdpu);
+        if (!parent.close()) {
+            return;
         }
+        erroredContainers.incrementAndGet();
+        // TODO: technically the other items didn't error so do we increment?
+        table.releaseAll(parent);
+        LOGGER.warn("PlcRequestContainer {} and correlationId {} failed ", parent.getContainer(), currentTdpu, throwable);
+        originalResponseFuture.completeExceptionally(throwable);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -283,122 +253,57 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
         if (msg instanceof PlcRequestContainer) {
             @SuppressWarnings("unchecked")
             PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> in = (PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>) msg;
-            Set<Integer> tdpus = containerCorrelationIdMap.computeIfAbsent(in, plcRequestContainer -> ConcurrentHashMap.newKeySet());
-
-            Timeout timeout = timer.newTimeout(timeout_ -> handleTimeout(timeout_, in, tdpus, System.nanoTime()), defaultReceiveTimeout, TimeUnit.MILLISECONDS);
-            scheduledTimeouts.put(in, timeout);
+            CorrelationTable table = correlationTable;
 
             // Create a promise that has to be called multiple times.
             PromiseCombiner promiseCombiner = new PromiseCombiner();
             InternalPlcRequest request = in.getRequest();
-            if (request instanceof InternalPlcFieldRequest && (splitConfig.splitRead || splitConfig.splitWrite || splitConfig.splitSubscription)) {
-                InternalPlcFieldRequest internalPlcFieldRequest = (InternalPlcFieldRequest) request;
-
-                if (internalPlcFieldRequest instanceof InternalPlcReadRequest && splitConfig.splitRead) {
-                    InternalPlcReadRequest internalPlcReadRequest = (InternalPlcReadRequest) internalPlcFieldRequest;
-                    internalPlcReadRequest.getNamedFields().forEach(field -> {
-                        ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
-
-                        Integer tdpu = correlationIdGenerator.getAndIncrement();
-                        CompletableFuture<InternalPlcResponse> correlatedCompletableFuture = new CompletableFuture<>();
-                        // Important: don't chain to above as we want the above to be completed not the result of when complete
-                        correlatedCompletableFuture
-                            .thenApply(InternalPlcResponse.class::cast)
-                            .whenComplete((internalPlcResponse, throwable) -> {
-                                if (throwable != null) {
-                                    errored(tdpu, throwable, in.getResponseFuture());
-                                } else {
-                                    tryFinish(tdpu, internalPlcResponse, in.getResponseFuture());
-                                }
-                            });
-                        PlcRequestContainer<CorrelatedPlcReadRequest, InternalPlcResponse> correlatedPlcRequestContainer = new PlcRequestContainer<>(CorrelatedPlcReadRequest.of(reader, field, tdpu), correlatedCompletableFuture);
-                        correlationToParentContainer.put(tdpu, in);
-                        queue.add(correlatedPlcRequestContainer, subPromise);
-                        if (!tdpus.add(tdpu)) {
-                            throw new IllegalStateException("AtomicInteger should not create duplicated ids: " + tdpu);
+            try {
+                if (request instanceof InternalPlcFieldRequest && (splitConfig.splitRead || splitConfig.splitWrite || splitConfig.splitSubscription)) {
+                    InternalPlcFieldRequest internalPlcFieldRequest = (InternalPlcFieldRequest) request;
+
+                    if (internalPlcFieldRequest instanceof InternalPlcReadRequest && splitConfig.splitRead) {
+                        List<Pair<String, PlcField>> fields = ((InternalPlcReadRequest) internalPlcFieldRequest).getNamedFields();
+                        CorrelationTable.Parent parent = open(table, in, fields.size());
+                        int item = 0;
+                        for (Pair<String, PlcField> field : fields) {
+                            queueCorrelated(table, in, CorrelatedPlcReadRequest.of(reader, field, parent.getCorrelationId(item++)), promise, promiseCombiner);
                         }
-                        promiseCombiner.add((Future) subPromise);
-                    });
-                } else if (internalPlcFieldRequest instanceof InternalPlcWriteRequest && splitConfig.splitWrite) {
-                    InternalPlcWriteRequest internalPlcWriteRequest = (InternalPlcWriteRequest) internalPlcFieldRequest;
-                    internalPlcWriteRequest.getNamedFieldTriples().forEach(fieldItemTriple -> {
-                        ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
-
-                        Integer tdpu = correlationIdGenerator.getAndIncrement();
-                        CompletableFuture<InternalPlcResponse> correlatedCompletableFuture = new CompletableFuture<>()
-                            .thenApply(InternalPlcResponse.class::cast)
-                            .whenComplete((internalPlcResponse, throwable) -> {
-                                if (throwable != null) {
-                                    errored(tdpu, throwable, in.getResponseFuture());
-                                } else {
-                                    tryFinish(tdpu, internalPlcResponse, in.getResponseFuture());
-                                }
-                            });
-                        PlcRequestContainer<CorrelatedPlcWriteRequest, InternalPlcResponse> correlatedPlcRequestContainer = new PlcRequestContainer<>(CorrelatedPlcWriteRequest.of(writer, fieldItemTriple, tdpu), correlatedCompletableFuture);
-                        correlationToParentContainer.put(tdpu, in);
-                        queue.add(correlatedPlcRequestContainer, subPromise);
-                        if (!tdpus.add(tdpu)) {
-                            throw new IllegalStateException("AtomicInteger should not create duplicated ids: " + tdpu);
+                    } else if (internalPlcFieldRequest instanceof InternalPlcWriteRequest && splitConfig.splitWrite) {
+                        List<Triple<String, PlcField, BaseDefaultFieldItem>> fieldItemTriples = ((InternalPlcWriteRequest) internalPlcFieldRequest).getNamedFieldTriples();
+                        CorrelationTable.Parent parent = open(table, in, fieldItemTriples.size());
+                        int item = 0;
+                        for (Triple<String, PlcField, BaseDefaultFieldItem> fieldItemTriple : fieldItemTriples) {
+                            queueCorrelated(table, in, CorrelatedPlcWriteRequest.of(writer, fieldItemTriple, parent.getCorrelationId(item++)), promise, promiseCombiner);
                         }
-                        promiseCombiner.add((Future) subPromise);
-                    });
-                } else if (internalPlcFieldRequest instanceof InternalPlcSubscriptionRequest && splitConfig.splitSubscription) {
-                    InternalPlcSubscriptionRequest internalPlcSubscriptionRequest = (InternalPlcSubscriptionRequest) internalPlcFieldRequest;
-                    internalPlcSubscriptionRequest.getNamedSubscriptionFields().forEach(field -> {
-                        ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
-
-                        Integer tdpu = correlationIdGenerator.getAndIncrement();
-                        CompletableFuture<InternalPlcResponse> correlatedCompletableFuture = new CompletableFuture<>();
-                        // Important: don't chain to above as we want the above to be completed not the result of when complete
-                        correlatedCompletableFuture
-                            .thenApply(InternalPlcResponse.class::cast)
-                            .whenComplete((internalPlcResponse, throwable) -> {
-                                if (throwable != null) {
-                                    errored(tdpu, throwable, in.getResponseFuture());
-                                } else {
-                                    tryFinish(tdpu, internalPlcResponse, in.getResponseFuture());
-                                }
-                            });
-                        PlcRequestContainer<CorrelatedPlcSubscriptionRequest, InternalPlcResponse> correlatedPlcRequestContainer = new PlcRequestContainer<>(CorrelatedPlcSubscriptionRequest.of(subscriber, field, tdpu), correlatedCompletableFuture);
-                        correlationToParentContainer.put(tdpu, in);
-                        queue.add(correlatedPlcRequestContainer, subPromise);
-                        if (!tdpus.add(tdpu)) {
-                            throw new IllegalStateException("AtomicInteger should not create duplicated ids: " + tdpu);
+                    } else if (internalPlcFieldRequest instanceof InternalPlcSubscriptionRequest && splitConfig.splitSubscription) {
+                        List<Pair<String, SubscriptionPlcField>> fields = ((InternalPlcSubscriptionRequest) internalPlcFieldRequest).getNamedSubscriptionFields();
+                        CorrelationTable.Parent parent = open(table, in, fields.size());
+                        int item = 0;
+                        for (Pair<String, SubscriptionPlcField> field : fields) {
+                            queueCorrelated(table, in, CorrelatedPlcSubscriptionRequest.of(subscriber, field, parent.getCorrelationId(item++)), promise, promiseCombiner);
                         }
-                        promiseCombiner.add((Future) subPromise);
-                    });
+                    } else {
+                        throw new PlcProtocolException("Unmapped request type " + request.getClass());
+                    }
+                } else if (request instanceof InternalPlcUnsubscriptionRequest && splitConfig.splitUnsubscription) {
+                    Collection<? extends InternalPlcSubscriptionHandle> handles = ((InternalPlcUnsubscriptionRequest) request).getInternalPlcSubscriptionHandles();
+                    CorrelationTable.Parent parent = open(table, in, handles.size());
+                    int item = 0;
+                    for (InternalPlcSubscriptionHandle handle : handles) {
+                        queueCorrelated(table, in, CorrelatedPlcUnsubscriptionRequest.of(subscriber, handle, parent.getCorrelationId(item++)), promise, promiseCombiner);
+                    }
                 } else {
-                    throw new PlcProtocolException("Unmapped request type " + request.getClass());
-                }
-            } else if (request instanceof InternalPlcUnsubscriptionRequest && splitConfig.splitUnsubscription) {
-                InternalPlcUnsubscriptionRequest internalPlcUnsubscriptionRequest = (InternalPlcUnsubscriptionRequest) request;
-                internalPlcUnsubscriptionRequest.getInternalPlcSubscriptionHandles().forEach(handle -> {
+                    // Nothing to correlate, the parent only guards the timeout.
+                    CorrelationTable.Parent parent = open(table, in, 0);
+                    in.getResponseFuture().whenComplete((internalPlcResponse, throwable) -> parent.close());
                     ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
-
-                    Integer tdpu = correlationIdGenerator.getAndIncrement();
-                    CompletableFuture<InternalPlcResponse> correlatedCompletableFuture = new CompletableFuture<>();
-                    // Important: don't chain to above as we want the above to be completed not the result of when complete
-                    correlatedCompletableFuture
-                        .thenApply(InternalPlcResponse.class::cast)
-                        .whenComplete((internalPlcResponse, throwable) -> {
-                            if (throwable != null) {
-                                errored(tdpu, throwable, in.getResponseFuture());
-                            } else {
-                                tryFinish(tdpu, internalPlcResponse, in.getResponseFuture());
-                            }
-                        });
-                    PlcRequestContainer<CorrelatedPlcUnsubscriptionRequest, InternalPlcResponse> correlatedPlcRequestContainer = new PlcRequestContainer<>(CorrelatedPlcUnsubscriptionRequest.of(subscriber, handle, tdpu), correlatedCompletableFuture);
-                    correlationToParentContainer.put(tdpu, in);
-                    queue.add(correlatedPlcRequestContainer, subPromise);
-                    if (!tdpus.add(tdpu)) {
-                        throw new IllegalStateException("AtomicInteger should not create duplicated ids: " + tdpu);
-                    }
+                    queue.add(msg, subPromise);
                     promiseCombiner.add((Future) subPromise);
-                });
-            } else {
-                ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
-                queue.add(msg, subPromise);
-                promiseCombiner.add((Future) subPromise);
+                }
+            } catch (PlcProtocolException e) {
+                in.getResponseFuture().completeExceptionally(e);
+                throw e;
             }
 
             promiseCombiner.finish(promise);
@@ -414,6 +319,51 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     // Helpers
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    private CorrelationTable.Parent open(CorrelationTable table, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> in, int numberOfItems) throws PlcProtocolException {
+        CorrelationTable.Parent parent = table.register(in, numberOfItems);
+        long scheduledAt = System.nanoTime();
+        // A deadline carried by the container takes precedence over the default receive timeout.
+        long timeoutNanos = in.hasDeadline() ? Math.max(in.getRemainingNanos(), 0) : TimeUnit.MILLISECONDS.toNanos(defaultReceiveTimeout);
+        parent.setTimeout(timer.newTimeout(timeout -> handleTimeout(timeout, table, parent, scheduledAt), timeoutNanos, TimeUnit.NANOSECONDS));
+        // The container may as well expire or get cancelled upstream, its slots must not outlive it.
+        in.getResponseFuture().whenComplete((internalPlcResponse, throwable) -> {
+            if (throwable != null && parent.close()) {
+                erroredContainers.incrementAndGet();
+                erroredItems.addAndGet(table.releaseAll(parent));
+            }
+        });
+        return parent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void queueCorrelated(CorrelationTable table, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> in, CorrelatedPlcRequest correlatedPlcRequest, ChannelPromise promise, PromiseCombiner promiseCombiner) {
+        int tdpu = correlatedPlcRequest.getTdpu();
+        ChannelPromise subPromise = new DefaultChannelPromise(promise.channel());
+        CompletableFuture<InternalPlcResponse> correlatedCompletableFuture = new CompletableFuture<>();
+        // Important: don't chain to above as we want the above to be completed not the result of when complete
+        correlatedCompletableFuture.whenComplete((internalPlcResponse, throwable) -> {
+            if (throwable != null) {
+                if (in.getResponseFuture().isCompletedExceptionally()) {
+                    // Failure propagated from the container below, it has been accounted for already.
+                    return;
+                }
+                errored(table, tdpu, throwable, in.getResponseFuture());
+            } else {
+                tryFinish(table, tdpu, internalPlcResponse, in.getResponseFuture());
+            }
+        });
+        // Once the container failed the item is of no use anymore, failing it lets the protocols below clean up.
+        in.getResponseFuture().whenComplete((internalPlcResponse, throwable) -> {
+            if (throwable != null) {
+                correlatedCompletableFuture.completeExceptionally(throwable);
+            }
+        });
+        queue.add(in.hasDeadline()
+            ? new PlcRequestContainer<>(correlatedPlcRequest, correlatedCompletableFuture, in.getDeadline())
+            : new PlcRequestContainer<>(correlatedPlcRequest, correlatedCompletableFuture), subPromise);
+        promiseCombiner.add((Future) subPromise);
+    }
+
     @SuppressWarnings("unchecked")
     protected synchronized void trySendingMessages(ChannelHandlerContext ctx) {
         while (queue.size() > 0) {
@@ -436,30 +386,26 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
             if (request instanceof CorrelatedPlcRequest) {
                 CorrelatedPlcRequest correlatedPlcRequest = (CorrelatedPlcRequest) request;
 
-                // Add it to the list of sentButUnacknowledgedSubContainer.
-                sentButUnacknowledgedSubContainer.put(correlatedPlcRequest.getTdpu(), currentItem);
+                correlationTable.markSent(correlatedPlcRequest.getTdpu());
 
-                LOGGER.debug("container with id {} sent: ", correlatedPlcRequest.getTdpu(), currentItem);
+                LOGGER.debug("container with id {} sent: ", correlatedPlcRequest.getTdpu(), currentItem);
             }
         }
         ctx.flush();
     }
 
-    private void handleTimeout(Timeout timeout, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> in, Set<Integer> tdpus, long scheduledAt) {
+    private void handleTimeout(Timeout timeout, CorrelationTable table, CorrelationTable.Parent parent, long scheduledAt) {
         if (timeout.isCancelled()) {
-            LOGGER.debug("container {} with timeout {} got canceled", in, timeout);
+            LOGGER.debug("container {} with timeout {} got canceled", parent.getContainer(), timeout);
+            return;
+        }
+        if (!parent.close()) {
             return;
         }
-        LOGGER.warn("container {} timed out:{}", in, timeout);
+        LOGGER.warn("container {} timed out:{}", parent.getContainer(), timeout);
         erroredContainers.incrementAndGet();
-        responsesToBeDelivered.remove(in);
-        containerCorrelationIdMap.remove(in);
-        tdpus.forEach(tdpu -> {
-            erroredItems.incrementAndGet();
-            sentButUnacknowledgedSubContainer.remove(tdpu);
-            correlationToParentContainer.remove(tdpu);
-        });
-        in.getResponseFuture().completeExceptionally(new PlcTimeoutException(System.nanoTime() - scheduledAt));
+        erroredItems.addAndGet(table.releaseAll(parent));
+        parent.getContainer().getResponseFuture().completeExceptionally(new PlcTimeoutException(System.nanoTime() - scheduledAt));
     }
 
     protected interface CorrelatedPlcRequest extends InternalPlcRequest {
@@ -555,11 +501,13 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
     public Map<String, Number> getStatistics() {
         HashMap<String, Number> statistics = new HashMap<>();
         statistics.put("queue", queue.size());
-        statistics.put("sentButUnacknowledgedSubContainer", sentButUnacknowledgedSubContainer.size());
-        statistics.put("correlationToParentContainer", correlationToParentContainer.size());
-        statistics.put("containerCorrelationIdMap", containerCorrelationIdMap.size());
-        statistics.put("responsesToBeDelivered", responsesToBeDelivered.size());
-        statistics.put("correlationIdGenerator", correlationIdGenerator.get());
+        // The keys still carry the names of the maps the correlation table replaced.
+        Set<CorrelationTable.Parent> parents = correlationTable.getParents();
+        statistics.put("sentButUnacknowledgedSubContainer", correlationTable.countSent());
+        statistics.put("correlationToParentContainer", correlationTable.countPending());
+        statistics.put("containerCorrelationIdMap", parents.size());
+        statistics.put("responsesToBeDelivered", (int) parents.stream().filter(CorrelationTable.Parent::hasResponses).count());
+        statistics.put("correlationIdGenerator", correlationTable.getNextCorrelationId());
         statistics.put("deliveredItems", deliveredItems.get());
         statistics.put("erroredItems", erroredItems.get());
         statistics.put("deliveredContainers", deliveredContainers.get());
@@ -572,19 +520,22 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
         private final boolean splitWrite;
         private final boolean splitSubscription;
         private final boolean splitUnsubscription;
+        private final int correlationCapacity;
 
         public SplitConfig() {
             splitRead = true;
             splitWrite = true;
             splitSubscription = true;
             splitUnsubscription = true;
+            correlationCapacity = CorrelationTable.DEFAULT_CAPACITY;
         }
 
-        private SplitConfig(boolean splitRead, boolean splitWrite, boolean splitSubscription, boolean splitUnsubscription) {
+        private SplitConfig(boolean splitRead, boolean splitWrite, boolean splitSubscription, boolean splitUnsubscription, int correlationCapacity) {
             this.splitRead = splitRead;
             this.splitWrite = splitWrite;
             this.splitSubscription = splitSubscription;
             this.splitUnsubscription = splitUnsubscription;
+            this.correlationCapacity = correlationCapacity;
         }
 
         public static SplitConfigBuilder builder() {
@@ -596,6 +547,7 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
             private boolean splitWrite = true;
             private boolean splitSubscription = true;
             private boolean splitUnsubscription = true;
+            private int correlationCapacity = CorrelationTable.DEFAULT_CAPACITY;
 
             public SplitConfigBuilder splitRead() {
                 splitRead = true;
@@ -637,8 +589,19 @@ public class SingleItemToSingleRequestProtocol extends ChannelDuplexHandler {
                 return this;
             }
 
+            /**
+             * Maximum number of split items in flight per connection, rounded up to a power of two.
+             */
+            public SplitConfigBuilder correlationCapacity(int correlationCapacity) {
+                if (correlationCapacity < 1) {
+                    throw new IllegalArgumentException("correlationCapacity must be at least 1");
+                }
+                this.correlationCapacity = correlationCapacity;
+                return this;
+            }
+
             public SplitConfig build() {
-                return new SplitConfig(splitRead, splitWrite, splitSubscription, splitUnsubscription);
+                return new SplitConfig(splitRead, splitWrite, splitSubscription, splitUnsubscription, correlationCapacity);
             }
         }
     }
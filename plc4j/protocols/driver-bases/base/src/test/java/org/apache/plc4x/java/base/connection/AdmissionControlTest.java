@@ -0,0 +1,187 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.connection;
+
+import io.netty.channel.Channel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.plc4x.java.api.exceptions.PlcIoException;
+import org.apache.plc4x.java.api.exceptions.PlcOverloadException;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlTest implements WithAssertions {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+
+    private final AtomicInteger sent = new AtomicInteger();
+
+    @Test
+    void unboundedSendsEverything() {
+        AdmissionControl SUT = new AdmissionControl(AdmissionConfig.unbounded(), channel);
+        for (int i = 0; i < 100; i++) {
+            SUT.submit(new CompletableFuture<>(), sent::incrementAndGet);
+        }
+        assertThat(sent).hasValue(100);
+        assertThat(SUT.getInFlight()).isZero();
+    }
+
+    @Nested
+    class FailFast {
+
+        private final AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(2).failFast().build(), channel);
+
+        @Test
+        void rejectsWhenFull() {
+            CompletableFuture<Object> first = submit(SUT);
+            submit(SUT);
+            CompletableFuture<Object> third = submit(SUT);
+            assertThat(sent).hasValue(2);
+            assertThat(third).isCompletedExceptionally();
+            assertThatThrownBy(third::join).hasCauseInstanceOf(PlcOverloadException.class);
+            assertThat(SUT.getRejected()).isEqualTo(1);
+
+            first.complete(null);
+            submit(SUT);
+            assertThat(sent).hasValue(3);
+            assertThat(SUT.getInFlight()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class Async {
+
+        private final AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(1).maxQueued(1).async().build(), channel);
+
+        @Test
+        void queuesUntilCapacity() {
+            CompletableFuture<Object> first = submit(SUT);
+            CompletableFuture<Object> second = submit(SUT);
+            CompletableFuture<Object> third = submit(SUT);
+            assertThat(sent).hasValue(1);
+            assertThat(SUT.getQueued()).isEqualTo(1);
+            assertThat(second).isNotDone();
+            assertThat(third).isCompletedExceptionally();
+
+            first.complete(null);
+            assertThat(sent).hasValue(2);
+            assertThat(SUT.getQueued()).isZero();
+            second.complete(null);
+            assertThat(SUT.getInFlight()).isZero();
+        }
+
+        @Test
+        void skipsCompletedWhileQueued() {
+            CompletableFuture<Object> first = submit(SUT);
+            CompletableFuture<Object> second = submit(SUT);
+            second.cancel(false);
+            first.complete(null);
+            assertThat(sent).hasValue(1);
+            assertThat(SUT.getInFlight()).isZero();
+        }
+
+        @Test
+        void waitsForWritability() {
+            AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(2).async().build(), channel);
+            submit(SUT);
+            channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+            channel.unsafe().outboundBuffer().addMessage(new Object(), 16, channel.newPromise());
+            channel.unsafe().outboundBuffer().addFlush();
+            assertThat(channel.isWritable()).isFalse();
+            CompletableFuture<Object> second = submit(SUT);
+            assertThat(sent).hasValue(1);
+            assertThat(second).isNotDone();
+
+            channel.unsafe().outboundBuffer().remove();
+            assertThat(channel.isWritable()).isTrue();
+            SUT.channelWritable();
+            assertThat(sent).hasValue(2);
+        }
+
+        @Test
+        void failsQueuedOnClose() {
+            submit(SUT);
+            CompletableFuture<Object> second = submit(SUT);
+            SUT.failQueued(new PlcIoException("closed"));
+            assertThatThrownBy(second::join).hasCauseInstanceOf(PlcIoException.class);
+        }
+    }
+
+    @Nested
+    class Block {
+
+        // The embedded channel treats every thread as its event loop, which must never block.
+        private final Channel notInEventLoop = mock(Channel.class, RETURNS_DEEP_STUBS);
+
+        private final AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(1).block(Duration.ofSeconds(5)).build(), notInEventLoop);
+
+        @BeforeEach
+        void setUp() {
+            when(notInEventLoop.isWritable()).thenReturn(true);
+        }
+
+        @Test
+        void blocksUntilCapacity() throws Exception {
+            CompletableFuture<Object> first = submit(SUT);
+            Thread thread = new Thread(() -> submit(SUT));
+            thread.start();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (SUT.getQueued() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(SUT.getQueued()).isEqualTo(1);
+            assertThat(sent).hasValue(1);
+            first.complete(null);
+            thread.join(5000);
+            assertThat(sent).hasValue(2);
+        }
+
+        @Test
+        void timesOut() {
+            AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(1).block(Duration.ofMillis(10)).build(), notInEventLoop);
+            submit(SUT);
+            CompletableFuture<Object> second = submit(SUT);
+            assertThatThrownBy(second::join).hasCauseInstanceOf(PlcOverloadException.class);
+        }
+
+        @Test
+        void neverBlocksTheEventLoop() {
+            AdmissionControl SUT = new AdmissionControl(AdmissionConfig.builder().maxInFlight(1).block(Duration.ofSeconds(5)).build(), channel);
+            submit(SUT);
+            CompletableFuture<Object> second = submit(SUT);
+            assertThat(second).isCompletedExceptionally();
+        }
+    }
+
+    private CompletableFuture<Object> submit(AdmissionControl admissionControl) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        admissionControl.submit(future, sent::incrementAndGet);
+        return future;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.connection;
+
+import io.netty.util.Timeout;
+import org.apache.plc4x.java.api.exceptions.PlcTimeoutException;
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+class RequestTimerTest implements WithAssertions {
+
+    private final CompletableFuture<InternalPlcResponse> responseFuture = new CompletableFuture<>();
+
+    private final PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container =
+        new PlcRequestContainer<>(mock(InternalPlcRequest.class), responseFuture);
+
+    @Test
+    void withoutDeadlineNothingIsScheduled() {
+        assertThat(RequestTimer.schedule(container)).isNull();
+        assertThat(responseFuture).isNotDone();
+    }
+
+    @Test
+    void expiresAtDeadline() {
+        Timeout timeout = RequestTimer.schedule(container.withTimeout(Duration.ofMillis(10)));
+        assertThat(timeout).isNotNull();
+        assertThatThrownBy(() -> responseFuture.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(PlcTimeoutException.class);
+        assertThat(timeout.isExpired()).isTrue();
+    }
+
+    @Test
+    void alreadyExpired() {
+        assertThat(RequestTimer.schedule(container.withTimeout(Duration.ofNanos(-1)))).isNull();
+        assertThat(responseFuture).isCompletedExceptionally();
+    }
+
+    @Test
+    void cancelledOnCompletion() {
+        Timeout timeout = RequestTimer.schedule(container.withTimeout(Duration.ofMinutes(1)));
+        responseFuture.complete(mock(InternalPlcResponse.class));
+        assertThat(timeout.isCancelled()).isTrue();
+    }
+
+}
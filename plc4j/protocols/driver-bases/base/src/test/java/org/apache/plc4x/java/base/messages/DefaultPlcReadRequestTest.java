@@ -70,6 +70,14 @@ class DefaultPlcReadRequestTest {
         assertThat(fieldNames.iterator().next(), equalTo("foo"));
     }
 
+    @Test
+    void getFieldNamesIsShared() {
+        LinkedHashSet<String> fieldNames = SUT.getFieldNames();
+        assertThat(SUT.getFieldNames() == fieldNames, equalTo(true));
+        assertThrows(UnsupportedOperationException.class, () -> fieldNames.add("bar"));
+        assertThat(SUT.getFieldIndex().indexOf("foo"), equalTo(0));
+    }
+
     @Test
     void getField() {
         PlcField foo = SUT.getField("foo");
@@ -33,8 +33,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -111,6 +113,27 @@ class DefaultPlcReadResponseTest {
         assertThat(data, notNullValue());
     }
 
+    @Test
+    void positionalAccess() {
+        when(request.getFieldIndex()).thenReturn(FieldIndex.of(Arrays.asList("bar", "foo")));
+        assertThat(SUT.getFieldIndex("foo"), equalTo(1));
+        assertThat(SUT.getFieldIndex("hurz"), equalTo(-1));
+        assertThat(SUT.getFieldName(0), equalTo("bar"));
+        assertThat(SUT.getResponseCode(0), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThat(SUT.getResponseCode(1), equalTo(PlcResponseCode.OK));
+        assertThat(SUT.getByteArray(1), equalTo(SUT.getByteArray("foo")));
+        assertThat(SUT.getNumberOfValues(1), equalTo(1));
+        assertThrows(PlcRuntimeException.class, () -> SUT.getByteArray(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> SUT.getByteArray(2));
+    }
+
+    @Test
+    void positionalAccessWithoutIndex() {
+        when(request.getFieldNames()).thenReturn(new LinkedHashSet<>(Arrays.asList("foo", "bar")));
+        assertThat(SUT.getFieldIndex("foo"), equalTo(0));
+        assertThat(SUT.getResponseCode(1), equalTo(PlcResponseCode.NOT_FOUND));
+    }
+
     @Test
     void getAllByteArrays() {
         Collection<Byte[]> byteArrays = SUT.getAllByteArrays("foo");
@@ -0,0 +1,63 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.messages;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldIndexTest {
+
+    private final FieldIndex SUT = FieldIndex.of(Arrays.asList("foo", "bar", "baz"));
+
+    @Test
+    void positions() {
+        assertThat(SUT.size(), equalTo(3));
+        assertThat(SUT.indexOf("bar"), equalTo(1));
+        assertThat(SUT.indexOf("hurz"), equalTo(-1));
+        assertThat(SUT.getName(2), equalTo("baz"));
+        assertThrows(IndexOutOfBoundsException.class, () -> SUT.getName(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> SUT.getName(-1));
+    }
+
+    @Test
+    void names() {
+        LinkedHashSet<String> names = SUT.getNames();
+        assertThat(names, contains("foo", "bar", "baz"));
+        assertThat(SUT.getNames() == names, equalTo(true));
+        assertThrows(UnsupportedOperationException.class, () -> names.add("hurz"));
+        assertThrows(UnsupportedOperationException.class, () -> names.remove("foo"));
+        assertThrows(UnsupportedOperationException.class, () -> names.removeIf("foo"::equals));
+        assertThrows(UnsupportedOperationException.class, names::clear);
+    }
+
+    @Test
+    void empty() {
+        assertThat(FieldIndex.of(Collections.emptyList()).size(), equalTo(0));
+        assertThat(FieldIndex.of(null).getNames().isEmpty(), equalTo(true));
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultShortFieldItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LazyPlcReadResponseTest {
+
+    @Mock
+    private InternalPlcReadRequest request;
+
+    private final AtomicInteger decoded = new AtomicInteger();
+
+    private LazyPlcReadResponse SUT;
+
+    @BeforeEach
+    void setUp() {
+        Function<ByteBuf, BaseDefaultFieldItem> decoder = data -> {
+            decoded.incrementAndGet();
+            return new DefaultShortFieldItem(data.readShort());
+        };
+        Map<String, LazyPlcReadResponse.LazyField> fields = new HashMap<>();
+        fields.put("foo", new LazyPlcReadResponse.LazyField(PlcResponseCode.OK, Unpooled.wrappedBuffer(new byte[]{0x12, 0x34}), decoder));
+        fields.put("baz", new LazyPlcReadResponse.LazyField(PlcResponseCode.OK, Unpooled.wrappedBuffer(new byte[]{0x00, 0x2A}), decoder));
+        fields.put("bar", LazyPlcReadResponse.LazyField.failed(PlcResponseCode.NOT_FOUND));
+        SUT = new LazyPlcReadResponse(request, fields);
+    }
+
+    @Test
+    void decodesOnFirstAccessOnly() {
+        assertThat(decoded.get(), equalTo(0));
+        assertThat(SUT.getResponseCode("foo"), equalTo(PlcResponseCode.OK));
+        assertThat(decoded.get(), equalTo(0));
+
+        assertThat(SUT.getShort("foo"), equalTo((short) 0x1234));
+        assertThat(SUT.getShort("foo"), equalTo((short) 0x1234));
+        assertThat(decoded.get(), equalTo(1));
+        assertThat(SUT.isDecoded("foo"), equalTo(true));
+        assertThat(SUT.isDecoded("baz"), equalTo(false));
+    }
+
+    @Test
+    void getRawData() {
+        ByteBuf rawData = SUT.getRawData("foo");
+        assertThat(rawData.readableBytes(), equalTo(2));
+        assertThat(rawData.readShort(), equalTo((short) 0x1234));
+        // Reading the raw data neither decodes nor consumes it.
+        assertThat(SUT.getRawData("foo").readableBytes(), equalTo(2));
+        assertThat(SUT.getShort("foo"), equalTo((short) 0x1234));
+        assertThat(decoded.get(), equalTo(1));
+    }
+
+    @Test
+    void positionalAccess() {
+        when(request.getFieldIndex()).thenReturn(FieldIndex.of(Arrays.asList("bar", "baz", "foo")));
+        assertThat(SUT.getResponseCode(0), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThat(SUT.getRawData(2).readableBytes(), equalTo(2));
+        assertThat(decoded.get(), equalTo(0));
+        assertThat(SUT.getShort(1), equalTo((short) 42));
+        assertThat(decoded.get(), equalTo(1));
+        assertThrows(PlcRuntimeException.class, () -> SUT.getShort(0));
+    }
+
+    @Test
+    void getValues() {
+        assertThat(SUT.getValues().size(), equalTo(3));
+        assertThat(SUT.getValues().get("baz").getValue().getShort(0), equalTo((short) 42));
+        assertThat(decoded.get(), equalTo(1));
+        assertThat(SUT.getValues().get("bar").getKey(), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThat(SUT.getValues().get("bar").getValue(), nullValue());
+        assertThat(SUT.getValues().get("hurz"), nullValue());
+    }
+
+    @Test
+    void checkInvalidField() {
+        assertThrows(PlcInvalidFieldException.class, () -> SUT.getResponseCode("hurz"));
+        assertThrows(PlcInvalidFieldException.class, () -> SUT.getShort("hurz"));
+        assertThrows(PlcInvalidFieldException.class, () -> SUT.getRawData("hurz"));
+    }
+
+    @Test
+    void checkNonOkResponseCode() {
+        assertThat(SUT.getResponseCode("bar"), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThrows(PlcRuntimeException.class, () -> SUT.getShort("bar"));
+        assertThrows(PlcRuntimeException.class, () -> SUT.getRawData("bar"));
+    }
+
+}
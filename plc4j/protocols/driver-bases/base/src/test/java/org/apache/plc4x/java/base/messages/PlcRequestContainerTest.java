@@ -23,6 +23,7 @@ import org.hamcrest.core.IsEqual;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -74,6 +75,21 @@ public class PlcRequestContainerTest {
         assertEquals(SUT, SUT);
     }
 
+    @Test
+    public void deadline() {
+        assertFalse(SUT.hasDeadline());
+        assertThat(SUT.getRemainingNanos(), IsEqual.equalTo(Long.MAX_VALUE));
+
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> withDeadline = SUT.withTimeout(Duration.ofSeconds(10));
+        assertTrue(withDeadline.hasDeadline());
+        assertTrue(withDeadline.getRemainingNanos() > 0);
+        assertTrue(withDeadline.getRemainingNanos() <= TimeUnit.SECONDS.toNanos(10));
+        assertSame(plcRequest, withDeadline.getRequest());
+        assertSame(future, withDeadline.getResponseFuture());
+        // The deadline is not part of the identity.
+        assertEquals(SUT, withDeadline);
+    }
+
     @Test
     public void testToString() {
         SUT.toString();
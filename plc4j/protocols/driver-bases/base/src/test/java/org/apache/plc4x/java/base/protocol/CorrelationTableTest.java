@@ -0,0 +1,108 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.protocol;
+
+import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.mock;
+
+class CorrelationTableTest implements WithAssertions {
+
+    private final CorrelationTable SUT = new CorrelationTable(4);
+
+    @Test
+    void countDownToLastItem() throws Exception {
+        CorrelationTable.Parent parent = SUT.register(container(), 3);
+        assertThat(SUT.countPending()).isEqualTo(3);
+        SUT.markSent(parent.getCorrelationId(0));
+        assertThat(SUT.countSent()).isEqualTo(1);
+
+        assertThat(SUT.release(parent.getCorrelationId(0))).isSameAs(parent);
+        assertThat(parent.offer(mock(InternalPlcResponse.class))).isFalse();
+        assertThat(SUT.getParents()).containsExactly(parent);
+        assertThat(SUT.release(parent.getCorrelationId(1))).isSameAs(parent);
+        assertThat(parent.offer(mock(InternalPlcResponse.class))).isFalse();
+        assertThat(SUT.release(parent.getCorrelationId(2))).isSameAs(parent);
+        assertThat(parent.offer(mock(InternalPlcResponse.class))).isTrue();
+
+        assertThat(parent.getResponses()).hasSize(3).doesNotContainNull();
+        assertThat(SUT.countPending()).isZero();
+        assertThat(SUT.countSent()).isZero();
+        assertThat(SUT.getParents()).isEmpty();
+    }
+
+    @Test
+    void releaseOnlyOnce() throws Exception {
+        CorrelationTable.Parent parent = SUT.register(container(), 2);
+        int correlationId = parent.getCorrelationId(0);
+        assertThat(SUT.release(correlationId)).isSameAs(parent);
+        assertThat(SUT.release(correlationId)).isNull();
+        assertThat(SUT.releaseAll(parent)).isEqualTo(1);
+        assertThat(SUT.release(42)).isNull();
+    }
+
+    @Test
+    void staleCorrelationIdDoesNotReleaseReusedSlot() throws Exception {
+        CorrelationTable.Parent first = SUT.register(container(), 4);
+        int stale = first.getCorrelationId(0);
+        SUT.releaseAll(first);
+        CorrelationTable.Parent second = SUT.register(container(), 4);
+        assertThat(second.getCorrelationId(0)).isNotEqualTo(stale);
+        assertThat(SUT.release(stale)).isNull();
+        assertThat(SUT.countPending()).isEqualTo(4);
+    }
+
+    @Test
+    void skipsSlotsInUse() throws Exception {
+        CorrelationTable.Parent first = SUT.register(container(), 3);
+        SUT.release(first.getCorrelationId(1));
+        SUT.release(first.getCorrelationId(2));
+        // Id 4 maps to the slot still held by id 0, so it gets skipped.
+        CorrelationTable.Parent second = SUT.register(container(), 3);
+        assertThat(second.getCorrelationId(0)).isEqualTo(3);
+        assertThat(second.getCorrelationId(1)).isEqualTo(5);
+        assertThat(second.getCorrelationId(2)).isEqualTo(6);
+    }
+
+    @Test
+    void rejectsTooManyItems() throws Exception {
+        SUT.register(container(), 3);
+        assertThatThrownBy(() -> SUT.register(container(), 2)).isInstanceOf(PlcProtocolException.class);
+        // The items claimed before the failure got released again.
+        assertThat(SUT.countPending()).isEqualTo(3);
+    }
+
+    @Test
+    void closeOnlyOnce() {
+        CorrelationTable.Parent parent = new CorrelationTable.Parent(container(), 0);
+        assertThat(parent.close()).isTrue();
+        assertThat(parent.close()).isFalse();
+    }
+
+    private static PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container() {
+        return new PlcRequestContainer<>(mock(InternalPlcRequest.class), new CompletableFuture<>());
+    }
+}
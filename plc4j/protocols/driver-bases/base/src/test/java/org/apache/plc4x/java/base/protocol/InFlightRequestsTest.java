@@ -0,0 +1,75 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.base.protocol;
+
+import org.apache.plc4x.java.base.messages.InternalPlcRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Mockito.mock;
+
+class InFlightRequestsTest implements WithAssertions {
+
+    private final Map<Integer, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> requests = new ConcurrentHashMap<>();
+
+    @Test
+    void failedRequestIsForgotten() {
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = container();
+        InFlightRequests.correlate(requests, 1, container);
+        assertThat(requests).containsEntry(1, container);
+
+        container.getResponseFuture().completeExceptionally(new TimeoutException());
+
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void answeredRequestIsLeftToTheProtocol() {
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = container();
+        InFlightRequests.correlate(requests, 1, container);
+
+        container.getResponseFuture().complete(mock(InternalPlcResponse.class));
+
+        assertThat(requests).containsEntry(1, container);
+    }
+
+    @Test
+    void reusedKeyIsKept() {
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> first = container();
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> second = container();
+        InFlightRequests.correlate(requests, 1, first);
+        requests.remove(1);
+        InFlightRequests.correlate(requests, 1, second);
+
+        first.getResponseFuture().completeExceptionally(new TimeoutException());
+
+        assertThat(requests).containsEntry(1, second);
+    }
+
+    private static PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container() {
+        return new PlcRequestContainer<>(mock(InternalPlcRequest.class), new CompletableFuture<>());
+    }
+}
@@ -19,18 +19,21 @@
 
 package org.apache.plc4x.java.base.protocol;
 
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.PendingWriteQueue;
 import io.netty.util.HashedWheelTimer;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.exceptions.PlcTimeoutException;
 import org.apache.plc4x.java.api.messages.PlcFieldRequest;
 import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultByteFieldItem;
 import org.apache.plc4x.java.base.model.InternalPlcSubscriptionHandle;
 import org.apache.plc4x.java.base.model.SubscriptionPlcField;
 import org.assertj.core.api.WithAssertions;
@@ -48,6 +51,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -448,6 +452,75 @@ class SingleItemToSingleRequestProtocolTest implements WithAssertions {
                 );
             }
 
+            @Test
+            void expiredRead() throws Exception {
+                // Given
+                // we have a read with a deadline, enforced upstream
+                CompletableFuture<InternalPlcResponse> responseFuture = new CompletableFuture<>();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                PlcRequestContainer<?, ?> msg = new PlcRequestContainer<>(TestDefaultPlcReadRequest.build(mockReader), responseFuture, deadline);
+                // When
+                // we write this
+                SUT.write(channelHandlerContext, msg, channelPromise);
+                verify(channelHandlerContext, times(5)).write(plcRequestContainerArgumentCaptor.capture(), any());
+                List<PlcRequestContainer> capturedDownstreamContainers = plcRequestContainerArgumentCaptor.getAllValues();
+                assertThat(capturedDownstreamContainers).allMatch(container -> container.hasDeadline() && container.getDeadline() == deadline);
+                // And
+                // the deadline passes before anyone responded
+                responseFuture.completeExceptionally(new PlcTimeoutException(0));
+                // Then
+                // all items should fail so the protocols below can forget them
+                assertThat(capturedDownstreamContainers).allMatch(container -> container.getResponseFuture().isCompletedExceptionally());
+                // And we should have no memory leak
+                assertThat(SUT.getStatistics()).containsOnly(
+                    entry("queue", 0),
+                    entry("sentButUnacknowledgedSubContainer", 0),
+                    entry("correlationToParentContainer", 0),
+                    entry("containerCorrelationIdMap", 0),
+                    entry("responsesToBeDelivered", 0),
+                    entry("correlationIdGenerator", 5),
+                    entry("deliveredItems", 0L),
+                    entry("erroredItems", 5L),
+                    entry("deliveredContainers", 0L),
+                    entry("erroredContainers", 1L)
+                );
+            }
+
+            @Test
+            @SuppressWarnings("unchecked")
+            void lazyRead() throws Exception {
+                // Given
+                // we have a simple read
+                CompletableFuture<InternalPlcResponse> responseFuture = new CompletableFuture<>();
+                PlcRequestContainer<?, ?> msg = new PlcRequestContainer<>(TestDefaultPlcReadRequest.build(mockReader), responseFuture);
+                // When
+                // we write this
+                SUT.write(channelHandlerContext, msg, channelPromise);
+                // And
+                // and all items get responded lazily
+                verify(channelHandlerContext, times(5)).write(plcRequestContainerArgumentCaptor.capture(), any());
+                AtomicInteger decoded = new AtomicInteger();
+                for (PlcRequestContainer container : plcRequestContainerArgumentCaptor.getAllValues()) {
+                    InternalPlcReadRequest request = (InternalPlcReadRequest) container.getRequest();
+                    Map<String, LazyPlcReadResponse.LazyField> responseFields = new HashMap<>();
+                    responseFields.put(request.getFieldNames().iterator().next(), new LazyPlcReadResponse.LazyField(
+                        PlcResponseCode.OK, Unpooled.wrappedBuffer(new byte[]{0x2A}), data -> {
+                        decoded.incrementAndGet();
+                        return new DefaultByteFieldItem(data.readByte());
+                    }));
+                    container.getResponseFuture().complete(new LazyPlcReadResponse(request, responseFields));
+                }
+                // Then
+                // the merged response should still be lazy
+                InternalPlcResponse response = responseFuture.get(1, TimeUnit.SECONDS);
+                assertThat(response).isInstanceOf(LazyPlcReadResponse.class);
+                LazyPlcReadResponse lazyResponse = (LazyPlcReadResponse) response;
+                assertThat(lazyResponse.getLazyFields()).hasSize(5);
+                String fieldName = lazyResponse.getFieldNames().iterator().next();
+                assertThat(lazyResponse.getByte(fieldName)).isEqualTo((byte) 42);
+                assertThat(decoded).hasValue(1);
+            }
+
             @SuppressWarnings("unchecked")
             private Void produceReadResponse(PlcRequestContainer plcRequestContainer) {
                 InternalPlcReadRequest request = (InternalPlcReadRequest) plcRequestContainer.getRequest();
@@ -42,6 +42,7 @@ import org.apache.plc4x.java.base.events.ConnectedEvent;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
 import org.apache.plc4x.java.base.messages.items.DefaultLongFieldItem;
+import org.apache.plc4x.java.base.protocol.InFlightRequests;
 import org.apache.plc4x.java.ethernetip.model.EtherNetIpField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -196,7 +197,8 @@ public class Plc4XEtherNetIpProtocol extends MessageToMessageCodec<EnipPacket, P
                 new UnconnectedDataItemRequest(service::encodeRequest)
             )));
 
-            requestsMap.put(packet.getSenderContext(), msg);
+            long senderContext = packet.getSenderContext();
+            InFlightRequests.correlate(requestsMap, senderContext, msg);
 
             out.add(packet);
         }
@@ -430,7 +432,7 @@ public class Plc4XEtherNetIpProtocol extends MessageToMessageCodec<EnipPacket, P
     private void handleSendRRDataResponse(ChannelHandlerContext ctx, EnipPacket msg) {
         // This is where the typical request/response stuff is handled.
         long senderContext = msg.getSenderContext();
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> plcRequestContainer = requestsMap.get(senderContext);
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> plcRequestContainer = requestsMap.remove(senderContext);
         if (plcRequestContainer == null) {
             ctx.channel().pipeline().fireExceptionCaught(
                 new PlcProtocolException("Unrelated payload received for message " + msg));
@@ -0,0 +1,83 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.ethernetip.netty;
+
+import com.digitalpetri.enip.EnipPacket;
+import org.apache.plc4x.java.base.messages.*;
+import org.apache.plc4x.java.ethernetip.netty.util.EnipPlcFieldHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class Plc4XEtherNetIpProtocolTest {
+
+    private Plc4XEtherNetIpProtocol SUT;
+
+    @Before
+    public void setUp() {
+        SUT = new Plc4XEtherNetIpProtocol();
+    }
+
+    @Test
+    public void encodeReadRequest() throws Exception {
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = readRequest();
+        List<Object> out = new ArrayList<>();
+        SUT.encode(null, container, out);
+
+        assertThat(out, hasSize(1));
+        assertThat(out.get(0), instanceOf(EnipPacket.class));
+        assertThat(requestsMap(), hasEntry(((EnipPacket) out.get(0)).getSenderContext(), container));
+    }
+
+    @Test
+    public void failedRequestIsForgotten() throws Exception {
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container = readRequest();
+        SUT.encode(null, container, new ArrayList<>());
+        assertThat(requestsMap().keySet(), hasSize(1));
+
+        container.getResponseFuture().completeExceptionally(new TimeoutException());
+
+        assertThat(requestsMap().keySet(), empty());
+    }
+
+    private static PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> readRequest() {
+        InternalPlcRequest request = (InternalPlcRequest) new DefaultPlcReadRequest.Builder(mock(PlcReader.class), new EnipPlcFieldHandler())
+            .addItem("foo", "#4#100#3")
+            .build();
+        return new PlcRequestContainer<>(request, new CompletableFuture<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>> requestsMap() throws Exception {
+        Field requestsMapField = SUT.getClass().getDeclaredField("requestsMap");
+        requestsMapField.setAccessible(true);
+        return (Map<Long, PlcRequestContainer<InternalPlcRequest, InternalPlcResponse>>) requestsMapField.get(SUT);
+    }
+
+}
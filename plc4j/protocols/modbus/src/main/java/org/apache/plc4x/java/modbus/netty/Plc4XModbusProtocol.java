@@ -40,6 +40,7 @@ import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
 import org.apache.plc4x.java.base.messages.items.DefaultBooleanFieldItem;
+import org.apache.plc4x.java.base.protocol.InFlightRequests;
 import org.apache.plc4x.java.modbus.messages.items.DefaultModbusByteArrayFieldItem;
 import org.apache.plc4x.java.modbus.model.*;
 import org.slf4j.Logger;
@@ -162,7 +163,7 @@ public class Plc4XModbusProtocol extends MessageToMessageCodec<ModbusTcpPayload,
             throw new PlcProtocolException("Unsupported field type " + field.getClass() + " for a write request.");
         }
         short transactionId = (short) this.transactionId.getAndIncrement();
-        requestsMap.put(transactionId, msg);
+        InFlightRequests.correlate(requestsMap, transactionId, msg);
         out.add(new ModbusTcpPayload(transactionId, unitId, modbusRequest));
     }
 
@@ -201,7 +202,7 @@ public class Plc4XModbusProtocol extends MessageToMessageCodec<ModbusTcpPayload,
             throw new PlcProtocolException("Unsupported field type " + field.getClass() + " for a read request.");
         }
         short transactionId = (short) this.transactionId.getAndIncrement();
-        requestsMap.put(transactionId, msg);
+        InFlightRequests.correlate(requestsMap, transactionId, msg);
         out.add(new ModbusTcpPayload(transactionId, unitId, modbusRequest));
     }
 
@@ -212,7 +213,7 @@ public class Plc4XModbusProtocol extends MessageToMessageCodec<ModbusTcpPayload,
         LOGGER.debug("{}: transactionId: {}, unitId: {}, modbusPdu:{}", msg, msg.getTransactionId(), msg.getUnitId(), msg.getModbusPdu());
         // TODO: implement me
         short transactionId = msg.getTransactionId();
-        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> plcRequestContainer = requestsMap.get(transactionId);
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> plcRequestContainer = requestsMap.remove(transactionId);
         if (plcRequestContainer == null) {
             throw new PlcProtocolException("Unrelated payload received. [transactionId: " + msg.getTransactionId() + ", unitId: " + msg.getUnitId() + ", modbusPdu: " + msg.getModbusPdu() + "]");
         }
@@ -44,6 +44,7 @@ import java.lang.reflect.Modifier;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -412,6 +413,27 @@ public class Plc4XModbusProtocolTest {
         }
     }
 
+    @Test
+    public void failedRequestIsForgotten() throws Exception {
+        assumeThat(payloadClazzName + " not yet implemented", notYetSupportedDataType, not(hasItem(payloadClazzName)));
+        // The parameters are shared by all tests, so this one needs a container that didn't complete yet.
+        PlcRequestContainer<InternalPlcRequest, InternalPlcResponse> container =
+            new PlcRequestContainer<>(plcRequestContainer.getRequest(), new CompletableFuture<>());
+        ArrayList<Object> out = new ArrayList<>();
+        SUT.encode(null, container, out);
+        assertThat(requestsMap().keySet(), hasSize(1));
+
+        container.getResponseFuture().completeExceptionally(new TimeoutException());
+
+        assertThat(requestsMap().keySet(), empty());
+    }
+
+    private Map<?, ?> requestsMap() throws Exception {
+        Field requestsMapField = SUT.getClass().getDeclaredField("requestsMap");
+        requestsMapField.setAccessible(true);
+        return (Map<?, ?>) requestsMapField.get(SUT);
+    }
+
     private void syncInvoiceId() throws Exception {
         Field transactionId = SUT.getClass().getDeclaredField("transactionId");
         transactionId.setAccessible(true);
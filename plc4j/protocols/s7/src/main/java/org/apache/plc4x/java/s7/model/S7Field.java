@@ -23,6 +23,7 @@ import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.s7.netty.model.types.MemoryArea;
 import org.apache.plc4x.java.s7.netty.model.types.TransportSize;
 
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,7 +49,7 @@ public class S7Field implements PlcField {
     private final short bitOffset;
     private final int numElements;
 
-    private S7Field(TransportSize dataType, MemoryArea memoryArea, short blockNumber, short byteOffset, short bitOffset, int numElements) {
+    S7Field(TransportSize dataType, MemoryArea memoryArea, short blockNumber, short byteOffset, short bitOffset, int numElements) {
         this.dataType = dataType;
         this.memoryArea = memoryArea;
         this.blockNumber = blockNumber;
@@ -81,6 +82,28 @@ public class S7Field implements PlcField {
         return numElements;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof S7Field)) {
+            return false;
+        }
+        S7Field that = (S7Field) o;
+        return blockNumber == that.blockNumber &&
+            byteOffset == that.byteOffset &&
+            bitOffset == that.bitOffset &&
+            numElements == that.numElements &&
+            dataType == that.dataType &&
+            memoryArea == that.memoryArea;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataType, memoryArea, blockNumber, byteOffset, bitOffset, numElements);
+    }
+
     public static boolean matches(String fieldString) {
         return DATA_BLOCK_ADDRESS_PATTERN.matcher(fieldString).matches() ||
             ADDRESS_PATTERN.matcher(fieldString).matches();
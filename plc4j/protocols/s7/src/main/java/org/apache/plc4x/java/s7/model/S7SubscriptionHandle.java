@@ -0,0 +1,87 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.model;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.plc4x.java.base.messages.PlcSubscriber;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.model.DefaultPlcSubscriptionHandle;
+
+import java.util.function.Function;
+
+/**
+ * Handle of one item of a cyclic data subscription. All items subscribed with the same request share the job id the
+ * remote assigned to it and are identified by their position within the job.
+ */
+public class S7SubscriptionHandle extends DefaultPlcSubscriptionHandle {
+
+    private final String plcFieldName;
+
+    private final S7Field field;
+
+    private final byte jobId;
+
+    private final int itemIndex;
+
+    private final Function<ByteBuf, BaseDefaultFieldItem> decoder;
+
+    public S7SubscriptionHandle(PlcSubscriber plcSubscriber, String plcFieldName, S7Field field, byte jobId,
+                                int itemIndex, Function<ByteBuf, BaseDefaultFieldItem> decoder) {
+        super(plcSubscriber);
+        this.plcFieldName = plcFieldName;
+        this.field = field;
+        this.jobId = jobId;
+        this.itemIndex = itemIndex;
+        this.decoder = decoder;
+    }
+
+    public String getPlcFieldName() {
+        return plcFieldName;
+    }
+
+    public S7Field getField() {
+        return field;
+    }
+
+    public byte getJobId() {
+        return jobId;
+    }
+
+    public int getItemIndex() {
+        return itemIndex;
+    }
+
+    /**
+     * Decodes the raw value of this item as pushed by the remote.
+     */
+    public BaseDefaultFieldItem decode(ByteBuf data) {
+        return decoder.apply(data);
+    }
+
+    @Override
+    public String toString() {
+        return "S7SubscriptionHandle{" +
+            "plcFieldName='" + plcFieldName + '\'' +
+            ", field=" + field +
+            ", jobId=" + jobId +
+            ", itemIndex=" + itemIndex +
+            "} " + super.toString();
+    }
+
+}
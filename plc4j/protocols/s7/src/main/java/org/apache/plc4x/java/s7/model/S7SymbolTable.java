@@ -0,0 +1,130 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.model;
+
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * The tags of a PLC program and the addresses they are located at, indexed by name. Lets {@link S7SymbolicField}s be
+ * resolved to {@link S7Field}s locally, so symbolic fields cost a single lookup once resolved.
+ * <p>
+ * A table belongs to one version of the PLC program and has to be replaced as soon as the program changes, as the
+ * tags might have moved.
+ */
+public class S7SymbolTable {
+
+    private final String version;
+
+    // By normalized name, see S7SymbolicField#key.
+    private final Map<String, S7Field> symbols;
+
+    private S7SymbolTable(String version, Map<String, S7Field> symbols) {
+        this.version = version;
+        this.symbols = symbols;
+    }
+
+    public static S7SymbolTable of(String version, Map<String, S7Field> symbols) {
+        Map<String, S7Field> index = new HashMap<>(symbols.size() * 4 / 3 + 1);
+        symbols.forEach((name, field) -> index.put(S7SymbolicField.key(name), Objects.requireNonNull(field)));
+        return new S7SymbolTable(Objects.requireNonNull(version), index);
+    }
+
+    /**
+     * Reads a table with one tag per line, name and address separated by a semicolon:
+     * <pre>
+     * # Comment
+     * "Tank".Level;%DB1.DBD4:REAL
+     * Motor_On;%Q0.0:BOOL
+     * </pre>
+     *
+     * @param version the program version the tags belong to.
+     * @param reader  the lines of the table, not closed by this method.
+     * @throws PlcRuntimeException if a line is malformed.
+     * @throws IOException         if reading fails.
+     */
+    public static S7SymbolTable parse(String version, Reader reader) throws IOException {
+        Map<String, S7Field> symbols = new LinkedHashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.lastIndexOf(';');
+            if (separator <= 0) {
+                throw new PlcRuntimeException("Expected name;address in line " + lineNumber + " but got " + line);
+            }
+            String address = line.substring(separator + 1).trim();
+            if (!S7Field.matches(address)) {
+                throw new PlcRuntimeException("Invalid address " + address + " in line " + lineNumber);
+            }
+            symbols.put(line.substring(0, separator).trim(), S7Field.of(address));
+        }
+        return of(version, symbols);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    public Optional<S7Field> getSymbol(String name) {
+        return Optional.ofNullable(symbols.get(S7SymbolicField.key(name)));
+    }
+
+    /**
+     * @return the field addressing the tag of the given field or {@code null} if the table doesn't contain the tag.
+     * @throws PlcInvalidFieldException if the tag is of another data type than the field.
+     */
+    public S7Field resolve(S7SymbolicField symbolicField) {
+        S7Field field = symbols.get(symbolicField.getKey());
+        if (field == null) {
+            return null;
+        }
+        if (field.getDataType() != symbolicField.getDataType()) {
+            throw new PlcInvalidFieldException("Tag " + symbolicField.getSymbol() + " is of type " +
+                field.getDataType() + ", not " + symbolicField.getDataType());
+        }
+        if (field.getNumElements() == symbolicField.getNumElements()) {
+            return field;
+        }
+        return new S7Field(field.getDataType(), field.getMemoryArea(), field.getBlockNumber(), field.getByteOffset(),
+            field.getBitOffset(), symbolicField.getNumElements());
+    }
+
+    @Override
+    public String toString() {
+        return "S7SymbolTable{" +
+            "version='" + version + '\'' +
+            ", symbols=" + symbols.size() +
+            '}';
+    }
+}
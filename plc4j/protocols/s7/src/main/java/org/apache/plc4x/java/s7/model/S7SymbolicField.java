@@ -0,0 +1,135 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.model;
+
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.s7.netty.model.types.TransportSize;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A field addressed by the name of a tag instead of its address, e.g. {@code "Tank".Level:REAL}. Before it can be
+ * read or written it has to be resolved to a {@link S7Field} by a {@link S7SymbolTable}.
+ * <p>
+ * The data type is part of the field, so values can be encoded before the field is resolved.
+ * <p>
+ * Only tags with an absolute address can be resolved. Tags in data blocks with optimized access, the default of
+ * S7-1200/1500, have none and would need S7comm-plus, which is out of scope.
+ */
+public class S7SymbolicField implements PlcField {
+
+    // Names are either plain identifiers or quoted, separated by dots and optionally followed by array indexes.
+    private static final Pattern SYMBOLIC_ADDRESS_PATTERN =
+        Pattern.compile("^(?<symbol>(\"[^\"]+\"|[a-zA-Z_]\\w*)(\\.(\"[^\"]+\"|[a-zA-Z_]\\w*)|\\[\\d+(,\\d+)*])*):(?<dataType>[a-zA-Z_]+)(\\[(?<numElements>\\d+)])?");
+
+    private static final String SYMBOL = "symbol";
+    private static final String DATA_TYPE = "dataType";
+    private static final String NUM_ELEMENTS = "numElements";
+
+    private final String symbol;
+    private final TransportSize dataType;
+    private final int numElements;
+
+    // Quotes are optional and names are case insensitive.
+    private final String key;
+
+    private S7SymbolicField(String symbol, TransportSize dataType, int numElements) {
+        this.symbol = symbol;
+        this.dataType = dataType;
+        this.numElements = numElements;
+        this.key = key(symbol);
+    }
+
+    public static boolean matches(String fieldString) {
+        return SYMBOLIC_ADDRESS_PATTERN.matcher(fieldString).matches();
+    }
+
+    public static S7SymbolicField of(String fieldString) {
+        Matcher matcher = SYMBOLIC_ADDRESS_PATTERN.matcher(fieldString);
+        if (!matcher.matches()) {
+            throw new PlcInvalidFieldException("Unable to parse symbolic address: " + fieldString);
+        }
+        TransportSize dataType;
+        try {
+            dataType = TransportSize.valueOf(matcher.group(DATA_TYPE));
+        } catch (IllegalArgumentException e) {
+            throw new PlcInvalidFieldException("Unknown data type in symbolic address: " + fieldString);
+        }
+        int numElements = 1;
+        if (matcher.group(NUM_ELEMENTS) != null) {
+            numElements = Integer.parseInt(matcher.group(NUM_ELEMENTS));
+        }
+        return new S7SymbolicField(matcher.group(SYMBOL), dataType, numElements);
+    }
+
+    /**
+     * @return the normalized form of a tag name, as used to look it up in a {@link S7SymbolTable}.
+     */
+    static String key(String symbol) {
+        return symbol.replace("\"", "").toUpperCase(Locale.ROOT);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TransportSize getDataType() {
+        return dataType;
+    }
+
+    public int getNumElements() {
+        return numElements;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof S7SymbolicField)) {
+            return false;
+        }
+        S7SymbolicField that = (S7SymbolicField) o;
+        return numElements == that.numElements &&
+            dataType == that.dataType &&
+            key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, dataType, numElements);
+    }
+
+    @Override
+    public String toString() {
+        return "S7SymbolicField{" +
+            "symbol='" + symbol + '\'' +
+            ", dataType=" + dataType +
+            ", numElements=" + numElements +
+            '}';
+    }
+}
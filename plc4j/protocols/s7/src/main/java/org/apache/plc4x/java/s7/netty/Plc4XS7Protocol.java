@@ -27,21 +27,36 @@ import org.apache.plc4x.java.api.exceptions.*;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
 import org.apache.plc4x.java.api.messages.PlcRequest;
 import org.apache.plc4x.java.api.messages.PlcResponse;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcUnsubscriptionRequest;
 import org.apache.plc4x.java.api.messages.PlcWriteRequest;
 import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.model.PlcSubscriptionHandle;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.api.types.PlcSubscriptionType;
 import org.apache.plc4x.java.base.PlcMessageToMessageCodec;
 import org.apache.plc4x.java.base.events.ConnectedEvent;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.base.messages.items.*;
+import org.apache.plc4x.java.base.model.InternalPlcSubscriptionHandle;
+import org.apache.plc4x.java.base.model.SubscriptionPlcField;
+import org.apache.plc4x.java.base.protocol.InFlightRequests;
 import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SubscriptionHandle;
+import org.apache.plc4x.java.s7.model.S7SymbolicField;
 import org.apache.plc4x.java.s7.netty.events.S7ConnectedEvent;
 import org.apache.plc4x.java.s7.netty.model.messages.S7Message;
 import org.apache.plc4x.java.s7.netty.model.messages.S7RequestMessage;
 import org.apache.plc4x.java.s7.netty.model.messages.S7ResponseMessage;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesPushParameter;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesRequestParameter;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesResponseParameter;
 import org.apache.plc4x.java.s7.netty.model.params.VarParameter;
 import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.params.items.VarParameterItem;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicDataPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicSubscriptionRequestPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicUnsubscriptionRequestPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.VarPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
 import org.apache.plc4x.java.s7.netty.model.types.*;
@@ -51,7 +66,9 @@ import java.lang.reflect.Array;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -65,6 +82,9 @@ import java.util.stream.IntStream;
  * <p>
  * When a {@link S7ResponseMessage} is received it takes the existing request container from its Map and finishes
  * the {@link PlcRequestContainer}s future with the {@link PlcResponse}.
+ * <p>
+ * Subscriptions use the cyclic data service of the S7: the remote pushes the values of all fields of a subscription
+ * request at a fixed interval, the pushed values are handed to a {@link S7CyclicDataDispatcher}.
  */
 public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequestContainer> {
 
@@ -72,8 +92,39 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
 
     private Map<Short, PlcRequestContainer> requests;
 
+    // Used if a subscription field doesn't specify an interval.
+    private static final Duration DEFAULT_CYCLIC_INTERVAL = Duration.ofSeconds(1);
+
+    private final boolean lazyDecoding;
+
+    private final PlcSubscriber plcSubscriber;
+
+    private final S7CyclicDataDispatcher cyclicDataDispatcher;
+
     public Plc4XS7Protocol() {
-        this.requests = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * @param lazyDecoding if set, read responses are {@link LazyPlcReadResponse}s which decode a field only when it
+     *                     is accessed.
+     */
+    public Plc4XS7Protocol(boolean lazyDecoding) {
+        this(lazyDecoding, null, null);
+    }
+
+    /**
+     * @param lazyDecoding         if set, read responses are {@link LazyPlcReadResponse}s which decode a field only
+     *                             when it is accessed.
+     * @param plcSubscriber        the subscriber the handles of subscriptions are bound to.
+     * @param cyclicDataDispatcher receives the values pushed for subscriptions, if {@code null} subscriptions aren't
+     *                             supported.
+     */
+    public Plc4XS7Protocol(boolean lazyDecoding, PlcSubscriber plcSubscriber, S7CyclicDataDispatcher cyclicDataDispatcher) {
+        this.requests = new ConcurrentHashMap<>();
+        this.lazyDecoding = lazyDecoding;
+        this.plcSubscriber = plcSubscriber;
+        this.cyclicDataDispatcher = cyclicDataDispatcher;
     }
 
     /**
@@ -145,6 +196,12 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
             encodeReadRequest(msg, out);
         } else if (request instanceof PlcWriteRequest) {
             encodeWriteRequest(msg, out);
+        } else if (request instanceof PlcSubscriptionRequest) {
+            encodeSubscriptionRequest(msg, out);
+        } else if (request instanceof PlcUnsubscriptionRequest) {
+            encodeUnsubscriptionRequest(msg, out);
+        } else if (request instanceof PlcProprietaryRequest) {
+            encodeProprietaryRequest(msg, out);
         }
     }
 
@@ -154,10 +211,7 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
         PlcReadRequest readRequest = (PlcReadRequest) msg.getRequest();
         for (String fieldName : readRequest.getFieldNames()) {
             PlcField field = readRequest.getField(fieldName);
-            if (!(field instanceof S7Field)) {
-                throw new PlcProtocolException("The field should have been of type S7Field");
-            }
-            S7Field s7Field = (S7Field) field;
+            S7Field s7Field = toS7Field(field);
 
             VarParameterItem varParameterItem = new S7AnyVarParameterItem(
                 SpecificationType.VARIABLE_SPECIFICATION, s7Field.getMemoryArea(),
@@ -172,7 +226,7 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
             (short) tpduGenerator.getAndIncrement(), Collections.singletonList(readVarParameter),
             Collections.emptyList(), msg);
 
-        requests.put(s7ReadRequest.getTpduReference(), msg);
+        InFlightRequests.correlate(requests, s7ReadRequest.getTpduReference(), msg);
 
         out.add(s7ReadRequest);
     }
@@ -184,10 +238,7 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
         PlcWriteRequest writeRequest = (PlcWriteRequest) msg.getRequest();
         for (String fieldName : writeRequest.getFieldNames()) {
             PlcField field = writeRequest.getField(fieldName);
-            if (!(field instanceof S7Field)) {
-                throw new PlcException("The field should have been of type S7Field");
-            }
-            S7Field s7Field = (S7Field) field;
+            S7Field s7Field = toS7Field(field);
             if(!(writeRequest instanceof DefaultPlcWriteRequest)) {
                 throw new PlcException("The writeRequest should have been of type DefaultPlcWriteRequest");
             }
@@ -290,11 +341,122 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
             (short) tpduGenerator.getAndIncrement(), Collections.singletonList(writeVarParameter),
             Collections.singletonList(writeVarPayload), msg);
 
-        requests.put(s7WriteRequest.getTpduReference(), msg);
+        InFlightRequests.correlate(requests, s7WriteRequest.getTpduReference(), msg);
 
         out.add(s7WriteRequest);
     }
 
+    private S7Field toS7Field(PlcField field) throws PlcProtocolException {
+        if (field instanceof S7Field) {
+            return (S7Field) field;
+        }
+        if (field instanceof S7SymbolicField) {
+            // Resolved by the connection, the request it sends carries the resolved fields.
+            throw new PlcProtocolException("Symbolic field " + ((S7SymbolicField) field).getSymbol() + " hasn't been resolved");
+        }
+        throw new PlcProtocolException("The field should have been of type S7Field");
+    }
+
+    private void encodeSubscriptionRequest(PlcRequestContainer msg, List<Object> out) throws PlcException {
+        if (cyclicDataDispatcher == null) {
+            throw new PlcProtocolException("Subscriptions are not supported by this connection");
+        }
+        InternalPlcSubscriptionRequest subscriptionRequest = (InternalPlcSubscriptionRequest) msg.getRequest();
+
+        // One cyclic job pushes all of its items at the same interval.
+        Duration interval = null;
+        List<S7AnyVarParameterItem> items = new LinkedList<>();
+        for (SubscriptionPlcField subscriptionField : subscriptionRequest.getSubscriptionFields()) {
+            if (subscriptionField.getPlcSubscriptionType() != PlcSubscriptionType.CYCLIC) {
+                throw new PlcProtocolException("S7 only supports cyclic subscriptions, not " +
+                    subscriptionField.getPlcSubscriptionType());
+            }
+            Duration fieldInterval = subscriptionField.getDuration().orElse(DEFAULT_CYCLIC_INTERVAL);
+            if (interval == null) {
+                interval = fieldInterval;
+            } else if (!interval.equals(fieldInterval)) {
+                throw new PlcProtocolException("All fields of a S7 subscription have to use the same interval");
+            }
+            PlcField field = subscriptionField.getPlcField();
+            S7Field s7Field = toS7Field(field);
+
+            items.add(new S7AnyVarParameterItem(
+                SpecificationType.VARIABLE_SPECIFICATION, s7Field.getMemoryArea(),
+                s7Field.getDataType(),
+                s7Field.getNumElements(), s7Field.getBlockNumber(), s7Field.getByteOffset(), (byte) s7Field.getBitOffset()));
+        }
+        if (interval == null) {
+            throw new PlcProtocolException("A subscription needs at least one field");
+        }
+        if (!CyclicTimeBase.isSupported(interval)) {
+            throw new PlcProtocolException("S7 subscriptions need an interval between " +
+                CyclicTimeBase.getMinInterval() + " and " + CyclicTimeBase.getMaxInterval() + ", not " + interval);
+        }
+        CyclicTimeBase timeBase = CyclicTimeBase.forInterval(interval);
+
+        // Assemble the request.
+        S7RequestMessage s7SubscriptionRequest = new S7RequestMessage(MessageType.USER_DATA,
+            (short) tpduGenerator.getAndIncrement(),
+            Collections.singletonList(new CpuServicesRequestParameter(
+                CpuServicesParameterFunctionGroup.CYCLIC_SERVICES,
+                CpuServicesParameterSubFunctionGroup.CYCLIC_MEMORY, (byte) 0)),
+            Collections.singletonList(new CyclicSubscriptionRequestPayload(timeBase, timeBase.getFactor(interval), items)),
+            msg);
+
+        InFlightRequests.correlate(requests, s7SubscriptionRequest.getTpduReference(), msg);
+
+        out.add(s7SubscriptionRequest);
+    }
+
+    private void encodeUnsubscriptionRequest(PlcRequestContainer msg, List<Object> out) throws PlcException {
+        InternalPlcUnsubscriptionRequest unsubscriptionRequest = (InternalPlcUnsubscriptionRequest) msg.getRequest();
+
+        // The remote can only cancel a job as a whole.
+        Set<Byte> jobIds = new HashSet<>();
+        for (InternalPlcSubscriptionHandle handle : unsubscriptionRequest.getInternalPlcSubscriptionHandles()) {
+            if (!(handle instanceof S7SubscriptionHandle)) {
+                throw new PlcProtocolException("The handle should have been of type S7SubscriptionHandle");
+            }
+            jobIds.add(((S7SubscriptionHandle) handle).getJobId());
+        }
+        if (jobIds.size() != 1) {
+            throw new PlcProtocolException("A S7 unsubscription has to cancel exactly one job, not " + jobIds.size());
+        }
+
+        // Assemble the request.
+        S7RequestMessage s7UnsubscriptionRequest = new S7RequestMessage(MessageType.USER_DATA,
+            (short) tpduGenerator.getAndIncrement(),
+            Collections.singletonList(new CpuServicesRequestParameter(
+                CpuServicesParameterFunctionGroup.CYCLIC_SERVICES,
+                CpuServicesParameterSubFunctionGroup.CYCLIC_UNSUBSCRIBE, (byte) 0)),
+            Collections.singletonList(new CyclicUnsubscriptionRequestPayload(jobIds.iterator().next())),
+            msg);
+
+        InFlightRequests.correlate(requests, s7UnsubscriptionRequest.getTpduReference(), msg);
+
+        out.add(s7UnsubscriptionRequest);
+    }
+
+    /**
+     * Sends a S7 message the connection assembled itself, e.g. to read a partial list of the system status list. The
+     * response is passed back as it is.
+     */
+    private void encodeProprietaryRequest(PlcRequestContainer msg, List<Object> out) throws PlcException {
+        Object proprietaryRequest = ((PlcProprietaryRequest) msg.getRequest()).getProprietaryRequest();
+        if (!(proprietaryRequest instanceof S7RequestMessage)) {
+            throw new PlcProtocolException("Unsupported proprietary type for this driver " + proprietaryRequest.getClass());
+        }
+        S7RequestMessage message = (S7RequestMessage) proprietaryRequest;
+
+        // Like every other request it needs its own tpdu reference to be correlated.
+        S7RequestMessage s7Request = new S7RequestMessage(message.getMessageType(),
+            (short) tpduGenerator.getAndIncrement(), message.getParameters(), message.getPayloads(), msg);
+
+        InFlightRequests.correlate(requests, s7Request.getTpduReference(), msg);
+
+        out.add(s7Request);
+    }
+
     byte[] encodeWriteRequestBitField(BaseDefaultFieldItem fieldItem) {
         int numBytes = fieldItem.getNumberOfValues() >> 3 / 8;
         byte[] byteData = new byte[numBytes];
@@ -388,8 +550,13 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
     @SuppressWarnings("unchecked")
     @Override
     protected void decode(ChannelHandlerContext ctx, S7Message msg, List<Object> out) throws PlcException {
-        // We're currently just expecting responses.
+        // Apart from responses, the remote only sends the values of cyclic data subscriptions.
         if (!(msg instanceof S7ResponseMessage)) {
+            Optional<CpuServicesPushParameter> pushParameter = msg.getParameter(CpuServicesPushParameter.class);
+            Optional<CyclicDataPayload> cyclicDataPayload = msg.getPayload(CyclicDataPayload.class);
+            if ((cyclicDataDispatcher != null) && pushParameter.isPresent() && cyclicDataPayload.isPresent()) {
+                cyclicDataDispatcher.dispatch(pushParameter.get().getSequenceNumber(), cyclicDataPayload.get());
+            }
             return;
         }
         S7ResponseMessage responseMessage = (S7ResponseMessage) msg;
@@ -405,6 +572,12 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
                 response = decodeReadResponse(responseMessage, requestContainer);
             } else if (request instanceof PlcWriteRequest) {
                 response = decodeWriteResponse(responseMessage, requestContainer);
+            } else if (request instanceof PlcSubscriptionRequest) {
+                response = decodeSubscriptionResponse(responseMessage, requestContainer);
+            } else if (request instanceof PlcUnsubscriptionRequest) {
+                response = decodeUnsubscriptionResponse(responseMessage, requestContainer);
+            } else if (request instanceof PlcProprietaryRequest) {
+                response = new DefaultPlcProprietaryResponse<>((InternalPlcProprietaryRequest) request, responseMessage);
             }
 
             // Confirm the response being handled.
@@ -431,99 +604,37 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
                 "The number of requested items doesn't match the number of returned items");
         }
 
-        Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> values = new HashMap<>();
         List<VarPayloadItem> payloadItems = payload.getItems();
+        if (lazyDecoding) {
+            Map<String, LazyPlcReadResponse.LazyField> fields = new HashMap<>();
+            int index = 0;
+            for (String fieldName : plcReadRequest.getFieldNames()) {
+                S7Field field = toS7Field(plcReadRequest.getField(fieldName));
+                VarPayloadItem payloadItem = payloadItems.get(index);
+
+                PlcResponseCode responseCode = decodeResponseCode(payloadItem.getReturnCode());
+                if (responseCode == PlcResponseCode.OK) {
+                    // Resolving the decoder up front still reports unsupported types right away.
+                    Function<ByteBuf, BaseDefaultFieldItem> decoder = getFieldDecoder(field);
+                    fields.put(fieldName, new LazyPlcReadResponse.LazyField(responseCode, Unpooled.wrappedBuffer(payloadItem.getData()), decoder));
+                } else {
+                    fields.put(fieldName, LazyPlcReadResponse.LazyField.failed(responseCode));
+                }
+                index++;
+            }
+            return new LazyPlcReadResponse(plcReadRequest, fields);
+        }
+
+        Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> values = new HashMap<>();
         int index = 0;
         for (String fieldName : plcReadRequest.getFieldNames()) {
-            S7Field field = (S7Field) plcReadRequest.getField(fieldName);
+            S7Field field = toS7Field(plcReadRequest.getField(fieldName));
             VarPayloadItem payloadItem = payloadItems.get(index);
 
             PlcResponseCode responseCode = decodeResponseCode(payloadItem.getReturnCode());
             BaseDefaultFieldItem fieldItem = null;
-            ByteBuf data = Unpooled.wrappedBuffer(payloadItem.getData());
             if (responseCode == PlcResponseCode.OK) {
-                // TODO 2018-09-27 jf: array returning only implemented for BOOL, BYTE, INTEGERS, FP
-                // not for CHARS & STRINGS and not for all other bit-strings except for BYTE
-                switch (field.getDataType()) {
-                    // -----------------------------------------
-                    // Bit
-                    // -----------------------------------------
-                    case BOOL:
-                        fieldItem = decodeReadResponseBitField(field, data);
-                        break;
-                    // -----------------------------------------
-                    // Bit-strings
-                    // -----------------------------------------
-                    case BYTE:  // 1 byte
-                        fieldItem = decodeReadResponseByteBitStringField(field, data);
-                        break;
-                    case WORD:  // 2 byte (16 bit)
-                        fieldItem = decodeReadResponseShortBitStringField(field, data);
-                        break;
-                    case DWORD:  // 4 byte (32 bit)
-                        fieldItem = decodeReadResponseIntegerBitStringField(field, data);
-                        break;
-                    case LWORD:  // 8 byte (64 bit)
-                        fieldItem = decodeReadResponseLongBitStringField(field, data);
-                        break;
-                    // -----------------------------------------
-                    // Integers
-                    // -----------------------------------------
-                    // 8 bit:
-                    case SINT:
-                        fieldItem = decodeReadResponseSignedByteField(field, data);
-                        break;
-                    case USINT:
-                        fieldItem = decodeReadResponseUnsignedByteField(field, data);
-                        break;
-                    // 16 bit:
-                    case INT:
-                        fieldItem = decodeReadResponseSignedShortField(field, data);
-                        break;
-                    case UINT:
-                        fieldItem = decodeReadResponseUnsignedShortField(field, data);
-                        break;
-                    // 32 bit:
-                    case DINT:
-                        fieldItem = decodeReadResponseSignedIntegerField(field, data);
-                        break;
-                    case UDINT:
-                        fieldItem = decodeReadResponseUnsignedIntegerField(field, data);
-                        break;
-                    // 64 bit:
-                    case LINT:
-                        fieldItem = decodeReadResponseSignedLongField(field, data);
-                        break;
-                    case ULINT:
-                        fieldItem = decodeReadResponseUnsignedLongField(field, data);
-                        break;
-                    // -----------------------------------------
-                    // Floating point values
-                    // -----------------------------------------
-                    case REAL:
-                        fieldItem = decodeReadResponseFloatField(field, data);
-                        break;
-                    case LREAL:
-                        fieldItem = decodeReadResponseDoubleField(field, data);
-                        break;
-                    // -----------------------------------------
-                    // Characters & Strings
-                    // -----------------------------------------
-                    case CHAR: // 1 byte (8 bit)
-                        fieldItem = decodeReadResponseFixedLengthStringField(1, false, data);
-                        break;
-                    case WCHAR: // 2 byte
-                        fieldItem = decodeReadResponseFixedLengthStringField(1, true, data);
-                        break;
-                    case STRING:
-                        fieldItem = decodeReadResponseVarLengthStringField(false, data);
-                        break;
-                    case WSTRING:
-                        fieldItem = decodeReadResponseVarLengthStringField(true, data);
-                        break;
-                    default:
-                        throw new PlcProtocolException("Unsupported type " + field.getDataType());
-                }
+                fieldItem = getFieldDecoder(field).apply(Unpooled.wrappedBuffer(payloadItem.getData()));
             }
             Pair<PlcResponseCode, BaseDefaultFieldItem> result = new ImmutablePair<>(responseCode, fieldItem);
             values.put(fieldName, result);
@@ -533,6 +644,72 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
         return new DefaultPlcReadResponse(plcReadRequest, values);
     }
 
+    private Function<ByteBuf, BaseDefaultFieldItem> getFieldDecoder(S7Field field) throws PlcProtocolException {
+        // TODO 2018-09-27 jf: array returning only implemented for BOOL, BYTE, INTEGERS, FP
+        // not for CHARS & STRINGS and not for all other bit-strings except for BYTE
+        switch (field.getDataType()) {
+            // -----------------------------------------
+            // Bit
+            // -----------------------------------------
+            case BOOL:
+                return data -> decodeReadResponseBitField(field, data);
+            // -----------------------------------------
+            // Bit-strings
+            // -----------------------------------------
+            case BYTE:  // 1 byte
+                return data -> decodeReadResponseByteBitStringField(field, data);
+            case WORD:  // 2 byte (16 bit)
+                return data -> decodeReadResponseShortBitStringField(field, data);
+            case DWORD:  // 4 byte (32 bit)
+                return data -> decodeReadResponseIntegerBitStringField(field, data);
+            case LWORD:  // 8 byte (64 bit)
+                return data -> decodeReadResponseLongBitStringField(field, data);
+            // -----------------------------------------
+            // Integers
+            // -----------------------------------------
+            // 8 bit:
+            case SINT:
+                return data -> decodeReadResponseSignedByteField(field, data);
+            case USINT:
+                return data -> decodeReadResponseUnsignedByteField(field, data);
+            // 16 bit:
+            case INT:
+                return data -> decodeReadResponseSignedShortField(field, data);
+            case UINT:
+                return data -> decodeReadResponseUnsignedShortField(field, data);
+            // 32 bit:
+            case DINT:
+                return data -> decodeReadResponseSignedIntegerField(field, data);
+            case UDINT:
+                return data -> decodeReadResponseUnsignedIntegerField(field, data);
+            // 64 bit:
+            case LINT:
+                return data -> decodeReadResponseSignedLongField(field, data);
+            case ULINT:
+                return data -> decodeReadResponseUnsignedLongField(field, data);
+            // -----------------------------------------
+            // Floating point values
+            // -----------------------------------------
+            case REAL:
+                return data -> decodeReadResponseFloatField(field, data);
+            case LREAL:
+                return data -> decodeReadResponseDoubleField(field, data);
+            // -----------------------------------------
+            // Characters & Strings
+            // -----------------------------------------
+            case CHAR: // 1 byte (8 bit)
+                return data -> decodeReadResponseFixedLengthStringField(1, false, data);
+            case WCHAR: // 2 byte
+                return data -> decodeReadResponseFixedLengthStringField(1, true, data);
+            case STRING:
+                return data -> decodeReadResponseVarLengthStringField(false, data);
+            case WSTRING:
+                return data -> decodeReadResponseVarLengthStringField(true, data);
+            default:
+                throw new PlcProtocolException("Unsupported type " + field.getDataType());
+        }
+    }
+
     BaseDefaultFieldItem decodeReadResponseBitField(S7Field field, ByteBuf data) {
         Boolean[] booleans = readAllValues(Boolean.class, field, i -> data.readByte() != 0x00);
         return new DefaultBooleanFieldItem(booleans);
@@ -680,7 +857,50 @@ public class Plc4XS7Protocol extends PlcMessageToMessageCodec<S7Message, PlcRequ
         return new DefaultPlcWriteResponse(plcWriteRequest, values);
     }
 
-    private PlcResponseCode decodeResponseCode(DataTransportErrorCode dataTransportErrorCode) {
+    @SuppressWarnings("unchecked")
+    private PlcResponse decodeSubscriptionResponse(S7ResponseMessage responseMessage, PlcRequestContainer requestContainer) throws PlcProtocolException {
+        InternalPlcSubscriptionRequest plcSubscriptionRequest = (InternalPlcSubscriptionRequest) requestContainer.getRequest();
+        CpuServicesResponseParameter parameter = responseMessage.getParameter(CpuServicesResponseParameter.class)
+            .orElseThrow(() -> new PlcProtocolException("No CpuServicesResponseParameter supplied"));
+        List<VarPayloadItem> payloadItems = responseMessage.getPayload(CyclicDataPayload.class)
+            .map(CyclicDataPayload::getItems)
+            .orElse(Collections.emptyList());
+
+        // The remote assigns a job id to the subscription, all pushed values carry it.
+        byte jobId = parameter.getSequenceNumber();
+        boolean accepted = parameter.getError() == ParameterError.NO_ERROR;
+        Map<String, Pair<PlcResponseCode, PlcSubscriptionHandle>> values = new LinkedHashMap<>();
+        int index = 0;
+        for (Pair<String, SubscriptionPlcField> namedField : plcSubscriptionRequest.getNamedSubscriptionFields()) {
+            String fieldName = namedField.getKey();
+            S7Field field = toS7Field(namedField.getValue().getPlcField());
+            PlcResponseCode responseCode = (accepted && (index < payloadItems.size())) ?
+                decodeResponseCode(payloadItems.get(index).getReturnCode()) : PlcResponseCode.INTERNAL_ERROR;
+            PlcSubscriptionHandle handle = null;
+            if (responseCode == PlcResponseCode.OK) {
+                try {
+                    handle = new S7SubscriptionHandle(plcSubscriber, fieldName, field, jobId, index, getFieldDecoder(field));
+                } catch (PlcProtocolException e) {
+                    responseCode = PlcResponseCode.INVALID_DATATYPE;
+                }
+            }
+            values.put(fieldName, Pair.of(responseCode, handle));
+            index++;
+        }
+
+        return new DefaultPlcSubscriptionResponse(plcSubscriptionRequest, values);
+    }
+
+    private PlcResponse decodeUnsubscriptionResponse(S7ResponseMessage responseMessage, PlcRequestContainer requestContainer) throws PlcProtocolException {
+        CpuServicesResponseParameter parameter = responseMessage.getParameter(CpuServicesResponseParameter.class)
+            .orElseThrow(() -> new PlcProtocolException("No CpuServicesResponseParameter supplied"));
+        if (parameter.getError() != ParameterError.NO_ERROR) {
+            throw new PlcProtocolException("Unsubscription failed with " + parameter.getError());
+        }
+        return new DefaultPlcUnsubscriptionResponse((InternalPlcUnsubscriptionRequest) requestContainer.getRequest());
+    }
+
+    static PlcResponseCode decodeResponseCode(DataTransportErrorCode dataTransportErrorCode) {
         if (dataTransportErrorCode == null) {
             return PlcResponseCode.INTERNAL_ERROR;
         }
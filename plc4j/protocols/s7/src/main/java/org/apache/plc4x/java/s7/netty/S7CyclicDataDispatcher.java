@@ -0,0 +1,187 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty;
+
+import io.netty.buffer.Unpooled;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.DefaultPlcSubscriptionEvent;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.s7.model.S7SubscriptionHandle;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicDataPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Routes the values pushed for cyclic data subscriptions to the consumers registered for their
+ * {@link S7SubscriptionHandle}s.
+ * <p>
+ * Routes are indexed by job id and by the position of the item within the job, so dispatching a push neither hashes
+ * nor searches. Each value is decoded once, no matter how many consumers are interested in it, and values nobody
+ * registered for are skipped without being decoded. Every consumer gets one {@link PlcSubscriptionEvent} per push
+ * containing the values of its handles.
+ */
+public class S7CyclicDataDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(S7CyclicDataDispatcher.class);
+
+    // Job ids are a single byte.
+    private final AtomicReferenceArray<Job> jobs = new AtomicReferenceArray<>(256);
+
+    /**
+     * Routes the values of the given handles to the consumer.
+     */
+    public void register(Consumer<PlcSubscriptionEvent> consumer, Collection<S7SubscriptionHandle> handles) {
+        Objects.requireNonNull(consumer);
+        for (S7SubscriptionHandle handle : handles) {
+            Job job = jobs.updateAndGet(index(handle.getJobId()), current -> current != null ? current : new Job());
+            job.add(handle, consumer);
+        }
+    }
+
+    /**
+     * Stops routing the values of the given handles to the consumer, undoing one {@link #register}.
+     */
+    public void unregister(Consumer<PlcSubscriptionEvent> consumer, Collection<S7SubscriptionHandle> handles) {
+        for (S7SubscriptionHandle handle : handles) {
+            Job job = jobs.get(index(handle.getJobId()));
+            if (job != null) {
+                job.remove(handle, consumer);
+            }
+        }
+    }
+
+    /**
+     * Drops all routes of the given job, e.g. after the subscription got cancelled.
+     */
+    public void removeJob(byte jobId) {
+        jobs.set(index(jobId), null);
+    }
+
+    /**
+     * @return number of jobs with at least one route.
+     */
+    public int getNumberOfJobs() {
+        int numberOfJobs = 0;
+        for (int i = 0; i < jobs.length(); i++) {
+            if (jobs.get(i) != null) {
+                numberOfJobs++;
+            }
+        }
+        return numberOfJobs;
+    }
+
+    /**
+     * Decodes the values pushed for the given job and hands them to the registered consumers.
+     */
+    public void dispatch(byte jobId, CyclicDataPayload payload) {
+        Job job = jobs.get(index(jobId));
+        if (job == null) {
+            LOGGER.trace("Nobody is interested in job {}", jobId);
+            return;
+        }
+        Route[] routes = job.routes;
+        List<VarPayloadItem> items = payload.getItems();
+        Map<Consumer<PlcSubscriptionEvent>, Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>>> events = null;
+        for (int i = 0; (i < items.size()) && (i < routes.length); i++) {
+            Route route = routes[i];
+            if ((route == null) || route.consumers.isEmpty()) {
+                continue;
+            }
+            VarPayloadItem item = items.get(i);
+            PlcResponseCode responseCode = Plc4XS7Protocol.decodeResponseCode(item.getReturnCode());
+            BaseDefaultFieldItem value = null;
+            if (responseCode == PlcResponseCode.OK) {
+                try {
+                    value = route.handle.decode(Unpooled.wrappedBuffer(item.getData()));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Can't decode item {} of job {}", i, jobId, e);
+                    continue;
+                }
+            }
+            if (events == null) {
+                events = new IdentityHashMap<>();
+            }
+            Pair<PlcResponseCode, BaseDefaultFieldItem> result = Pair.of(responseCode, value);
+            for (Consumer<PlcSubscriptionEvent> consumer : route.consumers) {
+                events.computeIfAbsent(consumer, ignore -> new HashMap<>()).put(route.handle.getPlcFieldName(), result);
+            }
+        }
+        if (events == null) {
+            return;
+        }
+        Instant timestamp = Instant.now();
+        events.forEach((consumer, fields) -> {
+            try {
+                consumer.accept(new DefaultPlcSubscriptionEvent(timestamp, fields));
+            } catch (RuntimeException e) {
+                LOGGER.error("Can't dispatch job {} to {}", jobId, consumer, e);
+            }
+        });
+    }
+
+    private static int index(byte jobId) {
+        return jobId & 0xFF;
+    }
+
+    private static class Job {
+
+        // Indexed by the position of the item, replaced on every change.
+        private volatile Route[] routes = new Route[0];
+
+        private synchronized void add(S7SubscriptionHandle handle, Consumer<PlcSubscriptionEvent> consumer) {
+            int itemIndex = handle.getItemIndex();
+            if (itemIndex >= routes.length) {
+                routes = Arrays.copyOf(routes, itemIndex + 1);
+            }
+            if (routes[itemIndex] == null) {
+                Route[] copy = routes.clone();
+                copy[itemIndex] = new Route(handle);
+                routes = copy;
+            }
+            routes[itemIndex].consumers.add(consumer);
+        }
+
+        private synchronized void remove(S7SubscriptionHandle handle, Consumer<PlcSubscriptionEvent> consumer) {
+            int itemIndex = handle.getItemIndex();
+            if ((itemIndex < routes.length) && (routes[itemIndex] != null)) {
+                routes[itemIndex].consumers.remove(consumer);
+            }
+        }
+    }
+
+    private static class Route {
+
+        private final S7SubscriptionHandle handle;
+
+        private final List<Consumer<PlcSubscriptionEvent>> consumers = new CopyOnWriteArrayList<>();
+
+        private Route(S7SubscriptionHandle handle) {
+            this.handle = handle;
+        }
+    }
+}
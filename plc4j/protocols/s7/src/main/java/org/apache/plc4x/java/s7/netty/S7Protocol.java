@@ -28,6 +28,8 @@ import io.netty.util.concurrent.PromiseCombiner;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
 import org.apache.plc4x.java.api.exceptions.PlcProtocolPayloadTooBigException;
+import org.apache.plc4x.java.base.messages.PlcProtocolMessage;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
 import org.apache.plc4x.java.isotp.protocol.IsoTPProtocol;
 import org.apache.plc4x.java.isotp.protocol.events.IsoTPConnectedEvent;
 import org.apache.plc4x.java.isotp.protocol.model.IsoTPMessage;
@@ -41,11 +43,15 @@ import org.apache.plc4x.java.s7.netty.model.params.*;
 import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.params.items.VarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicDataPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicSubscriptionRequestPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicUnsubscriptionRequestPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.S7Payload;
 import org.apache.plc4x.java.s7.netty.model.payloads.VarPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
 import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslDataRecord;
 import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslModuleIdentificationDataRecord;
+import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslRawDataRecord;
 import org.apache.plc4x.java.s7.netty.model.types.*;
 import org.apache.plc4x.java.s7.netty.strategies.S7MessageProcessor;
 import org.apache.plc4x.java.s7.netty.util.S7SizeHelper;
@@ -70,6 +76,9 @@ public class S7Protocol extends ChannelDuplexHandler {
 
     private static final byte S7_PROTOCOL_MAGIC_NUMBER = 0x32;
 
+    // Function code of the payload cancelling a cyclic data subscription.
+    private static final byte CYCLIC_UNSUBSCRIBE_FUNCTION = 0x05;
+
     private static final Logger logger = LoggerFactory.getLogger(S7Protocol.class);
 
     private final MessageToMessageDecoder<Object> decoder = new MessageToMessageDecoder<Object>() {
@@ -90,6 +99,8 @@ public class S7Protocol extends ChannelDuplexHandler {
     private short maxAmqCallee;
     private short pduSize;
     private S7ControllerType controllerType;
+    // Set while the remote is asked to identify itself, other partial lists are read by the connection.
+    private boolean identifyingRemote;
 
     // For detecting the lower layers.
     private ChannelHandler prevChannelHandler;
@@ -227,7 +238,13 @@ public class S7Protocol extends ChannelDuplexHandler {
                         encodeWriteVarPayload((VarPayload) payload, buf);
                         break;
                     case CPU_SERVICES:
-                        encodeCpuServicesPayload((CpuServicesPayload) payload, buf);
+                        if (payload instanceof CyclicSubscriptionRequestPayload) {
+                            encodeCyclicSubscriptionRequestPayload((CyclicSubscriptionRequestPayload) payload, buf);
+                        } else if (payload instanceof CyclicUnsubscriptionRequestPayload) {
+                            encodeCyclicUnsubscriptionRequestPayload((CyclicUnsubscriptionRequestPayload) payload, buf);
+                        } else {
+                            encodeCpuServicesPayload((CpuServicesPayload) payload, buf);
+                        }
                         break;
                     default:
                         throw new PlcProtocolException("Writing payloads of type " +
@@ -293,6 +310,27 @@ public class S7Protocol extends ChannelDuplexHandler {
         }
     }
 
+    private void encodeCyclicSubscriptionRequestPayload(CyclicSubscriptionRequestPayload payload, ByteBuf buf) {
+        buf.writeByte(DataTransportErrorCode.OK.getCode());
+        buf.writeByte(DataTransportSize.OCTET_STRING.getCode());
+        buf.writeShort(4 + payload.getItems().size() * 12);
+        buf.writeShort(payload.getItems().size());
+        buf.writeByte(payload.getTimeBase().getCode());
+        buf.writeByte(payload.getTimeFactor());
+        // The items are addressed just like the items of a READ_VAR parameter.
+        for (S7AnyVarParameterItem item : payload.getItems()) {
+            encodeS7AnyParameterItem(buf, item);
+        }
+    }
+
+    private void encodeCyclicUnsubscriptionRequestPayload(CyclicUnsubscriptionRequestPayload payload, ByteBuf buf) {
+        buf.writeByte(DataTransportErrorCode.OK.getCode());
+        buf.writeByte(DataTransportSize.OCTET_STRING.getCode());
+        buf.writeShort(2);
+        buf.writeByte(CYCLIC_UNSUBSCRIBE_FUNCTION);
+        buf.writeByte(payload.getJobId());
+    }
+
     private void encodeParameters(S7Message in, ByteBuf buf) throws PlcProtocolException {
         for (S7Parameter s7Parameter : in.getParameters()) {
             buf.writeByte(s7Parameter.getType().getCode());
@@ -502,9 +540,12 @@ public class S7Protocol extends ChannelDuplexHandler {
 
         } else {
             // CpuService responses are encoded as requests.
+            boolean userDataResponse = false;
             for (S7Parameter s7Parameter : s7Parameters) {
                 // Only if we have a response parameter, the payload is a response payload.
                 if(s7Parameter instanceof CpuServicesResponseParameter) {
+                    // Pushed data doesn't answer any request.
+                    userDataResponse |= !(s7Parameter instanceof CpuServicesPushParameter);
                     for (S7Payload s7Payload : s7Payloads) {
                         if(s7Payload instanceof CpuServicesPayload) {
                             CpuServicesPayload cpuServicesPayload = (CpuServicesPayload) s7Payload;
@@ -513,7 +554,17 @@ public class S7Protocol extends ChannelDuplexHandler {
                     }
                 }
             }
-            out.add(new S7RequestMessage(messageType, tpduReference, s7Parameters, s7Payloads, null));
+            if(userDataResponse) {
+                // Acknowledge the request, so it no longer counts towards the max AMQ.
+                DataTpdu requestTpdu = sentButUnacknowledgedTpdus.remove(tpduReference);
+                if(requestTpdu != null) {
+                    ((S7RequestMessage) requestTpdu.getParent()).setAcknowledged(true);
+                }
+                out.add(new S7ResponseMessage(messageType, tpduReference, s7Parameters, s7Payloads, (byte) 0, (byte) 0));
+                trySendingMessages(ctx);
+            } else {
+                out.add(new S7RequestMessage(messageType, tpduReference, s7Parameters, s7Payloads, null));
+            }
         }
     }
 
@@ -534,23 +585,20 @@ public class S7Protocol extends ChannelDuplexHandler {
                     CpuServicesParameterSubFunctionGroup.READ_SSL, (byte) 0)),
                 Collections.singletonList(new CpuServicesPayload(DataTransportErrorCode.OK, SslId.MODULE_IDENTIFICATION,
                     (short) 0x0000)), null);
+            identifyingRemote = true;
             ctx.channel().writeAndFlush(identifyRemoteMessage);
         }
         // If a concrete type was specified, then we're done here.
         else {
-            if(logger.isInfoEnabled()) {
-                logger.info(String.format("Successfully connected to S7: %s", controllerType.name()));
-                logger.info(String.format("- max amq caller: %s", maxAmqCaller));
-                logger.info(String.format("- max amq callee: %s", maxAmqCallee));
-                logger.info(String.format("- pdu size: %s", pduSize));
-            }
-
-            // Send an event that connection setup is complete.
-            ctx.channel().pipeline().fireUserEventTriggered(new S7ConnectedEvent());
+            fireConnected(ctx);
         }
     }
 
     private void handleIdentifyRemote(ChannelHandlerContext ctx, CpuServicesPayload cpuServicesPayload) {
+        if(!identifyingRemote) {
+            return;
+        }
+        identifyingRemote = false;
         controllerType = S7ControllerType.ANY;
         for (SslDataRecord sslDataRecord : cpuServicesPayload.getSslDataRecords()) {
             if(sslDataRecord instanceof SslModuleIdentificationDataRecord) {
@@ -561,6 +609,10 @@ public class S7Protocol extends ChannelDuplexHandler {
                 }
             }
         }
+        fireConnected(ctx);
+    }
+
+    private void fireConnected(ChannelHandlerContext ctx) {
         if(logger.isInfoEnabled()) {
             logger.info(String.format("Successfully connected to S7: %s", controllerType.name()));
             logger.info(String.format("- max amq caller: %s", maxAmqCaller));
@@ -569,7 +621,8 @@ public class S7Protocol extends ChannelDuplexHandler {
         }
 
         // Send an event that connection setup is complete.
-        ctx.channel().pipeline().fireUserEventTriggered(new S7ConnectedEvent());
+        ctx.channel().pipeline().fireUserEventTriggered(
+            new S7ConnectedEvent(controllerType, pduSize, maxAmqCaller, maxAmqCallee));
     }
 
     private List<S7Payload> decodePayloads(ByteBuf userData, boolean isResponse, short userDataLength, List<S7Parameter> s7Parameters) {
@@ -580,8 +633,13 @@ public class S7Protocol extends ChannelDuplexHandler {
                 VarPayload varPayload = decodeVarPayload(userData, isResponse, userDataLength, readWriteVarParameter);
                 s7Payloads.add(varPayload);
             } else if(s7Parameter instanceof CpuServicesParameter) {
-                CpuServicesPayload cpuServicesPayload = decodeCpuServicesPayload(userData);
-                s7Payloads.add(cpuServicesPayload);
+                CpuServicesParameter cpuServicesParameter = (CpuServicesParameter) s7Parameter;
+                if(cpuServicesParameter.getFunctionGroup() == CpuServicesParameterFunctionGroup.CYCLIC_SERVICES) {
+                    s7Payloads.add(decodeCyclicDataPayload(userData, cpuServicesParameter));
+                } else {
+                    CpuServicesPayload cpuServicesPayload = decodeCpuServicesPayload(userData);
+                    s7Payloads.add(cpuServicesPayload);
+                }
             }
         }
         return s7Payloads;
@@ -625,6 +683,35 @@ public class S7Protocol extends ChannelDuplexHandler {
         return new VarPayload(readWriteVarParameter.getType(), payloadItems);
     }
 
+    private CyclicDataPayload decodeCyclicDataPayload(ByteBuf userData, CpuServicesParameter cpuServicesParameter) {
+        DataTransportErrorCode returnCode = DataTransportErrorCode.valueOf(userData.readByte());
+        // Always an octet string.
+        userData.readByte();
+        int length = Math.min(userData.readUnsignedShort(), userData.readableBytes());
+        ByteBuf data = userData.readSlice(length);
+        // Only the subscription response and the pushed data contain values, everything else just a return code.
+        if((cpuServicesParameter.getSubFunctionGroup() != CpuServicesParameterSubFunctionGroup.CYCLIC_MEMORY)
+            || (length < 2)) {
+            return new CyclicDataPayload(returnCode, Collections.emptyList());
+        }
+        int numItems = data.readUnsignedShort();
+        List<VarPayloadItem> items = new ArrayList<>(numItems);
+        for (int i = 0; (i < numItems) && (data.readableBytes() >= 4); i++) {
+            DataTransportErrorCode itemReturnCode = DataTransportErrorCode.valueOf(data.readByte());
+            DataTransportSize dataTransportSize = DataTransportSize.valueOf(data.readByte());
+            int itemLength = ((dataTransportSize != null) && dataTransportSize.isSizeInBits()) ?
+                (int) Math.ceil(data.readUnsignedShort() / 8.0) : data.readUnsignedShort();
+            byte[] itemData = new byte[Math.min(itemLength, data.readableBytes())];
+            data.readBytes(itemData);
+            items.add(new VarPayloadItem(itemReturnCode, dataTransportSize, itemData));
+            // All but the last item are padded to an even length.
+            if(((itemLength % 2) == 1) && data.isReadable()) {
+                data.skipBytes(1);
+            }
+        }
+        return new CyclicDataPayload(returnCode, items);
+    }
+
     private CpuServicesPayload decodeCpuServicesPayload(ByteBuf userData) {
         DataTransportErrorCode returnCode = DataTransportErrorCode.valueOf(userData.readByte());
         DataTransportSize dataTransportSize = DataTransportSize.valueOf(userData.readByte());
@@ -641,10 +728,18 @@ public class S7Protocol extends ChannelDuplexHandler {
         // If the length is not 4, then it has to be at least 8.
         else if(length >= 8) {
             // TODO: We should probably ensure we don't read more than this.
-            // Skip the partial list length in words.
-            userData.skipBytes(2);
+            short partialListLength = userData.readShort();
             short partialListCount = userData.readShort();
             List<SslDataRecord> sslDataRecords = new LinkedList<>();
+            // Only the records of the module identification are decoded, the others are passed on as they are.
+            if(sslId != SslId.MODULE_IDENTIFICATION) {
+                for(int i = 0; i < partialListCount; i++) {
+                    byte[] data = new byte[partialListLength];
+                    userData.readBytes(data);
+                    sslDataRecords.add(new SslRawDataRecord(data));
+                }
+                return new CpuServicesPayload(returnCode, sslId, sslIndex, sslDataRecords);
+            }
             for(int i = 0; i < partialListCount; i++) {
                 short index = userData.readShort();
                 byte[] articleNumberBytes = new byte[20];
@@ -717,24 +812,27 @@ public class S7Protocol extends ChannelDuplexHandler {
         // Skipping this as it sort of contains redundant information.
         in.readByte();
         byte typeAndFunctionGroup = in.readByte();
-        // If bit 7 is set, it's a request (if bit 8 is set it's a response).
-        boolean requestParameter = (typeAndFunctionGroup & 0x64) != 0;
+        // The first 4 bits contain the type: 0x0 = push, 0x4 = request, 0x8 = response.
+        boolean pushParameter = (typeAndFunctionGroup & 0xF0) == 0x00;
         // The last 4 bits contain the function group value.
-        typeAndFunctionGroup = (byte) (typeAndFunctionGroup & 0xF);
         CpuServicesParameterFunctionGroup functionGroup =
-            CpuServicesParameterFunctionGroup.valueOf(typeAndFunctionGroup);
+            CpuServicesParameterFunctionGroup.valueOf((byte) (typeAndFunctionGroup & 0xF));
         CpuServicesParameterSubFunctionGroup subFunctionGroup =
-            CpuServicesParameterSubFunctionGroup.valueOf(in.readByte());
+            CpuServicesParameterSubFunctionGroup.valueOf(functionGroup, in.readByte());
         byte sequenceNumber = in.readByte();
-        if(!requestParameter) {
+        // Only responses and pushed data carry the additional fields.
+        if(parameterLength == 4) {
             return new CpuServicesRequestParameter(functionGroup, subFunctionGroup, sequenceNumber);
-        } else {
-            byte dataUnitReferenceNumber = in.readByte();
-            boolean lastDataUnit = in.readByte() == 0x00;
-            ParameterError error = ParameterError.valueOf(in.readShort());
-            return new CpuServicesResponseParameter(functionGroup, subFunctionGroup, sequenceNumber,
+        }
+        byte dataUnitReferenceNumber = in.readByte();
+        boolean lastDataUnit = in.readByte() == 0x00;
+        ParameterError error = ParameterError.valueOf(in.readShort());
+        if(pushParameter) {
+            return new CpuServicesPushParameter(functionGroup, subFunctionGroup, sequenceNumber,
                 dataUnitReferenceNumber, lastDataUnit, error);
         }
+        return new CpuServicesResponseParameter(functionGroup, subFunctionGroup, sequenceNumber,
+            dataUnitReferenceNumber, lastDataUnit, error);
     }
 
     private List<VarParameterItem> decodeReadWriteVarParameter(ByteBuf in, byte numItems) {
@@ -800,6 +898,7 @@ public class S7Protocol extends ChannelDuplexHandler {
                     // (It seems that the S7 drops the value of the COTP reference id, so we have to use the S7 one)
                     S7RequestMessage s7RequestMessage = (S7RequestMessage) curTpdu.getParent();
                     sentButUnacknowledgedTpdus.put(s7RequestMessage.getTpduReference(), curTpdu);
+                    releaseOnFailure(ctx, s7RequestMessage.getTpduReference(), curTpdu);
 
                     logger.debug("S7 Message with id {} sent", s7RequestMessage.getTpduReference());
                 }
@@ -812,6 +911,31 @@ public class S7Protocol extends ChannelDuplexHandler {
         ctx.flush();
     }
 
+    /**
+     * If the request the TPDU belongs to fails (e.g. because its deadline passed) before the PLC answered, the TPDU
+     * gives up its slot so the next queued message can be sent. Otherwise a PLC dropping requests would stall the
+     * connection for good once max-amq-caller requests went unanswered.
+     */
+    private void releaseOnFailure(ChannelHandlerContext ctx, short tpduReference, DataTpdu tpdu) {
+        PlcProtocolMessage message = tpdu;
+        while (message != null && !(message instanceof PlcRequestContainer)) {
+            message = message.getParent();
+        }
+        if (message == null) {
+            return;
+        }
+        ((PlcRequestContainer<?, ?>) message).getResponseFuture().whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                ctx.executor().execute(() -> {
+                    if (sentButUnacknowledgedTpdus.remove(tpduReference, tpdu)) {
+                        logger.debug("S7 Message with id {} abandoned", tpduReference);
+                        trySendingMessages(ctx);
+                    }
+                });
+            }
+        });
+    }
+
     private S7ControllerType lookupControllerType(String articleNumber) {
         if(!articleNumber.startsWith("6ES7 ")) {
             return S7ControllerType.ANY;
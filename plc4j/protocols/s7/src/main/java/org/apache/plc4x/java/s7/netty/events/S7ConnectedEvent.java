@@ -18,5 +18,39 @@ under the License.
 */
 package org.apache.plc4x.java.s7.netty.events;
 
+import org.apache.plc4x.java.s7.types.S7ControllerType;
+
+/**
+ * Fired once the S7 session is set up, carrying the parameters negotiated with the remote.
+ */
 public class S7ConnectedEvent {
+
+    private final S7ControllerType controllerType;
+    private final short pduSize;
+    private final short maxAmqCaller;
+    private final short maxAmqCallee;
+
+    public S7ConnectedEvent(S7ControllerType controllerType, short pduSize, short maxAmqCaller, short maxAmqCallee) {
+        this.controllerType = controllerType;
+        this.pduSize = pduSize;
+        this.maxAmqCaller = maxAmqCaller;
+        this.maxAmqCallee = maxAmqCallee;
+    }
+
+    public S7ControllerType getControllerType() {
+        return controllerType;
+    }
+
+    public short getPduSize() {
+        return pduSize;
+    }
+
+    public short getMaxAmqCaller() {
+        return maxAmqCaller;
+    }
+
+    public short getMaxAmqCallee() {
+        return maxAmqCallee;
+    }
+
 }
@@ -0,0 +1,55 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty.model.payloads;
+
+import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportErrorCode;
+import org.apache.plc4x.java.s7.netty.model.types.ParameterType;
+
+import java.util.List;
+
+/**
+ * The values of a cyclic data subscription, either pushed by the remote or as part of the response to the
+ * subscription. The items are in the order of the subscribed items.
+ */
+public class CyclicDataPayload implements S7Payload {
+
+    private final DataTransportErrorCode returnCode;
+
+    private final List<VarPayloadItem> items;
+
+    public CyclicDataPayload(DataTransportErrorCode returnCode, List<VarPayloadItem> items) {
+        this.returnCode = returnCode;
+        this.items = items;
+    }
+
+    @Override
+    public ParameterType getType() {
+        return ParameterType.CPU_SERVICES;
+    }
+
+    public DataTransportErrorCode getReturnCode() {
+        return returnCode;
+    }
+
+    public List<VarPayloadItem> getItems() {
+        return items;
+    }
+
+}
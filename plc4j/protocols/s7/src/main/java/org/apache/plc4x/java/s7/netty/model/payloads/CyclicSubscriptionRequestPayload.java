@@ -0,0 +1,61 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty.model.payloads;
+
+import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
+import org.apache.plc4x.java.s7.netty.model.types.CyclicTimeBase;
+import org.apache.plc4x.java.s7.netty.model.types.ParameterType;
+
+import java.util.List;
+
+/**
+ * Asks the remote to push the values of the given items every {@code timeFactor} times the {@link CyclicTimeBase}.
+ */
+public class CyclicSubscriptionRequestPayload implements S7Payload {
+
+    private final CyclicTimeBase timeBase;
+
+    private final byte timeFactor;
+
+    private final List<S7AnyVarParameterItem> items;
+
+    public CyclicSubscriptionRequestPayload(CyclicTimeBase timeBase, byte timeFactor, List<S7AnyVarParameterItem> items) {
+        this.timeBase = timeBase;
+        this.timeFactor = timeFactor;
+        this.items = items;
+    }
+
+    @Override
+    public ParameterType getType() {
+        return ParameterType.CPU_SERVICES;
+    }
+
+    public CyclicTimeBase getTimeBase() {
+        return timeBase;
+    }
+
+    public byte getTimeFactor() {
+        return timeFactor;
+    }
+
+    public List<S7AnyVarParameterItem> getItems() {
+        return items;
+    }
+
+}
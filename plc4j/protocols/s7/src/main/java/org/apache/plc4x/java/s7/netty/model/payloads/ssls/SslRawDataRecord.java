@@ -0,0 +1,41 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty.model.payloads.ssls;
+
+/**
+ * A data record of a partial list without specific decoding, its content is passed on as sent by the remote.
+ */
+public class SslRawDataRecord implements SslDataRecord {
+
+    private final byte[] data;
+
+    public SslRawDataRecord(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public short getLengthInWords() {
+        return (short) (data.length / 2);
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+}
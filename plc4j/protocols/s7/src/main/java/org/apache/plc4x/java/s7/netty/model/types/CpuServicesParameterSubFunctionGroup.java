@@ -24,35 +24,52 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Sub functions of the {@link CpuServicesParameterFunctionGroup}s, the codes are only unique within a function group.
+ */
 public enum CpuServicesParameterSubFunctionGroup {
 
-    READ_SSL((byte) 0x01);
+    READ_SSL(CpuServicesParameterFunctionGroup.CPU_FUNCTIONS, (byte) 0x01),
+    CYCLIC_MEMORY(CpuServicesParameterFunctionGroup.CYCLIC_SERVICES, (byte) 0x01),
+    CYCLIC_UNSUBSCRIBE(CpuServicesParameterFunctionGroup.CYCLIC_SERVICES, (byte) 0x04);
 
     private static final Logger logger = LoggerFactory.getLogger(CpuServicesParameterSubFunctionGroup.class);
 
-    private static final Map<Byte, CpuServicesParameterSubFunctionGroup> map;
+    private static final Map<Integer, CpuServicesParameterSubFunctionGroup> map;
     static {
         map = new HashMap<>();
         for (CpuServicesParameterSubFunctionGroup cpuServicesParameterSubFunctionGroup : CpuServicesParameterSubFunctionGroup.values()) {
-            map.put(cpuServicesParameterSubFunctionGroup.code, cpuServicesParameterSubFunctionGroup);
+            map.put(key(cpuServicesParameterSubFunctionGroup.functionGroup, cpuServicesParameterSubFunctionGroup.code),
+                cpuServicesParameterSubFunctionGroup);
         }
     }
 
+    private final CpuServicesParameterFunctionGroup functionGroup;
     private final byte code;
 
-    CpuServicesParameterSubFunctionGroup(byte code) {
+    CpuServicesParameterSubFunctionGroup(CpuServicesParameterFunctionGroup functionGroup, byte code) {
+        this.functionGroup = functionGroup;
         this.code = code;
     }
 
+    public CpuServicesParameterFunctionGroup getFunctionGroup() {
+        return functionGroup;
+    }
+
     public byte getCode() {
         return code;
     }
 
-    public static CpuServicesParameterSubFunctionGroup valueOf(byte code) {
-        if(!map.containsKey(code)) {
-            logger.error("CpuServicesParameterSubFunctionGroup for code {} not found", code);
+    public static CpuServicesParameterSubFunctionGroup valueOf(CpuServicesParameterFunctionGroup functionGroup, byte code) {
+        if(!map.containsKey(key(functionGroup, code))) {
+            logger.error("CpuServicesParameterSubFunctionGroup for function group {} and code {} not found",
+                functionGroup, code);
         }
-        return map.get(code);
+        return map.get(key(functionGroup, code));
+    }
+
+    private static int key(CpuServicesParameterFunctionGroup functionGroup, byte code) {
+        return ((functionGroup != null) ? (functionGroup.getCode() << 8) : 0) | (code & 0xFF);
     }
 
 }
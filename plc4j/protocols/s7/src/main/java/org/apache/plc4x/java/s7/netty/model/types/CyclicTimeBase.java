@@ -0,0 +1,95 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty.model.types;
+
+import java.time.Duration;
+
+/**
+ * Unit of the interval a cyclic data subscription is pushed with, the interval is a multiple of it.
+ */
+public enum CyclicTimeBase {
+
+    HUNDRED_MILLISECONDS((byte) 0x00, 100),
+    ONE_SECOND((byte) 0x01, 1_000),
+    TEN_SECONDS((byte) 0x02, 10_000);
+
+    private static final int MAX_FACTOR = 0xFF;
+
+    private final byte code;
+    private final long millis;
+
+    CyclicTimeBase(byte code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return the shortest interval the remote can push values with.
+     */
+    public static Duration getMinInterval() {
+        return Duration.ofMillis(HUNDRED_MILLISECONDS.millis);
+    }
+
+    /**
+     * @return the longest interval the remote can push values with.
+     */
+    public static Duration getMaxInterval() {
+        return Duration.ofMillis(TEN_SECONDS.millis * MAX_FACTOR);
+    }
+
+    /**
+     * @return {@code true} if the given interval lies between {@link #getMinInterval()} and
+     * {@link #getMaxInterval()}. Supported intervals are still rounded to a multiple of their time base.
+     */
+    public static boolean isSupported(Duration interval) {
+        return interval.compareTo(getMinInterval()) >= 0 && interval.compareTo(getMaxInterval()) <= 0;
+    }
+
+    /**
+     * @return the finest time base the given interval can be expressed in.
+     */
+    public static CyclicTimeBase forInterval(Duration interval) {
+        for (CyclicTimeBase timeBase : values()) {
+            if (timeBase.factor(interval) <= MAX_FACTOR) {
+                return timeBase;
+            }
+        }
+        return TEN_SECONDS;
+    }
+
+    /**
+     * @return the multiple of this time base closest to the given interval, at least 1.
+     */
+    public byte getFactor(Duration interval) {
+        return (byte) Math.min(Math.max(factor(interval), 1), MAX_FACTOR);
+    }
+
+    private long factor(Duration interval) {
+        return Math.round(interval.toMillis() / (double) millis);
+    }
+
+}
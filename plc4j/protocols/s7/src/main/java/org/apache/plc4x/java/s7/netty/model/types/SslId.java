@@ -64,6 +64,7 @@ public enum SslId {
 
     IDENTIFICATION_OF_ALL_COMPONENTS((short) 0x001c),
     INFORMATION_ABOUT_COMMUNICATION_UNIT((short) 0x0131),
+    COMMUNICATION_STATUS_DATA((short) 0x0132),
     CURRENT_MODE_TRANSITION((short) 0x0424);
 
     private static final Logger logger = LoggerFactory.getLogger(SslId.class);
@@ -24,6 +24,8 @@ import org.apache.plc4x.java.api.model.PlcField;
 import org.apache.plc4x.java.base.connection.DefaultPlcFieldHandler;
 import org.apache.plc4x.java.base.messages.items.*;
 import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SymbolicField;
+import org.apache.plc4x.java.s7.netty.model.types.TransportSize;
 
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigInteger;
@@ -39,14 +41,17 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
         if (S7Field.matches(fieldQuery)) {
             return S7Field.of(fieldQuery);
         }
+        if (S7SymbolicField.matches(fieldQuery)) {
+            return S7SymbolicField.of(fieldQuery);
+        }
         throw new PlcInvalidFieldException(fieldQuery);
     }
 
     @Override
     public BaseDefaultFieldItem encodeBoolean(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
+        TransportSize dataType = getDataType(field);
         // All of these types are declared as Bit or Bit-String types.
-        switch (s7Field.getDataType()) {
+        switch (dataType) {
             case BOOL:
             case BYTE:
             case WORD:
@@ -54,149 +59,149 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
             case LWORD:
                 return internalEncodeBoolean(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeByte(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
+        TransportSize dataType = getDataType(field);
         // All of these types are declared as Bit or Bit-String types.
-        switch (s7Field.getDataType()) {
+        switch (dataType) {
             case BYTE:
             case SINT:
             case USINT:
             case CHAR:
                 return internalEncodeInteger(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeShort(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case WORD:
             case INT:
             case UINT:
                 return internalEncodeInteger(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeInteger(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case DWORD:
             case DINT:
             case UDINT:
                 return internalEncodeInteger(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeBigInteger(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case DWORD:
             case DINT:
             case UDINT:
                 return internalEncodeInteger(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeLong(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case LWORD:
             case LINT:
             case ULINT:
                 return internalEncodeInteger(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeFloat(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case REAL:
                 return internalEncodeFloatingPoint(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeDouble(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case LREAL:
                 return internalEncodeFloatingPoint(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeString(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case CHAR:
             case WCHAR:
             case STRING:
             case WSTRING:
                 return internalEncodeString(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeTime(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case TIME:
                 return internalEncodeTemporal(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeDate(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case DATE:
                 return internalEncodeTemporal(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     @Override
     public BaseDefaultFieldItem encodeDateTime(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case DATE_AND_TIME:
                 return internalEncodeTemporal(field, values);
             default:
-                throw new PlcRuntimeException("Invalid encoder for type " + s7Field.getDataType().name());
+                throw new PlcRuntimeException("Invalid encoder for type " + dataType.name());
         }
     }
 
     private BaseDefaultFieldItem internalEncodeBoolean(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case BOOL:
             case BYTE:
             case WORD:
@@ -205,7 +210,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 break;
             default:
                 throw new IllegalArgumentException(
-                    "Cannot assign boolean values to " + s7Field.getDataType().name() + " fields.");
+                    "Cannot assign boolean values to " + dataType.name() + " fields.");
         }
         List<Boolean> booleanValues = new LinkedList<>();
         for (Object value : values) {
@@ -239,14 +244,14 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
             } else {
                 throw new IllegalArgumentException(
                     "Value of type " + value.getClass().getName() +
-                        " is not assignable to " + s7Field.getDataType().name() + " fields.");
+                        " is not assignable to " + dataType.name() + " fields.");
             }
         }
         return new DefaultBooleanFieldItem(booleanValues.toArray(new Boolean[0]));
     }
 
     private BaseDefaultFieldItem internalEncodeInteger(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
+        TransportSize dataType = getDataType(field);
 
         // Initialize the constraints.
         BigInteger minValue;
@@ -254,7 +259,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
         Class<? extends BaseDefaultFieldItem> fieldType;
         Class<?> valueType;
         Object[] castedValues;
-        switch (s7Field.getDataType()) {
+        switch (dataType) {
             case BYTE:
                 minValue = BigInteger.valueOf((long) Byte.MIN_VALUE);
                 maxValue = BigInteger.valueOf((long) Byte.MAX_VALUE);
@@ -341,7 +346,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 break;
             default:
                 throw new IllegalArgumentException(
-                    "Cannot assign integer values to " + s7Field.getDataType().name() + " fields.");
+                    "Cannot assign integer values to " + dataType.name() + " fields.");
         }
 
         // Check the constraints
@@ -355,17 +360,17 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
             } else {
                 throw new IllegalArgumentException(
                     "Value of type " + values[i].getClass().getName() +
-                        " is not assignable to " + s7Field.getDataType().name() + " fields.");
+                        " is not assignable to " + dataType.name() + " fields.");
             }
             if (minValue.compareTo(value) > 0) {
                 throw new IllegalArgumentException(
                     "Value of " + value.toString() + " exceeds allowed minimum for type "
-                        + s7Field.getDataType().name() + " (min " + minValue.toString() + ")");
+                        + dataType.name() + " (min " + minValue.toString() + ")");
             }
             if (maxValue.compareTo(value) < 0) {
                 throw new IllegalArgumentException(
                     "Value of " + value.toString() + " exceeds allowed maximum for type "
-                        + s7Field.getDataType().name() + " (max " + maxValue.toString() + ")");
+                        + dataType.name() + " (max " + maxValue.toString() + ")");
             }
             if (valueType == Byte[].class) {
                 castedValues[i] = value.byteValue();
@@ -389,7 +394,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
     }
 
     private BaseDefaultFieldItem internalEncodeFloatingPoint(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
+        TransportSize dataType = getDataType(field);
 
         // Initialize the constraints.
         Double minValue;
@@ -397,7 +402,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
         Class<? extends BaseDefaultFieldItem> fieldType;
         Class<?> valueType;
         Object[] castedValues;
-        switch (s7Field.getDataType()) {
+        switch (dataType) {
             case REAL:
                 // Yes this is actually correct, if I set min to Float.MIN_VALUE (0.0 < Float.MIN_VALUE = true)
                 minValue = (double) -Float.MAX_VALUE;
@@ -416,7 +421,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 break;
             default:
                 throw new IllegalArgumentException(
-                    "Cannot assign floating point values to " + s7Field.getDataType().name() + " fields.");
+                    "Cannot assign floating point values to " + dataType.name() + " fields.");
         }
 
         // Check the constraints
@@ -429,17 +434,17 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
             } else {
                 throw new IllegalArgumentException(
                     "Value of type " + values[i].getClass().getName() +
-                        " is not assignable to " + s7Field.getDataType().name() + " fields.");
+                        " is not assignable to " + dataType.name() + " fields.");
             }
             if (value < minValue) {
                 throw new IllegalArgumentException(
                     "Value of " + value + " exceeds allowed minimum for type "
-                        + s7Field.getDataType().name() + " (min " + minValue.toString() + ")");
+                        + dataType.name() + " (min " + minValue.toString() + ")");
             }
             if (value > maxValue) {
                 throw new IllegalArgumentException(
                     "Value of " + value + " exceeds allowed maximum for type "
-                        + s7Field.getDataType().name() + " (max " + maxValue.toString() + ")");
+                        + dataType.name() + " (max " + maxValue.toString() + ")");
             }
             if (valueType == Float[].class) {
                 castedValues[i] = value.floatValue();
@@ -457,12 +462,12 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
     }
 
     private BaseDefaultFieldItem internalEncodeString(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
+        TransportSize dataType = getDataType(field);
 
         // Initialize the constraints.
         int maxLength;
         boolean encoding16Bit;
-        switch (s7Field.getDataType()) {
+        switch (dataType) {
             case CHAR:
                 maxLength = 1;
                 encoding16Bit = false;
@@ -481,7 +486,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 break;
             default:
                 throw new IllegalArgumentException(
-                    "Cannot assign string values to " + s7Field.getDataType().name() + " fields.");
+                    "Cannot assign string values to " + dataType.name() + " fields.");
         }
 
         // Check the constraints and create the strings.
@@ -492,7 +497,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 if (stringValue.length() > maxLength) {
                     throw new IllegalArgumentException(
                         "String length " + stringValue.length() + " exceeds allowed maximum for type "
-                            + s7Field.getDataType().name() + " (max " + maxLength + ")");
+                            + dataType.name() + " (max " + maxLength + ")");
                 }
                 stringValues.add(stringValue);
             }
@@ -546,7 +551,7 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
             } else {
                 throw new IllegalArgumentException(
                     "Value of type " + value.getClass().getName() +
-                        " is not assignable to " + s7Field.getDataType().name() + " fields.");
+                        " is not assignable to " + dataType.name() + " fields.");
             }
         }
 
@@ -555,8 +560,8 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
     }
 
     private BaseDefaultFieldItem internalEncodeTemporal(PlcField field, Object[] values) {
-        S7Field s7Field = (S7Field) field;
-        switch (s7Field.getDataType()) {
+        TransportSize dataType = getDataType(field);
+        switch (dataType) {
             case TIME:
                 // TODO: I think I should implement this some time ...
             case DATE:
@@ -565,8 +570,15 @@ public class S7PlcFieldHandler extends DefaultPlcFieldHandler {
                 return new DefaultLocalDateTimeFieldItem();
             default:
                 throw new IllegalArgumentException(
-                    "Cannot assign temporal values to " + s7Field.getDataType().name() + " fields.");
+                    "Cannot assign temporal values to " + dataType.name() + " fields.");
+        }
+    }
+
+    private static TransportSize getDataType(PlcField field) {
+        if (field instanceof S7SymbolicField) {
+            return ((S7SymbolicField) field).getDataType();
         }
+        return ((S7Field) field).getDataType();
     }
 
 }
@@ -24,6 +24,8 @@ import org.apache.plc4x.java.s7.netty.model.params.VarParameter;
 import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.params.items.VarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicSubscriptionRequestPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicUnsubscriptionRequestPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.S7Payload;
 import org.apache.plc4x.java.s7.netty.model.payloads.VarPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
@@ -75,6 +77,10 @@ public class S7SizeHelper {
                     }
                     return length;
                 }
+            } else if(payload instanceof CyclicSubscriptionRequestPayload) {
+                l += 8 + ((CyclicSubscriptionRequestPayload) payload).getItems().size() * 12;
+            } else if(payload instanceof CyclicUnsubscriptionRequestPayload) {
+                l += 6;
             }
         }
         return l;
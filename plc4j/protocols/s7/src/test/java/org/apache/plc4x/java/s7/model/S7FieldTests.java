@@ -34,6 +34,7 @@ import java.util.stream.Stream;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -93,4 +94,12 @@ class S7FieldTests {
 
         assertEquals(25, field.getNumElements());
     }
+
+    @Test
+    void equalAddressesAreEqualFields() {
+        assertEquals(S7Field.of("%DB56.DBB100:SINT[25]"), S7Field.of("%DB56.DBB100:SINT[25]"));
+        assertEquals(S7Field.of("%DB56.DBB100:SINT[25]").hashCode(), S7Field.of("%DB56.DBB100:SINT[25]").hashCode());
+        assertNotEquals(S7Field.of("%DB56.DBB100:SINT[25]"), S7Field.of("%DB56.DBB100:SINT[24]"));
+        assertNotEquals(S7Field.of("%M0.0:BOOL"), S7Field.of("%M0.1:BOOL"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.model;
+
+import org.apache.plc4x.java.api.exceptions.PlcInvalidFieldException;
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.apache.plc4x.java.s7.netty.model.types.MemoryArea;
+import org.apache.plc4x.java.s7.netty.model.types.TransportSize;
+import org.apache.plc4x.test.FastTests;
+import org.junit.experimental.categories.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class S7SymbolTableTest {
+
+    private S7SymbolTable SUT;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        SUT = S7SymbolTable.parse("42", new StringReader(
+            "# Exported tags\n" +
+            "\n" +
+            "\"Tank\".Level;%DB1.DBD4:REAL\n" +
+            "  Motor_On ; %Q0.1:BOOL  \n" +
+            "\"Tank\".Temperatures;%DB1.DBW8:INT\n"));
+    }
+
+    @ParameterizedTest
+    @Category(FastTests.class)
+    @ValueSource(strings = {"\"Tank\".Level:REAL", "Tank.Level:REAL", "motor_on:BOOL", "\"DB 1\".\"a b\".c[3]:INT[2]", "Data[1,2]:WORD"})
+    void validSymbolicFields(String fieldQuery) {
+        assertThat(S7SymbolicField.matches(fieldQuery), equalTo(true));
+        assertThat(S7SymbolicField.of(fieldQuery), notNullValue());
+    }
+
+    @ParameterizedTest
+    @Category(FastTests.class)
+    @ValueSource(strings = {"%DB1.DBD4:REAL", "Tank.Level", "1Tank:INT", "Tank..Level:INT"})
+    void invalidSymbolicFields(String fieldQuery) {
+        assertThat(S7SymbolicField.matches(fieldQuery), equalTo(false));
+        assertThrows(PlcInvalidFieldException.class, () -> S7SymbolicField.of(fieldQuery));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void unknownDataType() {
+        assertThrows(PlcInvalidFieldException.class, () -> S7SymbolicField.of("Tank.Level:HURZ"));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void parse() {
+        assertThat(SUT.getVersion(), equalTo("42"));
+        assertThat(SUT.size(), equalTo(3));
+        S7Field field = SUT.getSymbol("motor_on").orElse(null);
+        assertThat(field, notNullValue());
+        assertThat(field.getMemoryArea(), equalTo(MemoryArea.OUTPUTS));
+        assertThat(field.getBitOffset(), equalTo((short) 1));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void resolveIgnoresQuotesAndCase() {
+        S7Field field = SUT.resolve(S7SymbolicField.of("TANK.level:REAL"));
+        assertThat(field, notNullValue());
+        assertThat(field.getDataType(), equalTo(TransportSize.REAL));
+        assertThat(field.getBlockNumber(), equalTo((short) 1));
+        assertThat(field.getByteOffset(), equalTo((short) 4));
+        assertThat(S7SymbolicField.of("TANK.level:REAL"), equalTo(S7SymbolicField.of("\"Tank\".Level:REAL")));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void resolveTakesNumberOfElementsFromField() {
+        S7Field field = SUT.resolve(S7SymbolicField.of("\"Tank\".Temperatures:INT[4]"));
+        assertThat(field.getNumElements(), equalTo(4));
+        assertThat(field.getByteOffset(), equalTo((short) 8));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void resolveUnknownTag() {
+        assertThat(SUT.resolve(S7SymbolicField.of("Tank.Pressure:REAL")), nullValue());
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void resolveRejectsOtherDataType() {
+        assertThrows(PlcInvalidFieldException.class, () -> SUT.resolve(S7SymbolicField.of("Tank.Level:INT")));
+    }
+
+    @Test
+    @Category(FastTests.class)
+    void parseRejectsMalformedLines() {
+        assertThrows(PlcRuntimeException.class, () -> S7SymbolTable.parse("1", new StringReader("Tank.Level\n")));
+        assertThrows(PlcRuntimeException.class, () -> S7SymbolTable.parse("1", new StringReader("Tank.Level;DB1.DBD4\n")));
+    }
+
+}
@@ -26,13 +26,18 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.EncoderException;
 import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
 import org.apache.plc4x.java.api.messages.PlcWriteRequest;
 import org.apache.plc4x.java.api.model.PlcField;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.messages.*;
 import org.apache.plc4x.java.s7.netty.model.messages.S7Message;
 import org.apache.plc4x.java.s7.netty.model.messages.S7RequestMessage;
+import org.apache.plc4x.java.s7.netty.model.messages.S7ResponseMessage;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesRequestParameter;
 import org.apache.plc4x.java.s7.netty.model.params.VarParameter;
 import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
+import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.VarPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
 import org.apache.plc4x.java.s7.netty.model.types.*;
@@ -40,8 +45,12 @@ import org.apache.plc4x.java.s7.netty.util.S7PlcFieldHandler;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +66,7 @@ import static org.mockito.Mockito.when;
 
 public class Plc4XS7ProtocolTest {
 
+    private Plc4XS7Protocol protocol;
     private EmbeddedChannel SUT;
     private PlcReadRequest.Builder readRequestBuilder =
         new DefaultPlcReadRequest.Builder(mock(PlcReader.class), new S7PlcFieldHandler());
@@ -67,6 +77,7 @@ public class Plc4XS7ProtocolTest {
     @Before
     public void setUp() {
         writeFuture = new CompletableFuture<>();
+        protocol = new Plc4XS7Protocol();
         SUT = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
             @Override
             public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
@@ -78,7 +89,7 @@ public class Plc4XS7ProtocolTest {
                         "Got message of type " + msg.getClass().getSimpleName()));
                 }
             }
-        }, new Plc4XS7Protocol());
+        }, protocol);
     }
 
     @Test
@@ -181,4 +192,104 @@ public class Plc4XS7ProtocolTest {
         assertThat(varPayloadItem.getData()[0], equalTo((byte) 0x42));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSimpleReadVarResponse() throws Exception {
+        PlcReadResponse response = readResponse(SUT);
+        assertThat(response, not(instanceOf(LazyPlcReadResponse.class)));
+        assertThat(response.getInteger("foo"), equalTo(0x1234));
+        assertThat(response.getResponseCode("bar"), equalTo(PlcResponseCode.NOT_FOUND));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLazyReadVarResponse() throws Exception {
+        writeFuture = new CompletableFuture<>();
+        EmbeddedChannel lazySUT = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                writeFuture.complete((S7Message) msg);
+                promise.setSuccess();
+            }
+        }, new Plc4XS7Protocol(true));
+        PlcReadResponse response = readResponse(lazySUT);
+        assertThat(response, instanceOf(LazyPlcReadResponse.class));
+        LazyPlcReadResponse lazyResponse = (LazyPlcReadResponse) response;
+        assertThat(lazyResponse.isDecoded("foo"), equalTo(false));
+        assertThat(lazyResponse.getRawData("foo").readableBytes(), equalTo(2));
+        assertThat(lazyResponse.getResponseCode("bar"), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThat(lazyResponse.getInteger("foo"), equalTo(0x1234));
+        assertThat(lazyResponse.isDecoded("foo"), equalTo(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedRequestIsForgotten() throws Exception {
+        CompletableFuture<InternalPlcReadResponse> future = new CompletableFuture<>();
+        PlcRequestContainer container = new PlcRequestContainer(
+            (DefaultPlcReadRequest) readRequestBuilder.addItem("foo", "%Q0:BYTE").build(), future);
+        SUT.writeOneOutbound(container);
+        writeFuture.get(100, TimeUnit.MILLISECONDS);
+        assertThat(requests().keySet(), hasSize(1));
+
+        future.completeExceptionally(new TimeoutException());
+
+        assertThat(requests().keySet(), empty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testProprietaryRequest() throws Exception {
+        S7RequestMessage readSslRequest = new S7RequestMessage(MessageType.USER_DATA, (short) 0,
+            Collections.singletonList(new CpuServicesRequestParameter(
+                CpuServicesParameterFunctionGroup.CPU_FUNCTIONS, CpuServicesParameterSubFunctionGroup.READ_SSL, (byte) 0)),
+            Collections.singletonList(new CpuServicesPayload(DataTransportErrorCode.OK,
+                SslId.COMMUNICATION_STATUS_DATA, (short) 0x0004)), null);
+        CompletableFuture<InternalPlcProprietaryResponse<S7ResponseMessage>> future = new CompletableFuture<>();
+        PlcRequestContainer container = new PlcRequestContainer(new DefaultPlcProprietaryRequest<>(readSslRequest), future);
+        SUT.writeOneOutbound(container);
+
+        S7Message writtenMessage = writeFuture.get(100, TimeUnit.MILLISECONDS);
+        assertThat(writtenMessage.getMessageType(), equalTo(MessageType.USER_DATA));
+        assertThat(writtenMessage.getParameters(), equalTo(readSslRequest.getParameters()));
+        assertThat(writtenMessage.getPayloads(), equalTo(readSslRequest.getPayloads()));
+        assertThat("The request container should be assigned parent to the write message",
+            writtenMessage.getParent(), equalTo(container));
+
+        S7ResponseMessage responseMessage = new S7ResponseMessage(MessageType.USER_DATA,
+            writtenMessage.getTpduReference(), Collections.emptyList(), Collections.emptyList(), (byte) 0, (byte) 0);
+        SUT.writeInbound(responseMessage);
+
+        InternalPlcProprietaryResponse<S7ResponseMessage> response = future.get(100, TimeUnit.MILLISECONDS);
+        assertThat(response.getResponse(), sameInstance(responseMessage));
+        assertThat(response.getRequest(), sameInstance(container.getRequest()));
+    }
+
+    private Map<?, ?> requests() throws Exception {
+        Field requestsField = Plc4XS7Protocol.class.getDeclaredField("requests");
+        requestsField.setAccessible(true);
+        return (Map<?, ?>) requestsField.get(protocol);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PlcReadResponse readResponse(EmbeddedChannel channel) throws Exception {
+        CompletableFuture<InternalPlcReadResponse> future = new CompletableFuture<>();
+        PlcRequestContainer container = new PlcRequestContainer(
+            (DefaultPlcReadRequest) readRequestBuilder.addItem("foo", "%DB1.DBW0:UINT").addItem("bar", "%DB1.DBW2:UINT").build(), future);
+        channel.writeOneOutbound(container);
+        S7Message writtenMessage = writeFuture.get(100, TimeUnit.MILLISECONDS);
+
+        // The items of the response are in the order of the field names of the request.
+        List<VarPayloadItem> items = new ArrayList<>();
+        for (String fieldName : ((InternalPlcReadRequest) container.getRequest()).getFieldNames()) {
+            items.add("foo".equals(fieldName)
+                ? new VarPayloadItem(DataTransportErrorCode.OK, DataTransportSize.BYTE_WORD_DWORD, new byte[]{0x12, 0x34})
+                : new VarPayloadItem(DataTransportErrorCode.NOT_FOUND, DataTransportSize.BYTE_WORD_DWORD, new byte[0]));
+        }
+        VarPayload payload = new VarPayload(ParameterType.READ_VAR, items);
+        channel.writeInbound(new S7ResponseMessage(MessageType.ACK_DATA, writtenMessage.getTpduReference(),
+            Collections.emptyList(), Collections.singletonList(payload), (byte) 0, (byte) 0));
+        return future.get(100, TimeUnit.MILLISECONDS);
+    }
+
 }
@@ -0,0 +1,147 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.s7.netty;
+
+import org.apache.plc4x.java.api.messages.PlcSubscriptionEvent;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.items.DefaultShortFieldItem;
+import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SubscriptionHandle;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicDataPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportErrorCode;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportSize;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class S7CyclicDataDispatcherTest {
+
+    private S7CyclicDataDispatcher SUT;
+
+    private S7SubscriptionHandle first;
+
+    private S7SubscriptionHandle second;
+
+    private AtomicInteger decodings;
+
+    @Before
+    public void setUp() {
+        SUT = new S7CyclicDataDispatcher();
+        decodings = new AtomicInteger();
+        first = handle("first", (byte) 7, 0);
+        second = handle("second", (byte) 7, 1);
+    }
+
+    @Test
+    public void dispatchRoutesValuesByItemIndex() {
+        List<PlcSubscriptionEvent> events = new ArrayList<>();
+        SUT.register(events::add, Arrays.asList(first, second));
+
+        SUT.dispatch((byte) 7, payload(item(0x00, 0x01), item(0x00, 0x02)));
+
+        assertThat(events.size(), equalTo(1));
+        PlcSubscriptionEvent event = events.get(0);
+        assertThat(event.getFieldNames(), containsInAnyOrder("first", "second"));
+        assertThat(event.getShort("first"), equalTo((short) 1));
+        assertThat(event.getShort("second"), equalTo((short) 2));
+    }
+
+    @Test
+    public void dispatchDecodesEachValueOnce() {
+        List<PlcSubscriptionEvent> firstEvents = new ArrayList<>();
+        List<PlcSubscriptionEvent> secondEvents = new ArrayList<>();
+        SUT.register(firstEvents::add, Collections.singletonList(first));
+        SUT.register(secondEvents::add, Collections.singletonList(first));
+
+        SUT.dispatch((byte) 7, payload(item(0x00, 0x01), item(0x00, 0x02)));
+
+        assertThat(firstEvents.size(), equalTo(1));
+        assertThat(secondEvents.size(), equalTo(1));
+        assertThat("Only the registered item should have been decoded, once", decodings.get(), equalTo(1));
+    }
+
+    @Test
+    public void dispatchReportsFailedItems() {
+        List<PlcSubscriptionEvent> events = new ArrayList<>();
+        SUT.register(events::add, Collections.singletonList(first));
+
+        SUT.dispatch((byte) 7, payload(new VarPayloadItem(DataTransportErrorCode.NOT_FOUND, DataTransportSize.NULL, new byte[0])));
+
+        assertThat(events.size(), equalTo(1));
+        assertThat(events.get(0).getResponseCode("first"), equalTo(PlcResponseCode.NOT_FOUND));
+        assertThat(decodings.get(), equalTo(0));
+    }
+
+    @Test
+    public void dispatchIgnoresUnknownJobs() {
+        List<PlcSubscriptionEvent> events = new ArrayList<>();
+        SUT.register(events::add, Collections.singletonList(first));
+
+        SUT.dispatch((byte) 8, payload(item(0x00, 0x01)));
+
+        assertThat(events.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void unregisterAndRemoveJob() {
+        List<PlcSubscriptionEvent> events = new ArrayList<>();
+        SUT.register(events::add, Collections.singletonList(first));
+        assertThat(SUT.getNumberOfJobs(), equalTo(1));
+
+        SUT.unregister(events::add, Collections.singletonList(first));
+        SUT.dispatch((byte) 7, payload(item(0x00, 0x01)));
+        assertThat("A different consumer instance shouldn't unregister anything", events.size(), equalTo(1));
+
+        SUT.removeJob((byte) 7);
+        SUT.dispatch((byte) 7, payload(item(0x00, 0x01)));
+        assertThat(events.size(), equalTo(1));
+        assertThat(SUT.getNumberOfJobs(), equalTo(0));
+    }
+
+    private S7SubscriptionHandle handle(String name, byte jobId, int itemIndex) {
+        return new S7SubscriptionHandle(null, name, S7Field.of("%DB1.DBW" + (itemIndex * 2) + ":INT"), jobId, itemIndex,
+            data -> {
+                decodings.incrementAndGet();
+                return new DefaultShortFieldItem(data.readShort());
+            });
+    }
+
+    private static CyclicDataPayload payload(VarPayloadItem... items) {
+        return new CyclicDataPayload(DataTransportErrorCode.OK, Arrays.asList(items));
+    }
+
+    private static VarPayloadItem item(int... data) {
+        byte[] bytes = new byte[data.length];
+        for (int i = 0; i < data.length; i++) {
+            bytes[i] = (byte) data[i];
+        }
+        return new VarPayloadItem(DataTransportErrorCode.OK, DataTransportSize.BYTE_WORD_DWORD, bytes);
+    }
+
+}
@@ -18,21 +18,32 @@ under the License.
 */
 package org.apache.plc4x.java.s7.netty;
 
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.apache.plc4x.java.api.exceptions.PlcProtocolException;
+import org.apache.plc4x.java.base.messages.InternalPlcReadRequest;
+import org.apache.plc4x.java.base.messages.InternalPlcResponse;
+import org.apache.plc4x.java.base.messages.PlcRequestContainer;
+import org.apache.plc4x.java.isotp.protocol.model.IsoTPMessage;
 import org.apache.plc4x.java.isotp.protocol.model.tpdus.DataTpdu;
+import org.apache.plc4x.java.s7.netty.model.messages.S7Message;
 import org.apache.plc4x.java.s7.netty.model.messages.S7RequestMessage;
+import org.apache.plc4x.java.s7.netty.model.messages.S7ResponseMessage;
 import org.apache.plc4x.java.s7.netty.model.messages.SetupCommunicationRequestMessage;
+import org.apache.plc4x.java.s7.netty.model.params.CpuServicesPushParameter;
 import org.apache.plc4x.java.s7.netty.model.params.CpuServicesRequestParameter;
 import org.apache.plc4x.java.s7.netty.model.params.VarParameter;
 import org.apache.plc4x.java.s7.netty.model.params.items.S7AnyVarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.params.items.VarParameterItem;
 import org.apache.plc4x.java.s7.netty.model.payloads.CpuServicesPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicDataPayload;
+import org.apache.plc4x.java.s7.netty.model.payloads.CyclicSubscriptionRequestPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.S7Payload;
 import org.apache.plc4x.java.s7.netty.model.payloads.VarPayload;
 import org.apache.plc4x.java.s7.netty.model.payloads.items.VarPayloadItem;
 import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslModuleIdentificationDataRecord;
+import org.apache.plc4x.java.s7.netty.model.payloads.ssls.SslRawDataRecord;
 import org.apache.plc4x.java.s7.netty.model.types.*;
 import org.apache.plc4x.java.s7.types.S7ControllerType;
 import org.junit.Before;
@@ -40,6 +51,8 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -176,6 +189,154 @@ public class S7ProtocolTest {
             Arrays.equals(actUserData, refUserData), equalTo(true));
     }
 
+    @Test
+    public void testCyclicSubscription() {
+        SUT.writeOneOutbound(
+            new S7RequestMessage(MessageType.USER_DATA, (short) 2,
+                Collections.singletonList(new CpuServicesRequestParameter(
+                    CpuServicesParameterFunctionGroup.CYCLIC_SERVICES,
+                    CpuServicesParameterSubFunctionGroup.CYCLIC_MEMORY, (byte) 0)),
+                Collections.singletonList(new CyclicSubscriptionRequestPayload(CyclicTimeBase.HUNDRED_MILLISECONDS, (byte) 5,
+                    Collections.singletonList(new S7AnyVarParameterItem(SpecificationType.VARIABLE_SPECIFICATION,
+                        MemoryArea.DATA_BLOCKS, TransportSize.BYTE, 1, (short) 2, (short) 3, (byte) 0)))),
+                null));
+        Object outbound = SUT.readOutbound();
+
+        assertThat("The protocol layer should have output something", outbound, notNullValue());
+        assertThat("The output should have been of type DataTpdu", outbound, instanceOf(DataTpdu.class));
+
+        DataTpdu dataTpdu = (DataTpdu) outbound;
+        byte[] actUserData = new byte[dataTpdu.getUserData().readableBytes()];
+        dataTpdu.getUserData().readBytes(actUserData);
+        byte[] refUserData = toByteArray(new int[] {
+            // Protocol Id: 0x32 => S7Comm
+            0x32,
+            // MessageType.USER_DATA
+            0x07,
+            // Reserved
+            0x00, 0x00,
+            // Pdu Reference = 2
+            0x00, 0x02,
+            // Parameter Length = 8
+            0x00, 0x08,
+            // Payload Length = 20
+            0x00, 0x14,
+            // ParameterType.CPU_SERVICES
+            0x00,
+            // ???
+            0x01, 0x12,
+            // Parameter Length
+            0x04,
+            // Type Request
+            0x11,
+            // Type: Request = 0x4 & Subtype: Cyclic services = 0x2
+            0x42,
+            // Sub-function: Cyclic memory
+            0x01,
+            // Sequence Number: 0x00
+            0x00,
+            //////// Payload
+            // Return code: Success
+            0xFF,
+            // Transport Size
+            0x09,
+            // Length
+            0x00, 0x10,
+            // Number of items = 1
+            0x00, 0x01,
+            // CyclicTimeBase.HUNDRED_MILLISECONDS
+            0x00,
+            // Time factor = 5
+            0x05,
+                // SpecificationType.VARIABLE_SPECIFICATION
+                0x12,
+                // Variable specification length = 10
+                0x0a,
+                // S7Any type of item
+                0x10,
+                // TransportSize.BYTE = 0x02
+                0x02,
+                // Number of items = 1
+                0x00, 0x01,
+                // DB Number = 2
+                0x00, 0x02,
+                // MemoryArea.DATA_BLOCKS = 0x84
+                0x84,
+                // Address: byte 3, bit 0
+                0x00, 0x00, 0x18});
+
+        assertThat("Output generated by the current layer doesn't match the expected output",
+            Arrays.equals(actUserData, refUserData), equalTo(true));
+    }
+
+    @Test
+    public void testCyclicDataPush() {
+        SUT.writeInbound(new IsoTPMessage(null, Unpooled.wrappedBuffer(toByteArray(new int[] {
+            // Protocol Id: 0x32 => S7Comm
+            0x32,
+            // MessageType.USER_DATA
+            0x07,
+            // Reserved
+            0x00, 0x00,
+            // Pdu Reference = 0
+            0x00, 0x00,
+            // Parameter Length = 12
+            0x00, 0x0c,
+            // Payload Length = 12
+            0x00, 0x0c,
+            // ParameterType.CPU_SERVICES
+            0x00,
+            // ???
+            0x01, 0x12,
+            // Parameter Length
+            0x08,
+            // Type Response
+            0x12,
+            // Type: Push = 0x0 & Subtype: Cyclic services = 0x2
+            0x02,
+            // Sub-function: Cyclic memory
+            0x01,
+            // Sequence Number: job id 5
+            0x05,
+            // Data unit reference number
+            0x00,
+            // Last data unit
+            0x00,
+            // ParameterError.NO_ERROR
+            0x00, 0x00,
+            //////// Payload
+            // Return code: Success
+            0xFF,
+            // Transport Size
+            0x09,
+            // Length
+            0x00, 0x08,
+            // Number of items = 1
+            0x00, 0x01,
+                // Return code: Success
+                0xFF,
+                // DataTransportSize.BYTE_WORD_DWORD
+                0x04,
+                // Length in bits = 16
+                0x00, 0x10,
+                // Data
+                0x12, 0x34}))));
+        Object inbound = SUT.readInbound();
+
+        assertThat("The protocol layer should have output something", inbound, instanceOf(S7RequestMessage.class));
+        S7Message message = (S7Message) inbound;
+        CpuServicesPushParameter parameter = message.getParameter(CpuServicesPushParameter.class).orElse(null);
+        assertThat("The message should contain a push parameter", parameter, notNullValue());
+        assertThat(parameter.getSubFunctionGroup(), equalTo(CpuServicesParameterSubFunctionGroup.CYCLIC_MEMORY));
+        assertThat(parameter.getSequenceNumber(), equalTo((byte) 5));
+        CyclicDataPayload payload = message.getPayload(CyclicDataPayload.class).orElse(null);
+        assertThat("The message should contain cyclic data", payload, notNullValue());
+        assertThat(payload.getItems().size(), equalTo(1));
+        VarPayloadItem item = payload.getItems().get(0);
+        assertThat(item.getReturnCode(), equalTo(DataTransportErrorCode.OK));
+        assertThat(Arrays.equals(item.getData(), toByteArray(new int[] {0x12, 0x34})), equalTo(true));
+    }
+
     @Test
     public void testReadVar() {
         SUT.writeOneOutbound(
@@ -399,6 +560,108 @@ public class S7ProtocolTest {
         assertThat("The protocol layer should have thrown an exception", exception, instanceOf(PlcProtocolException.class));
     }
 
+    @Test
+    public void testReadSslResponse() {
+        SUT.writeInbound(new IsoTPMessage(null, Unpooled.wrappedBuffer(toByteArray(new int[] {
+            // Protocol Id: 0x32 => S7Comm
+            0x32,
+            // MessageType.USER_DATA
+            0x07,
+            // Reserved
+            0x00, 0x00,
+            // Pdu Reference = 3
+            0x00, 0x03,
+            // Parameter Length = 12
+            0x00, 0x0c,
+            // Payload Length = 28
+            0x00, 0x1c,
+            // ParameterType.CPU_SERVICES
+            0x00,
+            // ???
+            0x01, 0x12,
+            // Parameter Length
+            0x08,
+            // Type Response
+            0x12,
+            // Type: Response = 0x8 & Subtype: CPU functions = 0x4
+            0x84,
+            // Sub-function: Read SSL
+            0x01,
+            // Sequence Number
+            0x01,
+            // Data unit reference number
+            0x00,
+            // Last data unit
+            0x00,
+            // ParameterError.NO_ERROR
+            0x00, 0x00,
+            //////// Payload
+            // Return code: Success
+            0xFF,
+            // Transport Size: Octet String
+            0x09,
+            // Length
+            0x00, 0x18,
+            // SSL-ID: Communication status data
+            0x01, 0x32,
+            // SSL-Index
+            0x00, 0x04,
+            // Partial list length in bytes = 8
+            0x00, 0x08,
+            // Partial list count = 2
+            0x00, 0x02,
+                0x00, 0x04, 0x00, 0x01, 0x00, 0x02, 0x00, 0x03,
+                0x00, 0x05, 0x00, 0x06, 0x00, 0x07, 0x00, 0x08}))));
+        Object inbound = SUT.readInbound();
+
+        assertThat("The protocol layer should have output something", inbound, instanceOf(S7ResponseMessage.class));
+        S7Message message = (S7Message) inbound;
+        assertThat(message.getTpduReference(), equalTo((short) 3));
+        CpuServicesPayload payload = message.getPayload(CpuServicesPayload.class).orElse(null);
+        assertThat("The message should contain a cpu services payload", payload, notNullValue());
+        assertThat(payload.getSslId(), equalTo(SslId.COMMUNICATION_STATUS_DATA));
+        assertThat(payload.getSslIndex(), equalTo((short) 0x0004));
+        assertThat(payload.getSslDataRecords().size(), equalTo(2));
+        assertThat(payload.getSslDataRecords().get(1), instanceOf(SslRawDataRecord.class));
+        SslRawDataRecord record = (SslRawDataRecord) payload.getSslDataRecords().get(1);
+        assertThat(Arrays.equals(record.getData(), toByteArray(new int[] {
+            0x00, 0x05, 0x00, 0x06, 0x00, 0x07, 0x00, 0x08})), equalTo(true));
+    }
+
+    /**
+     * A request failing before the PLC answered (e.g. by missing its deadline) should give up its slot, so the
+     * queued messages are sent nonetheless.
+     */
+    @Test
+    public void testFailedRequestReleasesItsSlot() {
+        SUT = new EmbeddedChannel(new S7Protocol((short) 1, (short) 1, (short) 50, S7ControllerType.ANY, null));
+        PlcRequestContainer<InternalPlcReadRequest, InternalPlcResponse> first =
+            new PlcRequestContainer<>(mock(InternalPlcReadRequest.class), new CompletableFuture<>());
+        PlcRequestContainer<InternalPlcReadRequest, InternalPlcResponse> second =
+            new PlcRequestContainer<>(mock(InternalPlcReadRequest.class), new CompletableFuture<>());
+        SUT.writeOneOutbound(readVarRequest((short) 1, first));
+        SUT.writeOneOutbound(readVarRequest((short) 2, second));
+        DataTpdu sent = SUT.readOutbound();
+        assertThat(sent.getParent(), instanceOf(S7RequestMessage.class));
+        assertThat(((S7RequestMessage) sent.getParent()).getTpduReference(), equalTo((short) 1));
+        assertThat("The second request should wait for the first one", SUT.readOutbound(), nullValue());
+
+        first.getResponseFuture().completeExceptionally(new TimeoutException());
+        SUT.runPendingTasks();
+
+        sent = SUT.readOutbound();
+        assertThat("The second request should have been sent", sent, notNullValue());
+        assertThat(((S7RequestMessage) sent.getParent()).getTpduReference(), equalTo((short) 2));
+    }
+
+    private static S7RequestMessage readVarRequest(short tpduReference, PlcRequestContainer<?, ?> parent) {
+        return new S7RequestMessage(MessageType.JOB, tpduReference, Collections.singletonList(
+            new VarParameter(ParameterType.READ_VAR, Collections.singletonList(
+                new S7AnyVarParameterItem(SpecificationType.VARIABLE_SPECIFICATION, MemoryArea.DATA_BLOCKS,
+                    TransportSize.BYTE, 1, (short) 2, (short) 3, (byte) 0)))),
+            null, parent);
+    }
+
     private static byte[] toByteArray(int[] input) {
         byte[] output = new byte[input.length];
         for (int i = 0; i < input.length; i++) {
@@ -23,6 +23,8 @@ import org.apache.plc4x.test.FastTests;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.time.Duration;
+
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.nullValue;
@@ -50,6 +52,15 @@ public class S7TypeTests {
         assertThat(dataTransportErrorCode.getCode(), equalTo((byte) 0x05));
     }
 
+    @Test
+    @Category(FastTests.class)
+    public void cyclicTimeBaseSupportedIntervals() {
+        assertThat(CyclicTimeBase.isSupported(Duration.ofMillis(99)), is(false));
+        assertThat(CyclicTimeBase.isSupported(Duration.ofMillis(100)), is(true));
+        assertThat(CyclicTimeBase.isSupported(Duration.ofSeconds(2550)), is(true));
+        assertThat(CyclicTimeBase.isSupported(Duration.ofSeconds(2551)), is(false));
+    }
+
     @Test
     @Category(FastTests.class)
     public void dataTransportSize() {
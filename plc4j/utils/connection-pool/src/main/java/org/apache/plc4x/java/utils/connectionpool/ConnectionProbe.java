@@ -0,0 +1,113 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Tells whether a pooled connection is still usable. Used to validate idle connections and, cheaply, on borrow.
+ */
+@FunctionalInterface
+public interface ConnectionProbe {
+
+    /**
+     * @param poolKey    key the connection is pooled under.
+     * @param connection the connection to check.
+     * @return {@code true} if the connection can still be used.
+     */
+    boolean test(PoolKey poolKey, PlcConnection connection);
+
+    /**
+     * @return a probe trusting {@link PlcConnection#isConnected()}, which only knows about the local end of the
+     * connection.
+     */
+    static ConnectionProbe connected() {
+        return (poolKey, connection) -> connection.isConnected();
+    }
+
+    /**
+     * A {@link #read(Function, Duration)} probe reading the same field on every connection, so only suitable for pools
+     * of a single driver.
+     *
+     * @param fieldQuery a field that is cheap to read on the PLCs of the pool.
+     */
+    static ConnectionProbe read(String fieldQuery, Duration timeout) {
+        Objects.requireNonNull(fieldQuery);
+        return read(poolKey -> fieldQuery, timeout);
+    }
+
+    /**
+     * A {@link #read(Function, Duration)} probe picking the field by the protocol of the connection, the part of its
+     * url before the first colon.
+     *
+     * @param fieldQueryPerProtocol a field that is cheap to read per protocol code, e.g. {@code s7}.
+     */
+    static ConnectionProbe read(Map<String, String> fieldQueryPerProtocol, Duration timeout) {
+        Map<String, String> fieldQueries = new HashMap<>(fieldQueryPerProtocol);
+        return read(poolKey -> {
+            String url = poolKey.getUrl();
+            int colon = url.indexOf(':');
+            return colon < 0 ? null : fieldQueries.get(url.substring(0, colon));
+        }, timeout);
+    }
+
+    /**
+     * A lightweight protocol ping: reads a field and expects any response within the given timeout. The response code
+     * doesn't matter, the PLC answering is all we want to know. Connections without a field to read or that can't
+     * read are only checked with {@link PlcConnection#isConnected()}.
+     *
+     * @param fieldQuery returns a field that is cheap to read on the PLC of the given key or {@code null} if there is
+     *                   none.
+     */
+    static ConnectionProbe read(Function<PoolKey, String> fieldQuery, Duration timeout) {
+        Objects.requireNonNull(fieldQuery);
+        Objects.requireNonNull(timeout);
+        Logger logger = LoggerFactory.getLogger(ConnectionProbe.class);
+        return (poolKey, connection) -> {
+            if (!connection.isConnected()) {
+                return false;
+            }
+            String query = fieldQuery.apply(poolKey);
+            if (query == null || !connection.getMetadata().canRead()) {
+                return true;
+            }
+            try {
+                PlcReadRequest request = connection.readRequestBuilder().addItem("probe", query).build();
+                request.execute().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) {
+                logger.debug("Probing {} failed", connection, e);
+                return false;
+            }
+        };
+    }
+}
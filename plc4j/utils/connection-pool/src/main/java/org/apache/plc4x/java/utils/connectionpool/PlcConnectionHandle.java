@@ -0,0 +1,151 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.apache.plc4x.java.api.messages.PlcSubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcUnsubscriptionRequest;
+import org.apache.plc4x.java.api.messages.PlcWriteRequest;
+import org.apache.plc4x.java.api.metadata.PlcConnectionMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The handle {@link PooledPlcDriverManager} hands out for a borrowed connection.
+ * <p>
+ * All calls are delegated to the pooled connection until the handle gets closed, which gives the connection back, or
+ * the connection fails to connect, which evicts it. Afterwards every call fails with an {@link IllegalStateException}.
+ */
+final class PlcConnectionHandle implements PlcConnection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlcConnectionHandle.class);
+
+    private static final AtomicIntegerFieldUpdater<PlcConnectionHandle> INVALIDATED =
+        AtomicIntegerFieldUpdater.newUpdater(PlcConnectionHandle.class, "invalidated");
+
+    private final PlcConnection plcConnection;
+
+    private final PoolAction onClose;
+
+    private final PoolAction onBroken;
+
+    private volatile int invalidated;
+
+    PlcConnectionHandle(PlcConnection plcConnection, PoolAction onClose, PoolAction onBroken) {
+        this.plcConnection = plcConnection;
+        this.onClose = onClose;
+        this.onBroken = onBroken;
+    }
+
+    @Override
+    public void connect() throws PlcConnectionException {
+        checkValid();
+        try {
+            plcConnection.connect();
+        } catch (PlcConnectionException e) {
+            if (e.getClass() == PlcConnectionException.class && invalidate()) {
+                try {
+                    onBroken.run();
+                } catch (Exception suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        checkValid();
+        return plcConnection.isConnected();
+    }
+
+    @Override
+    public void close() throws Exception {
+        LOGGER.debug("close called on {}", plcConnection);
+        if (!invalidate()) {
+            throw new IllegalStateException("Proxy not valid anymore");
+        }
+        onClose.run();
+    }
+
+    @Override
+    public PlcConnectionMetadata getMetadata() {
+        checkValid();
+        return plcConnection.getMetadata();
+    }
+
+    @Override
+    public PlcReadRequest.Builder readRequestBuilder() {
+        checkValid();
+        return plcConnection.readRequestBuilder();
+    }
+
+    @Override
+    public PlcWriteRequest.Builder writeRequestBuilder() {
+        checkValid();
+        return plcConnection.writeRequestBuilder();
+    }
+
+    @Override
+    public PlcSubscriptionRequest.Builder subscriptionRequestBuilder() {
+        checkValid();
+        return plcConnection.subscriptionRequestBuilder();
+    }
+
+    @Override
+    public PlcUnsubscriptionRequest.Builder unsubscriptionRequestBuilder() {
+        checkValid();
+        return plcConnection.unsubscriptionRequestBuilder();
+    }
+
+    boolean isValid() {
+        return invalidated == 0;
+    }
+
+    private void checkValid() {
+        if (invalidated != 0) {
+            throw new IllegalStateException("Proxy not valid anymore");
+        }
+    }
+
+    private boolean invalidate() {
+        return INVALIDATED.compareAndSet(this, 0, 1);
+    }
+
+    @Override
+    public String toString() {
+        return "PlcConnectionHandle{" +
+            "plcConnection=" + plcConnection +
+            ", valid=" + isValid() +
+            '}';
+    }
+
+    /**
+     * What to do with the pooled connection once the handle is done with it.
+     */
+    @FunctionalInterface
+    interface PoolAction {
+        void run() throws Exception;
+    }
+}
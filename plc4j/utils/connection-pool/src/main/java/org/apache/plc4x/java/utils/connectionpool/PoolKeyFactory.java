@@ -16,7 +16,6 @@
  specific language governing permissions and limitations
  under the License.
  */
-
 package org.apache.plc4x.java.utils.connectionpool;
 
 import org.apache.plc4x.java.api.authentication.PlcAuthentication;
@@ -25,13 +24,56 @@ import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class PoolKeyFactory {
 
+    /**
+     * Upper bound for the number of memoized keys, urls beyond that get a fresh key on every call.
+     */
+    static final int MAX_CACHED_KEYS = 1024;
+
+    private static final Pattern S7_URI_PATTERN = Pattern.compile("^(?<poolablePart>s7://(?<host>.*)/(?<rack>\\d{1,4})/(?<slot>\\d{1,4}))(?<params>\\?.*)?");
+
+    private static final Pattern AMS_PORT_PATTERN = Pattern.compile("\\d+");
+    private static final Pattern AMS_NET_ID_PATTERN = Pattern.compile("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
+    private static final Pattern ADS_ADDRESS_PATTERN =
+        Pattern.compile("(?<targetAmsNetId>" + AMS_NET_ID_PATTERN + "):(?<targetAmsPort>" + AMS_PORT_PATTERN + ")"
+            + "(/"
+            + "(?<sourceAmsNetId>" + AMS_NET_ID_PATTERN + "):(?<sourceAmsPort>" + AMS_PORT_PATTERN + ")"
+            + ")?");
+    private static final Pattern INET_ADDRESS_PATTERN = Pattern.compile("tcp://(?<host>[\\w.]+)(:(?<port>\\d*))?");
+    private static final Pattern SERIAL_PATTERN = Pattern.compile("serial://(?<serialDefinition>((?!/\\d).)*)");
+    private static final Pattern ADS_URI_PATTERN = Pattern.compile("^(?<poolablePart>ads:(" + INET_ADDRESS_PATTERN + "|" + SERIAL_PATTERN + "))/" + ADS_ADDRESS_PATTERN + "(\\?.*)?");
+
+    private static final Pattern MODBUS_URI_PATTERN = Pattern.compile("^(?<poolablePart>modbus:(" + INET_ADDRESS_PATTERN + "|" + SERIAL_PATTERN + "))/?" + "(?<params>\\?.*)?");
+
+    // Keys without authentication by url, the pool looks them up on every borrow.
+    private final ConcurrentMap<String, PoolKey> poolKeys = new ConcurrentHashMap<>();
+
     public PoolKey getPoolKey(String url, PlcAuthentication plcAuthentication) throws PlcConnectionException {
         Objects.requireNonNull(url);
+        if (plcAuthentication != PooledPlcDriverManager.noPlcAuthentication) {
+            return createPoolKey(url, plcAuthentication);
+        }
+        PoolKey poolKey = poolKeys.get(url);
+        if (poolKey != null) {
+            return poolKey;
+        }
+        poolKey = createPoolKey(url, plcAuthentication);
+        if (poolKeys.size() < MAX_CACHED_KEYS) {
+            PoolKey existing = poolKeys.putIfAbsent(url, poolKey);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return poolKey;
+    }
+
+    protected PoolKey createPoolKey(String url, PlcAuthentication plcAuthentication) throws PlcConnectionException {
         URI connectionUri;
         try {
             connectionUri = new URI(url);
@@ -41,56 +83,11 @@ public class PoolKeyFactory {
         String protocol = connectionUri.getScheme().toLowerCase();
         switch (protocol) {
             case "s7":
-                return new PoolKey(url, plcAuthentication) {
-                    private final Pattern s7URIPattern = Pattern.compile("^(?<poolablePart>s7://(?<host>.*)/(?<rack>\\d{1,4})/(?<slot>\\d{1,4}))(?<params>\\?.*)?");
-
-                    @Override
-                    public String getPoolableKey() {
-                        Matcher matcher = s7URIPattern.matcher(url);
-                        if (!matcher.matches()) {
-                            throw new IllegalArgumentException(url + " doesn't match " + s7URIPattern);
-                        }
-                        return Objects.requireNonNull(matcher.group("poolablePart"));
-                    }
-                };
+                return new PatternPoolKey(url, plcAuthentication, S7_URI_PATTERN);
             case "ads":
-                return new PoolKey(url, plcAuthentication) {
-                    private final Pattern amsPortPattern = Pattern.compile("\\d+");
-                    private final Pattern amsNetIdPattern = Pattern.compile("\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
-                    private final Pattern adsAddressPattern =
-                        Pattern.compile("(?<targetAmsNetId>" + amsNetIdPattern + "):(?<targetAmsPort>" + amsPortPattern + ")"
-                            + "(/"
-                            + "(?<sourceAmsNetId>" + amsNetIdPattern + "):(?<sourceAmsPort>" + amsPortPattern + ")"
-                            + ")?");
-                    private final Pattern inetAddressPattern = Pattern.compile("tcp://(?<host>[\\w.]+)(:(?<port>\\d*))?");
-                    private final Pattern serialPattern = Pattern.compile("serial://(?<serialDefinition>((?!/\\d).)*)");
-                    private final Pattern adsUriPattern = Pattern.compile("^(?<poolablePart>ads:(" + inetAddressPattern + "|" + serialPattern + "))/" + adsAddressPattern + "(\\?.*)?");
-
-                    @Override
-                    public String getPoolableKey() {
-                        Matcher matcher =
-                            adsUriPattern.matcher(url);
-                        if (!matcher.matches()) {
-                            throw new IllegalArgumentException(url + " doesn't match " + adsUriPattern);
-                        }
-                        return Objects.requireNonNull(matcher.group("poolablePart"));
-                    }
-                };
+                return new PatternPoolKey(url, plcAuthentication, ADS_URI_PATTERN);
             case "modbus":
-                return new PoolKey(url, plcAuthentication) {
-                    private final Pattern inetAddressPattern = Pattern.compile("tcp://(?<host>[\\w.]+)(:(?<port>\\d*))?");
-                    private final Pattern serialPattern = Pattern.compile("serial://(?<serialDefinition>((?!/\\d).)*)");
-                    private final Pattern modbusUriPattern = Pattern.compile("^(?<poolablePart>modbus:(" + inetAddressPattern + "|" + serialPattern + "))/?" + "(?<params>\\?.*)?");
-
-                    @Override
-                    public String getPoolableKey() {
-                        Matcher matcher = modbusUriPattern.matcher(url);
-                        if (!matcher.matches()) {
-                            throw new IllegalArgumentException(url + " doesn't match " + modbusUriPattern);
-                        }
-                        return Objects.requireNonNull(matcher.group("poolablePart"));
-                    }
-                };
+                return new PatternPoolKey(url, plcAuthentication, MODBUS_URI_PATTERN);
             default:
                 return new PoolKey(url, plcAuthentication) {
                     @Override
@@ -100,4 +97,34 @@ public class PoolKeyFactory {
                 };
         }
     }
+
+    /**
+     * Pools by the {@code poolablePart} group of a pattern, which is only matched once per key.
+     */
+    static class PatternPoolKey extends PoolKey {
+
+        private final Pattern pattern;
+
+        // Racy single check, the pattern always yields the same immutable string.
+        private String poolableKey;
+
+        PatternPoolKey(String url, PlcAuthentication plcAuthentication, Pattern pattern) {
+            super(url, plcAuthentication);
+            this.pattern = pattern;
+        }
+
+        @Override
+        public String getPoolableKey() {
+            String result = poolableKey;
+            if (result == null) {
+                Matcher matcher = pattern.matcher(url);
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException(url + " doesn't match " + pattern);
+                }
+                result = Objects.requireNonNull(matcher.group("poolablePart"));
+                poolableKey = result;
+            }
+            return result;
+        }
+    }
 }
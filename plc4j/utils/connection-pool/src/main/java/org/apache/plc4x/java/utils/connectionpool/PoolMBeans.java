@@ -0,0 +1,200 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the statistics of a pool as {@link PoolStatisticsMXBean}s, one for the whole pool and one per pool key.
+ * Beans of keys showing up later are registered as they appear.
+ */
+class PoolMBeans implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolMBeans.class);
+
+    static final String DOMAIN = "org.apache.plc4x.java.utils.connectionpool";
+
+    private final MBeanServer mBeanServer;
+
+    private final String name;
+
+    private final Supplier<PoolStatistics> statistics;
+
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+
+    PoolMBeans(MBeanServer mBeanServer, String name, Supplier<PoolStatistics> statistics) {
+        this.mBeanServer = mBeanServer;
+        this.name = name;
+        this.statistics = statistics;
+    }
+
+    PoolMBeans(String name, Supplier<PoolStatistics> statistics) {
+        this(ManagementFactory.getPlatformMBeanServer(), name, statistics);
+    }
+
+    static ObjectName poolName(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=PooledPlcDriverManager,name=" + ObjectName.quote(name));
+    }
+
+    static ObjectName keyName(String name, PoolKey key) throws JMException {
+        return new ObjectName(DOMAIN + ":type=PooledPlcDriverManager,name=" + ObjectName.quote(name)
+            + ",key=" + ObjectName.quote(key.toString()));
+    }
+
+    /**
+     * @throws PlcRuntimeException if the pool bean can't be registered, e.g. because the name is taken.
+     */
+    void registerPool() {
+        try {
+            register(poolName(name), () -> statistics.get().getTotal());
+        } catch (JMException e) {
+            throw new PlcRuntimeException("Error registering MBean for pool " + name, e);
+        }
+    }
+
+    void registerKey(PoolKey key) {
+        String keyString = key.toString();
+        try {
+            register(keyName(name, key), () -> {
+                PoolStatistics.KeyStatistics keyStatistics = statistics.get().getKeys().get(keyString);
+                if (keyStatistics == null) {
+                    throw new IllegalStateException("No statistics for " + keyString);
+                }
+                return keyStatistics;
+            });
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.debug("MBean for {} is already registered", key);
+        } catch (JMException e) {
+            // A missing key bean shouldn't fail borrowing a connection.
+            LOGGER.warn("Error registering MBean for {}", key, e);
+        }
+    }
+
+    private void register(ObjectName objectName, Supplier<PoolStatistics.KeyStatistics> keyStatistics) throws JMException {
+        mBeanServer.registerMBean(new Bean(keyStatistics), objectName);
+        registered.add(objectName);
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName objectName : registered) {
+            try {
+                mBeanServer.unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOGGER.warn("Error unregistering MBean {}", objectName, e);
+            }
+        }
+        registered.clear();
+    }
+
+    private static class Bean implements PoolStatisticsMXBean {
+
+        private final Supplier<PoolStatistics.KeyStatistics> keyStatistics;
+
+        private Bean(Supplier<PoolStatistics.KeyStatistics> keyStatistics) {
+            this.keyStatistics = keyStatistics;
+        }
+
+        @Override
+        public int getNumActive() {
+            return keyStatistics.get().getNumActive();
+        }
+
+        @Override
+        public int getNumIdle() {
+            return keyStatistics.get().getNumIdle();
+        }
+
+        @Override
+        public int getNumLeases() {
+            return keyStatistics.get().getNumLeases();
+        }
+
+        @Override
+        public long getBorrows() {
+            return keyStatistics.get().getBorrows();
+        }
+
+        @Override
+        public long getBorrowFailures() {
+            return keyStatistics.get().getBorrowFailures();
+        }
+
+        @Override
+        public long[] getBorrowWaitBoundsMillis() {
+            return PoolStatistics.getBorrowWaitBoundsMillis();
+        }
+
+        @Override
+        public long[] getBorrowWaitHistogram() {
+            return keyStatistics.get().getBorrowWaitHistogram();
+        }
+
+        @Override
+        public double getMeanBorrowWaitMillis() {
+            return keyStatistics.get().getMeanBorrowWaitMillis();
+        }
+
+        @Override
+        public double getMaxBorrowWaitMillis() {
+            return keyStatistics.get().getMaxBorrowWaitMillis();
+        }
+
+        @Override
+        public long getCreated() {
+            return keyStatistics.get().getCreated();
+        }
+
+        @Override
+        public long getCreationFailures() {
+            return keyStatistics.get().getCreationFailures();
+        }
+
+        @Override
+        public long getValidationFailures() {
+            return keyStatistics.get().getValidationFailures();
+        }
+
+        @Override
+        public long getDestroyed() {
+            return keyStatistics.get().getDestroyed();
+        }
+
+        @Override
+        public double getMeanLifetimeMillis() {
+            return keyStatistics.get().getMeanLifetimeMillis();
+        }
+
+        @Override
+        public long getMaxLifetimeMillis() {
+            return keyStatistics.get().getMaxLifetimeMillis();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.commons.pool2.KeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.plc4x.java.api.PlcConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the connections of a pool healthy in the background: connects to the warm-up urls, validates idle
+ * connections and reconnects keys below their minimum of connections, backing off exponentially while a PLC
+ * is unreachable. This way a borrower after an outage finds a fresh connection instead of setting one up itself.
+ * Keys that haven't been borrowed for the configured expiry are dropped along with their idle connections.
+ */
+class PoolMaintenance implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PoolMaintenance.class);
+
+    private final KeyedObjectPool<PoolKey, PlcConnection> pool;
+
+    private final PoolMaintenanceConfig config;
+
+    private final Map<PoolKey, KeyState> keys = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    // Only accessed by the maintenance thread.
+    private long nextValidation;
+
+    PoolMaintenance(KeyedObjectPool<PoolKey, PlcConnection> pool, PoolMaintenanceConfig config, Collection<PoolKey> warmUpKeys) {
+        this.pool = pool;
+        this.config = config;
+        // Warm-up urls are kept open even if no minimum of idle connections is configured.
+        int warmUpMinIdle = Math.max(1, config.getMinIdlePerKey());
+        warmUpKeys.forEach(key -> keys.put(key, new KeyState(warmUpMinIdle, false)));
+        this.nextValidation = System.nanoTime() + config.getValidationInterval().toNanos();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plc4x-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start() {
+        long tick = Math.min(config.getValidationInterval().toMillis(), config.getInitialBackoff().toMillis());
+        executor.scheduleWithFixedDelay(this::run, 0, Math.max(tick, 1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes the maintenance care for the given key from now on.
+     */
+    void register(PoolKey key) {
+        if (config.getMinIdlePerKey() == 0) {
+            return;
+        }
+        KeyState state = keys.get(key);
+        if (state == null) {
+            state = keys.computeIfAbsent(key, ignore -> new KeyState(config.getMinIdlePerKey(), true));
+        }
+        state.lastUsed = System.nanoTime();
+    }
+
+    /**
+     * @return whether the given key is currently maintained.
+     */
+    boolean isMaintained(PoolKey key) {
+        return keys.containsKey(key);
+    }
+
+    /**
+     * @return number of failed connection attempts in a row for the given key.
+     */
+    int getFailures(PoolKey key) {
+        KeyState state = keys.get(key);
+        return state != null ? state.failures : 0;
+    }
+
+    void run() {
+        try {
+            long now = System.nanoTime();
+            if (now - nextValidation >= 0) {
+                validateIdle();
+                nextValidation = now + config.getValidationInterval().toNanos();
+            }
+            for (Map.Entry<PoolKey, KeyState> entry : keys.entrySet()) {
+                if (entry.getValue().isExpired(now)) {
+                    expire(entry.getKey(), entry.getValue());
+                } else {
+                    replenish(entry.getKey(), entry.getValue(), now);
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel all further runs.
+            LOGGER.error("Pool maintenance failed", e);
+        }
+    }
+
+    private void validateIdle() {
+        if (!(pool instanceof GenericKeyedObjectPool)) {
+            return;
+        }
+        try {
+            // Tests all idle connections (testWhileIdle is enabled along with the maintenance) and destroys the dead ones.
+            ((GenericKeyedObjectPool<PoolKey, PlcConnection>) pool).evict();
+        } catch (Exception e) {
+            LOGGER.warn("Validating idle connections failed", e);
+        }
+    }
+
+    private void expire(PoolKey key, KeyState state) {
+        if (!keys.remove(key, state)) {
+            return;
+        }
+        LOGGER.debug("{} hasn't been borrowed for {}, closing its idle connections", key, config.getKeyExpiry());
+        try {
+            pool.clear(key);
+        } catch (Exception e) {
+            LOGGER.warn("Closing the idle connections of {} failed", key, e);
+        }
+    }
+
+    private void replenish(PoolKey key, KeyState state, long now) {
+        if (now - state.nextAttempt < 0) {
+            return;
+        }
+        try {
+            // Borrowed connections count as well, they return to the pool eventually.
+            int missing = state.minIdle - pool.getNumIdle(key) - pool.getNumActive(key);
+            for (int i = 0; i < missing; i++) {
+                pool.addObject(key);
+            }
+            if (state.failures > 0) {
+                LOGGER.info("Reconnected {} after {} failed attempts", key, state.failures);
+            }
+            state.succeeded();
+        } catch (Exception e) {
+            state.failed(now);
+            LOGGER.warn("Connecting {} failed {} times in a row, retrying in {}ms", key, state.failures,
+                TimeUnit.NANOSECONDS.toMillis(state.nextAttempt - now), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private final class KeyState {
+
+        private final int minIdle;
+
+        private final boolean expires;
+
+        private volatile long lastUsed;
+
+        private long nextAttempt;
+
+        private long backoff;
+
+        private volatile int failures;
+
+        private KeyState(int minIdle, boolean expires) {
+            this.minIdle = minIdle;
+            this.expires = expires;
+            this.nextAttempt = System.nanoTime();
+            this.lastUsed = nextAttempt;
+        }
+
+        private boolean isExpired(long now) {
+            return expires && now - lastUsed >= config.getKeyExpiry().toNanos();
+        }
+
+        private void succeeded() {
+            failures = 0;
+            backoff = 0;
+        }
+
+        private void failed(long now) {
+            failures++;
+            backoff = backoff == 0
+                ? config.getInitialBackoff().toNanos()
+                : Math.min(backoff * 2, config.getMaxBackoff().toNanos());
+            nextAttempt = now + backoff;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Settings for the background maintenance of a {@link PooledPlcDriverManager}, see
+ * {@link PooledPlcDriverManager#startMaintenance(PoolMaintenanceConfig)}.
+ * <p>
+ * A config is immutable.
+ */
+public class PoolMaintenanceConfig {
+
+    private final List<String> warmUpUrls;
+
+    private final int minIdlePerKey;
+
+    private final Duration validationInterval;
+
+    private final ConnectionProbe probe;
+
+    private final boolean validateOnBorrow;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final Duration keyExpiry;
+
+    private PoolMaintenanceConfig(List<String> warmUpUrls, int minIdlePerKey, Duration validationInterval,
+                                  ConnectionProbe probe, boolean validateOnBorrow, Duration initialBackoff,
+                                  Duration maxBackoff, Duration keyExpiry) {
+        this.warmUpUrls = Collections.unmodifiableList(warmUpUrls);
+        this.minIdlePerKey = minIdlePerKey;
+        this.validationInterval = validationInterval;
+        this.probe = probe;
+        this.validateOnBorrow = validateOnBorrow;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.keyExpiry = keyExpiry;
+    }
+
+    public static PoolMaintenanceConfigBuilder builder() {
+        return new PoolMaintenanceConfigBuilder();
+    }
+
+    public List<String> getWarmUpUrls() {
+        return warmUpUrls;
+    }
+
+    public int getMinIdlePerKey() {
+        return minIdlePerKey;
+    }
+
+    public Duration getValidationInterval() {
+        return validationInterval;
+    }
+
+    public ConnectionProbe getProbe() {
+        return probe;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public Duration getKeyExpiry() {
+        return keyExpiry;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMaintenanceConfig{" +
+            "warmUpUrls=" + warmUpUrls +
+            ", minIdlePerKey=" + minIdlePerKey +
+            ", validationInterval=" + validationInterval +
+            ", validateOnBorrow=" + validateOnBorrow +
+            ", initialBackoff=" + initialBackoff +
+            ", maxBackoff=" + maxBackoff +
+            ", keyExpiry=" + keyExpiry +
+            '}';
+    }
+
+    public static class PoolMaintenanceConfigBuilder {
+        private final List<String> warmUpUrls = new ArrayList<>();
+        private int minIdlePerKey = 1;
+        private Duration validationInterval = Duration.ofSeconds(30);
+        private ConnectionProbe probe = ConnectionProbe.connected();
+        private boolean validateOnBorrow = true;
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofMinutes(1);
+        private Duration keyExpiry = Duration.ofMinutes(10);
+
+        /**
+         * Urls to connect to right away, without waiting for the first borrower.
+         */
+        public PoolMaintenanceConfigBuilder warmUp(String... urls) {
+            return warmUp(Arrays.asList(urls));
+        }
+
+        public PoolMaintenanceConfigBuilder warmUp(Collection<String> urls) {
+            urls.forEach(url -> warmUpUrls.add(Objects.requireNonNull(url)));
+            return this;
+        }
+
+        /**
+         * Number of connections, idle or borrowed, kept open for every url used recently, reconnecting in the
+         * background if needed.
+         */
+        public PoolMaintenanceConfigBuilder minIdlePerKey(int minIdlePerKey) {
+            if (minIdlePerKey < 0) {
+                throw new IllegalArgumentException("minIdlePerKey must not be negative");
+            }
+            this.minIdlePerKey = minIdlePerKey;
+            return this;
+        }
+
+        /**
+         * How often idle connections are checked with the {@link #probe(ConnectionProbe)}.
+         */
+        public PoolMaintenanceConfigBuilder validationInterval(Duration validationInterval) {
+            if (validationInterval.isNegative() || validationInterval.isZero()) {
+                throw new IllegalArgumentException("validationInterval must be positive");
+            }
+            this.validationInterval = validationInterval;
+            return this;
+        }
+
+        public PoolMaintenanceConfigBuilder probe(ConnectionProbe probe) {
+            this.probe = Objects.requireNonNull(probe);
+            return this;
+        }
+
+        /**
+         * Whether idle connections are checked with {@link org.apache.plc4x.java.api.PlcConnection#isConnected()}
+         * before being handed out.
+         */
+        public PoolMaintenanceConfigBuilder validateOnBorrow(boolean validateOnBorrow) {
+            this.validateOnBorrow = validateOnBorrow;
+            return this;
+        }
+
+        /**
+         * Delay before reconnecting after the first failed attempt, doubled on every further failure up to
+         * {@code maxBackoff}.
+         */
+        public PoolMaintenanceConfigBuilder backoff(Duration initialBackoff, Duration maxBackoff) {
+            if (initialBackoff.isNegative() || initialBackoff.isZero() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("Backoffs must be positive and maxBackoff not less than initialBackoff");
+            }
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * How long a url that isn't borrowed anymore is kept open, after that its idle connections are closed.
+         * Warm-up urls never expire.
+         */
+        public PoolMaintenanceConfigBuilder keyExpiry(Duration keyExpiry) {
+            if (keyExpiry.isNegative() || keyExpiry.isZero()) {
+                throw new IllegalArgumentException("keyExpiry must be positive");
+            }
+            this.keyExpiry = keyExpiry;
+            return this;
+        }
+
+        public PoolMaintenanceConfig build() {
+            return new PoolMaintenanceConfig(new ArrayList<>(warmUpUrls), minIdlePerKey, validationInterval, probe,
+                validateOnBorrow, initialBackoff, maxBackoff, keyExpiry);
+        }
+    }
+}
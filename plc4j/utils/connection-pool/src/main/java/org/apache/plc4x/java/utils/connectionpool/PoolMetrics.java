@@ -0,0 +1,166 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.commons.pool2.KeyedObjectPool;
+import org.apache.plc4x.java.api.PlcConnection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Records what happens to the connections of a pool per {@link PoolKey}. Recording only touches counters, so it
+ * is cheap enough for every borrow, a consistent view is only assembled by {@link #snapshot}.
+ */
+class PoolMetrics {
+
+    /**
+     * Inclusive upper bounds of the borrow wait histogram buckets, the last bucket counts everything above.
+     */
+    static final long[] BORROW_WAIT_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private final ConcurrentMap<PoolKey, KeyMetrics> keys = new ConcurrentHashMap<>();
+
+    private volatile Consumer<PoolKey> newKeyListener = key -> {
+    };
+
+    /**
+     * Gets notified whenever a key is recorded for the first time.
+     */
+    void setNewKeyListener(Consumer<PoolKey> newKeyListener) {
+        this.newKeyListener = newKeyListener;
+    }
+
+    KeyMetrics forKey(PoolKey key) {
+        KeyMetrics keyMetrics = keys.get(key);
+        if (keyMetrics != null) {
+            return keyMetrics;
+        }
+        KeyMetrics created = new KeyMetrics();
+        keyMetrics = keys.putIfAbsent(key, created);
+        if (keyMetrics == null) {
+            newKeyListener.accept(key);
+            return created;
+        }
+        return keyMetrics;
+    }
+
+    Iterable<PoolKey> getKeys() {
+        return keys.keySet();
+    }
+
+    /**
+     * @param sharedConnections the shared connections to count leases of, may be {@code null}.
+     */
+    PoolStatistics snapshot(KeyedObjectPool<PoolKey, PlcConnection> pool, SharedConnections sharedConnections) {
+        Map<String, PoolStatistics.KeyStatistics> keyStatistics = new LinkedHashMap<>();
+        for (Map.Entry<PoolKey, KeyMetrics> entry : keys.entrySet()) {
+            PoolKey key = entry.getKey();
+            int numLeases = sharedConnections != null ? sharedConnections.getNumberOfLeases(key) : 0;
+            keyStatistics.put(key.toString(), entry.getValue().snapshot(key.toString(), pool.getNumActive(key), pool.getNumIdle(key), numLeases));
+        }
+        return new PoolStatistics(pool.getNumActive(), pool.getNumIdle(), keyStatistics);
+    }
+
+    static int bucketOf(long waitNanos) {
+        for (int bucket = 0; bucket < BORROW_WAIT_BOUNDS_MILLIS.length; bucket++) {
+            if (waitNanos <= TimeUnit.MILLISECONDS.toNanos(BORROW_WAIT_BOUNDS_MILLIS[bucket])) {
+                return bucket;
+            }
+        }
+        return BORROW_WAIT_BOUNDS_MILLIS.length;
+    }
+
+    static class KeyMetrics {
+
+        private final LongAdder borrows = new LongAdder();
+
+        private final LongAdder borrowFailures = new LongAdder();
+
+        private final LongAdder borrowWaitNanos = new LongAdder();
+
+        private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+
+        private final AtomicLongArray borrowWaitHistogram = new AtomicLongArray(BORROW_WAIT_BOUNDS_MILLIS.length + 1);
+
+        private final LongAdder created = new LongAdder();
+
+        private final LongAdder creationFailures = new LongAdder();
+
+        private final LongAdder validationFailures = new LongAdder();
+
+        private final LongAdder destroyed = new LongAdder();
+
+        private final LongAdder lifetimeMillis = new LongAdder();
+
+        private final AtomicLong maxLifetimeMillis = new AtomicLong();
+
+        void borrowed(long waitNanos) {
+            borrows.increment();
+            recordWait(waitNanos);
+        }
+
+        void borrowFailed(long waitNanos) {
+            borrowFailures.increment();
+            recordWait(waitNanos);
+        }
+
+        private void recordWait(long waitNanos) {
+            borrowWaitNanos.add(waitNanos);
+            maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            borrowWaitHistogram.incrementAndGet(bucketOf(waitNanos));
+        }
+
+        void created() {
+            created.increment();
+        }
+
+        void creationFailed() {
+            creationFailures.increment();
+        }
+
+        void validationFailed() {
+            validationFailures.increment();
+        }
+
+        void destroyed(long lifetime) {
+            destroyed.increment();
+            lifetimeMillis.add(lifetime);
+            maxLifetimeMillis.accumulateAndGet(lifetime, Math::max);
+        }
+
+        PoolStatistics.KeyStatistics snapshot(String key, int numActive, int numIdle, int numLeases) {
+            long[] histogram = new long[borrowWaitHistogram.length()];
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                histogram[bucket] = borrowWaitHistogram.get(bucket);
+            }
+            return new PoolStatistics.KeyStatistics(key, numActive, numIdle, numLeases,
+                borrows.sum(), borrowFailures.sum(), borrowWaitNanos.sum(), maxBorrowWaitNanos.get(), histogram,
+                created.sum(), creationFailures.sum(), validationFailures.sum(),
+                destroyed.sum(), lifetimeMillis.sum(), maxLifetimeMillis.get());
+        }
+    }
+}
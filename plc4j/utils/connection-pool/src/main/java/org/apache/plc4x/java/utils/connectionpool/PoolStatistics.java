@@ -0,0 +1,257 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the state of a {@link PooledPlcDriverManager} and of what happened to its connections so far, per
+ * pool key and in total. Counters are cumulative since the manager was created.
+ */
+public class PoolStatistics {
+
+    private final int numActive;
+
+    private final int numIdle;
+
+    private final Map<String, KeyStatistics> keys;
+
+    private final KeyStatistics total;
+
+    PoolStatistics(int numActive, int numIdle, Map<String, KeyStatistics> keys) {
+        this.numActive = numActive;
+        this.numIdle = numIdle;
+        this.keys = Collections.unmodifiableMap(keys);
+        KeyStatistics sum = KeyStatistics.empty("total", numActive, numIdle);
+        for (KeyStatistics keyStatistics : keys.values()) {
+            sum = sum.plus(keyStatistics);
+        }
+        this.total = sum;
+    }
+
+    /**
+     * @return the inclusive upper bounds of the borrow wait histogram buckets in milliseconds, the histograms have
+     * one more bucket for all longer waits.
+     */
+    public static long[] getBorrowWaitBoundsMillis() {
+        return PoolMetrics.BORROW_WAIT_BOUNDS_MILLIS.clone();
+    }
+
+    public int getNumActive() {
+        return numActive;
+    }
+
+    public int getNumIdle() {
+        return numIdle;
+    }
+
+    /**
+     * @return the statistics of every pool key seen so far, by the string representation of the key.
+     */
+    public Map<String, KeyStatistics> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return the statistics of all keys summed up.
+     */
+    public KeyStatistics getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+            "numActive=" + numActive +
+            ", numIdle=" + numIdle +
+            ", keys=" + keys.values() +
+            '}';
+    }
+
+    public static class KeyStatistics {
+
+        private final String key;
+
+        private final int numActive;
+
+        private final int numIdle;
+
+        private final int numLeases;
+
+        private final long borrows;
+
+        private final long borrowFailures;
+
+        private final long borrowWaitNanos;
+
+        private final long maxBorrowWaitNanos;
+
+        private final long[] borrowWaitHistogram;
+
+        private final long created;
+
+        private final long creationFailures;
+
+        private final long validationFailures;
+
+        private final long destroyed;
+
+        private final long lifetimeMillis;
+
+        private final long maxLifetimeMillis;
+
+        KeyStatistics(String key, int numActive, int numIdle, int numLeases, long borrows, long borrowFailures,
+                      long borrowWaitNanos, long maxBorrowWaitNanos, long[] borrowWaitHistogram, long created,
+                      long creationFailures, long validationFailures, long destroyed, long lifetimeMillis,
+                      long maxLifetimeMillis) {
+            this.key = key;
+            this.numActive = numActive;
+            this.numIdle = numIdle;
+            this.numLeases = numLeases;
+            this.borrows = borrows;
+            this.borrowFailures = borrowFailures;
+            this.borrowWaitNanos = borrowWaitNanos;
+            this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+            this.borrowWaitHistogram = borrowWaitHistogram;
+            this.created = created;
+            this.creationFailures = creationFailures;
+            this.validationFailures = validationFailures;
+            this.destroyed = destroyed;
+            this.lifetimeMillis = lifetimeMillis;
+            this.maxLifetimeMillis = maxLifetimeMillis;
+        }
+
+        private static KeyStatistics empty(String key, int numActive, int numIdle) {
+            return new KeyStatistics(key, numActive, numIdle, 0, 0, 0, 0, 0,
+                new long[PoolMetrics.BORROW_WAIT_BOUNDS_MILLIS.length + 1], 0, 0, 0, 0, 0, 0);
+        }
+
+        // Keeps the active and idle counts of this, the pool reports them in total anyway.
+        private KeyStatistics plus(KeyStatistics other) {
+            long[] histogram = borrowWaitHistogram.clone();
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                histogram[bucket] += other.borrowWaitHistogram[bucket];
+            }
+            return new KeyStatistics(key, numActive, numIdle, numLeases + other.numLeases,
+                borrows + other.borrows, borrowFailures + other.borrowFailures,
+                borrowWaitNanos + other.borrowWaitNanos, Math.max(maxBorrowWaitNanos, other.maxBorrowWaitNanos),
+                histogram, created + other.created, creationFailures + other.creationFailures,
+                validationFailures + other.validationFailures, destroyed + other.destroyed,
+                lifetimeMillis + other.lifetimeMillis, Math.max(maxLifetimeMillis, other.maxLifetimeMillis));
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getNumActive() {
+            return numActive;
+        }
+
+        public int getNumIdle() {
+            return numIdle;
+        }
+
+        /**
+         * @return number of borrowers of shared connections, see {@link SharedConnectionConfig}.
+         */
+        public int getNumLeases() {
+            return numLeases;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        /**
+         * @return number of borrows that failed, e.g. because no connection could be created or the borrower timed out.
+         */
+        public long getBorrowFailures() {
+            return borrowFailures;
+        }
+
+        /**
+         * @return number of borrows per bucket of {@link PoolStatistics#getBorrowWaitBoundsMillis()}.
+         */
+        public long[] getBorrowWaitHistogram() {
+            return borrowWaitHistogram.clone();
+        }
+
+        public double getMeanBorrowWaitMillis() {
+            long count = borrows + borrowFailures;
+            return count == 0 ? 0 : borrowWaitNanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getMaxBorrowWaitMillis() {
+            return maxBorrowWaitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getCreationFailures() {
+            return creationFailures;
+        }
+
+        /**
+         * @return number of connections found broken while borrowing or validating them.
+         */
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        /**
+         * @return the mean lifetime of the destroyed connections.
+         */
+        public double getMeanLifetimeMillis() {
+            return destroyed == 0 ? 0 : lifetimeMillis / (double) destroyed;
+        }
+
+        public long getMaxLifetimeMillis() {
+            return maxLifetimeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "KeyStatistics{" +
+                "key='" + key + '\'' +
+                ", numActive=" + numActive +
+                ", numIdle=" + numIdle +
+                ", numLeases=" + numLeases +
+                ", borrows=" + borrows +
+                ", borrowFailures=" + borrowFailures +
+                ", borrowWaitHistogram=" + Arrays.toString(borrowWaitHistogram) +
+                ", maxBorrowWaitMillis=" + getMaxBorrowWaitMillis() +
+                ", created=" + created +
+                ", creationFailures=" + creationFailures +
+                ", validationFailures=" + validationFailures +
+                ", destroyed=" + destroyed +
+                ", maxLifetimeMillis=" + maxLifetimeMillis +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+/**
+ * JMX view of the {@link PoolStatistics} of a whole pool or of a single pool key, see
+ * {@link PooledPlcDriverManager#registerMBeans(String)}.
+ */
+public interface PoolStatisticsMXBean {
+
+    int getNumActive();
+
+    int getNumIdle();
+
+    int getNumLeases();
+
+    long getBorrows();
+
+    long getBorrowFailures();
+
+    long[] getBorrowWaitBoundsMillis();
+
+    long[] getBorrowWaitHistogram();
+
+    double getMeanBorrowWaitMillis();
+
+    double getMaxBorrowWaitMillis();
+
+    long getCreated();
+
+    long getCreationFailures();
+
+    long getValidationFailures();
+
+    long getDestroyed();
+
+    double getMeanLifetimeMillis();
+
+    long getMaxLifetimeMillis();
+
+}
@@ -21,6 +21,7 @@ import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +29,44 @@ public abstract class PooledPlcConnectionFactory extends BaseKeyedPooledObjectFa
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PooledPlcConnectionFactory.class);
 
+    private volatile ConnectionProbe probe = ConnectionProbe.connected();
+
+    private volatile boolean validateOnActivate;
+
+    private volatile PoolMetrics metrics = new PoolMetrics();
+
+    /**
+     * Sets the probe used to validate connections.
+     */
+    public void setProbe(ConnectionProbe probe) {
+        this.probe = probe;
+    }
+
+    /**
+     * Whether connections must still be connected when they are borrowed. This is deliberately cheaper than the
+     * probe, which only runs on idle connections.
+     */
+    public void setValidateOnActivate(boolean validateOnActivate) {
+        this.validateOnActivate = validateOnActivate;
+    }
+
+    void setMetrics(PoolMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public PooledObject<PlcConnection> makeObject(PoolKey key) throws Exception {
+        PooledObject<PlcConnection> pooledObject;
+        try {
+            pooledObject = super.makeObject(key);
+        } catch (Exception e) {
+            metrics.forKey(key).creationFailed();
+            throw e;
+        }
+        metrics.forKey(key).created();
+        return pooledObject;
+    }
+
     @Override
     public PooledObject<PlcConnection> wrap(PlcConnection plcConnection) {
         LOGGER.debug("Wrapping connection {}", plcConnection);
@@ -36,11 +75,25 @@ public abstract class PooledPlcConnectionFactory extends BaseKeyedPooledObjectFa
 
     @Override
     public void destroyObject(PoolKey key, PooledObject<PlcConnection> p) throws Exception {
+        metrics.forKey(key).destroyed(System.currentTimeMillis() - p.getCreateTime());
         p.getObject().close();
     }
 
+    @Override
+    public void activateObject(PoolKey key, PooledObject<PlcConnection> p) throws Exception {
+        if (validateOnActivate && !p.getObject().isConnected()) {
+            LOGGER.debug("Discarding disconnected connection {}", p.getObject());
+            metrics.forKey(key).validationFailed();
+            throw new PlcConnectionException("Connection to " + key.getUrl() + " lost");
+        }
+    }
+
     @Override
     public boolean validateObject(PoolKey key, PooledObject<PlcConnection> p) {
-        return p.getObject().isConnected();
+        if (!probe.test(key, p.getObject())) {
+            metrics.forKey(key).validationFailed();
+            return false;
+        }
+        return true;
     }
 }
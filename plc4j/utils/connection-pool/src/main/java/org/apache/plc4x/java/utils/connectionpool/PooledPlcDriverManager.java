@@ -17,7 +17,6 @@
 
 package org.apache.plc4x.java.utils.connectionpool;
 
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.apache.plc4x.java.PlcDriverManager;
@@ -28,11 +27,10 @@ import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class PooledPlcDriverManager extends PlcDriverManager {
 
@@ -45,6 +43,21 @@ public class PooledPlcDriverManager extends PlcDriverManager {
 
     private final PoolKeyFactory poolKeyFactory;
 
+    private PooledPlcConnectionFactory pooledPlcConnectionFactory;
+
+    private volatile PoolMaintenance poolMaintenance;
+
+    // Pool settings overridden while the maintenance runs, guarded by this.
+    private boolean testWhileIdleBeforeMaintenance;
+
+    private int numTestsPerEvictionRunBeforeMaintenance;
+
+    private volatile SharedConnections sharedConnections;
+
+    private final PoolMetrics metrics = new PoolMetrics();
+
+    private PoolMBeans poolMBeans;
+
     public PooledPlcDriverManager() {
         this(GenericKeyedObjectPool::new);
     }
@@ -79,7 +92,7 @@ public class PooledPlcDriverManager extends PlcDriverManager {
     }
 
     private void setFromPoolCreator(PoolCreator poolCreator) {
-        this.keyedObjectPool = poolCreator.createPool(new PooledPlcConnectionFactory() {
+        this.pooledPlcConnectionFactory = new PooledPlcConnectionFactory() {
             @Override
             public PlcConnection create(PoolKey key) throws Exception {
                 PlcAuthentication plcAuthentication = key.plcAuthentication;
@@ -92,7 +105,74 @@ public class PooledPlcDriverManager extends PlcDriverManager {
                     return PooledPlcDriverManager.super.getConnection(url, plcAuthentication);
                 }
             }
-        });
+        };
+        this.pooledPlcConnectionFactory.setMetrics(metrics);
+        this.keyedObjectPool = poolCreator.createPool(pooledPlcConnectionFactory);
+    }
+
+    /**
+     * Starts maintaining the pool in the background as configured, replacing a previously started maintenance.
+     * Idle connections are only validated if the pool is a {@link GenericKeyedObjectPool}.
+     *
+     * @throws PlcConnectionException if a warm-up url is invalid.
+     */
+    public synchronized void startMaintenance(PoolMaintenanceConfig config) throws PlcConnectionException {
+        stopMaintenance();
+        List<PoolKey> warmUpKeys = new ArrayList<>();
+        for (String url : config.getWarmUpUrls()) {
+            warmUpKeys.add(poolKeyFactory.getPoolKey(url, noPlcAuthentication));
+        }
+        pooledPlcConnectionFactory.setProbe(config.getProbe());
+        pooledPlcConnectionFactory.setValidateOnActivate(config.isValidateOnBorrow());
+        if (keyedObjectPool instanceof GenericKeyedObjectPool) {
+            GenericKeyedObjectPool<PoolKey, PlcConnection> genericKeyedObjectPool = (GenericKeyedObjectPool<PoolKey, PlcConnection>) this.keyedObjectPool;
+            testWhileIdleBeforeMaintenance = genericKeyedObjectPool.getTestWhileIdle();
+            numTestsPerEvictionRunBeforeMaintenance = genericKeyedObjectPool.getNumTestsPerEvictionRun();
+            genericKeyedObjectPool.setTestWhileIdle(true);
+            genericKeyedObjectPool.setNumTestsPerEvictionRun(Integer.MAX_VALUE);
+        }
+        poolMaintenance = new PoolMaintenance(keyedObjectPool, config, warmUpKeys);
+        poolMaintenance.start();
+    }
+
+    /**
+     * Stops the maintenance and restores the validation settings of the pool it changed.
+     */
+    public synchronized void stopMaintenance() {
+        if (poolMaintenance == null) {
+            return;
+        }
+        poolMaintenance.close();
+        poolMaintenance = null;
+        pooledPlcConnectionFactory.setProbe(ConnectionProbe.connected());
+        pooledPlcConnectionFactory.setValidateOnActivate(false);
+        if (keyedObjectPool instanceof GenericKeyedObjectPool) {
+            GenericKeyedObjectPool<PoolKey, PlcConnection> genericKeyedObjectPool = (GenericKeyedObjectPool<PoolKey, PlcConnection>) this.keyedObjectPool;
+            genericKeyedObjectPool.setTestWhileIdle(testWhileIdleBeforeMaintenance);
+            genericKeyedObjectPool.setNumTestsPerEvictionRun(numTestsPerEvictionRunBeforeMaintenance);
+        }
+    }
+
+    PoolMaintenance getPoolMaintenance() {
+        return poolMaintenance;
+    }
+
+    /**
+     * Shares connections between borrowers as configured, instead of lending every connection exclusively until
+     * it gets closed. Takes effect for connections borrowed from now on, {@code null} switches back to exclusive
+     * lending.
+     */
+    public void setSharedConnectionConfig(SharedConnectionConfig config) {
+        this.sharedConnections = config != null ? new SharedConnections(keyedObjectPool, config) : null;
+    }
+
+    public SharedConnectionConfig getSharedConnectionConfig() {
+        SharedConnections currentSharedConnections = sharedConnections;
+        return currentSharedConnections != null ? currentSharedConnections.getConfig() : null;
+    }
+
+    SharedConnections getSharedConnections() {
+        return sharedConnections;
     }
 
     @Override
@@ -110,35 +190,46 @@ public class PooledPlcDriverManager extends PlcDriverManager {
                 LOGGER.debug("Try to borrow an object for url {}", url);
             }
         }
+        try {
+            return borrow(poolKey);
+        } finally {
+            // Registered after borrowing, so the maintenance counts the borrowed connection instead of racing the
+            // borrower for a new one. Failed borrows are registered too, the maintenance reconnects those.
+            PoolMaintenance maintenance = poolMaintenance;
+            if (maintenance != null) {
+                maintenance.register(poolKey);
+            }
+        }
+    }
+
+    private PlcConnection borrow(PoolKey poolKey) throws PlcConnectionException {
+        PoolMetrics.KeyMetrics keyMetrics = metrics.forKey(poolKey);
+        long start = System.nanoTime();
+        SharedConnections currentSharedConnections = sharedConnections;
+        if (currentSharedConnections != null) {
+            SharedConnections.SharedConnection sharedConnection;
+            try {
+                sharedConnection = currentSharedConnections.lease(poolKey);
+            } catch (PlcConnectionException e) {
+                keyMetrics.borrowFailed(System.nanoTime() - start);
+                throw e;
+            }
+            keyMetrics.borrowed(System.nanoTime() - start);
+            return new PlcConnectionHandle(sharedConnection.getPlcConnection(),
+                () -> currentSharedConnections.release(poolKey, sharedConnection),
+                () -> currentSharedConnections.invalidate(poolKey, sharedConnection));
+        }
         PlcConnection plcConnection;
         try {
             plcConnection = keyedObjectPool.borrowObject(poolKey);
         } catch (Exception e) {
+            keyMetrics.borrowFailed(System.nanoTime() - start);
             throw new PlcConnectionException(e);
         }
-        // Used to invalidate a proxy
-        AtomicBoolean proxyInvalidated = new AtomicBoolean(false);
-        return (PlcConnection) Proxy.newProxyInstance(classLoader, new Class[]{PlcConnection.class}, (proxy, method, args) -> {
-            if (proxyInvalidated.get()) {
-                throw new IllegalStateException("Proxy not valid anymore");
-            }
-            if ("close".equals(method.getName())) {
-                LOGGER.debug("close called on {}", plcConnection);
-                proxyInvalidated.set(true);
-                keyedObjectPool.returnObject(poolKey, plcConnection);
-                return null;
-            } else {
-                try {
-                    return method.invoke(plcConnection, args);
-                } catch (InvocationTargetException e) {
-                    if (e.getCause().getClass() == PlcConnectionException.class) {
-                        keyedObjectPool.invalidateObject(poolKey, plcConnection);
-                        proxyInvalidated.set(true);
-                    }
-                    throw e;
-                }
-            }
-        });
+        keyMetrics.borrowed(System.nanoTime() - start);
+        return new PlcConnectionHandle(plcConnection,
+            () -> keyedObjectPool.returnObject(poolKey, plcConnection),
+            () -> keyedObjectPool.invalidateObject(poolKey, plcConnection));
     }
 
     @FunctionalInterface
@@ -146,21 +237,19 @@ public class PooledPlcDriverManager extends PlcDriverManager {
         KeyedObjectPool<PoolKey, PlcConnection> createPool(PooledPlcConnectionFactory pooledPlcConnectionFactory);
     }
 
-    // TODO: maybe export to jmx // generic poolKey has builting jmx too
+    /**
+     * @return the current counts of the pool and per pool key as flat map, see {@link #getPoolStatistics()} for
+     * more details.
+     */
     public Map<String, Number> getStatistics() {
         HashMap<String, Number> statistics = new HashMap<>();
         statistics.put("numActive", keyedObjectPool.getNumActive());
         statistics.put("numIdle", keyedObjectPool.getNumIdle());
         if (keyedObjectPool instanceof GenericKeyedObjectPool) {
             GenericKeyedObjectPool<PoolKey, PlcConnection> genericKeyedObjectPool = (GenericKeyedObjectPool<PoolKey, PlcConnection>) this.keyedObjectPool;
-            // Thats pretty ugly and we really should't do that...
-            try {
-                Map poolMap = (Map) FieldUtils.getField(GenericKeyedObjectPool.class, "poolMap", true).get(this.keyedObjectPool);
-                statistics.put("pools.count", poolMap.size());
-            } catch (IllegalAccessException e) {
-                throw new PlcRuntimeException(e);
-            }
+            // Contains every key the pool currently holds connections or waiting borrowers for.
             Map<String, Integer> numActivePerKey = genericKeyedObjectPool.getNumActivePerKey();
+            statistics.put("pools.count", numActivePerKey.size());
             for (Map.Entry<String, Integer> entry : numActivePerKey.entrySet()) {
                 statistics.put(entry.getKey() + ".numActive", entry.getValue());
             }
@@ -169,6 +258,40 @@ public class PooledPlcDriverManager extends PlcDriverManager {
         return statistics;
     }
 
+    /**
+     * @return a snapshot of the connections per pool key and of what happened to them so far: borrows and how long
+     * borrowers waited, created connections and failures to create or validate them, and connection lifetimes.
+     */
+    public PoolStatistics getPoolStatistics() {
+        return metrics.snapshot(keyedObjectPool, sharedConnections);
+    }
+
+    /**
+     * Publishes the {@link #getPoolStatistics() statistics} of this manager as {@link PoolStatisticsMXBean}s in the
+     * platform MBean server, one for the whole pool and one for each pool key, replacing previously registered
+     * beans of this manager.
+     *
+     * @param name distinguishes the beans of this manager from the ones of other managers.
+     * @throws PlcRuntimeException if the beans can't be registered.
+     */
+    public synchronized void registerMBeans(String name) {
+        unregisterMBeans();
+        PoolMBeans mBeans = new PoolMBeans(name, this::getPoolStatistics);
+        mBeans.registerPool();
+        metrics.setNewKeyListener(mBeans::registerKey);
+        metrics.getKeys().forEach(mBeans::registerKey);
+        poolMBeans = mBeans;
+    }
+
+    public synchronized void unregisterMBeans() {
+        if (poolMBeans != null) {
+            metrics.setNewKeyListener(key -> {
+            });
+            poolMBeans.close();
+            poolMBeans = null;
+        }
+    }
+
     private static final class NoPlcAuthentication implements PlcAuthentication {
 
     }
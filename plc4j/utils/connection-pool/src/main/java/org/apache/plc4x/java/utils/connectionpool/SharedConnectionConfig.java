@@ -0,0 +1,112 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings for sharing connections between borrowers, see
+ * {@link PooledPlcDriverManager#setSharedConnectionConfig(SharedConnectionConfig)}.
+ * <p>
+ * A config is immutable.
+ */
+public class SharedConnectionConfig {
+
+    private final int maxLeasesPerConnection;
+
+    private final int maxConnectionsPerKey;
+
+    private final Duration leaseTimeout;
+
+    private SharedConnectionConfig(int maxLeasesPerConnection, int maxConnectionsPerKey, Duration leaseTimeout) {
+        this.maxLeasesPerConnection = maxLeasesPerConnection;
+        this.maxConnectionsPerKey = maxConnectionsPerKey;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public static SharedConnectionConfigBuilder builder() {
+        return new SharedConnectionConfigBuilder();
+    }
+
+    public int getMaxLeasesPerConnection() {
+        return maxLeasesPerConnection;
+    }
+
+    public int getMaxConnectionsPerKey() {
+        return maxConnectionsPerKey;
+    }
+
+    public Duration getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedConnectionConfig{" +
+            "maxLeasesPerConnection=" + maxLeasesPerConnection +
+            ", maxConnectionsPerKey=" + maxConnectionsPerKey +
+            ", leaseTimeout=" + leaseTimeout +
+            '}';
+    }
+
+    public static class SharedConnectionConfigBuilder {
+        private int maxLeasesPerConnection = 16;
+        private int maxConnectionsPerKey = 2;
+        private Duration leaseTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of borrowers using one physical connection at the same time.
+         */
+        public SharedConnectionConfigBuilder maxLeasesPerConnection(int maxLeasesPerConnection) {
+            if (maxLeasesPerConnection < 1) {
+                throw new IllegalArgumentException("maxLeasesPerConnection must be at least 1");
+            }
+            this.maxLeasesPerConnection = maxLeasesPerConnection;
+            return this;
+        }
+
+        /**
+         * Maximum number of physical connections per key, a further one is only opened once all others are
+         * saturated.
+         */
+        public SharedConnectionConfigBuilder maxConnectionsPerKey(int maxConnectionsPerKey) {
+            if (maxConnectionsPerKey < 1) {
+                throw new IllegalArgumentException("maxConnectionsPerKey must be at least 1");
+            }
+            this.maxConnectionsPerKey = maxConnectionsPerKey;
+            return this;
+        }
+
+        /**
+         * How long a borrower waits for a lease if all connections of its key are saturated.
+         */
+        public SharedConnectionConfigBuilder leaseTimeout(Duration leaseTimeout) {
+            if (Objects.requireNonNull(leaseTimeout).isNegative()) {
+                throw new IllegalArgumentException("leaseTimeout must not be negative");
+            }
+            this.leaseTimeout = leaseTimeout;
+            return this;
+        }
+
+        public SharedConnectionConfig build() {
+            return new SharedConnectionConfig(maxLeasesPerConnection, maxConnectionsPerKey, leaseTimeout);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.commons.pool2.KeyedObjectPool;
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leases the connections of a pool to several borrowers at once, as every connection is able to process requests
+ * concurrently.
+ * <p>
+ * Per key, connections are borrowed from the pool as needed and handed out up to
+ * {@link SharedConnectionConfig#getMaxLeasesPerConnection()} times each. Another connection is only borrowed once
+ * all connections of the key are saturated, up to {@link SharedConnectionConfig#getMaxConnectionsPerKey()}. A
+ * connection goes back to the pool as soon as its last lease is released.
+ */
+class SharedConnections {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedConnections.class);
+
+    private final KeyedObjectPool<PoolKey, PlcConnection> pool;
+
+    private final SharedConnectionConfig config;
+
+    private final ConcurrentMap<PoolKey, Slots> slotsPerKey = new ConcurrentHashMap<>();
+
+    SharedConnections(KeyedObjectPool<PoolKey, PlcConnection> pool, SharedConnectionConfig config) {
+        this.pool = pool;
+        this.config = config;
+    }
+
+    SharedConnectionConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Leases a connection for the given key, waiting up to {@link SharedConnectionConfig#getLeaseTimeout()} if all
+     * connections are saturated.
+     *
+     * @throws PlcConnectionException if no connection could be borrowed or the lease timed out.
+     */
+    SharedConnection lease(PoolKey poolKey) throws PlcConnectionException {
+        Slots slots = slotsPerKey.computeIfAbsent(poolKey, ignore -> new Slots());
+        long deadline = System.nanoTime() + config.getLeaseTimeout().toNanos();
+        synchronized (slots) {
+            while (true) {
+                for (SharedConnection sharedConnection : slots.connections) {
+                    if (sharedConnection.leases < config.getMaxLeasesPerConnection()) {
+                        sharedConnection.leases++;
+                        return sharedConnection;
+                    }
+                }
+                // A connection being borrowed right now will have room for more leases, so wait for it.
+                if (!slots.borrowing && slots.getNumberOfOpenConnections() < config.getMaxConnectionsPerKey()) {
+                    slots.borrowing = true;
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new PlcConnectionException("All " + slots.connections.size() + " connections for " + poolKey + " are saturated");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(slots, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PlcConnectionException(e);
+                }
+            }
+        }
+        PlcConnection plcConnection;
+        try {
+            plcConnection = pool.borrowObject(poolKey);
+        } catch (Exception e) {
+            synchronized (slots) {
+                slots.borrowing = false;
+                slots.notifyAll();
+            }
+            throw new PlcConnectionException(e);
+        }
+        LOGGER.debug("Sharing {} for {}", plcConnection, poolKey);
+        SharedConnection sharedConnection = new SharedConnection(plcConnection);
+        synchronized (slots) {
+            slots.borrowing = false;
+            slots.connections.add(sharedConnection);
+            slots.notifyAll();
+        }
+        return sharedConnection;
+    }
+
+    /**
+     * Releases one lease of the given connection, returning it to the pool if this was the last one.
+     */
+    void release(PoolKey poolKey, SharedConnection sharedConnection) throws Exception {
+        Slots slots = slotsPerKey.get(poolKey);
+        boolean lastLease;
+        boolean broken;
+        synchronized (slots) {
+            lastLease = --sharedConnection.leases == 0;
+            broken = sharedConnection.broken;
+            if (lastLease) {
+                if (broken) {
+                    slots.invalidated--;
+                } else {
+                    slots.connections.remove(sharedConnection);
+                }
+                slots.returning++;
+            } else {
+                slots.notifyAll();
+            }
+        }
+        if (!lastLease) {
+            return;
+        }
+        try {
+            if (broken) {
+                pool.invalidateObject(poolKey, sharedConnection.plcConnection);
+            } else {
+                pool.returnObject(poolKey, sharedConnection.plcConnection);
+            }
+        } finally {
+            // Waiting borrowers are only woken once the connection is back, so they borrow it instead of a new one.
+            synchronized (slots) {
+                slots.returning--;
+                slots.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops leasing the given connection and releases one lease of it, the connection is invalidated once all its
+     * leases are released.
+     */
+    void invalidate(PoolKey poolKey, SharedConnection sharedConnection) throws Exception {
+        Slots slots = slotsPerKey.get(poolKey);
+        synchronized (slots) {
+            // Another lease of the same connection may have invalidated it already.
+            if (!sharedConnection.broken) {
+                sharedConnection.broken = true;
+                slots.connections.remove(sharedConnection);
+                slots.invalidated++;
+            }
+        }
+        release(poolKey, sharedConnection);
+    }
+
+    int getNumberOfConnections(PoolKey poolKey) {
+        Slots slots = slotsPerKey.get(poolKey);
+        if (slots == null) {
+            return 0;
+        }
+        synchronized (slots) {
+            return slots.connections.size();
+        }
+    }
+
+    int getNumberOfLeases(PoolKey poolKey) {
+        Slots slots = slotsPerKey.get(poolKey);
+        if (slots == null) {
+            return 0;
+        }
+        synchronized (slots) {
+            return slots.connections.stream().mapToInt(sharedConnection -> sharedConnection.leases).sum();
+        }
+    }
+
+    /**
+     * The shared connections of one key, guarded by itself.
+     */
+    private static class Slots {
+
+        private final List<SharedConnection> connections = new ArrayList<>();
+
+        private boolean borrowing;
+
+        // Invalidated connections that still have leases and connections on their way back to the pool still count
+        // against the maximum per key.
+        private int invalidated;
+
+        private int returning;
+
+        private int getNumberOfOpenConnections() {
+            return connections.size() + invalidated + returning;
+        }
+    }
+
+    /**
+     * A connection borrowed from the pool, counting its leases. Guarded by the {@link Slots} it belongs to.
+     */
+    static class SharedConnection {
+
+        private final PlcConnection plcConnection;
+
+        private int leases = 1;
+
+        private boolean broken;
+
+        private SharedConnection(PlcConnection plcConnection) {
+            this.plcConnection = plcConnection;
+        }
+
+        PlcConnection getPlcConnection() {
+            return plcConnection;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.messages.PlcReadRequest;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ConnectionProbeTest implements WithAssertions {
+
+    private final PoolKeyFactory poolKeyFactory = new PoolKeyFactory();
+
+    @Test
+    void readPicksFieldPerProtocol() throws Exception {
+        Map<String, String> fieldQueries = new HashMap<>();
+        fieldQueries.put("s7", "%DB1.DBX0.0:BOOL");
+        fieldQueries.put("modbus", "coil:1");
+        ConnectionProbe probe = ConnectionProbe.read(fieldQueries, Duration.ofSeconds(1));
+
+        PlcConnection s7Connection = readingConnection();
+        PlcConnection modbusConnection = readingConnection();
+        assertThat(probe.test(poolKey("s7://10.0.0.1/0/1"), s7Connection)).isTrue();
+        assertThat(probe.test(poolKey("modbus:tcp://10.0.0.2"), modbusConnection)).isTrue();
+
+        verify(s7Connection.readRequestBuilder()).addItem("probe", "%DB1.DBX0.0:BOOL");
+        verify(modbusConnection.readRequestBuilder()).addItem("probe", "coil:1");
+    }
+
+    @Test
+    void readSkipsKeysWithoutField() throws Exception {
+        ConnectionProbe probe = ConnectionProbe.read(poolKey -> null, Duration.ofSeconds(1));
+        PlcConnection connection = readingConnection();
+
+        assertThat(probe.test(poolKey("ads:tcp://10.0.0.3/10.0.0.3.1.1:851"), connection)).isTrue();
+
+        verify(connection.readRequestBuilder(), never()).addItem(anyString(), anyString());
+    }
+
+    @Test
+    void readFailsOnDisconnectedConnection() throws Exception {
+        ConnectionProbe probe = ConnectionProbe.read("coil:1", Duration.ofSeconds(1));
+        PlcConnection connection = readingConnection();
+        when(connection.isConnected()).thenReturn(false);
+
+        assertThat(probe.test(poolKey("modbus:tcp://10.0.0.2"), connection)).isFalse();
+    }
+
+    private PoolKey poolKey(String url) throws Exception {
+        return poolKeyFactory.getPoolKey(url, PooledPlcDriverManager.noPlcAuthentication);
+    }
+
+    private static PlcConnection readingConnection() {
+        PlcConnection connection = mock(PlcConnection.class, RETURNS_DEEP_STUBS);
+        when(connection.isConnected()).thenReturn(true);
+        when(connection.getMetadata().canRead()).thenReturn(true);
+        PlcReadRequest.Builder builder = connection.readRequestBuilder();
+        when(builder.addItem(anyString(), anyString())).thenReturn(builder);
+        when(builder.build().execute()).thenReturn(CompletableFuture.completedFuture(null));
+        return connection;
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.plc4x.java.utils.connectionpool;
 
+import org.apache.plc4x.java.api.authentication.PlcUsernamePasswordAuthentication;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Nested;
@@ -28,6 +29,43 @@ class PoolKeyFactoryTest implements WithAssertions {
 
     private PoolKeyFactory SUT = new PoolKeyFactory();
 
+    @Nested
+    class Caching {
+        @Test
+        void sameUrlSameKey() throws Exception {
+            PoolKey first = SUT.getPoolKey("s7://localhost/1/2?randomOption=true", PooledPlcDriverManager.noPlcAuthentication);
+            PoolKey second = SUT.getPoolKey("s7://localhost/1/2?randomOption=true", PooledPlcDriverManager.noPlcAuthentication);
+            assertThat(second).isSameAs(first);
+            assertThat(second.getPoolableKey()).isSameAs(first.getPoolableKey());
+        }
+
+        @Test
+        void authenticatedKeysAreNotCached() throws Exception {
+            PlcUsernamePasswordAuthentication authentication = new PlcUsernamePasswordAuthentication("user", "password");
+            PoolKey first = SUT.getPoolKey("s7://localhost/1/2", authentication);
+            PoolKey second = SUT.getPoolKey("s7://localhost/1/2", authentication);
+            assertThat(second).isNotSameAs(first).isEqualTo(first);
+            assertThat(second).isNotEqualTo(SUT.getPoolKey("s7://localhost/1/2", PooledPlcDriverManager.noPlcAuthentication));
+        }
+
+        @Test
+        void cacheIsBounded() throws Exception {
+            for (int i = 0; i < PoolKeyFactory.MAX_CACHED_KEYS + 10; i++) {
+                SUT.getPoolKey("s7://host" + i + "/1/2", PooledPlcDriverManager.noPlcAuthentication);
+            }
+            String url = "s7://overflow/1/2";
+            PoolKey first = SUT.getPoolKey(url, PooledPlcDriverManager.noPlcAuthentication);
+            PoolKey second = SUT.getPoolKey(url, PooledPlcDriverManager.noPlcAuthentication);
+            assertThat(second).isNotSameAs(first).isEqualTo(first);
+        }
+
+        @Test
+        void invalidUrlFailsOnPoolableKey() throws Exception {
+            PoolKey poolKey = SUT.getPoolKey("s7://localhost", PooledPlcDriverManager.noPlcAuthentication);
+            assertThatThrownBy(poolKey::getPoolableKey).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     @Nested
     class Generic {
         @Test
@@ -0,0 +1,231 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.connectionpool;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
+import org.apache.plc4x.java.spi.PlcDriver;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PoolMaintenanceTest implements WithAssertions {
+
+    private static final String URL = "dummydummy:warm";
+
+    private final PooledPlcDriverManager SUT = new PooledPlcDriverManager();
+
+    private final PlcDriver plcDriver = mock(PlcDriver.class);
+
+    private final AtomicBoolean plcReachable = new AtomicBoolean(true);
+
+    private final AtomicInteger connects = new AtomicInteger();
+
+    private final List<AtomicBoolean> connectionStates = new CopyOnWriteArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, PlcDriver> driverMap = (Map) FieldUtils.getField(PooledPlcDriverManager.class, "driverMap", true).get(SUT);
+        driverMap.put("dummydummy", plcDriver);
+        when(plcDriver.connect(anyString())).then(invocation -> {
+            connects.incrementAndGet();
+            if (!plcReachable.get()) {
+                throw new PlcConnectionException("unreachable");
+            }
+            PlcConnection connection = mock(PlcConnection.class);
+            AtomicBoolean connected = new AtomicBoolean();
+            connectionStates.add(connected);
+            doAnswer(ignored -> {
+                connected.set(true);
+                return null;
+            }).when(connection).connect();
+            doAnswer(ignored -> {
+                connected.set(false);
+                return null;
+            }).when(connection).close();
+            when(connection.isConnected()).then(ignored -> connected.get());
+            return connection;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SUT.stopMaintenance();
+    }
+
+    @Test
+    void warmUp() throws Exception {
+        SUT.startMaintenance(PoolMaintenanceConfig.builder().warmUp(URL).minIdlePerKey(0).build());
+        awaitIdle(1);
+
+        // The borrower gets the warmed up connection.
+        PlcConnection connection = SUT.getConnection(URL);
+        assertThat(connection.isConnected()).isTrue();
+        assertThat(connects).hasValue(1);
+        connection.close();
+    }
+
+    @Test
+    void disconnectedConnectionIsNotHandedOut() throws Exception {
+        SUT.startMaintenance(PoolMaintenanceConfig.builder().warmUp(URL).build());
+        awaitIdle(1);
+
+        disconnectAll();
+
+        PlcConnection connection = SUT.getConnection(URL);
+        assertThat(connection.isConnected()).isTrue();
+        assertThat(connects.get()).isGreaterThanOrEqualTo(2);
+        connection.close();
+    }
+
+    @Test
+    void stopMaintenanceRestoresPoolSettings() throws Exception {
+        GenericKeyedObjectPool<?, ?> pool = (GenericKeyedObjectPool<?, ?>) FieldUtils.getField(PooledPlcDriverManager.class, "keyedObjectPool", true).get(SUT);
+        boolean testWhileIdle = pool.getTestWhileIdle();
+        int numTestsPerEvictionRun = pool.getNumTestsPerEvictionRun();
+        SUT.startMaintenance(PoolMaintenanceConfig.builder().warmUp(URL).build());
+        awaitIdle(1);
+        assertThat(pool.getTestWhileIdle()).isTrue();
+
+        SUT.stopMaintenance();
+
+        assertThat(pool.getTestWhileIdle()).isEqualTo(testWhileIdle);
+        assertThat(pool.getNumTestsPerEvictionRun()).isEqualTo(numTestsPerEvictionRun);
+        // Without validation on borrow the pooled connection is handed out as it is.
+        disconnectAll();
+        PlcConnection connection = SUT.getConnection(URL);
+        assertThat(connection.isConnected()).isFalse();
+        assertThat(connects).hasValue(1);
+        connection.close();
+    }
+
+    @Test
+    void reconnectsWithBackoff() throws Exception {
+        plcReachable.set(false);
+        SUT.startMaintenance(PoolMaintenanceConfig.builder()
+            .warmUp(URL)
+            .backoff(Duration.ofMillis(10), Duration.ofMillis(20))
+            .build());
+        PoolKey key = new PoolKeyFactory().getPoolKey(URL, PooledPlcDriverManager.noPlcAuthentication);
+        await(() -> SUT.getPoolMaintenance().getFailures(key) >= 3);
+        int attempts = connects.get();
+        assertThat(attempts).isGreaterThanOrEqualTo(3);
+
+        plcReachable.set(true);
+        awaitIdle(1);
+        assertThat(SUT.getPoolMaintenance().getFailures(key)).isZero();
+    }
+
+    @Test
+    void deadIdleConnectionsAreReplaced() throws Exception {
+        AtomicBoolean healthy = new AtomicBoolean(true);
+        SUT.startMaintenance(PoolMaintenanceConfig.builder()
+            .warmUp(URL)
+            .validationInterval(Duration.ofMillis(10))
+            .probe((poolKey, connection) -> healthy.get())
+            .build());
+        awaitIdle(1);
+
+        healthy.set(false);
+        await(() -> connects.get() >= 3);
+        healthy.set(true);
+        awaitIdle(1);
+    }
+
+    @Test
+    void borrowedKeysAreKeptWarm() throws Exception {
+        SUT.startMaintenance(PoolMaintenanceConfig.builder().build());
+        PlcConnection connection = SUT.getConnection(URL);
+        connection.close();
+        awaitIdle(1);
+        assertThat(connects).hasValue(1);
+
+        disconnectAll();
+        // Validation on borrow drops the dead connection.
+        connection = SUT.getConnection(URL);
+        assertThat(connection.isConnected()).isTrue();
+        assertThat(connects).hasValue(2);
+        connection.close();
+    }
+
+    @Test
+    void borrowedConnectionsCountTowardsMinIdle() throws Exception {
+        SUT.startMaintenance(PoolMaintenanceConfig.builder().minIdlePerKey(2).build());
+        PlcConnection first = SUT.getConnection(URL);
+        // The borrowed connection plus one idle connection make the minimum of two.
+        awaitIdle(1);
+        Thread.sleep(100);
+        assertThat(connects).hasValue(2);
+        assertThat((Integer) SUT.getStatistics().get("numIdle")).isEqualTo(1);
+        first.close();
+        awaitIdle(2);
+        assertThat(connects).hasValue(2);
+    }
+
+    @Test
+    void unusedKeysExpire() throws Exception {
+        SUT.startMaintenance(PoolMaintenanceConfig.builder()
+            .warmUp("dummydummy:other")
+            .keyExpiry(Duration.ofMillis(200))
+            .build());
+        PoolKey key = new PoolKeyFactory().getPoolKey(URL, PooledPlcDriverManager.noPlcAuthentication);
+        PoolKey warmUpKey = new PoolKeyFactory().getPoolKey("dummydummy:other", PooledPlcDriverManager.noPlcAuthentication);
+        SUT.getConnection(URL).close();
+        assertThat(SUT.getPoolMaintenance().isMaintained(key)).isTrue();
+
+        await(() -> !SUT.getPoolMaintenance().isMaintained(key));
+        // Only the connection of the warm-up url is left.
+        awaitIdle(1);
+        assertThat(SUT.getPoolMaintenance().isMaintained(warmUpKey)).isTrue();
+    }
+
+    /**
+     * Simulates the PLC dropping all connections, e.g. because it got rebooted.
+     */
+    private void disconnectAll() {
+        connectionStates.forEach(connected -> connected.set(false));
+    }
+
+    private void awaitIdle(int numIdle) throws InterruptedException {
+        await(() -> (Integer) SUT.getStatistics().get("numIdle") == numIdle);
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline < 0).as("condition met in time").isTrue();
+            Thread.sleep(5);
+        }
+    }
+}
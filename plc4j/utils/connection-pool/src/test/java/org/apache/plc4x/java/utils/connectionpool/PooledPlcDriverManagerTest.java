@@ -42,12 +42,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -255,9 +261,7 @@ class PooledPlcDriverManagerTest implements WithAssertions {
             connection.connect();
             fail("This should throw an exception");
         } catch (Exception e) {
-            // TODO: currently UndeclaredThrowableException is the top one which should be InvocationTargetException
-            //assertThat(e).isInstanceOf(InvocationTargetException.class);
-            assertThat(e).hasRootCauseInstanceOf(PlcConnectionException.class);
+            assertThat(e).isInstanceOf(PlcConnectionException.class);
         }
         // Faulty connection should have been discarded
         assertThat(SUT.getStatistics()).containsOnly(
@@ -267,6 +271,205 @@ class PooledPlcDriverManagerTest implements WithAssertions {
         );
     }
 
+    @Test
+    void sharedConnections() throws Exception {
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> new DummyPlcConnection(invocationOnMock.getArgument(0)));
+        SUT.setSharedConnectionConfig(SharedConnectionConfig.builder()
+            .maxLeasesPerConnection(2)
+            .maxConnectionsPerKey(2)
+            .leaseTimeout(Duration.ofMillis(50))
+            .build());
+        PoolKey poolKey = new PoolKeyFactory().getPoolKey("dummydummy:shared", PooledPlcDriverManager.noPlcAuthentication);
+        SharedConnections sharedConnections = SUT.getSharedConnections();
+
+        List<PlcConnection> connections = new ArrayList<>();
+        connections.add(SUT.getConnection("dummydummy:shared"));
+        connections.add(SUT.getConnection("dummydummy:shared"));
+        // Both leases fit onto one connection
+        verify(plcDriver, times(1)).connect(anyString());
+        assertThat(connections.get(0).isConnected()).isTrue();
+
+        // The first connection is saturated, so a second one is opened
+        connections.add(SUT.getConnection("dummydummy:shared"));
+        connections.add(SUT.getConnection("dummydummy:shared"));
+        verify(plcDriver, times(2)).connect(anyString());
+        assertThat(sharedConnections.getNumberOfConnections(poolKey)).isEqualTo(2);
+        assertThat(sharedConnections.getNumberOfLeases(poolKey)).isEqualTo(4);
+        assertThat(SUT.getStatistics()).contains(entry("PoolKey{url='dummydummy:shared'}.numActive", 2));
+
+        // No more connections are opened for this key
+        assertThatThrownBy(() -> SUT.getConnection("dummydummy:shared")).isInstanceOf(PlcConnectionException.class);
+
+        // A released lease is handed out again
+        connections.remove(0).close();
+        connections.add(SUT.getConnection("dummydummy:shared"));
+        verify(plcDriver, times(2)).connect(anyString());
+
+        for (PlcConnection connection : connections) {
+            connection.close();
+        }
+        assertThat(sharedConnections.getNumberOfConnections(poolKey)).isZero();
+        assertThat(SUT.getStatistics()).contains(entry("PoolKey{url='dummydummy:shared'}.numActive", 0));
+    }
+
+    @Test
+    void sharedConnectionsWaitForLease() throws Exception {
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> new DummyPlcConnection(invocationOnMock.getArgument(0)));
+        SUT.setSharedConnectionConfig(SharedConnectionConfig.builder()
+            .maxLeasesPerConnection(1)
+            .maxConnectionsPerKey(1)
+            .leaseTimeout(Duration.ofSeconds(5))
+            .build());
+
+        PlcConnection connection = SUT.getConnection("dummydummy:shared");
+        Future<PlcConnection> waiting = executorService.submit(() -> SUT.getConnection("dummydummy:shared"));
+        assertThatThrownBy(() -> waiting.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        connection.close();
+        waiting.get(1, TimeUnit.SECONDS).close();
+        verify(plcDriver, times(1)).connect(anyString());
+    }
+
+    @Test
+    void sharedBrokenConnection() throws Exception {
+        AtomicBoolean failNow = new AtomicBoolean(false);
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> {
+            DummyPlcConnection dummyPlcConnection = spy(new DummyPlcConnection(invocationOnMock.getArgument(0)));
+            doAnswer(invocation -> {
+                if (failNow.get()) {
+                    throw new PlcConnectionException("blub");
+                }
+                return invocation.callRealMethod();
+            }).when(dummyPlcConnection).connect();
+            return dummyPlcConnection;
+        });
+        SUT.setSharedConnectionConfig(SharedConnectionConfig.builder().build());
+        PoolKey poolKey = new PoolKeyFactory().getPoolKey("dummydummy:breakIt", PooledPlcDriverManager.noPlcAuthentication);
+
+        PlcConnection first = SUT.getConnection("dummydummy:breakIt");
+        PlcConnection second = SUT.getConnection("dummydummy:breakIt");
+        failNow.set(true);
+        assertThatThrownBy(first::connect).isInstanceOf(PlcConnectionException.class);
+        assertThatThrownBy(first::isConnected).isInstanceOf(IllegalStateException.class);
+        failNow.set(false);
+
+        // The broken connection isn't leased anymore but stays open until its last lease is released
+        PlcConnection third = SUT.getConnection("dummydummy:breakIt");
+        verify(plcDriver, times(2)).connect(anyString());
+        assertThat(SUT.getStatistics()).contains(entry("PoolKey{url='dummydummy:breakIt'}.numActive", 2));
+
+        second.close();
+        assertThat(SUT.getStatistics()).contains(entry("PoolKey{url='dummydummy:breakIt'}.numActive", 1));
+        assertThat(SUT.getSharedConnections().getNumberOfLeases(poolKey)).isEqualTo(1);
+        third.close();
+    }
+
+    @Test
+    void sharedBrokenConnectionCountsUntilReleased() throws Exception {
+        AtomicBoolean failNow = new AtomicBoolean(false);
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> {
+            DummyPlcConnection dummyPlcConnection = spy(new DummyPlcConnection(invocationOnMock.getArgument(0)));
+            doAnswer(invocation -> {
+                if (failNow.get()) {
+                    throw new PlcConnectionException("blub");
+                }
+                return invocation.callRealMethod();
+            }).when(dummyPlcConnection).connect();
+            return dummyPlcConnection;
+        });
+        SUT.setSharedConnectionConfig(SharedConnectionConfig.builder()
+            .maxLeasesPerConnection(2)
+            .maxConnectionsPerKey(1)
+            .leaseTimeout(Duration.ofMillis(50))
+            .build());
+
+        PlcConnection first = SUT.getConnection("dummydummy:breakOne");
+        PlcConnection second = SUT.getConnection("dummydummy:breakOne");
+        failNow.set(true);
+        assertThatThrownBy(first::connect).isInstanceOf(PlcConnectionException.class);
+        failNow.set(false);
+
+        // The broken connection is still open, so no other one may be opened for this key
+        assertThatThrownBy(() -> SUT.getConnection("dummydummy:breakOne")).isInstanceOf(PlcConnectionException.class);
+        verify(plcDriver, times(1)).connect(anyString());
+
+        second.close();
+        SUT.getConnection("dummydummy:breakOne").close();
+        verify(plcDriver, times(2)).connect(anyString());
+    }
+
+    @Test
+    void poolStatistics() throws Exception {
+        List<DummyPlcConnection> created = new CopyOnWriteArrayList<>();
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> {
+            String url = invocationOnMock.getArgument(0);
+            if (url.endsWith("fails")) {
+                throw new PlcConnectionException("blub");
+            }
+            DummyPlcConnection dummyPlcConnection = new DummyPlcConnection(url);
+            created.add(dummyPlcConnection);
+            return dummyPlcConnection;
+        });
+
+        PlcConnection first = SUT.getConnection("dummydummy:stats");
+        PlcConnection second = SUT.getConnection("dummydummy:stats");
+        first.close();
+        assertThatThrownBy(() -> SUT.getConnection("dummydummy:fails")).isInstanceOf(PlcConnectionException.class);
+
+        PoolStatistics statistics = SUT.getPoolStatistics();
+        PoolStatistics.KeyStatistics stats = statistics.getKeys().get("PoolKey{url='dummydummy:stats'}");
+        assertThat(stats.getNumActive()).isEqualTo(1);
+        assertThat(stats.getNumIdle()).isEqualTo(1);
+        assertThat(stats.getBorrows()).isEqualTo(2);
+        assertThat(stats.getCreated()).isEqualTo(2);
+        assertThat(LongStream.of(stats.getBorrowWaitHistogram()).sum()).isEqualTo(2);
+        assertThat(stats.getBorrowWaitHistogram()).hasSize(PoolStatistics.getBorrowWaitBoundsMillis().length + 1);
+        assertThat(stats.getMaxBorrowWaitMillis()).isGreaterThanOrEqualTo(stats.getMeanBorrowWaitMillis());
+
+        PoolStatistics.KeyStatistics fails = statistics.getKeys().get("PoolKey{url='dummydummy:fails'}");
+        assertThat(fails.getBorrows()).isZero();
+        assertThat(fails.getBorrowFailures()).isEqualTo(1);
+        assertThat(fails.getCreationFailures()).isEqualTo(1);
+
+        assertThat(statistics.getTotal().getBorrows()).isEqualTo(2);
+        assertThat(statistics.getTotal().getBorrowFailures()).isEqualTo(1);
+        assertThat(statistics.getTotal().getNumActive()).isEqualTo(statistics.getNumActive()).isEqualTo(1);
+
+        // A connection found disconnected on return is destroyed
+        created.forEach(dummyPlcConnection -> dummyPlcConnection.connected = false);
+        second.close();
+        stats = SUT.getPoolStatistics().getKeys().get("PoolKey{url='dummydummy:stats'}");
+        assertThat(stats.getValidationFailures()).isPositive();
+        assertThat(stats.getDestroyed()).isPositive();
+        assertThat(stats.getMaxLifetimeMillis()).isGreaterThanOrEqualTo((long) stats.getMeanLifetimeMillis());
+    }
+
+    @Test
+    void mBeans() throws Exception {
+        when(plcDriver.connect(anyString())).then(invocationOnMock -> new DummyPlcConnection(invocationOnMock.getArgument(0)));
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        PoolKey poolKey = new PoolKeyFactory().getPoolKey("dummydummy:jmx", PooledPlcDriverManager.noPlcAuthentication);
+        ObjectName poolName = PoolMBeans.poolName("mBeansTest");
+        ObjectName keyName = PoolMBeans.keyName("mBeansTest", poolKey);
+
+        SUT.registerMBeans("mBeansTest");
+        try {
+            assertThat(mBeanServer.isRegistered(poolName)).isTrue();
+            PlcConnection connection = SUT.getConnection("dummydummy:jmx");
+            assertThat(mBeanServer.isRegistered(keyName)).isTrue();
+            assertThat(mBeanServer.getAttribute(keyName, "Borrows")).isEqualTo(1L);
+            assertThat(mBeanServer.getAttribute(keyName, "NumActive")).isEqualTo(1);
+            assertThat(mBeanServer.getAttribute(poolName, "Created")).isEqualTo(1L);
+            assertThat((long[]) mBeanServer.getAttribute(poolName, "BorrowWaitHistogram")).contains(1L);
+            connection.close();
+            assertThat(mBeanServer.getAttribute(keyName, "NumActive")).isEqualTo(0);
+        } finally {
+            SUT.unregisterMBeans();
+        }
+        assertThat(mBeanServer.isRegistered(poolName)).isFalse();
+        assertThat(mBeanServer.isRegistered(keyName)).isFalse();
+    }
+
     @Test
     public void testOtherConstructors() {
         assertThat(new PooledPlcDriverManager()).isNotNull();
@@ -0,0 +1,185 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base class for the in-process protocol simulators.
+ * <p>
+ * A simulator listens on the loopback interface, decodes the requests of one protocol, answers them from a
+ * shared {@link AddressSpace} and delays every response according to a {@link LatencyProfile}. Responses of
+ * one connection are always sent in the order the requests arrived, even if jitter is configured, so the
+ * simulators behave like a real device processing one request after another.
+ */
+public abstract class AbstractLoopbackSimulator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractLoopbackSimulator.class);
+
+    private static final AttributeKey<Long> LAST_RESPONSE_DUE = AttributeKey.valueOf("loopback-last-response-due");
+
+    protected final AddressSpace addressSpace;
+
+    protected final LatencyProfile latencyProfile;
+
+    private final LongAdder handledRequests = new LongAdder();
+
+    private EventLoopGroup bossGroup;
+
+    private EventLoopGroup workerGroup;
+
+    private Channel serverChannel;
+
+    protected AbstractLoopbackSimulator(AddressSpace addressSpace, LatencyProfile latencyProfile) {
+        this.addressSpace = addressSpace;
+        this.latencyProfile = latencyProfile;
+    }
+
+    /**
+     * @return a short name of the simulated protocol used in logs and reports.
+     */
+    public abstract String getProtocolName();
+
+    /**
+     * Adds the protocol specific handlers to the pipeline of a newly accepted connection.
+     *
+     * @param pipeline pipeline of the accepted connection.
+     */
+    protected abstract void initPipeline(ChannelPipeline pipeline);
+
+    /**
+     * Starts the simulator on an ephemeral port of the loopback interface.
+     *
+     * @return the port the simulator is listening on.
+     * @throws InterruptedException if interrupted while binding.
+     */
+    public int start() throws InterruptedException {
+        return start(0);
+    }
+
+    /**
+     * Starts the simulator on the given port of the loopback interface.
+     *
+     * @param port port to listen on, 0 selects an ephemeral port.
+     * @return the port the simulator is listening on.
+     * @throws InterruptedException if interrupted while binding.
+     */
+    public synchronized int start(int port) throws InterruptedException {
+        if (serverChannel != null) {
+            throw new IllegalStateException(getProtocolName() + " simulator already started");
+        }
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup();
+        ServerBootstrap bootstrap = new ServerBootstrap()
+            .group(bossGroup, workerGroup)
+            .channel(NioServerSocketChannel.class)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel channel) {
+                    initPipeline(channel.pipeline());
+                }
+            });
+        serverChannel = bootstrap.bind(InetAddress.getLoopbackAddress(), port).sync().channel();
+        LOGGER.info("{} simulator listening on port {} ({})", getProtocolName(), getPort(), latencyProfile);
+        return getPort();
+    }
+
+    /**
+     * @return the port the simulator is listening on.
+     */
+    public int getPort() {
+        if (serverChannel == null) {
+            throw new IllegalStateException(getProtocolName() + " simulator not started");
+        }
+        return ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    /**
+     * @return the number of requests answered since the simulator was started.
+     */
+    public long getHandledRequests() {
+        return handledRequests.sum();
+    }
+
+    public AddressSpace getAddressSpace() {
+        return addressSpace;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (serverChannel == null) {
+            return;
+        }
+        serverChannel.close().syncUninterruptibly();
+        bossGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        serverChannel = null;
+        LOGGER.info("{} simulator stopped after {} requests", getProtocolName(), getHandledRequests());
+    }
+
+    /**
+     * Sends a response honoring the configured {@link LatencyProfile}.
+     * Must be called from the event loop of the connection.
+     *
+     * @param ctx      context of the handler answering the request.
+     * @param response the response to send.
+     */
+    protected void reply(ChannelHandlerContext ctx, Object response) {
+        handledRequests.increment();
+        if (latencyProfile.isZero()) {
+            ctx.writeAndFlush(response);
+            return;
+        }
+        long now = System.nanoTime();
+        Long lastDue = ctx.channel().attr(LAST_RESPONSE_DUE).get();
+        long due = now + latencyProfile.nextDelayNanos();
+        // Keep the order of responses, a later request must not overtake an earlier one.
+        if (lastDue != null && lastDue - due > 0) {
+            due = lastDue;
+        }
+        ctx.channel().attr(LAST_RESPONSE_DUE).set(due);
+        ctx.executor().schedule(() -> {
+            if (ctx.channel().isActive()) {
+                ctx.writeAndFlush(response);
+            } else {
+                ReferenceCountUtil.release(response);
+            }
+        }, due - now, TimeUnit.NANOSECONDS);
+    }
+
+}
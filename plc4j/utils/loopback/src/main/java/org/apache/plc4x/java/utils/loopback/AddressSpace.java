@@ -0,0 +1,131 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory address space shared by the loopback simulators.
+ * <p>
+ * The address space is organized in named areas (e.g. {@code s7/DB1}, {@code modbus/holding-registers},
+ * {@code ads/0x4020}), each being a plain byte array that grows on demand. Reading memory that has never
+ * been written returns zeros, just like a freshly initialized PLC.
+ */
+public class AddressSpace {
+
+    private static final int INITIAL_AREA_SIZE = 1024;
+
+    private final Map<String, Area> areas = new ConcurrentHashMap<>();
+
+    /**
+     * Reads {@code length} bytes starting at {@code offset} of the given area.
+     *
+     * @param area   name of the area.
+     * @param offset byte offset inside the area.
+     * @param length number of bytes to read.
+     * @return a copy of the requested bytes.
+     */
+    public byte[] read(String area, int offset, int length) {
+        return getArea(area).read(offset, length);
+    }
+
+    /**
+     * Writes {@code data} starting at {@code offset} of the given area.
+     *
+     * @param area   name of the area.
+     * @param offset byte offset inside the area.
+     * @param data   bytes to write.
+     */
+    public void write(String area, int offset, byte[] data) {
+        getArea(area).write(offset, data);
+    }
+
+    /**
+     * Reads a single bit.
+     *
+     * @param area       name of the area.
+     * @param byteOffset byte offset inside the area.
+     * @param bitOffset  bit inside the addressed byte (0 = least significant bit).
+     * @return the value of the bit.
+     */
+    public boolean readBit(String area, int byteOffset, int bitOffset) {
+        return (read(area, byteOffset, 1)[0] & (1 << bitOffset)) != 0;
+    }
+
+    /**
+     * Sets or clears a single bit leaving the other bits of the byte untouched.
+     *
+     * @param area       name of the area.
+     * @param byteOffset byte offset inside the area.
+     * @param bitOffset  bit inside the addressed byte (0 = least significant bit).
+     * @param value      new value of the bit.
+     */
+    public void writeBit(String area, int byteOffset, int bitOffset, boolean value) {
+        getArea(area).writeBit(byteOffset, bitOffset, value);
+    }
+
+    /**
+     * Removes all areas.
+     */
+    public void clear() {
+        areas.clear();
+    }
+
+    private Area getArea(String area) {
+        return areas.computeIfAbsent(area, name -> new Area());
+    }
+
+    private static final class Area {
+
+        private byte[] memory = new byte[INITIAL_AREA_SIZE];
+
+        synchronized byte[] read(int offset, int length) {
+            checkBounds(offset, length);
+            byte[] result = new byte[length];
+            if (offset < memory.length) {
+                System.arraycopy(memory, offset, result, 0, Math.min(length, memory.length - offset));
+            }
+            return result;
+        }
+
+        synchronized void write(int offset, byte[] data) {
+            checkBounds(offset, data.length);
+            int required = offset + data.length;
+            if (required > memory.length) {
+                memory = Arrays.copyOf(memory, Math.max(required, memory.length * 2));
+            }
+            System.arraycopy(data, 0, memory, offset, data.length);
+        }
+
+        synchronized void writeBit(int byteOffset, int bitOffset, boolean value) {
+            byte current = read(byteOffset, 1)[0];
+            int mask = 1 << bitOffset;
+            write(byteOffset, new byte[]{(byte) (value ? current | mask : current & ~mask)});
+        }
+
+        private static void checkBounds(int offset, int length) {
+            if (offset < 0 || length < 0) {
+                throw new IllegalArgumentException("Invalid range offset=" + offset + ", length=" + length);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes the artificial processing time a simulator adds to every response.
+ * <p>
+ * Each response is delayed by {@code base + uniform(0, jitter)}.
+ */
+public class LatencyProfile {
+
+    /**
+     * Answer every request as fast as possible.
+     */
+    public static final LatencyProfile NONE = new LatencyProfile(Duration.ZERO, Duration.ZERO);
+
+    private final long baseNanos;
+    private final long jitterNanos;
+
+    public LatencyProfile(Duration base, Duration jitter) {
+        if (base.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("Latency and jitter must not be negative");
+        }
+        this.baseNanos = base.toNanos();
+        this.jitterNanos = jitter.toNanos();
+    }
+
+    public static LatencyProfile of(Duration base, Duration jitter) {
+        return new LatencyProfile(base, jitter);
+    }
+
+    /**
+     * @return the delay in nanoseconds to apply to the next response.
+     */
+    public long nextDelayNanos() {
+        if (jitterNanos == 0) {
+            return baseNanos;
+        }
+        return baseNanos + ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+    }
+
+    public boolean isZero() {
+        return baseNanos == 0 && jitterNanos == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyProfile{" +
+            "baseNanos=" + baseNanos +
+            ", jitterNanos=" + jitterNanos +
+            '}';
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback;
+
+import org.apache.plc4x.java.PlcDriverManager;
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.base.connection.TcpSocketChannelFactory;
+import org.apache.plc4x.java.s7.connection.S7PlcConnection;
+import org.apache.plc4x.java.utils.loopback.load.LoadGenerator;
+import org.apache.plc4x.java.utils.loopback.load.LoadReport;
+import org.apache.plc4x.java.utils.loopback.simulators.AdsSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.EtherNetIpSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.ModbusTcpSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.S7Simulator;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the same closed-loop read workload against all drivers, each talking to its loopback simulator.
+ * <p>
+ * Usage: {@code LoopbackHarness [concurrency] [seconds] [latency-micros] [jitter-micros]}
+ */
+public class LoopbackHarness {
+
+    private static final String ADS_TARGET = "192.168.0.1.1.1:851";
+
+    private final int concurrency;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final LatencyProfile latencyProfile;
+
+    public LoopbackHarness(int concurrency, Duration warmup, Duration duration, LatencyProfile latencyProfile) {
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.latencyProfile = latencyProfile;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        Duration latency = Duration.ofNanos(1000 * (args.length > 2 ? Long.parseLong(args[2]) : 0));
+        Duration jitter = Duration.ofNanos(1000 * (args.length > 3 ? Long.parseLong(args[3]) : 0));
+
+        LoopbackHarness harness = new LoopbackHarness(concurrency, Duration.ofSeconds(2), duration,
+            LatencyProfile.of(latency, jitter));
+        List<LoadReport> reports = harness.runAll();
+        System.out.println(LoadReport.header());
+        reports.forEach(System.out::println);
+    }
+
+    public List<LoadReport> runAll() throws Exception {
+        List<LoadReport> reports = new ArrayList<>();
+        reports.add(runS7());
+        reports.add(runModbus());
+        reports.add(runAds());
+        reports.add(runEtherNetIp());
+        return reports;
+    }
+
+    public LoadReport runS7() throws Exception {
+        AddressSpace addressSpace = new AddressSpace();
+        addressSpace.write(S7Simulator.dataBlock(1), 0, new byte[]{0x12, 0x34});
+        try (S7Simulator simulator = new S7Simulator(addressSpace, latencyProfile)) {
+            int port = simulator.start();
+            // The S7 connection string has no port so the connection is set up directly.
+            try (PlcConnection connection = new S7PlcConnection(
+                new TcpSocketChannelFactory(InetAddress.getLoopbackAddress(), port), 0, 0, null)) {
+                connection.connect();
+                return run("S7", connection, "%DB1.DBW0:INT");
+            }
+        }
+    }
+
+    public LoadReport runModbus() throws Exception {
+        AddressSpace addressSpace = new AddressSpace();
+        addressSpace.write(ModbusTcpSimulator.HOLDING_REGISTERS, 0, new byte[]{0x12, 0x34});
+        try (ModbusTcpSimulator simulator = new ModbusTcpSimulator(addressSpace, latencyProfile)) {
+            int port = simulator.start();
+            try (PlcConnection connection = new PlcDriverManager().getConnection("modbus:tcp://127.0.0.1:" + port)) {
+                return run("Modbus/TCP", connection, "register:0");
+            }
+        }
+    }
+
+    public LoadReport runAds() throws Exception {
+        AddressSpace addressSpace = new AddressSpace();
+        addressSpace.write(AdsSimulator.indexGroup(0x4020), 0, new byte[]{0x34, 0x12});
+        try (AdsSimulator simulator = new AdsSimulator(addressSpace, latencyProfile)) {
+            int port = simulator.start();
+            try (PlcConnection connection = new PlcDriverManager().getConnection("ads:tcp://127.0.0.1:" + port + "/" + ADS_TARGET)) {
+                return run("ADS", connection, "0x4020/0x0:UINT");
+            }
+        }
+    }
+
+    public LoadReport runEtherNetIp() throws Exception {
+        AddressSpace addressSpace = new AddressSpace();
+        addressSpace.write(EtherNetIpSimulator.attribute(1, 1, 1), 0, new byte[]{0x34, 0x12});
+        try (EtherNetIpSimulator simulator = new EtherNetIpSimulator(addressSpace, latencyProfile)) {
+            int port = simulator.start();
+            try (PlcConnection connection = new PlcDriverManager().getConnection("eip://127.0.0.1:" + port)) {
+                return run("EtherNet/IP", connection, "#1#1#1");
+            }
+        }
+    }
+
+    private LoadReport run(String name, PlcConnection connection, String fieldQuery) throws InterruptedException {
+        // Building the request is part of every round trip, just like in a real application.
+        return new LoadGenerator(name, () -> connection.readRequestBuilder().addItem("value", fieldQuery).build())
+            .run(concurrency, warmup, duration);
+    }
+
+}
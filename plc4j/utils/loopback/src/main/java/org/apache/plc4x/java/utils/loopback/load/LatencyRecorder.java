@@ -0,0 +1,81 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples (in nanoseconds) and computes percentiles from them.
+ * <p>
+ * All samples are kept, which is fine for the few million requests of a benchmark run and keeps the
+ * percentiles exact.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+
+    private int count;
+
+    private long errors;
+
+    public synchronized void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return a sorted copy of all samples recorded so far.
+     */
+    public synchronized long[] snapshot() {
+        long[] copy = Arrays.copyOf(samples, count);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples.
+     *
+     * @param sortedSamples samples as returned by {@link #snapshot()}.
+     * @param percentile    percentile in the range {@code (0, 100]}.
+     * @return the sample at the given percentile or 0 if there are no samples.
+     */
+    public static long percentile(long[] sortedSamples, double percentile) {
+        if (sortedSamples.length == 0) {
+            return 0;
+        }
+        // Rounding first avoids off by one ranks caused by floating point errors (e.g. 99.9% of 1000).
+        int rank = (int) Math.ceil(Math.round(percentile * sortedSamples.length * 1000.0) / 100000.0);
+        return sortedSamples[Math.min(Math.max(rank, 1), sortedSamples.length) - 1];
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.load;
+
+import org.apache.plc4x.java.api.messages.PlcFieldResponse;
+import org.apache.plc4x.java.api.messages.PlcRequest;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load generator.
+ * <p>
+ * {@code concurrency} independent request chains are started, each of them sending the next request as soon as
+ * the previous one completed. Requests started during the warm-up phase are not recorded. Latency is measured
+ * from calling {@link PlcRequest#execute()} until the returned future completes.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final Duration GRACE_PERIOD = Duration.ofSeconds(10);
+
+    private final String name;
+
+    private final Supplier<? extends PlcRequest> requestSupplier;
+
+    /**
+     * @param name            name used in the report, usually the driver under test.
+     * @param requestSupplier supplies the requests to execute, called once per request.
+     */
+    public LoadGenerator(String name, Supplier<? extends PlcRequest> requestSupplier) {
+        this.name = name;
+        this.requestSupplier = requestSupplier;
+    }
+
+    public LoadReport run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        LatencyRecorder recorder = new LatencyRecorder();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long measureEnd = measureStart + duration.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            next(recorder, finished, measureStart, measureEnd);
+        }
+        if (!finished.await(warmup.plus(duration).plus(GRACE_PERIOD).toMillis(), TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("{}: {} of {} request chains did not finish, responses got lost", name, finished.getCount(), concurrency);
+        }
+        return new LoadReport(name, concurrency, duration, recorder);
+    }
+
+    private void next(LatencyRecorder recorder, CountDownLatch finished, long measureStart, long measureEnd) {
+        long start = System.nanoTime();
+        if (start - measureEnd >= 0) {
+            finished.countDown();
+            return;
+        }
+        requestSupplier.get().execute().whenComplete((response, throwable) -> {
+            long latency = System.nanoTime() - start;
+            if (start - measureStart >= 0) {
+                if (throwable != null || !isOk(response)) {
+                    LOGGER.debug("{}: request failed", name, throwable);
+                    recorder.recordError();
+                } else {
+                    recorder.record(latency);
+                }
+            }
+            next(recorder, finished, measureStart, measureEnd);
+        });
+    }
+
+    private static boolean isOk(Object response) {
+        if (!(response instanceof PlcFieldResponse)) {
+            return response != null;
+        }
+        PlcFieldResponse fieldResponse = (PlcFieldResponse) response;
+        return fieldResponse.getFieldNames().stream()
+            .allMatch(fieldName -> fieldResponse.getResponseCode(fieldName) == PlcResponseCode.OK);
+    }
+
+}
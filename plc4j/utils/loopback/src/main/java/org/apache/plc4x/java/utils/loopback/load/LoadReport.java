@@ -0,0 +1,116 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.load;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a single {@link LoadGenerator} run.
+ */
+public class LoadReport {
+
+    private final String name;
+    private final int concurrency;
+    private final Duration elapsed;
+    private final long requests;
+    private final long errors;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public LoadReport(String name, int concurrency, Duration elapsed, LatencyRecorder recorder) {
+        this.name = name;
+        this.concurrency = concurrency;
+        this.elapsed = elapsed;
+        long[] samples = recorder.snapshot();
+        this.requests = samples.length;
+        this.errors = recorder.getErrors();
+        this.p50Nanos = LatencyRecorder.percentile(samples, 50);
+        this.p90Nanos = LatencyRecorder.percentile(samples, 90);
+        this.p99Nanos = LatencyRecorder.percentile(samples, 99);
+        this.p999Nanos = LatencyRecorder.percentile(samples, 99.9);
+        this.maxNanos = samples.length > 0 ? samples[samples.length - 1] : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return successful requests per second.
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsed.toNanos();
+        return elapsedNanos > 0 ? requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public static String header() {
+        return String.format(Locale.ENGLISH, "%-14s %5s %10s %12s %7s %9s %9s %9s %9s %9s",
+            "driver", "conc", "requests", "req/s", "errors", "p50[us]", "p90[us]", "p99[us]", "p99.9[us]", "max[us]");
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "%-14s %5d %10d %12.1f %7d %9d %9d %9d %9d %9d",
+            name, concurrency, requests, getThroughput(), errors,
+            TimeUnit.NANOSECONDS.toMicros(p50Nanos), TimeUnit.NANOSECONDS.toMicros(p90Nanos),
+            TimeUnit.NANOSECONDS.toMicros(p99Nanos), TimeUnit.NANOSECONDS.toMicros(p999Nanos),
+            TimeUnit.NANOSECONDS.toMicros(maxNanos));
+    }
+}
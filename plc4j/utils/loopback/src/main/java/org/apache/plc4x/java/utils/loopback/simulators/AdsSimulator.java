@@ -0,0 +1,179 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.simulators;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.plc4x.java.ads.api.commands.*;
+import org.apache.plc4x.java.ads.api.commands.types.*;
+import org.apache.plc4x.java.ads.api.generic.AmsHeader;
+import org.apache.plc4x.java.ads.api.generic.AmsPacket;
+import org.apache.plc4x.java.ads.protocol.Ads2PayloadProtocol;
+import org.apache.plc4x.java.ads.protocol.Payload2TcpProtocol;
+import org.apache.plc4x.java.utils.loopback.AbstractLoopbackSimulator;
+import org.apache.plc4x.java.utils.loopback.AddressSpace;
+import org.apache.plc4x.java.utils.loopback.LatencyProfile;
+
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ADS/AMS device answering from the {@link AddressSpace}.
+ * <p>
+ * Every index group is mapped to its own area named {@code ads/0x<index group>}, the index offset being the byte
+ * offset inside that area. Symbolic access is supported by handing out a handle for every requested symbol name
+ * ({@code ADSIGRP_SYM_HNDBYNAME}) and mapping {@code ADSIGRP_SYM_VALBYHND} to the area {@code ads/symbol/<name>}.
+ */
+public class AdsSimulator extends AbstractLoopbackSimulator {
+
+    private static final int MAX_FRAME_LENGTH = 0x10000;
+
+    private static final long SYM_HNDBYNAME = IndexGroup.ReservedGroups.ADSIGRP_SYM_HNDBYNAME.getAsLong();
+    private static final long SYM_VALBYHND = IndexGroup.ReservedGroups.ADSIGRP_SYM_VALBYHND.getAsLong();
+    private static final long SYM_RELEASEHND = IndexGroup.ReservedGroups.ADSIGRP_SYM_RELEASEHND.getAsLong();
+
+    private final Map<String, Long> handlesByName = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> namesByHandle = new ConcurrentHashMap<>();
+
+    private final AtomicLong handleSequence = new AtomicLong(0x1000);
+
+    public AdsSimulator(AddressSpace addressSpace, LatencyProfile latencyProfile) {
+        super(addressSpace, latencyProfile);
+    }
+
+    public static String indexGroup(long indexGroup) {
+        return "ads/0x" + Long.toHexString(indexGroup);
+    }
+
+    public static String symbol(String name) {
+        return "ads/symbol/" + name;
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "ADS/AMS";
+    }
+
+    @Override
+    protected void initPipeline(ChannelPipeline pipeline) {
+        // Payload2TcpProtocol expects complete packets so frames are assembled upfront.
+        pipeline.addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, MAX_FRAME_LENGTH, 2, 4, 0, 0, true));
+        pipeline.addLast(new Payload2TcpProtocol());
+        pipeline.addLast(new Ads2PayloadProtocol());
+        pipeline.addLast(new SimpleChannelInboundHandler<AmsPacket>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, AmsPacket request) {
+                // The raw buffer bypasses the request tracking of Ads2PayloadProtocol which is meant for clients.
+                reply(ctx, handle(request).getByteBuf());
+            }
+        });
+    }
+
+    private AmsPacket handle(AmsPacket request) {
+        AmsHeader header = request.getAmsHeader();
+        if (request instanceof AdsReadRequest) {
+            AdsReadRequest read = (AdsReadRequest) request;
+            String area = resolveArea(read.getIndexGroup().getAsLong(), read.getIndexOffset().getAsLong());
+            if (area == null) {
+                return AdsReadResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                    header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                    Result.of(AdsReturnCode.ADS_CODE_1808), Data.of(new byte[0]));
+            }
+            byte[] data = addressSpace.read(area, offsetInArea(read.getIndexGroup().getAsLong(), read.getIndexOffset().getAsLong()),
+                (int) read.getLength().getAsLong());
+            return AdsReadResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                Result.of(AdsReturnCode.ADS_CODE_0), Data.of(data));
+        } else if (request instanceof AdsWriteRequest) {
+            AdsWriteRequest write = (AdsWriteRequest) request;
+            long indexGroup = write.getIndexGroup().getAsLong();
+            AdsReturnCode returnCode = AdsReturnCode.ADS_CODE_0;
+            if (indexGroup == SYM_RELEASEHND) {
+                releaseHandle(IndexOffset.of(write.getData().getBytes()).getAsLong());
+            } else {
+                String area = resolveArea(indexGroup, write.getIndexOffset().getAsLong());
+                if (area == null) {
+                    returnCode = AdsReturnCode.ADS_CODE_1808;
+                } else {
+                    addressSpace.write(area, offsetInArea(indexGroup, write.getIndexOffset().getAsLong()),
+                        write.getData().getBytes());
+                }
+            }
+            return AdsWriteResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(), Result.of(returnCode));
+        } else if (request instanceof AdsReadWriteRequest) {
+            AdsReadWriteRequest readWrite = (AdsReadWriteRequest) request;
+            if (readWrite.getIndexGroup().getAsLong() != SYM_HNDBYNAME) {
+                return AdsReadWriteResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                    header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                    Result.of(AdsReturnCode.ADS_CODE_1794), Data.of(new byte[0]));
+            }
+            long handle = acquireHandle(new String(readWrite.getData().getBytes(), Charset.defaultCharset()).trim());
+            return AdsReadWriteResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                Result.of(AdsReturnCode.ADS_CODE_0), Data.of(IndexOffset.of(handle).getBytes()));
+        } else if (request instanceof AdsReadStateRequest) {
+            return AdsReadStateResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                Result.of(AdsReturnCode.ADS_CODE_0), AdsState.DefinedValues.ADSSTATE_RUN, DeviceState.of(0));
+        } else if (request instanceof AdsReadDeviceInfoRequest) {
+            return AdsReadDeviceInfoResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+                header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+                Result.of(AdsReturnCode.ADS_CODE_0), MajorVersion.of(3), MinorVersion.of(1), Version.of(4024),
+                Device.of("PLC4X Loopback"));
+        }
+        return AdsWriteControlResponse.of(header.getSourceAmsNetId(), header.getSourceAmsPort(),
+            header.getTargetAmsNetId(), header.getTargetAmsPort(), header.getInvokeId(),
+            Result.of(AdsReturnCode.ADS_CODE_1793));
+    }
+
+    private String resolveArea(long indexGroup, long indexOffset) {
+        if (indexGroup == SYM_VALBYHND) {
+            String name = namesByHandle.get(indexOffset);
+            return name != null ? symbol(name) : null;
+        }
+        return indexGroup(indexGroup);
+    }
+
+    private static int offsetInArea(long indexGroup, long indexOffset) {
+        return indexGroup == SYM_VALBYHND ? 0 : (int) indexOffset;
+    }
+
+    private long acquireHandle(String name) {
+        return handlesByName.computeIfAbsent(name, key -> {
+            long handle = handleSequence.incrementAndGet();
+            namesByHandle.put(handle, key);
+            return handle;
+        });
+    }
+
+    private void releaseHandle(long handle) {
+        String name = namesByHandle.remove(handle);
+        if (name != null) {
+            handlesByName.remove(name);
+        }
+    }
+
+}
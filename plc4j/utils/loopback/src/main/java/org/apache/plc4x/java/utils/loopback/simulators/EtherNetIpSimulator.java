@@ -0,0 +1,225 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.simulators;
+
+import com.digitalpetri.enip.EnipPacket;
+import com.digitalpetri.enip.EnipStatus;
+import com.digitalpetri.enip.commands.*;
+import com.digitalpetri.enip.cpf.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.plc4x.java.utils.loopback.AbstractLoopbackSimulator;
+import org.apache.plc4x.java.utils.loopback.AddressSpace;
+import org.apache.plc4x.java.utils.loopback.LatencyProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EtherNet/IP adapter answering explicit (unconnected) CIP messages from the {@link AddressSpace}.
+ * <p>
+ * Every attribute is mapped to its own area named {@code cip/<class>/<instance>/<attribute>}.
+ * {@code Get_Attribute_Single} returns the first two bytes (little endian) of that area as this is what the
+ * PLC4X driver expects, {@code Set_Attribute_Single} stores the supplied data.
+ * <p>
+ * The requests sent by the driver during connection setup ({@code ListIdentity}, {@code ListServices},
+ * {@code ListInterfaces}) have no payload which the enip library is unable to decode, so the encapsulation
+ * header is decoded here, the responses are encoded with the library types.
+ */
+public class EtherNetIpSimulator extends AbstractLoopbackSimulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EtherNetIpSimulator.class);
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int CIP_GET_ATTRIBUTE_SINGLE = 0x0E;
+    private static final int CIP_SET_ATTRIBUTE_SINGLE = 0x10;
+    private static final int CIP_REPLY = 0x80;
+    private static final int CIP_STATUS_SUCCESS = 0x00;
+    private static final int CIP_STATUS_PATH_SEGMENT_ERROR = 0x04;
+    private static final int CIP_STATUS_SERVICE_NOT_SUPPORTED = 0x08;
+
+    private static final int SEGMENT_CLASS = 0;
+    private static final int SEGMENT_INSTANCE = 1;
+    private static final int SEGMENT_ATTRIBUTE = 4;
+
+    private static final int COMMUNICATIONS_SERVICE_TYPE_CODE = 0x0100;
+    private static final int CAPABILITY_CIP_ENCAPSULATION = 0x20;
+    private static final int CAPABILITY_CLASS_0_1_UDP = 0x100;
+
+    private final AtomicLong sessionSequence = new AtomicLong();
+
+    public EtherNetIpSimulator(AddressSpace addressSpace, LatencyProfile latencyProfile) {
+        super(addressSpace, latencyProfile);
+    }
+
+    public static String attribute(int classId, int instanceId, int attributeId) {
+        return "cip/" + classId + "/" + instanceId + "/" + attributeId;
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "EtherNet/IP";
+    }
+
+    @Override
+    protected void initPipeline(ChannelPipeline pipeline) {
+        pipeline.addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, HEADER_SIZE + 0xFFFF, 2, 2,
+            HEADER_SIZE - 4, 0, true));
+        pipeline.addLast(new SimpleChannelInboundHandler<ByteBuf>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+                ByteBuf in = frame.order(ByteOrder.LITTLE_ENDIAN);
+                CommandCode commandCode = CommandCode.decode(in);
+                int length = in.readUnsignedShort();
+                long sessionHandle = in.readUnsignedInt();
+                // status
+                in.skipBytes(4);
+                long senderContext = in.readLong();
+                // options
+                in.skipBytes(4);
+                ByteBuf payload = in.readSlice(length);
+
+                Command response = handle(commandCode, payload);
+                if (commandCode == CommandCode.RegisterSession) {
+                    sessionHandle = sessionSequence.incrementAndGet();
+                }
+                if (response == null) {
+                    LOGGER.debug("Ignoring {} command", commandCode);
+                    return;
+                }
+                EnipPacket packet = new EnipPacket(commandCode, sessionHandle, EnipStatus.EIP_SUCCESS, senderContext, response);
+                ByteBuf out = ctx.alloc().buffer();
+                EnipPacket.encode(packet, out.order(ByteOrder.LITTLE_ENDIAN));
+                reply(ctx, out);
+            }
+        });
+    }
+
+    private Command handle(CommandCode commandCode, ByteBuf payload) {
+        switch (commandCode) {
+            case RegisterSession:
+                return new RegisterSession();
+            case ListIdentity:
+                return new ListIdentity(new CipIdentityItem(1,
+                    new SockAddr(2, getPort(), new byte[]{127, 0, 0, 1}, 0),
+                    0xFFFF, 0x0C, 1, (short) 1, (short) 0, (short) 0, 4711, "PLC4X Loopback", (short) 3));
+            case ListServices:
+                return new ListServices(new ListServices.ServiceInformation(COMMUNICATIONS_SERVICE_TYPE_CODE, 1,
+                    CAPABILITY_CIP_ENCAPSULATION | CAPABILITY_CLASS_0_1_UDP, "Communications"));
+            case ListInterfaces:
+                return new ListInterfaces();
+            case SendRRData:
+                return handleSendRRData(payload);
+            default:
+                return null;
+        }
+    }
+
+    private Command handleSendRRData(ByteBuf payload) {
+        // interface handle and timeout
+        payload.skipBytes(6);
+        int itemCount = payload.readUnsignedShort();
+        ByteBuf cipRequest = null;
+        for (int i = 0; i < itemCount; i++) {
+            int typeId = payload.readUnsignedShort();
+            int itemLength = payload.readUnsignedShort();
+            ByteBuf item = payload.readSlice(itemLength);
+            if (typeId == UnconnectedDataItemRequest.TYPE_ID) {
+                cipRequest = item;
+            }
+        }
+        if (cipRequest == null) {
+            return null;
+        }
+        ByteBuf cipResponse = handleCip(cipRequest);
+        // The library is only able to encode the request flavour of the item, both share the same layout though.
+        return new SendRRData(new CpfPacket(new NullAddressItem(), new UnconnectedDataItemRequest(buffer -> {
+            buffer.writeBytes(cipResponse);
+            cipResponse.release();
+        })));
+    }
+
+    private ByteBuf handleCip(ByteBuf request) {
+        int service = request.readUnsignedByte();
+        int pathSizeInBytes = request.readUnsignedByte() * 2;
+        ByteBuf path = request.readSlice(pathSizeInBytes);
+        int[] segments = {-1, -1, -1, -1, -1};
+        while (path.isReadable()) {
+            int segment = path.readUnsignedByte();
+            if ((segment & 0xE0) != 0x20) {
+                return cipReply(service, CIP_STATUS_PATH_SEGMENT_ERROR, null);
+            }
+            int type = (segment >> 2) & 0x07;
+            int value;
+            switch (segment & 0x03) {
+                case 0:
+                    value = path.readUnsignedByte();
+                    break;
+                case 1:
+                    path.skipBytes(1);
+                    value = path.readUnsignedShort();
+                    break;
+                default:
+                    path.skipBytes(1);
+                    value = (int) path.readUnsignedInt();
+            }
+            if (type < segments.length) {
+                segments[type] = value;
+            }
+        }
+        if (segments[SEGMENT_CLASS] < 0 || segments[SEGMENT_INSTANCE] < 0 || segments[SEGMENT_ATTRIBUTE] < 0) {
+            return cipReply(service, CIP_STATUS_PATH_SEGMENT_ERROR, null);
+        }
+        String area = attribute(segments[SEGMENT_CLASS], segments[SEGMENT_INSTANCE], segments[SEGMENT_ATTRIBUTE]);
+        switch (service) {
+            case CIP_GET_ATTRIBUTE_SINGLE:
+                return cipReply(service, CIP_STATUS_SUCCESS, addressSpace.read(area, 0, 2));
+            case CIP_SET_ATTRIBUTE_SINGLE: {
+                byte[] data = new byte[request.readableBytes()];
+                request.readBytes(data);
+                addressSpace.write(area, 0, data);
+                return cipReply(service, CIP_STATUS_SUCCESS, null);
+            }
+            default:
+                return cipReply(service, CIP_STATUS_SERVICE_NOT_SUPPORTED, null);
+        }
+    }
+
+    private static ByteBuf cipReply(int service, int generalStatus, byte[] data) {
+        ByteBuf reply = Unpooled.buffer(4 + (data != null ? data.length : 0));
+        reply.writeByte(service | CIP_REPLY);
+        // reserved
+        reply.writeByte(0);
+        reply.writeByte(generalStatus);
+        // no additional status
+        reply.writeByte(0);
+        if (data != null) {
+            reply.writeBytes(data);
+        }
+        return reply;
+    }
+
+}
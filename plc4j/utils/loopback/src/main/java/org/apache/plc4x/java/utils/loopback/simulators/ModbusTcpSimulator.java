@@ -0,0 +1,159 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.simulators;
+
+import com.digitalpetri.modbus.ExceptionCode;
+import com.digitalpetri.modbus.ModbusPdu;
+import com.digitalpetri.modbus.codec.ModbusRequestDecoder;
+import com.digitalpetri.modbus.codec.ModbusResponseEncoder;
+import com.digitalpetri.modbus.codec.ModbusTcpCodec;
+import com.digitalpetri.modbus.codec.ModbusTcpPayload;
+import com.digitalpetri.modbus.requests.*;
+import com.digitalpetri.modbus.responses.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.plc4x.java.utils.loopback.AbstractLoopbackSimulator;
+import org.apache.plc4x.java.utils.loopback.AddressSpace;
+import org.apache.plc4x.java.utils.loopback.LatencyProfile;
+
+/**
+ * Modbus/TCP slave answering from the {@link AddressSpace}.
+ * <p>
+ * Coils and discrete inputs are stored as one byte per bit in the areas {@link #COILS} and
+ * {@link #DISCRETE_INPUTS}, registers as two big endian bytes per register in the areas
+ * {@link #HOLDING_REGISTERS} and {@link #INPUT_REGISTERS}.
+ */
+public class ModbusTcpSimulator extends AbstractLoopbackSimulator {
+
+    public static final String COILS = "modbus/coils";
+    public static final String DISCRETE_INPUTS = "modbus/discrete-inputs";
+    public static final String HOLDING_REGISTERS = "modbus/holding-registers";
+    public static final String INPUT_REGISTERS = "modbus/input-registers";
+
+    public ModbusTcpSimulator(AddressSpace addressSpace, LatencyProfile latencyProfile) {
+        super(addressSpace, latencyProfile);
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "Modbus/TCP";
+    }
+
+    @Override
+    protected void initPipeline(ChannelPipeline pipeline) {
+        pipeline.addLast(new ModbusTcpCodec(new ModbusResponseEncoder(), new ModbusRequestDecoder()));
+        pipeline.addLast(new SimpleChannelInboundHandler<ModbusTcpPayload>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, ModbusTcpPayload payload) {
+                ModbusPdu request = payload.getModbusPdu();
+                try {
+                    ModbusPdu response = handle(request);
+                    reply(ctx, new ModbusTcpPayload(payload.getTransactionId(), payload.getUnitId(), response));
+                } finally {
+                    ReferenceCountUtil.release(request);
+                }
+            }
+        });
+    }
+
+    private ModbusPdu handle(ModbusPdu request) {
+        switch (request.getFunctionCode()) {
+            case ReadCoils: {
+                ReadCoilsRequest readCoils = (ReadCoilsRequest) request;
+                return new ReadCoilsResponse(readBits(COILS, readCoils.getAddress(), readCoils.getQuantity()));
+            }
+            case ReadDiscreteInputs: {
+                ReadDiscreteInputsRequest readInputs = (ReadDiscreteInputsRequest) request;
+                return new ReadDiscreteInputsResponse(
+                    readBits(DISCRETE_INPUTS, readInputs.getAddress(), readInputs.getQuantity()));
+            }
+            case ReadHoldingRegisters: {
+                ReadHoldingRegistersRequest readRegisters = (ReadHoldingRegistersRequest) request;
+                return new ReadHoldingRegistersResponse(
+                    readRegisters(HOLDING_REGISTERS, readRegisters.getAddress(), readRegisters.getQuantity()));
+            }
+            case ReadInputRegisters: {
+                ReadInputRegistersRequest readRegisters = (ReadInputRegistersRequest) request;
+                return new ReadInputRegistersResponse(
+                    readRegisters(INPUT_REGISTERS, readRegisters.getAddress(), readRegisters.getQuantity()));
+            }
+            case WriteSingleCoil: {
+                WriteSingleCoilRequest writeCoil = (WriteSingleCoilRequest) request;
+                addressSpace.write(COILS, writeCoil.getAddress(), new byte[]{(byte) (writeCoil.getValue() != 0 ? 1 : 0)});
+                return new WriteSingleCoilResponse(writeCoil.getAddress(), writeCoil.getValue());
+            }
+            case WriteSingleRegister: {
+                WriteSingleRegisterRequest writeRegister = (WriteSingleRegisterRequest) request;
+                addressSpace.write(HOLDING_REGISTERS, writeRegister.getAddress() * 2,
+                    new byte[]{(byte) (writeRegister.getValue() >> 8), (byte) writeRegister.getValue()});
+                return new WriteSingleRegisterResponse(writeRegister.getAddress(), writeRegister.getValue());
+            }
+            case WriteMultipleCoils: {
+                WriteMultipleCoilsRequest writeCoils = (WriteMultipleCoilsRequest) request;
+                ByteBuf values = writeCoils.getValues();
+                byte[] coils = new byte[writeCoils.getQuantity()];
+                for (int i = 0; i < coils.length; i++) {
+                    coils[i] = (byte) ((values.getByte(values.readerIndex() + (i >> 3)) >> (i & 7)) & 1);
+                }
+                addressSpace.write(COILS, writeCoils.getAddress(), coils);
+                return new WriteMultipleCoilsResponse(writeCoils.getAddress(), writeCoils.getQuantity());
+            }
+            case WriteMultipleRegisters: {
+                WriteMultipleRegistersRequest writeRegisters = (WriteMultipleRegistersRequest) request;
+                ByteBuf values = writeRegisters.getValues();
+                byte[] registers = new byte[writeRegisters.getQuantity() * 2];
+                values.getBytes(values.readerIndex(), registers);
+                addressSpace.write(HOLDING_REGISTERS, writeRegisters.getAddress() * 2, registers);
+                return new WriteMultipleRegistersResponse(writeRegisters.getAddress(), writeRegisters.getQuantity());
+            }
+            case MaskWriteRegister: {
+                MaskWriteRegisterRequest maskWrite = (MaskWriteRegisterRequest) request;
+                byte[] current = addressSpace.read(HOLDING_REGISTERS, maskWrite.getAddress() * 2, 2);
+                int value = ((current[0] & 0xFF) << 8) | (current[1] & 0xFF);
+                value = (value & maskWrite.getAndMask()) | (maskWrite.getOrMask() & ~maskWrite.getAndMask());
+                addressSpace.write(HOLDING_REGISTERS, maskWrite.getAddress() * 2,
+                    new byte[]{(byte) (value >> 8), (byte) value});
+                return new MaskWriteRegisterResponse(
+                    maskWrite.getAddress(), maskWrite.getAndMask(), maskWrite.getOrMask());
+            }
+            default:
+                return new ExceptionResponse(request.getFunctionCode(), ExceptionCode.IllegalFunction);
+        }
+    }
+
+    private ByteBuf readBits(String area, int address, int quantity) {
+        byte[] bits = addressSpace.read(area, address, quantity);
+        byte[] packed = new byte[(quantity + 7) / 8];
+        for (int i = 0; i < quantity; i++) {
+            if (bits[i] != 0) {
+                packed[i >> 3] |= 1 << (i & 7);
+            }
+        }
+        return Unpooled.wrappedBuffer(packed);
+    }
+
+    private ByteBuf readRegisters(String area, int address, int quantity) {
+        return Unpooled.wrappedBuffer(addressSpace.read(area, address * 2, quantity * 2));
+    }
+
+}
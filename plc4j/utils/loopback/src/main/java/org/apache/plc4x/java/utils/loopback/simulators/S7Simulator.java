@@ -0,0 +1,415 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback.simulators;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportErrorCode;
+import org.apache.plc4x.java.s7.netty.model.types.DataTransportSize;
+import org.apache.plc4x.java.s7.netty.model.types.MemoryArea;
+import org.apache.plc4x.java.s7.netty.model.types.MessageType;
+import org.apache.plc4x.java.s7.netty.model.types.ParameterType;
+import org.apache.plc4x.java.s7.netty.model.types.SslId;
+import org.apache.plc4x.java.s7.netty.model.types.TransportSize;
+import org.apache.plc4x.java.utils.loopback.AbstractLoopbackSimulator;
+import org.apache.plc4x.java.utils.loopback.AddressSpace;
+import org.apache.plc4x.java.utils.loopback.LatencyProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * S7 server speaking ISO on TCP (RFC 1006), COTP class 0 and S7comm.
+ * <p>
+ * Supported are the connection setup (COTP connection request and S7 setup communication), the SZL module
+ * identification request and read/write var jobs using S7ANY addressing. Data blocks are stored in the areas
+ * {@code s7/DB<n>}, all other memory areas in {@code s7/<memory area name>} (e.g. {@code s7/FLAGS}).
+ * <p>
+ * Payload items are framed the way the PLC4X S7 driver expects them: a fill byte is emitted after each but
+ * the last read item whose transport size carries one.
+ */
+public class S7Simulator extends AbstractLoopbackSimulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(S7Simulator.class);
+
+    public static final String DEFAULT_ARTICLE_NUMBER = "6ES7 315-2EH14-0AB0";
+
+    private static final int TPKT_HEADER_SIZE = 4;
+    private static final byte TPKT_VERSION = 0x03;
+
+    private static final byte COTP_CONNECTION_REQUEST = (byte) 0xE0;
+    private static final byte COTP_CONNECTION_CONFIRM = (byte) 0xD0;
+    private static final byte COTP_DISCONNECT_REQUEST = (byte) 0x80;
+    private static final byte COTP_DATA = (byte) 0xF0;
+
+    private static final byte S7_PROTOCOL_MAGIC_NUMBER = 0x32;
+    private static final byte SETUP_COMMUNICATION = (byte) 0xF0;
+    private static final int SSL_RECORD_SIZE = 28;
+
+    private final short maxPduSize;
+    private final String articleNumber;
+
+    public S7Simulator(AddressSpace addressSpace, LatencyProfile latencyProfile) {
+        this(addressSpace, latencyProfile, (short) 960, DEFAULT_ARTICLE_NUMBER);
+    }
+
+    /**
+     * @param addressSpace   address space to read from and write to.
+     * @param latencyProfile latency added to every response.
+     * @param maxPduSize     the largest PDU size the simulator agrees to during setup communication.
+     * @param articleNumber  article number reported in the SZL module identification.
+     */
+    public S7Simulator(AddressSpace addressSpace, LatencyProfile latencyProfile, short maxPduSize, String articleNumber) {
+        super(addressSpace, latencyProfile);
+        this.maxPduSize = maxPduSize;
+        this.articleNumber = articleNumber;
+    }
+
+    /**
+     * @param blockNumber number of the data block.
+     * @return the name of the area used for the given data block.
+     */
+    public static String dataBlock(int blockNumber) {
+        return "s7/DB" + blockNumber;
+    }
+
+    @Override
+    public String getProtocolName() {
+        return "S7";
+    }
+
+    @Override
+    protected void initPipeline(ChannelPipeline pipeline) {
+        // The TPKT length contains the TPKT header itself.
+        pipeline.addLast(new LengthFieldBasedFrameDecoder(0xFFFF, 2, 2, -TPKT_HEADER_SIZE, TPKT_HEADER_SIZE));
+        pipeline.addLast(new SimpleChannelInboundHandler<ByteBuf>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+                handleCotp(ctx, frame);
+            }
+        });
+    }
+
+    private void handleCotp(ChannelHandlerContext ctx, ByteBuf frame) {
+        int headerStart = frame.readerIndex();
+        int headerLength = frame.readUnsignedByte();
+        byte tpduCode = (byte) (frame.readByte() & 0xF0);
+        switch (tpduCode) {
+            case COTP_CONNECTION_REQUEST: {
+                // Confirm with the parameters (TSAPs and TPDU size) of the request.
+                ByteBuf response = ctx.alloc().buffer();
+                writeTpktHeader(response, headerLength + 1);
+                response.writeBytes(frame, headerStart, headerLength + 1);
+                int cotpStart = TPKT_HEADER_SIZE;
+                short sourceReference = frame.getShort(headerStart + 4);
+                response.setByte(cotpStart + 1, COTP_CONNECTION_CONFIRM);
+                response.setShort(cotpStart + 2, sourceReference);
+                response.setShort(cotpStart + 4, 0x0001);
+                reply(ctx, response);
+                break;
+            }
+            case COTP_DATA:
+                frame.readerIndex(headerStart + headerLength + 1);
+                handleS7(ctx, frame);
+                break;
+            case COTP_DISCONNECT_REQUEST:
+                ctx.close();
+                break;
+            default:
+                LOGGER.warn("Unsupported COTP TPDU 0x{}", Integer.toHexString(tpduCode & 0xFF));
+        }
+    }
+
+    private void handleS7(ChannelHandlerContext ctx, ByteBuf in) {
+        if (in.readByte() != S7_PROTOCOL_MAGIC_NUMBER) {
+            LOGGER.warn("Expecting S7 protocol magic number.");
+            return;
+        }
+        MessageType messageType = MessageType.valueOf(in.readByte());
+        in.skipBytes(2);
+        short tpduReference = in.readShort();
+        int parametersLength = in.readUnsignedShort();
+        int payloadLength = in.readUnsignedShort();
+        ByteBuf parameters = in.readSlice(parametersLength);
+        ByteBuf payload = in.readSlice(payloadLength);
+        byte function = parameters.readByte();
+        if (messageType == MessageType.JOB && function == SETUP_COMMUNICATION) {
+            handleSetupCommunication(ctx, tpduReference, parameters);
+        } else if (messageType == MessageType.JOB && function == ParameterType.READ_VAR.getCode()) {
+            handleReadVar(ctx, tpduReference, parameters);
+        } else if (messageType == MessageType.JOB && function == ParameterType.WRITE_VAR.getCode()) {
+            handleWriteVar(ctx, tpduReference, parameters, payload);
+        } else if (messageType == MessageType.USER_DATA && function == ParameterType.CPU_SERVICES.getCode()) {
+            handleCpuServices(ctx, tpduReference, payload);
+        } else {
+            LOGGER.warn("Unsupported S7 message {} with function 0x{}", messageType,
+                Integer.toHexString(function & 0xFF));
+        }
+    }
+
+    private void handleSetupCommunication(ChannelHandlerContext ctx, short tpduReference, ByteBuf parameters) {
+        parameters.skipBytes(1);
+        short maxAmqCaller = parameters.readShort();
+        short maxAmqCallee = parameters.readShort();
+        short pduSize = (short) Math.min(parameters.readShort(), maxPduSize);
+        ByteBuf response = newDataTpdu(ctx, MessageType.ACK_DATA, tpduReference, 8, 0);
+        response.writeByte(SETUP_COMMUNICATION);
+        response.writeByte(0x00);
+        response.writeShort(maxAmqCaller);
+        response.writeShort(maxAmqCallee);
+        response.writeShort(pduSize);
+        finishAndReply(ctx, response);
+    }
+
+    private void handleReadVar(ChannelHandlerContext ctx, short tpduReference, ByteBuf parameters) {
+        List<VarItem> items = decodeVarItems(parameters);
+        List<byte[]> data = new ArrayList<>(items.size());
+        int payloadLength = 0;
+        for (int i = 0; i < items.size(); i++) {
+            VarItem item = items.get(i);
+            byte[] itemData = item.read(addressSpace);
+            data.add(itemData);
+            payloadLength += 4 + (itemData == null ? 0 : itemData.length);
+            if (itemData != null && item.getResponseTransportSize().isHasBlankByte() && i < items.size() - 1) {
+                payloadLength++;
+            }
+        }
+        ByteBuf response = newDataTpdu(ctx, MessageType.ACK_DATA, tpduReference, 2, payloadLength);
+        response.writeByte(ParameterType.READ_VAR.getCode());
+        response.writeByte(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            VarItem item = items.get(i);
+            byte[] itemData = data.get(i);
+            if (itemData == null) {
+                response.writeByte(DataTransportErrorCode.NOT_FOUND.getCode());
+                response.writeByte(DataTransportSize.NULL.getCode());
+                response.writeShort(0);
+                continue;
+            }
+            DataTransportSize transportSize = item.getResponseTransportSize();
+            response.writeByte(DataTransportErrorCode.OK.getCode());
+            response.writeByte(transportSize.getCode());
+            response.writeShort(transportSize.isSizeInBits() ? itemData.length * 8 : itemData.length);
+            response.writeBytes(itemData);
+            if (transportSize.isHasBlankByte() && i < items.size() - 1) {
+                response.writeByte(0x00);
+            }
+        }
+        finishAndReply(ctx, response);
+    }
+
+    private void handleWriteVar(ChannelHandlerContext ctx, short tpduReference, ByteBuf parameters, ByteBuf payload) {
+        List<VarItem> items = decodeVarItems(parameters);
+        byte[] returnCodes = new byte[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            VarItem item = items.get(i);
+            payload.skipBytes(1);
+            DataTransportSize transportSize = DataTransportSize.valueOf(payload.readByte());
+            int length = payload.readUnsignedShort();
+            int expectedLength = item.getLengthInBytes();
+            // Real clients send the length in bits for some transport sizes, the PLC4X driver always uses bytes.
+            if (transportSize != null && transportSize.isSizeInBits() && length != expectedLength) {
+                length = (length + 7) / 8;
+            }
+            byte[] data = new byte[length];
+            payload.readBytes(data);
+            returnCodes[i] = item.write(addressSpace, data) ?
+                DataTransportErrorCode.OK.getCode() : DataTransportErrorCode.NOT_FOUND.getCode();
+        }
+        ByteBuf response = newDataTpdu(ctx, MessageType.ACK_DATA, tpduReference, 2, returnCodes.length);
+        response.writeByte(ParameterType.WRITE_VAR.getCode());
+        response.writeByte(items.size());
+        response.writeBytes(returnCodes);
+        finishAndReply(ctx, response);
+    }
+
+    private void handleCpuServices(ChannelHandlerContext ctx, short tpduReference, ByteBuf payload) {
+        payload.skipBytes(4);
+        short sslId = payload.readShort();
+        short sslIndex = payload.readShort();
+        if (sslId != SslId.MODULE_IDENTIFICATION.getCode()) {
+            LOGGER.warn("Unsupported SZL id 0x{}", Integer.toHexString(sslId & 0xFFFF));
+            return;
+        }
+        int numRecords = 1;
+        int sslLength = 8 + numRecords * SSL_RECORD_SIZE;
+        ByteBuf response = newDataTpdu(ctx, MessageType.USER_DATA, tpduReference, 12, 4 + sslLength);
+        // Parameter: CPU services response (function group CPU functions, sub function read SZL)
+        response.writeByte(ParameterType.CPU_SERVICES.getCode());
+        response.writeShort(0x0112);
+        response.writeByte(0x08);
+        response.writeByte(0x12);
+        response.writeByte(0x84);
+        response.writeByte(0x01);
+        response.writeByte(0x01);
+        response.writeByte(0x00);
+        response.writeByte(0x00);
+        response.writeShort(0x0000);
+        // Payload
+        response.writeByte(DataTransportErrorCode.OK.getCode());
+        response.writeByte(DataTransportSize.OCTET_STRING.getCode());
+        response.writeShort(sslLength);
+        response.writeShort(sslId);
+        response.writeShort(sslIndex);
+        response.writeShort(SSL_RECORD_SIZE / 2);
+        response.writeShort(numRecords);
+        response.writeShort(0x0001);
+        byte[] article = new byte[20];
+        Arrays.fill(article, (byte) 0x20);
+        byte[] articleBytes = articleNumber.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(articleBytes, 0, article, 0, Math.min(articleBytes.length, article.length));
+        response.writeBytes(article);
+        response.writeShort(0x0000);
+        response.writeShort(0x0001);
+        response.writeShort(0x0001);
+        finishAndReply(ctx, response);
+    }
+
+    private List<VarItem> decodeVarItems(ByteBuf parameters) {
+        int numItems = parameters.readUnsignedByte();
+        List<VarItem> items = new ArrayList<>(numItems);
+        for (int i = 0; i < numItems; i++) {
+            // Specification type, length of the item and syntax id (S7ANY)
+            parameters.skipBytes(3);
+            byte transportSizeCode = parameters.readByte();
+            int numElements = parameters.readUnsignedShort();
+            int blockNumber = parameters.readUnsignedShort();
+            MemoryArea memoryArea = MemoryArea.valueOf(parameters.readByte());
+            int address = parameters.readUnsignedMedium();
+            items.add(new VarItem(transportSizeCode, numElements, blockNumber, memoryArea, address >> 3, address & 0x07));
+        }
+        return items;
+    }
+
+    private ByteBuf newDataTpdu(ChannelHandlerContext ctx, MessageType messageType, short tpduReference,
+                                int parametersLength, int payloadLength) {
+        ByteBuf buf = ctx.alloc().buffer();
+        // TPKT header, the length is set in finishAndReply
+        writeTpktHeader(buf, 0);
+        // COTP data TPDU (class 0, last data unit)
+        buf.writeByte(0x02);
+        buf.writeByte(COTP_DATA);
+        buf.writeByte(0x80);
+        // S7 header
+        buf.writeByte(S7_PROTOCOL_MAGIC_NUMBER);
+        buf.writeByte(messageType.getCode());
+        buf.writeShort(0x0000);
+        buf.writeShort(tpduReference);
+        buf.writeShort(parametersLength);
+        buf.writeShort(payloadLength);
+        if (messageType == MessageType.ACK_DATA) {
+            // Error class and error code
+            buf.writeShort(0x0000);
+        }
+        return buf;
+    }
+
+    private void finishAndReply(ChannelHandlerContext ctx, ByteBuf buf) {
+        buf.setShort(2, buf.readableBytes());
+        reply(ctx, buf);
+    }
+
+    private static void writeTpktHeader(ByteBuf buf, int payloadLength) {
+        buf.writeByte(TPKT_VERSION);
+        buf.writeByte(0x00);
+        buf.writeShort(TPKT_HEADER_SIZE + payloadLength);
+    }
+
+    private static final class VarItem {
+
+        private final TransportSize transportSize;
+        private final int numElements;
+        private final String area;
+        private final int byteOffset;
+        private final int bitOffset;
+
+        private VarItem(byte transportSizeCode, int numElements, int blockNumber, MemoryArea memoryArea,
+                        int byteOffset, int bitOffset) {
+            this.transportSize = TransportSize.valueOf(transportSizeCode);
+            this.numElements = numElements;
+            if (memoryArea == null) {
+                this.area = null;
+            } else if (memoryArea == MemoryArea.DATA_BLOCKS || memoryArea == MemoryArea.INSTANCE_DATA_BLOCKS) {
+                this.area = dataBlock(blockNumber);
+            } else {
+                this.area = "s7/" + memoryArea.name();
+            }
+            this.byteOffset = byteOffset;
+            this.bitOffset = bitOffset;
+        }
+
+        private boolean isValid() {
+            return area != null && transportSize != null &&
+                (transportSize == TransportSize.BOOL || transportSize.getSizeInBytes() > 0);
+        }
+
+        private int getLengthInBytes() {
+            return transportSize == TransportSize.BOOL ? numElements : numElements * transportSize.getSizeInBytes();
+        }
+
+        private DataTransportSize getResponseTransportSize() {
+            if (transportSize == TransportSize.BOOL) {
+                return DataTransportSize.BIT;
+            }
+            return transportSize.getDataTransportSize() != null ?
+                transportSize.getDataTransportSize() : DataTransportSize.OCTET_STRING;
+        }
+
+        private byte[] read(AddressSpace addressSpace) {
+            if (!isValid()) {
+                return null;
+            }
+            if (transportSize != TransportSize.BOOL) {
+                return addressSpace.read(area, byteOffset, getLengthInBytes());
+            }
+            // One byte per bit, just as the PLC4X driver decodes them.
+            byte[] bits = new byte[numElements];
+            for (int i = 0; i < numElements; i++) {
+                int bit = bitOffset + i;
+                bits[i] = (byte) (addressSpace.readBit(area, byteOffset + (bit >> 3), bit & 0x07) ? 1 : 0);
+            }
+            return bits;
+        }
+
+        private boolean write(AddressSpace addressSpace, byte[] data) {
+            if (!isValid()) {
+                return false;
+            }
+            if (transportSize != TransportSize.BOOL) {
+                addressSpace.write(area, byteOffset, data);
+                return true;
+            }
+            for (int i = 0; i < numElements; i++) {
+                boolean value = data.length >= numElements ?
+                    data[i] != 0 : (i >> 3) < data.length && ((data[i >> 3] >> (i & 0x07)) & 0x01) != 0;
+                int bit = bitOffset + i;
+                addressSpace.writeBit(area, byteOffset + (bit >> 3), bit & 0x07, value);
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.utils.loopback;
+
+import org.apache.plc4x.java.PlcDriverManager;
+import org.apache.plc4x.java.api.PlcConnection;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.messages.PlcWriteResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.connection.ChannelFactory;
+import org.apache.plc4x.java.base.connection.TcpSocketChannelFactory;
+import org.apache.plc4x.java.modbus.connection.ModbusTcpPlcConnection;
+import org.apache.plc4x.java.s7.connection.S7PlcConnection;
+import org.apache.plc4x.java.s7.connection.S7SessionCache;
+import org.apache.plc4x.java.s7.connection.S7SymbolSource;
+import org.apache.plc4x.java.s7.model.S7Field;
+import org.apache.plc4x.java.s7.model.S7SymbolTable;
+import org.apache.plc4x.java.utils.loopback.load.LatencyRecorder;
+import org.apache.plc4x.java.utils.loopback.load.LoadReport;
+import org.apache.plc4x.java.utils.loopback.simulators.AdsSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.EtherNetIpSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.ModbusTcpSimulator;
+import org.apache.plc4x.java.utils.loopback.simulators.S7Simulator;
+import org.apache.plc4x.java.utils.pcapng.PcapngCaptureChannelFactory;
+import org.apache.plc4x.java.utils.pcapng.PcapngWriter;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+class LoopbackSimulatorTest implements WithAssertions {
+
+    private final AddressSpace addressSpace = new AddressSpace();
+
+    @Nested
+    class S7 {
+        @Test
+        void readAndWrite() throws Exception {
+            addressSpace.write(S7Simulator.dataBlock(1), 0, new byte[]{0x12, 0x34});
+            try (S7Simulator simulator = new S7Simulator(addressSpace, LatencyProfile.NONE)) {
+                int port = simulator.start();
+                try (PlcConnection connection = new S7PlcConnection(
+                    new TcpSocketChannelFactory(InetAddress.getLoopbackAddress(), port), 0, 0, null)) {
+                    connection.connect();
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "%DB1.DBW0:INT")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(readResponse.getInteger("value")).isEqualTo(0x1234);
+
+                    PlcWriteResponse writeResponse = connection.writeRequestBuilder()
+                        .addItem("value", "%DB1.DBW2:INT", (short) 42)
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(writeResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(addressSpace.read(S7Simulator.dataBlock(1), 2, 2)).containsExactly(0x00, 42);
+                }
+            }
+        }
+
+        @Test
+        void readSymbolic() throws Exception {
+            addressSpace.write(S7Simulator.dataBlock(1), 4, new byte[]{0x00, 0x2A});
+            try (S7Simulator simulator = new S7Simulator(addressSpace, LatencyProfile.NONE)) {
+                int port = simulator.start();
+                try (S7PlcConnection connection = new S7PlcConnection(
+                    new TcpSocketChannelFactory(InetAddress.getLoopbackAddress(), port), 0, 0, null)) {
+                    connection.setSymbolSource(new S7SymbolSource() {
+                        @Override
+                        public String getKey() {
+                            return "loopback:" + port;
+                        }
+
+                        @Override
+                        public String getProgramVersion() {
+                            return "1";
+                        }
+
+                        @Override
+                        public S7SymbolTable load(String programVersion) {
+                            return S7SymbolTable.of(programVersion,
+                                Collections.singletonMap("\"Tank\".Level", S7Field.of("%DB1.DBW4:INT")));
+                        }
+                    });
+                    connection.connect();
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("level", "Tank.Level:INT")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("level")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(readResponse.getInteger("level")).isEqualTo(42);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class Modbus {
+        @Test
+        void readAndWrite() throws Exception {
+            addressSpace.write(ModbusTcpSimulator.HOLDING_REGISTERS, 0, new byte[]{0x12, 0x34});
+            try (ModbusTcpSimulator simulator = new ModbusTcpSimulator(addressSpace, LatencyProfile.NONE)) {
+                int port = simulator.start();
+                try (PlcConnection connection = new PlcDriverManager().getConnection("modbus:tcp://127.0.0.1:" + port)) {
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "readholdingregisters:0")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(readResponse.getShort("value")).isEqualTo((short) 0x1234);
+
+                    PlcWriteResponse writeResponse = connection.writeRequestBuilder()
+                        .addItem("value", "coil:3", true)
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(writeResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(addressSpace.read(ModbusTcpSimulator.COILS, 3, 1)).containsExactly(1);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class Ads {
+        @Test
+        void readAndWrite() throws Exception {
+            addressSpace.write(AdsSimulator.indexGroup(0x4020), 0, new byte[]{0x34, 0x12});
+            try (AdsSimulator simulator = new AdsSimulator(addressSpace, LatencyProfile.NONE)) {
+                int port = simulator.start();
+                try (PlcConnection connection = new PlcDriverManager().getConnection("ads:tcp://127.0.0.1:" + port + "/192.168.0.1.1.1:851")) {
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "0x4020/0x0:UINT")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(readResponse.getInteger("value")).isEqualTo(0x1234);
+
+                    PlcWriteResponse writeResponse = connection.writeRequestBuilder()
+                        .addItem("value", "0x4020/0x4:UINT", 42)
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(writeResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(addressSpace.read(AdsSimulator.indexGroup(0x4020), 4, 2)).containsExactly(42, 0x00);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class EtherNetIp {
+        @Test
+        void read() throws Exception {
+            addressSpace.write(EtherNetIpSimulator.attribute(1, 1, 1), 0, new byte[]{0x34, 0x12});
+            try (EtherNetIpSimulator simulator = new EtherNetIpSimulator(addressSpace, LatencyProfile.NONE)) {
+                int port = simulator.start();
+                try (PlcConnection connection = new PlcDriverManager().getConnection("eip://127.0.0.1:" + port)) {
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "#1#1#1")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(readResponse.getInteger("value")).isEqualTo(0x1234);
+                }
+            }
+        }
+    }
+
+    @Nested
+    class Capture {
+        @Test
+        void s7FastConnectSeesThroughCapture() throws Exception {
+            Path captureFile = Files.createTempFile("s7", ".pcapng");
+            try (S7Simulator simulator = new S7Simulator(addressSpace, LatencyProfile.NONE);
+                 PcapngWriter writer = PcapngWriter.open(captureFile, PcapngWriter.LINK_TYPE_RAW)) {
+                int port = simulator.start();
+                String sessionKey = S7SessionCache.key(InetAddress.getLoopbackAddress().getHostAddress(), port, 0, 0);
+                S7SessionCache.getInstance().invalidate(sessionKey);
+                ChannelFactory channelFactory = new PcapngCaptureChannelFactory(
+                    new TcpSocketChannelFactory(InetAddress.getLoopbackAddress(), port), writer);
+                try (PlcConnection connection = new S7PlcConnection(channelFactory, 0, 0, null)) {
+                    connection.connect();
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "%DB1.DBW0:INT")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                }
+                assertThat(S7SessionCache.getInstance().get(sessionKey)).isNotNull();
+                assertThat(writer.getPacketsWritten()).isPositive();
+            } finally {
+                Files.deleteIfExists(captureFile);
+            }
+        }
+
+        @Test
+        void modbusRemoteAddressSeesThroughCapture() throws Exception {
+            Path captureFile = Files.createTempFile("modbus", ".pcapng");
+            try (ModbusTcpSimulator simulator = new ModbusTcpSimulator(addressSpace, LatencyProfile.NONE);
+                 PcapngWriter writer = PcapngWriter.open(captureFile, PcapngWriter.LINK_TYPE_RAW)) {
+                int port = simulator.start();
+                ChannelFactory channelFactory = new PcapngCaptureChannelFactory(
+                    new TcpSocketChannelFactory(InetAddress.getLoopbackAddress(), port), writer);
+                try (ModbusTcpPlcConnection connection = new ModbusTcpPlcConnection(channelFactory, null)) {
+                    connection.connect();
+                    PlcReadResponse readResponse = connection.readRequestBuilder()
+                        .addItem("value", "readholdingregisters:0")
+                        .build().execute().get(2, TimeUnit.SECONDS);
+                    assertThat(readResponse.getResponseCode("value")).isEqualTo(PlcResponseCode.OK);
+                    assertThat(connection.getRemoteAddress()).isEqualTo(InetAddress.getLoopbackAddress());
+                }
+                assertThat(writer.getPacketsWritten()).isPositive();
+            } finally {
+                Files.deleteIfExists(captureFile);
+            }
+        }
+    }
+
+    @Nested
+    class Harness {
+        @Test
+        void reportsThroughputAndPercentiles() throws Exception {
+            LoopbackHarness harness = new LoopbackHarness(4, Duration.ofMillis(100), Duration.ofMillis(500),
+                LatencyProfile.of(Duration.ofMillis(1), Duration.ofMillis(1)));
+            LoadReport report = harness.runModbus();
+            assertThat(report.getErrors()).isZero();
+            assertThat(report.getRequests()).isPositive();
+            assertThat(report.getThroughput()).isPositive();
+            assertThat(report.getP50Nanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+            assertThat(report.getP99Nanos()).isGreaterThanOrEqualTo(report.getP50Nanos());
+            assertThat(report.getMaxNanos()).isGreaterThanOrEqualTo(report.getP999Nanos());
+        }
+
+        @Test
+        void percentile() {
+            LatencyRecorder recorder = new LatencyRecorder();
+            for (int i = 1; i <= 1000; i++) {
+                recorder.record(i);
+            }
+            long[] samples = recorder.snapshot();
+            assertThat(LatencyRecorder.percentile(samples, 50)).isEqualTo(500);
+            assertThat(LatencyRecorder.percentile(samples, 99.9)).isEqualTo(999);
+            assertThat(LatencyRecorder.percentile(samples, 100)).isEqualTo(1000);
+            assertThat(LatencyRecorder.percentile(new long[0], 50)).isZero();
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Difference between two sets of {@link ScrapeJob}s at the level of {@link ScraperTask}s, each identified by job name
+ * and connection alias.
+ * <p>
+ * A task is changed if the scrape rate of its job, its connection string or the fields of its job differ.
+ */
+public class ScrapeJobDiff {
+
+    private final Set<Pair<String, String>> added;
+    private final Set<Pair<String, String>> removed;
+    private final Set<Pair<String, String>> changed;
+    private final Set<Pair<String, String>> unchanged;
+
+    private ScrapeJobDiff(Set<Pair<String, String>> added, Set<Pair<String, String>> removed,
+                          Set<Pair<String, String>> changed, Set<Pair<String, String>> unchanged) {
+        this.added = Collections.unmodifiableSet(added);
+        this.removed = Collections.unmodifiableSet(removed);
+        this.changed = Collections.unmodifiableSet(changed);
+        this.unchanged = Collections.unmodifiableSet(unchanged);
+    }
+
+    /**
+     * @param oldJobs jobs currently scraped.
+     * @param newJobs jobs to scrape instead.
+     * @return the changes needed to go from the old to the new jobs.
+     */
+    public static ScrapeJobDiff between(List<ScrapeJob> oldJobs, List<ScrapeJob> newJobs) {
+        Map<Pair<String, String>, TaskSpec> oldTasks = tasksOf(oldJobs);
+        Map<Pair<String, String>, TaskSpec> newTasks = tasksOf(newJobs);
+        Set<Pair<String, String>> added = new LinkedHashSet<>();
+        Set<Pair<String, String>> removed = new LinkedHashSet<>();
+        Set<Pair<String, String>> changed = new LinkedHashSet<>();
+        Set<Pair<String, String>> unchanged = new LinkedHashSet<>();
+        for (Map.Entry<Pair<String, String>, TaskSpec> entry : newTasks.entrySet()) {
+            TaskSpec oldTask = oldTasks.get(entry.getKey());
+            if (oldTask == null) {
+                added.add(entry.getKey());
+            } else if (oldTask.equals(entry.getValue())) {
+                unchanged.add(entry.getKey());
+            } else {
+                changed.add(entry.getKey());
+            }
+        }
+        for (Pair<String, String> task : oldTasks.keySet()) {
+            if (!newTasks.containsKey(task)) {
+                removed.add(task);
+            }
+        }
+        return new ScrapeJobDiff(added, removed, changed, unchanged);
+    }
+
+    private static Map<Pair<String, String>, TaskSpec> tasksOf(List<ScrapeJob> jobs) {
+        Map<Pair<String, String>, TaskSpec> tasks = new HashMap<>();
+        for (ScrapeJob job : jobs) {
+            job.getConnections().forEach((alias, connectionString) ->
+                tasks.put(Pair.of(job.getName(), alias), new TaskSpec(job.getScrapeRate(), connectionString, job.getFields())));
+        }
+        return tasks;
+    }
+
+    /**
+     * @return tasks (job name and connection alias) only in the new jobs.
+     */
+    public Set<Pair<String, String>> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return tasks (job name and connection alias) only in the old jobs.
+     */
+    public Set<Pair<String, String>> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return tasks (job name and connection alias) in both, but with a different rate, connection or fields.
+     */
+    public Set<Pair<String, String>> getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return tasks (job name and connection alias) that are the same in both.
+     */
+    public Set<Pair<String, String>> getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return {@code true} if no task needs to be started or stopped.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ScrapeJobDiff{" +
+            "added=" + added +
+            ", removed=" + removed +
+            ", changed=" + changed +
+            ", unchanged=" + unchanged.size() +
+            '}';
+    }
+
+    private static class TaskSpec {
+
+        private final long scrapeRate;
+        private final String connectionString;
+        private final Map<String, String> fields;
+
+        private TaskSpec(long scrapeRate, String connectionString, Map<String, String> fields) {
+            this.scrapeRate = scrapeRate;
+            this.connectionString = connectionString;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TaskSpec)) {
+                return false;
+            }
+            TaskSpec taskSpec = (TaskSpec) o;
+            return scrapeRate == taskSpec.scrapeRate &&
+                Objects.equals(connectionString, taskSpec.connectionString) &&
+                Objects.equals(fields, taskSpec.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scrapeRate, connectionString, fields);
+        }
+    }
+}
@@ -23,18 +23,29 @@ import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.plc4x.java.PlcDriverManager;
+import org.apache.plc4x.java.scraper.batch.BatchConfig;
+import org.apache.plc4x.java.scraper.batch.BatchResultHandler;
+import org.apache.plc4x.java.scraper.batch.ResultBatcher;
 import org.apache.plc4x.java.scraper.config.ScraperConfiguration;
+import org.apache.plc4x.java.scraper.deadband.DeadbandConfig;
+import org.apache.plc4x.java.scraper.scheduling.CycleScheduler;
+import org.apache.plc4x.java.scraper.scheduling.PhaseStrategy;
+import org.apache.plc4x.java.scraper.scheduling.ScheduledCycle;
 import org.apache.plc4x.java.scraper.util.PercentageAboveThreshold;
 import org.apache.plc4x.java.utils.connectionpool.PooledPlcDriverManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
 /**
@@ -58,11 +69,18 @@ public class Scraper {
     );
 
     private final ResultHandler resultHandler;
+    private final ResultBatcher resultBatcher;
 
     private final MultiValuedMap<ScrapeJob, ScraperTask> tasks = new ArrayListValuedHashMap<>();
-    private final MultiValuedMap<ScraperTask, ScheduledFuture<?>> futures = new ArrayListValuedHashMap<>();
+    private final MultiValuedMap<ScraperTask, ScheduledCycle> futures = new ArrayListValuedHashMap<>();
     private final PlcDriverManager driverManager;
-    private final List<ScrapeJob> jobs;
+    private List<ScrapeJob> jobs;
+    private PhaseStrategy phaseStrategy = PhaseStrategy.hashed();
+    private CycleScheduler cycleScheduler;
+    private DeadbandConfig deadbandConfig;
+    private ScheduledFuture<?> statisticsFuture;
+    // Between start() and stop(), even if no task is scheduled (e.g. a cluster node without sources).
+    private boolean running;
 
     /**
      * Creates a Scraper instance from a configuration.
@@ -81,54 +99,175 @@ public class Scraper {
      * @param jobs
      */
     public Scraper(ResultHandler resultHandler, PlcDriverManager driverManager, List<ScrapeJob> jobs) {
+        Validate.notNull(resultHandler);
+        Validate.notEmpty(jobs);
         this.resultHandler = resultHandler;
+        this.resultBatcher = null;
+        this.driverManager = driverManager;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Creates a Scraper instance from a configuration that hands the results to the given handler in batches.
+     * By default a {@link PooledPlcDriverManager} is used.
+     * @param config Configuration to use.
+     * @param batchResultHandler handler of the batches.
+     * @param batchConfig bounds of the batches.
+     */
+    public Scraper(ScraperConfiguration config, BatchResultHandler batchResultHandler, BatchConfig batchConfig) {
+        this(batchResultHandler, batchConfig, new PooledPlcDriverManager(), config.getJobs());
+    }
+
+    /**
+     *
+     * @param batchResultHandler
+     * @param batchConfig
+     * @param driverManager
+     * @param jobs
+     */
+    public Scraper(BatchResultHandler batchResultHandler, BatchConfig batchConfig, PlcDriverManager driverManager, List<ScrapeJob> jobs) {
         Validate.notEmpty(jobs);
+        this.resultHandler = null;
+        this.resultBatcher = new ResultBatcher(batchResultHandler, batchConfig);
         this.driverManager = driverManager;
         this.jobs = jobs;
     }
 
+    /**
+     * Sets how the first scrapes of the tasks are staggered within their period, takes effect on the next
+     * {@link #start()}. By default the offsets are derived from a hash of job name and connection alias.
+     * @param phaseStrategy strategy to use, {@link PhaseStrategy#aligned()} starts all tasks at once.
+     */
+    public synchronized void setPhaseStrategy(PhaseStrategy phaseStrategy) {
+        Validate.notNull(phaseStrategy);
+        this.phaseStrategy = phaseStrategy;
+    }
+
+    /**
+     * Enables report by exception: only values that changed by more than their deadband (or were not reported for the
+     * max silence) are handed to the result handler. Takes effect for tasks started afterwards.
+     * @param deadbandConfig the deadbands to use or {@code null} to hand on all values, which is the default.
+     */
+    public synchronized void setDeadband(DeadbandConfig deadbandConfig) {
+        this.deadbandConfig = deadbandConfig;
+    }
+
     /**
      * Start the scraping.
      */
-    public void start() {
+    public synchronized void start() {
         // Schedule all jobs
         LOGGER.info("Starting jobs...");
+        running = true;
+        cycleScheduler = new CycleScheduler(scheduler, phaseStrategy);
+        if (resultBatcher != null) {
+            resultBatcher.start();
+        }
+        tasks.clear();
         jobs.stream()
             .flatMap(job -> job.getConnections().entrySet().stream()
                 .map(entry -> Triple.of(job, entry.getKey(), entry.getValue()))
             )
-            .forEach(
-                tuple -> {
-                    LOGGER.debug("Register task for job {} for conn {} ({}) at rate {} ms",
-                        tuple.getLeft().getName(), tuple.getMiddle(), tuple.getRight(), tuple.getLeft().getScrapeRate());
-                    ScraperTask task = new ScraperTask(driverManager,
-                        tuple.getLeft().getName(), tuple.getMiddle(), tuple.getRight(),
-                        tuple.getLeft().getFields(),
-                        1_000,
-                        handlerPool, resultHandler);
-                    // Add task to internal list
-                    tasks.put(tuple.getLeft(), task);
-                    ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(task,
-                        0, tuple.getLeft().getScrapeRate(), TimeUnit.MILLISECONDS);
-
-                    // Store the handle for stopping, etc.
-                    futures.put(task, future);
-                }
-            );
+            .forEach(tuple -> startTask(tuple.getLeft(), tuple.getMiddle(), tuple.getRight()));
 
         // Add statistics tracker
-        scheduler.scheduleAtFixedRate(() -> {
-            for (Map.Entry<ScrapeJob, ScraperTask> entry : tasks.entries()) {
-                DescriptiveStatistics statistics = entry.getValue().getLatencyStatistics();
-                String msg = String.format(Locale.ENGLISH, "Job statistics (%s, %s) number of requests: %d (%d success, %.1f %% failed, %.1f %% too slow), min latency: %.2f ms, mean latency: %.2f ms, median: %.2f ms",
-                    entry.getValue().getJobName(), entry.getValue().getConnectionAlias(),
-                    entry.getValue().getRequestCounter(), entry.getValue().getSuccessfullRequestCounter(),
-                    entry.getValue().getPercentageFailed(),
-                    statistics.apply(new PercentageAboveThreshold(entry.getKey().getScrapeRate() * 1e6)),
-                    statistics.getMin() * 1e-6, statistics.getMean() * 1e-6, statistics.getPercentile(50) * 1e-6);
-                LOGGER.info(msg);
+        statisticsFuture = scheduler.scheduleAtFixedRate(this::logStatistics, 1_000, 1_000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replaces the scraped jobs, only tasks (one per job and connection) that are new or changed are started and only
+     * tasks that are gone or changed are stopped, all others keep running undisturbed.
+     * @param config Configuration with the new jobs.
+     * @return the changes applied.
+     */
+    public ScrapeJobDiff reconfigure(ScraperConfiguration config) {
+        return reconfigure(config.getJobs());
+    }
+
+    /**
+     * Replaces the scraped jobs, see {@link #reconfigure(ScraperConfiguration)}. If the scraper is not running the new
+     * jobs are started by the next {@link #start()}.
+     * @param newJobs the jobs to scrape from now on, may be empty to stop all tasks but keep the scraper running.
+     * @return the changes applied.
+     */
+    public synchronized ScrapeJobDiff reconfigure(List<ScrapeJob> newJobs) {
+        Validate.notNull(newJobs);
+        ScrapeJobDiff diff = ScrapeJobDiff.between(jobs, newJobs);
+        jobs = newJobs;
+        if (!running) {
+            return diff;
+        }
+        LOGGER.info("Reconfiguring jobs: {}", diff);
+        Map<Pair<String, String>, ScraperTask> runningTasks = new HashMap<>();
+        for (ScraperTask task : futures.keySet()) {
+            runningTasks.put(Pair.of(task.getJobName(), task.getConnectionAlias()), task);
+        }
+        for (Pair<String, String> key : diff.getRemoved()) {
+            stopTask(runningTasks.get(key));
+        }
+        for (Pair<String, String> key : diff.getChanged()) {
+            stopTask(runningTasks.get(key));
+        }
+        tasks.clear();
+        for (ScrapeJob job : newJobs) {
+            for (Map.Entry<String, String> connection : job.getConnections().entrySet()) {
+                Pair<String, String> key = Pair.of(job.getName(), connection.getKey());
+                if (diff.getUnchanged().contains(key)) {
+                    // Keep the running task, only the job it is listed under is the new one.
+                    tasks.put(job, runningTasks.get(key));
+                } else {
+                    startTask(job, connection.getKey(), connection.getValue());
+                }
             }
-        }, 1_000, 1_000, TimeUnit.MILLISECONDS);
+        }
+        return diff;
+    }
+
+    // Must be called while synchronized.
+    private void startTask(ScrapeJob job, String alias, String connectionString) {
+        LOGGER.debug("Register task for job {} for conn {} ({}) at rate {} ms",
+            job.getName(), alias, connectionString, job.getScrapeRate());
+        ScraperTask task = resultBatcher != null
+            ? new ScraperTask(driverManager,
+                job.getName(), alias, connectionString,
+                job.getFields(),
+                1_000,
+                handlerPool, resultBatcher)
+            : new ScraperTask(driverManager,
+                job.getName(), alias, connectionString,
+                job.getFields(),
+                1_000,
+                handlerPool, resultHandler);
+        task.setDeadband(deadbandConfig);
+        // Add task to internal list
+        tasks.put(job, task);
+        ScheduledCycle future = cycleScheduler.schedule(task, job.getName(), alias, job.getScrapeRate());
+
+        // Store the handle for stopping, etc.
+        futures.put(task, future);
+    }
+
+    // Must be called while synchronized.
+    private void stopTask(ScraperTask task) {
+        LOGGER.debug("Stopping task {}...", task);
+        for (ScheduledCycle future : futures.remove(task)) {
+            future.cancel(true);
+        }
+    }
+
+    private synchronized void logStatistics() {
+        for (Map.Entry<ScrapeJob, ScraperTask> entry : tasks.entries()) {
+            DescriptiveStatistics statistics = entry.getValue().getLatencyStatistics();
+            long missedCycles = futures.get(entry.getValue()).stream().mapToLong(ScheduledCycle::getMissedCycles).sum();
+            String msg = String.format(Locale.ENGLISH, "Job statistics (%s, %s) number of requests: %d (%d success, %.1f %% failed, %.1f %% too slow, %d missed cycles), min latency: %.2f ms, mean latency: %.2f ms, median: %.2f ms",
+                entry.getValue().getJobName(), entry.getValue().getConnectionAlias(),
+                entry.getValue().getRequestCounter(), entry.getValue().getSuccessfullRequestCounter(),
+                entry.getValue().getPercentageFailed(),
+                statistics.apply(new PercentageAboveThreshold(entry.getKey().getScrapeRate() * 1e6)),
+                missedCycles,
+                statistics.getMin() * 1e-6, statistics.getMean() * 1e-6, statistics.getPercentile(50) * 1e-6);
+            LOGGER.info(msg);
+        }
     }
 
     /**
@@ -138,19 +277,61 @@ public class Scraper {
         return scheduler;
     }
 
-    public int getNumberOfActiveTasks() {
-        return (int) futures.entries().stream().filter(entry -> !entry.getValue().isDone()).count();
+    /**
+     * For testing.
+     */
+    synchronized Set<ScraperTask> getRunningTasks() {
+        return new HashSet<>(futures.keySet());
+    }
+
+    public synchronized int getNumberOfActiveTasks() {
+        return (int) futures.entries().stream().filter(entry -> !entry.getValue().isCancelled()).count();
     }
 
-    public void stop() {
+    /**
+     * @return number of scrapes skipped since the start because the scrape before was still running when they were due.
+     */
+    public synchronized long getMissedCycles() {
+        return futures.values().stream().mapToLong(ScheduledCycle::getMissedCycles).sum();
+    }
+
+    /**
+     * @return the jobs scraped, as passed to the constructor or the last {@link #reconfigure(List)}.
+     */
+    public synchronized List<ScrapeJob> getJobs() {
+        return jobs;
+    }
+
+    public synchronized void stop() {
         // Stop all futures
         LOGGER.info("Stopping scraper...");
-        for (Map.Entry<ScraperTask, ScheduledFuture<?>> entry : futures.entries()) {
+        running = false;
+        for (Map.Entry<ScraperTask, ScheduledCycle> entry : futures.entries()) {
             LOGGER.debug("Stopping task {}...", entry.getKey());
             entry.getValue().cancel(true);
         }
         // Clear the map
         futures.clear();
+        if (statisticsFuture != null) {
+            statisticsFuture.cancel(false);
+            statisticsFuture = null;
+        }
+        // Deliver the pending batches
+        if (resultBatcher != null) {
+            try {
+                resultBatcher.close();
+            } catch (InterruptedException e) {
+                LOGGER.warn("Interrupted while delivering the last batches");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the batcher collecting the results or {@code null} if results are handed to a {@link ResultHandler}.
+     */
+    public ResultBatcher getResultBatcher() {
+        return resultBatcher;
     }
 
 }
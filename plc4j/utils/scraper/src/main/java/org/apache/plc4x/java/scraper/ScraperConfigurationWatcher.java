@@ -0,0 +1,192 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.plc4x.java.scraper.config.ScraperConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches a json or yaml configuration file and {@link Scraper#reconfigure(ScraperConfiguration) reconfigures} a
+ * {@link Scraper} whenever it changes.
+ * <p>
+ * Changes are applied once the file was quiet for a short period, so a file written in several steps is read only
+ * once. A file that can't be read or parsed is logged and ignored, the scraper keeps its current jobs.
+ */
+public class ScraperConfigurationWatcher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScraperConfigurationWatcher.class);
+
+    private final Scraper scraper;
+    private final Path configFile;
+    private final Duration quietPeriod;
+
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public ScraperConfigurationWatcher(Scraper scraper, Path configFile) {
+        this(scraper, configFile, Duration.ofMillis(500));
+    }
+
+    /**
+     * @param scraper     scraper to reconfigure.
+     * @param configFile  json or yaml file to watch.
+     * @param quietPeriod time without further changes before the file is read.
+     */
+    public ScraperConfigurationWatcher(Scraper scraper, Path configFile, Duration quietPeriod) {
+        Validate.notNull(scraper);
+        Validate.notNull(configFile);
+        Validate.notNull(quietPeriod);
+        this.scraper = scraper;
+        this.configFile = configFile.toAbsolutePath();
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Starts watching the file, changes made before are not picked up.
+     * @throws IOException if the directory of the file can't be watched.
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("Already started");
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        // Editors often replace the file instead of writing it, so creations count as well.
+        configFile.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService currentWatchService = watchService;
+        watchThread = new BasicThreadFactory.Builder()
+            .namingPattern("config-watcher-thread-%d")
+            .daemon(true)
+            .build()
+            .newThread(() -> watch(currentWatchService));
+        watchThread.start();
+        LOGGER.info("Watching {} for changes", configFile);
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                awaitChange(watchService, Long.MAX_VALUE);
+                // Wait until the file stays unchanged for the quiet period.
+                while (awaitChange(watchService, quietPeriod.toNanos())) {
+                    LOGGER.trace("{} still changing", configFile);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching {}", configFile);
+        } catch (InterruptedException e) {
+            LOGGER.debug("Interrupted, stopped watching {}", configFile);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for a change of the config file, changes of other files in the directory are skipped and don't cut the
+     * wait short.
+     * @param timeoutNanos time to wait, {@link Long#MAX_VALUE} to wait without a timeout.
+     * @return {@code true} if the config file changed within the given time.
+     */
+    private boolean awaitChange(WatchService watchService, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            WatchKey key;
+            if (timeoutNanos == Long.MAX_VALUE) {
+                key = watchService.take();
+            } else {
+                long remaining = deadline - System.nanoTime();
+                key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (key == null) {
+                    return false;
+                }
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || configFile.getFileName().equals(event.context())) {
+                    changed = true;
+                }
+            }
+            key.reset();
+            if (changed) {
+                return true;
+            }
+            LOGGER.trace("Skipped changes of other files next to {}", configFile);
+        }
+    }
+
+    /**
+     * Reads the config file and reconfigures the scraper with it.
+     * @return {@code true} if the file was read and applied.
+     */
+    public boolean reload() {
+        try {
+            ScraperConfiguration configuration = ScraperConfiguration.fromFile(configFile.toString());
+            ScrapeJobDiff diff = scraper.reconfigure(configuration);
+            reloads.incrementAndGet();
+            LOGGER.info("Reloaded {}: {}", configFile, diff);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failedReloads.incrementAndGet();
+            LOGGER.warn("Unable to reload {}, keeping the current configuration", configFile, e);
+            return false;
+        }
+    }
+
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    public long getFailedReloads() {
+        return failedReloads.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService == null) {
+            return;
+        }
+        watchService.close();
+        watchService = null;
+        try {
+            watchThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watchThread = null;
+    }
+}
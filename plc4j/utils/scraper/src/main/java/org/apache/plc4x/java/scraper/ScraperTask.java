@@ -29,9 +29,13 @@ import org.apache.plc4x.java.api.exceptions.PlcRuntimeException;
 import org.apache.plc4x.java.api.messages.PlcReadRequest;
 import org.apache.plc4x.java.api.messages.PlcReadResponse;
 import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.scraper.batch.ResultBatcher;
+import org.apache.plc4x.java.scraper.deadband.DeadbandConfig;
+import org.apache.plc4x.java.scraper.deadband.DeadbandFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -58,6 +62,9 @@ public class ScraperTask implements Runnable {
     private final long requestTimeoutMs;
     private final ExecutorService handlerService;
     private final ResultHandler resultHandler;
+    private final ResultBatcher resultBatcher;
+    private final int sourceId;
+    private volatile DeadbandFilter deadbandFilter;
 
     private final AtomicLong requestCounter = new AtomicLong(0);
     private final AtomicLong successCounter = new AtomicLong(0);
@@ -66,13 +73,28 @@ public class ScraperTask implements Runnable {
 
     public ScraperTask(PlcDriverManager driverManager, String jobName, String connectionAlias, String connectionString,
                        Map<String, String> fields, long requestTimeoutMs, ExecutorService handlerService, ResultHandler resultHandler) {
+        this(driverManager, jobName, connectionAlias, connectionString, fields, requestTimeoutMs, handlerService, resultHandler, null);
+    }
+
+    /**
+     * Creates a task that appends its results to the given batcher instead of calling a {@link ResultHandler} per
+     * scrape. Appending happens on the scraping thread, so a handler falling behind slows down scraping.
+     */
+    public ScraperTask(PlcDriverManager driverManager, String jobName, String connectionAlias, String connectionString,
+                       Map<String, String> fields, long requestTimeoutMs, ExecutorService handlerService, ResultBatcher resultBatcher) {
+        this(driverManager, jobName, connectionAlias, connectionString, fields, requestTimeoutMs, handlerService, null, resultBatcher);
+    }
+
+    private ScraperTask(PlcDriverManager driverManager, String jobName, String connectionAlias, String connectionString,
+                        Map<String, String> fields, long requestTimeoutMs, ExecutorService handlerService,
+                        ResultHandler resultHandler, ResultBatcher resultBatcher) {
         Validate.notNull(driverManager);
         Validate.notBlank(jobName);
         Validate.notBlank(connectionAlias);
         Validate.notBlank(connectionString);
         Validate.notEmpty(fields);
         Validate.isTrue(requestTimeoutMs > 0);
-        Validate.notNull(resultHandler);
+        Validate.isTrue(resultHandler != null || resultBatcher != null);
         this.driverManager = driverManager;
         this.jobName = jobName;
         this.connectionAlias = connectionAlias;
@@ -81,6 +103,8 @@ public class ScraperTask implements Runnable {
         this.requestTimeoutMs = requestTimeoutMs;
         this.handlerService = handlerService;
         this.resultHandler = resultHandler;
+        this.resultBatcher = resultBatcher;
+        this.sourceId = resultBatcher != null ? resultBatcher.registerSource(jobName, connectionAlias) : -1;
     }
 
     @Override
@@ -124,8 +148,37 @@ public class ScraperTask implements Runnable {
             successCounter.incrementAndGet();
             // Validate response
             validateResponse(response);
-            // Handle response (Async)
-            CompletableFuture.runAsync(() -> resultHandler.handle(jobName, connectionAlias, transformResponseToMap(response)), handlerService);
+            long timestamp = System.currentTimeMillis();
+            // Report by exception
+            boolean[] selected = null;
+            int numberOfValues = response.getFieldNames().size();
+            DeadbandFilter filter = deadbandFilter;
+            if (filter != null) {
+                selected = new boolean[numberOfValues];
+                numberOfValues = filter.select(response, timestamp, selected);
+                if (numberOfValues == 0) {
+                    LOGGER.trace("No changed values in scrape of job {} for connection {}", jobName, connectionAlias);
+                    return;
+                }
+            }
+            if (resultBatcher != null) {
+                // Handle response (batched)
+                if (!resultBatcher.append(sourceId, timestamp, response, selected, numberOfValues)) {
+                    // Not committed, the dropped changes are selected again by the next scrape
+                    LOGGER.debug("Dropped results of job {} for connection {}, result handler falls behind", jobName, connectionAlias);
+                    return;
+                }
+                if (filter != null) {
+                    filter.commit(response, timestamp, selected);
+                }
+            } else {
+                // Handle response (Async)
+                if (filter != null) {
+                    filter.commit(response, timestamp, selected);
+                }
+                boolean[] selectedValues = selected;
+                CompletableFuture.runAsync(() -> resultHandler.handle(jobName, connectionAlias, transformResponseToMap(response, selectedValues)), handlerService);
+            }
         } catch (Exception e) {
             LOGGER.debug("Exception during scrape", e);
             handleException(e);
@@ -152,12 +205,37 @@ public class ScraperTask implements Runnable {
         }
     }
 
-    private Map<String, Object> transformResponseToMap(PlcReadResponse response) {
-        return response.getFieldNames().stream()
-            .collect(Collectors.toMap(
-                name -> name,
-                response::getObject
-            ));
+    private Map<String, Object> transformResponseToMap(PlcReadResponse response, boolean[] selected) {
+        if (selected == null) {
+            return response.getFieldNames().stream()
+                .collect(Collectors.toMap(
+                    name -> name,
+                    response::getObject
+                ));
+        }
+        Map<String, Object> result = new HashMap<>();
+        int fieldIndex = 0;
+        for (String name : response.getFieldNames()) {
+            if (selected[fieldIndex]) {
+                result.put(name, response.getObject(fieldIndex));
+            }
+            fieldIndex++;
+        }
+        return result;
+    }
+
+    /**
+     * Only hands values on that changed according to the given config, {@code null} hands on all values.
+     */
+    public void setDeadband(DeadbandConfig deadbandConfig) {
+        this.deadbandFilter = deadbandConfig != null ? new DeadbandFilter(deadbandConfig) : null;
+    }
+
+    /**
+     * @return the filter of unchanged values or {@code null} if all values are handed on.
+     */
+    public DeadbandFilter getDeadbandFilter() {
+        return deadbandFilter;
     }
 
     public String getJobName() {
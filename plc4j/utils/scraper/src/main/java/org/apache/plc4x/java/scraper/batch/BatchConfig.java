@@ -0,0 +1,134 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.batch;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Bounds of the micro-batches a {@link ResultBatcher} delivers.
+ * <p>
+ * A batch is handed to the {@link BatchResultHandler} once it holds {@link #getBatchSize()} rows or its first row is
+ * older than {@link #getMaxDelay()}, whatever comes first. If all {@link #getBuffers()} batches are waiting for the
+ * handler, scrapes block for at most {@link #getBlockTimeout()} and then drop their rows.
+ */
+public class BatchConfig {
+
+    private final int batchSize;
+
+    private final Duration maxDelay;
+
+    private final int buffers;
+
+    private final Duration blockTimeout;
+
+    private BatchConfig(int batchSize, Duration maxDelay, int buffers, Duration blockTimeout) {
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.buffers = buffers;
+        this.blockTimeout = blockTimeout;
+    }
+
+    public static BatchConfigBuilder builder() {
+        return new BatchConfigBuilder();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public int getBuffers() {
+        return buffers;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConfig{" +
+            "batchSize=" + batchSize +
+            ", maxDelay=" + maxDelay +
+            ", buffers=" + buffers +
+            ", blockTimeout=" + blockTimeout +
+            '}';
+    }
+
+    public static class BatchConfigBuilder {
+        private int batchSize = 1024;
+        private Duration maxDelay = Duration.ofMillis(100);
+        private int buffers = 4;
+        private Duration blockTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of rows (one per field and scrape) of a batch.
+         */
+        public BatchConfigBuilder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be at least 1");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time a row waits in a batch that is not full yet.
+         */
+        public BatchConfigBuilder maxDelay(Duration maxDelay) {
+            Objects.requireNonNull(maxDelay);
+            if (maxDelay.isNegative()) {
+                throw new IllegalArgumentException("maxDelay must not be negative");
+            }
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Number of preallocated batches, one is filled while the others wait for or are processed by the handler.
+         */
+        public BatchConfigBuilder buffers(int buffers) {
+            if (buffers < 2) {
+                throw new IllegalArgumentException("buffers must be at least 2");
+            }
+            this.buffers = buffers;
+            return this;
+        }
+
+        /**
+         * Maximum time a scrape waits for a free batch before its rows are dropped.
+         */
+        public BatchConfigBuilder blockTimeout(Duration blockTimeout) {
+            Objects.requireNonNull(blockTimeout);
+            if (blockTimeout.isNegative()) {
+                throw new IllegalArgumentException("blockTimeout must not be negative");
+            }
+            this.blockTimeout = blockTimeout;
+            return this;
+        }
+
+        public BatchConfig build() {
+            return new BatchConfig(batchSize, maxDelay, buffers, blockTimeout);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.batch;
+
+/**
+ * Callback interface to handle the results of many scrapes at once, see {@link ResultBatcher}.
+ */
+@FunctionalInterface
+public interface BatchResultHandler {
+
+    /**
+     * Callback handler, called by a single thread one batch after the other.
+     * <p>
+     * The batch is reused as soon as this method returns, so it must not be kept beyond the call.
+     *
+     * @param batch the rows collected since the last call.
+     */
+    void handle(ResultBatch batch);
+
+}
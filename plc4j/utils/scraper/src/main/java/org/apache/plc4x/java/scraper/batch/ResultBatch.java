@@ -0,0 +1,269 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.batch;
+
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+
+import java.util.Arrays;
+
+/**
+ * Results of many scrapes stored column by column, one row per field and scrape.
+ * <p>
+ * All columns are allocated once with the capacity of the batch and reused for every batch delivered, numeric and
+ * boolean values are stored unboxed in the value column matching their {@link ValueType}. Sources (job and
+ * connection alias) and field names are stored as ids, which {@link #getJobName(int)}, {@link #getAlias(int)} and
+ * {@link #getFieldName(int)} resolve.
+ */
+public class ResultBatch {
+
+    /**
+     * Column a row stores its value in.
+     */
+    public enum ValueType {
+        /**
+         * The row has no value, e.g. because its response code is not {@link PlcResponseCode#OK}.
+         */
+        NONE,
+        /**
+         * Stored in the long column as {@code 0} or {@code 1}.
+         */
+        BOOLEAN,
+        /**
+         * Integral values up to 64 bit, stored in the long column.
+         */
+        LONG,
+        /**
+         * Floating point values, stored in the double column.
+         */
+        DOUBLE,
+        /**
+         * Everything else, stored as is in the object column.
+         */
+        OBJECT
+    }
+
+    private final ResultBatcher batcher;
+
+    private final long[] timestamps;
+
+    private final int[] sources;
+
+    private final int[] fields;
+
+    private final PlcResponseCode[] responseCodes;
+
+    private final ValueType[] types;
+
+    private final long[] longValues;
+
+    private final double[] doubleValues;
+
+    private final Object[] objectValues;
+
+    private int size;
+
+    // Time the first row was added, only used by the batcher.
+    private long firstRowNanos;
+
+    ResultBatch(ResultBatcher batcher, int capacity) {
+        this.batcher = batcher;
+        this.timestamps = new long[capacity];
+        this.sources = new int[capacity];
+        this.fields = new int[capacity];
+        this.responseCodes = new PlcResponseCode[capacity];
+        this.types = new ValueType[capacity];
+        this.longValues = new long[capacity];
+        this.doubleValues = new double[capacity];
+        this.objectValues = new Object[capacity];
+    }
+
+    /**
+     * @return number of rows in this batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return timestamps.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == timestamps.length;
+    }
+
+    /**
+     * @return time the value of the given row was received in milliseconds since the epoch.
+     */
+    public long getTimestamp(int row) {
+        return timestamps[checkRow(row)];
+    }
+
+    /**
+     * @return id of the source of the given row, see {@link ResultBatcher#registerSource(String, String)}.
+     */
+    public int getSourceId(int row) {
+        return sources[checkRow(row)];
+    }
+
+    public String getJobName(int row) {
+        return batcher.getJobName(getSourceId(row));
+    }
+
+    /**
+     * @return alias of the connection (<b>not</b> connection String) of the given row.
+     */
+    public String getAlias(int row) {
+        return batcher.getAlias(getSourceId(row));
+    }
+
+    /**
+     * @return id of the field of the given row, see {@link ResultBatcher#getFieldId(String)}.
+     */
+    public int getFieldId(int row) {
+        return fields[checkRow(row)];
+    }
+
+    public String getFieldName(int row) {
+        return batcher.getFieldName(getFieldId(row));
+    }
+
+    public PlcResponseCode getResponseCode(int row) {
+        return responseCodes[checkRow(row)];
+    }
+
+    public ValueType getType(int row) {
+        return types[checkRow(row)];
+    }
+
+    /**
+     * @return the value of a {@link ValueType#BOOLEAN} row.
+     */
+    public boolean getBoolean(int row) {
+        checkType(row, ValueType.BOOLEAN);
+        return longValues[row] != 0;
+    }
+
+    /**
+     * @return the value of a {@link ValueType#LONG} or {@link ValueType#BOOLEAN} row.
+     */
+    public long getLong(int row) {
+        checkType(row, ValueType.LONG, ValueType.BOOLEAN);
+        return longValues[row];
+    }
+
+    /**
+     * @return the value of a {@link ValueType#DOUBLE} or {@link ValueType#LONG} row.
+     */
+    public double getDouble(int row) {
+        if (checkType(row, ValueType.DOUBLE, ValueType.LONG) == ValueType.LONG) {
+            return longValues[row];
+        }
+        return doubleValues[row];
+    }
+
+    /**
+     * @return the value of the given row, boxed if necessary, {@code null} for {@link ValueType#NONE} rows.
+     */
+    public Object getObject(int row) {
+        switch (getType(row)) {
+            case BOOLEAN:
+                return longValues[row] != 0;
+            case LONG:
+                return longValues[row];
+            case DOUBLE:
+                return doubleValues[row];
+            case OBJECT:
+                return objectValues[row];
+            default:
+                return null;
+        }
+    }
+
+    boolean add(long timestamp, int source, int field, PlcResponseCode responseCode, Object value) {
+        if (isFull()) {
+            return false;
+        }
+        int row = size;
+        timestamps[row] = timestamp;
+        sources[row] = source;
+        fields[row] = field;
+        responseCodes[row] = responseCode;
+        if (value == null) {
+            types[row] = ValueType.NONE;
+        } else if (value instanceof Boolean) {
+            types[row] = ValueType.BOOLEAN;
+            longValues[row] = (Boolean) value ? 1 : 0;
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            types[row] = ValueType.LONG;
+            longValues[row] = ((Number) value).longValue();
+        } else if (value instanceof Double || value instanceof Float) {
+            types[row] = ValueType.DOUBLE;
+            doubleValues[row] = ((Number) value).doubleValue();
+        } else {
+            types[row] = ValueType.OBJECT;
+            objectValues[row] = value;
+        }
+        size++;
+        return true;
+    }
+
+    void clear() {
+        // Only the object column holds references worth releasing.
+        Arrays.fill(objectValues, 0, size, null);
+        size = 0;
+    }
+
+    long getFirstRowNanos() {
+        return firstRowNanos;
+    }
+
+    void setFirstRowNanos(long firstRowNanos) {
+        this.firstRowNanos = firstRowNanos;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " not in batch of size " + size);
+        }
+        return row;
+    }
+
+    private ValueType checkType(int row, ValueType... expected) {
+        ValueType type = getType(row);
+        for (ValueType valueType : expected) {
+            if (type == valueType) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("Row " + row + " is of type " + type + ", expected one of " + Arrays.toString(expected));
+    }
+
+    @Override
+    public String toString() {
+        return "ResultBatch{" +
+            "size=" + size +
+            ", capacity=" + timestamps.length +
+            '}';
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.batch;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects the results of many scrapes into {@link ResultBatch}es and hands them to a {@link BatchResultHandler}.
+ * <p>
+ * Scrapes append their rows to the batch currently filled, which is handed to the handler once it is full or its
+ * first row is older than {@link BatchConfig#getMaxDelay()}. Only {@link BatchConfig#getBuffers()} batches exist, so
+ * if the handler falls behind, scrapes wait for room for all their rows for up to
+ * {@link BatchConfig#getBlockTimeout()} and then drop them, see {@link #getDroppedRows()}. The rows of a scrape are
+ * appended either all or none, a scrape with more rows than all batches together hold is always dropped.
+ * <p>
+ * The handler is called by a single thread, one batch after the other, in the order the batches were filled.
+ */
+public class ResultBatcher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultBatcher.class);
+
+    private final BatchResultHandler handler;
+
+    private final BatchConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition hasFree = lock.newCondition();
+
+    private final Condition hasReady = lock.newCondition();
+
+    // Guarded by lock.
+    private final ArrayDeque<ResultBatch> free = new ArrayDeque<>();
+
+    // Guarded by lock.
+    private final ArrayDeque<ResultBatch> ready = new ArrayDeque<>();
+
+    // Guarded by lock.
+    private ResultBatch current;
+
+    // Guarded by lock.
+    private boolean closed;
+
+    private Thread deliveryThread;
+
+    private final Map<Pair<String, String>, Integer> sourceIds = new ConcurrentHashMap<>();
+
+    private final List<Pair<String, String>> sources = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Integer> fieldIds = new ConcurrentHashMap<>();
+
+    private final List<String> fieldNames = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong deliveredBatches = new AtomicLong();
+
+    private final AtomicLong deliveredRows = new AtomicLong();
+
+    private final AtomicLong droppedRows = new AtomicLong();
+
+    public ResultBatcher(BatchResultHandler handler, BatchConfig config) {
+        Validate.notNull(handler);
+        Validate.notNull(config);
+        this.handler = handler;
+        this.config = config;
+        for (int i = 0; i < config.getBuffers(); i++) {
+            free.add(new ResultBatch(this, config.getBatchSize()));
+        }
+    }
+
+    /**
+     * Starts the thread calling the handler, a closed batcher can be started again.
+     */
+    public synchronized void start() {
+        if (deliveryThread != null && deliveryThread.isAlive()) {
+            throw new IllegalStateException("Already started");
+        }
+        lock.lock();
+        try {
+            closed = false;
+        } finally {
+            lock.unlock();
+        }
+        deliveryThread = new BasicThreadFactory.Builder()
+            .namingPattern("batch-handler-thread-%d")
+            .daemon(true)
+            .build()
+            .newThread(this::deliver);
+        deliveryThread.start();
+    }
+
+    /**
+     * Hands all rows collected so far to the handler and stops the thread calling it. Rows appended afterwards are
+     * dropped.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            hasReady.signalAll();
+            hasFree.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        Thread thread;
+        synchronized (this) {
+            thread = deliveryThread;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Registers a source, registering the same job and alias again returns the same id.
+     *
+     * @return id of the source to pass to {@link #append(int, long, PlcReadResponse)}.
+     */
+    public int registerSource(String jobName, String alias) {
+        Pair<String, String> source = Pair.of(jobName, alias);
+        Integer id = sourceIds.get(source);
+        if (id != null) {
+            return id;
+        }
+        synchronized (sources) {
+            return sourceIds.computeIfAbsent(source, key -> {
+                sources.add(key);
+                return sources.size() - 1;
+            });
+        }
+    }
+
+    public String getJobName(int sourceId) {
+        return sources.get(sourceId).getLeft();
+    }
+
+    public String getAlias(int sourceId) {
+        return sources.get(sourceId).getRight();
+    }
+
+    /**
+     * @return the id of the given field name, which gets registered if it is new.
+     */
+    public int getFieldId(String fieldName) {
+        Integer id = fieldIds.get(fieldName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (fieldNames) {
+            return fieldIds.computeIfAbsent(fieldName, key -> {
+                fieldNames.add(key);
+                return fieldNames.size() - 1;
+            });
+        }
+    }
+
+    public String getFieldName(int fieldId) {
+        return fieldNames.get(fieldId);
+    }
+
+    /**
+     * Appends one row per field of the response, blocking while no batch is free.
+     *
+     * @param sourceId  id returned by {@link #registerSource(String, String)}.
+     * @param timestamp time the response was received in milliseconds since the epoch.
+     * @param response  the response to append.
+     * @return {@code false} if the rows were dropped because not enough batches got free within the block timeout or
+     * this batcher is closed, none of the rows were appended then.
+     */
+    public boolean append(int sourceId, long timestamp, PlcReadResponse response) {
+        return append(sourceId, timestamp, response, null, response.getFieldNames().size());
+    }
+
+    /**
+     * Appends one row per selected field of the response, see {@link #append(int, long, PlcReadResponse)}.
+     *
+     * @param selected     {@code true} at the position of every field to append or {@code null} to append all.
+     * @param numberOfRows number of selected fields.
+     */
+    public boolean append(int sourceId, long timestamp, PlcReadResponse response, boolean[] selected, int numberOfRows) {
+        // Resolve (and possibly decode) all values before taking the lock, so concurrent scrapes only contend for the copy.
+        int[] fields = new int[numberOfRows];
+        PlcResponseCode[] responseCodes = new PlcResponseCode[numberOfRows];
+        Object[] values = new Object[numberOfRows];
+        int fieldIndex = 0;
+        int selectedRow = 0;
+        for (String fieldName : response.getFieldNames()) {
+            if (selected == null || selected[fieldIndex]) {
+                fields[selectedRow] = getFieldId(fieldName);
+                responseCodes[selectedRow] = response.getResponseCode(fieldIndex);
+                values[selectedRow] = responseCodes[selectedRow] == PlcResponseCode.OK ? response.getObject(fieldIndex) : null;
+                selectedRow++;
+            }
+            fieldIndex++;
+        }
+
+        long deadline = System.nanoTime() + config.getBlockTimeout().toNanos();
+        lock.lock();
+        try {
+            if (!awaitCapacity(numberOfRows, deadline)) {
+                droppedRows.addAndGet(numberOfRows);
+                return false;
+            }
+            for (int row = 0; row < numberOfRows; row++) {
+                if (current == null) {
+                    // Can't be empty, awaitCapacity made sure there are enough free batches.
+                    current = free.poll();
+                    current.setFirstRowNanos(System.nanoTime());
+                    // Lets the delivery thread start the timer of the new batch.
+                    hasReady.signal();
+                }
+                current.add(timestamp, sourceId, fields[row], responseCodes[row], values[row]);
+                if (current.isFull()) {
+                    seal();
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called with the lock held.
+    private boolean awaitCapacity(int numberOfRows, long deadline) throws InterruptedException {
+        if (numberOfRows > config.getBuffers() * config.getBatchSize()) {
+            LOGGER.warn("Dropping {} rows, all batches together only hold {}", numberOfRows,
+                config.getBuffers() * config.getBatchSize());
+            return false;
+        }
+        while (!closed) {
+            int capacity = free.size() * config.getBatchSize();
+            if (current != null) {
+                capacity += current.getCapacity() - current.size();
+            }
+            if (capacity >= numberOfRows) {
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            hasFree.awaitNanos(remaining);
+        }
+        return false;
+    }
+
+    // Must be called with the lock held.
+    private void seal() {
+        ready.add(current);
+        current = null;
+        hasReady.signal();
+    }
+
+    private void deliver() {
+        long maxDelayNanos = config.getMaxDelay().toNanos();
+        while (true) {
+            ResultBatch batch;
+            lock.lock();
+            try {
+                while (ready.isEmpty()) {
+                    if (current != null) {
+                        long remaining = current.getFirstRowNanos() + maxDelayNanos - System.nanoTime();
+                        if (remaining <= 0 || closed) {
+                            seal();
+                        } else {
+                            hasReady.awaitNanos(remaining);
+                        }
+                    } else if (closed) {
+                        return;
+                    } else {
+                        hasReady.await();
+                    }
+                }
+                batch = ready.poll();
+            } catch (InterruptedException e) {
+                LOGGER.debug("Interrupted, stopping delivery of batches");
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                handler.handle(batch);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Exception while handling batch {}", batch, e);
+            }
+            deliveredBatches.incrementAndGet();
+            deliveredRows.addAndGet(batch.size());
+
+            lock.lock();
+            try {
+                batch.clear();
+                free.add(batch);
+                hasFree.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public BatchConfig getConfig() {
+        return config;
+    }
+
+    public long getDeliveredBatches() {
+        return deliveredBatches.get();
+    }
+
+    public long getDeliveredRows() {
+        return deliveredRows.get();
+    }
+
+    /**
+     * @return number of rows dropped because the handler fell behind or this batcher was already closed.
+     */
+    public long getDroppedRows() {
+        return droppedRows.get();
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.plc4x.java.scraper.ScrapeJob;
+import org.apache.plc4x.java.scraper.ScrapeJobDiff;
+import org.apache.plc4x.java.scraper.Scraper;
+import org.apache.plc4x.java.scraper.config.ScraperConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Runs the share of one node of a cluster of scrapers that all use the same jobs.
+ * <p>
+ * The sources (connection aliases) of the jobs are split between the members of the cluster by a
+ * {@link ConsistentHashRing}, every node only scrapes the sources it owns, for all jobs using them. This way a PLC is
+ * only connected to by a single node and a node only holds connections to its own PLCs. When the members change the
+ * shard is recomputed and applied by {@link Scraper#reconfigure(List)}, so only the sources that moved are stopped on
+ * their old node and started on their new one.
+ */
+public class ClusteredScraper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusteredScraper.class);
+
+    private final String nodeId;
+    private final Scraper scraper;
+    private final MembershipProvider membershipProvider;
+    private final int virtualNodes;
+    private final Consumer<Set<String>> membershipListener = members -> rebalance();
+
+    private List<ScrapeJob> jobs;
+    private ConsistentHashRing ring;
+    private boolean started;
+
+    /**
+     * @param nodeId             name of this node within the members.
+     * @param config             jobs of the whole cluster.
+     * @param scraper            the scraper of this node, its own jobs get replaced by the shard of this node.
+     * @param membershipProvider provides the members of the cluster.
+     */
+    public ClusteredScraper(String nodeId, ScraperConfiguration config, Scraper scraper, MembershipProvider membershipProvider) {
+        this(nodeId, config.getJobs(), scraper, membershipProvider, ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ClusteredScraper(String nodeId, List<ScrapeJob> jobs, Scraper scraper, MembershipProvider membershipProvider, int virtualNodes) {
+        Validate.notBlank(nodeId);
+        Validate.notNull(jobs);
+        Validate.notNull(scraper);
+        Validate.notNull(membershipProvider);
+        this.nodeId = nodeId;
+        this.jobs = jobs;
+        this.scraper = scraper;
+        this.membershipProvider = membershipProvider;
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Computes the shard of this node and starts scraping it, from now on membership changes are followed.
+     */
+    public synchronized void start() {
+        membershipProvider.addListener(membershipListener);
+        rebalance();
+        scraper.start();
+        started = true;
+    }
+
+    public synchronized void stop() {
+        membershipProvider.removeListener(membershipListener);
+        scraper.stop();
+        started = false;
+    }
+
+    /**
+     * Replaces the jobs of the whole cluster, this node applies its share of them.
+     * @return the changes applied to this node.
+     */
+    public synchronized ScrapeJobDiff reconfigure(ScraperConfiguration config) {
+        jobs = config.getJobs();
+        return rebalance();
+    }
+
+    /**
+     * Recomputes the shard of this node from the current members and applies it.
+     * @return the changes applied to this node.
+     */
+    public synchronized ScrapeJobDiff rebalance() {
+        Set<String> members = membershipProvider.getMembers();
+        if (ring == null || !ring.getMembers().equals(new TreeSet<>(members))) {
+            ring = new ConsistentHashRing(members, virtualNodes);
+        }
+        if (!ring.getMembers().contains(nodeId)) {
+            LOGGER.warn("Node {} is not one of the members {}, scraping nothing", nodeId, ring.getMembers());
+        }
+        List<ScrapeJob> shard = shard(jobs, ring, nodeId);
+        ScrapeJobDiff diff = scraper.reconfigure(shard);
+        LOGGER.info("Node {} of {} {} scrapes sources {}: {}", nodeId, ring.getMembers(), started ? "now" : "will",
+            getOwnedSources(), diff);
+        return diff;
+    }
+
+    /**
+     * @return the given jobs reduced to the sources the given node owns, jobs without such sources are left out.
+     */
+    static List<ScrapeJob> shard(List<ScrapeJob> jobs, ConsistentHashRing ring, String nodeId) {
+        List<ScrapeJob> shard = new ArrayList<>();
+        for (ScrapeJob job : jobs) {
+            Map<String, String> connections = new LinkedHashMap<>();
+            job.getConnections().forEach((alias, connectionString) -> {
+                if (nodeId.equals(ring.getOwner(alias))) {
+                    connections.put(alias, connectionString);
+                }
+            });
+            if (!connections.isEmpty()) {
+                shard.add(new ScrapeJob(job.getName(), job.getScrapeRate(), connections, job.getFields()));
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * @return the sources (connection aliases) currently scraped by this node.
+     */
+    public synchronized Set<String> getOwnedSources() {
+        Set<String> sources = new TreeSet<>();
+        for (ScrapeJob job : scraper.getJobs()) {
+            sources.addAll(job.getConnections().keySet());
+        }
+        return Collections.unmodifiableSet(sources);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Scraper getScraper() {
+        return scraper;
+    }
+}
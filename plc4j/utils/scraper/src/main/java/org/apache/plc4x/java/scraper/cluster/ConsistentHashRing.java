@@ -0,0 +1,106 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import org.apache.commons.lang3.Validate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Assigns keys to members by consistent hashing.
+ * <p>
+ * Every member is placed on a ring at several positions (virtual nodes) derived from its name, a key belongs to the
+ * member at the first position following the hash of the key. If a member joins or leaves, only the keys between its
+ * positions and their predecessors move, all other keys keep their member. The ring is immutable.
+ */
+public class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final Set<String> members;
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> members) {
+        this(members, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param members      names of the members, which have to be the same on all nodes.
+     * @param virtualNodes positions per member, more positions spread the keys more evenly.
+     */
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        Validate.notNull(members);
+        Validate.isTrue(virtualNodes > 0, "virtualNodes must be positive");
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the rare collision the smaller member name wins, so all nodes agree on the owner.
+                ring.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+    }
+
+    /**
+     * @return the member the given key belongs to or {@code null} if the ring has no members.
+     */
+    public String getOwner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    static long hash(String value) {
+        byte[] digest;
+        try {
+            // Not for security, but stable across JVMs and well distributed, unlike String.hashCode().
+            digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required on every Java platform", e);
+        }
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing{" +
+            "members=" + members +
+            ", positions=" + ring.size() +
+            '}';
+    }
+}
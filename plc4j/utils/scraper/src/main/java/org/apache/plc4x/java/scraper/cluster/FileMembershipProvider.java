@@ -0,0 +1,154 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the members from a text file with one member per line, blank lines and lines starting with {@code #} are
+ * ignored.
+ * <p>
+ * The file is read again by {@link #refresh()}, which {@link #start(Duration)} calls periodically. Listeners are only
+ * called if the members actually changed. If the file can't be read the last members are kept.
+ */
+public class FileMembershipProvider implements MembershipProvider, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileMembershipProvider.class);
+
+    private final Path file;
+
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Set<String> members;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates the provider and reads the members for the first time.
+     * @throws IOException if the file can't be read.
+     */
+    public FileMembershipProvider(Path file) throws IOException {
+        Validate.notNull(file);
+        this.file = file;
+        this.members = read();
+    }
+
+    @Override
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    @Override
+    public void addListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(Consumer<Set<String>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the file again and notifies the listeners if the members changed.
+     * @return {@code true} if the members changed.
+     */
+    public synchronized boolean refresh() {
+        Set<String> newMembers;
+        try {
+            newMembers = read();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read members from {}, keeping {}", file, members, e);
+            return false;
+        }
+        if (newMembers.equals(members)) {
+            return false;
+        }
+        LOGGER.info("Members changed from {} to {}", members, newMembers);
+        members = newMembers;
+        for (Consumer<Set<String>> listener : listeners) {
+            try {
+                listener.accept(newMembers);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Exception in membership listener {}", listener, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Refreshes the members periodically until closed.
+     */
+    public synchronized void start(Duration pollInterval) {
+        Validate.notNull(pollInterval);
+        Validate.isTrue(!pollInterval.isNegative() && !pollInterval.isZero(), "pollInterval must be positive");
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+            .namingPattern("membership-thread-%d")
+            .daemon(true)
+            .build());
+        executor.scheduleWithFixedDelay(this::refresh, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private Set<String> read() throws IOException {
+        Set<String> result = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String member = line.trim();
+            if (!member.isEmpty() && !member.startsWith("#")) {
+                result.add(member);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public String toString() {
+        return "FileMembershipProvider{" +
+            "file=" + file +
+            ", members=" + members +
+            '}';
+    }
+}
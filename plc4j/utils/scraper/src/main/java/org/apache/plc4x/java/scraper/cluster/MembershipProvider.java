@@ -0,0 +1,48 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Source of the members of a scraper cluster, see {@link ClusteredScraper}.
+ * <p>
+ * All nodes of a cluster have to see the same members to agree on the owner of every source.
+ */
+public interface MembershipProvider {
+
+    /**
+     * @return the names of the current members.
+     */
+    Set<String> getMembers();
+
+    /**
+     * Registers a listener called with the new members whenever they change, the default does nothing as the members
+     * never change.
+     */
+    default void addListener(Consumer<Set<String>> listener) {
+        // Members never change
+    }
+
+    default void removeListener(Consumer<Set<String>> listener) {
+        // Members never change
+    }
+
+}
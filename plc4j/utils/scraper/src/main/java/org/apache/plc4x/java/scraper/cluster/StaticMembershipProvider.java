@@ -0,0 +1,56 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A fixed list of members.
+ */
+public class StaticMembershipProvider implements MembershipProvider {
+
+    private final Set<String> members;
+
+    public StaticMembershipProvider(String... members) {
+        this(Arrays.asList(members));
+    }
+
+    public StaticMembershipProvider(Collection<String> members) {
+        Validate.notEmpty(members);
+        this.members = Collections.unmodifiableSet(new LinkedHashSet<>(members));
+    }
+
+    @Override
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return "StaticMembershipProvider{" +
+            "members=" + members +
+            '}';
+    }
+}
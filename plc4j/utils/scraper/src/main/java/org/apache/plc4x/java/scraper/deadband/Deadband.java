@@ -0,0 +1,99 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.deadband;
+
+/**
+ * Minimum change of a numeric value to be reported, see {@link DeadbandFilter}. It applies to integral and floating
+ * point values alike, an {@link #exact()} deadband compares integral values as {@code long}, so even large ones are
+ * told apart. Values that are not numeric are always compared exactly.
+ */
+public class Deadband {
+
+    private static final Deadband EXACT = new Deadband(Type.ABSOLUTE, 0);
+
+    public enum Type {
+        /**
+         * The value has to change by more than the deadband.
+         */
+        ABSOLUTE,
+        /**
+         * The value has to change by more than the deadband percent of the last reported value.
+         */
+        PERCENT
+    }
+
+    private final Type type;
+
+    private final double value;
+
+    private Deadband(Type type, double value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * @return a deadband reporting every change.
+     */
+    public static Deadband exact() {
+        return EXACT;
+    }
+
+    public static Deadband absolute(double deadband) {
+        if (!(deadband >= 0) || Double.isInfinite(deadband)) {
+            throw new IllegalArgumentException("deadband must be a finite number not below 0");
+        }
+        return new Deadband(Type.ABSOLUTE, deadband);
+    }
+
+    public static Deadband percent(double percent) {
+        if (!(percent >= 0) || Double.isInfinite(percent)) {
+            throw new IllegalArgumentException("percent must be a finite number not below 0");
+        }
+        return new Deadband(Type.PERCENT, percent);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the change from the last reported to the current value exceeds this deadband.
+     */
+    boolean isExceeded(double last, double current) {
+        double delta = Math.abs(current - last);
+        if (Double.isNaN(delta)) {
+            // NaN or infinities involved, only report if it is really a different value.
+            return Double.compare(last, current) != 0;
+        }
+        double threshold = type == Type.ABSOLUTE ? value : Math.abs(last) * value / 100;
+        return delta > threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadband{" +
+            "type=" + type +
+            ", value=" + value +
+            '}';
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.deadband;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Settings of the report by exception of a {@link org.apache.plc4x.java.scraper.Scraper}, see {@link DeadbandFilter}.
+ * <p>
+ * A config is immutable and shared by all tasks of a scraper.
+ */
+public class DeadbandConfig {
+
+    private final Deadband defaultDeadband;
+
+    private final Map<String, Deadband> fieldDeadbands;
+
+    private final Duration maxSilence;
+
+    private DeadbandConfig(Deadband defaultDeadband, Map<String, Deadband> fieldDeadbands, Duration maxSilence) {
+        this.defaultDeadband = defaultDeadband;
+        this.fieldDeadbands = Collections.unmodifiableMap(new HashMap<>(fieldDeadbands));
+        this.maxSilence = maxSilence;
+    }
+
+    public static DeadbandConfigBuilder builder() {
+        return new DeadbandConfigBuilder();
+    }
+
+    public Deadband getDefaultDeadband() {
+        return defaultDeadband;
+    }
+
+    public Map<String, Deadband> getFieldDeadbands() {
+        return fieldDeadbands;
+    }
+
+    /**
+     * @return the deadband of the field with the given alias.
+     */
+    public Deadband getDeadband(String fieldAlias) {
+        return fieldDeadbands.getOrDefault(fieldAlias, defaultDeadband);
+    }
+
+    public Duration getMaxSilence() {
+        return maxSilence;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadbandConfig{" +
+            "defaultDeadband=" + defaultDeadband +
+            ", fieldDeadbands=" + fieldDeadbands +
+            ", maxSilence=" + maxSilence +
+            '}';
+    }
+
+    public static class DeadbandConfigBuilder {
+        private Deadband defaultDeadband = Deadband.exact();
+        private final Map<String, Deadband> fieldDeadbands = new HashMap<>();
+        private Duration maxSilence = Duration.ofMinutes(1);
+
+        /**
+         * Deadband of all fields without a deadband of their own.
+         */
+        public DeadbandConfigBuilder defaultDeadband(Deadband deadband) {
+            this.defaultDeadband = Objects.requireNonNull(deadband);
+            return this;
+        }
+
+        /**
+         * Deadband of the fields with the given alias (as in the job configuration).
+         */
+        public DeadbandConfigBuilder deadband(String fieldAlias, Deadband deadband) {
+            fieldDeadbands.put(Objects.requireNonNull(fieldAlias), Objects.requireNonNull(deadband));
+            return this;
+        }
+
+        /**
+         * Maximum time a value is not reported, even if it doesn't change.
+         */
+        public DeadbandConfigBuilder maxSilence(Duration maxSilence) {
+            Objects.requireNonNull(maxSilence);
+            if (maxSilence.isNegative() || maxSilence.isZero()) {
+                throw new IllegalArgumentException("maxSilence must be positive");
+            }
+            this.maxSilence = maxSilence;
+            return this;
+        }
+
+        public DeadbandConfig build() {
+            return new DeadbandConfig(defaultDeadband, fieldDeadbands, maxSilence);
+        }
+    }
+}
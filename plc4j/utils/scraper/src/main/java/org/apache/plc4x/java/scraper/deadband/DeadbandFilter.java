@@ -0,0 +1,255 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.deadband;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Report by exception for the responses of one {@link org.apache.plc4x.java.scraper.ScraperTask}: selects the fields
+ * whose value changed since it was last reported.
+ * <p>
+ * Numeric values, integral ones included, are compared by their {@link Deadband}, all other values exactly, a changed
+ * response code always counts as a change. A value that was not reported for {@link DeadbandConfig#getMaxSilence()} is reported anyway.
+ * <p>
+ * The last reported values are kept in arrays indexed by the position of the field in the response, numeric values
+ * unboxed. A task sends the same request every time, so the positions only change if the fields of the task change,
+ * which resets the filter.
+ */
+public class DeadbandFilter {
+
+    private static final byte NONE = 0;
+
+    private static final byte INTEGRAL = 1;
+
+    private static final byte FLOATING = 2;
+
+    private static final byte OTHER = 3;
+
+    private final DeadbandConfig config;
+
+    private final long maxSilenceMillis;
+
+    private final AtomicLong reportedValues = new AtomicLong();
+
+    private final AtomicLong suppressedValues = new AtomicLong();
+
+    // All state below is guarded by this.
+    private String[] fieldNames = new String[0];
+
+    private Deadband[] deadbands;
+
+    private byte[] kinds;
+
+    private long[] lastIntegral;
+
+    private double[] lastFloating;
+
+    private Object[] lastOther;
+
+    private PlcResponseCode[] lastResponseCodes;
+
+    private long[] lastReported;
+
+    public DeadbandFilter(DeadbandConfig config) {
+        Validate.notNull(config);
+        this.config = config;
+        this.maxSilenceMillis = config.getMaxSilence().toMillis();
+    }
+
+    /**
+     * Selects the fields of the response to report and remembers their values as reported, the same as
+     * {@link #select(PlcReadResponse, long, boolean[])} followed by {@link #commit(PlcReadResponse, long, boolean[])}.
+     *
+     * @param response  response of the task.
+     * @param timestamp time the response was received in milliseconds since the epoch.
+     * @param selected  set to {@code true} at the position of every field to report, must be at least as long as the
+     *                  response has fields.
+     * @return number of fields to report.
+     */
+    public synchronized int filter(PlcReadResponse response, long timestamp, boolean[] selected) {
+        int count = select(response, timestamp, selected);
+        commit(response, timestamp, selected);
+        return count;
+    }
+
+    /**
+     * Selects the fields of the response to report. The values are not remembered as reported until they are
+     * {@link #commit(PlcReadResponse, long, boolean[]) committed}, so a response that could not be delivered is
+     * selected again by the next scrape.
+     *
+     * @param response  response of the task.
+     * @param timestamp time the response was received in milliseconds since the epoch.
+     * @param selected  set to {@code true} at the position of every field to report, must be at least as long as the
+     *                  response has fields.
+     * @return number of fields to report.
+     */
+    public synchronized int select(PlcReadResponse response, long timestamp, boolean[] selected) {
+        if (!hasLayout(response)) {
+            reset(response);
+        }
+        int count = 0;
+        for (int index = 0; index < fieldNames.length; index++) {
+            PlcResponseCode responseCode = response.getResponseCode(index);
+            Object value = responseCode == PlcResponseCode.OK ? response.getObject(index) : null;
+            boolean report = kinds[index] == NONE
+                || responseCode != lastResponseCodes[index]
+                || timestamp - lastReported[index] >= maxSilenceMillis
+                || isChanged(index, value);
+            selected[index] = report;
+            if (report) {
+                count++;
+            }
+        }
+        suppressedValues.addAndGet(fieldNames.length - (long) count);
+        return count;
+    }
+
+    /**
+     * Remembers the values selected by {@link #select(PlcReadResponse, long, boolean[])} as reported. Ignored if the
+     * fields of the task changed in between, values older than the ones already reported are skipped.
+     *
+     * @param response  response passed to {@code select}.
+     * @param timestamp timestamp passed to {@code select}.
+     * @param selected  selection returned by {@code select}.
+     */
+    public synchronized void commit(PlcReadResponse response, long timestamp, boolean[] selected) {
+        if (!hasLayout(response)) {
+            return;
+        }
+        int count = 0;
+        for (int index = 0; index < fieldNames.length; index++) {
+            if (!selected[index]) {
+                continue;
+            }
+            count++;
+            if (kinds[index] != NONE && lastReported[index] > timestamp) {
+                continue;
+            }
+            PlcResponseCode responseCode = response.getResponseCode(index);
+            Object value = responseCode == PlcResponseCode.OK ? response.getObject(index) : null;
+            remember(index, responseCode, value, timestamp);
+        }
+        reportedValues.addAndGet(count);
+    }
+
+    private boolean hasLayout(PlcReadResponse response) {
+        if (response.getFieldNames().size() != fieldNames.length) {
+            return false;
+        }
+        int index = 0;
+        for (String fieldName : response.getFieldNames()) {
+            if (!fieldName.equals(fieldNames[index++])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reset(PlcReadResponse response) {
+        int numberOfFields = response.getFieldNames().size();
+        fieldNames = response.getFieldNames().toArray(new String[0]);
+        deadbands = new Deadband[numberOfFields];
+        for (int index = 0; index < numberOfFields; index++) {
+            deadbands[index] = config.getDeadband(fieldNames[index]);
+        }
+        kinds = new byte[numberOfFields];
+        lastIntegral = new long[numberOfFields];
+        lastFloating = new double[numberOfFields];
+        lastOther = new Object[numberOfFields];
+        lastResponseCodes = new PlcResponseCode[numberOfFields];
+        lastReported = new long[numberOfFields];
+    }
+
+    private boolean isChanged(int index, Object value) {
+        byte kind = kindOf(value);
+        if (kind != kinds[index]) {
+            return true;
+        }
+        Deadband deadband = deadbands[index];
+        switch (kind) {
+            case INTEGRAL:
+                long currentIntegral = ((Number) value).longValue();
+                long last = lastIntegral[index];
+                // Compared as long first, doubles can't tell large longs apart.
+                return currentIntegral != last && (deadband.getValue() == 0 || deadband.isExceeded(last, currentIntegral));
+            case FLOATING:
+                return deadband.isExceeded(lastFloating[index], ((Number) value).doubleValue());
+            default:
+                return !Objects.deepEquals(value, lastOther[index]);
+        }
+    }
+
+    private void remember(int index, PlcResponseCode responseCode, Object value, long timestamp) {
+        byte kind = kindOf(value);
+        kinds[index] = kind;
+        lastResponseCodes[index] = responseCode;
+        lastReported[index] = timestamp;
+        lastOther[index] = null;
+        if (kind == INTEGRAL) {
+            lastIntegral[index] = ((Number) value).longValue();
+        } else if (kind == FLOATING) {
+            lastFloating[index] = ((Number) value).doubleValue();
+        } else {
+            lastOther[index] = value;
+        }
+    }
+
+    private static byte kindOf(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return INTEGRAL;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return FLOATING;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Forgets all reported values, so the next response is reported completely.
+     */
+    public synchronized void reset() {
+        fieldNames = new String[0];
+    }
+
+    public DeadbandConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return number of values reported so far, counted by every
+     * {@link #commit(PlcReadResponse, long, boolean[]) commit}.
+     */
+    public long getReportedValues() {
+        return reportedValues.get();
+    }
+
+    /**
+     * @return number of values suppressed so far because they did not change, counted by every
+     * {@link #select(PlcReadResponse, long, boolean[]) selection}.
+     */
+    public long getSuppressedValues() {
+        return suppressedValues.get();
+    }
+
+}
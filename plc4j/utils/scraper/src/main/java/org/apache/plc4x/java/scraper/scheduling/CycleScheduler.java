@@ -0,0 +1,67 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.scheduling;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks periodically on a {@link ScheduledExecutorService}, unlike
+ * {@link ScheduledExecutorService#scheduleAtFixedRate(Runnable, long, long, TimeUnit)} it staggers the first run of
+ * the tasks by a {@link PhaseStrategy} and skips the cycles a slow run overlaps with, see {@link ScheduledCycle}.
+ */
+public class CycleScheduler {
+
+    private final ScheduledExecutorService executor;
+
+    private final PhaseStrategy phaseStrategy;
+
+    public CycleScheduler(ScheduledExecutorService executor, PhaseStrategy phaseStrategy) {
+        Validate.notNull(executor);
+        Validate.notNull(phaseStrategy);
+        this.executor = executor;
+        this.phaseStrategy = phaseStrategy;
+    }
+
+    /**
+     * Schedules the task of the given job and connection, starting at the offset chosen by the phase strategy.
+     *
+     * @param periodMillis time between two cycles in milliseconds.
+     * @return the handle to cancel the task and read its metrics.
+     */
+    public ScheduledCycle schedule(Runnable task, String jobName, String alias, long periodMillis) {
+        Validate.isTrue(periodMillis > 0, "period must be positive");
+        long phaseMillis = phaseStrategy.getPhase(jobName, alias, periodMillis);
+        Validate.isTrue(phaseMillis >= 0 && phaseMillis < periodMillis, "phase %d not within period %d", phaseMillis, periodMillis);
+        return schedule(task, TimeUnit.MILLISECONDS.toNanos(periodMillis), TimeUnit.MILLISECONDS.toNanos(phaseMillis));
+    }
+
+    ScheduledCycle schedule(Runnable task, long periodNanos, long phaseNanos) {
+        ScheduledCycle cycle = new ScheduledCycle(executor, task, periodNanos, System.nanoTime() + phaseNanos);
+        cycle.start();
+        return cycle;
+    }
+
+    public PhaseStrategy getPhaseStrategy() {
+        return phaseStrategy;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.scheduling;
+
+/**
+ * Decides at which offset within its period the first cycle of a scrape task starts, see {@link CycleScheduler}.
+ * <p>
+ * Tasks starting at the same offset hit their PLCs and the connection pool at the same instant every period, spreading
+ * the offsets smooths that load.
+ */
+@FunctionalInterface
+public interface PhaseStrategy {
+
+    /**
+     * @param jobName      name of the job (from config)
+     * @param alias        alias of the connection (<b>not</b> connection String)
+     * @param periodMillis scrape rate of the job.
+     * @return offset of the first cycle in milliseconds, in the range {@code [0, periodMillis)}.
+     */
+    long getPhase(String jobName, String alias, long periodMillis);
+
+    /**
+     * @return a strategy that starts all tasks right away, so all tasks of the same rate stay aligned.
+     */
+    static PhaseStrategy aligned() {
+        return (jobName, alias, periodMillis) -> 0;
+    }
+
+    /**
+     * @return a strategy that derives the offset from a hash of job and alias, which spreads tasks evenly over the
+     * period and gives a task the same offset on every start.
+     */
+    static PhaseStrategy hashed() {
+        return (jobName, alias, periodMillis) -> {
+            long hash = 31L * jobName.hashCode() + alias.hashCode();
+            // Finalizer of MurmurHash3, so similar names still end up at distant offsets.
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return Math.floorMod(hash, periodMillis);
+        };
+    }
+
+}
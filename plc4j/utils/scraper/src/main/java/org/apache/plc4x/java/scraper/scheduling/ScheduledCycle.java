@@ -0,0 +1,149 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A task run periodically by a {@link CycleScheduler}.
+ * <p>
+ * Cycle {@code n} is due at {@code origin + n * period}, where the origin is fixed when the task is scheduled, so the
+ * schedule does not drift no matter how late single runs start. If a run is still busy when the following cycles are
+ * due, those cycles are skipped and counted as missed, instead of being run back to back afterwards.
+ */
+public class ScheduledCycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledCycle.class);
+
+    private final ScheduledExecutorService executor;
+
+    private final Runnable task;
+
+    private final long periodNanos;
+
+    private final long originNanos;
+
+    private final AtomicLong executedCycles = new AtomicLong();
+
+    private final AtomicLong missedCycles = new AtomicLong();
+
+    // Only accessed by the run of this cycle, which never overlaps with the next one.
+    private long cycle;
+
+    // Guarded by this.
+    private ScheduledFuture<?> next;
+
+    // Guarded by this.
+    private boolean cancelled;
+
+    ScheduledCycle(ScheduledExecutorService executor, Runnable task, long periodNanos, long originNanos) {
+        this.executor = executor;
+        this.task = task;
+        this.periodNanos = periodNanos;
+        this.originNanos = originNanos;
+    }
+
+    synchronized void start() {
+        next = executor.schedule(this::run, originNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private void run() {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Exception in cycle {} of {}", cycle, task, e);
+        }
+        executedCycles.incrementAndGet();
+
+        long now = System.nanoTime();
+        long nextCycle = cycle + 1;
+        long late = now - deadline(nextCycle);
+        if (late >= 0) {
+            long skipped = late / periodNanos + 1;
+            missedCycles.addAndGet(skipped);
+            nextCycle += skipped;
+            LOGGER.debug("{} skipped {} cycles", task, skipped);
+        }
+        cycle = nextCycle;
+
+        synchronized (this) {
+            if (!cancelled) {
+                next = executor.schedule(this::run, deadline(nextCycle) - now, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private long deadline(long cycle) {
+        return originNanos + cycle * periodNanos;
+    }
+
+    /**
+     * Stops scheduling further cycles.
+     *
+     * @param mayInterruptIfRunning whether to interrupt a run in progress.
+     */
+    public synchronized void cancel(boolean mayInterruptIfRunning) {
+        cancelled = true;
+        if (next != null) {
+            next.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    public Runnable getTask() {
+        return task;
+    }
+
+    public long getPeriod(TimeUnit unit) {
+        return unit.convert(periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return number of runs completed so far.
+     */
+    public long getExecutedCycles() {
+        return executedCycles.get();
+    }
+
+    /**
+     * @return number of cycles skipped because the run before was still busy when they were due.
+     */
+    public long getMissedCycles() {
+        return missedCycles.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledCycle{" +
+            "task=" + task +
+            ", period=" + TimeUnit.NANOSECONDS.toMillis(periodNanos) + " ms" +
+            ", executedCycles=" + executedCycles +
+            ", missedCycles=" + missedCycles +
+            '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+class ScrapeJobDiffTest implements WithAssertions {
+
+    @Test
+    void sameJobs_isEmpty() {
+        ScrapeJob job = job("job1", 10, connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1");
+
+        ScrapeJobDiff diff = ScrapeJobDiff.between(Collections.singletonList(job),
+            Collections.singletonList(job("job1", 10, connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1")));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.getUnchanged()).containsExactlyInAnyOrder(Pair.of("job1", "m1"), Pair.of("job1", "m2"));
+    }
+
+    @Test
+    void addedAndRemovedSources() {
+        ScrapeJobDiff diff = ScrapeJobDiff.between(
+            Collections.singletonList(job("job1", 10, connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1")),
+            Collections.singletonList(job("job1", 10, connections("m2", "mock:m2", "m3", "mock:m3"), "field1", "qry1")));
+
+        assertThat(diff.getAdded()).containsExactly(Pair.of("job1", "m3"));
+        assertThat(diff.getRemoved()).containsExactly(Pair.of("job1", "m1"));
+        assertThat(diff.getChanged()).isEmpty();
+        assertThat(diff.getUnchanged()).containsExactly(Pair.of("job1", "m2"));
+    }
+
+    @Test
+    void changedFieldsRateAndConnection() {
+        ScrapeJobDiff diff = ScrapeJobDiff.between(
+            Arrays.asList(
+                job("fields", 10, connections("m1", "mock:m1"), "field1", "qry1"),
+                job("rate", 10, connections("m1", "mock:m1"), "field1", "qry1"),
+                job("connection", 10, connections("m1", "mock:m1"), "field1", "qry1")),
+            Arrays.asList(
+                job("fields", 10, connections("m1", "mock:m1"), "field1", "qry2"),
+                job("rate", 20, connections("m1", "mock:m1"), "field1", "qry1"),
+                job("connection", 10, connections("m1", "mock:other"), "field1", "qry1")));
+
+        assertThat(diff.getChanged()).containsExactlyInAnyOrder(
+            Pair.of("fields", "m1"), Pair.of("rate", "m1"), Pair.of("connection", "m1"));
+        assertThat(diff.isEmpty()).isFalse();
+    }
+
+    @Test
+    void removedJob() {
+        ScrapeJobDiff diff = ScrapeJobDiff.between(
+            Arrays.asList(
+                job("job1", 10, connections("m1", "mock:m1"), "field1", "qry1"),
+                job("job2", 10, connections("m1", "mock:m1"), "field1", "qry1")),
+            Collections.singletonList(job("job1", 10, connections("m1", "mock:m1"), "field1", "qry1")));
+
+        assertThat(diff.getRemoved()).containsExactly(Pair.of("job2", "m1"));
+        assertThat(diff.getUnchanged()).containsExactly(Pair.of("job1", "m1"));
+    }
+
+    static ScrapeJob job(String name, long rate, Map<String, String> connections, String fieldAlias, String fieldQuery) {
+        return new ScrapeJob(name, rate, connections, Collections.singletonMap(fieldAlias, fieldQuery));
+    }
+
+    static Map<String, String> connections(String... aliasesAndConnectionStrings) {
+        Map<String, String> connections = new HashMap<>();
+        for (int i = 0; i < aliasesAndConnectionStrings.length; i += 2) {
+            connections.put(aliasesAndConnectionStrings[i], aliasesAndConnectionStrings[i + 1]);
+        }
+        return connections;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper;
+
+import org.apache.plc4x.java.PlcDriverManager;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class ScraperConfigurationWatcherTest implements WithAssertions {
+
+    private Path directory;
+
+    private Path configFile;
+
+    private Scraper scraper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("scraper");
+        configFile = directory.resolve("scraper.yml");
+        scraper = new Scraper((j, a, m) -> {}, new PlcDriverManager(), Collections.singletonList(
+            ScrapeJobDiffTest.job("job1", 100, ScrapeJobDiffTest.connections("m1", "mock:m1"), "a", "qry1")
+        ));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scraper.stop();
+        Files.deleteIfExists(configFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void reload_appliesFile() throws IOException {
+        write("m1", "m2");
+        ScraperConfigurationWatcher watcher = new ScraperConfigurationWatcher(scraper, configFile);
+
+        assertThat(watcher.reload()).isTrue();
+
+        assertThat(scraper.getJobs()).hasSize(1);
+        assertThat(scraper.getJobs().get(0).getConnections()).containsOnlyKeys("m1", "m2");
+        assertThat(watcher.getReloads()).isEqualTo(1);
+    }
+
+    @Test
+    void reload_keepsJobsOnBrokenFile() throws IOException {
+        Files.write(configFile, "jobs: [".getBytes(StandardCharsets.UTF_8));
+        ScraperConfigurationWatcher watcher = new ScraperConfigurationWatcher(scraper, configFile);
+
+        assertThat(watcher.reload()).isFalse();
+
+        assertThat(scraper.getJobs().get(0).getConnections()).containsOnlyKeys("m1");
+        assertThat(watcher.getFailedReloads()).isEqualTo(1);
+    }
+
+    @Test
+    void watch_reconfiguresRunningScraper() throws Exception {
+        write("m1");
+        scraper.start();
+        try (ScraperConfigurationWatcher watcher = new ScraperConfigurationWatcher(scraper, configFile, Duration.ofMillis(50))) {
+            watcher.start();
+
+            write("m1", "m2");
+
+            // Depending on the platform file changes may only be noticed after some seconds.
+            assertThat(await(() -> scraper.getNumberOfActiveTasks() == 2)).isTrue();
+            assertThat(watcher.getReloads()).isPositive();
+        }
+    }
+
+    @Test
+    void watch_otherFilesDontEndQuietPeriod() throws Exception {
+        write("m1");
+        scraper.start();
+        Path otherFile = directory.resolve("other.txt");
+        Duration quietPeriod = Duration.ofSeconds(3);
+        try (ScraperConfigurationWatcher watcher = new ScraperConfigurationWatcher(scraper, configFile, quietPeriod)) {
+            watcher.start();
+
+            long written = System.nanoTime();
+            write("m1", "m2");
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(100);
+                Files.write(otherFile, new byte[]{(byte) i});
+            }
+
+            assertThat(await(() -> watcher.getReloads() == 1)).isTrue();
+            assertThat(Duration.ofNanos(System.nanoTime() - written)).isGreaterThanOrEqualTo(quietPeriod);
+        } finally {
+            Files.deleteIfExists(otherFile);
+        }
+    }
+
+    private void write(String... aliases) throws IOException {
+        StringBuilder yaml = new StringBuilder("sources:\n");
+        for (String alias : aliases) {
+            yaml.append("    ").append(alias).append(": mock:").append(alias).append('\n');
+        }
+        yaml.append("jobs:\n")
+            .append("    - name: job1\n")
+            .append("      scrapeRate: 100\n")
+            .append("      sources:\n");
+        for (String alias : aliases) {
+            yaml.append("        - ").append(alias).append('\n');
+        }
+        yaml.append("      fields:\n")
+            .append("        a: qry1\n");
+        Files.write(configFile, yaml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -26,6 +26,9 @@ import org.apache.plc4x.java.api.types.PlcResponseCode;
 import org.apache.plc4x.java.base.messages.items.DefaultStringFieldItem;
 import org.apache.plc4x.java.mock.MockDevice;
 import org.apache.plc4x.java.mock.PlcMockConnection;
+import org.apache.plc4x.java.scraper.batch.BatchConfig;
+import org.apache.plc4x.java.scraper.batch.ResultBatcher;
+import org.apache.plc4x.java.scraper.deadband.DeadbandConfig;
 import org.assertj.core.api.WithAssertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -33,11 +36,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,6 +67,50 @@ public class ScraperTaskTest implements WithAssertions {
         scraperTask.run();
     }
 
+    @Test
+    void scrape_withDeadband_skipsUnchangedValues() throws Exception {
+        PlcDriverManager driverManager = new PlcDriverManager();
+        PlcMockConnection connection = (PlcMockConnection) driverManager.getConnection("mock:scraper");
+        connection.setDevice(mockDevice);
+        when(mockDevice.read(any())).thenReturn(Pair.of(PlcResponseCode.OK, new DefaultStringFieldItem("hallo")));
+        BlockingQueue<Map<String, Object>> results = new LinkedBlockingQueue<>();
+        ExecutorService handlerService = Executors.newSingleThreadExecutor();
+
+        ScraperTask scraperTask = new ScraperTask(driverManager, "job1", "m1", "mock:scraper", Collections.singletonMap("a", "b"),
+            1_000, handlerService, (j,a,m) -> results.add(m));
+        scraperTask.setDeadband(DeadbandConfig.builder().build());
+
+        scraperTask.run();
+        scraperTask.run();
+        handlerService.shutdown();
+        assertThat(handlerService.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(results).containsExactly(Collections.singletonMap("a", "hallo"));
+        assertThat(scraperTask.getDeadbandFilter().getSuppressedValues()).isEqualTo(1);
+    }
+
+    @Test
+    void scrape_withDeadband_resendsDroppedChanges() throws Exception {
+        PlcDriverManager driverManager = new PlcDriverManager();
+        PlcMockConnection connection = (PlcMockConnection) driverManager.getConnection("mock:scraper");
+        connection.setDevice(mockDevice);
+        when(mockDevice.read(any())).thenReturn(Pair.of(PlcResponseCode.OK, new DefaultStringFieldItem("hallo")));
+        ResultBatcher resultBatcher = mock(ResultBatcher.class);
+        when(resultBatcher.append(anyInt(), anyLong(), any(), any(), anyInt())).thenReturn(false, true);
+
+        ScraperTask scraperTask = new ScraperTask(driverManager, "job1", "m1", "mock:scraper", Collections.singletonMap("a", "b"),
+            1_000, ForkJoinPool.commonPool(), resultBatcher);
+        scraperTask.setDeadband(DeadbandConfig.builder().build());
+
+        scraperTask.run();
+        scraperTask.run();
+        scraperTask.run();
+
+        verify(resultBatcher, times(2)).append(anyInt(), anyLong(), any(), any(), eq(1));
+        assertThat(scraperTask.getDeadbandFilter().getReportedValues()).isEqualTo(1);
+        assertThat(scraperTask.getDeadbandFilter().getSuppressedValues()).isEqualTo(1);
+    }
+
     @Nested
     class Exceptions {
 
@@ -103,8 +155,37 @@ public class ScraperTaskTest implements WithAssertions {
 
             Future<?> future = pool.scheduleAtFixedRate(scraperTask, 0, 10, TimeUnit.MILLISECONDS);
 
+            // Wait for the first failing runs, the scheduler must keep the task scheduled anyway
+            verify(driverManager, timeout(1_000).atLeast(2)).getConnection(anyString());
             assertThat(future).isNotDone();
+            pool.shutdownNow();
         }
 
     }
-}
\ No newline at end of file
+
+    @Nested
+    class Batched {
+
+        @Test
+        void scrape() throws Exception {
+            PlcDriverManager driverManager = new PlcDriverManager();
+            PlcMockConnection connection = (PlcMockConnection) driverManager.getConnection("mock:scraper");
+            connection.setDevice(mockDevice);
+            when(mockDevice.read(any())).thenReturn(Pair.of(PlcResponseCode.OK, new DefaultStringFieldItem("hallo")));
+            BlockingQueue<String> results = new LinkedBlockingQueue<>();
+            ResultBatcher batcher = new ResultBatcher(batch -> results.add(batch.getJobName(0) + "/" + batch.getAlias(0) + "/" +
+                batch.getFieldName(0) + "=" + batch.getObject(0)), BatchConfig.builder().maxDelay(Duration.ZERO).build());
+            batcher.start();
+
+            ExecutorService handlerService = Executors.newSingleThreadExecutor();
+            ScraperTask scraperTask = new ScraperTask(driverManager, "job1", "m1", "mock:scraper", Collections.singletonMap("a", "b"),
+                1_000, handlerService, batcher);
+
+            scraperTask.run();
+
+            assertThat(results.poll(1, TimeUnit.SECONDS)).isEqualTo("job1/m1/a=hallo");
+            batcher.close();
+            handlerService.shutdown();
+        }
+    }
+}
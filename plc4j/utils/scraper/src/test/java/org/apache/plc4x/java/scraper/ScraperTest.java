@@ -42,6 +42,8 @@ import java.util.Collections;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -168,5 +170,84 @@ class ScraperTest implements WithAssertions {
 
         assertThat(scraper.getNumberOfActiveTasks())
             .isEqualTo(1);
+        // The restarted task scrapes again
+        verify(mockDevice, timeout(5_000).atLeastOnce()).read(any());
+        scraper.stop();
+    }
+
+    @Test
+    void reconfigure_onlyTouchesChangedTasks() {
+        PlcDriverManager driverManager = new PlcDriverManager();
+
+        Scraper scraper = new Scraper((j,a,m) -> {}, driverManager, Arrays.asList(
+            ScrapeJobDiffTest.job("job1", 10, ScrapeJobDiffTest.connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1"),
+            ScrapeJobDiffTest.job("job2", 10, ScrapeJobDiffTest.connections("m1", "mock:m1"), "field1", "qry1")
+        ));
+        scraper.start();
+        ScraperTask unchanged = scraper.getRunningTasks().stream()
+            .filter(task -> task.getJobName().equals("job1") && task.getConnectionAlias().equals("m2"))
+            .findFirst().orElseThrow(IllegalStateException::new);
+
+        ScrapeJobDiff diff = scraper.reconfigure(Arrays.asList(
+            ScrapeJobDiffTest.job("job1", 10, ScrapeJobDiffTest.connections("m2", "mock:m2", "m3", "mock:m3"), "field1", "qry1"),
+            ScrapeJobDiffTest.job("job2", 10, ScrapeJobDiffTest.connections("m1", "mock:m1"), "field1", "qry2")
+        ));
+
+        assertThat(diff.getAdded()).containsExactly(Pair.of("job1", "m3"));
+        assertThat(diff.getRemoved()).containsExactly(Pair.of("job1", "m1"));
+        assertThat(diff.getChanged()).containsExactly(Pair.of("job2", "m1"));
+        assertThat(scraper.getNumberOfActiveTasks()).isEqualTo(3);
+        assertThat(scraper.getRunningTasks()).contains(unchanged);
+        assertThat(scraper.getRunningTasks())
+            .extracting(task -> task.getJobName() + "/" + task.getConnectionAlias())
+            .containsExactlyInAnyOrder("job1/m2", "job1/m3", "job2/m1");
+
+        scraper.stop();
+    }
+
+    @Test
+    void reconfigure_runningWithoutTasks_startsNewTasks() {
+        Scraper scraper = new Scraper((j,a,m) -> {}, new PlcDriverManager(), Collections.singletonList(
+            ScrapeJobDiffTest.job("job1", 10, ScrapeJobDiffTest.connections("m1", "mock:m1"), "field1", "qry1")
+        ));
+        scraper.start();
+        // E.g. a cluster node whose shard got empty.
+        scraper.reconfigure(Collections.emptyList());
+        assertThat(scraper.getNumberOfActiveTasks()).isZero();
+
+        scraper.reconfigure(Collections.singletonList(
+            ScrapeJobDiffTest.job("job2", 10, ScrapeJobDiffTest.connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1")
+        ));
+
+        assertThat(scraper.getRunningTasks())
+            .extracting(task -> task.getJobName() + "/" + task.getConnectionAlias())
+            .containsExactlyInAnyOrder("job2/m1", "job2/m2");
+        assertThat(scraper.getNumberOfActiveTasks()).isEqualTo(2);
+        scraper.stop();
+
+        // Once stopped, reconfiguring only replaces the jobs again.
+        scraper.reconfigure(Collections.singletonList(
+            ScrapeJobDiffTest.job("job3", 10, ScrapeJobDiffTest.connections("m1", "mock:m1"), "field1", "qry1")
+        ));
+        assertThat(scraper.getNumberOfActiveTasks()).isZero();
+    }
+
+    @Test
+    void reconfigure_beforeStart_replacesJobs() {
+        Scraper scraper = new Scraper((j,a,m) -> {}, new PlcDriverManager(), Collections.singletonList(
+            ScrapeJobDiffTest.job("job1", 10, ScrapeJobDiffTest.connections("m1", "mock:m1"), "field1", "qry1")
+        ));
+
+        scraper.reconfigure(Collections.singletonList(
+            ScrapeJobDiffTest.job("job2", 10, ScrapeJobDiffTest.connections("m1", "mock:m1", "m2", "mock:m2"), "field1", "qry1")
+        ));
+        assertThat(scraper.getNumberOfActiveTasks()).isZero();
+
+        scraper.start();
+        assertThat(scraper.getRunningTasks())
+            .extracting(ScraperTask::getJobName)
+            .containsOnly("job2");
+        assertThat(scraper.getNumberOfActiveTasks()).isEqualTo(2);
+        scraper.stop();
     }
-}
\ No newline at end of file
+}
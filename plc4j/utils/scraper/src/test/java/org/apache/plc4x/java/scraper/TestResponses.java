@@ -0,0 +1,75 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.messages.PlcReadResponse;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.DefaultPlcReadResponse;
+import org.apache.plc4x.java.base.messages.InternalPlcReadRequest;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultDoubleFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultIntegerFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultLongFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultStringFieldItem;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Read responses for tests that don't need a connection.
+ */
+public final class TestResponses {
+
+    private TestResponses() {
+    }
+
+    /**
+     * @param namesAndValues alternating field names and {@link Integer}, {@link Long}, {@link Double} or
+     *                       {@link String} values, all with response code {@link PlcResponseCode#OK}.
+     */
+    public static PlcReadResponse response(Object... namesAndValues) {
+        Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            Object value = namesAndValues[i + 1];
+            BaseDefaultFieldItem item;
+            if (value instanceof Integer) {
+                item = new DefaultIntegerFieldItem((Integer) value);
+            } else if (value instanceof Long) {
+                item = new DefaultLongFieldItem((Long) value);
+            } else if (value instanceof Double) {
+                item = new DefaultDoubleFieldItem((Double) value);
+            } else {
+                item = new DefaultStringFieldItem((String) value);
+            }
+            fields.put((String) namesAndValues[i], Pair.of(PlcResponseCode.OK, item));
+        }
+        return response(fields);
+    }
+
+    public static PlcReadResponse response(Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields) {
+        InternalPlcReadRequest request = mock(InternalPlcReadRequest.class);
+        when(request.getFieldNames()).thenReturn(new LinkedHashSet<>(fields.keySet()));
+        return new DefaultPlcReadResponse(request, fields);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.batch;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultBooleanFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultDoubleFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultIntegerFieldItem;
+import org.apache.plc4x.java.base.messages.items.DefaultStringFieldItem;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.plc4x.java.scraper.TestResponses.response;
+
+class ResultBatcherTest implements WithAssertions {
+
+    private final BlockingQueue<List<String>> delivered = new LinkedBlockingQueue<>();
+
+    private ResultBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Nested
+    class Bounds {
+        @Test
+        void deliversFullBatches() throws Exception {
+            batcher = new ResultBatcher(ResultBatcherTest.this::record, BatchConfig.builder()
+                .batchSize(2)
+                .maxDelay(Duration.ofMinutes(1))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            assertThat(batcher.append(source, 1, response("a", 1, "b", 2, "c", 3))).isTrue();
+
+            assertThat(delivered.poll(1, TimeUnit.SECONDS)).containsExactly("job/plc/a=1", "job/plc/b=2");
+            assertThat(delivered.poll(50, TimeUnit.MILLISECONDS)).isNull();
+        }
+
+        @Test
+        void deliversAfterMaxDelay() throws Exception {
+            batcher = new ResultBatcher(ResultBatcherTest.this::record, BatchConfig.builder()
+                .batchSize(100)
+                .maxDelay(Duration.ofMillis(20))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            batcher.append(source, 1, response("a", 1));
+
+            assertThat(delivered.poll(1, TimeUnit.SECONDS)).containsExactly("job/plc/a=1");
+        }
+
+        @Test
+        void closeDeliversPendingRows() throws Exception {
+            batcher = new ResultBatcher(ResultBatcherTest.this::record, BatchConfig.builder()
+                .batchSize(100)
+                .maxDelay(Duration.ofMinutes(1))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+            batcher.append(source, 1, response("a", 1));
+
+            batcher.close();
+
+            assertThat(delivered.poll()).containsExactly("job/plc/a=1");
+            assertThat(batcher.getDeliveredBatches()).isEqualTo(1);
+            assertThat(batcher.getDeliveredRows()).isEqualTo(1);
+            assertThat(batcher.append(source, 2, response("a", 2))).isFalse();
+            assertThat(batcher.getDroppedRows()).isEqualTo(1);
+        }
+
+        @Test
+        void canBeRestarted() throws Exception {
+            batcher = new ResultBatcher(ResultBatcherTest.this::record, BatchConfig.builder()
+                .maxDelay(Duration.ofMillis(10))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+            batcher.close();
+
+            batcher.start();
+            assertThat(batcher.append(source, 1, response("a", 1))).isTrue();
+
+            assertThat(delivered.poll(1, TimeUnit.SECONDS)).containsExactly("job/plc/a=1");
+            assertThatThrownBy(batcher::start).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    class BackPressure {
+        @Test
+        void dropsRowsIfHandlerFallsBehind() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            batcher = new ResultBatcher(batch -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, BatchConfig.builder()
+                .batchSize(1)
+                .buffers(2)
+                .blockTimeout(Duration.ofMillis(10))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            // One batch is held by the handler, the other one gets filled, the third scrape has no batch left.
+            assertThat(batcher.append(source, 1, response("a", 1))).isTrue();
+            assertThat(batcher.append(source, 2, response("a", 2))).isTrue();
+            assertThat(batcher.append(source, 3, response("a", 3, "b", 4))).isFalse();
+            assertThat(batcher.getDroppedRows()).isEqualTo(2);
+
+            release.countDown();
+            batcher.close();
+            assertThat(batcher.getDeliveredRows()).isEqualTo(2);
+        }
+
+        @Test
+        void dropsAllRowsOfAScrapeThatDoesNotFit() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            batcher = new ResultBatcher(batch -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                record(batch);
+            }, BatchConfig.builder()
+                .batchSize(2)
+                .buffers(2)
+                .maxDelay(Duration.ofMinutes(1))
+                .blockTimeout(Duration.ofMillis(10))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            // The first batch is held by the handler, the second one only has room for one more row.
+            assertThat(batcher.append(source, 1, response("a", 1, "b", 2, "c", 3))).isTrue();
+            assertThat(batcher.append(source, 2, response("d", 4, "e", 5))).isFalse();
+            assertThat(batcher.getDroppedRows()).isEqualTo(2);
+
+            release.countDown();
+            batcher.close();
+            assertThat(delivered).containsExactly(
+                Arrays.asList("job/plc/a=1", "job/plc/b=2"),
+                Collections.singletonList("job/plc/c=3"));
+        }
+
+        @Test
+        void dropsScrapeLargerThanAllBatches() {
+            batcher = new ResultBatcher(ResultBatcherTest.this::record, BatchConfig.builder()
+                .batchSize(1)
+                .buffers(2)
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            assertThat(batcher.append(source, 1, response("a", 1, "b", 2, "c", 3))).isFalse();
+            assertThat(batcher.getDroppedRows()).isEqualTo(3);
+        }
+
+        @Test
+        void blockedScrapeContinuesOnceBatchIsFree() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            batcher = new ResultBatcher(batch -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, BatchConfig.builder()
+                .batchSize(1)
+                .buffers(2)
+                .blockTimeout(Duration.ofSeconds(5))
+                .build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+            batcher.append(source, 1, response("a", 1));
+            batcher.append(source, 2, response("a", 2));
+
+            new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            }).start();
+
+            assertThat(batcher.append(source, 3, response("a", 3))).isTrue();
+            assertThat(batcher.getDroppedRows()).isZero();
+        }
+    }
+
+    @Nested
+    class Columns {
+        @Test
+        void storesValuesByType() throws Exception {
+            List<ResultBatch.ValueType> types = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            batcher = new ResultBatcher(batch -> {
+                for (int row = 0; row < batch.size(); row++) {
+                    types.add(batch.getType(row));
+                    values.add(batch.getObject(row));
+                }
+                assertThat(batch.getBoolean(0)).isTrue();
+                assertThat(batch.getLong(1)).isEqualTo(42);
+                assertThat(batch.getDouble(1)).isEqualTo(42.0);
+                assertThat(batch.getDouble(2)).isEqualTo(1.5);
+                assertThatThrownBy(() -> batch.getLong(3)).isInstanceOf(IllegalStateException.class);
+                assertThat(batch.getResponseCode(4)).isEqualTo(PlcResponseCode.NOT_FOUND);
+                assertThat(batch.getTimestamp(4)).isEqualTo(7);
+                assertThatThrownBy(() -> batch.getTimestamp(5)).isInstanceOf(IndexOutOfBoundsException.class);
+            }, BatchConfig.builder().batchSize(5).build());
+            batcher.start();
+            int source = batcher.registerSource("job", "plc");
+
+            Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> fields = new LinkedHashMap<>();
+            fields.put("bool", Pair.of(PlcResponseCode.OK, new DefaultBooleanFieldItem(true)));
+            fields.put("int", Pair.of(PlcResponseCode.OK, new DefaultIntegerFieldItem(42)));
+            fields.put("double", Pair.of(PlcResponseCode.OK, new DefaultDoubleFieldItem(1.5)));
+            fields.put("string", Pair.of(PlcResponseCode.OK, new DefaultStringFieldItem("hello")));
+            fields.put("missing", Pair.of(PlcResponseCode.NOT_FOUND, null));
+            batcher.append(source, 7, response(fields));
+            batcher.close();
+
+            assertThat(batcher.getDeliveredRows()).isEqualTo(5);
+            assertThat(types).containsExactly(ResultBatch.ValueType.BOOLEAN, ResultBatch.ValueType.LONG,
+                ResultBatch.ValueType.DOUBLE, ResultBatch.ValueType.OBJECT, ResultBatch.ValueType.NONE);
+            assertThat(values).containsExactly(true, 42L, 1.5, "hello", null);
+        }
+
+        @Test
+        void idsAreStable() {
+            batcher = new ResultBatcher(batch -> {}, BatchConfig.builder().build());
+            int first = batcher.registerSource("job", "plc1");
+            int second = batcher.registerSource("job", "plc2");
+
+            assertThat(batcher.registerSource("job", "plc1")).isEqualTo(first);
+            assertThat(second).isNotEqualTo(first);
+            assertThat(batcher.getAlias(second)).isEqualTo("plc2");
+            assertThat(batcher.getFieldId("a")).isEqualTo(batcher.getFieldId("a"));
+            assertThat(batcher.getFieldName(batcher.getFieldId("b"))).isEqualTo("b");
+        }
+    }
+
+    @Nested
+    class Config {
+        @Test
+        void rejectsInvalidBounds() {
+            assertThatThrownBy(() -> BatchConfig.builder().batchSize(0)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> BatchConfig.builder().buffers(1)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> BatchConfig.builder().maxDelay(Duration.ofMillis(-1))).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private void record(ResultBatch batch) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row < batch.size(); row++) {
+            rows.add(batch.getJobName(row) + "/" + batch.getAlias(row) + "/" + batch.getFieldName(row) + "=" + batch.getObject(row));
+        }
+        delivered.add(rows);
+    }
+}
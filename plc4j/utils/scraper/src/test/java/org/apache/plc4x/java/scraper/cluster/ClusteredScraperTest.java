@@ -0,0 +1,183 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.cluster;
+
+import org.apache.plc4x.java.PlcDriverManager;
+import org.apache.plc4x.java.scraper.ScrapeJob;
+import org.apache.plc4x.java.scraper.Scraper;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ClusteredScraperTest implements WithAssertions {
+
+    @Nested
+    class Ring {
+        @Test
+        void spreadsKeysEvenly() {
+            ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("n1", "n2", "n3"));
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < 3_000; i++) {
+                counts.merge(ring.getOwner("plc" + i), 1, Integer::sum);
+            }
+            assertThat(counts).containsOnlyKeys("n1", "n2", "n3");
+            assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1_300));
+        }
+
+        @Test
+        void joiningMemberOnlyTakesKeys() {
+            ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("n1", "n2", "n3"));
+            ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("n1", "n2", "n3", "n4"));
+            int moved = 0;
+            for (int i = 0; i < 3_000; i++) {
+                String key = "plc" + i;
+                if (!before.getOwner(key).equals(after.getOwner(key))) {
+                    assertThat(after.getOwner(key)).isEqualTo("n4");
+                    moved++;
+                }
+            }
+            // Ideally a quarter of the keys move.
+            assertThat(moved).isBetween(450, 1_050);
+        }
+
+        @Test
+        void ownerIsIndependentOfMemberOrder() {
+            ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("n1", "n2", "n3"));
+            ConsistentHashRing reversed = new ConsistentHashRing(Arrays.asList("n3", "n2", "n1"));
+            for (int i = 0; i < 100; i++) {
+                assertThat(reversed.getOwner("plc" + i)).isEqualTo(ring.getOwner("plc" + i));
+            }
+        }
+
+        @Test
+        void emptyRingHasNoOwner() {
+            assertThat(new ConsistentHashRing(Collections.emptyList()).getOwner("plc")).isNull();
+        }
+    }
+
+    @Nested
+    class Sharding {
+        @Test
+        void nodesSplitAllSourcesOfAllJobs() {
+            List<ScrapeJob> jobs = jobs(20);
+            ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("n1", "n2", "n3"));
+
+            Set<String> scraped = new HashSet<>();
+            int tasks = 0;
+            for (String node : ring.getMembers()) {
+                for (ScrapeJob job : ClusteredScraper.shard(jobs, ring, node)) {
+                    for (String alias : job.getConnections().keySet()) {
+                        assertThat(ring.getOwner(alias)).isEqualTo(node);
+                        scraped.add(job.getName() + "/" + alias);
+                        tasks++;
+                    }
+                }
+            }
+            assertThat(tasks).isEqualTo(40);
+            assertThat(scraped).hasSize(40);
+        }
+
+        @Test
+        void followsMembershipChanges() throws IOException {
+            Path file = Files.createTempFile("members", ".txt");
+            try {
+                Files.write(file, Arrays.asList("n1", "n2"), StandardCharsets.UTF_8);
+                FileMembershipProvider membership = new FileMembershipProvider(file);
+                Scraper scraper = new Scraper((j, a, m) -> {}, new PlcDriverManager(), jobs(20));
+                ClusteredScraper node = new ClusteredScraper("n1", scraper.getJobs(), scraper, membership, 128);
+                node.start();
+                Set<String> ownedWithTwo = node.getOwnedSources();
+                assertThat(ownedWithTwo).isNotEmpty();
+                assertThat(scraper.getNumberOfActiveTasks()).isEqualTo(2 * ownedWithTwo.size());
+
+                Files.write(file, Arrays.asList("n1", "n2", "n3"), StandardCharsets.UTF_8);
+                assertThat(membership.refresh()).isTrue();
+
+                // A joining member only takes sources away.
+                assertThat(ownedWithTwo).containsAll(node.getOwnedSources());
+                assertThat(scraper.getNumberOfActiveTasks()).isEqualTo(2 * node.getOwnedSources().size());
+
+                Files.write(file, Collections.singletonList("n2"), StandardCharsets.UTF_8);
+                membership.refresh();
+                assertThat(node.getOwnedSources()).isEmpty();
+                assertThat(scraper.getNumberOfActiveTasks()).isZero();
+
+                node.stop();
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Nested
+    class FileMembership {
+        @Test
+        void readsMembersIgnoringCommentsAndBlankLines() throws IOException {
+            Path file = Files.createTempFile("members", ".txt");
+            try {
+                Files.write(file, Arrays.asList("# nodes", "n1", "", "  n2  ", "n1"), StandardCharsets.UTF_8);
+                FileMembershipProvider membership = new FileMembershipProvider(file);
+                AtomicInteger notifications = new AtomicInteger();
+                membership.addListener(members -> notifications.incrementAndGet());
+
+                assertThat(membership.getMembers()).containsExactly("n1", "n2");
+                assertThat(membership.refresh()).isFalse();
+
+                Files.delete(file);
+                assertThat(membership.refresh()).isFalse();
+                assertThat(membership.getMembers()).containsExactly("n1", "n2");
+                assertThat(notifications).hasValue(0);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @Test
+        void staticMembers() {
+            assertThat(new StaticMembershipProvider("n1", "n2").getMembers()).containsExactly("n1", "n2");
+            assertThatThrownBy(StaticMembershipProvider::new).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static List<ScrapeJob> jobs(int sources) {
+        Map<String, String> connections = new LinkedHashMap<>();
+        for (int i = 0; i < sources; i++) {
+            connections.put("plc" + i, "mock:plc" + i);
+        }
+        List<ScrapeJob> jobs = new ArrayList<>();
+        jobs.add(new ScrapeJob("fast", 100, connections, Collections.singletonMap("a", "qry1")));
+        jobs.add(new ScrapeJob("slow", 1_000, connections, Collections.singletonMap("b", "qry2")));
+        return jobs;
+    }
+}
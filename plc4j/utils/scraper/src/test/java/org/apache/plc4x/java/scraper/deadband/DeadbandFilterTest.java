@@ -0,0 +1,207 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.deadband;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.plc4x.java.api.types.PlcResponseCode;
+import org.apache.plc4x.java.base.messages.items.BaseDefaultFieldItem;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.apache.plc4x.java.scraper.TestResponses.response;
+
+class DeadbandFilterTest implements WithAssertions {
+
+    private final boolean[] selected = new boolean[4];
+
+    @Nested
+    class Numeric {
+        @Test
+        void absoluteDeadband() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .defaultDeadband(Deadband.absolute(0.5))
+                .build());
+
+            assertThat(filter.filter(response("a", 10.0), 0, selected)).isEqualTo(1);
+            assertThat(filter.filter(response("a", 10.4), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", 9.6), 2, selected)).isZero();
+            assertThat(filter.filter(response("a", 10.6), 3, selected)).isEqualTo(1);
+            // Compared to the last reported value, not the last scraped one.
+            assertThat(filter.filter(response("a", 10.2), 4, selected)).isZero();
+            assertThat(filter.getReportedValues()).isEqualTo(2);
+            assertThat(filter.getSuppressedValues()).isEqualTo(3);
+        }
+
+        @Test
+        void percentDeadband() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .defaultDeadband(Deadband.percent(10))
+                .build());
+
+            filter.filter(response("a", 200L), 0, selected);
+            assertThat(filter.filter(response("a", 219L), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", 221L), 2, selected)).isEqualTo(1);
+        }
+
+        @Test
+        void absoluteDeadbandOnIntegers() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .defaultDeadband(Deadband.absolute(5))
+                .build());
+
+            filter.filter(response("a", 100L), 0, selected);
+            assertThat(filter.filter(response("a", 105L), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", 95L), 2, selected)).isZero();
+            assertThat(filter.filter(response("a", 106L), 3, selected)).isEqualTo(1);
+        }
+
+        @Test
+        void exactComparesLargeLongs() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder().build());
+
+            filter.filter(response("a", Long.MAX_VALUE - 1), 0, selected);
+            assertThat(filter.filter(response("a", Long.MAX_VALUE - 1), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", Long.MAX_VALUE), 2, selected)).isEqualTo(1);
+        }
+
+        @Test
+        void perFieldDeadbands() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .deadband("coarse", Deadband.absolute(5))
+                .build());
+
+            filter.filter(response("coarse", 10.0, "fine", 10.0), 0, selected);
+            assertThat(filter.filter(response("coarse", 11.0, "fine", 11.0), 1, selected)).isEqualTo(1);
+            assertThat(selected).startsWith(false, true);
+        }
+
+        @Test
+        void nan() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .defaultDeadband(Deadband.absolute(1))
+                .build());
+
+            filter.filter(response("a", Double.NaN), 0, selected);
+            assertThat(filter.filter(response("a", Double.NaN), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", 1.0), 2, selected)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Other {
+        @Test
+        void exactCompare() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .defaultDeadband(Deadband.absolute(100))
+                .build());
+
+            filter.filter(response("a", "on"), 0, selected);
+            assertThat(filter.filter(response("a", "on"), 1, selected)).isZero();
+            assertThat(filter.filter(response("a", "off"), 2, selected)).isEqualTo(1);
+        }
+
+        @Test
+        void changedResponseCode() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder().build());
+            Map<String, Pair<PlcResponseCode, BaseDefaultFieldItem>> failed = new LinkedHashMap<>();
+            failed.put("a", Pair.of(PlcResponseCode.NOT_FOUND, null));
+
+            filter.filter(response("a", 1L), 0, selected);
+            assertThat(filter.filter(response(failed), 1, selected)).isEqualTo(1);
+            assertThat(filter.filter(response(failed), 2, selected)).isZero();
+            assertThat(filter.filter(response("a", 1L), 3, selected)).isEqualTo(1);
+        }
+
+        @Test
+        void maxSilence() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder()
+                .maxSilence(Duration.ofMillis(100))
+                .build());
+
+            filter.filter(response("a", 1L), 0, selected);
+            assertThat(filter.filter(response("a", 1L), 99, selected)).isZero();
+            assertThat(filter.filter(response("a", 1L), 100, selected)).isEqualTo(1);
+            assertThat(filter.filter(response("a", 1L), 150, selected)).isZero();
+        }
+
+        @Test
+        void changedFieldsResetTheFilter() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder().build());
+
+            filter.filter(response("a", 1L), 0, selected);
+            assertThat(filter.filter(response("a", 1L, "b", 2L), 1, selected)).isEqualTo(2);
+            assertThat(filter.filter(response("a", 1L, "b", 2L), 2, selected)).isZero();
+        }
+    }
+
+    @Nested
+    class SelectAndCommit {
+        @Test
+        void uncommittedChangesAreSelectedAgain() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder().build());
+            filter.filter(response("a", 1L, "b", 1L), 0, selected);
+
+            assertThat(filter.select(response("a", 2L, "b", 1L), 1, selected)).isEqualTo(1);
+            assertThat(filter.select(response("a", 2L, "b", 1L), 2, selected)).isEqualTo(1);
+            filter.commit(response("a", 2L, "b", 1L), 2, selected);
+            assertThat(filter.select(response("a", 2L, "b", 1L), 3, selected)).isZero();
+            assertThat(filter.getReportedValues()).isEqualTo(3);
+            assertThat(filter.getSuppressedValues()).isEqualTo(4);
+        }
+
+        @Test
+        void olderCommitIsSkipped() {
+            DeadbandFilter filter = new DeadbandFilter(DeadbandConfig.builder().build());
+            boolean[] older = new boolean[1];
+            filter.filter(response("a", 1L), 0, selected);
+
+            filter.select(response("a", 2L), 1, older);
+            filter.filter(response("a", 3L), 2, selected);
+            filter.commit(response("a", 2L), 1, older);
+
+            assertThat(filter.select(response("a", 3L), 3, selected)).isZero();
+        }
+    }
+
+    @Nested
+    class Config {
+        @Test
+        void rejectsInvalidValues() {
+            assertThatThrownBy(() -> Deadband.absolute(-1)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> Deadband.percent(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> DeadbandConfig.builder().maxSilence(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void fieldDeadbandOverridesDefault() {
+            DeadbandConfig config = DeadbandConfig.builder()
+                .defaultDeadband(Deadband.percent(1))
+                .deadband("a", Deadband.absolute(2))
+                .build();
+
+            assertThat(config.getDeadband("a").getType()).isEqualTo(Deadband.Type.ABSOLUTE);
+            assertThat(config.getDeadband("b").getType()).isEqualTo(Deadband.Type.PERCENT);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ Licensed to the Apache Software Foundation (ASF) under one
+ or more contributor license agreements.  See the NOTICE file
+ distributed with this work for additional information
+ regarding copyright ownership.  The ASF licenses this file
+ to you under the Apache License, Version 2.0 (the
+ "License"); you may not use this file except in compliance
+ with the License.  You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing,
+ software distributed under the License is distributed on an
+ "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ KIND, either express or implied.  See the License for the
+ specific language governing permissions and limitations
+ under the License.
+ */
+package org.apache.plc4x.java.scraper.scheduling;
+
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+class CycleSchedulerTest implements WithAssertions {
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Nested
+    class Phases {
+        @Test
+        void aligned() {
+            assertThat(PhaseStrategy.aligned().getPhase("job", "plc", 100)).isZero();
+        }
+
+        @Test
+        void hashedIsStableAndWithinPeriod() {
+            PhaseStrategy strategy = PhaseStrategy.hashed();
+            for (int i = 0; i < 100; i++) {
+                long phase = strategy.getPhase("job", "plc" + i, 7);
+                assertThat(phase).isBetween(0L, 6L);
+                assertThat(strategy.getPhase("job", "plc" + i, 7)).isEqualTo(phase);
+            }
+        }
+
+        @Test
+        void hashedSpreadsSimilarNames() {
+            Set<Long> phases = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                phases.add(PhaseStrategy.hashed().getPhase("job", "plc" + i, 1_000));
+            }
+            assertThat(phases.size()).isGreaterThan(90);
+        }
+
+        @Test
+        void firstRunStartsAtPhase() throws Exception {
+            CountDownLatch ran = new CountDownLatch(1);
+            long scheduled = System.nanoTime();
+            long[] started = new long[1];
+            ScheduledCycle cycle = new CycleScheduler(executor, (job, alias, period) -> 50).schedule(() -> {
+                started[0] = System.nanoTime();
+                ran.countDown();
+            }, "job", "plc", 1_000);
+
+            assertThat(ran.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(started[0] - scheduled).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+            cycle.cancel(false);
+        }
+
+        @Test
+        void rejectsPhaseOutsidePeriod() {
+            CycleScheduler scheduler = new CycleScheduler(executor, (job, alias, period) -> period);
+            assertThatThrownBy(() -> scheduler.schedule(() -> {}, "job", "plc", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Cycles {
+        @Test
+        void slowRunsSkipCyclesInsteadOfBursting() throws Exception {
+            List<Long> starts = new CopyOnWriteArrayList<>();
+            ScheduledCycle cycle = new CycleScheduler(executor, PhaseStrategy.aligned()).schedule(() -> {
+                starts.add(System.nanoTime());
+                sleep(50);
+            }, "job", "plc", 20);
+
+            Thread.sleep(400);
+            cycle.cancel(false);
+
+            assertThat(starts.size()).isGreaterThan(2);
+            for (int i = 1; i < starts.size(); i++) {
+                // A run takes 50 ms, the next one has to wait for the cycle due at 60 ms.
+                assertThat(starts.get(i) - starts.get(i - 1)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+            assertThat(cycle.getMissedCycles()).isGreaterThanOrEqualTo(2 * (cycle.getExecutedCycles() - 1));
+        }
+
+        @Test
+        void fastRunsMissNoCycle() throws Exception {
+            ScheduledCycle cycle = new CycleScheduler(executor, PhaseStrategy.aligned()).schedule(() -> {}, "job", "plc", 20);
+
+            Thread.sleep(300);
+            cycle.cancel(false);
+
+            assertThat(cycle.getExecutedCycles()).isGreaterThan(5);
+            assertThat(cycle.getMissedCycles()).isZero();
+        }
+
+        @Test
+        void exceptionsDoNotStopTheCycle() throws Exception {
+            CountDownLatch runs = new CountDownLatch(3);
+            ScheduledCycle cycle = new CycleScheduler(executor, PhaseStrategy.aligned()).schedule(() -> {
+                runs.countDown();
+                throw new IllegalStateException("expected");
+            }, "job", "plc", 10);
+
+            assertThat(runs.await(1, TimeUnit.SECONDS)).isTrue();
+            cycle.cancel(false);
+        }
+
+        @Test
+        void cancelStopsTheCycle() throws Exception {
+            ScheduledCycle cycle = new CycleScheduler(executor, PhaseStrategy.aligned()).schedule(() -> {}, "job", "plc", 10);
+            Thread.sleep(50);
+
+            cycle.cancel(false);
+            Thread.sleep(20);
+            long executed = cycle.getExecutedCycles();
+            Thread.sleep(50);
+
+            assertThat(cycle.isCancelled()).isTrue();
+            assertThat(cycle.getExecutedCycles()).isEqualTo(executed);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
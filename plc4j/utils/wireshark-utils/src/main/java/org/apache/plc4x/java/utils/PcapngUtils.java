@@ -32,6 +32,13 @@ public class PcapngUtils {
       throw new IllegalStateException("Utility class!");
     }
 
+    /**
+     * Writes a single packet with fixed addresses and no timestamp to a new file.
+     *
+     * @deprecated use a {@link org.apache.plc4x.java.utils.pcapng.PcapngWriter} or add a
+     * {@link org.apache.plc4x.java.utils.pcapng.PcapngCaptureHandler} to the pipeline of the connection instead.
+     */
+    @Deprecated
     public static void dumpPacket(ByteBuffer data, int length, String name) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         DataOutputStream dos = new DataOutputStream(out);
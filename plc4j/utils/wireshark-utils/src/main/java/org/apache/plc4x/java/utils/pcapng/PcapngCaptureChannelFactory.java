@@ -0,0 +1,67 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
+import org.apache.plc4x.java.base.connection.ChannelFactory;
+
+import java.util.Optional;
+
+/**
+ * Wraps the channel factory of a connection, so the traffic of every channel it creates is captured by a
+ * {@link PcapngCaptureHandler}.
+ */
+public class PcapngCaptureChannelFactory implements ChannelFactory {
+
+    private final ChannelFactory delegate;
+
+    private final PcapngWriter writer;
+
+    public PcapngCaptureChannelFactory(ChannelFactory delegate, PcapngWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public Channel createChannel(ChannelHandler channelHandler) throws PlcConnectionException {
+        return delegate.createChannel(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) {
+                channel.pipeline().addLast(new PcapngCaptureHandler(writer), channelHandler);
+            }
+        });
+    }
+
+    @Override
+    public <T extends ChannelFactory> Optional<T> unwrap(Class<T> type) {
+        return type.isInstance(this) ? Optional.of(type.cast(this)) : delegate.unwrap(type);
+    }
+
+    public ChannelFactory getDelegate() {
+        return delegate;
+    }
+
+    public PcapngWriter getWriter() {
+        return writer;
+    }
+
+}
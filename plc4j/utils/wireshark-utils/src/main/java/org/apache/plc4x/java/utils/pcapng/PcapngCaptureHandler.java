@@ -0,0 +1,193 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records all bytes read from and written to a channel into a pcapng file.
+ * <p>
+ * Put it at the head of a driver pipeline (e.g. via {@link PcapngCaptureChannelFactory}) to see the traffic as it
+ * goes over the wire. Every read and write becomes a packet with an IPv4 and TCP header made up from the addresses
+ * of the channel, so Wireshark dissects the capture like one taken on the network. Captures are written with the
+ * {@link PcapngWriter#LINK_TYPE_RAW} link type and record the direction of every packet.
+ * <p>
+ * A handler keeps the TCP sequence numbers of its channel, so it must not be shared between channels. The writer
+ * can be shared. Failing to write the capture is logged and never affects the channel.
+ */
+public class PcapngCaptureHandler extends ChannelDuplexHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PcapngCaptureHandler.class);
+
+    private static final int HEADER_LENGTH = 40;
+
+    private static final int MAX_SEGMENT_LENGTH = 0xFFFF - HEADER_LENGTH;
+
+    private final PcapngWriter writer;
+
+    private final long epochOffsetNanos;
+
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+    private byte[] localAddress;
+
+    private int localPort;
+
+    private byte[] remoteAddress;
+
+    private int remotePort;
+
+    private int localSequence;
+
+    private int remoteSequence;
+
+    private short identification;
+
+    public PcapngCaptureHandler(PcapngWriter writer) {
+        this.writer = writer;
+        this.epochOffsetNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            capture(ctx, PcapngDirection.INBOUND, (ByteBuf) msg);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            capture(ctx, PcapngDirection.OUTBOUND, (ByteBuf) msg);
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            writer.scheduleFlush();
+        } catch (IOException e) {
+            LOGGER.warn("Error flushing capture", e);
+        }
+        super.channelInactive(ctx);
+    }
+
+    private void capture(ChannelHandlerContext ctx, PcapngDirection direction, ByteBuf buf) {
+        if (localAddress == null) {
+            resolveAddresses(ctx);
+        }
+        long timestampNanos = epochOffsetNanos + System.nanoTime();
+        try {
+            int offset = buf.readerIndex();
+            int remaining = buf.readableBytes();
+            do {
+                int length = Math.min(remaining, MAX_SEGMENT_LENGTH);
+                writer.writePacket(timestampNanos, direction, header(direction, length), buf.nioBuffer(offset, length));
+                offset += length;
+                remaining -= length;
+            } while (remaining > 0);
+        } catch (IOException e) {
+            LOGGER.warn("Error capturing {} bytes", buf.readableBytes(), e);
+        }
+    }
+
+    private ByteBuffer header(PcapngDirection direction, int length) {
+        boolean inbound = direction == PcapngDirection.INBOUND;
+        header.clear();
+        // IPv4 header
+        header.put((byte) 0x45);
+        header.put((byte) 0x00);
+        header.putShort((short) (HEADER_LENGTH + length));
+        header.putShort(identification++);
+        // Don't fragment
+        header.putShort((short) 0x4000);
+        // TTL and TCP
+        header.put((byte) 64);
+        header.put((byte) 6);
+        header.putShort((short) 0);
+        header.put(inbound ? remoteAddress : localAddress);
+        header.put(inbound ? localAddress : remoteAddress);
+        header.putShort(10, checksum(header));
+        // TCP header
+        header.putShort((short) (inbound ? remotePort : localPort));
+        header.putShort((short) (inbound ? localPort : remotePort));
+        header.putInt(inbound ? remoteSequence : localSequence);
+        header.putInt(inbound ? localSequence : remoteSequence);
+        // Header length 20, PSH and ACK
+        header.putShort((short) 0x5018);
+        // Window, checksum (not calculated) and urgent pointer
+        header.putShort((short) 0xFFFF);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.flip();
+        if (inbound) {
+            remoteSequence += length;
+        } else {
+            localSequence += length;
+        }
+        return header;
+    }
+
+    private void resolveAddresses(ChannelHandlerContext ctx) {
+        SocketAddress local = ctx.channel().localAddress();
+        SocketAddress remote = ctx.channel().remoteAddress();
+        localAddress = addressOf(local, new byte[]{127, 0, 0, 1});
+        localPort = portOf(local);
+        remoteAddress = addressOf(remote, new byte[]{127, 0, 0, 2});
+        remotePort = portOf(remote);
+    }
+
+    private static byte[] addressOf(SocketAddress socketAddress, byte[] fallback) {
+        if (socketAddress instanceof InetSocketAddress
+            && ((InetSocketAddress) socketAddress).getAddress() instanceof Inet4Address) {
+            return ((InetSocketAddress) socketAddress).getAddress().getAddress();
+        }
+        return fallback;
+    }
+
+    private static int portOf(SocketAddress socketAddress) {
+        return (socketAddress instanceof InetSocketAddress) ? ((InetSocketAddress) socketAddress).getPort() : 0;
+    }
+
+    private static short checksum(ByteBuffer ipHeader) {
+        int sum = 0;
+        for (int i = 0; i < 20; i += 2) {
+            sum += ipHeader.getShort(i) & 0xFFFF;
+        }
+        while ((sum >>> 16) != 0) {
+            sum = (sum & 0xFFFF) + (sum >>> 16);
+        }
+        return (short) ~sum;
+    }
+
+}
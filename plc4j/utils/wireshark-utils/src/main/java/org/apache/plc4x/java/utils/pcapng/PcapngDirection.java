@@ -0,0 +1,50 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+/**
+ * Direction of a packet as stored in the {@code epb_flags} option of a pcapng enhanced packet block.
+ */
+public enum PcapngDirection {
+    UNKNOWN(0),
+    INBOUND(1),
+    OUTBOUND(2);
+
+    private final int flags;
+
+    PcapngDirection(int flags) {
+        this.flags = flags;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public static PcapngDirection ofFlags(int flags) {
+        switch (flags & 0x3) {
+            case 1:
+                return INBOUND;
+            case 2:
+                return OUTBOUND;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+/**
+ * A packet read from a pcapng file.
+ */
+public class PcapngPacket {
+
+    private final long timestampNanos;
+
+    private final int linkType;
+
+    private final PcapngDirection direction;
+
+    private final byte[] data;
+
+    public PcapngPacket(long timestampNanos, int linkType, PcapngDirection direction, byte[] data) {
+        this.timestampNanos = timestampNanos;
+        this.linkType = linkType;
+        this.direction = direction;
+        this.data = data;
+    }
+
+    /**
+     * @return capture time in nanoseconds since the epoch.
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * @return link type of the interface the packet was captured on, e.g. {@link PcapngWriter#LINK_TYPE_RAW}.
+     */
+    public int getLinkType() {
+        return linkType;
+    }
+
+    public PcapngDirection getDirection() {
+        return direction;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "PcapngPacket{" +
+            "timestampNanos=" + timestampNanos +
+            ", linkType=" + linkType +
+            ", direction=" + direction +
+            ", length=" + data.length +
+            '}';
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the packets of a pcapng file, as written by {@link PcapngWriter} or by Wireshark, one at a time.
+ * <p>
+ * The file is memory-mapped, so it must not be larger than 2 GiB, a rolling capture keeps its files well below
+ * that. Only enhanced packet blocks are returned, all other blocks except for section headers and interface
+ * descriptions are skipped.
+ */
+public class PcapngReader implements Closeable {
+
+    private final FileChannel channel;
+
+    private final ByteBuffer data;
+
+    private final List<Interface> interfaces = new ArrayList<>();
+
+    private PcapngReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Capture files larger than 2 GiB are not supported");
+        }
+        this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    public static PcapngReader open(Path file) throws IOException {
+        return new PcapngReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return the next packet or {@code null} at the end of the file.
+     * @throws IOException if the file isn't a valid pcapng file.
+     */
+    public PcapngPacket next() throws IOException {
+        while (data.hasRemaining()) {
+            int start = data.position();
+            if (data.remaining() < 12) {
+                throw new IOException("Truncated block at offset " + start);
+            }
+            int type = data.getInt(start);
+            if (type == PcapngWriter.SECTION_HEADER_BLOCK) {
+                readByteOrder(start);
+            } else if (start == 0) {
+                throw new IOException("Not a pcapng file");
+            }
+            int length = data.getInt(start + 4);
+            if (length < 12 || (length & 3) != 0 || length > data.remaining()) {
+                throw new IOException("Invalid length " + length + " of block at offset " + start);
+            }
+            data.position(start + length);
+            if (type == PcapngWriter.INTERFACE_DESCRIPTION_BLOCK) {
+                interfaces.add(readInterface(start, length));
+            } else if (type == PcapngWriter.ENHANCED_PACKET_BLOCK) {
+                return readPacket(start, length);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readByteOrder(int start) throws IOException {
+        data.order(ByteOrder.BIG_ENDIAN);
+        int magic = data.getInt(start + 8);
+        if (magic == PcapngWriter.BYTE_ORDER_MAGIC) {
+            data.order(ByteOrder.BIG_ENDIAN);
+        } else if (magic == Integer.reverseBytes(PcapngWriter.BYTE_ORDER_MAGIC)) {
+            data.order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            throw new IOException("Invalid byte order magic at offset " + start);
+        }
+        // Interface ids are numbered per section.
+        interfaces.clear();
+    }
+
+    private Interface readInterface(int start, int length) {
+        int linkType = data.getShort(start + 8) & 0xFFFF;
+        // Microseconds unless specified otherwise.
+        int resolution = 6;
+        int option = start + 16;
+        int end = start + length - 4;
+        while (option + 4 <= end) {
+            short code = data.getShort(option);
+            int optionLength = data.getShort(option + 2) & 0xFFFF;
+            if (code == PcapngWriter.OPTION_END) {
+                break;
+            }
+            if (code == PcapngWriter.OPTION_IF_TSRESOL && optionLength == 1) {
+                resolution = data.get(option + 4);
+            }
+            option += 4 + ((optionLength + 3) & ~3);
+        }
+        return new Interface(linkType, resolution);
+    }
+
+    private PcapngPacket readPacket(int start, int length) throws IOException {
+        int interfaceId = data.getInt(start + 8);
+        if (interfaceId < 0 || interfaceId >= interfaces.size()) {
+            throw new IOException("Unknown interface " + interfaceId + " of packet at offset " + start);
+        }
+        Interface anInterface = interfaces.get(interfaceId);
+        long timestamp = ((data.getInt(start + 12) & 0xFFFFFFFFL) << 32) | (data.getInt(start + 16) & 0xFFFFFFFFL);
+        int capturedLength = data.getInt(start + 20);
+        int end = start + length - 4;
+        if (capturedLength < 0 || start + 28 + capturedLength > end) {
+            throw new IOException("Invalid captured length of packet at offset " + start);
+        }
+        byte[] packetData = new byte[capturedLength];
+        ByteBuffer packetBuffer = data.duplicate();
+        packetBuffer.position(start + 28);
+        packetBuffer.get(packetData);
+
+        PcapngDirection direction = PcapngDirection.UNKNOWN;
+        int option = start + 28 + ((capturedLength + 3) & ~3);
+        while (option + 4 <= end) {
+            short code = data.getShort(option);
+            int optionLength = data.getShort(option + 2) & 0xFFFF;
+            if (code == PcapngWriter.OPTION_END) {
+                break;
+            }
+            if (code == PcapngWriter.OPTION_EPB_FLAGS && optionLength == 4) {
+                direction = PcapngDirection.ofFlags(data.getInt(option + 4));
+            }
+            option += 4 + ((optionLength + 3) & ~3);
+        }
+        return new PcapngPacket(anInterface.toNanos(timestamp), anInterface.linkType, direction, packetData);
+    }
+
+    private static class Interface {
+
+        private final int linkType;
+
+        private final int resolution;
+
+        private Interface(int linkType, int resolution) {
+            this.linkType = linkType;
+            this.resolution = resolution;
+        }
+
+        /**
+         * Converts a timestamp from the resolution of the interface, a negative power of 10 or, with the most
+         * significant bit set, of 2.
+         */
+        private long toNanos(long timestamp) {
+            if ((resolution & 0x80) != 0) {
+                return (long) (timestamp * (1_000_000_000.0 / Math.pow(2, resolution & 0x7F)));
+            }
+            long nanos = timestamp;
+            for (int exponent = resolution; exponent < 9; exponent++) {
+                nanos *= 10;
+            }
+            for (int exponent = resolution; exponent > 9; exponent--) {
+                nanos /= 10;
+            }
+            return nanos;
+        }
+    }
+
+}
@@ -0,0 +1,396 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.plc4x.java.api.exceptions.PlcConnectionException;
+import org.apache.plc4x.java.base.connection.ChannelFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates channels that are fed with the traffic of a recorded capture instead of a real device, so problems seen
+ * on site can be reproduced locally.
+ * <p>
+ * The channel is connected to an in-process peer that replays the payloads the device sent, either with their
+ * original timing or as fast as possible. By default the peer waits for the driver to send as many bytes as it had
+ * sent at that point of the capture, so responses don't overtake their requests. Replays work best with the driver
+ * and the configuration that recorded the capture, as the recorded responses are replayed unchanged.
+ * <p>
+ * Captures written by {@link PcapngCaptureHandler} record the direction of every packet. For other captures (e.g.
+ * taken with Wireshark) the port of the device tells the directions apart. IPv4 TCP and UDP packets captured on
+ * Ethernet or raw IP interfaces are supported, TCP retransmissions are not filtered.
+ */
+public class PcapngReplayChannelFactory implements ChannelFactory {
+
+    public enum Pacing {
+        /**
+         * Keep the gaps between packets of the capture.
+         */
+        ORIGINAL,
+        /**
+         * Replay packets as fast as the driver reads them.
+         */
+        MAXIMUM
+    }
+
+    private static final AtomicInteger REPLAY_COUNTER = new AtomicInteger();
+
+    private final Path capture;
+
+    private final Pacing pacing;
+
+    private final boolean awaitRequests;
+
+    private final int devicePort;
+
+    private volatile CompletableFuture<Void> replayCompletion;
+
+    private PcapngReplayChannelFactory(Path capture, Pacing pacing, boolean awaitRequests, int devicePort) {
+        this.capture = capture;
+        this.pacing = pacing;
+        this.awaitRequests = awaitRequests;
+        this.devicePort = devicePort;
+    }
+
+    public static PcapngReplayChannelFactoryBuilder builder(Path capture) {
+        return new PcapngReplayChannelFactoryBuilder(capture);
+    }
+
+    @Override
+    public Channel createChannel(ChannelHandler channelHandler) throws PlcConnectionException {
+        List<ReplayFrame> frames;
+        try {
+            frames = readFrames(capture, devicePort);
+        } catch (IOException e) {
+            throw new PlcConnectionException("Error reading capture " + capture, e);
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        replayCompletion = completion;
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        try {
+            LocalAddress address = new LocalAddress("plc4x-replay-" + REPLAY_COUNTER.incrementAndGet());
+            Channel serverChannel = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ReplayHandler(frames, pacing, awaitRequests, completion))
+                .bind(address).sync().channel();
+            Channel channel = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(channelHandler)
+                .connect(address).sync().channel();
+            channel.closeFuture().addListener(future -> {
+                serverChannel.close();
+                group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            });
+            return channel;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            group.shutdownGracefully();
+            throw new PlcConnectionException("Error creating channel.", e);
+        } catch (RuntimeException e) {
+            group.shutdownGracefully();
+            throw new PlcConnectionException("Error creating channel.", e);
+        }
+    }
+
+    /**
+     * @return completes once all packets of the capture have been replayed to the last channel created, or
+     * {@code null} if no channel has been created yet.
+     */
+    public CompletableFuture<Void> getReplayCompletion() {
+        return replayCompletion;
+    }
+
+    public Path getCapture() {
+        return capture;
+    }
+
+    public Pacing getPacing() {
+        return pacing;
+    }
+
+    static List<ReplayFrame> readFrames(Path capture, int devicePort) throws IOException {
+        List<ReplayFrame> frames = new ArrayList<>();
+        long outboundBytes = 0;
+        try (PcapngReader reader = PcapngReader.open(capture)) {
+            for (PcapngPacket packet = reader.next(); packet != null; packet = reader.next()) {
+                ReplayFrame frame = toFrame(packet, devicePort, outboundBytes);
+                if (frame != null) {
+                    if (frame.outbound) {
+                        outboundBytes += frame.payload.length;
+                        frame = new ReplayFrame(frame.timestampNanos, true, frame.payload, outboundBytes);
+                    }
+                    frames.add(frame);
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * @return the transport payload of the packet or {@code null} if it has none or its direction is unknown.
+     */
+    private static ReplayFrame toFrame(PcapngPacket packet, int devicePort, long outboundBytes) throws IOException {
+        byte[] data = packet.getData();
+        int ip;
+        if (packet.getLinkType() == PcapngWriter.LINK_TYPE_RAW) {
+            ip = 0;
+        } else if (packet.getLinkType() == PcapngWriter.LINK_TYPE_ETHERNET) {
+            ip = 14;
+            while (data.length >= ip && unsignedShort(data, ip - 2) == 0x8100) {
+                ip += 4;
+            }
+            if (data.length < ip || unsignedShort(data, ip - 2) != 0x0800) {
+                return null;
+            }
+        } else {
+            throw new IOException("Unsupported link type " + packet.getLinkType());
+        }
+        if (data.length < ip + 20 || (data[ip] & 0xF0) != 0x40) {
+            return null;
+        }
+        int ipEnd = Math.min(data.length, ip + unsignedShort(data, ip + 2));
+        int transport = ip + (data[ip] & 0x0F) * 4;
+        int payload;
+        if (data[ip + 9] == 6 && ipEnd >= transport + 20) {
+            payload = transport + ((data[transport + 12] & 0xF0) >> 2);
+        } else if (data[ip + 9] == 17 && ipEnd >= transport + 8) {
+            payload = transport + 8;
+        } else {
+            return null;
+        }
+        if (payload >= ipEnd) {
+            return null;
+        }
+        PcapngDirection direction = packet.getDirection();
+        if (direction == PcapngDirection.UNKNOWN && devicePort > 0) {
+            if (unsignedShort(data, transport) == devicePort) {
+                direction = PcapngDirection.INBOUND;
+            } else if (unsignedShort(data, transport + 2) == devicePort) {
+                direction = PcapngDirection.OUTBOUND;
+            }
+        }
+        if (direction == PcapngDirection.UNKNOWN) {
+            return null;
+        }
+        byte[] bytes = new byte[ipEnd - payload];
+        System.arraycopy(data, payload, bytes, 0, bytes.length);
+        return new ReplayFrame(packet.getTimestampNanos(), direction == PcapngDirection.OUTBOUND, bytes, outboundBytes);
+    }
+
+    private static int unsignedShort(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    static class ReplayFrame {
+
+        private final long timestampNanos;
+
+        private final boolean outbound;
+
+        private final byte[] payload;
+
+        /**
+         * Number of bytes the driver sent up to and including this frame.
+         */
+        private final long outboundBytes;
+
+        ReplayFrame(long timestampNanos, boolean outbound, byte[] payload, long outboundBytes) {
+            this.timestampNanos = timestampNanos;
+            this.outbound = outbound;
+            this.payload = payload;
+            this.outboundBytes = outboundBytes;
+        }
+
+        boolean isOutbound() {
+            return outbound;
+        }
+
+        byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * The device side of a replay, runs on the event loop of its channel.
+     */
+    private static class ReplayHandler extends ChannelInboundHandlerAdapter {
+
+        private final List<ReplayFrame> frames;
+
+        private final Pacing pacing;
+
+        private final boolean awaitRequests;
+
+        private final CompletableFuture<Void> completion;
+
+        private int next;
+
+        private long receivedBytes;
+
+        private long anchorNanos;
+
+        private long anchorTimestampNanos;
+
+        private boolean scheduled;
+
+        private ReplayHandler(List<ReplayFrame> frames, Pacing pacing, boolean awaitRequests, CompletableFuture<Void> completion) {
+            this.frames = frames;
+            this.pacing = pacing;
+            this.awaitRequests = awaitRequests;
+            this.completion = completion;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            anchorNanos = System.nanoTime();
+            anchorTimestampNanos = frames.isEmpty() ? 0 : frames.get(0).timestampNanos;
+            replay(ctx);
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf) {
+                receivedBytes += ((ByteBuf) msg).readableBytes();
+            }
+            ReferenceCountUtil.release(msg);
+            replay(ctx);
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            replay(ctx);
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            if (!completion.isDone()) {
+                completion.completeExceptionally(
+                    new IOException("Channel closed after replaying " + next + " of " + frames.size() + " frames"));
+            }
+            super.channelInactive(ctx);
+        }
+
+        private void replay(ChannelHandlerContext ctx) {
+            if (scheduled) {
+                return;
+            }
+            try {
+                while (next < frames.size()) {
+                    if (!ctx.channel().isWritable()) {
+                        return;
+                    }
+                    ReplayFrame frame = frames.get(next);
+                    if (frame.outbound) {
+                        if (awaitRequests) {
+                            if (receivedBytes < frame.outboundBytes) {
+                                return;
+                            }
+                            // Responses are timed relative to their request.
+                            anchorNanos = System.nanoTime();
+                            anchorTimestampNanos = frame.timestampNanos;
+                        }
+                        next++;
+                        continue;
+                    }
+                    if (pacing == Pacing.ORIGINAL) {
+                        long delayNanos = anchorNanos + (frame.timestampNanos - anchorTimestampNanos) - System.nanoTime();
+                        if (delayNanos > 0) {
+                            scheduled = true;
+                            ctx.executor().schedule(() -> {
+                                scheduled = false;
+                                replay(ctx);
+                            }, delayNanos, TimeUnit.NANOSECONDS);
+                            return;
+                        }
+                    }
+                    ctx.write(Unpooled.wrappedBuffer(frame.payload));
+                    next++;
+                }
+                completion.complete(null);
+            } finally {
+                ctx.flush();
+            }
+        }
+    }
+
+    public static class PcapngReplayChannelFactoryBuilder {
+        private final Path capture;
+        private Pacing pacing = Pacing.ORIGINAL;
+        private boolean awaitRequests = true;
+        private int devicePort;
+
+        private PcapngReplayChannelFactoryBuilder(Path capture) {
+            this.capture = Objects.requireNonNull(capture);
+        }
+
+        public PcapngReplayChannelFactoryBuilder pacing(Pacing pacing) {
+            this.pacing = Objects.requireNonNull(pacing);
+            return this;
+        }
+
+        /**
+         * Whether replaying a response waits for the driver to send the preceding request, enabled by default.
+         */
+        public PcapngReplayChannelFactoryBuilder awaitRequests(boolean awaitRequests) {
+            this.awaitRequests = awaitRequests;
+            return this;
+        }
+
+        /**
+         * Port of the device, only needed for captures without recorded directions.
+         */
+        public PcapngReplayChannelFactoryBuilder devicePort(int devicePort) {
+            if (devicePort < 1 || devicePort > 0xFFFF) {
+                throw new IllegalArgumentException("devicePort must be a valid port");
+            }
+            this.devicePort = devicePort;
+            return this;
+        }
+
+        public PcapngReplayChannelFactory build() {
+            return new PcapngReplayChannelFactory(capture, pacing, awaitRequests, devicePort);
+        }
+    }
+
+}
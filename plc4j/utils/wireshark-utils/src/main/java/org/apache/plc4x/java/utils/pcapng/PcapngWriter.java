@@ -0,0 +1,488 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes packets with nanosecond timestamps to a pcapng file, optionally rolling over to a new file once a file
+ * reaches a maximum size.
+ * <p>
+ * Blocks are assembled in a direct buffer, which is handed to a writer thread of its own once it is full, once its
+ * first block is older than the {@link #setMaxFlushInterval(Duration) maximum flush interval} and on {@link #flush()}.
+ * While the writer thread writes one buffer to the {@link FileChannel}, packets go into a second one, so capturing
+ * only waits for the file if the disk can't keep up. A file being written can be read at any time, it ends after the
+ * last block written so far.
+ * <p>
+ * Writing is synchronized, so a writer can be shared by several channels. Each file starts with its own section
+ * header and interface description, so every file of a rolling capture can be opened on its own.
+ */
+public class PcapngWriter implements Closeable {
+
+    public static final int LINK_TYPE_ETHERNET = 1;
+
+    /**
+     * Packets start with an IPv4 or IPv6 header.
+     */
+    public static final int LINK_TYPE_RAW = 101;
+
+    static final int SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+
+    static final int INTERFACE_DESCRIPTION_BLOCK = 0x00000001;
+
+    static final int ENHANCED_PACKET_BLOCK = 0x00000006;
+
+    static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+
+    static final short OPTION_END = 0;
+
+    static final short OPTION_IF_TSRESOL = 9;
+
+    static final short OPTION_EPB_FLAGS = 2;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final Duration DEFAULT_MAX_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+    private static final int SECTION_HEADER_LENGTH = 28;
+
+    private static final int INTERFACE_DESCRIPTION_LENGTH = 32;
+
+    private final Path path;
+
+    private final int linkType;
+
+    private final long maxFileSize;
+
+    private final int maxFiles;
+
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+
+    // Writes, closes and deletes for the writer thread, in the order they were requested.
+    private final Deque<IoTask> pending = new ArrayDeque<>();
+
+    private final Deque<Path> files = new ArrayDeque<>();
+
+    private final Thread writerThread;
+
+    private ByteBuffer buffer;
+
+    private long firstBlockNanos;
+
+    private long maxFlushIntervalNanos = DEFAULT_MAX_FLUSH_INTERVAL.toNanos();
+
+    private boolean writing;
+
+    private IOException failure;
+
+    private FileChannel channel;
+
+    private Path currentFile;
+
+    private long currentFileSize;
+
+    private int nextFileIndex;
+
+    private long packetsWritten;
+
+    private PcapngWriter(Path path, int linkType, long maxFileSize, int maxFiles, int bufferSize) throws IOException {
+        this.path = path;
+        this.linkType = linkType;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.freeBuffers.add(ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN));
+        synchronized (this) {
+            openNextFile();
+        }
+        writerThread = new Thread(this::writeBuffers, "pcapng-writer-" + path.getFileName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Writes all packets to a single file, replacing an existing one.
+     */
+    public static PcapngWriter open(Path file, int linkType) throws IOException {
+        return new PcapngWriter(file, linkType, Long.MAX_VALUE, Integer.MAX_VALUE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes packets to numbered files, e.g. {@code capture-0.pcapng}, {@code capture-1.pcapng} for the file
+     * {@code capture.pcapng}, starting a new file once a file reaches the given size.
+     *
+     * @param maxFileSize maximum size of a file in bytes, a single packet exceeding it still gets its own file.
+     * @param maxFiles    number of files to keep, the oldest file is deleted when a new one exceeds it.
+     */
+    public static PcapngWriter rolling(Path file, int linkType, long maxFileSize, int maxFiles) throws IOException {
+        if (maxFileSize <= SECTION_HEADER_LENGTH + INTERFACE_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("maxFileSize must be larger than the file header");
+        }
+        if (maxFiles < 1) {
+            throw new IllegalArgumentException("maxFiles must be at least 1");
+        }
+        return new PcapngWriter(file, linkType, maxFileSize, maxFiles, (int) Math.min(DEFAULT_BUFFER_SIZE, maxFileSize));
+    }
+
+    /**
+     * Appends a packet made up of the remaining bytes of the given buffers, their positions are not modified.
+     *
+     * @param timestampNanos capture time in nanoseconds since the epoch.
+     */
+    public synchronized void writePacket(long timestampNanos, PcapngDirection direction, ByteBuffer... parts) throws IOException {
+        if (channel == null) {
+            throw new IOException("Writer is closed");
+        }
+        checkFailure();
+        int length = 0;
+        for (ByteBuffer part : parts) {
+            length += part.remaining();
+        }
+        int optionsLength = (direction != PcapngDirection.UNKNOWN) ? 12 : 0;
+        int blockLength = 32 + pad(length) + optionsLength;
+        if (currentFileSize + blockLength > maxFileSize && currentFileSize > SECTION_HEADER_LENGTH + INTERFACE_DESCRIPTION_LENGTH) {
+            rollOver();
+        }
+        ByteBuffer block = reserve(blockLength);
+        block.putInt(ENHANCED_PACKET_BLOCK);
+        block.putInt(blockLength);
+        // Interface id
+        block.putInt(0);
+        block.putInt((int) (timestampNanos >>> 32));
+        block.putInt((int) timestampNanos);
+        block.putInt(length);
+        block.putInt(length);
+        for (ByteBuffer part : parts) {
+            block.put(part.duplicate());
+        }
+        padTo4(block, length);
+        if (direction != PcapngDirection.UNKNOWN) {
+            block.putShort(OPTION_EPB_FLAGS);
+            block.putShort((short) 4);
+            block.putInt(direction.getFlags());
+            block.putShort(OPTION_END);
+            block.putShort((short) 0);
+        }
+        block.putInt(blockLength);
+        commit(block);
+        currentFileSize += blockLength;
+        packetsWritten++;
+    }
+
+    /**
+     * Writes all buffered packets to the file, waiting until they are written.
+     */
+    public synchronized void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        handOff();
+        try {
+            while (!pending.isEmpty() || writing) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing");
+        }
+        checkFailure();
+    }
+
+    /**
+     * Hands all buffered packets to the writer thread without waiting until they are written.
+     */
+    public synchronized void scheduleFlush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        handOff();
+    }
+
+    /**
+     * Sets the maximum time packets stay buffered before they are written to the file, one second by default.
+     */
+    public synchronized void setMaxFlushInterval(Duration maxFlushInterval) {
+        if (maxFlushInterval.isNegative() || maxFlushInterval.isZero()) {
+            throw new IllegalArgumentException("maxFlushInterval must be positive");
+        }
+        maxFlushIntervalNanos = maxFlushInterval.toNanos();
+        notifyAll();
+    }
+
+    /**
+     * @return the file packets are currently written to.
+     */
+    public synchronized Path getCurrentFile() {
+        return currentFile;
+    }
+
+    public synchronized long getPacketsWritten() {
+        return packetsWritten;
+    }
+
+    /**
+     * Writes all buffered packets, closes the file and stops the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            try {
+                handOff();
+            } finally {
+                FileChannel lastChannel = channel;
+                enqueue(lastChannel::close);
+                channel = null;
+            }
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing");
+        }
+        synchronized (this) {
+            checkFailure();
+        }
+    }
+
+    private void rollOver() throws IOException {
+        handOff();
+        FileChannel previousChannel = channel;
+        enqueue(previousChannel::close);
+        openNextFile();
+    }
+
+    private void openNextFile() throws IOException {
+        currentFile = (maxFileSize == Long.MAX_VALUE) ? path : numberedFile(nextFileIndex++);
+        channel = FileChannel.open(currentFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        files.addLast(currentFile);
+        while (files.size() > maxFiles) {
+            // Deleted by the writer thread, after the last writes to the file.
+            Path oldestFile = files.removeFirst();
+            enqueue(() -> Files.deleteIfExists(oldestFile));
+        }
+        currentFileSize = 0;
+        writeFileHeader();
+    }
+
+    private Path numberedFile(int index) {
+        String name = path.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        String numberedName = (extension > 0)
+            ? name.substring(0, extension) + "-" + index + name.substring(extension)
+            : name + "-" + index;
+        return path.resolveSibling(numberedName);
+    }
+
+    private void writeFileHeader() throws IOException {
+        ByteBuffer block = reserve(SECTION_HEADER_LENGTH + INTERFACE_DESCRIPTION_LENGTH);
+        block.putInt(SECTION_HEADER_BLOCK);
+        block.putInt(SECTION_HEADER_LENGTH);
+        block.putInt(BYTE_ORDER_MAGIC);
+        // Version 1.0
+        block.putShort((short) 1);
+        block.putShort((short) 0);
+        // Section length not specified
+        block.putLong(-1L);
+        block.putInt(SECTION_HEADER_LENGTH);
+
+        block.putInt(INTERFACE_DESCRIPTION_BLOCK);
+        block.putInt(INTERFACE_DESCRIPTION_LENGTH);
+        block.putShort((short) linkType);
+        // Reserved
+        block.putShort((short) 0);
+        // No snapshot length limit
+        block.putInt(0);
+        // Timestamps in nanoseconds (10^-9)
+        block.putShort(OPTION_IF_TSRESOL);
+        block.putShort((short) 1);
+        block.put((byte) 9);
+        padTo4(block, 1);
+        block.putShort(OPTION_END);
+        block.putShort((short) 0);
+        block.putInt(INTERFACE_DESCRIPTION_LENGTH);
+        commit(block);
+        currentFileSize += SECTION_HEADER_LENGTH + INTERFACE_DESCRIPTION_LENGTH;
+    }
+
+    /**
+     * @return a buffer with room for the given number of bytes, either the shared buffer or, for blocks larger than
+     * it, a buffer of their own.
+     */
+    private ByteBuffer reserve(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            handOff();
+            if (buffer.remaining() < length) {
+                return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        if (buffer.position() == 0) {
+            firstBlockNanos = System.nanoTime();
+        }
+        return buffer;
+    }
+
+    private void commit(ByteBuffer block) {
+        if (block == buffer) {
+            return;
+        }
+        block.flip();
+        FileChannel target = channel;
+        enqueue(() -> writeFully(target, block));
+    }
+
+    /**
+     * Hands the shared buffer to the writer thread and continues with the free one, waiting for it if the writer
+     * thread is still busy with it.
+     */
+    private void handOff() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        try {
+            while (freeBuffers.isEmpty()) {
+                checkFailure();
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free buffer");
+        }
+        ByteBuffer full = buffer;
+        buffer = freeBuffers.removeFirst();
+        full.flip();
+        FileChannel target = channel;
+        enqueue(() -> {
+            try {
+                writeFully(target, full);
+            } finally {
+                synchronized (this) {
+                    full.clear();
+                    freeBuffers.add(full);
+                    notifyAll();
+                }
+            }
+        });
+    }
+
+    private void enqueue(IoTask task) {
+        pending.addLast(task);
+        notifyAll();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Writing the capture failed", failure);
+        }
+    }
+
+    private void writeBuffers() {
+        while (true) {
+            IoTask task;
+            synchronized (this) {
+                try {
+                    while (pending.isEmpty()) {
+                        if (channel == null) {
+                            return;
+                        }
+                        awaitTask();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (IOException e) {
+                    failure = e;
+                    return;
+                }
+                task = pending.removeFirst();
+                writing = true;
+            }
+            try {
+                task.run();
+            } catch (IOException e) {
+                synchronized (this) {
+                    // The following tasks still run, so buffers are recycled and files closed.
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    writing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    // Must be called with the lock held, hands off the shared buffer once its first block is due.
+    private void awaitTask() throws InterruptedException, IOException {
+        if (buffer.position() == 0) {
+            wait();
+            return;
+        }
+        long remaining = firstBlockNanos + maxFlushIntervalNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } else if (freeBuffers.isEmpty()) {
+            // The other buffer is still being written, it is recycled with a notify.
+            wait();
+        } else {
+            handOff();
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            target.write(data);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private static int pad(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private static void padTo4(ByteBuffer block, int length) {
+        for (int i = length; i < pad(length); i++) {
+            block.put((byte) 0);
+        }
+    }
+
+}
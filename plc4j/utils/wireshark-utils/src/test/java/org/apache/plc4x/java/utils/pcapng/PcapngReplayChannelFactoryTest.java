@@ -0,0 +1,167 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class PcapngReplayChannelFactoryTest implements WithAssertions {
+
+    private Path directory;
+
+    private Path capture;
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("pcapng");
+        capture = directory.resolve("capture.pcapng");
+        try (PcapngWriter writer = PcapngWriter.open(capture, PcapngWriter.LINK_TYPE_RAW)) {
+            EmbeddedChannel channel = new EmbeddedChannel(new PcapngCaptureHandler(writer));
+            channel.writeOutbound(ascii("req1"));
+            channel.writeInbound(ascii("resp1"));
+            channel.writeOutbound(ascii("req2"));
+            channel.writeInbound(ascii("resp2"));
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    void captureRecordsDirectionsAndHeaders() throws Exception {
+        try (PcapngReader reader = PcapngReader.open(capture)) {
+            PcapngPacket request = reader.next();
+            assertThat(request.getDirection()).isEqualTo(PcapngDirection.OUTBOUND);
+            assertThat(request.getTimestampNanos()).isPositive();
+            // IPv4 + TCP header in front of the payload.
+            assertThat(request.getData()).hasSize(40 + 4);
+            assertThat(request.getData()[0]).isEqualTo((byte) 0x45);
+            assertThat(reader.next().getDirection()).isEqualTo(PcapngDirection.INBOUND);
+        }
+        assertThat(PcapngReplayChannelFactory.readFrames(capture, 0))
+            .extracting(frame -> new String(frame.getPayload(), StandardCharsets.US_ASCII))
+            .containsExactly("req1", "resp1", "req2", "resp2");
+    }
+
+    @Test
+    void replayAwaitsRequests() throws Exception {
+        PcapngReplayChannelFactory factory = PcapngReplayChannelFactory.builder(capture)
+            .pacing(PcapngReplayChannelFactory.Pacing.MAXIMUM)
+            .build();
+        Channel channel = factory.createChannel(new Collector());
+        try {
+            assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+            channel.writeAndFlush(ascii("req1"));
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo("resp1");
+            assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+            channel.writeAndFlush(ascii("req2"));
+            assertThat(received.poll(2, TimeUnit.SECONDS)).isEqualTo("resp2");
+            factory.getReplayCompletion().get(2, TimeUnit.SECONDS);
+        } finally {
+            channel.close().sync();
+        }
+    }
+
+    @Test
+    void replayWithoutRequests() throws Exception {
+        PcapngReplayChannelFactory factory = PcapngReplayChannelFactory.builder(capture)
+            .awaitRequests(false)
+            .build();
+        Channel channel = factory.createChannel(new Collector());
+        try {
+            factory.getReplayCompletion().get(2, TimeUnit.SECONDS);
+            StringBuilder responses = new StringBuilder();
+            while (responses.length() < "resp1resp2".length()) {
+                responses.append(received.poll(2, TimeUnit.SECONDS));
+            }
+            assertThat(responses.toString()).isEqualTo("resp1resp2");
+        } finally {
+            channel.close().sync();
+        }
+    }
+
+    @Test
+    void foreignCaptureNeedsDevicePort() throws Exception {
+        Path foreign = directory.resolve("foreign.pcapng");
+        try (PcapngWriter writer = PcapngWriter.open(foreign, PcapngWriter.LINK_TYPE_ETHERNET)) {
+            writer.writePacket(1, PcapngDirection.UNKNOWN, Unpooled.wrappedBuffer(ethernet(50000, 102, "req")).nioBuffer());
+            writer.writePacket(2, PcapngDirection.UNKNOWN, Unpooled.wrappedBuffer(ethernet(102, 50000, "resp")).nioBuffer());
+        }
+
+        assertThat(PcapngReplayChannelFactory.readFrames(foreign, 0)).isEmpty();
+        assertThat(PcapngReplayChannelFactory.readFrames(foreign, 102))
+            .extracting(PcapngReplayChannelFactory.ReplayFrame::isOutbound)
+            .containsExactly(true, false);
+    }
+
+    private static ByteBuf ascii(String value) {
+        return Unpooled.copiedBuffer(value, StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] ethernet(int sourcePort, int destinationPort, String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = new byte[14 + 40 + bytes.length];
+        frame[12] = 0x08;
+        frame[14] = 0x45;
+        frame[16] = (byte) ((40 + bytes.length) >> 8);
+        frame[17] = (byte) (40 + bytes.length);
+        frame[23] = 6;
+        frame[34] = (byte) (sourcePort >> 8);
+        frame[35] = (byte) sourcePort;
+        frame[36] = (byte) (destinationPort >> 8);
+        frame[37] = (byte) destinationPort;
+        frame[46] = 0x50;
+        System.arraycopy(bytes, 0, frame, 54, bytes.length);
+        return frame;
+    }
+
+    private class Collector extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            received.add(((ByteBuf) msg).toString(StandardCharsets.US_ASCII));
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+Licensed to the Apache Software Foundation (ASF) under one
+or more contributor license agreements.  See the NOTICE file
+distributed with this work for additional information
+regarding copyright ownership.  The ASF licenses this file
+to you under the Apache License, Version 2.0 (the
+"License"); you may not use this file except in compliance
+with the License.  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing,
+software distributed under the License is distributed on an
+"AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+KIND, either express or implied.  See the License for the
+specific language governing permissions and limitations
+under the License.
+*/
+package org.apache.plc4x.java.utils.pcapng;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.WithAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class PcapngWriterTest implements WithAssertions {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("pcapng");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    void roundtrip() throws Exception {
+        Path file = directory.resolve("capture.pcapng");
+        try (PcapngWriter writer = PcapngWriter.open(file, PcapngWriter.LINK_TYPE_RAW)) {
+            writer.writePacket(1_500_000_000_123_456_789L, PcapngDirection.OUTBOUND, bytes("req"));
+            writer.writePacket(1_500_000_000_223_456_789L, PcapngDirection.INBOUND, bytes("resp"), bytes("onse"));
+            writer.writePacket(1_500_000_001_000_000_000L, PcapngDirection.UNKNOWN, bytes("x"));
+            assertThat(writer.getPacketsWritten()).isEqualTo(3);
+        }
+
+        try (PcapngReader reader = PcapngReader.open(file)) {
+            PcapngPacket first = reader.next();
+            assertThat(first.getTimestampNanos()).isEqualTo(1_500_000_000_123_456_789L);
+            assertThat(first.getLinkType()).isEqualTo(PcapngWriter.LINK_TYPE_RAW);
+            assertThat(first.getDirection()).isEqualTo(PcapngDirection.OUTBOUND);
+            assertThat(new String(first.getData(), StandardCharsets.US_ASCII)).isEqualTo("req");
+
+            PcapngPacket second = reader.next();
+            assertThat(second.getTimestampNanos()).isEqualTo(1_500_000_000_223_456_789L);
+            assertThat(second.getDirection()).isEqualTo(PcapngDirection.INBOUND);
+            assertThat(new String(second.getData(), StandardCharsets.US_ASCII)).isEqualTo("response");
+
+            PcapngPacket third = reader.next();
+            assertThat(third.getDirection()).isEqualTo(PcapngDirection.UNKNOWN);
+            assertThat(third.getData()).containsExactly('x');
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void rolling() throws Exception {
+        Path file = directory.resolve("capture.pcapng");
+        try (PcapngWriter writer = PcapngWriter.rolling(file, PcapngWriter.LINK_TYPE_RAW, 256, 2)) {
+            for (int i = 0; i < 20; i++) {
+                writer.writePacket(i, PcapngDirection.INBOUND, ByteBuffer.wrap(new byte[64]));
+            }
+            assertThat(writer.getCurrentFile().getFileName().toString()).matches("capture-\\d+\\.pcapng");
+        }
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.collect(Collectors.toList());
+        }
+        assertThat(files).hasSize(2).doesNotContain(directory.resolve("capture-0.pcapng"));
+        for (Path rolled : files) {
+            assertThat(Files.size(rolled)).isLessThanOrEqualTo(256);
+            try (PcapngReader reader = PcapngReader.open(rolled)) {
+                assertThat(reader.next().getData()).hasSize(64);
+            }
+        }
+    }
+
+    @Test
+    void readableWhileCapturing() throws Exception {
+        Path file = directory.resolve("capture.pcapng");
+        try (PcapngWriter writer = PcapngWriter.open(file, PcapngWriter.LINK_TYPE_RAW)) {
+            writer.setMaxFlushInterval(Duration.ofMillis(20));
+            writer.writePacket(1, PcapngDirection.OUTBOUND, bytes("req"));
+
+            // Written by the writer thread once the flush interval passed, without any flush or close.
+            assertThat(await(() -> packets(file))).containsExactly("req");
+
+            writer.writePacket(2, PcapngDirection.INBOUND, bytes("resp"));
+            writer.flush();
+            assertThat(packets(file)).containsExactly("req", "resp");
+        }
+    }
+
+    @Test
+    void flushesLargePacketsInOrder() throws Exception {
+        Path file = directory.resolve("capture.pcapng");
+        try (PcapngWriter writer = PcapngWriter.open(file, PcapngWriter.LINK_TYPE_RAW)) {
+            for (int i = 0; i < 10; i++) {
+                // Every other packet is larger than the buffers of the writer.
+                writer.writePacket(i, PcapngDirection.INBOUND, ByteBuffer.wrap(new byte[i % 2 == 0 ? 8 : 3 << 19]));
+            }
+            writer.flush();
+            try (PcapngReader reader = PcapngReader.open(file)) {
+                for (int i = 0; i < 10; i++) {
+                    assertThat(reader.next().getTimestampNanos()).isEqualTo(i);
+                }
+                assertThat(reader.next()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void closedWriterRejectsPackets() throws Exception {
+        PcapngWriter writer = PcapngWriter.open(directory.resolve("capture.pcapng"), PcapngWriter.LINK_TYPE_RAW);
+        writer.close();
+        writer.close();
+
+        assertThatThrownBy(() -> writer.writePacket(1, PcapngDirection.INBOUND, bytes("x")))
+            .isInstanceOf(IOException.class);
+    }
+
+    private static List<String> packets(Path file) throws IOException {
+        List<String> packets = new ArrayList<>();
+        try (PcapngReader reader = PcapngReader.open(file)) {
+            PcapngPacket packet;
+            while ((packet = reader.next()) != null) {
+                packets.add(new String(packet.getData(), StandardCharsets.US_ASCII));
+            }
+        }
+        return packets;
+    }
+
+    private static List<String> await(Callable<List<String>> packets) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<String> current = packets.call();
+        while (current.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            current = packets.call();
+        }
+        return current;
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+}